@@ -0,0 +1,173 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las operaciones sobre contactos de {@link Agenda} para distintos
+ * tamaños de agenda.
+ * <p>
+ * Las altas modifican la agenda, así que se miden de a lotes de
+ * {@link #LOTE} contactos preparados de antemano, en una única medición por
+ * iteración, y se deshacen al terminar cada iteración. Así no hace falta
+ * preparar ni deshacer nada entre invocaciones, lo que distorsionaría la
+ * medición de operaciones tan cortas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AgendaContactosBenchmark {
+
+    /**
+     * La cantidad de altas que se miden en cada iteración.
+     */
+    static final int LOTE = 1_000;
+
+    /**
+     * La cantidad de contactos de la agenda.
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int contactos;
+
+    /**
+     * La agenda sobre la que se mide.
+     */
+    private Agenda agenda;
+    /**
+     * Los contactos agendados, en el orden en que fueron generados.
+     */
+    private List<Contacto> agendados;
+    /**
+     * Contactos que no están en la agenda, para medir sus altas.
+     */
+    private List<Contacto> nuevos;
+    /**
+     * La posición del próximo contacto a agregar.
+     */
+    private int siguienteNuevo;
+    /**
+     * La posición del próximo contacto a buscar.
+     */
+    private int siguiente;
+
+    /**
+     * Genera la agenda una única vez por ejecución.
+     */
+    @Setup(Level.Trial)
+    public void prepararAgenda() {
+        this.agendados =
+                GeneradorDeDatos.contactos(this.contactos, GeneradorDeDatos.SEMILLA);
+        this.agenda = GeneradorDeDatos.agenda(this.agendados);
+        this.nuevos = new ArrayList<>(LOTE);
+        for (int i = 0; i < LOTE; i++) {
+            this.nuevos.add(GeneradorDeDatos.contactoNuevo(this.contactos, i));
+        }
+        this.siguiente = 0;
+        this.siguienteNuevo = 0;
+    }
+
+    /**
+     * Quita los contactos agregados por {@link #agregarContacto()} durante la
+     * iteración, para que la agenda conserve su tamaño entre iteraciones.
+     *
+     * @throws ContactoNoEncontradoEnAgendaException Si un contacto no fue agregado.
+     */
+    @TearDown(Level.Iteration)
+    public void quitarContactosNuevos() throws ContactoNoEncontradoEnAgendaException {
+        for (int i = 0; i < this.siguienteNuevo; i++) {
+            this.agenda.eliminarContacto(this.nuevos.get(i));
+        }
+        this.siguienteNuevo = 0;
+    }
+
+    /**
+     * Obtiene el próximo contacto agendado, recorriéndolos en forma circular.
+     *
+     * @return Un contacto de la agenda.
+     */
+    private Contacto proximoContacto() {
+        Contacto contacto = this.agendados.get(this.siguiente);
+        this.siguiente = (this.siguiente + 1) % this.agendados.size();
+        return contacto;
+    }
+
+    /**
+     * Mide el alta de un contacto, incluyendo la verificación de duplicados.
+     * El resultado es el tiempo de un lote de {@link #LOTE} altas.
+     *
+     * @throws ContactoDuplicadoException Si el contacto ya estaba agendado.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = LOTE)
+    @Measurement(batchSize = LOTE)
+    public void agregarContacto() throws ContactoDuplicadoException {
+        this.agenda.agregarContacto(this.nuevos.get(this.siguienteNuevo));
+        this.siguienteNuevo++;
+    }
+
+    /**
+     * Mide la búsqueda de un contacto existente por su DNI.
+     *
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no existe.
+     */
+    @Benchmark
+    public Contacto buscarContactoPorDni() throws ContactoNoEncontradoEnAgendaException {
+        return this.agenda.buscarContactoPorDni(proximoContacto().obtenerDni());
+    }
+
+    /**
+     * Mide la búsqueda de un contacto existente por su nombre.
+     *
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no existe.
+     */
+    @Benchmark
+    public Contacto buscarContactoPorNombre()
+            throws ContactoNoEncontradoEnAgendaException {
+        return this.agenda.buscarContactoPorNombre(proximoContacto().obtenerNombre());
+    }
+
+    /**
+     * Mide el listado completo de contactos ordenados por nombre.
+     *
+     * @return Los contactos ordenados.
+     * @throws AgendaDeContactosVaciaException Si la agenda está vacía.
+     */
+    @Benchmark
+    public List<Contacto> listarContactosPorNombre()
+            throws AgendaDeContactosVaciaException {
+        return this.agenda.listarContactosPorNombre();
+    }
+
+    /**
+     * Mide el listado completo de contactos ordenados por fecha de nacimiento.
+     *
+     * @return Los contactos ordenados.
+     * @throws AgendaDeContactosVaciaException Si la agenda está vacía.
+     */
+    @Benchmark
+    public List<Contacto> listarContactosPorNacimiento()
+            throws AgendaDeContactosVaciaException {
+        return this.agenda.listarContactosPorNacimiento();
+    }
+}
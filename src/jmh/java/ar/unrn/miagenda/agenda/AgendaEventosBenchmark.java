@@ -0,0 +1,171 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las operaciones sobre eventos de {@link Agenda} para distintos
+ * tamaños de agenda y cantidades de invitados por evento.
+ * <p>
+ * Todas las operaciones medidas modifican la agenda, así que se miden de a
+ * lotes de {@link #LOTE} operaciones, en una única medición por iteración,
+ * sobre datos preparados al comenzar la iteración. Así no hace falta
+ * preparar ni deshacer nada entre invocaciones, lo que distorsionaría la
+ * medición de operaciones tan cortas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(batchSize = AgendaEventosBenchmark.LOTE)
+@Measurement(batchSize = AgendaEventosBenchmark.LOTE)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AgendaEventosBenchmark {
+
+    /**
+     * La cantidad de operaciones que se miden en cada iteración.
+     */
+    static final int LOTE = 1_000;
+    /**
+     * La cantidad de eventos creados antes de medir.
+     */
+    private static final int EVENTOS = 1_000;
+
+    /**
+     * La cantidad de contactos de la agenda.
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int contactos;
+    /**
+     * La cantidad de invitados de cada evento.
+     */
+    @Param({"10", "100", "1000"})
+    private int invitados;
+
+    /**
+     * La agenda sobre la que se mide.
+     */
+    private Agenda agenda;
+    /**
+     * Un evento ya creado en la agenda.
+     */
+    private Evento existente;
+    /**
+     * Los eventos a crear, uno por invocación de {@link #crearEvento()}.
+     */
+    private List<Evento> aCrear;
+    /**
+     * Contactos agendados que no están invitados a {@link #existente}, uno
+     * por invocación de {@link #agregarInvitadoEvento()}.
+     */
+    private List<Contacto> noInvitados;
+    /**
+     * Contactos agendados e invitados a {@link #existente}, uno por
+     * invocación de {@link #eliminarContacto()}.
+     */
+    private List<Contacto> aEliminar;
+    /**
+     * La cantidad de invocaciones de la iteración actual.
+     */
+    private int invocaciones;
+
+    /**
+     * Genera la agenda, sus eventos y los datos de cada invocación al
+     * comenzar cada iteración, ya que las operaciones medidas no se deshacen.
+     *
+     * @throws ContactoDuplicadoException Si un contacto adicional ya existe.
+     * @throws EventoNoEncontradoException Si el evento existente no está agendado.
+     * @throws ContactoYaInvitadoException Si un contacto ya estaba invitado.
+     * @throws ContactoNoEncontradoEnAgendaException Si un contacto no está agendado.
+     */
+    @Setup(Level.Iteration)
+    public void prepararAgenda()
+            throws ContactoDuplicadoException,
+            EventoNoEncontradoException,
+            ContactoYaInvitadoException,
+            ContactoNoEncontradoEnAgendaException {
+        List<Contacto> agendados =
+                GeneradorDeDatos.contactos(this.contactos, GeneradorDeDatos.SEMILLA);
+        this.agenda = GeneradorDeDatos.agenda(agendados);
+        List<Evento> eventos = GeneradorDeDatos.eventos(this.agenda, agendados,
+                EVENTOS, this.invitados, GeneradorDeDatos.SEMILLA);
+        this.existente = eventos.get(0);
+        Random azar = new Random(GeneradorDeDatos.SEMILLA);
+        this.aCrear = new ArrayList<>(LOTE);
+        this.noInvitados = new ArrayList<>(LOTE);
+        this.aEliminar = new ArrayList<>(LOTE);
+        for (int i = 0; i < LOTE; i++) {
+            this.aCrear.add(GeneradorDeDatos.evento(EVENTOS + i, agendados,
+                    this.invitados, azar));
+            Contacto noInvitado = GeneradorDeDatos.contactoNuevo(this.contactos, i);
+            this.agenda.agregarContacto(noInvitado);
+            this.noInvitados.add(noInvitado);
+            Contacto invitado = GeneradorDeDatos.contactoNuevo(this.contactos, LOTE + i);
+            this.agenda.agregarContacto(invitado);
+            this.agenda.agregarInvitadoEvento(this.existente, invitado);
+            this.aEliminar.add(invitado);
+        }
+        this.invocaciones = 0;
+    }
+
+    /**
+     * Mide la creación de un evento, incluyendo la validación de invitados.
+     *
+     * @throws EventoDuplicadoException Si el evento ya existe.
+     * @throws ContactoNoEncontradoEnAgendaException Si un invitado no está agendado.
+     */
+    @Benchmark
+    public void crearEvento()
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        this.agenda.crearEvento(this.aCrear.get(this.invocaciones));
+        this.invocaciones++;
+    }
+
+    /**
+     * Mide la invitación de un contacto a un evento existente.
+     *
+     * @throws ContactoYaInvitadoException Si el contacto ya estaba invitado.
+     * @throws EventoNoEncontradoException Si el evento no está agendado.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no está agendado.
+     */
+    @Benchmark
+    public void agregarInvitadoEvento()
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        this.agenda.agregarInvitadoEvento(this.existente,
+                this.noInvitados.get(this.invocaciones));
+        this.invocaciones++;
+    }
+
+    /**
+     * Mide la eliminación de un contacto invitado a un evento, incluyendo la
+     * quita de sus invitaciones.
+     *
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no está agendado.
+     */
+    @Benchmark
+    public void eliminarContacto() throws ContactoNoEncontradoEnAgendaException {
+        this.agenda.eliminarContacto(this.aEliminar.get(this.invocaciones));
+        this.invocaciones++;
+    }
+}
@@ -0,0 +1,192 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Genera contactos y eventos de prueba de forma reproducible: con la misma
+ * semilla se obtienen siempre los mismos datos, de modo que los resultados
+ * de distintas versiones sean comparables.
+ */
+public final class GeneradorDeDatos {
+
+    /**
+     * La semilla por defecto de los generadores.
+     */
+    public static final long SEMILLA = 20_240_607L;
+    /**
+     * El primer número de DNI generado.
+     */
+    private static final int PRIMER_DNI = 10_000_000;
+    /**
+     * Divisor para separar los miles de un número de DNI.
+     */
+    private static final int MIL = 1_000;
+    /**
+     * Primer día de nacimiento posible, como día desde la época.
+     */
+    private static final long PRIMER_NACIMIENTO = LocalDate.of(1940, 1, 1).toEpochDay();
+    /**
+     * Cantidad de días posibles de nacimiento.
+     */
+    private static final int DIAS_NACIMIENTO = 80 * 365;
+    /**
+     * Primer día posible de un evento.
+     */
+    private static final LocalDate PRIMER_EVENTO = LocalDate.of(2024, 1, 1);
+    /**
+     * Cantidad de días posibles de un evento.
+     */
+    private static final int DIAS_EVENTO = 3 * 365;
+    /**
+     * Los nombres de pila empleados.
+     */
+    private static final String[] NOMBRES = {
+        "Alma", "Demian", "Karina", "Gastón", "Juan", "María", "José", "Lucía",
+        "Martín", "Sofía", "Mateo", "Valentina", "Tomás", "Camila", "Benjamín",
+        "Agustina", "Nicolás", "Julieta", "Joaquín", "Florencia",
+    };
+    /**
+     * Los apellidos empleados.
+     */
+    private static final String[] APELLIDOS = {
+        "Prat", "Castañeda", "Reyes", "Pérez", "González", "Rodríguez", "Gómez",
+        "Fernández", "López", "Díaz", "Martínez", "Romero", "Sosa", "Álvarez",
+        "Torres", "Ruiz", "Ramírez", "Flores", "Acosta", "Benítez", "Medina",
+        "Herrera", "Suárez", "Aguirre", "Giménez", "Gutiérrez", "Pereyra",
+    };
+
+    /**
+     * Constructor privado, la clase solo expone métodos estáticos.
+     */
+    private GeneradorDeDatos() {
+    }
+
+    /**
+     * Genera contactos con DNI distintos, en orden aleatorio.
+     *
+     * @param cantidad La cantidad de contactos a generar.
+     * @param semilla La semilla del generador.
+     * @return Los contactos generados.
+     */
+    public static List<Contacto> contactos(int cantidad, long semilla) {
+        Random azar = new Random(semilla);
+        List<Contacto> contactos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            contactos.add(contacto(PRIMER_DNI + i, azar));
+        }
+        Collections.shuffle(contactos, azar);
+        return contactos;
+    }
+
+    /**
+     * Genera un contacto cuyo DNI no coincide con ninguno de los generados
+     * por {@link #contactos(int, long)} para la misma cantidad.
+     *
+     * @param cantidad La cantidad de contactos generados previamente.
+     * @param numero Un número para distinguir contactos adicionales.
+     * @return El contacto generado.
+     */
+    public static Contacto contactoNuevo(int cantidad, int numero) {
+        return contacto(PRIMER_DNI + cantidad + numero, new Random(numero));
+    }
+
+    /**
+     * Genera un evento con invitados elegidos al azar entre los contactos.
+     *
+     * @param numero El número del evento, que determina su nombre.
+     * @param contactos Los contactos de la agenda.
+     * @param invitados La cantidad de invitados del evento.
+     * @param azar El generador de números aleatorios.
+     * @return El evento generado.
+     */
+    public static Evento evento(int numero, List<Contacto> contactos, int invitados,
+                                Random azar) {
+        List<Contacto> elegidos = new ArrayList<>(invitados);
+        for (int i = 0; i < invitados; i++) {
+            elegidos.add(contactos.get(azar.nextInt(contactos.size())));
+        }
+        LocalDate fecha = PRIMER_EVENTO.plusDays(azar.nextInt(DIAS_EVENTO));
+        return new Evento("Evento " + numero, fecha, elegidos);
+    }
+
+    /**
+     * Crea una agenda con los contactos indicados.
+     *
+     * @param contactos Los contactos a agregar.
+     * @return La agenda creada.
+     */
+    public static Agenda agenda(List<Contacto> contactos) {
+        Agenda agenda = new Agenda();
+        try {
+            for (Contacto contacto : contactos) {
+                agenda.agregarContacto(contacto);
+            }
+        } catch (ContactoDuplicadoException e) {
+            throw new IllegalStateException("El generador produjo un DNI repetido", e);
+        }
+        return agenda;
+    }
+
+    /**
+     * Crea eventos en la agenda indicada.
+     *
+     * @param agenda La agenda en la que se crean los eventos.
+     * @param contactos Los contactos de la agenda.
+     * @param cantidad La cantidad de eventos a crear.
+     * @param invitados La cantidad de invitados de cada evento.
+     * @param semilla La semilla del generador.
+     * @return Los eventos creados.
+     */
+    public static List<Evento> eventos(Agenda agenda, List<Contacto> contactos,
+                                       int cantidad, int invitados, long semilla) {
+        Random azar = new Random(semilla);
+        List<Evento> eventos = new ArrayList<>(cantidad);
+        try {
+            for (int i = 0; i < cantidad; i++) {
+                Evento evento = evento(i, contactos, invitados, azar);
+                agenda.crearEvento(evento);
+                eventos.add(evento);
+            }
+        } catch (EventoDuplicadoException | ContactoNoEncontradoEnAgendaException e) {
+            throw new IllegalStateException("El generador produjo un evento invalido", e);
+        }
+        return eventos;
+    }
+
+    /**
+     * Genera un contacto con el número de DNI indicado.
+     *
+     * @param numeroDni El número de DNI.
+     * @param azar El generador de números aleatorios.
+     * @return El contacto generado.
+     */
+    private static Contacto contacto(int numeroDni, Random azar) {
+        String nombre = NOMBRES[azar.nextInt(NOMBRES.length)] + " "
+                + APELLIDOS[azar.nextInt(APELLIDOS.length)];
+        LocalDate nacimiento =
+                LocalDate.ofEpochDay(PRIMER_NACIMIENTO + azar.nextInt(DIAS_NACIMIENTO));
+        return new Contacto(nombre, formatearDni(numeroDni), nacimiento);
+    }
+
+    /**
+     * Da formato a un número de DNI con separadores de miles, por ejemplo
+     * "44.121.248".
+     *
+     * @param numero El número de DNI.
+     * @return El DNI con formato.
+     */
+    private static String formatearDni(int numero) {
+        return String.format("%d.%03d.%03d", numero / (MIL * MIL),
+                numero / MIL % MIL, numero % MIL);
+    }
+}
@@ -0,0 +1,143 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Informa la memoria que ocupa cada implementación de agenda por cada
+ * millón de contactos. A diferencia de los benchmarks, no mide tiempos: llena
+ * cada agenda con los mismos contactos generados, descarta la lista original
+ * y mide cuánto creció el heap luego de forzar una recolección, junto con la
+ * memoria directa reservada fuera del heap.
+ * <p>
+ * Se ejecuta con {@code java -cp <clases jmh> ar.unrn.miagenda.agenda.MemoriaDeAgendas
+ * [contactos]}; conviene fijar el tamaño del heap con {@code -Xms} y
+ * {@code -Xmx} para que las mediciones sean comparables. Las agendas que
+ * guardan sus datos fuera del heap ocupan en él pocos kilobytes, por lo que
+ * su medición queda dentro del margen de error y puede resultar negativa si
+ * durante ella se liberan restos de las mediciones anteriores.
+ */
+public final class MemoriaDeAgendas {
+
+    /**
+     * La cantidad de contactos por defecto.
+     */
+    private static final int CONTACTOS_POR_DEFECTO = 1_000_000;
+    /**
+     * La cantidad de contactos que se informan por medición.
+     */
+    private static final double MILLON = 1_000_000.0;
+    /**
+     * La cantidad de bytes de un mebibyte.
+     */
+    private static final double MEBIBYTE = 1024.0 * 1024.0;
+    /**
+     * La cantidad de recolecciones que se fuerzan antes de medir, para que
+     * el heap se estabilice.
+     */
+    private static final int RECOLECCIONES = 3;
+
+    /**
+     * Constructor privado, la clase solo expone el punto de entrada.
+     */
+    private MemoriaDeAgendas() {
+    }
+
+    /**
+     * Mide la memoria de cada implementación de agenda e imprime el informe.
+     *
+     * @param args Opcionalmente, la cantidad de contactos a cargar.
+     * @throws ContactoDuplicadoException Si el generador produce un DNI repetido.
+     */
+    public static void main(String[] args) throws ContactoDuplicadoException {
+        int cantidad = CONTACTOS_POR_DEFECTO;
+        if (args.length > 0) {
+            cantidad = Integer.parseInt(args[0]);
+        }
+        System.out.printf("%-20s %14s %14s %14s%n", "Agenda", "MiB heap",
+                "MiB/millon", "MiB directa");
+        informar("Agenda", cantidad, Agenda::new);
+        informar("AgendaCompacta", cantidad, AgendaCompacta::new);
+        informar("AgendaFueraDelHeap", cantidad, AgendaFueraDelHeap::new);
+    }
+
+    /**
+     * Mide e imprime la memoria de una implementación de agenda.
+     *
+     * @param nombre El nombre de la implementación.
+     * @param cantidad La cantidad de contactos a cargar.
+     * @param fabrica Crea una agenda vacía de la implementación.
+     * @throws ContactoDuplicadoException Si el generador produce un DNI repetido.
+     */
+    private static void informar(String nombre, int cantidad,
+                                 Supplier<IAgenda> fabrica)
+            throws ContactoDuplicadoException {
+        long antes = heapUsado();
+        long directaAntes = memoriaDirecta();
+        IAgenda agenda = llenar(fabrica.get(), cantidad);
+        long ocupados = heapUsado() - antes;
+        long directa = memoriaDirecta() - directaAntes;
+        System.out.printf("%-20s %14.1f %14.1f %14.1f%n", nombre, ocupados / MEBIBYTE,
+                ocupados / MEBIBYTE * (MILLON / cantidad), directa / MEBIBYTE);
+        if (agenda.cantidadTotalContactos() != cantidad) {
+            throw new IllegalStateException("La agenda no conserva sus contactos");
+        }
+    }
+
+    /**
+     * Llena una agenda con contactos generados. La lista de contactos se
+     * descarta al terminar, por lo que solo sobreviven los que conserve la
+     * agenda.
+     *
+     * @param agenda La agenda a llenar.
+     * @param cantidad La cantidad de contactos.
+     * @return La agenda llena.
+     * @throws ContactoDuplicadoException Si el generador produce un DNI repetido.
+     */
+    private static IAgenda llenar(IAgenda agenda, int cantidad)
+            throws ContactoDuplicadoException {
+        List<Contacto> contactos =
+                GeneradorDeDatos.contactos(cantidad, GeneradorDeDatos.SEMILLA);
+        agenda.agregarContactos(contactos);
+        // Los órdenes de las agendas compactas se calculan en la primera consulta.
+        agenda.consultarContactosPorNombre(0, 1);
+        agenda.consultarContactosPorNacimiento(0, 1);
+        agenda.buscarContactosPorPrefijo("", 1);
+        return agenda;
+    }
+
+    /**
+     * Obtiene la memoria usada del heap luego de forzar varias recolecciones.
+     *
+     * @return La cantidad de bytes usados.
+     */
+    private static long heapUsado() {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < RECOLECCIONES; i++) {
+            memoria.gc();
+        }
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Obtiene la memoria reservada por los buffers directos.
+     *
+     * @return La cantidad de bytes reservados fuera del heap.
+     */
+    private static long memoriaDirecta() {
+        long total = 0;
+        for (BufferPoolMXBean pool
+                : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                total = total + pool.getMemoryUsed();
+            }
+        }
+        return total;
+    }
+}
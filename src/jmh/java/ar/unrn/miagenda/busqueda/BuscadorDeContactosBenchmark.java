@@ -0,0 +1,69 @@
+package ar.unrn.miagenda.busqueda;
+
+import ar.unrn.miagenda.agenda.GeneradorDeDatos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la búsqueda de texto libre de {@link BuscadorDeContactos} para
+ * distintos tamaños de índice. Se mide por muestreo, de modo que JMH informe
+ * los percentiles de la duración y no solo el promedio.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BuscadorDeContactosBenchmark {
+
+    /**
+     * La cantidad de resultados pedidos en cada búsqueda.
+     */
+    private static final int RESULTADOS = 10;
+
+    /**
+     * La cantidad de contactos indexados.
+     */
+    @Param({"10000", "100000", "1000000"})
+    private int contactos;
+
+    /**
+     * La consulta a medir: una palabra exacta, un prefijo corto, un nombre
+     * mal escrito o nombre y apellido.
+     */
+    @Param({"castaneda", "mar", "gonzales", "demian castaneda"})
+    private String consulta;
+
+    /**
+     * El índice sobre el que se mide.
+     */
+    private BuscadorDeContactos buscador;
+
+    /**
+     * Genera el índice una única vez por ejecución.
+     */
+    @Setup(Level.Trial)
+    public void prepararIndice() {
+        this.buscador = new BuscadorDeContactos();
+        this.buscador.agregarTodos(
+                GeneradorDeDatos.contactos(this.contactos, GeneradorDeDatos.SEMILLA));
+    }
+
+    /**
+     * Mide una búsqueda de los contactos más relevantes.
+     *
+     * @return Los contactos encontrados.
+     */
+    @Benchmark
+    public List<ResultadoDeBusqueda> buscar() {
+        return this.buscador.buscar(this.consulta, RESULTADOS);
+    }
+}
@@ -1,270 +1,1375 @@
-package ar.unrn.miagenda.agenda;
-
-import ar.unrn.miagenda.contacto.Contacto;
-import ar.unrn.miagenda.evento.Evento;
-import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
-import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
-import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
-import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
-import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
-import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
-import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
-import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
-
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-
-/**
- * Clase que representa una agenda que gestiona contactos y eventos.
- */
-public class Agenda implements IAgenda {
-
-    /**
-     * La lista de contactos gestionados por la agenda.
-     */
-    private List<Contacto> contactos;
-    /**
-     * La lista de eventos gestionados por la agenda.
-     */
-    private List<Evento> eventos;
-
-    /**
-     * Constructor que inicializa una nueva instancia de la clase {@link Agenda}.
-     */
-    public Agenda() {
-        this.contactos = new ArrayList<>();
-        this.eventos = new ArrayList<>();
-    }
-    /**
-     * Agrega un contacto a la agenda.
-     *
-     * @param contacto El contacto que se desea agregar.
-     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
-     */
-    @Override
-    public void agregarContacto(Contacto contacto)
-            throws ContactoDuplicadoException {
-        for (Contacto contactoAgenda : this.contactos) {
-            if (contactoAgenda.obtenerDni().equals(contacto.obtenerDni())) {
-                throw new ContactoDuplicadoException("Ya existe un"
-                        + "contacto con ese numero de DNI");
-            }
-        }
-        this.contactos.add(contacto);
-    }
-
-    /**
-     * Elimina un contacto de la agenda mediante su DNI.
-     *
-     * @param contacto El contacto que se desea eliminar.
-     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
-     * el contacto en la agenda
-     */
-    @Override
-    public void eliminarContacto(Contacto contacto)
-            throws ContactoNoEncontradoEnAgendaException {
-        if (!(verificarExistenciaContacto(contacto))) {
-            throw new ContactoNoEncontradoEnAgendaException("El contacto "
-                    + "que desea eliminar no existe");
-        } else {
-            this.contactos.remove(contacto);
-            // Eliminar el contacto de todos los eventos donde esté invitado
-            for (Evento evento : this.eventos) {
-                evento.quitarInvitado(contacto);
-            }
-        }
-    }
-
-    /**
-     * Busca un contacto en la agenda por su nombre.
-     *
-     * @param nombre El nombre del contacto a buscar.
-     * @return El contacto encontrado.
-     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
-     * contacto con el nombre especificado.
-     */
-    @Override
-    public Contacto buscarContactoPorNombre(String nombre)
-            throws ContactoNoEncontradoEnAgendaException {
-        for (Contacto contactoAgenda : this.contactos) {
-            if ((contactoAgenda.obtenerNombre().equalsIgnoreCase(nombre))) {
-                return contactoAgenda;
-            }
-        } throw new ContactoNoEncontradoEnAgendaException("No se encuentra"
-                + " un contacto con ese nombre");
-    }
-
-    /**
-     * Busca un contacto en la agenda por su DNI.
-     *
-     * @param dni El DNI del contacto a buscar.
-     * @return El contacto encontrado.
-     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
-     * un contacto con el DNI especificado.
-     */
-    @Override
-    public Contacto buscarContactoPorDni(String dni)
-            throws ContactoNoEncontradoEnAgendaException {
-        for (Contacto contactoAgenda : this.contactos) {
-            if ((contactoAgenda.obtenerDni().equals(dni))) {
-                return contactoAgenda;
-            }
-        } throw new ContactoNoEncontradoEnAgendaException("No se encuentra"
-                + " un contacto con ese DNI");
-    }
-
-    /**
-     * Lista los contactos ordenados por fecha de nacimiento.
-     *
-     * @return Una lista de contactos ordenada por fecha de nacimiento.
-     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
-     */
-    @Override
-    public List<Contacto> listarContactosPorNacimiento()
-            throws AgendaDeContactosVaciaException {
-        if (this.contactos.isEmpty()) {
-            throw new AgendaDeContactosVaciaException("No hay contactos en la agenda.");
-        }
-        List<Contacto> contactosOrdenados = new ArrayList<>(this.contactos);
-        contactosOrdenados.sort(Comparator.comparing(Contacto::obtenerFechaNacimiento));
-        return contactosOrdenados;
-    }
-
-    /**
-     * Lista los contactos ordenados alfabéticamente por nombre.
-     *
-     * @return Una lista de contactos ordenada por nombre.
-     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
-     */
-    @Override
-    public List<Contacto> listarContactosPorNombre()
-            throws AgendaDeContactosVaciaException {
-        if (this.contactos.isEmpty()) {
-            throw new AgendaDeContactosVaciaException("No hay contactos en la agenda.");
-        }
-        List<Contacto> contactosOrdenados = new ArrayList<>(this.contactos);
-        contactosOrdenados.sort(Comparator.comparing(Contacto::obtenerNombre));
-        return contactosOrdenados;
-    }
-
-    /**
-     * Obtiene la cantidad total de contactos en la agenda.
-     *
-     * @return El número total de contactos.
-     */
-    @Override
-    public int cantidadTotalContactos() {
-        return this.contactos.size();
-    }
-
-    /**
-     * Verifica si un contacto ya existe en la agenda.
-     *
-     * @param contacto El contacto a verificar.
-     * @return {@code true} si el contacto ya existe, {@code false} en caso contrario.
-     */
-    @Override
-    public boolean verificarExistenciaContacto(Contacto contacto) {
-        return this.contactos.contains(contacto);
-    }
-
-    /**
-     * Limpia todos los contactos y eventos de la agenda.
-     */
-    @Override
-    public void limpiarAgenda() {
-        this.contactos.clear();
-        this.eventos.clear();
-    }
-
-    /**
-     * Crea un evento en la agenda.
-     *
-     * @param evento El evento a ser creado.
-     * @throws EventoDuplicadoException Si el evento ya existe.
-     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
-     * se encuentra en la agenda.
-     */
-    @Override
-    public void crearEvento(Evento evento)
-            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
-        for (Contacto contactoInvitado : evento.obtenerInvitadosEvento()) {
-            if (!verificarExistenciaContacto(contactoInvitado)) {
-                String nombreContacto = contactoInvitado.obtenerNombre();
-                throw new ContactoNoEncontradoEnAgendaException("El contacto ("
-                        + nombreContacto + ") no esta en la Agenda");
-            }
-        }
-        if (this.eventos.contains(evento)) {
-            throw new EventoDuplicadoException("Ese evento ya existe en la Agenda.");
-        } else {
-            this.eventos.add(evento);
-        }
-    }
-
-    /**
-     * Agrega un contacto a la lista de invitados del evento.
-     *
-     * @param evento El evento en el cual se quiere agregar un invitado.
-     * @param contacto El contacto a agregar.
-     * @throws ContactoYaInvitadoException si el contacto ya esta invitado.
-     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
-     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra el
-     * contacto en la agenda.
-     */
-    @Override
-    public void agregarInvitadoEvento(Evento evento, Contacto contacto)
-            throws ContactoYaInvitadoException,
-            EventoNoEncontradoException,
-            ContactoNoEncontradoEnAgendaException {
-        if (!this.eventos.contains(evento)) {
-            throw new EventoNoEncontradoException("No existe ese evento en la agenda");
-        } else if (evento.obtenerInvitadosEvento().contains(contacto)) {
-            throw new ContactoYaInvitadoException("El contacto "
-                    + "ya esta invitado al evento");
-        } else if (!verificarExistenciaContacto(contacto)) {
-            throw new ContactoNoEncontradoEnAgendaException("El contacto que intenta "
-                    + "invitar no se encuentra agendado");
-        } else {
-            evento.agregarInvitado(contacto);
-        }
-    }
-
-    /**
-     * Elimina un contacto de la lista de invitados del evento.
-     *
-     * @param evento El evento del cual se quiere quitar un invitado.
-     * @param contacto El contacto a eliminar.
-     * @throws ContactoNoEncontradoEnEventoException Si no se encuentra un contacto.
-     * @throws EventoNoEncontradoException Si el evento no se encuentra en la agenda.
-     */
-    @Override
-    public void quitarInvitadoEvento(Evento evento, Contacto contacto)
-            throws EventoNoEncontradoException, ContactoNoEncontradoEnEventoException {
-        if (!this.eventos.contains(evento)) {
-            throw new EventoNoEncontradoException("No existe ese evento en la agenda");
-        } else if (!evento.obtenerInvitadosEvento().contains(contacto)) {
-            throw new ContactoNoEncontradoEnEventoException("El contacto que "
-                    + "intenta eliminar no esta invitado al evento");
-        } else {
-            evento.quitarInvitado(contacto);
-        }
-    }
-
-    /**
-     * Lista todos los eventos de la agenda.
-     *
-     * @return Una lista de eventos registrados en la agenda.
-     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
-     */
-    @Override
-    public List<Evento> listarEventos() throws AgendaDeEventosVaciaException {
-        if (this.eventos.isEmpty()) {
-            throw new AgendaDeEventosVaciaException("No hay eventos en la agenda");
-        } else {
-            return Collections.unmodifiableList(eventos);
-        }
-    }
-}
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.evento.ObservadorDeInvitados;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Clase que representa una agenda que gestiona contactos y eventos.
+ */
+public class Agenda implements IAgenda {
+
+    /**
+     * Año bisiesto de referencia para numerar los días del año, de modo que
+     * el 29 de febrero tenga su propia posición.
+     */
+    private static final int ANIO_BISIESTO = 2000;
+    /**
+     * Cantidad de días de un año bisiesto.
+     */
+    private static final int DIAS_ANIO_BISIESTO = 366;
+    /**
+     * Orden total de los eventos, consistente con su igualdad por nombre y
+     * fecha.
+     */
+    private static final Comparator<Evento> ORDEN_DE_EVENTOS = Comparator
+            .comparing(Evento::obtenerFechaEvento,
+                    Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(Evento::obtenerNombreEvento,
+                    Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+    /**
+     * Los contactos gestionados por la agenda, indexados por su DNI
+     * normalizado y en el orden en que fueron agregados.
+     */
+    private Map<String, Contacto> contactos;
+    /**
+     * Los contactos por su DNI normalizado en un índice persistente, que las
+     * instantáneas comparten sin copiarlo.
+     */
+    private IndiceOrdenado<String, Contacto> contactosPorDni;
+    /**
+     * Índice de los contactos por nombre normalizado, sin distinguir
+     * mayúsculas ni acentos.
+     */
+    private IndiceOrdenado<String, Contacto> contactosPorNombre;
+    /**
+     * Índice de los contactos ordenados alfabéticamente por su nombre.
+     */
+    private IndiceOrdenado<String, Contacto> contactosOrdenadosPorNombre;
+    /**
+     * Índice de los contactos ordenados por fecha de nacimiento.
+     */
+    private IndiceOrdenado<LocalDate, Contacto> contactosPorNacimiento;
+    /**
+     * Índice de los contactos por el día del año de su cumpleaños, numerado
+     * según un año bisiesto.
+     */
+    private IndiceOrdenado<Integer, Contacto> contactosPorCumpleanios;
+    /**
+     * Los eventos gestionados por la agenda, indexados por su posición en el
+     * orden de creación. Como los eventos no se quitan de a uno, la posición
+     * de cada evento es la cantidad de eventos que había al crearlo.
+     */
+    private IndiceOrdenado<Integer, Evento> eventos;
+    /**
+     * Los eventos registrados en la agenda, para obtener la instancia
+     * agendada a partir de cualquier evento igual.
+     */
+    private Map<Evento, Evento> eventosRegistrados;
+    /**
+     * Índice de los eventos ordenados por fecha.
+     */
+    private IndiceOrdenado<LocalDate, Evento> eventosPorFecha;
+    /**
+     * Índice inverso con los eventos a los que está invitado cada contacto,
+     * en el orden en que fue invitado.
+     */
+    private Map<Contacto, Set<Evento>> eventosPorContacto;
+    /**
+     * Los invitados de cada evento tal como los vio la última instantánea,
+     * en un índice persistente que las instantáneas comparten sin copiarlo.
+     */
+    private IndiceOrdenado<Evento, List<Contacto>> invitadosCongelados;
+    /**
+     * Los eventos cuyos invitados cambiaron desde la última instantánea.
+     */
+    private Set<Evento> invitadosPendientes;
+    /**
+     * Obtiene la instancia que se guarda como clave de cada nombre
+     * normalizado, para compartirla entre agendas si se desea.
+     */
+    private final UnaryOperator<String> clavesDeNombre;
+    /**
+     * Mantiene el índice inverso al día con los cambios en los invitados de
+     * los eventos registrados, incluidos los hechos directamente sobre ellos.
+     */
+    private final ObservadorDeInvitados observadorDeInvitados;
+    /**
+     * Los índices vigentes de la agenda, expuestos para planificar consultas.
+     */
+    private final IndicesDeAgenda indicesVigentes;
+    /**
+     * El hilo que está modificando los invitados de un evento a través de la
+     * agenda, o {@code null}; la operación registra el cambio una única vez al
+     * terminar.
+     */
+    private Thread modificandoInvitados;
+    /**
+     * Indica si se rechazan los cambios hechos directamente sobre los
+     * invitados de los eventos registrados.
+     */
+    private volatile boolean cambiosDirectosRechazados;
+    /**
+     * La cantidad de modificaciones que recibió la agenda desde su creación.
+     */
+    private long version;
+    /**
+     * La última instantánea tomada, compartida por todos los lectores hasta
+     * la próxima modificación; {@code null} si debe tomarse de nuevo.
+     */
+    private volatile InstantaneaAgenda instantanea;
+    /**
+     * El monitor bajo el que se construye la instantánea, para que varios
+     * lectores concurrentes no congelen los invitados pendientes a la vez.
+     */
+    private final Object construccionDeInstantanea = new Object();
+
+    /**
+     * Constructor que inicializa una nueva instancia de la clase {@link Agenda}.
+     */
+    public Agenda() {
+        this(UnaryOperator.identity());
+    }
+
+    /**
+     * Constructor que crea una agenda que guarda cada nombre normalizado del
+     * índice por nombre con la instancia que indica la función, de modo que
+     * varias agendas puedan compartir las claves repetidas.
+     *
+     * @param compartirClaves Obtiene la instancia a guardar de cada nombre
+     *                        normalizado; debe devolver un texto igual.
+     */
+    public Agenda(UnaryOperator<String> compartirClaves) {
+        this.clavesDeNombre = compartirClaves;
+        this.contactos = new LinkedHashMap<>();
+        this.contactosPorDni = IndiceOrdenado.porOrdenNatural();
+        this.contactosPorNombre = IndiceOrdenado.porOrdenNatural();
+        this.contactosOrdenadosPorNombre = IndiceOrdenado.porOrdenNatural();
+        this.contactosPorNacimiento = IndiceOrdenado.porOrdenNatural();
+        this.contactosPorCumpleanios = IndiceOrdenado.porOrdenNatural();
+        this.eventos = IndiceOrdenado.porOrdenNatural();
+        this.eventosRegistrados = new HashMap<>();
+        this.eventosPorFecha = IndiceOrdenado.porOrdenNatural();
+        this.eventosPorContacto = new HashMap<>();
+        this.invitadosCongelados = new IndiceOrdenado<>(ORDEN_DE_EVENTOS);
+        this.invitadosPendientes = new HashSet<>();
+        this.observadorDeInvitados = new IndiceDeInvitaciones();
+        this.indicesVigentes = new IndicesVigentes();
+        this.version = 0;
+    }
+
+    /**
+     * Agrega un contacto a la agenda.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     */
+    @Override
+    public void agregarContacto(Contacto contacto)
+            throws ContactoDuplicadoException {
+        if (this.contactos.containsKey(contacto.obtenerDniNormalizado())) {
+            throw new ContactoDuplicadoException("Ya existe un"
+                    + "contacto con ese numero de DNI");
+        }
+        indexarContacto(contacto);
+        registrarCambio();
+    }
+
+    /**
+     * Agrega varios contactos a la agenda en una única modificación. Todo el
+     * lote se valida antes de modificar la agenda, por lo que si algún
+     * contacto no puede agregarse no se agrega ninguno.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     */
+    @Override
+    public void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException {
+        Set<String> dnisDelLote = new HashSet<>(capacidadPara(nuevos.size()));
+        for (Contacto contacto : nuevos) {
+            String dni = contacto.obtenerDniNormalizado();
+            if (this.contactos.containsKey(dni) || !dnisDelLote.add(dni)) {
+                throw new ContactoDuplicadoException("Ya existe un contacto con el "
+                        + "DNI " + contacto.obtenerDni());
+            }
+        }
+        if (nuevos.isEmpty()) {
+            return;
+        }
+        for (Contacto contacto : nuevos) {
+            indexarContacto(contacto);
+        }
+        registrarCambio();
+    }
+
+    /**
+     * Obtiene la clave de un contacto en el índice por nombre normalizado.
+     *
+     * @param contacto El contacto.
+     * @return El nombre normalizado, con la instancia a guardar en el índice.
+     */
+    private String claveDeNombre(Contacto contacto) {
+        return this.clavesDeNombre.apply(
+                Normalizador.normalizarNombre(contacto.obtenerNombre()));
+    }
+
+    /**
+     * Agrega un contacto ya validado a todos los índices.
+     *
+     * @param contacto El contacto a agregar.
+     */
+    private void indexarContacto(Contacto contacto) {
+        this.contactos.put(contacto.obtenerDniNormalizado(), contacto);
+        this.contactosPorDni.poner(contacto.obtenerDniNormalizado(), contacto);
+        this.contactosPorNombre.agregar(claveDeNombre(contacto), contacto);
+        this.contactosOrdenadosPorNombre.agregar(contacto.obtenerNombre(), contacto);
+        this.contactosPorNacimiento.agregar(contacto.obtenerFechaNacimiento(), contacto);
+        this.contactosPorCumpleanios.agregar(
+                diaDelAnio(contacto.obtenerFechaNacimiento()), contacto);
+    }
+
+    /**
+     * Elimina un contacto de la agenda mediante su DNI.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * el contacto en la agenda
+     */
+    @Override
+    public void eliminarContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        if (!(verificarExistenciaContacto(contacto))) {
+            throw new ContactoNoEncontradoEnAgendaException("El contacto "
+                    + "que desea eliminar no existe");
+        } else {
+            Contacto eliminado = this.contactos.remove(contacto.obtenerDniNormalizado());
+            this.contactosPorDni.quitar(eliminado.obtenerDniNormalizado(), eliminado);
+            this.contactosPorNombre.quitar(
+                    Normalizador.normalizarNombre(eliminado.obtenerNombre()), eliminado);
+            this.contactosOrdenadosPorNombre.quitar(eliminado.obtenerNombre(), eliminado);
+            this.contactosPorNacimiento.quitar(
+                    eliminado.obtenerFechaNacimiento(), eliminado);
+            this.contactosPorCumpleanios.quitar(
+                    diaDelAnio(eliminado.obtenerFechaNacimiento()), eliminado);
+            // Eliminar el contacto de los eventos donde esté invitado
+            Set<Evento> invitaciones = this.eventosPorContacto.remove(eliminado);
+            if (invitaciones != null) {
+                this.modificandoInvitados = Thread.currentThread();
+                try {
+                    for (Evento evento : invitaciones) {
+                        evento.quitarInvitado(eliminado);
+                    }
+                } finally {
+                    this.modificandoInvitados = null;
+                }
+            }
+            registrarCambio();
+        }
+    }
+
+    /**
+     * Busca un contacto en la agenda por su nombre, sin distinguir mayúsculas
+     * ni acentos. Si hay varios contactos con el mismo nombre se devuelve el
+     * primero que fue agregado.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
+     * contacto con el nombre especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorNombre(String nombre)
+            throws ContactoNoEncontradoEnAgendaException {
+        Contacto encontrado =
+                this.contactosPorNombre.buscar(Normalizador.normalizarNombre(nombre));
+        if (encontrado == null) {
+            throw new ContactoNoEncontradoEnAgendaException("No se encuentra"
+                    + " un contacto con ese nombre");
+        }
+        return encontrado;
+    }
+
+    /**
+     * Busca los contactos cuyo nombre comienza con el prefijo indicado, sin
+     * distinguir mayúsculas ni acentos. Solo se recorren los nombres que
+     * coinciden con el prefijo.
+     *
+     * @param prefijo El comienzo del nombre a buscar.
+     * @param cantidadMaxima La cantidad máxima de contactos a devolver.
+     * @return Los contactos encontrados, ordenados por nombre.
+     */
+    @Override
+    public List<Contacto> buscarContactosPorPrefijo(String prefijo, int cantidadMaxima) {
+        if (cantidadMaxima < 0) {
+            throw new IllegalArgumentException("La cantidad maxima no puede "
+                    + "ser negativa");
+        }
+        String desde = Normalizador.normalizarPrefijo(prefijo);
+        return this.contactosPorNombre.rango(desde, desde + Character.MAX_VALUE,
+                false, cantidadMaxima);
+    }
+
+    /**
+     * Busca un contacto en la agenda por su DNI.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * un contacto con el DNI especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorDni(String dni)
+            throws ContactoNoEncontradoEnAgendaException {
+        Contacto contactoAgenda = this.contactos.get(Normalizador.normalizarDni(dni));
+        if (contactoAgenda == null) {
+            throw new ContactoNoEncontradoEnAgendaException("No se encuentra"
+                    + " un contacto con ese DNI");
+        }
+        return contactoAgenda;
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento. El orden se
+     * mantiene al agregar y eliminar contactos, por lo que no se reordena
+     * en cada llamada.
+     *
+     * @return Una lista de solo lectura ordenada por fecha de nacimiento.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento()
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNacimiento();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNacimiento(desde, cantidad);
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre. El orden se
+     * mantiene al agregar y eliminar contactos, por lo que no se reordena
+     * en cada llamada.
+     *
+     * @return Una lista de solo lectura ordenada por nombre.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre()
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNombre();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNombre(desde, cantidad);
+    }
+
+    /**
+     * Lista los contactos nacidos entre dos fechas, ambas inclusive, ordenados
+     * por fecha de nacimiento. Solo se recorren los contactos del rango.
+     *
+     * @param desde La fecha de nacimiento inicial.
+     * @param hasta La fecha de nacimiento final.
+     * @return Los contactos nacidos en el rango, vacío si no hay ninguno.
+     */
+    public List<Contacto> listarContactosNacidosEntre(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser "
+                    + "posterior a la final");
+        }
+        return this.contactosPorNacimiento.rango(desde, hasta, true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lista los contactos que cumplen años entre dos días del año, ambos
+     * inclusive. Si el día inicial es posterior al final, la ventana continúa
+     * a través del fin de año. Los contactos se devuelven en el orden en que
+     * ocurren sus cumpleaños dentro de la ventana.
+     *
+     * @param desde El primer día de la ventana.
+     * @param hasta El último día de la ventana.
+     * @return Los contactos que cumplen años en la ventana.
+     */
+    public List<Contacto> listarCumpleaniosEntre(MonthDay desde, MonthDay hasta) {
+        return cumpleaniosEnVentana(diaDelAnio(desde), diaDelAnio(hasta));
+    }
+
+    /**
+     * Lista los contactos que cumplen años en los próximos días a partir de una
+     * fecha, incluyendo esa fecha. Los contactos nacidos un 29 de febrero se
+     * incluyen en años no bisiestos si la ventana pasa del 28 de febrero al 1
+     * de marzo.
+     *
+     * @param desde La fecha a partir de la cual se buscan cumpleaños.
+     * @param dias La cantidad de días posteriores a incluir.
+     * @return Los contactos que cumplen años en la ventana, en orden de cumpleaños.
+     */
+    public List<Contacto> listarProximosCumpleanios(LocalDate desde, int dias) {
+        if (dias < 0) {
+            throw new IllegalArgumentException("La cantidad de dias no puede "
+                    + "ser negativa");
+        }
+        int inicio = diaDelAnio(MonthDay.from(desde));
+        if (dias >= DIAS_ANIO_BISIESTO - 1) {
+            int fin = inicio == 1 ? DIAS_ANIO_BISIESTO : inicio - 1;
+            return cumpleaniosEnVentana(inicio, fin);
+        }
+        int fin = diaDelAnio(MonthDay.from(desde.plusDays(dias)));
+        return cumpleaniosEnVentana(inicio, fin);
+    }
+
+    /**
+     * Obtiene los contactos cuyo cumpleaños cae en una ventana de días del
+     * año, continuando a través del fin de año si es necesario.
+     *
+     * @param desde El primer día de la ventana.
+     * @param hasta El último día de la ventana.
+     * @return Los contactos de la ventana, en orden de cumpleaños.
+     */
+    private List<Contacto> cumpleaniosEnVentana(int desde, int hasta) {
+        if (desde <= hasta) {
+            return this.contactosPorCumpleanios.rango(desde, hasta, true,
+                    Integer.MAX_VALUE);
+        }
+        List<Contacto> resultado = this.contactosPorCumpleanios.rango(desde,
+                DIAS_ANIO_BISIESTO, true, Integer.MAX_VALUE);
+        resultado.addAll(this.contactosPorCumpleanios.rango(1, hasta, true,
+                Integer.MAX_VALUE));
+        return resultado;
+    }
+
+    /**
+     * Calcula el día del año de una fecha, numerado según un año bisiesto.
+     *
+     * @param fecha La fecha, puede ser {@code null}.
+     * @return El día del año, o {@code null} si no se indicó fecha.
+     */
+    private static Integer diaDelAnio(LocalDate fecha) {
+        if (fecha == null) {
+            return null;
+        }
+        return diaDelAnio(MonthDay.from(fecha));
+    }
+
+    /**
+     * Calcula el día del año de un día y mes, numerado según un año bisiesto.
+     *
+     * @param dia El día y mes.
+     * @return El día del año, entre 1 y 366.
+     */
+    private static int diaDelAnio(MonthDay dia) {
+        return dia.atYear(ANIO_BISIESTO).getDayOfYear();
+    }
+
+    /**
+     * Verifica que la agenda tenga al menos un contacto.
+     *
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    private void verificarAgendaConContactos() throws AgendaDeContactosVaciaException {
+        if (this.contactos.isEmpty()) {
+            throw new AgendaDeContactosVaciaException("No hay contactos en la agenda.");
+        }
+    }
+
+    /**
+     * Obtiene la cantidad total de contactos en la agenda.
+     *
+     * @return El número total de contactos.
+     */
+    @Override
+    public int cantidadTotalContactos() {
+        return this.contactos.size();
+    }
+
+    /**
+     * Verifica si un contacto ya existe en la agenda.
+     *
+     * @param contacto El contacto a verificar.
+     * @return {@code true} si el contacto ya existe, {@code false} en caso contrario.
+     */
+    @Override
+    public boolean verificarExistenciaContacto(Contacto contacto) {
+        return contacto != null
+                && this.contactos.containsKey(contacto.obtenerDniNormalizado());
+    }
+
+    /**
+     * Limpia todos los contactos y eventos de la agenda.
+     */
+    @Override
+    public void limpiarAgenda() {
+        this.contactos.clear();
+        this.contactosPorDni.limpiar();
+        this.contactosPorNombre.limpiar();
+        this.contactosOrdenadosPorNombre.limpiar();
+        this.contactosPorNacimiento.limpiar();
+        this.contactosPorCumpleanios.limpiar();
+        for (Evento evento : this.eventos.valores()) {
+            evento.quitarObservador(this.observadorDeInvitados);
+        }
+        this.eventos.limpiar();
+        this.eventosRegistrados.clear();
+        this.eventosPorFecha.limpiar();
+        this.eventosPorContacto.clear();
+        this.invitadosCongelados.limpiar();
+        this.invitadosPendientes.clear();
+        registrarCambio();
+    }
+
+    /**
+     * Crea un evento en la agenda.
+     *
+     * @param evento El evento a ser creado.
+     * @throws EventoDuplicadoException Si el evento ya existe.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEvento(Evento evento)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        verificarInvitadosAgendados(evento);
+        if (this.eventosRegistrados.containsKey(evento)) {
+            throw new EventoDuplicadoException("Ese evento ya existe en la Agenda.");
+        } else {
+            registrarEvento(evento);
+            registrarCambio();
+        }
+    }
+
+    /**
+     * Crea varios eventos en la agenda en una única modificación. Todo el
+     * lote se valida antes de modificar la agenda, por lo que si algún evento
+     * no puede crearse no se crea ninguno.
+     *
+     * @param nuevos Los eventos a ser creados, en orden.
+     * @throws EventoDuplicadoException Si algún evento ya existe o se repite
+     * dentro del lote.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEventos(Collection<Evento> nuevos)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        Set<Evento> eventosDelLote = new HashSet<>(capacidadPara(nuevos.size()));
+        for (Evento evento : nuevos) {
+            verificarInvitadosAgendados(evento);
+            if (this.eventosRegistrados.containsKey(evento)
+                    || !eventosDelLote.add(evento)) {
+                throw new EventoDuplicadoException("El evento "
+                        + evento.obtenerNombreEvento() + " ya existe en la Agenda.");
+            }
+        }
+        if (nuevos.isEmpty()) {
+            return;
+        }
+        for (Evento evento : nuevos) {
+            registrarEvento(evento);
+        }
+        registrarCambio();
+    }
+
+    /**
+     * Carga sobre una agenda vacía todos sus contactos y eventos en una única
+     * modificación. Todo el contenido se valida antes de modificar la agenda,
+     * y luego cada índice se arma en bloque a partir de los elementos
+     * ordenados, sin pasar por las inserciones de a uno.
+     *
+     * @param nuevos Los contactos a cargar.
+     * @param nuevosEventos Los eventos a cargar, en orden, con sus invitados.
+     * @throws ContactoDuplicadoException Si el DNI de algún contacto se repite.
+     * @throws EventoDuplicadoException Si algún evento se repite.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún invitado no está
+     * entre los contactos cargados.
+     * @throws IllegalStateException Si la agenda no está vacía.
+     */
+    @Override
+    public void cargarContenido(Collection<Contacto> nuevos,
+                                Collection<Evento> nuevosEventos)
+            throws ContactoDuplicadoException, EventoDuplicadoException,
+            ContactoNoEncontradoEnAgendaException {
+        if (!this.contactos.isEmpty() || this.eventos.tamanio() > 0) {
+            throw new IllegalStateException("La agenda no está vacía");
+        }
+        Map<String, Contacto> porDni = new HashMap<>(capacidadPara(nuevos.size()));
+        for (Contacto contacto : nuevos) {
+            if (porDni.putIfAbsent(contacto.obtenerDniNormalizado(), contacto) != null) {
+                throw new ContactoDuplicadoException("Ya existe un contacto con el "
+                        + "DNI " + contacto.obtenerDni());
+            }
+        }
+        Set<Evento> eventosDelLote = new HashSet<>(capacidadPara(nuevosEventos.size()));
+        for (Evento evento : nuevosEventos) {
+            for (Contacto invitado : evento.obtenerInvitadosEvento()) {
+                if (invitado == null
+                        || !porDni.containsKey(invitado.obtenerDniNormalizado())) {
+                    throw new ContactoNoEncontradoEnAgendaException("El contacto ("
+                            + (invitado == null ? null : invitado.obtenerNombre())
+                            + ") no esta en la Agenda");
+                }
+            }
+            if (!eventosDelLote.add(evento)) {
+                throw new EventoDuplicadoException("El evento "
+                        + evento.obtenerNombreEvento() + " ya existe en la Agenda.");
+            }
+        }
+        if (nuevos.isEmpty() && nuevosEventos.isEmpty()) {
+            return;
+        }
+        List<Contacto> contactosCargados = List.copyOf(nuevos);
+        this.contactos.putAll(porDni);
+        this.contactosPorDni.cargar(claves(contactosCargados,
+                Contacto::obtenerDniNormalizado), contactosCargados);
+        this.contactosPorNombre.cargar(claves(contactosCargados, this::claveDeNombre),
+                contactosCargados);
+        this.contactosOrdenadosPorNombre.cargar(claves(contactosCargados,
+                Contacto::obtenerNombre), contactosCargados);
+        this.contactosPorNacimiento.cargar(claves(contactosCargados,
+                Contacto::obtenerFechaNacimiento), contactosCargados);
+        this.contactosPorCumpleanios.cargar(claves(contactosCargados,
+                contacto -> diaDelAnio(contacto.obtenerFechaNacimiento())),
+                contactosCargados);
+        List<Evento> eventosCargados = List.copyOf(nuevosEventos);
+        List<Integer> posiciones = new ArrayList<>(eventosCargados.size());
+        for (Evento evento : eventosCargados) {
+            posiciones.add(posiciones.size());
+            this.eventosRegistrados.put(evento, evento);
+            this.invitadosPendientes.add(evento);
+            for (Contacto invitado : evento.obtenerInvitadosEvento()) {
+                registrarInvitacion(invitado, evento);
+            }
+            evento.agregarObservador(this.observadorDeInvitados);
+        }
+        this.eventos.cargar(posiciones, eventosCargados);
+        this.eventosPorFecha.cargar(claves(eventosCargados, Evento::obtenerFechaEvento),
+                eventosCargados);
+        registrarCambio();
+    }
+
+    /**
+     * Obtiene la clave de índice de cada elemento de una lista.
+     *
+     * @param elementos Los elementos.
+     * @param clave Cómo obtener la clave de un elemento.
+     * @param <T> El tipo de los elementos.
+     * @param <K> El tipo de la clave.
+     * @return Las claves, en el mismo orden que los elementos.
+     */
+    private static <T, K> List<K> claves(List<T> elementos, Function<T, K> clave) {
+        List<K> resultado = new ArrayList<>(elementos.size());
+        for (T elemento : elementos) {
+            resultado.add(clave.apply(elemento));
+        }
+        return resultado;
+    }
+
+    /**
+     * Verifica que todos los invitados de un evento estén agendados.
+     *
+     * @param evento El evento a verificar.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    private void verificarInvitadosAgendados(Evento evento)
+            throws ContactoNoEncontradoEnAgendaException {
+        for (Contacto contactoInvitado : evento.obtenerInvitadosEvento()) {
+            if (!verificarExistenciaContacto(contactoInvitado)) {
+                String nombreContacto = contactoInvitado.obtenerNombre();
+                throw new ContactoNoEncontradoEnAgendaException("El contacto ("
+                        + nombreContacto + ") no esta en la Agenda");
+            }
+        }
+    }
+
+    /**
+     * Agrega un evento ya validado a la agenda y a sus índices, y empieza a
+     * observar sus invitados.
+     *
+     * @param evento El evento a agregar.
+     */
+    private void registrarEvento(Evento evento) {
+        this.eventos.agregar(this.eventos.tamanio(), evento);
+        this.eventosRegistrados.put(evento, evento);
+        this.invitadosPendientes.add(evento);
+        this.eventosPorFecha.agregar(evento.obtenerFechaEvento(), evento);
+        for (Contacto contactoInvitado : evento.obtenerInvitadosEvento()) {
+            registrarInvitacion(contactoInvitado, evento);
+        }
+        evento.agregarObservador(this.observadorDeInvitados);
+    }
+
+    /**
+     * Agrega un contacto a la lista de invitados del evento.
+     *
+     * @param evento El evento en el cual se quiere agregar un invitado.
+     * @param contacto El contacto a agregar.
+     * @throws ContactoYaInvitadoException si el contacto ya esta invitado.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra el
+     * contacto en la agenda.
+     */
+    @Override
+    public void agregarInvitadoEvento(Evento evento, Contacto contacto)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        Evento registrado = this.eventosRegistrados.get(evento);
+        if (registrado == null) {
+            throw new EventoNoEncontradoException("No existe ese evento en la agenda");
+        } else if (registrado.obtenerInvitadosEvento().contains(contacto)) {
+            throw new ContactoYaInvitadoException("El contacto "
+                    + "ya esta invitado al evento");
+        } else if (!verificarExistenciaContacto(contacto)) {
+            throw new ContactoNoEncontradoEnAgendaException("El contacto que intenta "
+                    + "invitar no se encuentra agendado");
+        } else {
+            this.modificandoInvitados = Thread.currentThread();
+            try {
+                registrado.agregarInvitado(contacto);
+            } finally {
+                this.modificandoInvitados = null;
+            }
+            registrarCambio();
+        }
+    }
+
+    /**
+     * Agrega varios contactos a la lista de invitados del evento en una única
+     * modificación. Todo el lote se valida antes de modificar el evento, por
+     * lo que si algún contacto no puede invitarse no se invita a ninguno.
+     *
+     * @param evento El evento en el cual se quieren agregar los invitados.
+     * @param nuevosInvitados Los contactos a agregar, en orden.
+     * @throws ContactoYaInvitadoException si algún contacto ya esta invitado o
+     * se repite dentro del lote.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public void agregarInvitadosEvento(Evento evento,
+                                       Collection<Contacto> nuevosInvitados)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        Evento registrado = this.eventosRegistrados.get(evento);
+        if (registrado == null) {
+            throw new EventoNoEncontradoException("No existe ese evento en la agenda");
+        }
+        List<Contacto> invitados = registrado.obtenerInvitadosEvento();
+        Set<Contacto> invitadosDelLote =
+                new HashSet<>(capacidadPara(nuevosInvitados.size()));
+        for (Contacto contacto : nuevosInvitados) {
+            if (invitados.contains(contacto) || !invitadosDelLote.add(contacto)) {
+                throw new ContactoYaInvitadoException("El contacto "
+                        + "ya esta invitado al evento");
+            } else if (!verificarExistenciaContacto(contacto)) {
+                throw new ContactoNoEncontradoEnAgendaException("El contacto que "
+                        + "intenta invitar no se encuentra agendado");
+            }
+        }
+        if (nuevosInvitados.isEmpty()) {
+            return;
+        }
+        this.modificandoInvitados = Thread.currentThread();
+        try {
+            for (Contacto contacto : nuevosInvitados) {
+                registrado.agregarInvitado(contacto);
+            }
+        } finally {
+            this.modificandoInvitados = null;
+        }
+        registrarCambio();
+    }
+
+    /**
+     * Elimina un contacto de la lista de invitados del evento.
+     *
+     * @param evento El evento del cual se quiere quitar un invitado.
+     * @param contacto El contacto a eliminar.
+     * @throws ContactoNoEncontradoEnEventoException Si no se encuentra un contacto.
+     * @throws EventoNoEncontradoException Si el evento no se encuentra en la agenda.
+     */
+    @Override
+    public void quitarInvitadoEvento(Evento evento, Contacto contacto)
+            throws EventoNoEncontradoException, ContactoNoEncontradoEnEventoException {
+        Evento registrado = this.eventosRegistrados.get(evento);
+        if (registrado == null) {
+            throw new EventoNoEncontradoException("No existe ese evento en la agenda");
+        } else if (!registrado.obtenerInvitadosEvento().contains(contacto)) {
+            throw new ContactoNoEncontradoEnEventoException("El contacto que "
+                    + "intenta eliminar no esta invitado al evento");
+        } else {
+            this.modificandoInvitados = Thread.currentThread();
+            try {
+                registrado.quitarInvitado(contacto);
+            } finally {
+                this.modificandoInvitados = null;
+            }
+            registrarCambio();
+        }
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto, en el orden en
+     * que fue invitado. Solo se recorren los eventos del contacto.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventosDeContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        if (!verificarExistenciaContacto(contacto)) {
+            throw new ContactoNoEncontradoEnAgendaException("El contacto "
+                    + "no se encuentra en la agenda");
+        }
+        return consultarEventosDeContacto(contacto);
+    }
+
+    /**
+     * Busca un contacto por su DNI sin lanzar excepciones si no existe.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorDni(String dni) {
+        return Optional.ofNullable(this.contactos.get(Normalizador.normalizarDni(dni)));
+    }
+
+    /**
+     * Busca un contacto por su nombre, sin distinguir mayúsculas ni acentos y
+     * sin lanzar excepciones si no existe. Si hay varios contactos con el
+     * mismo nombre se devuelve el primero que fue agregado.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorNombre(String nombre) {
+        return Optional.ofNullable(
+                this.contactosPorNombre.buscar(Normalizador.normalizarNombre(nombre)));
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una lista de solo lectura ordenada por fecha de nacimiento, vacía
+     * si la agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento() {
+        return this.contactosPorNacimiento.valores();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento(int desde, int cantidad) {
+        return this.contactosPorNacimiento.pagina(desde, cantidad);
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una lista de solo lectura ordenada por nombre, vacía si la
+     * agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre() {
+        return this.contactosOrdenadosPorNombre.valores();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre(int desde, int cantidad) {
+        return this.contactosOrdenadosPorNombre.pagina(desde, cantidad);
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto, en el orden en
+     * que fue invitado.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno o
+     * no se encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> consultarEventosDeContacto(Contacto contacto) {
+        Set<Evento> invitaciones = this.eventosPorContacto.get(contacto);
+        if (invitaciones == null) {
+            return List.of();
+        }
+        return List.copyOf(invitaciones);
+    }
+
+    /**
+     * Lista todos los eventos de la agenda, en el orden en que fueron creados.
+     *
+     * @return Una lista de solo lectura de los eventos, vacía si no hay ninguno.
+     */
+    @Override
+    public List<Evento> consultarEventos() {
+        return this.eventos.valores();
+    }
+
+    /**
+     * Toma una instantánea inmutable del contenido de la agenda. Mientras la
+     * agenda no se modifique, todas las llamadas comparten la misma
+     * instantánea.
+     * <p>
+     * La instantánea comparte los índices persistentes de la agenda en lugar
+     * de copiarlos, por lo que tomarla no depende de la cantidad de contactos
+     * ni de eventos: solo se copian los invitados de los eventos que cambiaron
+     * desde la instantánea anterior.
+     * <p>
+     * Puede llamarse desde varios lectores a la vez, siempre que ninguno
+     * modifique la agenda: la instantánea vigente se devuelve sin bloquear y
+     * solo su construcción se serializa.
+     *
+     * @return La instantánea de la agenda.
+     */
+    @Override
+    public InstantaneaAgenda tomarInstantanea() {
+        InstantaneaAgenda actual = this.instantanea;
+        if (actual != null) {
+            return actual;
+        }
+        synchronized (this.construccionDeInstantanea) {
+            actual = this.instantanea;
+            if (actual == null) {
+                for (Evento evento : this.invitadosPendientes) {
+                    this.invitadosCongelados.poner(evento,
+                            List.copyOf(evento.obtenerInvitadosEvento()));
+                }
+                this.invitadosPendientes.clear();
+                actual = new InstantaneaAgenda(this.version,
+                        this.contactosPorDni.comoMapa(),
+                        this.contactosOrdenadosPorNombre.valores(),
+                        this.contactosPorNacimiento.valores(),
+                        this.eventos.valores(),
+                        this.invitadosCongelados.comoMapa());
+                this.instantanea = actual;
+            }
+            return actual;
+        }
+    }
+
+    /**
+     * Ejecuta una lectura directamente sobre los índices de la agenda, sin
+     * tomar una instantánea. Los rangos se cuentan por posición en los
+     * índices ordenados, sin recorrerlos, y solo se copian los elementos que
+     * la lectura pide.
+     *
+     * @param lectura La lectura a ejecutar.
+     * @param <R> El tipo del resultado de la lectura.
+     * @return El resultado de la lectura.
+     */
+    @Override
+    public <R> R leerIndices(Function<? super IndicesDeAgenda, ? extends R> lectura) {
+        return lectura.apply(this.indicesVigentes);
+    }
+
+    /**
+     * Registra una modificación de la agenda, descartando la última
+     * instantánea tomada.
+     */
+    private void registrarCambio() {
+        this.version++;
+        this.instantanea = null;
+    }
+
+    /**
+     * Calcula la capacidad inicial de un conjunto para que pueda contener la
+     * cantidad indicada de elementos sin redimensionarse con el factor de
+     * carga por defecto.
+     *
+     * @param cantidad La cantidad de elementos.
+     * @return La capacidad inicial.
+     */
+    private static int capacidadPara(int cantidad) {
+        return cantidad < Integer.MAX_VALUE / 2 ? cantidad * 2 : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Registra en el índice inverso que un contacto está invitado a un evento.
+     *
+     * @param contacto El contacto invitado.
+     * @param evento El evento al que está invitado.
+     */
+    private void registrarInvitacion(Contacto contacto, Evento evento) {
+        this.eventosPorContacto.computeIfAbsent(contacto, c -> new LinkedHashSet<>())
+                .add(evento);
+    }
+
+    /**
+     * Quita del índice inverso la invitación de un contacto a un evento.
+     *
+     * @param contacto El contacto que dejó de estar invitado.
+     * @param evento El evento del que fue quitado.
+     */
+    private void quitarInvitacion(Contacto contacto, Evento evento) {
+        Set<Evento> invitaciones = this.eventosPorContacto.get(contacto);
+        if (invitaciones != null) {
+            invitaciones.remove(evento);
+            if (invitaciones.isEmpty()) {
+                this.eventosPorContacto.remove(contacto);
+            }
+        }
+    }
+
+    /**
+     * Registra un cambio en los invitados hecho directamente sobre un evento,
+     * sin pasar por la agenda. Los cambios hechos por la agenda se registran
+     * al terminar cada operación.
+     */
+    private void registrarCambioDeInvitados() {
+        if (!modificaLaAgenda()) {
+            registrarCambio();
+        }
+    }
+
+    /**
+     * Indica si el hilo actual está modificando invitados a través de la
+     * agenda.
+     *
+     * @return {@code true} si el cambio lo hace la agenda.
+     */
+    private boolean modificaLaAgenda() {
+        return this.modificandoInvitados == Thread.currentThread();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rechazarCambiosDirectosDeInvitados() {
+        this.cambiosDirectosRechazados = true;
+    }
+
+    /**
+     * Lista todos los eventos de la agenda.
+     *
+     * @return Una lista de eventos registrados en la agenda.
+     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventos() throws AgendaDeEventosVaciaException {
+        if (this.eventos.tamanio() == 0) {
+            throw new AgendaDeEventosVaciaException("No hay eventos en la agenda");
+        } else {
+            return consultarEventos();
+        }
+    }
+
+    /**
+     * Lista los eventos que ocurren entre dos fechas, ambas inclusive,
+     * ordenados por fecha. Solo se recorren los eventos del rango.
+     *
+     * @param desde La fecha inicial del rango.
+     * @param hasta La fecha final del rango.
+     * @return Los eventos del rango, vacío si no hay ninguno.
+     */
+    public List<Evento> listarEventosEntre(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser "
+                    + "posterior a la final");
+        }
+        return this.eventosPorFecha.rango(desde, hasta, true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lista los próximos eventos a partir de una fecha, incluyéndola,
+     * ordenados por fecha.
+     *
+     * @param desde La fecha a partir de la cual se buscan eventos.
+     * @param cantidad La cantidad máxima de eventos a devolver.
+     * @return Los próximos eventos, vacío si no hay ninguno.
+     */
+    public List<Evento> listarProximosEventos(LocalDate desde, int cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad no puede ser negativa");
+        }
+        return this.eventosPorFecha.rango(desde, LocalDate.MAX, true, cantidad);
+    }
+
+    /**
+     * Lista los eventos de un día, en el orden en que fueron creados.
+     *
+     * @param fecha El día a consultar.
+     * @return Los eventos del día, vacío si no hay ninguno.
+     */
+    public List<Evento> listarEventosDelDia(LocalDate fecha) {
+        return this.eventosPorFecha.obtener(fecha);
+    }
+
+    /**
+     * Observador que refleja en el índice inverso cada cambio en los
+     * invitados de un evento registrado.
+     */
+    private final class IndiceDeInvitaciones implements ObservadorDeInvitados {
+
+        /**
+         * Impide los cambios hechos directamente sobre el evento si la agenda
+         * los rechaza.
+         *
+         * @param evento El evento a modificar.
+         * @param contacto El contacto a invitar o quitar.
+         * @throws IllegalStateException Si el cambio no lo hace la agenda y
+         *                               esta rechaza los cambios directos.
+         */
+        @Override
+        public void autorizarCambio(Evento evento, Contacto contacto) {
+            if (cambiosDirectosRechazados && !modificaLaAgenda()) {
+                throw new IllegalStateException("Los invitados del evento "
+                        + evento.obtenerNombreEvento()
+                        + " solo pueden modificarse a través de la agenda");
+            }
+        }
+
+        /**
+         * Registra la invitación en el índice inverso.
+         *
+         * @param evento El evento modificado.
+         * @param contacto El contacto invitado.
+         */
+        @Override
+        public void invitadoAgregado(Evento evento, Contacto contacto) {
+            registrarInvitacion(contacto, evento);
+            invitadosPendientes.add(evento);
+            registrarCambioDeInvitados();
+        }
+
+        /**
+         * Quita la invitación del índice inverso.
+         *
+         * @param evento El evento modificado.
+         * @param contacto El contacto quitado.
+         */
+        @Override
+        public void invitadoQuitado(Evento evento, Contacto contacto) {
+            quitarInvitacion(contacto, evento);
+            invitadosPendientes.add(evento);
+            registrarCambioDeInvitados();
+        }
+    }
+
+    /**
+     * Los índices vigentes de la agenda. Los rangos y los invitados se
+     * devuelven copiados y los órdenes completos como vistas persistentes, de
+     * modo que no cambian con las modificaciones posteriores.
+     */
+    private final class IndicesVigentes implements IndicesDeAgenda {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int cantidadContactos() {
+            return contactos.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int cantidadEventos() {
+            return eventos.tamanio();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Optional<Contacto> contactoPorDni(String dni) {
+            return Optional.ofNullable(contactos.get(dni));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int contarContactosConNombre(String desde, String hasta,
+                                            boolean incluirHasta) {
+            return contactosPorNombre.contar(desde, hasta, incluirHasta);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Contacto> contactosConNombre(String desde, String hasta,
+                                                 boolean incluirHasta) {
+            return contactosPorNombre.rango(desde, hasta, incluirHasta,
+                    Integer.MAX_VALUE);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int contarContactosNacidosEntre(LocalDate desde, LocalDate hasta) {
+            return contactosPorNacimiento.contar(desde, hasta, true);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Contacto> contactosNacidosEntre(LocalDate desde, LocalDate hasta) {
+            return listarContactosNacidosEntre(desde, hasta);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Contacto> contactosPorNombre() {
+            return consultarContactosPorNombre();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Contacto> contactosPorNacimiento() {
+            return consultarContactosPorNacimiento();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int cantidadInvitados(Evento evento) {
+            Evento registrado = eventosRegistrados.get(evento);
+            return registrado == null ? 0 : registrado.obtenerInvitadosEvento().size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Contacto> invitadosDe(Evento evento) {
+            Evento registrado = eventosRegistrados.get(evento);
+            if (registrado == null) {
+                return List.of();
+            }
+            return List.copyOf(registrado.obtenerInvitadosEvento());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int contarEventosEntre(LocalDate desde, LocalDate hasta) {
+            return eventosPorFecha.contar(desde, hasta, true);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Evento> eventosEntre(LocalDate desde, LocalDate hasta) {
+            return listarEventosEntre(desde, hasta);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Evento> eventos() {
+            return consultarEventos();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Evento> eventosPorFecha() {
+            return eventosPorFecha.valores();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int cantidadEventosDe(Contacto contacto) {
+            Set<Evento> invitaciones = eventosPorContacto.get(contacto);
+            return invitaciones == null ? 0 : invitaciones.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Evento> eventosDe(Contacto contacto) {
+            return consultarEventosDeContacto(contacto);
+        }
+    }
+}
@@ -0,0 +1,662 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Agenda que guarda en memoria el resultado de las consultas de contactos
+ * hechas a otra agenda, pensada para ubicarse delante de una agenda cuyas
+ * lecturas son costosas, como una agenda persistente o remota.
+ * <p>
+ * Se guardan las búsquedas por DNI y por nombre, incluidas las que no
+ * encontraron ningún contacto, y los listados ordenados, completos o por
+ * porciones. Las entradas se descartan de a una, empezando por la usada hace
+ * más tiempo, cuando su peso estimado supera el presupuesto indicado.
+ * <p>
+ * Cada modificación de contactos hecha a través de esta agenda descarta solo
+ * las entradas afectadas: las búsquedas del DNI y del nombre de los contactos
+ * modificados y todos los listados. Las operaciones de eventos no descartan
+ * nada. Los cambios hechos directamente en la agenda envuelta no se detectan.
+ * <p>
+ * Es seguro usarla desde varios hilos a la vez si la agenda envuelta también
+ * lo es. Las lecturas que no encuentran la entrada consultan la agenda
+ * envuelta sin bloquear a las demás, y su resultado se descarta si mientras
+ * tanto hubo una modificación.
+ */
+public class AgendaCacheada extends AgendaDelegada {
+
+    /**
+     * El peso estimado en bytes de una entrada, sin contar los contactos de
+     * los listados.
+     */
+    public static final long BYTES_POR_ENTRADA = 128;
+    /**
+     * El peso estimado en bytes de cada contacto de un listado, que solo
+     * guarda la referencia al contacto de la agenda envuelta.
+     */
+    public static final long BYTES_POR_ELEMENTO = 8;
+    /**
+     * La capacidad inicial de la tabla de entradas.
+     */
+    private static final int CAPACIDAD_INICIAL = 16;
+    /**
+     * El factor de carga de la tabla de entradas.
+     */
+    private static final float FACTOR_DE_CARGA = 0.75f;
+
+    /**
+     * Las consultas que se guardan.
+     */
+    private enum TipoDeConsulta {
+        /**
+         * La búsqueda de un contacto por DNI.
+         */
+        DNI,
+        /**
+         * La búsqueda de un contacto por nombre.
+         */
+        NOMBRE,
+        /**
+         * El listado completo por nombre.
+         */
+        POR_NOMBRE,
+        /**
+         * Una porción del listado por nombre.
+         */
+        PAGINA_POR_NOMBRE,
+        /**
+         * El listado completo por fecha de nacimiento.
+         */
+        POR_NACIMIENTO,
+        /**
+         * Una porción del listado por fecha de nacimiento.
+         */
+        PAGINA_POR_NACIMIENTO
+    }
+
+    /**
+     * Las entradas, de la usada hace más tiempo a la más reciente.
+     */
+    private final LinkedHashMap<Clave, Entrada> entradas;
+    /**
+     * Las claves de los listados guardados, para descartarlos sin recorrer
+     * todas las entradas.
+     */
+    private final Set<Clave> listados;
+    /**
+     * El peso estimado máximo de las entradas, en bytes.
+     */
+    private final long presupuesto;
+    /**
+     * El peso estimado de las entradas, en bytes.
+     */
+    private long pesoTotal;
+    /**
+     * Se incrementa con cada modificación, para descartar las lecturas que
+     * comenzaron antes.
+     */
+    private long generacion;
+    /**
+     * La cantidad de consultas resueltas con una entrada guardada.
+     */
+    private long aciertos;
+    /**
+     * La cantidad de aciertos cuya entrada indicaba que no hay contacto.
+     */
+    private long aciertosNegativos;
+    /**
+     * La cantidad de consultas que debieron resolverse en la agenda envuelta.
+     */
+    private long fallos;
+    /**
+     * La cantidad de entradas descartadas por falta de presupuesto.
+     */
+    private long desalojos;
+
+    /**
+     * Constructor que guarda las consultas hechas a la agenda indicada.
+     *
+     * @param agenda La agenda que resuelve las operaciones.
+     * @param presupuestoBytes El peso estimado máximo de las entradas, en
+     *                         bytes.
+     * @throws IllegalArgumentException Si el presupuesto no es positivo.
+     */
+    public AgendaCacheada(IAgenda agenda, long presupuestoBytes) {
+        super(agenda);
+        if (presupuestoBytes <= 0) {
+            throw new IllegalArgumentException("El presupuesto debe ser positivo");
+        }
+        this.presupuesto = presupuestoBytes;
+        this.entradas = new LinkedHashMap<>(CAPACIDAD_INICIAL, FACTOR_DE_CARGA, true);
+        this.listados = new HashSet<>();
+    }
+
+    /**
+     * Agrega un contacto a la agenda y descarta las entradas que afecta.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     */
+    @Override
+    public void agregarContacto(Contacto contacto) throws ContactoDuplicadoException {
+        try {
+            super.agregarContacto(contacto);
+        } finally {
+            descartar(Collections.singletonList(contacto));
+        }
+    }
+
+    /**
+     * Agrega varios contactos a la agenda y descarta las entradas que
+     * afectan.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     */
+    @Override
+    public void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException {
+        try {
+            super.agregarContactos(nuevos);
+        } finally {
+            descartar(nuevos);
+        }
+    }
+
+    /**
+     * Elimina un contacto de la agenda y descarta las entradas que afecta,
+     * incluida la búsqueda por el nombre con el que estaba guardado.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * el contacto en la agenda
+     */
+    @Override
+    public void eliminarContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        List<Contacto> afectados = new ArrayList<>(2);
+        if (contacto != null) {
+            afectados.add(contacto);
+            super.consultarContactoPorDni(contacto.obtenerDni())
+                    .ifPresent(afectados::add);
+        }
+        try {
+            super.eliminarContacto(contacto);
+        } finally {
+            descartar(afectados);
+        }
+    }
+
+    /**
+     * Busca un contacto en la agenda por su nombre.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
+     * contacto con el nombre especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorNombre(String nombre)
+            throws ContactoNoEncontradoEnAgendaException {
+        return consultarContactoPorNombre(nombre).orElseThrow(() ->
+                new ContactoNoEncontradoEnAgendaException("No se encuentra"
+                        + " un contacto con ese nombre"));
+    }
+
+    /**
+     * Busca un contacto en la agenda por su DNI.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * un contacto con el DNI especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorDni(String dni)
+            throws ContactoNoEncontradoEnAgendaException {
+        return consultarContactoPorDni(dni).orElseThrow(() ->
+                new ContactoNoEncontradoEnAgendaException("No se encuentra"
+                        + " un contacto con ese DNI"));
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una lista de contactos ordenada por fecha de nacimiento.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento()
+            throws AgendaDeContactosVaciaException {
+        List<Contacto> ordenados = consultarContactosPorNacimiento();
+        return ordenados.isEmpty() ? super.listarContactosPorNacimiento() : ordenados;
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        List<Contacto> pagina = consultarContactosPorNacimiento(desde, cantidad);
+        return pagina.isEmpty() ? super.listarContactosPorNacimiento(desde, cantidad)
+                : pagina;
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una lista de contactos ordenada por nombre.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre()
+            throws AgendaDeContactosVaciaException {
+        List<Contacto> ordenados = consultarContactosPorNombre();
+        return ordenados.isEmpty() ? super.listarContactosPorNombre() : ordenados;
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        List<Contacto> pagina = consultarContactosPorNombre(desde, cantidad);
+        return pagina.isEmpty() ? super.listarContactosPorNombre(desde, cantidad)
+                : pagina;
+    }
+
+    /**
+     * Verifica si un contacto existe en la agenda, buscándolo por su DNI.
+     *
+     * @param contacto El contacto que se desea verificar.
+     * @return {@code true} si el contacto existe en la agenda, de lo
+     * contrario {@code false}.
+     */
+    @Override
+    public boolean verificarExistenciaContacto(Contacto contacto) {
+        return contacto != null
+                && consultarContactoPorDni(contacto.obtenerDni()).isPresent();
+    }
+
+    /**
+     * Limpia todos los contactos y eventos de la agenda y descarta todas las
+     * entradas.
+     */
+    @Override
+    public void limpiarAgenda() {
+        try {
+            super.limpiarAgenda();
+        } finally {
+            synchronized (this) {
+                this.generacion++;
+                this.entradas.clear();
+                this.listados.clear();
+                this.pesoTotal = 0;
+            }
+        }
+    }
+
+    /**
+     * Busca un contacto por su DNI sin lanzar excepciones si no existe.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorDni(String dni) {
+        return leer(new Clave(TipoDeConsulta.DNI, Normalizador.normalizarDni(dni), 0, 0),
+                () -> super.consultarContactoPorDni(dni));
+    }
+
+    /**
+     * Busca un contacto por su nombre sin lanzar excepciones si no existe.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorNombre(String nombre) {
+        return leer(new Clave(TipoDeConsulta.NOMBRE,
+                        Normalizador.normalizarNombre(nombre), 0, 0),
+                () -> super.consultarContactoPorNombre(nombre));
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Los contactos ordenados, vacío si la agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento() {
+        return leer(new Clave(TipoDeConsulta.POR_NACIMIENTO, null, 0, 0),
+                () -> List.copyOf(super.consultarContactosPorNacimiento()));
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Los contactos de la porción pedida, vacío si no hay ninguno.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento(int desde, int cantidad) {
+        return leer(new Clave(TipoDeConsulta.PAGINA_POR_NACIMIENTO, null, desde,
+                        cantidad),
+                () -> List.copyOf(super.consultarContactosPorNacimiento(desde,
+                        cantidad)));
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Los contactos ordenados, vacío si la agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre() {
+        return leer(new Clave(TipoDeConsulta.POR_NOMBRE, null, 0, 0),
+                () -> List.copyOf(super.consultarContactosPorNombre()));
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Los contactos de la porción pedida, vacío si no hay ninguno.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre(int desde, int cantidad) {
+        return leer(new Clave(TipoDeConsulta.PAGINA_POR_NOMBRE, null, desde, cantidad),
+                () -> List.copyOf(super.consultarContactosPorNombre(desde, cantidad)));
+    }
+
+    /**
+     * Obtiene la cantidad de consultas resueltas con una entrada guardada,
+     * incluidas las que indicaban que no hay contacto.
+     *
+     * @return La cantidad de aciertos.
+     */
+    public synchronized long obtenerAciertos() {
+        return this.aciertos;
+    }
+
+    /**
+     * Obtiene la cantidad de aciertos cuya entrada indicaba que no hay
+     * contacto con el DNI o el nombre buscado.
+     *
+     * @return La cantidad de aciertos negativos.
+     */
+    public synchronized long obtenerAciertosNegativos() {
+        return this.aciertosNegativos;
+    }
+
+    /**
+     * Obtiene la cantidad de consultas que debieron resolverse en la agenda
+     * envuelta.
+     *
+     * @return La cantidad de fallos.
+     */
+    public synchronized long obtenerFallos() {
+        return this.fallos;
+    }
+
+    /**
+     * Obtiene la cantidad de entradas descartadas por falta de presupuesto.
+     *
+     * @return La cantidad de desalojos.
+     */
+    public synchronized long obtenerDesalojos() {
+        return this.desalojos;
+    }
+
+    /**
+     * Obtiene la proporción de consultas resueltas con una entrada guardada.
+     *
+     * @return La tasa de aciertos, entre cero y uno, o cero si aún no hubo
+     * consultas.
+     */
+    public synchronized double obtenerTasaDeAciertos() {
+        long consultas = this.aciertos + this.fallos;
+        return consultas == 0 ? 0 : (double) this.aciertos / consultas;
+    }
+
+    /**
+     * Obtiene el peso estimado de las entradas guardadas.
+     *
+     * @return El peso estimado, en bytes.
+     */
+    public synchronized long obtenerPesoEstimado() {
+        return this.pesoTotal;
+    }
+
+    /**
+     * Obtiene la cantidad de entradas guardadas.
+     *
+     * @return La cantidad de entradas.
+     */
+    public synchronized int cantidadEntradas() {
+        return this.entradas.size();
+    }
+
+    /**
+     * Resuelve una consulta con la entrada guardada o, si no existe, con la
+     * agenda envuelta, guardando el resultado.
+     *
+     * @param clave La consulta.
+     * @param carga La consulta a la agenda envuelta.
+     * @param <T> El tipo del resultado.
+     * @return El resultado de la consulta.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T leer(Clave clave, Supplier<T> carga) {
+        long inicio;
+        synchronized (this) {
+            Entrada guardada = this.entradas.get(clave);
+            if (guardada != null) {
+                this.aciertos++;
+                if (guardada.valor.equals(Optional.empty())) {
+                    this.aciertosNegativos++;
+                }
+                return (T) guardada.valor;
+            }
+            this.fallos++;
+            inicio = this.generacion;
+        }
+        T valor = carga.get();
+        guardar(clave, valor, inicio);
+        return valor;
+    }
+
+    /**
+     * Guarda el resultado de una consulta si no hubo modificaciones desde que
+     * comenzó, y descarta las entradas usadas hace más tiempo hasta respetar
+     * el presupuesto.
+     *
+     * @param clave La consulta.
+     * @param valor El resultado de la consulta.
+     * @param inicio La generación al comenzar la consulta.
+     */
+    private synchronized void guardar(Clave clave, Object valor, long inicio) {
+        if (inicio != this.generacion) {
+            return;
+        }
+        long peso = BYTES_POR_ENTRADA;
+        if (valor instanceof List) {
+            peso = peso + ((List<?>) valor).size() * BYTES_POR_ELEMENTO;
+            this.listados.add(clave);
+        }
+        Entrada anterior = this.entradas.put(clave, new Entrada(valor, peso));
+        if (anterior != null) {
+            this.pesoTotal = this.pesoTotal - anterior.peso;
+        }
+        this.pesoTotal = this.pesoTotal + peso;
+        Iterator<Map.Entry<Clave, Entrada>> antiguas =
+                this.entradas.entrySet().iterator();
+        while (this.pesoTotal > this.presupuesto && antiguas.hasNext()) {
+            Map.Entry<Clave, Entrada> antigua = antiguas.next();
+            antiguas.remove();
+            this.listados.remove(antigua.getKey());
+            this.pesoTotal = this.pesoTotal - antigua.getValue().peso;
+            this.desalojos++;
+        }
+    }
+
+    /**
+     * Descarta las búsquedas por DNI y por nombre de los contactos indicados
+     * y todos los listados.
+     *
+     * @param modificados Los contactos agregados o eliminados.
+     */
+    private synchronized void descartar(Collection<Contacto> modificados) {
+        this.generacion++;
+        for (Contacto modificado : modificados) {
+            if (modificado != null) {
+                quitar(new Clave(TipoDeConsulta.DNI,
+                        modificado.obtenerDniNormalizado(), 0, 0));
+                quitar(new Clave(TipoDeConsulta.NOMBRE,
+                        Normalizador.normalizarNombre(modificado.obtenerNombre()), 0, 0));
+            }
+        }
+        for (Clave listado : this.listados) {
+            this.pesoTotal = this.pesoTotal - this.entradas.remove(listado).peso;
+        }
+        this.listados.clear();
+    }
+
+    /**
+     * Quita una entrada, si existe.
+     *
+     * @param clave La consulta de la entrada.
+     */
+    private void quitar(Clave clave) {
+        Entrada quitada = this.entradas.remove(clave);
+        if (quitada != null) {
+            this.pesoTotal = this.pesoTotal - quitada.peso;
+        }
+    }
+
+    /**
+     * Identifica una consulta guardada.
+     */
+    private static final class Clave {
+        /**
+         * El tipo de consulta.
+         */
+        private final TipoDeConsulta tipo;
+        /**
+         * El DNI o el nombre normalizado buscado, o {@code null} en los
+         * listados.
+         */
+        private final String texto;
+        /**
+         * La posición del primer contacto de una porción.
+         */
+        private final int desde;
+        /**
+         * La cantidad máxima de contactos de una porción.
+         */
+        private final int cantidad;
+
+        /**
+         * Constructor que crea la clave de una consulta.
+         *
+         * @param tipoDeConsulta El tipo de consulta.
+         * @param buscado El DNI o el nombre normalizado buscado, o
+         *                {@code null} en los listados.
+         * @param posicion La posición del primer contacto de una porción.
+         * @param maximo La cantidad máxima de contactos de una porción.
+         */
+        Clave(TipoDeConsulta tipoDeConsulta, String buscado, int posicion, int maximo) {
+            this.tipo = tipoDeConsulta;
+            this.texto = buscado;
+            this.desde = posicion;
+            this.cantidad = maximo;
+        }
+
+        /**
+         * Compara esta clave con otro objeto.
+         *
+         * @param otro El objeto a comparar.
+         * @return {@code true} si identifica la misma consulta.
+         */
+        @Override
+        public boolean equals(Object otro) {
+            if (this == otro) {
+                return true;
+            }
+            if (!(otro instanceof Clave)) {
+                return false;
+            }
+            Clave clave = (Clave) otro;
+            return this.tipo == clave.tipo && this.desde == clave.desde
+                    && this.cantidad == clave.cantidad
+                    && Objects.equals(this.texto, clave.texto);
+        }
+
+        /**
+         * Calcula el código hash de la clave.
+         *
+         * @return El código hash.
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.tipo, this.texto, this.desde, this.cantidad);
+        }
+    }
+
+    /**
+     * El resultado guardado de una consulta y su peso estimado.
+     */
+    private static final class Entrada {
+        /**
+         * El resultado: un {@link Optional} de contacto o una lista
+         * inmodificable de contactos.
+         */
+        private final Object valor;
+        /**
+         * El peso estimado en bytes.
+         */
+        private final long peso;
+
+        /**
+         * Constructor que crea una entrada.
+         *
+         * @param resultado El resultado de la consulta.
+         * @param pesoEstimado El peso estimado en bytes.
+         */
+        Entrada(Object resultado, long pesoEstimado) {
+            this.valor = resultado;
+            this.peso = pesoEstimado;
+        }
+    }
+}
@@ -0,0 +1,1593 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.IContacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.evento.ObservadorDeInvitados;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Agenda que guarda sus contactos en arreglos de tipos primitivos en lugar
+ * de objetos {@link Contacto}, para ocupar una fracción de la memoria de
+ * {@link Agenda} cuando tiene millones de contactos.
+ * <p>
+ * Cada contacto ocupa una fila de tres arreglos paralelos: el DNI como
+ * {@code long}, la fecha de nacimiento como día desde la época y el nombre
+ * como identificador dentro de un {@link DepositoDeNombres} compartido por
+ * todos los contactos. Los índices son arreglos de enteros: una tabla de
+ * direccionamiento abierto por DNI y los órdenes por nombre, por nombre
+ * normalizado y por nacimiento. Cada orden se mantiene al día con las
+ * escrituras: las filas agregadas desde la última consulta se ordenan solas
+ * y se intercalan con las ya ordenadas, y las eliminadas se descartan al
+ * intercalar, por lo que una consulta luego de k altas cuesta
+ * O(N + k log k) en lugar de volver a ordenar todas las filas. Al compactar
+ * las filas también se compacta el depósito de nombres. Los contactos que
+ * devuelven las consultas se crean en el momento a partir de su fila, y
+ * {@link #recorrerContactos(Consumer)} permite recorrerlos sin crear ningún
+ * objeto.
+ * <p>
+ * Solo se admiten DNI formados por hasta dieciocho dígitos sin ceros a la
+ * izquierda, con o sin separadores de miles; al consultarlos se devuelven
+ * con separadores si fueron ingresados con alguno. Los nombres se ordenan
+ * por punto de código, que coincide con el orden de {@link String} salvo
+ * para los caracteres fuera del plano básico. Los eventos se guardan igual
+ * que en {@link Agenda}, por lo que sus invitados siguen siendo objetos.
+ * <p>
+ * Esta clase no es segura para el acceso concurrente.
+ */
+public class AgendaCompacta implements IAgenda {
+
+    /**
+     * La capacidad inicial de los arreglos de contactos.
+     */
+    private static final int CAPACIDAD_INICIAL = 16;
+    /**
+     * Valor que representa un nombre desconocido.
+     */
+    private static final int NOMBRE_NULO = -1;
+
+    /**
+     * El DNI de cada fila.
+     */
+    private long[] dnis;
+    /**
+     * La fecha de nacimiento de cada fila, como día desde la época.
+     */
+    private int[] nacimientos;
+    /**
+     * El identificador del nombre de cada fila en el depósito.
+     */
+    private int[] nombres;
+    /**
+     * Las filas cuyo DNI fue ingresado con separadores de miles.
+     */
+    private final BitSet conSeparadores;
+    /**
+     * Las filas de contactos eliminados, que se reutilizan al compactar.
+     */
+    private final BitSet eliminadas;
+    /**
+     * La cantidad de filas ocupadas, incluidas las eliminadas.
+     */
+    private int filas;
+    /**
+     * La cantidad de filas eliminadas.
+     */
+    private int cantidadEliminadas;
+    /**
+     * Los nombres de los contactos y sus formas normalizadas.
+     */
+    private final DepositoDeNombres deposito;
+    /**
+     * El identificador del nombre normalizado de cada nombre del depósito.
+     */
+    private int[] normalizados;
+    /**
+     * El identificador del nombre vacío, que es la forma normalizada de un
+     * nombre desconocido.
+     */
+    private int nombreVacio;
+    /**
+     * Tabla de direccionamiento abierto con la fila más uno de cada DNI;
+     * cero indica una posición libre.
+     */
+    private int[] tablaDni;
+    /**
+     * Las filas ordenadas por nombre; a igual nombre, en el orden en que
+     * fueron agregadas. Los nombres desconocidos van primero.
+     */
+    private final OrdenDeFilas ordenPorNombre;
+    /**
+     * Las filas ordenadas por nombre normalizado; a igual nombre, en el orden
+     * en que fueron agregadas.
+     */
+    private final OrdenDeFilas ordenPorNormalizado;
+    /**
+     * Las filas ordenadas por fecha de nacimiento; a igual fecha, en el orden
+     * en que fueron agregadas. Las fechas desconocidas van primero.
+     */
+    private final OrdenDeFilas ordenPorNacimiento;
+    /**
+     * La lista de eventos gestionados por la agenda.
+     */
+    private final List<Evento> eventos;
+    /**
+     * Los eventos registrados en la agenda, para obtener la instancia
+     * agendada a partir de cualquier evento igual.
+     */
+    private final Map<Evento, Evento> eventosRegistrados;
+    /**
+     * Índice inverso con los eventos a los que está invitado cada contacto,
+     * en el orden en que fue invitado.
+     */
+    private final Map<Contacto, Set<Evento>> eventosPorContacto;
+    /**
+     * Mantiene el índice inverso al día con los cambios en los invitados de
+     * los eventos registrados, incluidos los hechos directamente sobre ellos.
+     */
+    private final ObservadorDeInvitados observadorDeInvitados;
+    /**
+     * El hilo que está modificando los invitados de un evento a través de la
+     * agenda, o {@code null}; la operación registra el cambio una única vez al
+     * terminar.
+     */
+    private Thread modificandoInvitados;
+    /**
+     * Indica si se rechazan los cambios hechos directamente sobre los
+     * invitados de los eventos registrados.
+     */
+    private volatile boolean cambiosDirectosRechazados;
+    /**
+     * La cantidad de modificaciones que recibió la agenda desde su creación.
+     */
+    private long version;
+    /**
+     * La última instantánea tomada, compartida por todos los lectores hasta
+     * la próxima modificación; {@code null} si debe tomarse de nuevo.
+     */
+    private volatile InstantaneaAgenda instantanea;
+
+    /**
+     * Compara dos filas de la agenda.
+     */
+    @FunctionalInterface
+    private interface ComparadorDeFilas {
+        /**
+         * Compara dos filas.
+         *
+         * @param fila La primera fila.
+         * @param otra La segunda fila.
+         * @return Un número negativo, cero o positivo si la primera fila va
+         * antes, en el mismo lugar o después que la segunda.
+         */
+        int comparar(int fila, int otra);
+    }
+
+    /**
+     * Constructor que inicializa una agenda compacta vacía.
+     */
+    public AgendaCompacta() {
+        this.conSeparadores = new BitSet();
+        this.eliminadas = new BitSet();
+        this.deposito = new DepositoDeNombres();
+        this.ordenPorNombre = new OrdenDeFilas(this::compararNombres);
+        this.ordenPorNormalizado = new OrdenDeFilas((fila, otra) ->
+                this.deposito.comparar(normalizado(fila), normalizado(otra)));
+        this.ordenPorNacimiento = new OrdenDeFilas((fila, otra) ->
+                Integer.compare(this.nacimientos[fila], this.nacimientos[otra]));
+        this.eventos = new ArrayList<>();
+        this.eventosRegistrados = new HashMap<>();
+        this.eventosPorContacto = new HashMap<>();
+        this.observadorDeInvitados = new IndiceDeInvitaciones();
+        vaciarContactos();
+        this.version = 0;
+    }
+
+    /**
+     * Agrega un contacto a la agenda.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     * @throws IllegalArgumentException Si el DNI o la fecha de nacimiento no
+     * pueden representarse en forma compacta.
+     */
+    @Override
+    public void agregarContacto(Contacto contacto)
+            throws ContactoDuplicadoException {
+        long dni = FormatoCompacto.dni(contacto);
+        int nacimiento = FormatoCompacto.dia(contacto.obtenerFechaNacimiento());
+        if (buscarFila(dni) >= 0) {
+            throw new ContactoDuplicadoException("Ya existe un"
+                    + "contacto con ese numero de DNI");
+        }
+        agregarFila(contacto, dni, nacimiento);
+        registrarCambio();
+    }
+
+    /**
+     * Agrega varios contactos a la agenda en una única modificación. Todo el
+     * lote se valida antes de modificar la agenda, por lo que si algún
+     * contacto no puede agregarse no se agrega ninguno.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     * @throws IllegalArgumentException Si algún DNI o fecha de nacimiento no
+     * puede representarse en forma compacta.
+     */
+    @Override
+    public void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException {
+        long[] dnisDelLote = new long[nuevos.size()];
+        int[] nacimientosDelLote = new int[nuevos.size()];
+        int posicion = 0;
+        for (Contacto contacto : nuevos) {
+            dnisDelLote[posicion] = FormatoCompacto.dni(contacto);
+            nacimientosDelLote[posicion] =
+                    FormatoCompacto.dia(contacto.obtenerFechaNacimiento());
+            if (buscarFila(dnisDelLote[posicion]) >= 0) {
+                throw new ContactoDuplicadoException("Ya existe un contacto con el "
+                        + "DNI " + contacto.obtenerDni());
+            }
+            posicion++;
+        }
+        long[] ordenados = dnisDelLote.clone();
+        Arrays.sort(ordenados);
+        for (int i = 1; i < ordenados.length; i++) {
+            if (ordenados[i] == ordenados[i - 1]) {
+                throw new ContactoDuplicadoException("Ya existe un contacto con el "
+                        + "DNI " + ordenados[i]);
+            }
+        }
+        if (nuevos.isEmpty()) {
+            return;
+        }
+        asegurarCapacidad(this.filas + nuevos.size());
+        posicion = 0;
+        for (Contacto contacto : nuevos) {
+            agregarFila(contacto, dnisDelLote[posicion], nacimientosDelLote[posicion]);
+            posicion++;
+        }
+        registrarCambio();
+    }
+
+    /**
+     * Elimina un contacto de la agenda mediante su DNI.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * el contacto en la agenda
+     */
+    @Override
+    public void eliminarContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        int fila = buscarFila(contacto.obtenerDniNormalizado());
+        if (fila < 0) {
+            throw new ContactoNoEncontradoEnAgendaException("El contacto "
+                    + "que desea eliminar no existe");
+        }
+        Contacto eliminado = contacto(fila);
+        quitarDeTabla(fila);
+        this.eliminadas.set(fila);
+        this.cantidadEliminadas++;
+        this.ordenPorNombre.registrarBaja();
+        this.ordenPorNormalizado.registrarBaja();
+        this.ordenPorNacimiento.registrarBaja();
+        if (this.cantidadEliminadas > this.filas / 2) {
+            compactar();
+        }
+        Set<Evento> invitaciones = this.eventosPorContacto.remove(eliminado);
+        if (invitaciones != null) {
+            this.modificandoInvitados = Thread.currentThread();
+            try {
+                for (Evento evento : invitaciones) {
+                    evento.quitarInvitado(eliminado);
+                }
+            } finally {
+                this.modificandoInvitados = null;
+            }
+        }
+        registrarCambio();
+    }
+
+    /**
+     * Busca un contacto en la agenda por su nombre, sin distinguir mayúsculas
+     * ni acentos. Si hay varios contactos con el mismo nombre se devuelve el
+     * primero que fue agregado.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
+     * contacto con el nombre especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorNombre(String nombre)
+            throws ContactoNoEncontradoEnAgendaException {
+        return consultarContactoPorNombre(nombre).orElseThrow(() ->
+                new ContactoNoEncontradoEnAgendaException("No se encuentra"
+                        + " un contacto con ese nombre"));
+    }
+
+    /**
+     * Busca los contactos cuyo nombre comienza con el prefijo indicado, sin
+     * distinguir mayúsculas ni acentos. Solo se recorren los nombres que
+     * coinciden con el prefijo.
+     *
+     * @param prefijo El comienzo del nombre a buscar.
+     * @param cantidadMaxima La cantidad máxima de contactos a devolver.
+     * @return Los contactos encontrados, ordenados por nombre.
+     */
+    @Override
+    public List<Contacto> buscarContactosPorPrefijo(String prefijo, int cantidadMaxima) {
+        if (cantidadMaxima < 0) {
+            throw new IllegalArgumentException("La cantidad maxima no puede "
+                    + "ser negativa");
+        }
+        byte[] buscado = DepositoDeNombres.codificar(
+                Normalizador.normalizarPrefijo(prefijo));
+        int[] orden = this.ordenPorNormalizado.obtener();
+        List<Contacto> encontrados = new ArrayList<>();
+        for (int i = primeraPosicion(orden, buscado, true);
+             i < orden.length && encontrados.size() < cantidadMaxima
+                     && compararNormalizado(orden[i], buscado, true) == 0; i++) {
+            encontrados.add(contacto(orden[i]));
+        }
+        return encontrados;
+    }
+
+    /**
+     * Busca un contacto en la agenda por su DNI.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * un contacto con el DNI especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorDni(String dni)
+            throws ContactoNoEncontradoEnAgendaException {
+        return consultarContactoPorDni(dni).orElseThrow(() ->
+                new ContactoNoEncontradoEnAgendaException("No se encuentra"
+                        + " un contacto con ese DNI"));
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una lista de solo lectura ordenada por fecha de nacimiento.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento()
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNacimiento();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNacimiento(desde, cantidad);
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una lista de solo lectura ordenada por nombre.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre()
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNombre();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNombre(desde, cantidad);
+    }
+
+    /**
+     * Obtiene la cantidad total de contactos en la agenda.
+     *
+     * @return El número total de contactos.
+     */
+    @Override
+    public int cantidadTotalContactos() {
+        return this.filas - this.cantidadEliminadas;
+    }
+
+    /**
+     * Verifica si un contacto ya existe en la agenda.
+     *
+     * @param contacto El contacto a verificar.
+     * @return {@code true} si el contacto ya existe, {@code false} en caso contrario.
+     */
+    @Override
+    public boolean verificarExistenciaContacto(Contacto contacto) {
+        return buscarFila(contacto.obtenerDniNormalizado()) >= 0;
+    }
+
+    /**
+     * Limpia todos los contactos y eventos de la agenda, liberando la
+     * memoria de sus arreglos.
+     */
+    @Override
+    public void limpiarAgenda() {
+        vaciarContactos();
+        for (Evento evento : this.eventos) {
+            evento.quitarObservador(this.observadorDeInvitados);
+        }
+        this.eventos.clear();
+        this.eventosRegistrados.clear();
+        this.eventosPorContacto.clear();
+        registrarCambio();
+    }
+
+    /**
+     * Crea un evento en la agenda.
+     *
+     * @param evento El evento a ser creado.
+     * @throws EventoDuplicadoException Si el evento ya existe.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEvento(Evento evento)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        verificarInvitadosAgendados(evento);
+        if (this.eventosRegistrados.containsKey(evento)) {
+            throw new EventoDuplicadoException("Ese evento ya existe en la Agenda.");
+        }
+        registrarEvento(evento);
+        registrarCambio();
+    }
+
+    /**
+     * Crea varios eventos en la agenda en una única modificación. Todo el
+     * lote se valida antes de modificar la agenda, por lo que si algún evento
+     * no puede crearse no se crea ninguno.
+     *
+     * @param nuevos Los eventos a ser creados, en orden.
+     * @throws EventoDuplicadoException Si algún evento ya existe o se repite
+     * dentro del lote.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEventos(Collection<Evento> nuevos)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        Set<Evento> eventosDelLote = new HashSet<>();
+        for (Evento evento : nuevos) {
+            verificarInvitadosAgendados(evento);
+            if (this.eventosRegistrados.containsKey(evento)
+                    || !eventosDelLote.add(evento)) {
+                throw new EventoDuplicadoException("El evento "
+                        + evento.obtenerNombreEvento() + " ya existe en la Agenda.");
+            }
+        }
+        if (nuevos.isEmpty()) {
+            return;
+        }
+        for (Evento evento : nuevos) {
+            registrarEvento(evento);
+        }
+        registrarCambio();
+    }
+
+    /**
+     * Agrega un contacto a la lista de invitados del evento.
+     *
+     * @param evento El evento en el cual se quiere agregar un invitado.
+     * @param contacto El contacto a agregar.
+     * @throws ContactoYaInvitadoException si el contacto ya esta invitado.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra el
+     * contacto en la agenda.
+     */
+    @Override
+    public void agregarInvitadoEvento(Evento evento, Contacto contacto)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        agregarInvitadosEvento(evento, List.of(contacto));
+    }
+
+    /**
+     * Agrega varios contactos a la lista de invitados del evento en una única
+     * modificación. Todo el lote se valida antes de modificar el evento, por
+     * lo que si algún contacto no puede invitarse no se invita a ninguno.
+     *
+     * @param evento El evento en el cual se quieren agregar los invitados.
+     * @param nuevosInvitados Los contactos a agregar, en orden.
+     * @throws ContactoYaInvitadoException si algún contacto ya esta invitado o
+     * se repite dentro del lote.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public void agregarInvitadosEvento(Evento evento,
+                                       Collection<Contacto> nuevosInvitados)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        Evento registrado = this.eventosRegistrados.get(evento);
+        if (registrado == null) {
+            throw new EventoNoEncontradoException("No existe ese evento en la agenda");
+        }
+        List<Contacto> invitados = registrado.obtenerInvitadosEvento();
+        Set<Contacto> invitadosDelLote = new HashSet<>();
+        for (Contacto contacto : nuevosInvitados) {
+            if (invitados.contains(contacto) || !invitadosDelLote.add(contacto)) {
+                throw new ContactoYaInvitadoException("El contacto "
+                        + "ya esta invitado al evento");
+            } else if (!verificarExistenciaContacto(contacto)) {
+                throw new ContactoNoEncontradoEnAgendaException("El contacto que "
+                        + "intenta invitar no se encuentra agendado");
+            }
+        }
+        if (nuevosInvitados.isEmpty()) {
+            return;
+        }
+        this.modificandoInvitados = Thread.currentThread();
+        try {
+            for (Contacto contacto : nuevosInvitados) {
+                registrado.agregarInvitado(contacto);
+            }
+        } finally {
+            this.modificandoInvitados = null;
+        }
+        registrarCambio();
+    }
+
+    /**
+     * Elimina un contacto de la lista de invitados del evento.
+     *
+     * @param evento El evento del cual se quiere quitar un invitado.
+     * @param contacto El contacto a eliminar.
+     * @throws ContactoNoEncontradoEnEventoException Si no se encuentra un contacto.
+     * @throws EventoNoEncontradoException Si el evento no se encuentra en la agenda.
+     */
+    @Override
+    public void quitarInvitadoEvento(Evento evento, Contacto contacto)
+            throws EventoNoEncontradoException, ContactoNoEncontradoEnEventoException {
+        Evento registrado = this.eventosRegistrados.get(evento);
+        if (registrado == null) {
+            throw new EventoNoEncontradoException("No existe ese evento en la agenda");
+        } else if (!registrado.obtenerInvitadosEvento().contains(contacto)) {
+            throw new ContactoNoEncontradoEnEventoException("El contacto que "
+                    + "intenta eliminar no esta invitado al evento");
+        }
+        this.modificandoInvitados = Thread.currentThread();
+        try {
+            registrado.quitarInvitado(contacto);
+        } finally {
+            this.modificandoInvitados = null;
+        }
+        registrarCambio();
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto, en el orden en
+     * que fue invitado.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventosDeContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        if (!verificarExistenciaContacto(contacto)) {
+            throw new ContactoNoEncontradoEnAgendaException("El contacto "
+                    + "no se encuentra en la agenda");
+        }
+        return consultarEventosDeContacto(contacto);
+    }
+
+    /**
+     * Lista todos los eventos de la agenda.
+     *
+     * @return Una lista de eventos registrados en la agenda.
+     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventos() throws AgendaDeEventosVaciaException {
+        if (this.eventos.isEmpty()) {
+            throw new AgendaDeEventosVaciaException("No hay eventos en la agenda");
+        }
+        return consultarEventos();
+    }
+
+    /**
+     * Busca un contacto por su DNI sin lanzar excepciones si no existe.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorDni(String dni) {
+        int fila = buscarFila(Normalizador.normalizarDni(dni));
+        return fila < 0 ? Optional.empty() : Optional.of(contacto(fila));
+    }
+
+    /**
+     * Busca un contacto por su nombre, sin distinguir mayúsculas ni acentos y
+     * sin lanzar excepciones si no existe. Si hay varios contactos con el
+     * mismo nombre se devuelve el primero que fue agregado.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorNombre(String nombre) {
+        byte[] buscado = clave(nombre);
+        int[] orden = this.ordenPorNormalizado.obtener();
+        int posicion = primeraPosicion(orden, buscado, false);
+        if (posicion == orden.length
+                || compararNormalizado(orden[posicion], buscado, false) != 0) {
+            return Optional.empty();
+        }
+        return Optional.of(contacto(orden[posicion]));
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una lista de solo lectura ordenada por fecha de nacimiento, vacía
+     * si la agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento() {
+        return contactos(this.ordenPorNacimiento.obtener(), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     * Solo se crean los contactos de la porción pedida.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento(int desde, int cantidad) {
+        return contactos(this.ordenPorNacimiento.obtener(), desde, cantidad);
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una lista de solo lectura ordenada por nombre, vacía si la
+     * agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre() {
+        return contactos(this.ordenPorNombre.obtener(), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     * Solo se crean los contactos de la porción pedida.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre(int desde, int cantidad) {
+        return contactos(this.ordenPorNombre.obtener(), desde, cantidad);
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto, en el orden en
+     * que fue invitado.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno o
+     * no se encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> consultarEventosDeContacto(Contacto contacto) {
+        Set<Evento> invitaciones = this.eventosPorContacto.get(contacto);
+        if (invitaciones == null) {
+            return List.of();
+        }
+        return List.copyOf(invitaciones);
+    }
+
+    /**
+     * Lista todos los eventos de la agenda, en el orden en que fueron creados.
+     *
+     * @return Una lista de solo lectura de los eventos, vacía si no hay ninguno.
+     */
+    @Override
+    public List<Evento> consultarEventos() {
+        return Collections.unmodifiableList(this.eventos);
+    }
+
+    /**
+     * Toma una instantánea inmutable del contenido de la agenda. Como la
+     * instantánea guarda objetos {@link Contacto}, tomarla crea todos los
+     * contactos; mientras la agenda no se modifique, las llamadas siguientes
+     * comparten la misma instantánea.
+     *
+     * @return La instantánea de la agenda.
+     */
+    @Override
+    public InstantaneaAgenda tomarInstantanea() {
+        InstantaneaAgenda actual = this.instantanea;
+        if (actual == null) {
+            Map<String, Contacto> porDni = new LinkedHashMap<>();
+            for (int fila = 0; fila < this.filas; fila++) {
+                if (!this.eliminadas.get(fila)) {
+                    Contacto contacto = contacto(fila);
+                    porDni.put(contacto.obtenerDniNormalizado(), contacto);
+                }
+            }
+            actual = InstantaneaAgenda.crear(this.version, porDni,
+                    consultarContactosPorNombre(), consultarContactosPorNacimiento(),
+                    this.eventos);
+            this.instantanea = actual;
+        }
+        return actual;
+    }
+
+    /**
+     * Recorre los contactos en el orden en que fueron agregados sin crear un
+     * objeto por contacto: la acción recibe siempre la misma vista, que
+     * muestra un contacto distinto en cada llamada. La vista solo es válida
+     * durante la llamada que la recibe y no debe conservarse ni usarse para
+     * modificar la agenda.
+     *
+     * @param accion La acción a realizar con cada contacto.
+     */
+    public void recorrerContactos(Consumer<? super IContacto> accion) {
+        Vista vista = new Vista();
+        for (int fila = 0; fila < this.filas; fila++) {
+            if (!this.eliminadas.get(fila)) {
+                vista.fila = fila;
+                accion.accept(vista);
+            }
+        }
+    }
+
+    /**
+     * Estima la memoria ocupada por los contactos de la agenda, contando la
+     * capacidad reservada de sus arreglos. No incluye los eventos.
+     *
+     * @return La cantidad aproximada de bytes ocupados.
+     */
+    public long estimarBytesOcupados() {
+        long enteros = (long) this.nacimientos.length + this.nombres.length
+                + this.normalizados.length + this.tablaDni.length
+                + this.ordenPorNombre.reservadas() + this.ordenPorNormalizado.reservadas()
+                + this.ordenPorNacimiento.reservadas();
+        return enteros * Integer.BYTES + (long) this.dnis.length * Long.BYTES
+                + (this.conSeparadores.size() + this.eliminadas.size()) / Byte.SIZE
+                + this.deposito.bytesReservados();
+    }
+
+    /**
+     * Vista de solo lectura de una fila de la agenda, que se reutiliza para
+     * recorrer los contactos sin crear objetos.
+     */
+    private final class Vista implements IContacto {
+        /**
+         * La fila que muestra la vista.
+         */
+        private int fila;
+
+        /**
+         * Obtiene el nombre completo del contacto.
+         *
+         * @return El nombre completo del contacto.
+         */
+        @Override
+        public String obtenerNombre() {
+            return nombre(this.fila);
+        }
+
+        /**
+         * Obtiene el número de DNI del contacto.
+         *
+         * @return El número de DNI del contacto.
+         */
+        @Override
+        public String obtenerDni() {
+            return dni(this.fila);
+        }
+
+        /**
+         * Obtiene la fecha de nacimiento del contacto.
+         *
+         * @return La fecha de nacimiento del contacto.
+         */
+        @Override
+        public LocalDate obtenerFechaNacimiento() {
+            return nacimiento(this.fila);
+        }
+    }
+
+    /**
+     * Crea el contacto guardado en una fila.
+     *
+     * @param fila La fila del contacto.
+     * @return El contacto.
+     */
+    private Contacto contacto(int fila) {
+        return new Contacto(nombre(fila), dni(fila), nacimiento(fila));
+    }
+
+    /**
+     * Crea los contactos de una porción de un orden.
+     *
+     * @param orden Las filas ordenadas.
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción.
+     */
+    private List<Contacto> contactos(int[] orden, int desde, int cantidad) {
+        if (desde < 0 || cantidad < 0) {
+            throw new IllegalArgumentException("La posicion y la cantidad "
+                    + "no pueden ser negativas");
+        }
+        int hasta = (int) Math.min(orden.length, (long) desde + cantidad);
+        if (desde >= hasta) {
+            return List.of();
+        }
+        Contacto[] encontrados = new Contacto[hasta - desde];
+        for (int i = desde; i < hasta; i++) {
+            encontrados[i - desde] = contacto(orden[i]);
+        }
+        return Collections.unmodifiableList(Arrays.asList(encontrados));
+    }
+
+    /**
+     * Obtiene el nombre guardado en una fila.
+     *
+     * @param fila La fila del contacto.
+     * @return El nombre, o {@code null} si no se indicó ninguno.
+     */
+    private String nombre(int fila) {
+        int id = this.nombres[fila];
+        return id == NOMBRE_NULO ? null : this.deposito.obtener(id);
+    }
+
+    /**
+     * Obtiene el DNI guardado en una fila, con separadores de miles si fue
+     * ingresado con alguno.
+     *
+     * @param fila La fila del contacto.
+     * @return El DNI.
+     */
+    private String dni(int fila) {
+        return FormatoCompacto.formatearDni(this.dnis[fila],
+                this.conSeparadores.get(fila));
+    }
+
+    /**
+     * Obtiene la fecha de nacimiento guardada en una fila.
+     *
+     * @param fila La fila del contacto.
+     * @return La fecha de nacimiento, o {@code null} si no se indicó ninguna.
+     */
+    private LocalDate nacimiento(int fila) {
+        return FormatoCompacto.fecha(this.nacimientos[fila]);
+    }
+
+    /**
+     * Agrega un contacto ya validado en una nueva fila.
+     *
+     * @param contacto El contacto.
+     * @param dni El DNI del contacto como número.
+     * @param nacimiento La fecha de nacimiento como día desde la época.
+     */
+    private void agregarFila(Contacto contacto, long dni, int nacimiento) {
+        asegurarCapacidad(this.filas + 1);
+        int fila = this.filas;
+        this.dnis[fila] = dni;
+        this.nacimientos[fila] = nacimiento;
+        this.nombres[fila] = agregarNombre(contacto.obtenerNombre());
+        this.conSeparadores.set(fila, FormatoCompacto.conSeparadores(contacto));
+        this.filas++;
+        agregarATabla(fila);
+    }
+
+    /**
+     * Agrega un nombre y su forma normalizada al depósito.
+     *
+     * @param nombre El nombre, o {@code null}.
+     * @return El identificador del nombre, o {@link #NOMBRE_NULO}.
+     */
+    private int agregarNombre(String nombre) {
+        if (nombre == null) {
+            return NOMBRE_NULO;
+        }
+        int id = this.deposito.agregar(nombre);
+        int normalizado = this.deposito.agregar(Normalizador.normalizarNombre(nombre));
+        if (this.normalizados.length < this.deposito.cantidad()) {
+            this.normalizados = Arrays.copyOf(this.normalizados,
+                    Math.max(DepositoDeNombres.crecer(this.normalizados.length),
+                            this.deposito.cantidad()));
+        }
+        this.normalizados[id] = normalizado;
+        return id;
+    }
+
+    /**
+     * Asegura que los arreglos de contactos tengan lugar para la cantidad de
+     * filas indicada.
+     *
+     * @param capacidad La cantidad de filas necesaria.
+     */
+    private void asegurarCapacidad(int capacidad) {
+        if (capacidad <= this.dnis.length) {
+            return;
+        }
+        int nueva = Math.max(DepositoDeNombres.crecer(this.dnis.length), capacidad);
+        this.dnis = Arrays.copyOf(this.dnis, nueva);
+        this.nacimientos = Arrays.copyOf(this.nacimientos, nueva);
+        this.nombres = Arrays.copyOf(this.nombres, nueva);
+    }
+
+    /**
+     * Descarta todos los contactos y vuelve los arreglos a su capacidad inicial.
+     */
+    private void vaciarContactos() {
+        this.dnis = new long[CAPACIDAD_INICIAL];
+        this.nacimientos = new int[CAPACIDAD_INICIAL];
+        this.nombres = new int[CAPACIDAD_INICIAL];
+        this.conSeparadores.clear();
+        this.eliminadas.clear();
+        this.filas = 0;
+        this.cantidadEliminadas = 0;
+        this.deposito.limpiar();
+        this.normalizados = new int[CAPACIDAD_INICIAL];
+        this.nombreVacio = this.deposito.agregar("");
+        this.tablaDni = new int[CAPACIDAD_INICIAL * 2];
+        this.ordenPorNombre.vaciar();
+        this.ordenPorNormalizado.vaciar();
+        this.ordenPorNacimiento.vaciar();
+    }
+
+    /**
+     * Mueve las filas vigentes al comienzo de los arreglos, conservando su
+     * orden, y descarta las filas eliminadas. Luego renumera las filas de los
+     * órdenes y quita del depósito los nombres que ya no usa ninguna fila.
+     */
+    private void compactar() {
+        int[] nuevaFila = new int[this.filas];
+        int destino = 0;
+        for (int fila = 0; fila < this.filas; fila++) {
+            if (this.eliminadas.get(fila)) {
+                nuevaFila[fila] = -1;
+            } else {
+                this.dnis[destino] = this.dnis[fila];
+                this.nacimientos[destino] = this.nacimientos[fila];
+                this.nombres[destino] = this.nombres[fila];
+                this.conSeparadores.set(destino, this.conSeparadores.get(fila));
+                nuevaFila[fila] = destino;
+                destino++;
+            }
+        }
+        this.conSeparadores.clear(destino, this.filas);
+        this.eliminadas.clear();
+        this.filas = destino;
+        this.cantidadEliminadas = 0;
+        this.tablaDni = new int[this.tablaDni.length];
+        for (int fila = 0; fila < this.filas; fila++) {
+            ubicarEnTabla(this.tablaDni, fila);
+        }
+        this.ordenPorNombre.renumerar(nuevaFila);
+        this.ordenPorNormalizado.renumerar(nuevaFila);
+        this.ordenPorNacimiento.renumerar(nuevaFila);
+        compactarNombres();
+    }
+
+    /**
+     * Quita del depósito los nombres que ya no usa ninguna fila, y actualiza
+     * los identificadores de las filas y de las formas normalizadas.
+     */
+    private void compactarNombres() {
+        BitSet usados = new BitSet(this.deposito.cantidad());
+        usados.set(this.nombreVacio);
+        for (int fila = 0; fila < this.filas; fila++) {
+            int id = this.nombres[fila];
+            if (id != NOMBRE_NULO) {
+                usados.set(id);
+                usados.set(this.normalizados[id]);
+            }
+        }
+        int[] nuevoId = this.deposito.compactar(usados);
+        int[] nuevosNormalizados =
+                new int[Math.max(this.deposito.cantidad(), CAPACIDAD_INICIAL)];
+        for (int id = 0; id < nuevoId.length; id++) {
+            if (nuevoId[id] >= 0 && usados.get(this.normalizados[id])) {
+                nuevosNormalizados[nuevoId[id]] = nuevoId[this.normalizados[id]];
+            }
+        }
+        for (int fila = 0; fila < this.filas; fila++) {
+            int id = this.nombres[fila];
+            if (id != NOMBRE_NULO) {
+                this.nombres[fila] = nuevoId[id];
+            }
+        }
+        this.normalizados = nuevosNormalizados;
+        this.nombreVacio = nuevoId[this.nombreVacio];
+    }
+
+    /**
+     * Busca la fila de un DNI normalizado.
+     *
+     * @param normalizado El DNI sin separadores.
+     * @return La fila del DNI, o {@code -1} si no está en la agenda.
+     */
+    private int buscarFila(String normalizado) {
+        long dni = FormatoCompacto.interpretarDni(normalizado);
+        return dni == FormatoCompacto.DNI_INVALIDO ? -1 : buscarFila(dni);
+    }
+
+    /**
+     * Busca la fila de un DNI en la tabla.
+     *
+     * @param dni El DNI como número.
+     * @return La fila del DNI, o {@code -1} si no está en la agenda.
+     */
+    private int buscarFila(long dni) {
+        int mascara = this.tablaDni.length - 1;
+        int posicion = posicionInicial(dni, mascara);
+        while (this.tablaDni[posicion] != 0) {
+            int fila = this.tablaDni[posicion] - 1;
+            if (this.dnis[fila] == dni) {
+                return fila;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /**
+     * Agrega una fila a la tabla de DNI, duplicando la tabla si queda más
+     * de la mitad ocupada.
+     *
+     * @param fila La fila a agregar.
+     */
+    private void agregarATabla(int fila) {
+        if (cantidadTotalContactos() > this.tablaDni.length / 2) {
+            int[] nueva = new int[this.tablaDni.length * 2];
+            for (int anterior : this.tablaDni) {
+                if (anterior != 0) {
+                    ubicarEnTabla(nueva, anterior - 1);
+                }
+            }
+            this.tablaDni = nueva;
+        }
+        ubicarEnTabla(this.tablaDni, fila);
+    }
+
+    /**
+     * Ubica una fila en la primera posición libre de una tabla de DNI.
+     *
+     * @param tabla La tabla.
+     * @param fila La fila a ubicar.
+     */
+    private void ubicarEnTabla(int[] tabla, int fila) {
+        int mascara = tabla.length - 1;
+        int posicion = posicionInicial(this.dnis[fila], mascara);
+        while (tabla[posicion] != 0) {
+            posicion = (posicion + 1) & mascara;
+        }
+        tabla[posicion] = fila + 1;
+    }
+
+    /**
+     * Quita una fila de la tabla de DNI, desplazando hacia atrás las filas
+     * siguientes de la misma secuencia para no dejar huecos en la búsqueda.
+     *
+     * @param fila La fila a quitar.
+     */
+    private void quitarDeTabla(int fila) {
+        int mascara = this.tablaDni.length - 1;
+        int libre = posicionInicial(this.dnis[fila], mascara);
+        while (this.tablaDni[libre] != fila + 1) {
+            libre = (libre + 1) & mascara;
+        }
+        int siguiente = libre;
+        while (true) {
+            siguiente = (siguiente + 1) & mascara;
+            int ocupante = this.tablaDni[siguiente];
+            if (ocupante == 0) {
+                break;
+            }
+            int inicial = posicionInicial(this.dnis[ocupante - 1], mascara);
+            boolean alcanzable = libre <= siguiente
+                    ? libre < inicial && inicial <= siguiente
+                    : libre < inicial || inicial <= siguiente;
+            if (!alcanzable) {
+                this.tablaDni[libre] = ocupante;
+                libre = siguiente;
+            }
+        }
+        this.tablaDni[libre] = 0;
+    }
+
+    /**
+     * Calcula la posición inicial de un DNI en una tabla.
+     *
+     * @param dni El DNI como número.
+     * @param mascara La máscara de la tabla, su longitud menos uno.
+     * @return La posición inicial.
+     */
+    private static int posicionInicial(long dni, int mascara) {
+        return FormatoCompacto.dispersar(dni) & mascara;
+    }
+
+    /**
+     * Compara los nombres de dos filas. Los nombres desconocidos van primero.
+     *
+     * @param fila La primera fila.
+     * @param otra La segunda fila.
+     * @return Un número negativo, cero o positivo si el nombre de la primera
+     * fila es menor, igual o mayor que el de la segunda.
+     */
+    private int compararNombres(int fila, int otra) {
+        int nombre = this.nombres[fila];
+        int otro = this.nombres[otra];
+        if (nombre == NOMBRE_NULO || otro == NOMBRE_NULO) {
+            return Boolean.compare(otro == NOMBRE_NULO, nombre == NOMBRE_NULO);
+        }
+        return this.deposito.comparar(nombre, otro);
+    }
+
+    /**
+     * Obtiene el identificador del nombre normalizado de una fila.
+     *
+     * @param fila La fila del contacto.
+     * @return El identificador del nombre normalizado.
+     */
+    private int normalizado(int fila) {
+        int id = this.nombres[fila];
+        return id == NOMBRE_NULO ? this.nombreVacio : this.normalizados[id];
+    }
+
+    /**
+     * Compara el nombre normalizado de una fila con un valor.
+     *
+     * @param fila La fila del contacto.
+     * @param valor El valor codificado en UTF-8.
+     * @param comoPrefijo {@code true} para considerar iguales los nombres que
+     *                    comienzan con el valor.
+     * @return Un número negativo, cero o positivo si el nombre es menor,
+     * igual o mayor que el valor.
+     */
+    private int compararNormalizado(int fila, byte[] valor, boolean comoPrefijo) {
+        return this.deposito.comparar(normalizado(fila), valor, comoPrefijo);
+    }
+
+    /**
+     * Obtiene el nombre normalizado de un valor buscado, codificado para
+     * compararlo con los nombres del depósito.
+     *
+     * @param valor El valor buscado.
+     * @return El nombre normalizado codificado en UTF-8.
+     */
+    private static byte[] clave(String valor) {
+        return DepositoDeNombres.codificar(Normalizador.normalizarNombre(valor));
+    }
+
+    /**
+     * Busca en el orden por nombre normalizado la primera posición cuyo
+     * nombre no es menor que el valor.
+     *
+     * @param orden Las filas ordenadas por nombre normalizado.
+     * @param valor El valor codificado en UTF-8.
+     * @param comoPrefijo {@code true} para comparar solo el comienzo de los
+     *                    nombres.
+     * @return La primera posición, o la longitud del orden si no hay ninguna.
+     */
+    private int primeraPosicion(int[] orden, byte[] valor, boolean comoPrefijo) {
+        int desde = 0;
+        int hasta = orden.length;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (compararNormalizado(orden[medio], valor, comoPrefijo) < 0) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    /**
+     * Ordena las filas vigentes a partir de una fila en forma estable, de
+     * modo que las filas iguales queden en el orden en que fueron agregadas.
+     *
+     * @param comparador El criterio de orden.
+     * @param primera La primera fila a ordenar.
+     * @return Las filas ordenadas.
+     */
+    private int[] ordenar(ComparadorDeFilas comparador, int primera) {
+        int[] orden = new int[this.filas - primera];
+        int posicion = 0;
+        for (int fila = primera; fila < this.filas; fila++) {
+            if (!this.eliminadas.get(fila)) {
+                orden[posicion] = fila;
+                posicion++;
+            }
+        }
+        if (posicion < orden.length) {
+            orden = Arrays.copyOf(orden, posicion);
+        }
+        int[] auxiliar = new int[orden.length];
+        for (int ancho = 1; ancho < orden.length; ancho = ancho * 2) {
+            for (int desde = 0; desde < orden.length - ancho; desde = desde + ancho * 2) {
+                int medio = desde + ancho;
+                int hasta = Math.min(medio + ancho, orden.length);
+                intercalar(orden, auxiliar, desde, medio, hasta, comparador);
+            }
+        }
+        return orden;
+    }
+
+    /**
+     * Intercala dos tramos consecutivos y ordenados de filas.
+     *
+     * @param orden Las filas.
+     * @param auxiliar Un arreglo auxiliar del mismo tamaño.
+     * @param desde El comienzo del primer tramo.
+     * @param medio El comienzo del segundo tramo.
+     * @param hasta El final del segundo tramo, exclusive.
+     * @param comparador El criterio de orden.
+     */
+    private static void intercalar(int[] orden, int[] auxiliar, int desde, int medio,
+                                   int hasta, ComparadorDeFilas comparador) {
+        if (comparador.comparar(orden[medio - 1], orden[medio]) <= 0) {
+            return;
+        }
+        System.arraycopy(orden, desde, auxiliar, desde, hasta - desde);
+        int izquierda = desde;
+        int derecha = medio;
+        for (int i = desde; i < hasta; i++) {
+            if (derecha >= hasta || izquierda < medio
+                    && comparador.comparar(auxiliar[izquierda], auxiliar[derecha]) <= 0) {
+                orden[i] = auxiliar[izquierda];
+                izquierda++;
+            } else {
+                orden[i] = auxiliar[derecha];
+                derecha++;
+            }
+        }
+    }
+
+    /**
+     * Verifica que la agenda tenga al menos un contacto.
+     *
+     * @throws AgendaDeContactosVaciaException Si la agenda no tiene contactos.
+     */
+    private void verificarAgendaConContactos() throws AgendaDeContactosVaciaException {
+        if (cantidadTotalContactos() == 0) {
+            throw new AgendaDeContactosVaciaException("No hay contactos en la agenda");
+        }
+    }
+
+    /**
+     * Verifica que todos los invitados de un evento estén agendados.
+     *
+     * @param evento El evento a verificar.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    private void verificarInvitadosAgendados(Evento evento)
+            throws ContactoNoEncontradoEnAgendaException {
+        for (Contacto contactoInvitado : evento.obtenerInvitadosEvento()) {
+            if (!verificarExistenciaContacto(contactoInvitado)) {
+                String nombreContacto = contactoInvitado.obtenerNombre();
+                throw new ContactoNoEncontradoEnAgendaException("El contacto ("
+                        + nombreContacto + ") no esta en la Agenda");
+            }
+        }
+    }
+
+    /**
+     * Agrega un evento ya validado a la agenda y a sus índices, y empieza a
+     * observar sus invitados.
+     *
+     * @param evento El evento a agregar.
+     */
+    private void registrarEvento(Evento evento) {
+        this.eventos.add(evento);
+        this.eventosRegistrados.put(evento, evento);
+        for (Contacto contactoInvitado : evento.obtenerInvitadosEvento()) {
+            registrarInvitacion(contactoInvitado, evento);
+        }
+        evento.agregarObservador(this.observadorDeInvitados);
+    }
+
+    /**
+     * Registra en el índice inverso que un contacto está invitado a un evento.
+     *
+     * @param contacto El contacto invitado.
+     * @param evento El evento al que está invitado.
+     */
+    private void registrarInvitacion(Contacto contacto, Evento evento) {
+        this.eventosPorContacto.computeIfAbsent(contacto, c -> new LinkedHashSet<>())
+                .add(evento);
+    }
+
+    /**
+     * Quita del índice inverso la invitación de un contacto a un evento.
+     *
+     * @param contacto El contacto que dejó de estar invitado.
+     * @param evento El evento del que fue quitado.
+     */
+    private void quitarInvitacion(Contacto contacto, Evento evento) {
+        Set<Evento> invitaciones = this.eventosPorContacto.get(contacto);
+        if (invitaciones != null) {
+            invitaciones.remove(evento);
+            if (invitaciones.isEmpty()) {
+                this.eventosPorContacto.remove(contacto);
+            }
+        }
+    }
+
+    /**
+     * Registra un cambio en los invitados hecho directamente sobre un evento,
+     * sin pasar por la agenda. Los cambios hechos por la agenda se registran
+     * al terminar cada operación.
+     */
+    private void registrarCambioDeInvitados() {
+        if (!modificaLaAgenda()) {
+            registrarCambio();
+        }
+    }
+
+    /**
+     * Indica si el hilo actual está modificando invitados a través de la
+     * agenda.
+     *
+     * @return {@code true} si el cambio lo hace la agenda.
+     */
+    private boolean modificaLaAgenda() {
+        return this.modificandoInvitados == Thread.currentThread();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rechazarCambiosDirectosDeInvitados() {
+        this.cambiosDirectosRechazados = true;
+    }
+
+    /**
+     * Registra una modificación de la agenda, descartando la última
+     * instantánea tomada.
+     */
+    private void registrarCambio() {
+        this.version++;
+        this.instantanea = null;
+    }
+
+    /**
+     * Filas de la agenda ordenadas según un criterio, que se mantiene al día
+     * con las escrituras sin volver a ordenar todas las filas. Las altas se
+     * acumulan al final de los arreglos de la agenda y las bajas se marcan;
+     * la próxima consulta ordena solo las filas nuevas y las intercala con
+     * las ya ordenadas, descartando las eliminadas.
+     */
+    private final class OrdenDeFilas {
+        /**
+         * El criterio de orden.
+         */
+        private final ComparadorDeFilas comparador;
+        /**
+         * Las filas ordenadas en la última consulta.
+         */
+        private int[] ordenadas;
+        /**
+         * La cantidad de filas de la agenda en la última consulta; las
+         * siguientes aún no están en {@link #ordenadas}.
+         */
+        private int cubiertas;
+        /**
+         * Si se eliminaron filas desde la última consulta.
+         */
+        private boolean conBajas;
+
+        /**
+         * Constructor que crea un orden vacío.
+         *
+         * @param criterio El criterio de orden.
+         */
+        private OrdenDeFilas(ComparadorDeFilas criterio) {
+            this.comparador = criterio;
+            vaciar();
+        }
+
+        /**
+         * Obtiene las filas vigentes ordenadas, intercalando las agregadas y
+         * descartando las eliminadas desde la última consulta.
+         *
+         * @return Las filas ordenadas.
+         */
+        private int[] obtener() {
+            if (this.cubiertas == filas && !this.conBajas) {
+                return this.ordenadas;
+            }
+            int[] nuevas = ordenar(this.comparador, this.cubiertas);
+            int[] resultado = new int[cantidadTotalContactos()];
+            int anterior = 0;
+            int nueva = 0;
+            int posicion = 0;
+            while (posicion < resultado.length) {
+                if (anterior < this.ordenadas.length
+                        && eliminadas.get(this.ordenadas[anterior])) {
+                    anterior++;
+                } else if (nueva >= nuevas.length || anterior < this.ordenadas.length
+                        && this.comparador.comparar(this.ordenadas[anterior],
+                        nuevas[nueva]) <= 0) {
+                    resultado[posicion] = this.ordenadas[anterior];
+                    anterior++;
+                    posicion++;
+                } else {
+                    resultado[posicion] = nuevas[nueva];
+                    nueva++;
+                    posicion++;
+                }
+            }
+            this.ordenadas = resultado;
+            this.cubiertas = filas;
+            this.conBajas = false;
+            return resultado;
+        }
+
+        /**
+         * Registra que se eliminó una fila.
+         */
+        private void registrarBaja() {
+            this.conBajas = true;
+        }
+
+        /**
+         * Actualiza las filas luego de compactar la agenda, conservando el
+         * orden y descartando las filas eliminadas.
+         *
+         * @param nuevaFila La nueva posición de cada fila anterior, o
+         *                  {@code -1} si fue eliminada.
+         */
+        private void renumerar(int[] nuevaFila) {
+            int[] renumeradas = new int[this.ordenadas.length];
+            int posicion = 0;
+            for (int fila : this.ordenadas) {
+                if (nuevaFila[fila] >= 0) {
+                    renumeradas[posicion] = nuevaFila[fila];
+                    posicion++;
+                }
+            }
+            int vigentes = 0;
+            for (int fila = 0; fila < this.cubiertas; fila++) {
+                if (nuevaFila[fila] >= 0) {
+                    vigentes++;
+                }
+            }
+            this.ordenadas = Arrays.copyOf(renumeradas, posicion);
+            this.cubiertas = vigentes;
+            this.conBajas = false;
+        }
+
+        /**
+         * Descarta todas las filas.
+         */
+        private void vaciar() {
+            this.ordenadas = new int[0];
+            this.cubiertas = 0;
+            this.conBajas = false;
+        }
+
+        /**
+         * Obtiene la cantidad de filas guardadas en el orden.
+         *
+         * @return La longitud del arreglo ordenado.
+         */
+        private int reservadas() {
+            return this.ordenadas.length;
+        }
+    }
+
+    /**
+     * Observador que refleja en el índice inverso cada cambio en los
+     * invitados de un evento registrado.
+     */
+    private final class IndiceDeInvitaciones implements ObservadorDeInvitados {
+
+        /**
+         * Impide los cambios hechos directamente sobre el evento si la agenda
+         * los rechaza.
+         *
+         * @param evento El evento a modificar.
+         * @param contacto El contacto a invitar o quitar.
+         * @throws IllegalStateException Si el cambio no lo hace la agenda y
+         *                               esta rechaza los cambios directos.
+         */
+        @Override
+        public void autorizarCambio(Evento evento, Contacto contacto) {
+            if (cambiosDirectosRechazados && !modificaLaAgenda()) {
+                throw new IllegalStateException("Los invitados del evento "
+                        + evento.obtenerNombreEvento()
+                        + " solo pueden modificarse a través de la agenda");
+            }
+        }
+
+        /**
+         * Registra la invitación en el índice inverso.
+         *
+         * @param evento El evento modificado.
+         * @param contacto El contacto invitado.
+         */
+        @Override
+        public void invitadoAgregado(Evento evento, Contacto contacto) {
+            registrarInvitacion(contacto, evento);
+            registrarCambioDeInvitados();
+        }
+
+        /**
+         * Quita la invitación del índice inverso.
+         *
+         * @param evento El evento modificado.
+         * @param contacto El contacto quitado.
+         */
+        @Override
+        public void invitadoQuitado(Evento evento, Contacto contacto) {
+            quitarInvitacion(contacto, evento);
+            registrarCambioDeInvitados();
+        }
+    }
+}
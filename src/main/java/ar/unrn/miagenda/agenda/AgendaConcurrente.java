@@ -0,0 +1,743 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Agenda que puede ser compartida entre varios hilos. Las consultas se
+ * ejecutan en paralelo bajo un bloqueo de lectura, mientras que cada
+ * modificación, incluyendo sus validaciones y el borrado en cascada de
+ * invitaciones, se ejecuta de forma atómica bajo un bloqueo de escritura.
+ * <p>
+ * Los listados de contactos y de eventos son vistas de los índices
+ * persistentes de la agenda protegida: se obtienen en O(1) sin copiar
+ * elementos y no reflejan las modificaciones posteriores, por lo que pueden
+ * recorrerse fuera del bloqueo. Los invitados de un evento devuelto deben
+ * consultarse mediante la agenda si otros hilos pueden modificarlos.
+ * <p>
+ * Los invitados de los eventos registrados solo pueden modificarse a través
+ * de la agenda: un cambio hecho directamente sobre el evento no tomaría el
+ * bloqueo de escritura, así que se rechaza con
+ * {@link IllegalStateException}.
+ */
+public class AgendaConcurrente implements IAgenda {
+
+    /**
+     * La agenda protegida, a la que solo se accede bajo el bloqueo.
+     */
+    private final Agenda agenda;
+    /**
+     * El bloqueo de lectura, compartido por todas las consultas.
+     */
+    private final Lock lectura;
+    /**
+     * El bloqueo de escritura, exclusivo de cada modificación.
+     */
+    private final Lock escritura;
+
+    /**
+     * Constructor que crea una agenda concurrente vacía.
+     */
+    public AgendaConcurrente() {
+        this(new Agenda());
+    }
+
+    /**
+     * Constructor que protege una agenda existente. La agenda indicada no debe
+     * seguir usándose directamente luego de crear esta instancia, y deja de
+     * admitir cambios directos sobre los invitados de sus eventos.
+     *
+     * @param agendaProtegida La agenda a proteger.
+     */
+    public AgendaConcurrente(Agenda agendaProtegida) {
+        this.agenda = agendaProtegida;
+        this.agenda.rechazarCambiosDirectosDeInvitados();
+        ReadWriteLock bloqueo = new ReentrantReadWriteLock();
+        this.lectura = bloqueo.readLock();
+        this.escritura = bloqueo.writeLock();
+    }
+
+    /**
+     * Agrega un contacto a la agenda.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     */
+    @Override
+    public void agregarContacto(Contacto contacto) throws ContactoDuplicadoException {
+        this.escritura.lock();
+        try {
+            this.agenda.agregarContacto(contacto);
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Agrega varios contactos a la agenda, validando y aplicando todo el lote
+     * bajo una única adquisición del bloqueo de escritura.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     */
+    @Override
+    public void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException {
+        this.escritura.lock();
+        try {
+            this.agenda.agregarContactos(nuevos);
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Carga sobre una agenda vacía todos sus contactos y eventos, armando los
+     * índices en bloque bajo una única adquisición del bloqueo de escritura.
+     *
+     * @param nuevos Los contactos a cargar.
+     * @param nuevosEventos Los eventos a cargar, en orden, con sus invitados.
+     * @throws ContactoDuplicadoException Si el DNI de algún contacto se repite.
+     * @throws EventoDuplicadoException Si algún evento se repite.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún invitado no está
+     * entre los contactos cargados.
+     */
+    @Override
+    public void cargarContenido(Collection<Contacto> nuevos,
+                                Collection<Evento> nuevosEventos)
+            throws ContactoDuplicadoException, EventoDuplicadoException,
+            ContactoNoEncontradoEnAgendaException {
+        this.escritura.lock();
+        try {
+            this.agenda.cargarContenido(nuevos, nuevosEventos);
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Elimina un contacto de la agenda y de todos los eventos donde esté
+     * invitado, en una única operación atómica.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * el contacto en la agenda
+     */
+    @Override
+    public void eliminarContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        this.escritura.lock();
+        try {
+            this.agenda.eliminarContacto(contacto);
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Busca un contacto en la agenda por su nombre.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
+     * contacto con el nombre especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorNombre(String nombre)
+            throws ContactoNoEncontradoEnAgendaException {
+        this.lectura.lock();
+        try {
+            return this.agenda.buscarContactoPorNombre(nombre);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Busca los contactos cuyo nombre comienza con el prefijo indicado.
+     *
+     * @param prefijo El comienzo del nombre a buscar.
+     * @param cantidadMaxima La cantidad máxima de contactos a devolver.
+     * @return Los contactos encontrados, ordenados por nombre.
+     */
+    @Override
+    public List<Contacto> buscarContactosPorPrefijo(String prefijo, int cantidadMaxima) {
+        this.lectura.lock();
+        try {
+            return this.agenda.buscarContactosPorPrefijo(prefijo, cantidadMaxima);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Busca un contacto en la agenda por su DNI.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * un contacto con el DNI especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorDni(String dni)
+            throws ContactoNoEncontradoEnAgendaException {
+        this.lectura.lock();
+        try {
+            return this.agenda.buscarContactoPorDni(dni);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una lista de solo lectura ordenada por fecha de nacimiento.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento()
+            throws AgendaDeContactosVaciaException {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarContactosPorNacimiento();
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarContactosPorNacimiento(desde, cantidad);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una lista de solo lectura ordenada por nombre.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre()
+            throws AgendaDeContactosVaciaException {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarContactosPorNombre();
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarContactosPorNombre(desde, cantidad);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista los contactos nacidos entre dos fechas, ambas inclusive.
+     *
+     * @param desde La fecha de nacimiento inicial.
+     * @param hasta La fecha de nacimiento final.
+     * @return Los contactos nacidos en el rango, vacío si no hay ninguno.
+     */
+    public List<Contacto> listarContactosNacidosEntre(LocalDate desde, LocalDate hasta) {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarContactosNacidosEntre(desde, hasta);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista los contactos que cumplen años entre dos días del año, ambos
+     * inclusive, continuando a través del fin de año si es necesario.
+     *
+     * @param desde El primer día de la ventana.
+     * @param hasta El último día de la ventana.
+     * @return Los contactos que cumplen años en la ventana.
+     */
+    public List<Contacto> listarCumpleaniosEntre(MonthDay desde, MonthDay hasta) {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarCumpleaniosEntre(desde, hasta);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista los contactos que cumplen años en los próximos días a partir de
+     * una fecha, incluyendo esa fecha.
+     *
+     * @param desde La fecha a partir de la cual se buscan cumpleaños.
+     * @param dias La cantidad de días posteriores a incluir.
+     * @return Los contactos que cumplen años en la ventana.
+     */
+    public List<Contacto> listarProximosCumpleanios(LocalDate desde, int dias) {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarProximosCumpleanios(desde, dias);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Obtiene la cantidad total de contactos en la agenda.
+     *
+     * @return El número total de contactos.
+     */
+    @Override
+    public int cantidadTotalContactos() {
+        this.lectura.lock();
+        try {
+            return this.agenda.cantidadTotalContactos();
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Verifica si un contacto ya existe en la agenda.
+     *
+     * @param contacto El contacto a verificar.
+     * @return {@code true} si el contacto ya existe, {@code false} en caso contrario.
+     */
+    @Override
+    public boolean verificarExistenciaContacto(Contacto contacto) {
+        this.lectura.lock();
+        try {
+            return this.agenda.verificarExistenciaContacto(contacto);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Limpia todos los contactos y eventos de la agenda.
+     */
+    @Override
+    public void limpiarAgenda() {
+        this.escritura.lock();
+        try {
+            this.agenda.limpiarAgenda();
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Crea un evento en la agenda. La validación de los invitados y el alta
+     * del evento se realizan de forma atómica.
+     *
+     * @param evento El evento a ser creado.
+     * @throws EventoDuplicadoException Si el evento ya existe.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEvento(Evento evento)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        this.escritura.lock();
+        try {
+            this.agenda.crearEvento(evento);
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Crea varios eventos en la agenda, validando y aplicando todo el lote
+     * bajo una única adquisición del bloqueo de escritura.
+     *
+     * @param nuevos Los eventos a ser creados, en orden.
+     * @throws EventoDuplicadoException Si algún evento ya existe o se repite
+     * dentro del lote.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEventos(Collection<Evento> nuevos)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        this.escritura.lock();
+        try {
+            this.agenda.crearEventos(nuevos);
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Agrega un contacto a la lista de invitados del evento.
+     *
+     * @param evento El evento en el cual se quiere agregar un invitado.
+     * @param contacto El contacto a agregar.
+     * @throws ContactoYaInvitadoException si el contacto ya esta invitado.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra el
+     * contacto en la agenda.
+     */
+    @Override
+    public void agregarInvitadoEvento(Evento evento, Contacto contacto)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        this.escritura.lock();
+        try {
+            this.agenda.agregarInvitadoEvento(evento, contacto);
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Agrega varios contactos a la lista de invitados del evento, validando y
+     * aplicando todo el lote bajo una única adquisición del bloqueo de
+     * escritura.
+     *
+     * @param evento El evento en el cual se quieren agregar los invitados.
+     * @param nuevosInvitados Los contactos a agregar, en orden.
+     * @throws ContactoYaInvitadoException si algún contacto ya esta invitado o
+     * se repite dentro del lote.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public void agregarInvitadosEvento(Evento evento,
+                                       Collection<Contacto> nuevosInvitados)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        this.escritura.lock();
+        try {
+            this.agenda.agregarInvitadosEvento(evento, nuevosInvitados);
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Elimina un contacto de la lista de invitados del evento.
+     *
+     * @param evento El evento del cual se quiere quitar un invitado.
+     * @param contacto El contacto a eliminar.
+     * @throws ContactoNoEncontradoEnEventoException Si no se encuentra un contacto.
+     * @throws EventoNoEncontradoException Si el evento no se encuentra en la agenda.
+     */
+    @Override
+    public void quitarInvitadoEvento(Evento evento, Contacto contacto)
+            throws EventoNoEncontradoException, ContactoNoEncontradoEnEventoException {
+        this.escritura.lock();
+        try {
+            this.agenda.quitarInvitadoEvento(evento, contacto);
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventosDeContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarEventosDeContacto(contacto);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista todos los eventos de la agenda.
+     *
+     * @return Una vista inmutable de los eventos registrados en la agenda.
+     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventos() throws AgendaDeEventosVaciaException {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarEventos();
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista los eventos que ocurren entre dos fechas, ambas inclusive.
+     *
+     * @param desde La fecha inicial del rango.
+     * @param hasta La fecha final del rango.
+     * @return Los eventos del rango, vacío si no hay ninguno.
+     */
+    public List<Evento> listarEventosEntre(LocalDate desde, LocalDate hasta) {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarEventosEntre(desde, hasta);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista los próximos eventos a partir de una fecha, incluyéndola.
+     *
+     * @param desde La fecha a partir de la cual se buscan eventos.
+     * @param cantidad La cantidad máxima de eventos a devolver.
+     * @return Los próximos eventos, vacío si no hay ninguno.
+     */
+    public List<Evento> listarProximosEventos(LocalDate desde, int cantidad) {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarProximosEventos(desde, cantidad);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista los eventos de un día.
+     *
+     * @param fecha El día a consultar.
+     * @return Los eventos del día, vacío si no hay ninguno.
+     */
+    public List<Evento> listarEventosDelDia(LocalDate fecha) {
+        this.lectura.lock();
+        try {
+            return this.agenda.listarEventosDelDia(fecha);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Busca un contacto por su DNI sin lanzar excepciones si no existe.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorDni(String dni) {
+        this.lectura.lock();
+        try {
+            return this.agenda.consultarContactoPorDni(dni);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Busca un contacto por su nombre sin lanzar excepciones si no existe.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorNombre(String nombre) {
+        this.lectura.lock();
+        try {
+            return this.agenda.consultarContactoPorNombre(nombre);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Los contactos ordenados, vacío si la agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento() {
+        this.lectura.lock();
+        try {
+            return this.agenda.consultarContactosPorNacimiento();
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Los contactos de la porción pedida, vacío si no hay ninguno.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento(int desde, int cantidad) {
+        this.lectura.lock();
+        try {
+            return this.agenda.consultarContactosPorNacimiento(desde, cantidad);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Los contactos ordenados, vacío si la agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre() {
+        this.lectura.lock();
+        try {
+            return this.agenda.consultarContactosPorNombre();
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Los contactos de la porción pedida, vacío si no hay ninguno.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre(int desde, int cantidad) {
+        this.lectura.lock();
+        try {
+            return this.agenda.consultarContactosPorNombre(desde, cantidad);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno o
+     * no se encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> consultarEventosDeContacto(Contacto contacto) {
+        this.lectura.lock();
+        try {
+            return this.agenda.consultarEventosDeContacto(contacto);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Lista todos los eventos de la agenda.
+     *
+     * @return Una vista inmutable de los eventos de la agenda, vacía si no
+     * hay ninguno.
+     */
+    @Override
+    public List<Evento> consultarEventos() {
+        this.lectura.lock();
+        try {
+            return this.agenda.consultarEventos();
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Toma una instantánea inmutable del contenido de la agenda. Una vez
+     * tomada, puede recorrerse sin bloquear a los hilos que modifican la
+     * agenda. Varios lectores pueden pedirla a la vez: la agenda serializa
+     * su construcción y comparte la vigente sin bloquear.
+     *
+     * @return La instantánea de la agenda.
+     */
+    @Override
+    public InstantaneaAgenda tomarInstantanea() {
+        this.lectura.lock();
+        try {
+            return this.agenda.tomarInstantanea();
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Deja de admitir cambios directos sobre los invitados de los eventos de
+     * la agenda protegida. La agenda ya los rechaza desde que se la protege.
+     */
+    @Override
+    public void rechazarCambiosDirectosDeInvitados() {
+        this.agenda.rechazarCambiosDirectosDeInvitados();
+    }
+
+    /**
+     * Ejecuta una lectura sobre los índices vigentes de la agenda, bajo el
+     * bloqueo de lectura, de modo que todo lo que lee corresponde al mismo
+     * estado de la agenda.
+     *
+     * @param lectura La lectura a ejecutar.
+     * @param <R> El tipo del resultado de la lectura.
+     * @return El resultado de la lectura.
+     */
+    @Override
+    public <R> R leerIndices(Function<? super IndicesDeAgenda, ? extends R> lectura) {
+        this.lectura.lock();
+        try {
+            return this.agenda.leerIndices(lectura);
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+}
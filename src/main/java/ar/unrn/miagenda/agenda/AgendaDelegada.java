@@ -0,0 +1,432 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Base para las agendas que agregan comportamiento a otra agenda, como la
+ * persistencia o las métricas. Por defecto, cada operación se delega sin
+ * cambios en la agenda envuelta; las subclases redefinen solo las
+ * operaciones que les interesan.
+ */
+public abstract class AgendaDelegada implements IAgenda {
+
+    /**
+     * La agenda que resuelve las operaciones.
+     */
+    private final IAgenda delegada;
+
+    /**
+     * Constructor que envuelve la agenda indicada.
+     *
+     * @param agendaDelegada La agenda que resuelve las operaciones.
+     */
+    protected AgendaDelegada(IAgenda agendaDelegada) {
+        this.delegada = agendaDelegada;
+    }
+
+    /**
+     * Obtiene la agenda envuelta.
+     *
+     * @return La agenda que resuelve las operaciones.
+     */
+    protected IAgenda obtenerDelegada() {
+        return this.delegada;
+    }
+
+    /**
+     * Agrega un contacto a la agenda.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     */
+    @Override
+    public void agregarContacto(Contacto contacto) throws ContactoDuplicadoException {
+        this.delegada.agregarContacto(contacto);
+    }
+
+    /**
+     * Agrega varios contactos a la agenda.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     */
+    @Override
+    public void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException {
+        this.delegada.agregarContactos(nuevos);
+    }
+
+    /**
+     * Elimina un contacto de la agenda.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * el contacto en la agenda
+     */
+    @Override
+    public void eliminarContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        this.delegada.eliminarContacto(contacto);
+    }
+
+    /**
+     * Busca un contacto en la agenda por su nombre.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
+     * contacto con el nombre especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorNombre(String nombre)
+            throws ContactoNoEncontradoEnAgendaException {
+        return this.delegada.buscarContactoPorNombre(nombre);
+    }
+
+    /**
+     * Busca los contactos cuyo nombre comienza con el prefijo indicado.
+     *
+     * @param prefijo El comienzo del nombre a buscar.
+     * @param cantidadMaxima La cantidad máxima de contactos a devolver.
+     * @return Los contactos encontrados, ordenados por nombre.
+     */
+    @Override
+    public List<Contacto> buscarContactosPorPrefijo(String prefijo, int cantidadMaxima) {
+        return this.delegada.buscarContactosPorPrefijo(prefijo, cantidadMaxima);
+    }
+
+    /**
+     * Busca un contacto en la agenda por su DNI.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * un contacto con el DNI especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorDni(String dni)
+            throws ContactoNoEncontradoEnAgendaException {
+        return this.delegada.buscarContactoPorDni(dni);
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una lista de contactos ordenada por fecha de nacimiento.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento()
+            throws AgendaDeContactosVaciaException {
+        return this.delegada.listarContactosPorNacimiento();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        return this.delegada.listarContactosPorNacimiento(desde, cantidad);
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una lista de contactos ordenada por nombre.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre()
+            throws AgendaDeContactosVaciaException {
+        return this.delegada.listarContactosPorNombre();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        return this.delegada.listarContactosPorNombre(desde, cantidad);
+    }
+
+    /**
+     * Obtiene la cantidad total de contactos en la agenda.
+     *
+     * @return El número total de contactos.
+     */
+    @Override
+    public int cantidadTotalContactos() {
+        return this.delegada.cantidadTotalContactos();
+    }
+
+    /**
+     * Verifica si un contacto ya existe en la agenda.
+     *
+     * @param contacto El contacto a verificar.
+     * @return {@code true} si el contacto ya existe, {@code false} en caso contrario.
+     */
+    @Override
+    public boolean verificarExistenciaContacto(Contacto contacto) {
+        return this.delegada.verificarExistenciaContacto(contacto);
+    }
+
+    /**
+     * Limpia todos los contactos y eventos de la agenda.
+     */
+    @Override
+    public void limpiarAgenda() {
+        this.delegada.limpiarAgenda();
+    }
+
+    /**
+     * Crea un evento en la agenda.
+     *
+     * @param evento El evento a ser creado.
+     * @throws EventoDuplicadoException Si el evento ya existe.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEvento(Evento evento)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        this.delegada.crearEvento(evento);
+    }
+
+    /**
+     * Crea varios eventos en la agenda.
+     *
+     * @param nuevos Los eventos a ser creados, en orden.
+     * @throws EventoDuplicadoException Si algún evento ya existe o se repite
+     * dentro del lote.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEventos(Collection<Evento> nuevos)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        this.delegada.crearEventos(nuevos);
+    }
+
+    /**
+     * Agrega un contacto a la lista de invitados del evento.
+     *
+     * @param evento El evento en el cual se quiere agregar un invitado.
+     * @param contacto El contacto a agregar.
+     * @throws ContactoYaInvitadoException si el contacto ya esta invitado.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra el
+     * contacto en la agenda.
+     */
+    @Override
+    public void agregarInvitadoEvento(Evento evento, Contacto contacto)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        this.delegada.agregarInvitadoEvento(evento, contacto);
+    }
+
+    /**
+     * Agrega varios contactos a la lista de invitados del evento.
+     *
+     * @param evento El evento en el cual se quieren agregar los invitados.
+     * @param nuevosInvitados Los contactos a agregar, en orden.
+     * @throws ContactoYaInvitadoException si algún contacto ya esta invitado o
+     * se repite dentro del lote.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public void agregarInvitadosEvento(Evento evento,
+                                       Collection<Contacto> nuevosInvitados)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        this.delegada.agregarInvitadosEvento(evento, nuevosInvitados);
+    }
+
+    /**
+     * Elimina un contacto de la lista de invitados del evento.
+     *
+     * @param evento El evento del cual se quiere quitar un invitado.
+     * @param contacto El contacto a eliminar.
+     * @throws ContactoNoEncontradoEnEventoException Si no se encuentra un contacto.
+     * @throws EventoNoEncontradoException Si el evento no se encuentra en la agenda.
+     */
+    @Override
+    public void quitarInvitadoEvento(Evento evento, Contacto contacto)
+            throws EventoNoEncontradoException, ContactoNoEncontradoEnEventoException {
+        this.delegada.quitarInvitadoEvento(evento, contacto);
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventosDeContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        return this.delegada.listarEventosDeContacto(contacto);
+    }
+
+    /**
+     * Lista todos los eventos de la agenda.
+     *
+     * @return Una lista de eventos registrados en la agenda.
+     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventos() throws AgendaDeEventosVaciaException {
+        return this.delegada.listarEventos();
+    }
+
+    /**
+     * Busca un contacto por su DNI sin lanzar excepciones si no existe.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorDni(String dni) {
+        return this.delegada.consultarContactoPorDni(dni);
+    }
+
+    /**
+     * Busca un contacto por su nombre sin lanzar excepciones si no existe.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorNombre(String nombre) {
+        return this.delegada.consultarContactoPorNombre(nombre);
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Los contactos ordenados, vacío si la agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento() {
+        return this.delegada.consultarContactosPorNacimiento();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Los contactos de la porción pedida, vacío si no hay ninguno.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento(int desde, int cantidad) {
+        return this.delegada.consultarContactosPorNacimiento(desde, cantidad);
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Los contactos ordenados, vacío si la agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre() {
+        return this.delegada.consultarContactosPorNombre();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Los contactos de la porción pedida, vacío si no hay ninguno.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre(int desde, int cantidad) {
+        return this.delegada.consultarContactosPorNombre(desde, cantidad);
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno o
+     * no se encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> consultarEventosDeContacto(Contacto contacto) {
+        return this.delegada.consultarEventosDeContacto(contacto);
+    }
+
+    /**
+     * Lista todos los eventos de la agenda.
+     *
+     * @return Los eventos de la agenda, vacío si no hay ninguno.
+     */
+    @Override
+    public List<Evento> consultarEventos() {
+        return this.delegada.consultarEventos();
+    }
+
+    /**
+     * Toma una instantánea inmutable del contenido de la agenda.
+     *
+     * @return La instantánea de la agenda.
+     */
+    @Override
+    public InstantaneaAgenda tomarInstantanea() {
+        return this.delegada.tomarInstantanea();
+    }
+
+    /**
+     * Ejecuta una lectura sobre los índices de la agenda envuelta.
+     *
+     * @param lectura La lectura a ejecutar.
+     * @param <R> El tipo del resultado de la lectura.
+     * @return El resultado de la lectura.
+     */
+    @Override
+    public <R> R leerIndices(Function<? super IndicesDeAgenda, ? extends R> lectura) {
+        return this.delegada.leerIndices(lectura);
+    }
+
+    /**
+     * Deja de admitir cambios directos sobre los invitados de los eventos de
+     * la agenda envuelta.
+     */
+    @Override
+    public void rechazarCambiosDirectosDeInvitados() {
+        this.delegada.rechazarCambiosDirectosDeInvitados();
+    }
+}
@@ -0,0 +1,1813 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.IContacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Agenda que guarda contactos, eventos e invitaciones fuera del heap, en
+ * {@link java.nio.ByteBuffer} directos, de modo que una agenda de decenas de
+ * millones de contactos ocupe un heap pequeño y no alargue las pausas del
+ * recolector.
+ * <p>
+ * Cada contacto es un registro de tamaño fijo con su DNI como {@code long},
+ * su nacimiento como día desde la época, la dirección de su nombre y de su
+ * nombre normalizado, y la lista de eventos a los que está invitado. Cada
+ * evento es un registro con su nombre, su fecha y la lista de filas de sus
+ * invitados. Las búsquedas por DNI y por evento usan tablas de
+ * direccionamiento abierto, y los órdenes por nombre y por nacimiento son
+ * arreglos de filas que se mantienen de forma incremental: la primera
+ * consulta luego de una modificación ordena solo los contactos agregados
+ * desde la anterior y los intercala con las filas ya ordenadas, descartando
+ * las eliminadas. Todo ello vive fuera del heap: dentro del heap solo quedan
+ * las referencias a las páginas.
+ * <p>
+ * Los contactos y eventos que devuelven las consultas se crean en el momento
+ * a partir de sus registros. Por eso, a diferencia de {@link Agenda}, los
+ * eventos recibidos no se conservan ni se modifican: invitar o quitar
+ * invitados cambia el registro del evento, y para ver el cambio hay que
+ * volver a consultarlo. Los DNI y fechas admitidos son los mismos que en
+ * {@link AgendaCompacta}. Un evento admite hasta un millón de invitados.
+ * <p>
+ * Los nombres y las listas de invitaciones de los contactos eliminados, y
+ * las listas que se reemplazan al crecer, vuelven a las listas de bloques
+ * libres de su región y se reutilizan en las reservas siguientes del mismo
+ * tamaño. La memoria fuera
+ * del heap se reserva con {@code ByteBuffer.allocateDirect}, por lo que su
+ * máximo se fija con {@code -XX:MaxDirectMemorySize}.
+ * <p>
+ * Esta clase no es segura para el acceso concurrente.
+ */
+public class AgendaFueraDelHeap implements IAgenda {
+
+    /**
+     * La cantidad de bits de las páginas de registros y órdenes.
+     */
+    private static final int BITS_REGISTROS = 20;
+    /**
+     * La cantidad de bits de las páginas de nombres y listas.
+     */
+    private static final int BITS_DATOS = 22;
+    /**
+     * El tamaño del registro de un contacto.
+     */
+    private static final int BYTES_CONTACTO = 56;
+    /**
+     * Posición del DNI en el registro de un contacto, o de la siguiente fila
+     * libre si el contacto fue eliminado.
+     */
+    private static final int C_DNI = 0;
+    /**
+     * Posición del número de alta en el registro de un contacto.
+     */
+    private static final int C_SECUENCIA = 8;
+    /**
+     * Posición de la dirección del nombre en el registro de un contacto.
+     */
+    private static final int C_NOMBRE = 16;
+    /**
+     * Posición de la lista de eventos en el registro de un contacto.
+     */
+    private static final int C_INVITACIONES = 24;
+    /**
+     * Posición del nacimiento en el registro de un contacto.
+     */
+    private static final int C_NACIMIENTO = 40;
+    /**
+     * Posición de la longitud del nombre en el registro de un contacto.
+     */
+    private static final int C_LARGO_NOMBRE = 44;
+    /**
+     * Posición de la longitud del nombre normalizado en el registro de un
+     * contacto; el nombre normalizado sigue al nombre.
+     */
+    private static final int C_LARGO_NORMALIZADO = 48;
+    /**
+     * Posición de las marcas en el registro de un contacto.
+     */
+    private static final int C_MARCAS = 52;
+    /**
+     * El tamaño del registro de un evento.
+     */
+    private static final int BYTES_EVENTO = 32;
+    /**
+     * Posición de la dirección del nombre en el registro de un evento.
+     */
+    private static final int E_NOMBRE = 0;
+    /**
+     * Posición de la lista de invitados en el registro de un evento.
+     */
+    private static final int E_INVITADOS = 8;
+    /**
+     * Posición de la longitud del nombre en el registro de un evento.
+     */
+    private static final int E_LARGO_NOMBRE = 24;
+    /**
+     * Posición de la fecha en el registro de un evento.
+     */
+    private static final int E_FECHA = 28;
+    /**
+     * Posición de la cantidad de elementos en la cabecera de una lista, que
+     * comienza con la dirección de sus elementos.
+     */
+    private static final int L_CANTIDAD = 8;
+    /**
+     * Posición de la capacidad en la cabecera de una lista.
+     */
+    private static final int L_CAPACIDAD = 12;
+    /**
+     * La capacidad inicial de una lista.
+     */
+    private static final int CAPACIDAD_INICIAL_LISTA = 4;
+    /**
+     * Marca de los contactos cuyo DNI fue ingresado con separadores.
+     */
+    private static final int MARCA_SEPARADORES = 1;
+    /**
+     * Marca de las filas de contactos eliminados.
+     */
+    private static final int MARCA_ELIMINADO = 2;
+    /**
+     * Longitud que representa un nombre desconocido.
+     */
+    private static final int LARGO_NULO = -1;
+    /**
+     * Tamaño de los tramos que se ordenan por inserción.
+     */
+    private static final int TRAMO_INSERCION = 16;
+    /**
+     * Número primo usado para combinar el nombre y la fecha de un evento.
+     */
+    private static final int PRIMO = 31;
+
+    /**
+     * Los registros de los contactos.
+     */
+    private final RegionFueraDelHeap contactos;
+    /**
+     * Los registros de los eventos.
+     */
+    private final RegionFueraDelHeap eventos;
+    /**
+     * Los nombres de contactos y eventos.
+     */
+    private final RegionFueraDelHeap nombres;
+    /**
+     * Los elementos de las listas de invitados y de invitaciones.
+     */
+    private final RegionFueraDelHeap listas;
+    /**
+     * Índice de las filas de contactos por DNI.
+     */
+    private final TablaFueraDelHeap porDni;
+    /**
+     * Índice de los eventos por nombre y fecha.
+     */
+    private final TablaFueraDelHeap porEvento;
+    /**
+     * Las filas ordenadas por nombre.
+     */
+    private final OrdenDeFilas ordenPorNombre;
+    /**
+     * Las filas ordenadas por nombre normalizado.
+     */
+    private final OrdenDeFilas ordenPorNormalizado;
+    /**
+     * Las filas ordenadas por nacimiento.
+     */
+    private final OrdenDeFilas ordenPorNacimiento;
+    /**
+     * La cantidad de filas de contactos usadas, incluidas las libres.
+     */
+    private int filas;
+    /**
+     * La cantidad de contactos de la agenda.
+     */
+    private int vigentes;
+    /**
+     * La primera fila libre para reutilizar, o {@code -1} si no hay ninguna.
+     */
+    private int primeraLibre;
+    /**
+     * El número de alta del próximo contacto, que desempata los órdenes.
+     */
+    private long altas;
+    /**
+     * La cantidad de eventos de la agenda.
+     */
+    private int cantidadEventos;
+    /**
+     * La cantidad de modificaciones que recibió la agenda desde su creación.
+     */
+    private long version;
+    /**
+     * La última instantánea tomada, compartida por todos los lectores hasta
+     * la próxima modificación; {@code null} si debe tomarse de nuevo.
+     */
+    private volatile InstantaneaAgenda instantanea;
+
+    /**
+     * Compara dos filas de contactos.
+     */
+    @FunctionalInterface
+    private interface ComparadorDeFilas {
+        /**
+         * Compara dos filas.
+         *
+         * @param fila La primera fila.
+         * @param otra La segunda fila.
+         * @return Un número negativo, cero o positivo si la primera fila va
+         * antes, en el mismo lugar o después que la segunda.
+         */
+        int comparar(int fila, int otra);
+    }
+
+    /**
+     * Constructor que inicializa una agenda vacía fuera del heap.
+     */
+    public AgendaFueraDelHeap() {
+        this.contactos = new RegionFueraDelHeap(BITS_REGISTROS);
+        this.eventos = new RegionFueraDelHeap(BITS_REGISTROS);
+        this.nombres = new RegionFueraDelHeap(BITS_DATOS);
+        this.listas = new RegionFueraDelHeap(BITS_DATOS);
+        this.porDni = new TablaFueraDelHeap(fila -> FormatoCompacto.dispersar(dni(fila)));
+        this.porEvento = new TablaFueraDelHeap(this::hashEvento);
+        this.ordenPorNombre = new OrdenDeFilas(this::compararNombres);
+        this.ordenPorNormalizado = new OrdenDeFilas(this::compararNormalizados);
+        this.ordenPorNacimiento = new OrdenDeFilas(this::compararNacimientos);
+        this.primeraLibre = -1;
+        this.version = 0;
+    }
+
+    /**
+     * Agrega un contacto a la agenda.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     * @throws IllegalArgumentException Si el DNI o la fecha de nacimiento no
+     * pueden representarse en forma compacta.
+     */
+    @Override
+    public void agregarContacto(Contacto contacto)
+            throws ContactoDuplicadoException {
+        long dni = FormatoCompacto.dni(contacto);
+        int nacimiento = FormatoCompacto.dia(contacto.obtenerFechaNacimiento());
+        if (buscarFila(dni) >= 0) {
+            throw new ContactoDuplicadoException("Ya existe un"
+                    + "contacto con ese numero de DNI");
+        }
+        agregarFila(contacto, dni, nacimiento);
+        registrarCambio();
+    }
+
+    /**
+     * Agrega varios contactos a la agenda en una única modificación. Todo el
+     * lote se valida antes de modificar la agenda, por lo que si algún
+     * contacto no puede agregarse no se agrega ninguno.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     * @throws IllegalArgumentException Si algún DNI o fecha de nacimiento no
+     * puede representarse en forma compacta.
+     */
+    @Override
+    public void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException {
+        long[] dnisDelLote = new long[nuevos.size()];
+        int[] nacimientosDelLote = new int[nuevos.size()];
+        int posicion = 0;
+        for (Contacto contacto : nuevos) {
+            dnisDelLote[posicion] = FormatoCompacto.dni(contacto);
+            nacimientosDelLote[posicion] =
+                    FormatoCompacto.dia(contacto.obtenerFechaNacimiento());
+            if (buscarFila(dnisDelLote[posicion]) >= 0) {
+                throw new ContactoDuplicadoException("Ya existe un contacto con el "
+                        + "DNI " + contacto.obtenerDni());
+            }
+            posicion++;
+        }
+        long[] ordenados = dnisDelLote.clone();
+        Arrays.sort(ordenados);
+        for (int i = 1; i < ordenados.length; i++) {
+            if (ordenados[i] == ordenados[i - 1]) {
+                throw new ContactoDuplicadoException("Ya existe un contacto con el "
+                        + "DNI " + ordenados[i]);
+            }
+        }
+        if (nuevos.isEmpty()) {
+            return;
+        }
+        posicion = 0;
+        for (Contacto contacto : nuevos) {
+            agregarFila(contacto, dnisDelLote[posicion], nacimientosDelLote[posicion]);
+            posicion++;
+        }
+        registrarCambio();
+    }
+
+    /**
+     * Elimina un contacto de la agenda mediante su DNI, quitándolo de los
+     * eventos donde está invitado.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * el contacto en la agenda
+     */
+    @Override
+    public void eliminarContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        int fila = buscarFila(contacto.obtenerDniNormalizado());
+        if (fila < 0) {
+            throw new ContactoNoEncontradoEnAgendaException("El contacto "
+                    + "que desea eliminar no existe");
+        }
+        long invitaciones = registro(fila) + C_INVITACIONES;
+        for (int i = 0; i < cantidad(this.contactos, invitaciones); i++) {
+            int evento = elemento(this.contactos, invitaciones, i);
+            quitarDeLista(this.eventos, registroEvento(evento) + E_INVITADOS, fila);
+        }
+        this.porDni.quitar(fila);
+        liberarLista(this.contactos, invitaciones);
+        long registro = registro(fila);
+        this.nombres.liberar(this.contactos.leerLong(registro + C_NOMBRE),
+                Math.max(this.contactos.leerInt(registro + C_LARGO_NOMBRE), 0)
+                        + largoNormalizado(fila));
+        this.contactos.escribirInt(registro + C_MARCAS, MARCA_ELIMINADO);
+        this.contactos.escribirLong(registro + C_DNI, this.primeraLibre);
+        this.primeraLibre = fila;
+        this.vigentes--;
+        this.ordenPorNombre.registrarBaja();
+        this.ordenPorNormalizado.registrarBaja();
+        this.ordenPorNacimiento.registrarBaja();
+        registrarCambio();
+    }
+
+    /**
+     * Busca un contacto en la agenda por su nombre, sin distinguir mayúsculas
+     * ni acentos. Si hay varios contactos con el mismo nombre se devuelve el
+     * primero que fue agregado.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
+     * contacto con el nombre especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorNombre(String nombre)
+            throws ContactoNoEncontradoEnAgendaException {
+        return consultarContactoPorNombre(nombre).orElseThrow(() ->
+                new ContactoNoEncontradoEnAgendaException("No se encuentra"
+                        + " un contacto con ese nombre"));
+    }
+
+    /**
+     * Busca los contactos cuyo nombre comienza con el prefijo indicado, sin
+     * distinguir mayúsculas ni acentos. Solo se recorren los nombres que
+     * coinciden con el prefijo.
+     *
+     * @param prefijo El comienzo del nombre a buscar.
+     * @param cantidadMaxima La cantidad máxima de contactos a devolver.
+     * @return Los contactos encontrados, ordenados por nombre.
+     */
+    @Override
+    public List<Contacto> buscarContactosPorPrefijo(String prefijo, int cantidadMaxima) {
+        if (cantidadMaxima < 0) {
+            throw new IllegalArgumentException("La cantidad maxima no puede "
+                    + "ser negativa");
+        }
+        byte[] buscado = DepositoDeNombres.codificar(
+                Normalizador.normalizarPrefijo(prefijo));
+        RegionFueraDelHeap orden = ordenPorNormalizado();
+        List<Contacto> encontrados = new ArrayList<>();
+        for (int i = primeraPosicion(orden, buscado, true);
+             i < this.vigentes && encontrados.size() < cantidadMaxima
+                     && compararNormalizado(fila(orden, i), buscado, true) == 0; i++) {
+            encontrados.add(contacto(fila(orden, i)));
+        }
+        return encontrados;
+    }
+
+    /**
+     * Busca un contacto en la agenda por su DNI.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * un contacto con el DNI especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorDni(String dni)
+            throws ContactoNoEncontradoEnAgendaException {
+        return consultarContactoPorDni(dni).orElseThrow(() ->
+                new ContactoNoEncontradoEnAgendaException("No se encuentra"
+                        + " un contacto con ese DNI"));
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una lista de solo lectura ordenada por fecha de nacimiento.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento()
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNacimiento();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNacimiento(desde, cantidad);
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una lista de solo lectura ordenada por nombre.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre()
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNombre();
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        verificarAgendaConContactos();
+        return consultarContactosPorNombre(desde, cantidad);
+    }
+
+    /**
+     * Obtiene la cantidad total de contactos en la agenda.
+     *
+     * @return El número total de contactos.
+     */
+    @Override
+    public int cantidadTotalContactos() {
+        return this.vigentes;
+    }
+
+    /**
+     * Verifica si un contacto ya existe en la agenda.
+     *
+     * @param contacto El contacto a verificar.
+     * @return {@code true} si el contacto ya existe, {@code false} en caso contrario.
+     */
+    @Override
+    public boolean verificarExistenciaContacto(Contacto contacto) {
+        return buscarFila(contacto.obtenerDniNormalizado()) >= 0;
+    }
+
+    /**
+     * Limpia todos los contactos y eventos de la agenda, descartando todas
+     * sus páginas fuera del heap.
+     */
+    @Override
+    public void limpiarAgenda() {
+        this.contactos.limpiar();
+        this.eventos.limpiar();
+        this.nombres.limpiar();
+        this.listas.limpiar();
+        this.porDni.limpiar();
+        this.porEvento.limpiar();
+        this.filas = 0;
+        this.vigentes = 0;
+        this.primeraLibre = -1;
+        this.cantidadEventos = 0;
+        this.ordenPorNombre.vaciar();
+        this.ordenPorNormalizado.vaciar();
+        this.ordenPorNacimiento.vaciar();
+        registrarCambio();
+    }
+
+    /**
+     * Crea un evento en la agenda, guardando una copia de su nombre, su fecha
+     * y sus invitados.
+     *
+     * @param evento El evento a ser creado.
+     * @throws EventoDuplicadoException Si el evento ya existe.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEvento(Evento evento)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        int[] invitados = filasDeInvitados(evento);
+        if (buscarEvento(evento) >= 0) {
+            throw new EventoDuplicadoException("Ese evento ya existe en la Agenda.");
+        }
+        registrarEvento(evento, invitados);
+        registrarCambio();
+    }
+
+    /**
+     * Crea varios eventos en la agenda en una única modificación. Todo el
+     * lote se valida antes de modificar la agenda, por lo que si algún evento
+     * no puede crearse no se crea ninguno.
+     *
+     * @param nuevos Los eventos a ser creados, en orden.
+     * @throws EventoDuplicadoException Si algún evento ya existe o se repite
+     * dentro del lote.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEventos(Collection<Evento> nuevos)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        Set<Evento> eventosDelLote = new HashSet<>();
+        List<int[]> invitadosDelLote = new ArrayList<>(nuevos.size());
+        for (Evento evento : nuevos) {
+            invitadosDelLote.add(filasDeInvitados(evento));
+            if (buscarEvento(evento) >= 0 || !eventosDelLote.add(evento)) {
+                throw new EventoDuplicadoException("El evento "
+                        + evento.obtenerNombreEvento() + " ya existe en la Agenda.");
+            }
+        }
+        if (nuevos.isEmpty()) {
+            return;
+        }
+        int posicion = 0;
+        for (Evento evento : nuevos) {
+            registrarEvento(evento, invitadosDelLote.get(posicion));
+            posicion++;
+        }
+        registrarCambio();
+    }
+
+    /**
+     * Agrega un contacto a la lista de invitados del evento agendado.
+     *
+     * @param evento El evento en el cual se quiere agregar un invitado.
+     * @param contacto El contacto a agregar.
+     * @throws ContactoYaInvitadoException si el contacto ya esta invitado.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra el
+     * contacto en la agenda.
+     */
+    @Override
+    public void agregarInvitadoEvento(Evento evento, Contacto contacto)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        agregarInvitadosEvento(evento, List.of(contacto));
+    }
+
+    /**
+     * Agrega varios contactos a la lista de invitados del evento agendado en
+     * una única modificación. Todo el lote se valida antes de modificar el
+     * evento, por lo que si algún contacto no puede invitarse no se invita a
+     * ninguno.
+     *
+     * @param evento El evento en el cual se quieren agregar los invitados.
+     * @param nuevosInvitados Los contactos a agregar, en orden.
+     * @throws ContactoYaInvitadoException si algún contacto ya esta invitado o
+     * se repite dentro del lote.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public void agregarInvitadosEvento(Evento evento,
+                                       Collection<Contacto> nuevosInvitados)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        int id = buscarEvento(evento);
+        if (id < 0) {
+            throw new EventoNoEncontradoException("No existe ese evento en la agenda");
+        }
+        Set<Contacto> invitadosDelLote = new HashSet<>();
+        int[] filasDelLote = new int[nuevosInvitados.size()];
+        int posicion = 0;
+        for (Contacto contacto : nuevosInvitados) {
+            int fila = buscarFila(contacto.obtenerDniNormalizado());
+            if (fila >= 0 && estaInvitado(fila, id) || !invitadosDelLote.add(contacto)) {
+                throw new ContactoYaInvitadoException("El contacto "
+                        + "ya esta invitado al evento");
+            } else if (fila < 0) {
+                throw new ContactoNoEncontradoEnAgendaException("El contacto que "
+                        + "intenta invitar no se encuentra agendado");
+            }
+            filasDelLote[posicion] = fila;
+            posicion++;
+        }
+        if (nuevosInvitados.isEmpty()) {
+            return;
+        }
+        for (int fila : filasDelLote) {
+            invitar(fila, id);
+        }
+        registrarCambio();
+    }
+
+    /**
+     * Elimina un contacto de la lista de invitados del evento agendado.
+     *
+     * @param evento El evento del cual se quiere quitar un invitado.
+     * @param contacto El contacto a eliminar.
+     * @throws ContactoNoEncontradoEnEventoException Si no se encuentra un contacto.
+     * @throws EventoNoEncontradoException Si el evento no se encuentra en la agenda.
+     */
+    @Override
+    public void quitarInvitadoEvento(Evento evento, Contacto contacto)
+            throws EventoNoEncontradoException, ContactoNoEncontradoEnEventoException {
+        int id = buscarEvento(evento);
+        if (id < 0) {
+            throw new EventoNoEncontradoException("No existe ese evento en la agenda");
+        }
+        int fila = buscarFila(contacto.obtenerDniNormalizado());
+        if (fila < 0 || !estaInvitado(fila, id)) {
+            throw new ContactoNoEncontradoEnEventoException("El contacto que "
+                    + "intenta eliminar no esta invitado al evento");
+        }
+        quitarDeLista(this.eventos, registroEvento(id) + E_INVITADOS, fila);
+        quitarDeLista(this.contactos, registro(fila) + C_INVITACIONES, id);
+        registrarCambio();
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto, en el orden en
+     * que fue invitado.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventosDeContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        if (!verificarExistenciaContacto(contacto)) {
+            throw new ContactoNoEncontradoEnAgendaException("El contacto "
+                    + "no se encuentra en la agenda");
+        }
+        return consultarEventosDeContacto(contacto);
+    }
+
+    /**
+     * Lista todos los eventos de la agenda.
+     *
+     * @return Una lista de eventos registrados en la agenda.
+     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventos() throws AgendaDeEventosVaciaException {
+        if (this.cantidadEventos == 0) {
+            throw new AgendaDeEventosVaciaException("No hay eventos en la agenda");
+        }
+        return consultarEventos();
+    }
+
+    /**
+     * Busca un contacto por su DNI sin lanzar excepciones si no existe.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorDni(String dni) {
+        int fila = buscarFila(Normalizador.normalizarDni(dni));
+        return fila < 0 ? Optional.empty() : Optional.of(contacto(fila));
+    }
+
+    /**
+     * Busca un contacto por su nombre, sin distinguir mayúsculas ni acentos y
+     * sin lanzar excepciones si no existe. Si hay varios contactos con el
+     * mismo nombre se devuelve el primero que fue agregado.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorNombre(String nombre) {
+        byte[] buscado = clave(nombre);
+        RegionFueraDelHeap orden = ordenPorNormalizado();
+        int posicion = primeraPosicion(orden, buscado, false);
+        if (posicion == this.vigentes
+                || compararNormalizado(fila(orden, posicion), buscado, false) != 0) {
+            return Optional.empty();
+        }
+        return Optional.of(contacto(fila(orden, posicion)));
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una lista de solo lectura ordenada por fecha de nacimiento, vacía
+     * si la agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento() {
+        return contactos(ordenPorNacimiento(), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     * Solo se crean los contactos de la porción pedida.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento(int desde, int cantidad) {
+        return contactos(ordenPorNacimiento(), desde, cantidad);
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una lista de solo lectura ordenada por nombre, vacía si la
+     * agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre() {
+        return contactos(ordenPorNombre(), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     * Solo se crean los contactos de la porción pedida.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción pedida.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre(int desde, int cantidad) {
+        return contactos(ordenPorNombre(), desde, cantidad);
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto, en el orden en
+     * que fue invitado.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno o
+     * no se encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> consultarEventosDeContacto(Contacto contacto) {
+        int fila = buscarFila(contacto.obtenerDniNormalizado());
+        if (fila < 0) {
+            return List.of();
+        }
+        long invitaciones = registro(fila) + C_INVITACIONES;
+        Evento[] encontrados = new Evento[cantidad(this.contactos, invitaciones)];
+        for (int i = 0; i < encontrados.length; i++) {
+            encontrados[i] = evento(elemento(this.contactos, invitaciones, i));
+        }
+        return Collections.unmodifiableList(Arrays.asList(encontrados));
+    }
+
+    /**
+     * Lista todos los eventos de la agenda, en el orden en que fueron creados.
+     *
+     * @return Una lista de solo lectura de los eventos, vacía si no hay ninguno.
+     */
+    @Override
+    public List<Evento> consultarEventos() {
+        Evento[] todos = new Evento[this.cantidadEventos];
+        for (int id = 0; id < todos.length; id++) {
+            todos[id] = evento(id);
+        }
+        return Collections.unmodifiableList(Arrays.asList(todos));
+    }
+
+    /**
+     * Toma una instantánea inmutable del contenido de la agenda. Como la
+     * instantánea guarda objetos, tomarla crea todos los contactos y eventos
+     * en el heap; mientras la agenda no se modifique, las llamadas siguientes
+     * comparten la misma instantánea.
+     *
+     * @return La instantánea de la agenda.
+     */
+    @Override
+    public InstantaneaAgenda tomarInstantanea() {
+        InstantaneaAgenda actual = this.instantanea;
+        if (actual == null) {
+            Map<String, Contacto> todos = new HashMap<>();
+            for (int fila = 0; fila < this.filas; fila++) {
+                if (!eliminada(fila)) {
+                    Contacto contacto = contacto(fila);
+                    todos.put(contacto.obtenerDniNormalizado(), contacto);
+                }
+            }
+            actual = InstantaneaAgenda.crear(this.version, todos,
+                    consultarContactosPorNombre(), consultarContactosPorNacimiento(),
+                    consultarEventos());
+            this.instantanea = actual;
+        }
+        return actual;
+    }
+
+    /**
+     * Recorre los contactos en el orden en que están guardados sin crear un
+     * objeto por contacto: la acción recibe siempre la misma vista, que
+     * muestra un contacto distinto en cada llamada. La vista solo es válida
+     * durante la llamada que la recibe y no debe conservarse ni usarse para
+     * modificar la agenda.
+     *
+     * @param accion La acción a realizar con cada contacto.
+     */
+    public void recorrerContactos(Consumer<? super IContacto> accion) {
+        Vista vista = new Vista();
+        for (int fila = 0; fila < this.filas; fila++) {
+            if (!eliminada(fila)) {
+                vista.fila = fila;
+                accion.accept(vista);
+            }
+        }
+    }
+
+    /**
+     * Obtiene la memoria fuera del heap reservada por la agenda.
+     *
+     * @return La cantidad de bytes reservados fuera del heap.
+     */
+    public long bytesFueraDelHeap() {
+        return this.contactos.bytesReservados() + this.eventos.bytesReservados()
+                + this.nombres.bytesReservados() + this.listas.bytesReservados()
+                + this.porDni.bytesReservados() + this.porEvento.bytesReservados()
+                + this.ordenPorNombre.bytesReservados()
+                + this.ordenPorNormalizado.bytesReservados()
+                + this.ordenPorNacimiento.bytesReservados();
+    }
+
+    /**
+     * Vista de solo lectura del registro de un contacto, que se reutiliza
+     * para recorrer los contactos sin crear objetos.
+     */
+    private final class Vista implements IContacto {
+        /**
+         * La fila que muestra la vista.
+         */
+        private int fila;
+
+        /**
+         * Obtiene el nombre completo del contacto.
+         *
+         * @return El nombre completo del contacto.
+         */
+        @Override
+        public String obtenerNombre() {
+            return nombre(this.fila);
+        }
+
+        /**
+         * Obtiene el número de DNI del contacto.
+         *
+         * @return El número de DNI del contacto.
+         */
+        @Override
+        public String obtenerDni() {
+            return textoDni(this.fila);
+        }
+
+        /**
+         * Obtiene la fecha de nacimiento del contacto.
+         *
+         * @return La fecha de nacimiento del contacto.
+         */
+        @Override
+        public LocalDate obtenerFechaNacimiento() {
+            return nacimiento(this.fila);
+        }
+    }
+
+    /**
+     * Calcula la dirección del registro de un contacto.
+     *
+     * @param fila La fila del contacto.
+     * @return La dirección del registro.
+     */
+    private long registro(int fila) {
+        return this.contactos.direccion(fila, BYTES_CONTACTO);
+    }
+
+    /**
+     * Calcula la dirección del registro de un evento.
+     *
+     * @param id El identificador del evento.
+     * @return La dirección del registro.
+     */
+    private long registroEvento(int id) {
+        return this.eventos.direccion(id, BYTES_EVENTO);
+    }
+
+    /**
+     * Obtiene el DNI guardado en una fila.
+     *
+     * @param fila La fila del contacto.
+     * @return El DNI como número.
+     */
+    private long dni(int fila) {
+        return this.contactos.leerLong(registro(fila) + C_DNI);
+    }
+
+    /**
+     * Indica si una fila corresponde a un contacto eliminado.
+     *
+     * @param fila La fila.
+     * @return {@code true} si la fila está libre.
+     */
+    private boolean eliminada(int fila) {
+        return (this.contactos.leerInt(registro(fila) + C_MARCAS) & MARCA_ELIMINADO) != 0;
+    }
+
+    /**
+     * Crea el contacto guardado en una fila.
+     *
+     * @param fila La fila del contacto.
+     * @return El contacto.
+     */
+    private Contacto contacto(int fila) {
+        return new Contacto(nombre(fila), textoDni(fila), nacimiento(fila));
+    }
+
+    /**
+     * Crea los contactos de una porción de un orden.
+     *
+     * @param orden Las filas ordenadas.
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista de solo lectura con los contactos de la porción.
+     */
+    private List<Contacto> contactos(RegionFueraDelHeap orden, int desde, int cantidad) {
+        if (desde < 0 || cantidad < 0) {
+            throw new IllegalArgumentException("La posicion y la cantidad "
+                    + "no pueden ser negativas");
+        }
+        int hasta = (int) Math.min(this.vigentes, (long) desde + cantidad);
+        if (desde >= hasta) {
+            return List.of();
+        }
+        Contacto[] encontrados = new Contacto[hasta - desde];
+        for (int i = desde; i < hasta; i++) {
+            encontrados[i - desde] = contacto(fila(orden, i));
+        }
+        return Collections.unmodifiableList(Arrays.asList(encontrados));
+    }
+
+    /**
+     * Obtiene el nombre guardado en una fila.
+     *
+     * @param fila La fila del contacto.
+     * @return El nombre, o {@code null} si no se indicó ninguno.
+     */
+    private String nombre(int fila) {
+        long registro = registro(fila);
+        int largo = this.contactos.leerInt(registro + C_LARGO_NOMBRE);
+        if (largo == LARGO_NULO) {
+            return null;
+        }
+        long direccion = this.contactos.leerLong(registro + C_NOMBRE);
+        return decodificar(direccion, largo);
+    }
+
+    /**
+     * Obtiene el DNI guardado en una fila, con separadores de miles si fue
+     * ingresado con alguno.
+     *
+     * @param fila La fila del contacto.
+     * @return El DNI.
+     */
+    private String textoDni(int fila) {
+        int marcas = this.contactos.leerInt(registro(fila) + C_MARCAS);
+        return FormatoCompacto.formatearDni(dni(fila), (marcas & MARCA_SEPARADORES) != 0);
+    }
+
+    /**
+     * Obtiene la fecha de nacimiento guardada en una fila.
+     *
+     * @param fila La fila del contacto.
+     * @return La fecha de nacimiento, o {@code null} si no se indicó ninguna.
+     */
+    private LocalDate nacimiento(int fila) {
+        int dia = this.contactos.leerInt(registro(fila) + C_NACIMIENTO);
+        return FormatoCompacto.fecha(dia);
+    }
+
+    /**
+     * Guarda un contacto ya validado, reutilizando una fila libre si la hay.
+     *
+     * @param contacto El contacto.
+     * @param dni El DNI del contacto como número.
+     * @param nacimiento La fecha de nacimiento como día desde la época.
+     */
+    private void agregarFila(Contacto contacto, long dni, int nacimiento) {
+        int fila = this.primeraLibre;
+        if (fila >= 0) {
+            this.primeraLibre = (int) dni(fila);
+        } else {
+            fila = this.filas;
+            this.contactos.asegurarElementos(fila + 1L, BYTES_CONTACTO);
+            this.filas++;
+        }
+        String texto = contacto.obtenerNombre();
+        byte[] nombre = codificar(texto);
+        byte[] normalizado = clave(texto);
+        long direccion = this.nombres.reservar(nombre.length + normalizado.length);
+        this.nombres.escribir(direccion, nombre);
+        this.nombres.escribir(direccion + nombre.length, normalizado);
+        long registro = registro(fila);
+        this.contactos.escribirLong(registro + C_DNI, dni);
+        this.contactos.escribirLong(registro + C_SECUENCIA, this.altas);
+        this.contactos.escribirLong(registro + C_NOMBRE, direccion);
+        vaciarLista(this.contactos, registro + C_INVITACIONES);
+        this.contactos.escribirInt(registro + C_NACIMIENTO, nacimiento);
+        this.contactos.escribirInt(registro + C_LARGO_NOMBRE,
+                texto == null ? LARGO_NULO : nombre.length);
+        this.contactos.escribirInt(registro + C_LARGO_NORMALIZADO, normalizado.length);
+        this.contactos.escribirInt(registro + C_MARCAS,
+                FormatoCompacto.conSeparadores(contacto) ? MARCA_SEPARADORES : 0);
+        this.altas++;
+        this.vigentes++;
+        this.porDni.agregar(fila);
+    }
+
+    /**
+     * Busca la fila de un DNI normalizado.
+     *
+     * @param normalizado El DNI sin separadores.
+     * @return La fila del DNI, o {@code -1} si no está en la agenda.
+     */
+    private int buscarFila(String normalizado) {
+        long dni = FormatoCompacto.interpretarDni(normalizado);
+        return dni == FormatoCompacto.DNI_INVALIDO ? -1 : buscarFila(dni);
+    }
+
+    /**
+     * Busca la fila de un DNI en el índice.
+     *
+     * @param dni El DNI como número.
+     * @return La fila del DNI, o {@code -1} si no está en la agenda.
+     */
+    private int buscarFila(long dni) {
+        return this.porDni.buscar(FormatoCompacto.dispersar(dni),
+                fila -> dni(fila) == dni);
+    }
+
+    /**
+     * Obtiene las filas de los invitados de un evento, verificando que todos
+     * estén agendados.
+     *
+     * @param evento El evento a verificar.
+     * @return Las filas de sus invitados, en orden.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    private int[] filasDeInvitados(Evento evento)
+            throws ContactoNoEncontradoEnAgendaException {
+        List<Contacto> invitados = evento.obtenerInvitadosEvento();
+        int[] filasInvitadas = new int[invitados.size()];
+        int posicion = 0;
+        for (Contacto contactoInvitado : invitados) {
+            int fila = buscarFila(contactoInvitado.obtenerDniNormalizado());
+            if (fila < 0) {
+                String nombreContacto = contactoInvitado.obtenerNombre();
+                throw new ContactoNoEncontradoEnAgendaException("El contacto ("
+                        + nombreContacto + ") no esta en la Agenda");
+            }
+            filasInvitadas[posicion] = fila;
+            posicion++;
+        }
+        return filasInvitadas;
+    }
+
+    /**
+     * Guarda un evento ya validado.
+     *
+     * @param evento El evento.
+     * @param invitados Las filas de sus invitados.
+     */
+    private void registrarEvento(Evento evento, int[] invitados) {
+        int id = this.cantidadEventos;
+        this.eventos.asegurarElementos(id + 1L, BYTES_EVENTO);
+        String texto = evento.obtenerNombreEvento();
+        byte[] nombre = codificar(texto);
+        long direccion = this.nombres.reservar(nombre.length);
+        this.nombres.escribir(direccion, nombre);
+        long registro = registroEvento(id);
+        this.eventos.escribirLong(registro + E_NOMBRE, direccion);
+        vaciarLista(this.eventos, registro + E_INVITADOS);
+        this.eventos.escribirInt(registro + E_LARGO_NOMBRE,
+                texto == null ? LARGO_NULO : nombre.length);
+        this.eventos.escribirInt(registro + E_FECHA,
+                FormatoCompacto.dia(evento.obtenerFechaEvento()));
+        this.cantidadEventos++;
+        this.porEvento.agregar(id);
+        for (int fila : invitados) {
+            invitar(fila, id);
+        }
+    }
+
+    /**
+     * Busca el identificador de un evento agendado igual al indicado.
+     *
+     * @param evento El evento a buscar.
+     * @return El identificador del evento, o {@code -1} si no está agendado.
+     */
+    private int buscarEvento(Evento evento) {
+        String texto = evento.obtenerNombreEvento();
+        byte[] nombre = texto == null ? null : texto.getBytes(StandardCharsets.UTF_8);
+        int fecha = FormatoCompacto.dia(evento.obtenerFechaEvento());
+        int hash = PRIMO * Arrays.hashCode(nombre) + fecha;
+        return this.porEvento.buscar(hash, id -> {
+            long registro = registroEvento(id);
+            int largo = this.eventos.leerInt(registro + E_LARGO_NOMBRE);
+            if (this.eventos.leerInt(registro + E_FECHA) != fecha) {
+                return false;
+            } else if (largo == LARGO_NULO || nombre == null) {
+                return largo == LARGO_NULO && nombre == null;
+            }
+            return this.nombres.igual(this.eventos.leerLong(registro + E_NOMBRE), largo,
+                    nombre);
+        });
+    }
+
+    /**
+     * Calcula el código hash de un evento guardado, igual al que calcula
+     * {@link #buscarEvento(Evento)} para un evento con el mismo nombre y fecha.
+     *
+     * @param id El identificador del evento.
+     * @return El código hash.
+     */
+    private int hashEvento(int id) {
+        long registro = registroEvento(id);
+        int largo = this.eventos.leerInt(registro + E_LARGO_NOMBRE);
+        int nombre = largo == LARGO_NULO ? 0
+                : this.nombres.hash(this.eventos.leerLong(registro + E_NOMBRE), largo);
+        return PRIMO * nombre + this.eventos.leerInt(registro + E_FECHA);
+    }
+
+    /**
+     * Crea el evento guardado con un identificador, con sus invitados.
+     *
+     * @param id El identificador del evento.
+     * @return El evento.
+     */
+    private Evento evento(int id) {
+        long registro = registroEvento(id);
+        int largo = this.eventos.leerInt(registro + E_LARGO_NOMBRE);
+        String nombre = null;
+        if (largo != LARGO_NULO) {
+            long direccion = this.eventos.leerLong(registro + E_NOMBRE);
+            nombre = decodificar(direccion, largo);
+        }
+        long invitados = registro + E_INVITADOS;
+        int cantidadInvitados = cantidad(this.eventos, invitados);
+        List<Contacto> contactosInvitados = new ArrayList<>(cantidadInvitados);
+        for (int i = 0; i < cantidadInvitados; i++) {
+            contactosInvitados.add(contacto(elemento(this.eventos, invitados, i)));
+        }
+        return new Evento(nombre, FormatoCompacto.fecha(
+                this.eventos.leerInt(registro + E_FECHA)), contactosInvitados);
+    }
+
+    /**
+     * Indica si un contacto está invitado a un evento, recorriendo la lista
+     * de eventos del contacto, que suele ser mucho más corta que la de
+     * invitados del evento.
+     *
+     * @param fila La fila del contacto.
+     * @param id El identificador del evento.
+     * @return {@code true} si el contacto está invitado.
+     */
+    private boolean estaInvitado(int fila, int id) {
+        long invitaciones = registro(fila) + C_INVITACIONES;
+        for (int i = 0; i < cantidad(this.contactos, invitaciones); i++) {
+            if (elemento(this.contactos, invitaciones, i) == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Registra que un contacto está invitado a un evento, en la lista de
+     * invitados del evento y en la de eventos del contacto.
+     *
+     * @param fila La fila del contacto.
+     * @param id El identificador del evento.
+     */
+    private void invitar(int fila, int id) {
+        agregarALista(this.eventos, registroEvento(id) + E_INVITADOS, fila);
+        agregarALista(this.contactos, registro(fila) + C_INVITACIONES, id);
+    }
+
+    /**
+     * Deja vacía la cabecera de una lista, sin elementos reservados.
+     *
+     * @param region La región del registro que contiene la cabecera.
+     * @param cabecera La dirección de la cabecera.
+     */
+    private static void vaciarLista(RegionFueraDelHeap region, long cabecera) {
+        region.escribirLong(cabecera, 0);
+        region.escribirInt(cabecera + L_CANTIDAD, 0);
+        region.escribirInt(cabecera + L_CAPACIDAD, 0);
+    }
+
+    /**
+     * Devuelve los elementos de una lista a los bloques libres, dejándola
+     * vacía.
+     *
+     * @param region La región del registro que contiene la cabecera.
+     * @param cabecera La dirección de la cabecera.
+     */
+    private void liberarLista(RegionFueraDelHeap region, long cabecera) {
+        int capacidad = region.leerInt(cabecera + L_CAPACIDAD);
+        if (capacidad > 0) {
+            this.listas.liberar(region.leerLong(cabecera), capacidad * Integer.BYTES);
+        }
+        vaciarLista(region, cabecera);
+    }
+
+    /**
+     * Obtiene la cantidad de elementos de una lista.
+     *
+     * @param region La región del registro que contiene la cabecera.
+     * @param cabecera La dirección de la cabecera.
+     * @return La cantidad de elementos.
+     */
+    private static int cantidad(RegionFueraDelHeap region, long cabecera) {
+        return region.leerInt(cabecera + L_CANTIDAD);
+    }
+
+    /**
+     * Obtiene un elemento de una lista.
+     *
+     * @param region La región del registro que contiene la cabecera.
+     * @param cabecera La dirección de la cabecera.
+     * @param posicion La posición del elemento.
+     * @return El elemento.
+     */
+    private int elemento(RegionFueraDelHeap region, long cabecera, int posicion) {
+        return this.listas.leerInt(region.leerLong(cabecera)
+                + (long) posicion * Integer.BYTES);
+    }
+
+    /**
+     * Agrega un elemento al final de una lista, duplicando su capacidad si
+     * está llena.
+     *
+     * @param region La región del registro que contiene la cabecera.
+     * @param cabecera La dirección de la cabecera.
+     * @param valor El elemento a agregar.
+     */
+    private void agregarALista(RegionFueraDelHeap region, long cabecera, int valor) {
+        int cantidad = cantidad(region, cabecera);
+        int capacidad = region.leerInt(cabecera + L_CAPACIDAD);
+        long elementos = region.leerLong(cabecera);
+        if (cantidad == capacidad) {
+            capacidad = Math.max(CAPACIDAD_INICIAL_LISTA, capacidad * 2);
+            long nuevos = this.listas.reservar(capacidad * Integer.BYTES);
+            if (cantidad > 0) {
+                this.listas.copiarInts(elementos, nuevos, cantidad);
+                this.listas.liberar(elementos, cantidad * Integer.BYTES);
+            }
+            elementos = nuevos;
+            region.escribirLong(cabecera, elementos);
+            region.escribirInt(cabecera + L_CAPACIDAD, capacidad);
+        }
+        this.listas.escribirInt(elementos + (long) cantidad * Integer.BYTES, valor);
+        region.escribirInt(cabecera + L_CANTIDAD, cantidad + 1);
+    }
+
+    /**
+     * Quita un elemento de una lista, conservando el orden de los demás.
+     *
+     * @param region La región del registro que contiene la cabecera.
+     * @param cabecera La dirección de la cabecera.
+     * @param valor El elemento a quitar.
+     */
+    private void quitarDeLista(RegionFueraDelHeap region, long cabecera, int valor) {
+        int cantidad = cantidad(region, cabecera);
+        long elementos = region.leerLong(cabecera);
+        int posicion = 0;
+        while (posicion < cantidad && elemento(region, cabecera, posicion) != valor) {
+            posicion++;
+        }
+        if (posicion == cantidad) {
+            return;
+        }
+        for (int i = posicion + 1; i < cantidad; i++) {
+            this.listas.escribirInt(elementos + (long) (i - 1) * Integer.BYTES,
+                    elemento(region, cabecera, i));
+        }
+        region.escribirInt(cabecera + L_CANTIDAD, cantidad - 1);
+    }
+
+    /**
+     * Obtiene las filas ordenadas por nombre; a igual nombre, en el orden en
+     * que fueron agregadas. Los nombres desconocidos van primero.
+     *
+     * @return Las filas ordenadas.
+     */
+    private RegionFueraDelHeap ordenPorNombre() {
+        return this.ordenPorNombre.obtener();
+    }
+
+    /**
+     * Obtiene las filas ordenadas por nombre normalizado; a igual nombre, en
+     * el orden en que fueron agregadas.
+     *
+     * @return Las filas ordenadas.
+     */
+    private RegionFueraDelHeap ordenPorNormalizado() {
+        return this.ordenPorNormalizado.obtener();
+    }
+
+    /**
+     * Obtiene las filas ordenadas por fecha de nacimiento; a igual fecha, en
+     * el orden en que fueron agregadas. Las fechas desconocidas van primero.
+     *
+     * @return Las filas ordenadas.
+     */
+    private RegionFueraDelHeap ordenPorNacimiento() {
+        return this.ordenPorNacimiento.obtener();
+    }
+
+    /**
+     * Compara los nombres de dos filas; los nombres desconocidos van
+     * primero.
+     *
+     * @param fila La primera fila.
+     * @param otra La segunda fila.
+     * @return Un número negativo, cero o positivo si el primer nombre va
+     * antes, en el mismo lugar o después que el segundo.
+     */
+    private int compararNombres(int fila, int otra) {
+        long registro = registro(fila);
+        long otro = registro(otra);
+        int largo = this.contactos.leerInt(registro + C_LARGO_NOMBRE);
+        int otroLargo = this.contactos.leerInt(otro + C_LARGO_NOMBRE);
+        if (largo == LARGO_NULO || otroLargo == LARGO_NULO) {
+            return Boolean.compare(otroLargo == LARGO_NULO, largo == LARGO_NULO);
+        }
+        return this.nombres.comparar(this.contactos.leerLong(registro + C_NOMBRE),
+                largo, this.contactos.leerLong(otro + C_NOMBRE), otroLargo);
+    }
+
+    /**
+     * Compara los nombres normalizados de dos filas.
+     *
+     * @param fila La primera fila.
+     * @param otra La segunda fila.
+     * @return Un número negativo, cero o positivo si el primer nombre va
+     * antes, en el mismo lugar o después que el segundo.
+     */
+    private int compararNormalizados(int fila, int otra) {
+        return this.nombres.comparar(normalizado(fila), largoNormalizado(fila),
+                normalizado(otra), largoNormalizado(otra));
+    }
+
+    /**
+     * Compara las fechas de nacimiento de dos filas; las fechas desconocidas
+     * van primero.
+     *
+     * @param fila La primera fila.
+     * @param otra La segunda fila.
+     * @return Un número negativo, cero o positivo si la primera fecha va
+     * antes, en el mismo lugar o después que la segunda.
+     */
+    private int compararNacimientos(int fila, int otra) {
+        return Integer.compare(this.contactos.leerInt(registro(fila) + C_NACIMIENTO),
+                this.contactos.leerInt(registro(otra) + C_NACIMIENTO));
+    }
+
+    /**
+     * Obtiene el número de alta de una fila.
+     *
+     * @param fila La fila del contacto.
+     * @return El número de alta.
+     */
+    private long secuencia(int fila) {
+        return this.contactos.leerLong(registro(fila) + C_SECUENCIA);
+    }
+
+    /**
+     * Obtiene la dirección del nombre normalizado de una fila.
+     *
+     * @param fila La fila del contacto.
+     * @return La dirección del nombre normalizado.
+     */
+    private long normalizado(int fila) {
+        long registro = registro(fila);
+        int largo = this.contactos.leerInt(registro + C_LARGO_NOMBRE);
+        return this.contactos.leerLong(registro + C_NOMBRE) + Math.max(largo, 0);
+    }
+
+    /**
+     * Obtiene la longitud del nombre normalizado de una fila.
+     *
+     * @param fila La fila del contacto.
+     * @return La longitud en bytes.
+     */
+    private int largoNormalizado(int fila) {
+        return this.contactos.leerInt(registro(fila) + C_LARGO_NORMALIZADO);
+    }
+
+    /**
+     * Compara el nombre normalizado de una fila con un valor.
+     *
+     * @param fila La fila del contacto.
+     * @param valor El valor codificado en UTF-8.
+     * @param comoPrefijo {@code true} para considerar iguales los nombres que
+     *                    comienzan con el valor.
+     * @return Un número negativo, cero o positivo si el nombre es menor,
+     * igual o mayor que el valor.
+     */
+    private int compararNormalizado(int fila, byte[] valor, boolean comoPrefijo) {
+        return this.nombres.comparar(normalizado(fila), largoNormalizado(fila), valor,
+                comoPrefijo);
+    }
+
+    /**
+     * Codifica un nombre en UTF-8.
+     *
+     * @param texto El nombre, o {@code null}.
+     * @return El nombre codificado, vacío si es {@code null}.
+     */
+    private static byte[] codificar(String texto) {
+        return texto == null ? new byte[0] : texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lee un nombre guardado en UTF-8.
+     *
+     * @param direccion La dirección del nombre.
+     * @param largo La longitud del nombre en bytes.
+     * @return El nombre.
+     */
+    private String decodificar(long direccion, int largo) {
+        return new String(this.nombres.leer(direccion, largo), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Obtiene el nombre normalizado de un valor, codificado en UTF-8.
+     *
+     * @param valor El valor.
+     * @return El nombre normalizado codificado.
+     */
+    private static byte[] clave(String valor) {
+        return DepositoDeNombres.codificar(Normalizador.normalizarNombre(valor));
+    }
+
+    /**
+     * Busca en el orden por nombre normalizado la primera posición cuyo
+     * nombre no es menor que el valor.
+     *
+     * @param orden Las filas ordenadas por nombre normalizado.
+     * @param valor El valor codificado en UTF-8.
+     * @param comoPrefijo {@code true} para comparar solo el comienzo de los
+     *                    nombres.
+     * @return La primera posición, o la cantidad de contactos si no hay
+     * ninguna.
+     */
+    private int primeraPosicion(RegionFueraDelHeap orden, byte[] valor,
+                                boolean comoPrefijo) {
+        int desde = 0;
+        int hasta = this.vigentes;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (compararNormalizado(fila(orden, medio), valor, comoPrefijo) < 0) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    /**
+     * Obtiene la fila en una posición de un orden.
+     *
+     * @param orden El orden.
+     * @param posicion La posición.
+     * @return La fila.
+     */
+    private static int fila(RegionFueraDelHeap orden, int posicion) {
+        return orden.leerInt((long) posicion * Integer.BYTES);
+    }
+
+    /**
+     * Ubica una fila en una posición de un orden.
+     *
+     * @param orden El orden.
+     * @param posicion La posición.
+     * @param fila La fila.
+     */
+    private static void ubicar(RegionFueraDelHeap orden, int posicion, int fila) {
+        orden.escribirInt((long) posicion * Integer.BYTES, fila);
+    }
+
+    /**
+     * Ordena fuera del heap las filas vigentes agregadas desde un número de
+     * alta.
+     *
+     * @param destino La región donde ubicar las filas ordenadas.
+     * @param comparador El criterio de orden, sin empates entre filas
+     *                   distintas.
+     * @param primeraAlta El número de alta de la primera fila a ordenar.
+     * @return La cantidad de filas ordenadas.
+     */
+    private int ordenar(RegionFueraDelHeap destino, ComparadorDeFilas comparador,
+                        long primeraAlta) {
+        int posicion = 0;
+        for (int fila = 0; fila < this.filas; fila++) {
+            if (!eliminada(fila) && secuencia(fila) >= primeraAlta) {
+                destino.asegurarElementos(posicion + 1L, Integer.BYTES);
+                ubicar(destino, posicion, fila);
+                posicion++;
+            }
+        }
+        ordenarTramo(destino, 0, posicion - 1, comparador);
+        return posicion;
+    }
+
+    /**
+     * Ordena un tramo de un orden con quicksort, eligiendo como pivote la
+     * mediana de tres y continuando por la mitad más grande para acotar la
+     * profundidad de la recursión. Los tramos cortos se ordenan por
+     * inserción.
+     *
+     * @param orden El orden.
+     * @param primero La primera posición del tramo.
+     * @param ultimo La última posición del tramo, inclusive.
+     * @param comparador El criterio de orden, sin empates entre filas
+     *                   distintas.
+     */
+    private static void ordenarTramo(RegionFueraDelHeap orden, int primero, int ultimo,
+                                     ComparadorDeFilas comparador) {
+        int desde = primero;
+        int hasta = ultimo;
+        while (hasta - desde >= TRAMO_INSERCION) {
+            int medio = (desde + hasta) >>> 1;
+            ordenarPar(orden, desde, medio, comparador);
+            ordenarPar(orden, desde, hasta, comparador);
+            ordenarPar(orden, medio, hasta, comparador);
+            int pivote = fila(orden, medio);
+            int izquierda = desde - 1;
+            int derecha = hasta + 1;
+            while (true) {
+                do {
+                    izquierda++;
+                } while (comparador.comparar(fila(orden, izquierda), pivote) < 0);
+                do {
+                    derecha--;
+                } while (comparador.comparar(fila(orden, derecha), pivote) > 0);
+                if (izquierda >= derecha) {
+                    break;
+                }
+                intercambiar(orden, izquierda, derecha);
+            }
+            if (derecha - desde < hasta - derecha) {
+                ordenarTramo(orden, desde, derecha, comparador);
+                desde = derecha + 1;
+            } else {
+                ordenarTramo(orden, derecha + 1, hasta, comparador);
+                hasta = derecha;
+            }
+        }
+        for (int i = desde + 1; i <= hasta; i++) {
+            int fila = fila(orden, i);
+            int j = i - 1;
+            while (j >= desde && comparador.comparar(fila(orden, j), fila) > 0) {
+                ubicar(orden, j + 1, fila(orden, j));
+                j--;
+            }
+            ubicar(orden, j + 1, fila);
+        }
+    }
+
+    /**
+     * Intercambia dos posiciones de un orden si están invertidas.
+     *
+     * @param orden El orden.
+     * @param primera La primera posición.
+     * @param segunda La segunda posición, posterior a la primera.
+     * @param comparador El criterio de orden.
+     */
+    private static void ordenarPar(RegionFueraDelHeap orden, int primera, int segunda,
+                                   ComparadorDeFilas comparador) {
+        if (comparador.comparar(fila(orden, primera), fila(orden, segunda)) > 0) {
+            intercambiar(orden, primera, segunda);
+        }
+    }
+
+    /**
+     * Intercambia dos posiciones de un orden.
+     *
+     * @param orden El orden.
+     * @param primera La primera posición.
+     * @param segunda La segunda posición.
+     */
+    private static void intercambiar(RegionFueraDelHeap orden, int primera, int segunda) {
+        int fila = fila(orden, primera);
+        ubicar(orden, primera, fila(orden, segunda));
+        ubicar(orden, segunda, fila);
+    }
+
+    /**
+     * Filas vigentes ordenadas fuera del heap con un criterio, que se
+     * actualizan en cada consulta ordenando solo los contactos agregados
+     * desde la anterior e intercalándolos con las filas ya ordenadas. Las
+     * filas se ubican en dos regiones que se alternan, de modo que las
+     * páginas se reutilizan entre actualizaciones.
+     */
+    private final class OrdenDeFilas {
+        /**
+         * El criterio de orden, desempatado por número de alta.
+         */
+        private final ComparadorDeFilas comparador;
+        /**
+         * Las filas ordenadas en la última consulta.
+         */
+        private RegionFueraDelHeap ordenadas;
+        /**
+         * La región donde se intercala la próxima actualización.
+         */
+        private RegionFueraDelHeap reserva;
+        /**
+         * La región donde se ordenan las filas agregadas.
+         */
+        private RegionFueraDelHeap agregadas;
+        /**
+         * La cantidad de filas en {@link #ordenadas}.
+         */
+        private int cantidad;
+        /**
+         * El número de alta siguiente al último contacto incluido en
+         * {@link #ordenadas}; los agregados desde entonces aún no están.
+         */
+        private long cubiertas;
+        /**
+         * Si se eliminaron filas desde la última consulta.
+         */
+        private boolean conBajas;
+
+        /**
+         * Constructor que crea un orden vacío.
+         *
+         * @param criterio El criterio de orden.
+         */
+        private OrdenDeFilas(ComparadorDeFilas criterio) {
+            this.comparador = (fila, otra) -> {
+                int resultado = criterio.comparar(fila, otra);
+                if (resultado != 0) {
+                    return resultado;
+                }
+                return Long.compare(secuencia(fila), secuencia(otra));
+            };
+            vaciar();
+        }
+
+        /**
+         * Obtiene las filas vigentes ordenadas, intercalando las agregadas y
+         * descartando las eliminadas desde la última consulta.
+         *
+         * @return Las filas ordenadas.
+         */
+        private RegionFueraDelHeap obtener() {
+            if (this.cubiertas == altas && !this.conBajas) {
+                return this.ordenadas;
+            }
+            int cantidadAgregadas = ordenar(this.agregadas, this.comparador,
+                    this.cubiertas);
+            RegionFueraDelHeap resultado = this.reserva;
+            resultado.asegurarElementos(vigentes, Integer.BYTES);
+            int anterior = 0;
+            int agregada = 0;
+            int posicion = 0;
+            while (posicion < vigentes) {
+                if (anterior < this.cantidad
+                        && !cubierta(fila(this.ordenadas, anterior))) {
+                    anterior++;
+                } else if (agregada >= cantidadAgregadas || anterior < this.cantidad
+                        && this.comparador.comparar(fila(this.ordenadas, anterior),
+                        fila(this.agregadas, agregada)) < 0) {
+                    ubicar(resultado, posicion, fila(this.ordenadas, anterior));
+                    anterior++;
+                    posicion++;
+                } else {
+                    ubicar(resultado, posicion, fila(this.agregadas, agregada));
+                    agregada++;
+                    posicion++;
+                }
+            }
+            this.reserva = this.ordenadas;
+            this.ordenadas = resultado;
+            this.cantidad = vigentes;
+            this.cubiertas = altas;
+            this.conBajas = false;
+            return resultado;
+        }
+
+        /**
+         * Indica si una fila ordenada en la última consulta sigue ocupada por
+         * el mismo contacto, y no fue eliminada ni reutilizada desde entonces.
+         *
+         * @param fila La fila.
+         * @return {@code true} si la fila sigue vigente en el orden.
+         */
+        private boolean cubierta(int fila) {
+            return !eliminada(fila) && secuencia(fila) < this.cubiertas;
+        }
+
+        /**
+         * Registra que se eliminó una fila.
+         */
+        private void registrarBaja() {
+            this.conBajas = true;
+        }
+
+        /**
+         * Descarta todas las filas y las páginas de sus regiones.
+         */
+        private void vaciar() {
+            this.ordenadas = new RegionFueraDelHeap(BITS_REGISTROS);
+            this.reserva = new RegionFueraDelHeap(BITS_REGISTROS);
+            this.agregadas = new RegionFueraDelHeap(BITS_REGISTROS);
+            this.cantidad = 0;
+            this.cubiertas = altas;
+            this.conBajas = false;
+        }
+
+        /**
+         * Obtiene la memoria fuera del heap reservada por el orden.
+         *
+         * @return La cantidad de bytes reservados.
+         */
+        private long bytesReservados() {
+            return this.ordenadas.bytesReservados() + this.reserva.bytesReservados()
+                    + this.agregadas.bytesReservados();
+        }
+    }
+
+    /**
+     * Verifica que la agenda tenga al menos un contacto.
+     *
+     * @throws AgendaDeContactosVaciaException Si la agenda no tiene contactos.
+     */
+    private void verificarAgendaConContactos() throws AgendaDeContactosVaciaException {
+        if (this.vigentes == 0) {
+            throw new AgendaDeContactosVaciaException("No hay contactos en la agenda");
+        }
+    }
+
+    /**
+     * Registra una modificación de la agenda, descartando la última
+     * instantánea tomada.
+     */
+    private void registrarCambio() {
+        this.version++;
+        this.instantanea = null;
+    }
+}
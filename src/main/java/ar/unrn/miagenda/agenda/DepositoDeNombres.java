@@ -0,0 +1,306 @@
+package ar.unrn.miagenda.agenda;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Depósito de nombres codificados en UTF-8 dentro de un único arreglo de
+ * bytes. Cada nombre distinto se guarda una sola vez y se identifica por un
+ * número, de modo que los contactos con el mismo nombre comparten sus bytes.
+ * <p>
+ * Un nombre que deja de usarse conserva su lugar hasta que el dueño del
+ * depósito llama a {@link #compactar(BitSet)}, que quita los nombres sin uso
+ * y renumera los demás, o a {@link #limpiar()}.
+ * <p>
+ * Esta clase no es segura para el acceso concurrente.
+ */
+final class DepositoDeNombres {
+
+    /**
+     * La capacidad inicial de los arreglos del depósito.
+     */
+    private static final int CAPACIDAD_INICIAL = 16;
+    /**
+     * Multiplicador para mezclar los bits del código hash de un nombre.
+     */
+    private static final int MEZCLA = 0x9E3779B9;
+
+    /**
+     * Los bytes de todos los nombres, uno a continuación del otro.
+     */
+    private byte[] datos;
+    /**
+     * La cantidad de bytes ocupados de {@link #datos}.
+     */
+    private int ocupados;
+    /**
+     * La posición del primer byte de cada nombre.
+     */
+    private int[] inicios;
+    /**
+     * La cantidad de bytes de cada nombre.
+     */
+    private int[] longitudes;
+    /**
+     * El código hash de cada nombre, para no recalcularlo al redimensionar.
+     */
+    private int[] hashes;
+    /**
+     * La cantidad de nombres del depósito.
+     */
+    private int cantidad;
+    /**
+     * Tabla de direccionamiento abierto con el identificador más uno de cada
+     * nombre; cero indica una posición libre.
+     */
+    private int[] tabla;
+
+    /**
+     * Constructor que crea un depósito vacío.
+     */
+    DepositoDeNombres() {
+        limpiar();
+    }
+
+    /**
+     * Agrega un nombre al depósito, salvo que ya estuviera.
+     *
+     * @param nombre El nombre a agregar.
+     * @return El identificador del nombre.
+     */
+    int agregar(String nombre) {
+        byte[] bytes = nombre.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        int mascara = this.tabla.length - 1;
+        int posicion = hash & mascara;
+        while (this.tabla[posicion] != 0) {
+            int id = this.tabla[posicion] - 1;
+            if (this.hashes[id] == hash && comparar(id, bytes, false) == 0) {
+                return id;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+        int id = this.cantidad;
+        if (id == this.inicios.length) {
+            int capacidad = crecer(id);
+            this.inicios = Arrays.copyOf(this.inicios, capacidad);
+            this.longitudes = Arrays.copyOf(this.longitudes, capacidad);
+            this.hashes = Arrays.copyOf(this.hashes, capacidad);
+        }
+        if (this.datos.length - this.ocupados < bytes.length) {
+            this.datos = Arrays.copyOf(this.datos,
+                    Math.max(crecer(this.datos.length), this.ocupados + bytes.length));
+        }
+        System.arraycopy(bytes, 0, this.datos, this.ocupados, bytes.length);
+        this.inicios[id] = this.ocupados;
+        this.longitudes[id] = bytes.length;
+        this.hashes[id] = hash;
+        this.ocupados = this.ocupados + bytes.length;
+        this.cantidad++;
+        this.tabla[posicion] = id + 1;
+        if (this.cantidad > this.tabla.length / 2) {
+            redimensionarTabla();
+        }
+        return id;
+    }
+
+    /**
+     * Obtiene un nombre del depósito.
+     *
+     * @param id El identificador del nombre.
+     * @return El nombre.
+     */
+    String obtener(int id) {
+        return new String(this.datos, this.inicios[id], this.longitudes[id],
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compara dos nombres del depósito byte a byte, lo que equivale a
+     * compararlos por punto de código.
+     *
+     * @param id El identificador del primer nombre.
+     * @param otro El identificador del segundo nombre.
+     * @return Un número negativo, cero o positivo si el primer nombre es
+     * menor, igual o mayor que el segundo.
+     */
+    int comparar(int id, int otro) {
+        if (id == otro) {
+            return 0;
+        }
+        return Arrays.compareUnsigned(this.datos, this.inicios[id],
+                this.inicios[id] + this.longitudes[id], this.datos, this.inicios[otro],
+                this.inicios[otro] + this.longitudes[otro]);
+    }
+
+    /**
+     * Compara un nombre del depósito con un valor codificado en UTF-8.
+     *
+     * @param id El identificador del nombre.
+     * @param valor El valor a comparar.
+     * @param comoPrefijo {@code true} para considerar iguales los nombres que
+     *                    comienzan con el valor.
+     * @return Un número negativo, cero o positivo si el nombre es menor,
+     * igual o mayor que el valor.
+     */
+    int comparar(int id, byte[] valor, boolean comoPrefijo) {
+        int longitud = this.longitudes[id];
+        if (comoPrefijo && longitud > valor.length) {
+            longitud = valor.length;
+        }
+        return Arrays.compareUnsigned(this.datos, this.inicios[id],
+                this.inicios[id] + longitud, valor, 0, valor.length);
+    }
+
+    /**
+     * Obtiene la cantidad de nombres distintos del depósito.
+     *
+     * @return La cantidad de nombres.
+     */
+    int cantidad() {
+        return this.cantidad;
+    }
+
+    /**
+     * Estima la memoria ocupada por el depósito, contando la capacidad
+     * reservada de sus arreglos.
+     *
+     * @return La cantidad aproximada de bytes ocupados.
+     */
+    long bytesReservados() {
+        long enteros = (long) this.inicios.length + this.longitudes.length
+                + this.hashes.length + this.tabla.length;
+        return this.datos.length + enteros * Integer.BYTES;
+    }
+
+    /**
+     * Quita todos los nombres del depósito y libera su memoria.
+     */
+    void limpiar() {
+        this.datos = new byte[CAPACIDAD_INICIAL * CAPACIDAD_INICIAL];
+        this.ocupados = 0;
+        this.inicios = new int[CAPACIDAD_INICIAL];
+        this.longitudes = new int[CAPACIDAD_INICIAL];
+        this.hashes = new int[CAPACIDAD_INICIAL];
+        this.cantidad = 0;
+        this.tabla = new int[CAPACIDAD_INICIAL * 2];
+    }
+
+    /**
+     * Quita los nombres que no se indican como usados y ubica los demás al
+     * comienzo del depósito, conservando su orden. Los arreglos se reservan
+     * de nuevo según los nombres conservados, por lo que se libera la memoria
+     * de los nombres quitados.
+     *
+     * @param usados Los identificadores de los nombres a conservar.
+     * @return El nuevo identificador de cada nombre anterior, o {@code -1} si
+     * se quitó.
+     */
+    int[] compactar(BitSet usados) {
+        int[] nuevoId = new int[this.cantidad];
+        int conservados = 0;
+        int bytes = 0;
+        for (int id = 0; id < this.cantidad; id++) {
+            if (usados.get(id)) {
+                conservados++;
+                bytes = bytes + this.longitudes[id];
+            }
+        }
+        int capacidad = Math.max(conservados, CAPACIDAD_INICIAL);
+        byte[] nuevosDatos = new byte[Math.max(bytes, CAPACIDAD_INICIAL)];
+        int[] nuevosInicios = new int[capacidad];
+        int[] nuevasLongitudes = new int[capacidad];
+        int[] nuevosHashes = new int[capacidad];
+        int destino = 0;
+        int posicion = 0;
+        for (int id = 0; id < this.cantidad; id++) {
+            if (usados.get(id)) {
+                System.arraycopy(this.datos, this.inicios[id], nuevosDatos, posicion,
+                        this.longitudes[id]);
+                nuevosInicios[destino] = posicion;
+                nuevasLongitudes[destino] = this.longitudes[id];
+                nuevosHashes[destino] = this.hashes[id];
+                posicion = posicion + this.longitudes[id];
+                nuevoId[id] = destino;
+                destino++;
+            } else {
+                nuevoId[id] = -1;
+            }
+        }
+        this.datos = nuevosDatos;
+        this.ocupados = posicion;
+        this.inicios = nuevosInicios;
+        this.longitudes = nuevasLongitudes;
+        this.hashes = nuevosHashes;
+        this.cantidad = destino;
+        int longitudTabla = CAPACIDAD_INICIAL * 2;
+        while (destino > longitudTabla / 2) {
+            longitudTabla = longitudTabla * 2;
+        }
+        this.tabla = construirTabla(longitudTabla);
+        return nuevoId;
+    }
+
+    /**
+     * Duplica la tabla de direccionamiento y vuelve a ubicar los nombres.
+     */
+    private void redimensionarTabla() {
+        this.tabla = construirTabla(this.tabla.length * 2);
+    }
+
+    /**
+     * Crea una tabla de direccionamiento con todos los nombres del depósito.
+     *
+     * @param longitud La longitud de la tabla, una potencia de dos.
+     * @return La tabla.
+     */
+    private int[] construirTabla(int longitud) {
+        int[] nueva = new int[longitud];
+        int mascara = nueva.length - 1;
+        for (int id = 0; id < this.cantidad; id++) {
+            int posicion = this.hashes[id] & mascara;
+            while (nueva[posicion] != 0) {
+                posicion = (posicion + 1) & mascara;
+            }
+            nueva[posicion] = id + 1;
+        }
+        return nueva;
+    }
+
+    /**
+     * Calcula el código hash de un nombre codificado.
+     *
+     * @param bytes Los bytes del nombre.
+     * @return El código hash, con los bits mezclados para la tabla.
+     */
+    private static int hash(byte[] bytes) {
+        int hash = Arrays.hashCode(bytes) * MEZCLA;
+        return hash ^ (hash >>> (Integer.SIZE / 2));
+    }
+
+    /**
+     * Calcula la nueva capacidad de un arreglo que debe crecer.
+     *
+     * @param actual La capacidad actual.
+     * @return La nueva capacidad, un cincuenta por ciento mayor.
+     */
+    static int crecer(int actual) {
+        long nueva = actual + (actual >> 1) + 1L;
+        if (nueva > Integer.MAX_VALUE - CAPACIDAD_INICIAL) {
+            throw new OutOfMemoryError("Se alcanzo la capacidad maxima de un arreglo");
+        }
+        return (int) nueva;
+    }
+
+    /**
+     * Obtiene la representación en bytes de un valor para compararlo con los
+     * nombres del depósito.
+     *
+     * @param valor El valor.
+     * @return Los bytes del valor en UTF-8.
+     */
+    static byte[] codificar(String valor) {
+        return valor.getBytes(StandardCharsets.UTF_8);
+    }
+}
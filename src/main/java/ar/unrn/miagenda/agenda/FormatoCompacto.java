@@ -0,0 +1,163 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+
+import java.time.LocalDate;
+
+/**
+ * Clase utilitaria con la representación primitiva de los datos de un
+ * contacto que comparten las agendas que no guardan objetos
+ * {@link Contacto}: el DNI como {@code long} y la fecha de nacimiento como
+ * día desde la época.
+ * <p>
+ * Solo se admiten DNI formados por hasta dieciocho dígitos sin ceros a la
+ * izquierda, con o sin separadores de miles.
+ */
+final class FormatoCompacto {
+
+    /**
+     * Valor que representa una fecha desconocida.
+     */
+    static final int FECHA_NULA = Integer.MIN_VALUE;
+    /**
+     * Valor que representa un DNI que no puede guardarse como número.
+     */
+    static final long DNI_INVALIDO = -1;
+    /**
+     * La cantidad máxima de dígitos de un DNI, para que entre en un
+     * {@code long}.
+     */
+    private static final int DIGITOS_MAXIMOS = 18;
+    /**
+     * La base en la que se escriben los números de DNI.
+     */
+    private static final int BASE_DECIMAL = 10;
+    /**
+     * La cantidad de dígitos entre dos separadores de miles.
+     */
+    private static final int DIGITOS_POR_GRUPO = 3;
+    /**
+     * Multiplicador para mezclar los bits de un número en una tabla.
+     */
+    private static final long MEZCLA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Constructor privado, la clase solo expone métodos estáticos.
+     */
+    private FormatoCompacto() {
+    }
+
+    /**
+     * Obtiene el DNI de un contacto como número.
+     *
+     * @param contacto El contacto.
+     * @return El DNI como número.
+     * @throws IllegalArgumentException Si el DNI no puede representarse como
+     * número.
+     */
+    static long dni(Contacto contacto) {
+        long dni = interpretarDni(contacto.obtenerDniNormalizado());
+        if (dni == DNI_INVALIDO) {
+            throw new IllegalArgumentException("El DNI " + contacto.obtenerDni()
+                    + " no puede guardarse en una agenda compacta");
+        }
+        return dni;
+    }
+
+    /**
+     * Indica si el DNI de un contacto fue ingresado con separadores.
+     *
+     * @param contacto El contacto.
+     * @return {@code true} si el DNI ingresado difiere de su forma normalizada.
+     */
+    static boolean conSeparadores(Contacto contacto) {
+        return !contacto.obtenerDniNormalizado().equals(contacto.obtenerDni());
+    }
+
+    /**
+     * Interpreta un DNI normalizado como número.
+     *
+     * @param normalizado El DNI sin separadores.
+     * @return El DNI como número, o {@link #DNI_INVALIDO} si no está formado
+     * por hasta dieciocho dígitos sin ceros a la izquierda.
+     */
+    static long interpretarDni(String normalizado) {
+        if (normalizado == null || normalizado.isEmpty()
+                || normalizado.length() > DIGITOS_MAXIMOS
+                || normalizado.length() > 1 && normalizado.charAt(0) == '0') {
+            return DNI_INVALIDO;
+        }
+        long numero = 0;
+        for (int i = 0; i < normalizado.length(); i++) {
+            char caracter = normalizado.charAt(i);
+            if (caracter < '0' || caracter > '9') {
+                return DNI_INVALIDO;
+            }
+            numero = numero * BASE_DECIMAL + (caracter - '0');
+        }
+        return numero;
+    }
+
+    /**
+     * Escribe un DNI guardado como número.
+     *
+     * @param dni El DNI como número.
+     * @param separado {@code true} para separar los miles con puntos.
+     * @return El DNI escrito.
+     */
+    static String formatearDni(long dni, boolean separado) {
+        String digitos = Long.toString(dni);
+        if (!separado) {
+            return digitos;
+        }
+        StringBuilder conPuntos = new StringBuilder(digitos.length()
+                + digitos.length() / DIGITOS_POR_GRUPO);
+        int primerGrupo = digitos.length() % DIGITOS_POR_GRUPO;
+        for (int i = 0; i < digitos.length(); i++) {
+            if (i > 0 && (i - primerGrupo) % DIGITOS_POR_GRUPO == 0) {
+                conPuntos.append('.');
+            }
+            conPuntos.append(digitos.charAt(i));
+        }
+        return conPuntos.toString();
+    }
+
+    /**
+     * Obtiene una fecha como día desde la época.
+     *
+     * @param fecha La fecha, o {@code null}.
+     * @return El día desde la época, o {@link #FECHA_NULA}.
+     * @throws IllegalArgumentException Si la fecha está fuera del rango admitido.
+     */
+    static int dia(LocalDate fecha) {
+        if (fecha == null) {
+            return FECHA_NULA;
+        }
+        long dia = fecha.toEpochDay();
+        if (dia <= FECHA_NULA || dia > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("La fecha " + fecha
+                    + " no puede guardarse en una agenda compacta");
+        }
+        return (int) dia;
+    }
+
+    /**
+     * Obtiene la fecha correspondiente a un día desde la época.
+     *
+     * @param dia El día desde la época, o {@link #FECHA_NULA}.
+     * @return La fecha, o {@code null} si es desconocida.
+     */
+    static LocalDate fecha(int dia) {
+        return dia == FECHA_NULA ? null : LocalDate.ofEpochDay(dia);
+    }
+
+    /**
+     * Mezcla los bits de un número para ubicarlo en una tabla de dispersión.
+     *
+     * @param valor El número.
+     * @return El código hash del número.
+     */
+    static int dispersar(long valor) {
+        return (int) ((valor * MEZCLA) >>> Integer.SIZE);
+    }
+}
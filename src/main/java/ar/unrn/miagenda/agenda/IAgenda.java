@@ -1,147 +1,373 @@
-package ar.unrn.miagenda.agenda;
-
-import ar.unrn.miagenda.contacto.Contacto;
-import ar.unrn.miagenda.evento.Evento;
-import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
-import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
-import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
-import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
-import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
-import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
-import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
-import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
-
-import java.util.List;
-
-/**
- * Interfaz que define los métodos principales para gestionar
- * contactos y eventos en una agenda.
- * Proporciona funcionalidades para agregar, eliminar, buscar y listar contactos,
- * así como para gestionar eventos asociados a la agenda.
- */
-public interface IAgenda {
-    /**
-     * Agrega un contacto a la agenda.
-     *
-     * @param contacto El contacto que se desea agregar.
-     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
-     */
-    void agregarContacto(Contacto contacto)
-            throws ContactoDuplicadoException;
-
-    /**
-     * Elimina un contacto de la agenda mediante su DNI.
-     *
-     * @param contacto El contacto que se desea eliminar.
-     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
-     * un contacto con el DNI especificado.
-     */
-    void eliminarContacto(Contacto contacto)
-            throws ContactoNoEncontradoEnAgendaException;
-
-    /**
-     * Busca un contacto en la agenda por su nombre.
-     *
-     * @param nombre El nombre del contacto a buscar.
-     * @return El contacto encontrado.
-     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
-     * contacto con el nombre especificado.
-     */
-    Contacto buscarContactoPorNombre(String nombre)
-            throws ContactoNoEncontradoEnAgendaException;
-
-    /**
-     * Busca un contacto en la agenda por su DNI.
-     *
-     * @param dni El DNI del contacto a buscar.
-     * @return El contacto encontrado.
-     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
-     * un contacto con el DNI especificado.
-     */
-    Contacto buscarContactoPorDni(String dni)
-            throws ContactoNoEncontradoEnAgendaException;
-
-    /**
-     * Lista los contactos ordenados por fecha de nacimiento.
-     *
-     * @return Una lista de contactos ordenada por fecha de nacimiento.
-     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
-     */
-    List<Contacto> listarContactosPorNacimiento()
-            throws AgendaDeContactosVaciaException;
-
-    /**
-     * Lista los contactos ordenados alfabéticamente por nombre.
-     *
-     * @return Una lista de contactos ordenada por nombre.
-     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
-     */
-    List<Contacto> listarContactosPorNombre()
-            throws AgendaDeContactosVaciaException;
-
-    /**
-     * Obtiene la cantidad total de contactos en la agenda.
-     *
-     * @return El número total de contactos.
-     */
-    int cantidadTotalContactos();
-
-    /**
-     * Verifica si un contacto ya existe en la agenda.
-     *
-     * @param contacto El contacto a verificar.
-     * @return {@code true} si el contacto ya existe, {@code false} en caso contrario.
-     */
-    boolean verificarExistenciaContacto(Contacto contacto);
-
-    /**
-     * Limpia todos los contactos y eventos de la agenda.
-     */
-    void limpiarAgenda();
-
-    /**
-     * Crea un evento en la agenda.
-     *
-     * @param evento El evento a ser creado.
-     * @throws EventoDuplicadoException Si el evento ya existe.
-     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
-     * se encuentra en la agenda.
-     */
-    void crearEvento(Evento evento)
-            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException;
-
-    /**
-     * Agrega un contacto a la lista de invitados del evento.
-     *
-     * @param evento El evento en el cual se quiere agregar un invitado.
-     * @param contacto El contacto a agregar.
-     * @throws ContactoYaInvitadoException si el contacto ya esta invitado.
-     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
-     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra el
-     * contacto en la agenda.
-     */
-    void agregarInvitadoEvento(Evento evento, Contacto contacto)
-            throws ContactoYaInvitadoException,
-            EventoNoEncontradoException,
-            ContactoNoEncontradoEnAgendaException;
-
-    /**
-     * Elimina un contacto de la lista de invitados del evento.
-     *
-     * @param evento El evento del cual se quiere quitar un invitado.
-     * @param contacto El contacto a eliminar.
-     * @throws ContactoNoEncontradoEnEventoException Si no se encuentra un contacto.
-     * @throws EventoNoEncontradoException Si el evento no se encuentra en la agenda.
-     */
-    void quitarInvitadoEvento(Evento evento, Contacto contacto)
-            throws EventoNoEncontradoException, ContactoNoEncontradoEnEventoException;
-
-    /**
-     * Lista todos los eventos de la agenda.
-     *
-     * @return Una lista de eventos registrados en la agenda.
-     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
-     */
-    List<Evento> listarEventos()
-            throws AgendaDeEventosVaciaException;
-}
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Interfaz que define los métodos principales para gestionar
+ * contactos y eventos en una agenda.
+ * Proporciona funcionalidades para agregar, eliminar, buscar y listar contactos,
+ * así como para gestionar eventos asociados a la agenda.
+ * <p>
+ * Las búsquedas y listados que informan la ausencia de resultados con una
+ * excepción tienen una variante {@code consultar} que en su lugar devuelve un
+ * {@link Optional} o una lista vacía, para los casos en que esa ausencia es
+ * frecuente.
+ */
+public interface IAgenda {
+    /**
+     * Agrega un contacto a la agenda.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     */
+    void agregarContacto(Contacto contacto)
+            throws ContactoDuplicadoException;
+
+    /**
+     * Agrega varios contactos a la agenda. El lote completo se valida antes
+     * de modificar la agenda: si algún contacto no puede agregarse, no se
+     * agrega ninguno.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     */
+    void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException;
+
+    /**
+     * Elimina un contacto de la agenda mediante su DNI.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * un contacto con el DNI especificado.
+     */
+    void eliminarContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException;
+
+    /**
+     * Busca un contacto en la agenda por su nombre, sin distinguir
+     * mayúsculas ni acentos.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
+     * contacto con el nombre especificado.
+     */
+    Contacto buscarContactoPorNombre(String nombre)
+            throws ContactoNoEncontradoEnAgendaException;
+
+    /**
+     * Busca los contactos cuyo nombre comienza con el prefijo indicado, sin
+     * distinguir mayúsculas ni acentos. Los espacios repetidos cuentan como
+     * uno y, si el prefijo termina en espacios, el nombre debe tener uno en
+     * esa posición.
+     *
+     * @param prefijo El comienzo del nombre a buscar.
+     * @param cantidadMaxima La cantidad máxima de contactos a devolver.
+     * @return Los contactos encontrados, ordenados por nombre.
+     */
+    List<Contacto> buscarContactosPorPrefijo(String prefijo, int cantidadMaxima);
+
+    /**
+     * Busca un contacto en la agenda por su DNI.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * un contacto con el DNI especificado.
+     */
+    Contacto buscarContactoPorDni(String dni)
+            throws ContactoNoEncontradoEnAgendaException;
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una lista de contactos ordenada por fecha de nacimiento.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    List<Contacto> listarContactosPorNacimiento()
+            throws AgendaDeContactosVaciaException;
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    List<Contacto> listarContactosPorNacimiento(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException;
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una lista de contactos ordenada por nombre.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    List<Contacto> listarContactosPorNombre()
+            throws AgendaDeContactosVaciaException;
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    List<Contacto> listarContactosPorNombre(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException;
+
+    /**
+     * Obtiene la cantidad total de contactos en la agenda.
+     *
+     * @return El número total de contactos.
+     */
+    int cantidadTotalContactos();
+
+    /**
+     * Verifica si un contacto ya existe en la agenda.
+     *
+     * @param contacto El contacto a verificar.
+     * @return {@code true} si el contacto ya existe, {@code false} en caso contrario.
+     */
+    boolean verificarExistenciaContacto(Contacto contacto);
+
+    /**
+     * Limpia todos los contactos y eventos de la agenda.
+     */
+    void limpiarAgenda();
+
+    /**
+     * Crea un evento en la agenda.
+     *
+     * @param evento El evento a ser creado.
+     * @throws EventoDuplicadoException Si el evento ya existe.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    void crearEvento(Evento evento)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException;
+
+    /**
+     * Crea varios eventos en la agenda. El lote completo se valida antes de
+     * modificar la agenda: si algún evento no puede crearse, no se crea
+     * ninguno.
+     *
+     * @param nuevos Los eventos a ser creados, en orden.
+     * @throws EventoDuplicadoException Si algún evento ya existe o se repite
+     * dentro del lote.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    void crearEventos(Collection<Evento> nuevos)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException;
+
+    /**
+     * Carga sobre una agenda vacía todos sus contactos y eventos de una vez,
+     * como al recuperarla de un archivo. Las agendas que lo admiten arman sus
+     * índices en bloque en lugar de agregar los elementos de a uno; por
+     * defecto se agregan los contactos y luego se crean los eventos con las
+     * operaciones por lotes.
+     *
+     * @param nuevos Los contactos a cargar.
+     * @param nuevosEventos Los eventos a cargar, en orden, con sus invitados.
+     * @throws ContactoDuplicadoException Si el DNI de algún contacto se repite.
+     * @throws EventoDuplicadoException Si algún evento se repite.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún invitado no está
+     * entre los contactos cargados.
+     * @throws IllegalStateException Si la agenda no está vacía.
+     */
+    default void cargarContenido(Collection<Contacto> nuevos,
+                                 Collection<Evento> nuevosEventos)
+            throws ContactoDuplicadoException, EventoDuplicadoException,
+            ContactoNoEncontradoEnAgendaException {
+        if (cantidadTotalContactos() > 0 || !consultarEventos().isEmpty()) {
+            throw new IllegalStateException("La agenda no está vacía");
+        }
+        agregarContactos(nuevos);
+        crearEventos(nuevosEventos);
+    }
+
+    /**
+     * Agrega un contacto a la lista de invitados del evento.
+     *
+     * @param evento El evento en el cual se quiere agregar un invitado.
+     * @param contacto El contacto a agregar.
+     * @throws ContactoYaInvitadoException si el contacto ya esta invitado.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra el
+     * contacto en la agenda.
+     */
+    void agregarInvitadoEvento(Evento evento, Contacto contacto)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException;
+
+    /**
+     * Agrega varios contactos a la lista de invitados del evento. El lote
+     * completo se valida antes de modificar el evento: si algún contacto no
+     * puede invitarse, no se invita a ninguno.
+     *
+     * @param evento El evento en el cual se quieren agregar los invitados.
+     * @param nuevosInvitados Los contactos a agregar, en orden.
+     * @throws ContactoYaInvitadoException si algún contacto ya esta invitado o
+     * se repite dentro del lote.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún contacto no se
+     * encuentra en la agenda.
+     */
+    void agregarInvitadosEvento(Evento evento, Collection<Contacto> nuevosInvitados)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException;
+
+    /**
+     * Elimina un contacto de la lista de invitados del evento.
+     *
+     * @param evento El evento del cual se quiere quitar un invitado.
+     * @param contacto El contacto a eliminar.
+     * @throws ContactoNoEncontradoEnEventoException Si no se encuentra un contacto.
+     * @throws EventoNoEncontradoException Si el evento no se encuentra en la agenda.
+     */
+    void quitarInvitadoEvento(Evento evento, Contacto contacto)
+            throws EventoNoEncontradoException, ContactoNoEncontradoEnEventoException;
+
+    /**
+     * Lista los eventos a los que está invitado un contacto.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se
+     * encuentra en la agenda.
+     */
+    List<Evento> listarEventosDeContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException;
+
+    /**
+     * Lista todos los eventos de la agenda.
+     *
+     * @return Una lista de eventos registrados en la agenda.
+     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
+     */
+    List<Evento> listarEventos()
+            throws AgendaDeEventosVaciaException;
+
+    /**
+     * Busca un contacto por su DNI sin lanzar excepciones si no existe.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    Optional<Contacto> consultarContactoPorDni(String dni);
+
+    /**
+     * Busca un contacto por su nombre sin lanzar excepciones si no existe.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    Optional<Contacto> consultarContactoPorNombre(String nombre);
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Los contactos ordenados, vacío si la agenda no tiene contactos.
+     */
+    List<Contacto> consultarContactosPorNacimiento();
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Los contactos de la porción pedida, vacío si no hay ninguno.
+     */
+    List<Contacto> consultarContactosPorNacimiento(int desde, int cantidad);
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Los contactos ordenados, vacío si la agenda no tiene contactos.
+     */
+    List<Contacto> consultarContactosPorNombre();
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Los contactos de la porción pedida, vacío si no hay ninguno.
+     */
+    List<Contacto> consultarContactosPorNombre(int desde, int cantidad);
+
+    /**
+     * Lista los eventos a los que está invitado un contacto.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno o
+     * no se encuentra en la agenda.
+     */
+    List<Evento> consultarEventosDeContacto(Contacto contacto);
+
+    /**
+     * Lista todos los eventos de la agenda.
+     *
+     * @return Los eventos de la agenda, vacío si no hay ninguno.
+     */
+    List<Evento> consultarEventos();
+
+    /**
+     * Toma una instantánea inmutable del contenido de la agenda, que puede
+     * recorrerse aunque la agenda siga modificándose.
+     *
+     * @return La instantánea de la agenda.
+     */
+    InstantaneaAgenda tomarInstantanea();
+
+    /**
+     * Ejecuta una lectura sobre los índices de la agenda, que no cambian
+     * mientras dura. Por defecto los índices son los de una instantánea; las
+     * agendas que mantienen sus propios índices ordenados los exponen
+     * directamente, y las seguras para el acceso concurrente ejecutan la
+     * lectura bajo su bloqueo de lectura.
+     *
+     * @param lectura La lectura a ejecutar; no debe conservar los índices.
+     * @param <R> El tipo del resultado de la lectura.
+     * @return El resultado de la lectura.
+     */
+    default <R> R leerIndices(Function<? super IndicesDeAgenda, ? extends R> lectura) {
+        return lectura.apply(IndicesDeAgenda.de(tomarInstantanea()));
+    }
+
+    /**
+     * Deja de admitir cambios hechos directamente sobre los invitados de los
+     * eventos registrados, con {@link Evento#agregarInvitado(Contacto)} o
+     * {@link Evento#quitarInvitado(Contacto)}: a partir de entonces lanzan
+     * {@link IllegalStateException} y los invitados solo pueden modificarse
+     * con los métodos de la agenda.
+     * <p>
+     * Lo piden las agendas que envuelven a otra y deben ver cada
+     * modificación para bloquearla, registrarla o publicarla. Por defecto no
+     * hace nada, porque la agenda no conserva los eventos recibidos y los
+     * cambios directos no la afectan.
+     */
+    default void rechazarCambiosDirectosDeInvitados() {
+    }
+}
@@ -0,0 +1,943 @@
+package ar.unrn.miagenda.agenda;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Índice secundario que agrupa valores bajo una clave ordenada. Los valores
+ * que comparten clave se conservan en el orden en que fueron agregados.
+ * Las claves nulas se ordenan antes que el resto.
+ * <p>
+ * Las entradas se guardan en un árbol balanceado por peso en el que cada
+ * nodo conoce el tamaño de su subárbol, por lo que buscar, agregar, quitar y
+ * acceder por posición cuestan O(log n). El árbol es persistente: las vistas
+ * que devuelven {@link #valores()} y {@link #comoMapa()} se crean en O(1),
+ * comparten los nodos con el índice y no cambian cuando el índice se
+ * modifica, porque las modificaciones posteriores copian los nodos de la
+ * rama que tocan en lugar de modificarlos. Mientras nadie tome una vista, los
+ * nodos se modifican en el lugar y agregar muchos valores no genera basura.
+ *
+ * @param <K> El tipo de la clave por la que se ordena el índice.
+ * @param <V> El tipo de los valores indexados.
+ */
+class IndiceOrdenado<K, V> {
+
+    /**
+     * Cuántas veces más pesado que su hermano puede ser un subárbol antes de
+     * rebalancear.
+     */
+    private static final int DESBALANCE_MAXIMO = 3;
+    /**
+     * Proporción entre los nietos a partir de la cual se rota dos veces.
+     */
+    private static final int PROPORCION_ROTACION_DOBLE = 2;
+
+    /**
+     * El orden de las claves.
+     */
+    private final Comparator<? super K> orden;
+    /**
+     * La raíz del árbol, o {@code null} si el índice está vacío.
+     */
+    private Nodo<K, V> raiz;
+    /**
+     * La marca de los nodos que pueden modificarse en el lugar porque
+     * ninguna vista los comparte, o {@code null} si todos los nodos están
+     * compartidos. Es volátil porque los lectores la descartan al tomar una
+     * vista.
+     */
+    private volatile Object edicion;
+
+    /**
+     * Nodo del árbol. Un nodo es inmutable salvo que su marca de edición sea
+     * la actual del índice.
+     *
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     */
+    private static final class Nodo<K, V> {
+        /**
+         * La clave de la entrada.
+         */
+        private K clave;
+        /**
+         * El valor de la entrada.
+         */
+        private V valor;
+        /**
+         * El subárbol con las entradas anteriores, o {@code null}.
+         */
+        private Nodo<K, V> izquierdo;
+        /**
+         * El subárbol con las entradas posteriores, o {@code null}.
+         */
+        private Nodo<K, V> derecho;
+        /**
+         * La cantidad de entradas del subárbol, incluida esta.
+         */
+        private int tamanio;
+        /**
+         * La marca de edición con la que se creó el nodo.
+         */
+        private final Object marca;
+
+        /**
+         * Constructor que crea un nodo con los hijos y el tamaño de otro.
+         *
+         * @param claveNodo La clave de la entrada.
+         * @param valorNodo El valor de la entrada.
+         * @param original El nodo cuyos hijos se copian, o {@code null} para
+         *                 crear una hoja.
+         * @param marcaEdicion La marca de edición del nodo.
+         */
+        private Nodo(K claveNodo, V valorNodo, Nodo<K, V> original, Object marcaEdicion) {
+            this.clave = claveNodo;
+            this.valor = valorNodo;
+            this.marca = marcaEdicion;
+            if (original == null) {
+                this.tamanio = 1;
+            } else {
+                this.izquierdo = original.izquierdo;
+                this.derecho = original.derecho;
+                this.tamanio = original.tamanio;
+            }
+        }
+    }
+
+    /**
+     * Constructor que crea un índice vacío con el orden indicado.
+     *
+     * @param ordenClaves El orden de las claves; debe admitir {@code null}
+     *                    si se indexan claves nulas.
+     */
+    IndiceOrdenado(Comparator<? super K> ordenClaves) {
+        this.orden = ordenClaves;
+    }
+
+    /**
+     * Crea un índice vacío ordenado por el orden natural de las claves, con
+     * las claves nulas primero.
+     *
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo de los valores.
+     * @return El índice creado.
+     */
+    static <K extends Comparable<? super K>, V> IndiceOrdenado<K, V> porOrdenNatural() {
+        return new IndiceOrdenado<>(Comparator.nullsFirst(Comparator.<K>naturalOrder()));
+    }
+
+    /**
+     * Agrega un valor bajo la clave indicada, después de los que ya tenía.
+     *
+     * @param clave La clave del valor.
+     * @param valor El valor a indexar.
+     */
+    void agregar(K clave, V valor) {
+        this.raiz = insertar(this.raiz, posicionPosterior(clave), clave, valor,
+                marcaDeEdicion());
+    }
+
+    /**
+     * Llena un índice vacío con muchos valores a la vez. Los valores se
+     * ordenan por clave conservando su orden entre claves iguales, como si se
+     * hubieran agregado de a uno, y el árbol se arma ya balanceado en O(n)
+     * más el ordenamiento, sin rotaciones ni búsquedas.
+     *
+     * @param claves Las claves de los valores, en el mismo orden.
+     * @param nuevos Los valores a indexar.
+     * @throws IllegalStateException Si el índice no está vacío.
+     */
+    void cargar(List<? extends K> claves, List<? extends V> nuevos) {
+        if (this.raiz != null) {
+            throw new IllegalStateException("El índice no está vacío");
+        }
+        Object marca = marcaDeEdicion();
+        List<Nodo<K, V>> nodos = new ArrayList<>(nuevos.size());
+        for (int i = 0; i < nuevos.size(); i++) {
+            nodos.add(new Nodo<>(claves.get(i), nuevos.get(i), null, marca));
+        }
+        nodos.sort((uno, otro) -> this.orden.compare(uno.clave, otro.clave));
+        this.raiz = construir(nodos, 0, nodos.size());
+    }
+
+    /**
+     * Guarda un valor como el único de su clave, reemplazando al que tenía.
+     * Es la forma de usar el índice como un mapa ordenado.
+     *
+     * @param clave La clave del valor.
+     * @param valor El valor a guardar.
+     */
+    void poner(K clave, V valor) {
+        int posicion = posicionInicial(clave);
+        Object marca = marcaDeEdicion();
+        if (posicion < tamanio() && this.orden.compare(
+                nodoEn(this.raiz, posicion).clave, clave) == 0) {
+            this.raiz = reemplazar(this.raiz, posicion, valor, marca);
+        } else {
+            this.raiz = insertar(this.raiz, posicion, clave, valor, marca);
+        }
+    }
+
+    /**
+     * Quita un valor de la clave indicada. Solo se recorren los valores de
+     * esa clave.
+     *
+     * @param clave La clave del valor.
+     * @param valor El valor a quitar.
+     */
+    void quitar(K clave, V valor) {
+        int inicio = posicionInicial(clave);
+        int fin = posicionPosterior(clave);
+        Iterator<V> recorrido = new Recorrido<>(this.raiz, inicio, fin,
+                nodo -> nodo.valor);
+        for (int posicion = inicio; recorrido.hasNext(); posicion++) {
+            if (recorrido.next().equals(valor)) {
+                this.raiz = quitarEn(this.raiz, posicion, marcaDeEdicion());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Busca el primer valor agregado bajo una clave exacta.
+     *
+     * @param clave La clave a buscar.
+     * @return El valor encontrado, o {@code null} si no hay ninguno.
+     */
+    V buscar(K clave) {
+        int posicion = posicionInicial(clave);
+        if (posicion == tamanio()) {
+            return null;
+        }
+        Nodo<K, V> nodo = nodoEn(this.raiz, posicion);
+        return this.orden.compare(nodo.clave, clave) == 0 ? nodo.valor : null;
+    }
+
+    /**
+     * Obtiene los valores indexados bajo una clave exacta.
+     *
+     * @param clave La clave a buscar.
+     * @return Los valores en el orden en que fueron agregados, vacío si no
+     *         hay ninguno.
+     */
+    List<V> obtener(K clave) {
+        return rango(clave, clave, true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Obtiene, en orden, hasta una cantidad máxima de valores cuyas claves
+     * caen en el rango indicado. Solo se recorren los valores devueltos.
+     *
+     * @param desde La clave inicial del rango, inclusive.
+     * @param hasta La clave final del rango.
+     * @param incluirHasta Si la clave final forma parte del rango.
+     * @param cantidadMaxima La cantidad máxima de valores a devolver.
+     * @return Los valores encontrados, en orden de clave.
+     */
+    List<V> rango(K desde, K hasta, boolean incluirHasta, int cantidadMaxima) {
+        int inicio = posicionInicial(desde);
+        int fin = incluirHasta ? posicionPosterior(hasta) : posicionInicial(hasta);
+        fin = (int) Math.min(fin, (long) inicio + cantidadMaxima);
+        List<V> resultado = new ArrayList<>(Math.max(0, fin - inicio));
+        Iterator<V> recorrido = new Recorrido<>(this.raiz, inicio, fin,
+                nodo -> nodo.valor);
+        while (recorrido.hasNext()) {
+            resultado.add(recorrido.next());
+        }
+        return resultado;
+    }
+
+    /**
+     * Cuenta los valores cuyas claves caen en el rango indicado, sin
+     * recorrerlos.
+     *
+     * @param desde La clave inicial del rango, inclusive.
+     * @param hasta La clave final del rango.
+     * @param incluirHasta Si la clave final forma parte del rango.
+     * @return La cantidad de valores del rango.
+     */
+    int contar(K desde, K hasta, boolean incluirHasta) {
+        int inicio = posicionInicial(desde);
+        int fin = incluirHasta ? posicionPosterior(hasta) : posicionInicial(hasta);
+        return Math.max(0, fin - inicio);
+    }
+
+    /**
+     * Obtiene todos los valores del índice ordenados por clave. La lista se
+     * crea en O(1), accede a cada posición en O(log n) y no refleja las
+     * modificaciones posteriores del índice.
+     *
+     * @return Una lista de solo lectura con los valores ordenados.
+     */
+    List<V> valores() {
+        this.edicion = null;
+        return new VistaDeValores<>(this.raiz, 0, tamanio());
+    }
+
+    /**
+     * Obtiene un mapa de solo lectura de cada clave a su primer valor, que
+     * busca en O(log n) y no refleja las modificaciones posteriores del
+     * índice. Está pensado para los índices que se llenan con
+     * {@link #poner(Object, Object)}.
+     *
+     * @return El mapa de las claves a sus valores.
+     */
+    Map<K, V> comoMapa() {
+        this.edicion = null;
+        return new VistaDeMapa<>(this.raiz, this.orden);
+    }
+
+    /**
+     * Obtiene una porción de los valores del índice ordenados por clave.
+     * Solo se recorren los valores de la porción.
+     *
+     * @param desde La posición del primer valor a devolver.
+     * @param cantidad La cantidad máxima de valores a devolver.
+     * @return Una vista de solo lectura con los valores de la porción pedida.
+     */
+    List<V> pagina(int desde, int cantidad) {
+        if (desde < 0 || cantidad < 0) {
+            throw new IllegalArgumentException("La posicion y la cantidad "
+                    + "no pueden ser negativas");
+        }
+        List<V> todos = valores();
+        int inicio = Math.min(desde, todos.size());
+        int fin = (int) Math.min((long) inicio + cantidad, todos.size());
+        return todos.subList(inicio, fin);
+    }
+
+    /**
+     * Obtiene la cantidad de valores del índice.
+     *
+     * @return La cantidad de valores.
+     */
+    int tamanio() {
+        return tamanio(this.raiz);
+    }
+
+    /**
+     * Quita todas las entradas del índice. Las vistas ya tomadas conservan
+     * su contenido.
+     */
+    void limpiar() {
+        this.raiz = null;
+    }
+
+    /**
+     * Obtiene la marca con la que se crean y modifican los nodos, creando
+     * una nueva si la anterior se descartó al tomar una vista.
+     *
+     * @return La marca de edición actual.
+     */
+    private Object marcaDeEdicion() {
+        Object marca = this.edicion;
+        if (marca == null) {
+            marca = new Object();
+            this.edicion = marca;
+        }
+        return marca;
+    }
+
+    /**
+     * Obtiene la cantidad de entradas con clave menor a la indicada.
+     *
+     * @param clave La clave a ubicar.
+     * @return La posición de la primera entrada con esa clave o una mayor.
+     */
+    private int posicionInicial(K clave) {
+        int posicion = 0;
+        Nodo<K, V> nodo = this.raiz;
+        while (nodo != null) {
+            if (this.orden.compare(nodo.clave, clave) < 0) {
+                posicion = posicion + tamanio(nodo.izquierdo) + 1;
+                nodo = nodo.derecho;
+            } else {
+                nodo = nodo.izquierdo;
+            }
+        }
+        return posicion;
+    }
+
+    /**
+     * Obtiene la cantidad de entradas con clave menor o igual a la indicada.
+     *
+     * @param clave La clave a ubicar.
+     * @return La posición de la primera entrada con una clave mayor.
+     */
+    private int posicionPosterior(K clave) {
+        int posicion = 0;
+        Nodo<K, V> nodo = this.raiz;
+        while (nodo != null) {
+            if (this.orden.compare(nodo.clave, clave) <= 0) {
+                posicion = posicion + tamanio(nodo.izquierdo) + 1;
+                nodo = nodo.derecho;
+            } else {
+                nodo = nodo.izquierdo;
+            }
+        }
+        return posicion;
+    }
+
+    /**
+     * Obtiene la cantidad de entradas de un subárbol.
+     *
+     * @param nodo La raíz del subárbol, o {@code null}.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @return La cantidad de entradas.
+     */
+    private static <K, V> int tamanio(Nodo<K, V> nodo) {
+        return nodo == null ? 0 : nodo.tamanio;
+    }
+
+    /**
+     * Obtiene el peso de un subárbol para decidir si está balanceado.
+     *
+     * @param nodo La raíz del subárbol, o {@code null}.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @return La cantidad de entradas más uno.
+     */
+    private static <K, V> int peso(Nodo<K, V> nodo) {
+        return tamanio(nodo) + 1;
+    }
+
+    /**
+     * Obtiene el nodo de una posición.
+     *
+     * @param raizArbol La raíz del árbol.
+     * @param posicion La posición, entre cero y el tamaño del árbol.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @return El nodo de esa posición.
+     */
+    private static <K, V> Nodo<K, V> nodoEn(Nodo<K, V> raizArbol, int posicion) {
+        Nodo<K, V> nodo = raizArbol;
+        int restante = posicion;
+        while (true) {
+            int izquierdos = tamanio(nodo.izquierdo);
+            if (restante < izquierdos) {
+                nodo = nodo.izquierdo;
+            } else if (restante == izquierdos) {
+                return nodo;
+            } else {
+                restante = restante - izquierdos - 1;
+                nodo = nodo.derecho;
+            }
+        }
+    }
+
+    /**
+     * Obtiene un nodo que puede modificarse en el lugar: el mismo si tiene
+     * la marca de edición actual o una copia si está compartido.
+     *
+     * @param nodo El nodo a modificar.
+     * @param marca La marca de edición actual.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @return El nodo a modificar.
+     */
+    private static <K, V> Nodo<K, V> editable(Nodo<K, V> nodo, Object marca) {
+        if (nodo.marca == marca) {
+            return nodo;
+        }
+        return new Nodo<>(nodo.clave, nodo.valor, nodo, marca);
+    }
+
+    /**
+     * Inserta una entrada en una posición de un subárbol.
+     *
+     * @param nodo La raíz del subárbol, o {@code null}.
+     * @param posicion La posición de la nueva entrada dentro del subárbol.
+     * @param clave La clave de la entrada.
+     * @param valor El valor de la entrada.
+     * @param marca La marca de edición actual.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @return La nueva raíz del subárbol.
+     */
+    private static <K, V> Nodo<K, V> insertar(Nodo<K, V> nodo, int posicion,
+                                              K clave, V valor, Object marca) {
+        if (nodo == null) {
+            return new Nodo<>(clave, valor, null, marca);
+        }
+        Nodo<K, V> copia = editable(nodo, marca);
+        int izquierdos = tamanio(nodo.izquierdo);
+        if (posicion <= izquierdos) {
+            copia.izquierdo = insertar(nodo.izquierdo, posicion, clave, valor, marca);
+        } else {
+            copia.derecho = insertar(nodo.derecho, posicion - izquierdos - 1,
+                    clave, valor, marca);
+        }
+        return balancear(copia, marca);
+    }
+
+    /**
+     * Reemplaza el valor de la entrada de una posición de un subárbol.
+     *
+     * @param nodo La raíz del subárbol.
+     * @param posicion La posición de la entrada dentro del subárbol.
+     * @param valor El nuevo valor.
+     * @param marca La marca de edición actual.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @return La nueva raíz del subárbol.
+     */
+    private static <K, V> Nodo<K, V> reemplazar(Nodo<K, V> nodo, int posicion,
+                                                V valor, Object marca) {
+        Nodo<K, V> copia = editable(nodo, marca);
+        int izquierdos = tamanio(nodo.izquierdo);
+        if (posicion < izquierdos) {
+            copia.izquierdo = reemplazar(nodo.izquierdo, posicion, valor, marca);
+        } else if (posicion == izquierdos) {
+            copia.valor = valor;
+        } else {
+            copia.derecho = reemplazar(nodo.derecho, posicion - izquierdos - 1,
+                    valor, marca);
+        }
+        return copia;
+    }
+
+    /**
+     * Quita la entrada de una posición de un subárbol.
+     *
+     * @param nodo La raíz del subárbol.
+     * @param posicion La posición de la entrada dentro del subárbol.
+     * @param marca La marca de edición actual.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @return La nueva raíz del subárbol, o {@code null} si quedó vacío.
+     */
+    private static <K, V> Nodo<K, V> quitarEn(Nodo<K, V> nodo, int posicion,
+                                              Object marca) {
+        int izquierdos = tamanio(nodo.izquierdo);
+        Nodo<K, V> copia;
+        if (posicion < izquierdos) {
+            copia = editable(nodo, marca);
+            copia.izquierdo = quitarEn(nodo.izquierdo, posicion, marca);
+        } else if (posicion > izquierdos) {
+            copia = editable(nodo, marca);
+            copia.derecho = quitarEn(nodo.derecho, posicion - izquierdos - 1, marca);
+        } else if (nodo.izquierdo == null) {
+            return nodo.derecho;
+        } else if (nodo.derecho == null) {
+            return nodo.izquierdo;
+        } else {
+            Nodo<K, V> siguiente = nodoEn(nodo.derecho, 0);
+            copia = editable(nodo, marca);
+            copia.clave = siguiente.clave;
+            copia.valor = siguiente.valor;
+            copia.derecho = quitarEn(nodo.derecho, 0, marca);
+        }
+        return balancear(copia, marca);
+    }
+
+    /**
+     * Actualiza el tamaño de un nodo editable y lo rota si uno de sus
+     * subárboles pesa demasiado más que el otro.
+     *
+     * @param nodo El nodo, ya editable, cuyos hijos cambiaron.
+     * @param marca La marca de edición actual.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @return La nueva raíz del subárbol.
+     */
+    private static <K, V> Nodo<K, V> balancear(Nodo<K, V> nodo, Object marca) {
+        actualizar(nodo);
+        int izquierdo = peso(nodo.izquierdo);
+        int derecho = peso(nodo.derecho);
+        if (derecho > DESBALANCE_MAXIMO * izquierdo) {
+            Nodo<K, V> hijo = nodo.derecho;
+            if (peso(hijo.izquierdo) >= PROPORCION_ROTACION_DOBLE * peso(hijo.derecho)) {
+                nodo.derecho = rotarDerecha(editable(hijo, marca), marca);
+            }
+            return rotarIzquierda(nodo, marca);
+        }
+        if (izquierdo > DESBALANCE_MAXIMO * derecho) {
+            Nodo<K, V> hijo = nodo.izquierdo;
+            if (peso(hijo.derecho) >= PROPORCION_ROTACION_DOBLE * peso(hijo.izquierdo)) {
+                nodo.izquierdo = rotarIzquierda(editable(hijo, marca), marca);
+            }
+            return rotarDerecha(nodo, marca);
+        }
+        return nodo;
+    }
+
+    /**
+     * Rota un subárbol hacia la izquierda, subiendo a su hijo derecho.
+     *
+     * @param nodo La raíz del subárbol, ya editable.
+     * @param marca La marca de edición actual.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @return La nueva raíz del subárbol.
+     */
+    private static <K, V> Nodo<K, V> rotarIzquierda(Nodo<K, V> nodo, Object marca) {
+        Nodo<K, V> hijo = editable(nodo.derecho, marca);
+        nodo.derecho = hijo.izquierdo;
+        actualizar(nodo);
+        hijo.izquierdo = nodo;
+        actualizar(hijo);
+        return hijo;
+    }
+
+    /**
+     * Rota un subárbol hacia la derecha, subiendo a su hijo izquierdo.
+     *
+     * @param nodo La raíz del subárbol, ya editable.
+     * @param marca La marca de edición actual.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @return La nueva raíz del subárbol.
+     */
+    private static <K, V> Nodo<K, V> rotarDerecha(Nodo<K, V> nodo, Object marca) {
+        Nodo<K, V> hijo = editable(nodo.izquierdo, marca);
+        nodo.izquierdo = hijo.derecho;
+        actualizar(nodo);
+        hijo.derecho = nodo;
+        actualizar(hijo);
+        return hijo;
+    }
+
+    /**
+     * Recalcula el tamaño de un nodo editable a partir de sus hijos.
+     *
+     * @param nodo El nodo a actualizar.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     */
+    private static <K, V> void actualizar(Nodo<K, V> nodo) {
+        nodo.tamanio = tamanio(nodo.izquierdo) + tamanio(nodo.derecho) + 1;
+    }
+
+    /**
+     * Arma un árbol perfectamente balanceado con una porción de nodos ya
+     * ordenados.
+     *
+     * @param nodos Los nodos ordenados, sin hijos.
+     * @param desde La posición del primer nodo de la porción.
+     * @param hasta La posición siguiente al último nodo de la porción.
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @return La raíz del árbol, o {@code null} si la porción está vacía.
+     */
+    private static <K, V> Nodo<K, V> construir(List<Nodo<K, V>> nodos, int desde,
+                                               int hasta) {
+        if (desde >= hasta) {
+            return null;
+        }
+        int medio = (desde + hasta) >>> 1;
+        Nodo<K, V> nodo = nodos.get(medio);
+        nodo.izquierdo = construir(nodos, desde, medio);
+        nodo.derecho = construir(nodos, medio + 1, hasta);
+        actualizar(nodo);
+        return nodo;
+    }
+
+    /**
+     * Recorrido en orden de las entradas entre dos posiciones de un árbol. Se
+     * ubica en la primera en O(log n) y avanza en O(1) amortizado.
+     *
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     * @param <T> El tipo de lo que se entrega de cada entrada.
+     */
+    private static final class Recorrido<K, V, T> implements Iterator<T> {
+        /**
+         * Los nodos pendientes cuyo subárbol izquierdo ya fue recorrido.
+         */
+        private final Deque<Nodo<K, V>> pendientes;
+        /**
+         * Obtiene lo que se entrega de cada nodo.
+         */
+        private final Function<Nodo<K, V>, T> extraer;
+        /**
+         * La cantidad de nodos que faltan entregar.
+         */
+        private int restantes;
+
+        /**
+         * Constructor que ubica el recorrido en la posición inicial.
+         *
+         * @param raizArbol La raíz del árbol a recorrer.
+         * @param desde La posición del primer nodo, inclusive.
+         * @param hasta La posición final, exclusive.
+         * @param extraccion Obtiene lo que se entrega de cada nodo.
+         */
+        private Recorrido(Nodo<K, V> raizArbol, int desde, int hasta,
+                          Function<Nodo<K, V>, T> extraccion) {
+            this.pendientes = new ArrayDeque<>();
+            this.extraer = extraccion;
+            this.restantes = Math.max(0, hasta - desde);
+            Nodo<K, V> nodo = this.restantes == 0 ? null : raizArbol;
+            int posicion = desde;
+            while (nodo != null) {
+                int izquierdos = tamanio(nodo.izquierdo);
+                if (posicion <= izquierdos) {
+                    this.pendientes.push(nodo);
+                    nodo = posicion == izquierdos ? null : nodo.izquierdo;
+                } else {
+                    posicion = posicion - izquierdos - 1;
+                    nodo = nodo.derecho;
+                }
+            }
+        }
+
+        /**
+         * Indica si quedan nodos por recorrer.
+         *
+         * @return {@code true} si quedan nodos.
+         */
+        @Override
+        public boolean hasNext() {
+            return this.restantes > 0;
+        }
+
+        /**
+         * Entrega la siguiente entrada en orden.
+         *
+         * @return Lo que se entrega de la siguiente entrada.
+         */
+        @Override
+        public T next() {
+            if (this.restantes == 0) {
+                throw new NoSuchElementException();
+            }
+            this.restantes--;
+            Nodo<K, V> nodo = this.pendientes.pop();
+            for (Nodo<K, V> hijo = nodo.derecho; hijo != null; hijo = hijo.izquierdo) {
+                this.pendientes.push(hijo);
+            }
+            return this.extraer.apply(nodo);
+        }
+    }
+
+    /**
+     * Lista de solo lectura con los valores de una porción de un árbol que
+     * ya no se modifica.
+     *
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     */
+    private static final class VistaDeValores<K, V> extends AbstractList<V> {
+        /**
+         * La raíz del árbol.
+         */
+        private final Nodo<K, V> raizArbol;
+        /**
+         * La posición del primer valor de la vista.
+         */
+        private final int desde;
+        /**
+         * La posición posterior al último valor de la vista.
+         */
+        private final int hasta;
+
+        /**
+         * Constructor que crea la vista de una porción de un árbol.
+         *
+         * @param raizVista La raíz del árbol.
+         * @param inicio La posición del primer valor, inclusive.
+         * @param fin La posición final, exclusive.
+         */
+        private VistaDeValores(Nodo<K, V> raizVista, int inicio, int fin) {
+            this.raizArbol = raizVista;
+            this.desde = inicio;
+            this.hasta = fin;
+        }
+
+        /**
+         * Obtiene el valor de una posición en O(log n).
+         *
+         * @param indice La posición dentro de la vista.
+         * @return El valor de esa posición.
+         */
+        @Override
+        public V get(int indice) {
+            if (indice < 0 || indice >= size()) {
+                throw new IndexOutOfBoundsException("Posición fuera de la lista: "
+                        + indice);
+            }
+            return nodoEn(this.raizArbol, this.desde + indice).valor;
+        }
+
+        /**
+         * Obtiene la cantidad de valores de la vista.
+         *
+         * @return La cantidad de valores.
+         */
+        @Override
+        public int size() {
+            return this.hasta - this.desde;
+        }
+
+        /**
+         * Recorre los valores en orden, avanzando en O(1) amortizado.
+         *
+         * @return Un iterador de solo lectura sobre los valores.
+         */
+        @Override
+        public Iterator<V> iterator() {
+            return new Recorrido<>(this.raizArbol, this.desde, this.hasta,
+                    nodo -> nodo.valor);
+        }
+
+        /**
+         * Obtiene una porción de la vista sin copiar sus valores.
+         *
+         * @param inicio La posición inicial, inclusive.
+         * @param fin La posición final, exclusive.
+         * @return La vista de la porción.
+         */
+        @Override
+        public List<V> subList(int inicio, int fin) {
+            if (inicio < 0 || fin > size() || inicio > fin) {
+                throw new IndexOutOfBoundsException("Porción fuera de la lista: "
+                        + inicio + ".." + fin);
+            }
+            return new VistaDeValores<>(this.raizArbol, this.desde + inicio,
+                    this.desde + fin);
+        }
+    }
+
+    /**
+     * Mapa de solo lectura de cada clave de un árbol que ya no se modifica a
+     * su primer valor.
+     *
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     */
+    private static final class VistaDeMapa<K, V> extends AbstractMap<K, V> {
+        /**
+         * La raíz del árbol.
+         */
+        private final Nodo<K, V> raizArbol;
+        /**
+         * El orden de las claves.
+         */
+        private final Comparator<? super K> ordenClaves;
+
+        /**
+         * Constructor que crea la vista de un árbol.
+         *
+         * @param raizVista La raíz del árbol.
+         * @param ordenVista El orden de las claves.
+         */
+        private VistaDeMapa(Nodo<K, V> raizVista, Comparator<? super K> ordenVista) {
+            this.raizArbol = raizVista;
+            this.ordenClaves = ordenVista;
+        }
+
+        /**
+         * Busca el valor de una clave en O(log n).
+         *
+         * @param clave La clave a buscar.
+         * @return El valor, o {@code null} si la clave no está.
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(Object clave) {
+            Nodo<K, V> nodo = this.raizArbol;
+            Nodo<K, V> encontrado = null;
+            while (nodo != null) {
+                int comparacion = this.ordenClaves.compare(nodo.clave, (K) clave);
+                if (comparacion < 0) {
+                    nodo = nodo.derecho;
+                } else {
+                    if (comparacion == 0) {
+                        encontrado = nodo;
+                    }
+                    nodo = nodo.izquierdo;
+                }
+            }
+            return encontrado == null ? null : encontrado.valor;
+        }
+
+        /**
+         * Indica si la clave está en el mapa, en O(log n).
+         *
+         * @param clave La clave a buscar.
+         * @return {@code true} si la clave tiene un valor.
+         */
+        @Override
+        public boolean containsKey(Object clave) {
+            return get(clave) != null;
+        }
+
+        /**
+         * Obtiene la cantidad de claves.
+         *
+         * @return La cantidad de entradas del árbol.
+         */
+        @Override
+        public int size() {
+            return tamanio(this.raizArbol);
+        }
+
+        /**
+         * Obtiene las entradas en orden de clave.
+         *
+         * @return Un conjunto de solo lectura con las entradas.
+         */
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new EntradasDelMapa<>(this.raizArbol);
+        }
+    }
+
+    /**
+     * Conjunto de solo lectura con las entradas de un árbol que ya no se
+     * modifica, en orden de clave.
+     *
+     * @param <K> El tipo de la clave.
+     * @param <V> El tipo del valor.
+     */
+    private static final class EntradasDelMapa<K, V>
+            extends AbstractSet<Map.Entry<K, V>> {
+        /**
+         * La raíz del árbol.
+         */
+        private final Nodo<K, V> raizArbol;
+
+        /**
+         * Constructor que crea el conjunto de entradas de un árbol.
+         *
+         * @param raizVista La raíz del árbol.
+         */
+        private EntradasDelMapa(Nodo<K, V> raizVista) {
+            this.raizArbol = raizVista;
+        }
+
+        /**
+         * Recorre las entradas en orden de clave.
+         *
+         * @return Un iterador de solo lectura sobre las entradas.
+         */
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new Recorrido<>(this.raizArbol, 0, size(), nodo ->
+                    new AbstractMap.SimpleImmutableEntry<>(nodo.clave, nodo.valor));
+        }
+
+        /**
+         * Obtiene la cantidad de entradas.
+         *
+         * @return La cantidad de entradas del árbol.
+         */
+        @Override
+        public int size() {
+            return tamanio(this.raizArbol);
+        }
+    }
+}
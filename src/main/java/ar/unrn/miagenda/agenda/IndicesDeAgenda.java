@@ -0,0 +1,170 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acceso de solo lectura a los índices de una agenda, pensado para planificar
+ * consultas: cada índice informa cuántos elementos entregaría sin recorrerlos
+ * y los entrega solo si se le piden.
+ * <p>
+ * Se obtiene con {@link IAgenda#leerIndices(java.util.function.Function)} y
+ * solo es válido durante esa lectura. Las listas que devuelve, en cambio, no
+ * cambian luego y pueden recorrerse después de terminada.
+ */
+public interface IndicesDeAgenda {
+
+    /**
+     * Crea el acceso a los índices de una instantánea. Los índices que la
+     * instantánea calcula la primera vez que se piden se calculan también al
+     * contar sus elementos.
+     *
+     * @param instantanea La instantánea a consultar.
+     * @return El acceso a sus índices.
+     */
+    static IndicesDeAgenda de(InstantaneaAgenda instantanea) {
+        return new IndicesDeInstantanea(instantanea);
+    }
+
+    /**
+     * Obtiene la cantidad de contactos.
+     *
+     * @return La cantidad de contactos.
+     */
+    int cantidadContactos();
+
+    /**
+     * Obtiene la cantidad de eventos.
+     *
+     * @return La cantidad de eventos.
+     */
+    int cantidadEventos();
+
+    /**
+     * Busca un contacto por su DNI.
+     *
+     * @param dni El DNI normalizado.
+     * @return El contacto, o vacío si no existe.
+     */
+    Optional<Contacto> contactoPorDni(String dni);
+
+    /**
+     * Cuenta los contactos cuyo nombre normalizado cae en un rango.
+     *
+     * @param desde El nombre normalizado inicial, inclusive.
+     * @param hasta El nombre normalizado final.
+     * @param incluirHasta Si el nombre final forma parte del rango.
+     * @return La cantidad de contactos del rango.
+     */
+    int contarContactosConNombre(String desde, String hasta, boolean incluirHasta);
+
+    /**
+     * Obtiene los contactos cuyo nombre normalizado cae en un rango.
+     *
+     * @param desde El nombre normalizado inicial, inclusive.
+     * @param hasta El nombre normalizado final.
+     * @param incluirHasta Si el nombre final forma parte del rango.
+     * @return Los contactos del rango, ordenados por nombre normalizado.
+     */
+    List<Contacto> contactosConNombre(String desde, String hasta, boolean incluirHasta);
+
+    /**
+     * Cuenta los contactos nacidos entre dos fechas, ambas inclusive.
+     *
+     * @param desde La fecha inicial.
+     * @param hasta La fecha final.
+     * @return La cantidad de contactos del rango.
+     */
+    int contarContactosNacidosEntre(LocalDate desde, LocalDate hasta);
+
+    /**
+     * Obtiene los contactos nacidos entre dos fechas, ambas inclusive.
+     *
+     * @param desde La fecha inicial.
+     * @param hasta La fecha final.
+     * @return Los contactos del rango, ordenados por fecha de nacimiento.
+     */
+    List<Contacto> contactosNacidosEntre(LocalDate desde, LocalDate hasta);
+
+    /**
+     * Obtiene todos los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Los contactos ordenados.
+     */
+    List<Contacto> contactosPorNombre();
+
+    /**
+     * Obtiene todos los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Los contactos ordenados.
+     */
+    List<Contacto> contactosPorNacimiento();
+
+    /**
+     * Cuenta los invitados de un evento.
+     *
+     * @param evento El evento.
+     * @return La cantidad de invitados, cero si el evento no está agendado.
+     */
+    int cantidadInvitados(Evento evento);
+
+    /**
+     * Obtiene los invitados de un evento.
+     *
+     * @param evento El evento.
+     * @return Los invitados, vacío si el evento no está agendado.
+     */
+    List<Contacto> invitadosDe(Evento evento);
+
+    /**
+     * Cuenta los eventos que ocurren entre dos fechas, ambas inclusive.
+     *
+     * @param desde La fecha inicial.
+     * @param hasta La fecha final.
+     * @return La cantidad de eventos del rango.
+     */
+    int contarEventosEntre(LocalDate desde, LocalDate hasta);
+
+    /**
+     * Obtiene los eventos que ocurren entre dos fechas, ambas inclusive.
+     *
+     * @param desde La fecha inicial.
+     * @param hasta La fecha final.
+     * @return Los eventos del rango, ordenados por fecha.
+     */
+    List<Evento> eventosEntre(LocalDate desde, LocalDate hasta);
+
+    /**
+     * Obtiene todos los eventos en el orden en que fueron creados.
+     *
+     * @return Los eventos.
+     */
+    List<Evento> eventos();
+
+    /**
+     * Obtiene todos los eventos ordenados por fecha.
+     *
+     * @return Los eventos ordenados.
+     */
+    List<Evento> eventosPorFecha();
+
+    /**
+     * Cuenta los eventos a los que está invitado un contacto.
+     *
+     * @param contacto El contacto.
+     * @return La cantidad de eventos.
+     */
+    int cantidadEventosDe(Contacto contacto);
+
+    /**
+     * Obtiene los eventos a los que está invitado un contacto.
+     *
+     * @param contacto El contacto.
+     * @return Los eventos, vacío si no está invitado a ninguno.
+     */
+    List<Evento> eventosDe(Contacto contacto);
+}
@@ -0,0 +1,236 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+import ar.unrn.miagenda.evento.Evento;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Índices de una {@link InstantaneaAgenda}. Los rangos se ubican con
+ * búsqueda binaria sobre los órdenes de la instantánea y se devuelven como
+ * vistas de ellos, por lo que contarlos no recorre sus elementos.
+ */
+final class IndicesDeInstantanea implements IndicesDeAgenda {
+
+    /**
+     * La instantánea consultada.
+     */
+    private final InstantaneaAgenda instantanea;
+
+    /**
+     * Constructor que crea los índices de una instantánea.
+     *
+     * @param consultada La instantánea consultada.
+     */
+    IndicesDeInstantanea(InstantaneaAgenda consultada) {
+        this.instantanea = consultada;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int cantidadContactos() {
+        return this.instantanea.cantidadContactos();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int cantidadEventos() {
+        return this.instantanea.eventos().size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Contacto> contactoPorDni(String dni) {
+        return this.instantanea.buscarContactoPorDni(dni);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int contarContactosConNombre(String desde, String hasta,
+                                        boolean incluirHasta) {
+        return contactosConNombre(desde, hasta, incluirHasta).size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Contacto> contactosConNombre(String desde, String hasta,
+                                             boolean incluirHasta) {
+        return rango(this.instantanea.contactosPorNombreNormalizado(),
+                contacto -> nombreNormalizado(contacto).compareTo(desde) < 0,
+                contacto -> {
+                    int comparacion = nombreNormalizado(contacto).compareTo(hasta);
+                    return incluirHasta ? comparacion > 0 : comparacion >= 0;
+                });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int contarContactosNacidosEntre(LocalDate desde, LocalDate hasta) {
+        return contactosNacidosEntre(desde, hasta).size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Contacto> contactosNacidosEntre(LocalDate desde, LocalDate hasta) {
+        return rango(this.instantanea.contactosPorNacimiento(),
+                contacto -> contacto.obtenerFechaNacimiento() == null
+                        || contacto.obtenerFechaNacimiento().isBefore(desde),
+                contacto -> contacto.obtenerFechaNacimiento().isAfter(hasta));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Contacto> contactosPorNombre() {
+        return this.instantanea.contactosPorNombre();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Contacto> contactosPorNacimiento() {
+        return this.instantanea.contactosPorNacimiento();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int cantidadInvitados(Evento evento) {
+        return this.instantanea.invitadosDe(evento).size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Contacto> invitadosDe(Evento evento) {
+        return this.instantanea.invitadosDe(evento);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int contarEventosEntre(LocalDate desde, LocalDate hasta) {
+        return eventosEntre(desde, hasta).size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Evento> eventosEntre(LocalDate desde, LocalDate hasta) {
+        return rango(this.instantanea.eventosPorFecha(),
+                evento -> evento.obtenerFechaEvento() == null
+                        || evento.obtenerFechaEvento().isBefore(desde),
+                evento -> evento.obtenerFechaEvento().isAfter(hasta));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Evento> eventos() {
+        return this.instantanea.eventos();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Evento> eventosPorFecha() {
+        return this.instantanea.eventosPorFecha();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int cantidadEventosDe(Contacto contacto) {
+        return this.instantanea.eventosDe(contacto).size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Evento> eventosDe(Contacto contacto) {
+        return this.instantanea.eventosDe(contacto);
+    }
+
+    /**
+     * Obtiene el nombre normalizado de un contacto.
+     *
+     * @param contacto El contacto.
+     * @return Su nombre normalizado.
+     */
+    private static String nombreNormalizado(Contacto contacto) {
+        return Normalizador.normalizarNombre(contacto.obtenerNombre());
+    }
+
+    /**
+     * Obtiene la porción de una lista ordenada que queda entre dos bordes.
+     * Los elementos anteriores al rango deben formar un prefijo de la lista y
+     * los posteriores un sufijo; ambos se encuentran por búsqueda binaria.
+     *
+     * @param filas La lista ordenada, de acceso aleatorio.
+     * @param anterior Indica si un elemento queda antes del rango.
+     * @param posterior Indica si un elemento queda después del rango.
+     * @param <E> El tipo de los elementos.
+     * @return Una vista de la porción de la lista dentro del rango.
+     */
+    private static <E> List<E> rango(List<E> filas,
+                                     Predicate<? super E> anterior,
+                                     Predicate<? super E> posterior) {
+        int desde = primeraQueNoCumple(filas, anterior, 0);
+        int hasta = primeraQueNoCumple(filas, posterior.negate(), desde);
+        return filas.subList(desde, hasta);
+    }
+
+    /**
+     * Busca la primera posición de una lista cuyo elemento no cumple una
+     * condición que se cumple sobre un prefijo de la lista.
+     *
+     * @param filas La lista a recorrer.
+     * @param condicion La condición que cumple el prefijo.
+     * @param inicio La posición desde la que se busca.
+     * @param <E> El tipo de los elementos.
+     * @return La primera posición que no cumple la condición.
+     */
+    private static <E> int primeraQueNoCumple(List<E> filas,
+                                              Predicate<? super E> condicion,
+                                              int inicio) {
+        int bajo = inicio;
+        int alto = filas.size();
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (condicion.test(filas.get(medio))) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+}
@@ -0,0 +1,266 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+import ar.unrn.miagenda.evento.Evento;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Vista inmutable del contenido de una agenda en un momento dado. Puede
+ * recorrerse sin bloquear a quienes modifican la agenda y sin riesgo de
+ * que cambie mientras se la recorre.
+ * <p>
+ * Los invitados de cada evento se congelan al tomar la instantánea y deben
+ * consultarse con {@link #invitadosDe(Evento)}, ya que el evento en sí puede
+ * seguir modificándose.
+ * <p>
+ * Además de los órdenes que entrega la agenda, la instantánea ofrece otros
+ * índices que se calculan la primera vez que se piden y se conservan mientras
+ * la instantánea siga en uso, de modo que solo pagan su costo quienes los
+ * necesitan.
+ */
+public final class InstantaneaAgenda {
+
+    /**
+     * La cantidad de modificaciones que había recibido la agenda al tomar
+     * la instantánea.
+     */
+    private final long version;
+    /**
+     * Los contactos indexados por su DNI normalizado.
+     */
+    private final Map<String, Contacto> contactosPorDni;
+    /**
+     * Los contactos ordenados alfabéticamente por nombre.
+     */
+    private final List<Contacto> contactosPorNombre;
+    /**
+     * Los contactos ordenados por fecha de nacimiento.
+     */
+    private final List<Contacto> contactosPorNacimiento;
+    /**
+     * Los eventos en el orden en que fueron creados.
+     */
+    private final List<Evento> eventos;
+    /**
+     * Los invitados de cada evento al momento de tomar la instantánea.
+     */
+    private final Map<Evento, List<Contacto>> invitados;
+    /**
+     * Los contactos ordenados por nombre normalizado, o {@code null} si aún
+     * no se pidieron. Es volátil para que varios lectores puedan publicarlos.
+     */
+    private volatile List<Contacto> contactosPorNombreNormalizado;
+    /**
+     * Los eventos ordenados por fecha, o {@code null} si aún no se pidieron.
+     */
+    private volatile List<Evento> eventosPorFecha;
+    /**
+     * Los eventos a los que está invitado cada contacto, o {@code null} si
+     * aún no se pidieron.
+     */
+    private volatile Map<Contacto, List<Evento>> eventosPorInvitado;
+
+    /**
+     * Constructor que crea una instantánea a partir de colecciones que ya son
+     * inmutables o que no serán modificadas luego.
+     *
+     * @param versionAgenda La cantidad de modificaciones de la agenda.
+     * @param porDni Los contactos indexados por DNI normalizado.
+     * @param porNombre Los contactos ordenados por nombre.
+     * @param porNacimiento Los contactos ordenados por fecha de nacimiento.
+     * @param eventosAgenda Los eventos de la agenda.
+     * @param invitadosEventos Los invitados de cada evento.
+     */
+    InstantaneaAgenda(long versionAgenda,
+                      Map<String, Contacto> porDni,
+                      List<Contacto> porNombre,
+                      List<Contacto> porNacimiento,
+                      List<Evento> eventosAgenda,
+                      Map<Evento, List<Contacto>> invitadosEventos) {
+        this.version = versionAgenda;
+        this.contactosPorDni = porDni;
+        this.contactosPorNombre = porNombre;
+        this.contactosPorNacimiento = porNacimiento;
+        this.eventos = eventosAgenda;
+        this.invitados = invitadosEventos;
+    }
+
+    /**
+     * Crea una instantánea copiando las colecciones indicadas. Es para las
+     * agendas que no guardan su contenido en estructuras persistentes, por lo
+     * que cuesta O(n) en la cantidad de contactos, eventos e invitaciones.
+     *
+     * @param versionAgenda La cantidad de modificaciones de la agenda.
+     * @param porDni Los contactos indexados por DNI normalizado.
+     * @param porNombre Los contactos ordenados por nombre, de solo lectura.
+     * @param porNacimiento Los contactos ordenados por nacimiento, de solo lectura.
+     * @param eventosAgenda Los eventos de la agenda.
+     * @return La instantánea creada.
+     */
+    static InstantaneaAgenda crear(long versionAgenda,
+                                   Map<String, Contacto> porDni,
+                                   List<Contacto> porNombre,
+                                   List<Contacto> porNacimiento,
+                                   List<Evento> eventosAgenda) {
+        Map<Evento, List<Contacto>> invitadosEventos = new HashMap<>();
+        for (Evento evento : eventosAgenda) {
+            invitadosEventos.put(evento, List.copyOf(evento.obtenerInvitadosEvento()));
+        }
+        return new InstantaneaAgenda(versionAgenda,
+                Collections.unmodifiableMap(new HashMap<>(porDni)), porNombre,
+                porNacimiento, List.copyOf(eventosAgenda),
+                Collections.unmodifiableMap(invitadosEventos));
+    }
+
+    /**
+     * Obtiene la cantidad de modificaciones que había recibido la agenda al
+     * tomar la instantánea. Dos instantáneas con la misma versión tienen el
+     * mismo contenido.
+     *
+     * @return La versión de la agenda.
+     */
+    public long obtenerVersion() {
+        return this.version;
+    }
+
+    /**
+     * Obtiene la cantidad de contactos de la instantánea.
+     *
+     * @return El número total de contactos.
+     */
+    public int cantidadContactos() {
+        return this.contactosPorDni.size();
+    }
+
+    /**
+     * Busca un contacto por su DNI.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    public Optional<Contacto> buscarContactoPorDni(String dni) {
+        return Optional.ofNullable(
+                this.contactosPorDni.get(Normalizador.normalizarDni(dni)));
+    }
+
+    /**
+     * Obtiene los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una lista inmutable de contactos.
+     */
+    public List<Contacto> contactosPorNombre() {
+        return this.contactosPorNombre;
+    }
+
+    /**
+     * Obtiene los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una lista inmutable de contactos.
+     */
+    public List<Contacto> contactosPorNacimiento() {
+        return this.contactosPorNacimiento;
+    }
+
+    /**
+     * Obtiene los eventos en el orden en que fueron creados.
+     *
+     * @return Una lista inmutable de eventos.
+     */
+    public List<Evento> eventos() {
+        return this.eventos;
+    }
+
+    /**
+     * Obtiene los invitados que tenía un evento al tomar la instantánea.
+     *
+     * @param evento El evento a consultar.
+     * @return Una lista inmutable de invitados, vacía si el evento no existía.
+     */
+    public List<Contacto> invitadosDe(Evento evento) {
+        return this.invitados.getOrDefault(evento, List.of());
+    }
+
+    /**
+     * Obtiene los contactos ordenados por su nombre normalizado, de modo que
+     * los nombres que solo difieren en mayúsculas, acentos o espacios quedan
+     * juntos. Los contactos con el mismo nombre normalizado conservan el orden
+     * alfabético. El orden se calcula la primera vez que se pide, normalizando
+     * cada nombre una única vez.
+     *
+     * @return Una lista inmutable de contactos.
+     */
+    public List<Contacto> contactosPorNombreNormalizado() {
+        List<Contacto> ordenados = this.contactosPorNombreNormalizado;
+        if (ordenados == null) {
+            int cantidad = this.contactosPorNombre.size();
+            String[] claves = new String[cantidad];
+            Integer[] posiciones = new Integer[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                claves[i] = Normalizador.normalizarNombre(
+                        this.contactosPorNombre.get(i).obtenerNombre());
+                posiciones[i] = i;
+            }
+            Arrays.sort(posiciones, Comparator.comparing(i -> claves[i]));
+            List<Contacto> copia = new ArrayList<>(cantidad);
+            for (Integer posicion : posiciones) {
+                copia.add(this.contactosPorNombre.get(posicion));
+            }
+            ordenados = Collections.unmodifiableList(copia);
+            this.contactosPorNombreNormalizado = ordenados;
+        }
+        return ordenados;
+    }
+
+    /**
+     * Obtiene los eventos ordenados por fecha; los eventos sin fecha van
+     * primero y los de una misma fecha conservan el orden de creación. El
+     * orden se calcula la primera vez que se pide.
+     *
+     * @return Una lista inmutable de eventos.
+     */
+    public List<Evento> eventosPorFecha() {
+        List<Evento> ordenados = this.eventosPorFecha;
+        if (ordenados == null) {
+            List<Evento> copia = new ArrayList<>(this.eventos);
+            copia.sort(Comparator.comparing(Evento::obtenerFechaEvento,
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+            ordenados = Collections.unmodifiableList(copia);
+            this.eventosPorFecha = ordenados;
+        }
+        return ordenados;
+    }
+
+    /**
+     * Obtiene los eventos a los que estaba invitado un contacto al tomar la
+     * instantánea, en el orden en que fueron creados. La relación inversa a
+     * {@link #invitadosDe(Evento)} se calcula la primera vez que se pide.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Una lista inmutable de eventos, vacía si no tenía invitaciones.
+     */
+    public List<Evento> eventosDe(Contacto contacto) {
+        Map<Contacto, List<Evento>> porInvitado = this.eventosPorInvitado;
+        if (porInvitado == null) {
+            Map<Contacto, List<Evento>> indice = new HashMap<>();
+            for (Evento evento : this.eventos) {
+                for (Contacto invitado : invitadosDe(evento)) {
+                    indice.computeIfAbsent(invitado, clave -> new ArrayList<>())
+                            .add(evento);
+                }
+            }
+            indice.replaceAll((clave, lista) -> Collections.unmodifiableList(lista));
+            porInvitado = indice;
+            this.eventosPorInvitado = porInvitado;
+        }
+        return porInvitado.getOrDefault(contacto, List.of());
+    }
+}
@@ -0,0 +1,450 @@
+package ar.unrn.miagenda.agenda;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Región de memoria fuera del heap formada por páginas de igual tamaño,
+ * cada una un {@link ByteBuffer} directo. Las posiciones dentro de la región
+ * son direcciones de tipo {@code long}, cuyos bits altos indican la página y
+ * los bajos la posición dentro de ella, de modo que la región puede superar
+ * el límite de dos gigabytes de un único buffer.
+ * <p>
+ * Ningún valor se reparte entre dos páginas: los elementos de tamaño fijo se
+ * ubican con {@link #direccion(long, int)} y los de tamaño variable se
+ * reservan con {@link #reservar(int)}, que salta al comienzo de la página
+ * siguiente si el valor no entra en la actual. Los valores reservados se
+ * redondean a una clase de tamaño (múltiplos de ocho bytes hasta
+ * {@value #MAXIMO_PEQUENIO}, potencias de dos a partir de allí), y los que se
+ * devuelven con {@link #liberar(long, int)} quedan en una lista de bloques
+ * libres de su clase, enlazados por su propio contenido, para que la próxima
+ * reserva del mismo tamaño los reutilice. La memoria de las páginas se
+ * devuelve al sistema cuando el recolector descarta sus buffers.
+ * <p>
+ * Esta clase no es segura para el acceso concurrente.
+ */
+final class RegionFueraDelHeap {
+
+    /**
+     * Máscara para interpretar un byte sin signo.
+     */
+    private static final int BYTE_SIN_SIGNO = 0xFF;
+    /**
+     * Número primo usado para combinar los bytes en un código hash.
+     */
+    private static final int PRIMO = 31;
+    /**
+     * La menor cantidad de bits admitida para la posición en una página.
+     */
+    private static final int BITS_MINIMOS = 12;
+    /**
+     * La mayor cantidad de bits admitida para la posición en una página.
+     */
+    private static final int BITS_MAXIMOS = 30;
+    /**
+     * El tamaño mínimo de un bloque, que alcanza para enlazarlo cuando está
+     * libre; los bloques pequeños crecen de a este tamaño.
+     */
+    private static final int GRANO = Long.BYTES;
+    /**
+     * El mayor tamaño de los bloques que se redondean al múltiplo de
+     * {@link #GRANO} siguiente; los más grandes se redondean a una potencia de
+     * dos.
+     */
+    private static final int MAXIMO_PEQUENIO = 256;
+    /**
+     * La cantidad de clases de tamaño de los bloques pequeños.
+     */
+    private static final int CLASES_PEQUENIAS = MAXIMO_PEQUENIO / GRANO;
+    /**
+     * La cantidad de bits de {@link #MAXIMO_PEQUENIO}.
+     */
+    private static final int BITS_PEQUENIOS =
+            Integer.numberOfTrailingZeros(MAXIMO_PEQUENIO);
+    /**
+     * Dirección que marca el fin de una lista de bloques libres.
+     */
+    private static final long SIN_BLOQUE = -1;
+
+    /**
+     * La cantidad de bits de la posición dentro de una página.
+     */
+    private final int bitsPorPagina;
+    /**
+     * El tamaño de cada página en bytes.
+     */
+    private final int bytesPorPagina;
+    /**
+     * Las páginas reservadas.
+     */
+    private ByteBuffer[] paginas;
+    /**
+     * La cantidad de páginas reservadas.
+     */
+    private int cantidadPaginas;
+    /**
+     * La próxima dirección libre para {@link #reservar(int)}.
+     */
+    private long siguiente;
+    /**
+     * El primer bloque libre de cada clase de tamaño, o {@link #SIN_BLOQUE}
+     * si no hay ninguno.
+     */
+    private long[] libres;
+    /**
+     * La cantidad de bytes de los bloques libres.
+     */
+    private long bytesLibres;
+
+    /**
+     * Constructor que crea una región vacía.
+     *
+     * @param bits La cantidad de bits de la posición dentro de una página, de
+     *             modo que cada página ocupe dos a la {@code bits} bytes.
+     */
+    RegionFueraDelHeap(int bits) {
+        if (bits < BITS_MINIMOS || bits > BITS_MAXIMOS) {
+            throw new IllegalArgumentException("Tamanio de pagina invalido: " + bits);
+        }
+        this.bitsPorPagina = bits;
+        this.bytesPorPagina = 1 << bits;
+        limpiar();
+    }
+
+    /**
+     * Reserva un valor de tamaño variable, reutilizando un bloque libre de su
+     * clase de tamaño o, si no hay ninguno, a continuación del último
+     * reservado.
+     *
+     * @param bytes El tamaño del valor.
+     * @return La dirección del valor.
+     * @throws IllegalArgumentException Si el valor es mayor que una página.
+     */
+    long reservar(int bytes) {
+        if (bytes > this.bytesPorPagina) {
+            throw new IllegalArgumentException("No se pueden reservar " + bytes
+                    + " bytes en paginas de " + this.bytesPorPagina);
+        }
+        int tamanio = redondear(bytes);
+        if (tamanio > 0) {
+            int clase = clase(tamanio);
+            long libre = this.libres[clase];
+            if (libre != SIN_BLOQUE) {
+                this.libres[clase] = leerLong(libre);
+                this.bytesLibres = this.bytesLibres - tamanio;
+                return libre;
+            }
+        }
+        long direccion = this.siguiente;
+        if (posicion(direccion) + tamanio > this.bytesPorPagina) {
+            direccion = (long) (pagina(direccion) + 1) << this.bitsPorPagina;
+        }
+        this.siguiente = direccion + tamanio;
+        asegurarPaginas(pagina(direccion + Math.max(tamanio, 1) - 1) + 1);
+        return direccion;
+    }
+
+    /**
+     * Devuelve un valor reservado con {@link #reservar(int)} a la lista de
+     * bloques libres de su clase de tamaño. El valor no debe volver a usarse.
+     *
+     * @param direccion La dirección del valor.
+     * @param bytes El tamaño con el que se reservó.
+     */
+    void liberar(long direccion, int bytes) {
+        int tamanio = redondear(bytes);
+        if (tamanio == 0) {
+            return;
+        }
+        int clase = clase(tamanio);
+        escribirLong(direccion, this.libres[clase]);
+        this.libres[clase] = direccion;
+        this.bytesLibres = this.bytesLibres + tamanio;
+    }
+
+    /**
+     * Obtiene la memoria de los bloques liberados que aún no se reutilizaron.
+     *
+     * @return La cantidad de bytes libres.
+     */
+    long bytesLibres() {
+        return this.bytesLibres;
+    }
+
+    /**
+     * Calcula la dirección de un elemento de tamaño fijo.
+     *
+     * @param indice La posición del elemento.
+     * @param bytes El tamaño de cada elemento.
+     * @return La dirección del elemento.
+     */
+    long direccion(long indice, int bytes) {
+        int porPagina = this.bytesPorPagina / bytes;
+        return (indice / porPagina << this.bitsPorPagina) + indice % porPagina * bytes;
+    }
+
+    /**
+     * Asegura que haya páginas para la cantidad indicada de elementos de
+     * tamaño fijo.
+     *
+     * @param cantidad La cantidad de elementos.
+     * @param bytes El tamaño de cada elemento.
+     */
+    void asegurarElementos(long cantidad, int bytes) {
+        int porPagina = this.bytesPorPagina / bytes;
+        long necesarias = (cantidad + porPagina - 1) / porPagina;
+        if (necesarias > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError("Se alcanzo la capacidad maxima de la region");
+        }
+        asegurarPaginas((int) necesarias);
+    }
+
+    /**
+     * Lee un {@code long}.
+     *
+     * @param direccion La dirección del valor.
+     * @return El valor.
+     */
+    long leerLong(long direccion) {
+        return this.paginas[pagina(direccion)].getLong(posicion(direccion));
+    }
+
+    /**
+     * Escribe un {@code long}.
+     *
+     * @param direccion La dirección del valor.
+     * @param valor El valor.
+     */
+    void escribirLong(long direccion, long valor) {
+        this.paginas[pagina(direccion)].putLong(posicion(direccion), valor);
+    }
+
+    /**
+     * Lee un {@code int}.
+     *
+     * @param direccion La dirección del valor.
+     * @return El valor.
+     */
+    int leerInt(long direccion) {
+        return this.paginas[pagina(direccion)].getInt(posicion(direccion));
+    }
+
+    /**
+     * Escribe un {@code int}.
+     *
+     * @param direccion La dirección del valor.
+     * @param valor El valor.
+     */
+    void escribirInt(long direccion, int valor) {
+        this.paginas[pagina(direccion)].putInt(posicion(direccion), valor);
+    }
+
+    /**
+     * Lee una secuencia de bytes.
+     *
+     * @param direccion La dirección del primer byte.
+     * @param bytes La cantidad de bytes.
+     * @return Los bytes leídos.
+     */
+    byte[] leer(long direccion, int bytes) {
+        byte[] destino = new byte[bytes];
+        this.paginas[pagina(direccion)].get(posicion(direccion), destino);
+        return destino;
+    }
+
+    /**
+     * Escribe una secuencia de bytes.
+     *
+     * @param direccion La dirección del primer byte.
+     * @param origen Los bytes a escribir.
+     */
+    void escribir(long direccion, byte[] origen) {
+        this.paginas[pagina(direccion)].put(posicion(direccion), origen);
+    }
+
+    /**
+     * Copia una secuencia de enteros dentro de la región.
+     *
+     * @param desde La dirección del primer entero a copiar.
+     * @param hacia La dirección donde copiarlo.
+     * @param cantidad La cantidad de enteros.
+     */
+    void copiarInts(long desde, long hacia, int cantidad) {
+        ByteBuffer origen = this.paginas[pagina(desde)];
+        ByteBuffer destino = this.paginas[pagina(hacia)];
+        destino.put(posicion(hacia), origen, posicion(desde), cantidad * Integer.BYTES);
+    }
+
+    /**
+     * Compara byte a byte dos secuencias de la región.
+     *
+     * @param direccion La dirección de la primera secuencia.
+     * @param bytes El tamaño de la primera secuencia.
+     * @param otra La dirección de la segunda secuencia.
+     * @param otrosBytes El tamaño de la segunda secuencia.
+     * @return Un número negativo, cero o positivo si la primera secuencia es
+     * menor, igual o mayor que la segunda.
+     */
+    int comparar(long direccion, int bytes, long otra, int otrosBytes) {
+        ByteBuffer pagina = this.paginas[pagina(direccion)];
+        ByteBuffer otraPagina = this.paginas[pagina(otra)];
+        int inicio = posicion(direccion);
+        int otroInicio = posicion(otra);
+        int comunes = Math.min(bytes, otrosBytes);
+        for (int i = 0; i < comunes; i++) {
+            int diferencia = (pagina.get(inicio + i) & BYTE_SIN_SIGNO)
+                    - (otraPagina.get(otroInicio + i) & BYTE_SIN_SIGNO);
+            if (diferencia != 0) {
+                return diferencia;
+            }
+        }
+        return Integer.compare(bytes, otrosBytes);
+    }
+
+    /**
+     * Compara byte a byte una secuencia de la región con un valor.
+     *
+     * @param direccion La dirección de la secuencia.
+     * @param bytes El tamaño de la secuencia.
+     * @param valor El valor a comparar.
+     * @param comoPrefijo {@code true} para considerar iguales las secuencias
+     *                    que comienzan con el valor.
+     * @return Un número negativo, cero o positivo si la secuencia es menor,
+     * igual o mayor que el valor.
+     */
+    int comparar(long direccion, int bytes, byte[] valor, boolean comoPrefijo) {
+        ByteBuffer pagina = this.paginas[pagina(direccion)];
+        int inicio = posicion(direccion);
+        int comunes = Math.min(bytes, valor.length);
+        for (int i = 0; i < comunes; i++) {
+            int diferencia = (pagina.get(inicio + i) & BYTE_SIN_SIGNO)
+                    - (valor[i] & BYTE_SIN_SIGNO);
+            if (diferencia != 0) {
+                return diferencia;
+            }
+        }
+        if (comoPrefijo && bytes >= valor.length) {
+            return 0;
+        }
+        return Integer.compare(bytes, valor.length);
+    }
+
+    /**
+     * Indica si una secuencia de la región es igual a un valor.
+     *
+     * @param direccion La dirección de la secuencia.
+     * @param bytes El tamaño de la secuencia.
+     * @param valor El valor a comparar.
+     * @return {@code true} si la secuencia y el valor son iguales.
+     */
+    boolean igual(long direccion, int bytes, byte[] valor) {
+        return bytes == valor.length && comparar(direccion, bytes, valor, false) == 0;
+    }
+
+    /**
+     * Calcula el código hash de una secuencia de la región, igual al de
+     * {@link Arrays#hashCode(byte[])} para los mismos bytes.
+     *
+     * @param direccion La dirección de la secuencia.
+     * @param bytes El tamaño de la secuencia.
+     * @return El código hash.
+     */
+    int hash(long direccion, int bytes) {
+        ByteBuffer pagina = this.paginas[pagina(direccion)];
+        int inicio = posicion(direccion);
+        int hash = 1;
+        for (int i = 0; i < bytes; i++) {
+            hash = PRIMO * hash + pagina.get(inicio + i);
+        }
+        return hash;
+    }
+
+    /**
+     * Obtiene la memoria fuera del heap reservada por la región.
+     *
+     * @return La cantidad de bytes reservados.
+     */
+    long bytesReservados() {
+        return (long) this.cantidadPaginas * this.bytesPorPagina;
+    }
+
+    /**
+     * Descarta todas las páginas de la región.
+     */
+    void limpiar() {
+        this.paginas = new ByteBuffer[1];
+        this.cantidadPaginas = 0;
+        this.siguiente = 0;
+        this.libres = new long[CLASES_PEQUENIAS + BITS_MAXIMOS - BITS_PEQUENIOS];
+        Arrays.fill(this.libres, SIN_BLOQUE);
+        this.bytesLibres = 0;
+    }
+
+    /**
+     * Redondea un tamaño al de su clase.
+     *
+     * @param bytes El tamaño pedido.
+     * @return El tamaño del bloque, o cero si no se pidió ningún byte.
+     */
+    private static int redondear(int bytes) {
+        if (bytes <= 0) {
+            return 0;
+        }
+        if (bytes <= MAXIMO_PEQUENIO) {
+            return (bytes + GRANO - 1) / GRANO * GRANO;
+        }
+        return Integer.highestOneBit(bytes - 1) << 1;
+    }
+
+    /**
+     * Obtiene la clase de un tamaño ya redondeado.
+     *
+     * @param tamanio El tamaño del bloque.
+     * @return El índice de su lista de bloques libres.
+     */
+    private static int clase(int tamanio) {
+        if (tamanio <= MAXIMO_PEQUENIO) {
+            return tamanio / GRANO - 1;
+        }
+        return CLASES_PEQUENIAS + Integer.numberOfTrailingZeros(tamanio)
+                - BITS_PEQUENIOS - 1;
+    }
+
+    /**
+     * Asegura que la región tenga al menos la cantidad indicada de páginas.
+     *
+     * @param cantidad La cantidad de páginas.
+     */
+    private void asegurarPaginas(int cantidad) {
+        if (cantidad > this.paginas.length) {
+            this.paginas = Arrays.copyOf(this.paginas,
+                    Math.max(DepositoDeNombres.crecer(this.paginas.length), cantidad));
+        }
+        while (this.cantidadPaginas < cantidad) {
+            this.paginas[this.cantidadPaginas] = ByteBuffer
+                    .allocateDirect(this.bytesPorPagina).order(ByteOrder.nativeOrder());
+            this.cantidadPaginas++;
+        }
+    }
+
+    /**
+     * Obtiene la página de una dirección.
+     *
+     * @param direccion La dirección.
+     * @return El número de página.
+     */
+    private int pagina(long direccion) {
+        return (int) (direccion >>> this.bitsPorPagina);
+    }
+
+    /**
+     * Obtiene la posición de una dirección dentro de su página.
+     *
+     * @param direccion La dirección.
+     * @return La posición dentro de la página.
+     */
+    private int posicion(long direccion) {
+        return (int) direccion & (this.bytesPorPagina - 1);
+    }
+}
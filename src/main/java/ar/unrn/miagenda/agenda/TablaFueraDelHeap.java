@@ -0,0 +1,206 @@
+package ar.unrn.miagenda.agenda;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Tabla de dispersión de direccionamiento abierto guardada fuera del heap,
+ * que asocia claves a identificadores enteros no negativos. La tabla no
+ * guarda las claves: cada ranura contiene el identificador más uno, y quien
+ * la usa indica cómo calcular el código hash de un identificador y cómo
+ * reconocer el identificador buscado.
+ * <p>
+ * Esta clase no es segura para el acceso concurrente.
+ */
+final class TablaFueraDelHeap {
+
+    /**
+     * La cantidad de bits de las páginas de la tabla.
+     */
+    private static final int BITS_POR_PAGINA = 16;
+    /**
+     * La capacidad inicial de la tabla, que debe ser una potencia de dos.
+     */
+    private static final int CAPACIDAD_INICIAL = 16;
+    /**
+     * La mayor capacidad admitida de la tabla.
+     */
+    private static final int CAPACIDAD_MAXIMA = 1 << (Integer.SIZE - 2);
+
+    /**
+     * Calcula el código hash de un identificador guardado en la tabla.
+     */
+    @FunctionalInterface
+    interface Dispersion {
+        /**
+         * Calcula el código hash de la clave de un identificador.
+         *
+         * @param id El identificador.
+         * @return El código hash de su clave.
+         */
+        int hashDe(int id);
+    }
+
+    /**
+     * El cálculo del código hash de los identificadores.
+     */
+    private final Dispersion dispersion;
+    /**
+     * Las ranuras de la tabla.
+     */
+    private RegionFueraDelHeap ranuras;
+    /**
+     * La cantidad de ranuras de la tabla, una potencia de dos.
+     */
+    private int capacidad;
+    /**
+     * La cantidad de identificadores de la tabla.
+     */
+    private int cantidad;
+
+    /**
+     * Constructor que crea una tabla vacía.
+     *
+     * @param calculo El cálculo del código hash de los identificadores.
+     */
+    TablaFueraDelHeap(Dispersion calculo) {
+        this.dispersion = calculo;
+        limpiar();
+    }
+
+    /**
+     * Busca un identificador.
+     *
+     * @param hash El código hash de la clave buscada.
+     * @param coincide Indica si un identificador tiene la clave buscada.
+     * @return El identificador encontrado, o {@code -1} si no está.
+     */
+    int buscar(int hash, IntPredicate coincide) {
+        int mascara = this.capacidad - 1;
+        for (int ranura = hash & mascara;; ranura = (ranura + 1) & mascara) {
+            int ocupante = leer(ranura);
+            if (ocupante == 0) {
+                return -1;
+            } else if (coincide.test(ocupante - 1)) {
+                return ocupante - 1;
+            }
+        }
+    }
+
+    /**
+     * Agrega un identificador que no está en la tabla, duplicando la tabla si
+     * queda más de la mitad ocupada.
+     *
+     * @param id El identificador.
+     */
+    void agregar(int id) {
+        if (this.cantidad + 1 > this.capacidad / 2) {
+            if (this.capacidad == CAPACIDAD_MAXIMA) {
+                throw new OutOfMemoryError("Se alcanzo la capacidad maxima de la tabla");
+            }
+            RegionFueraDelHeap anteriores = this.ranuras;
+            int capacidadAnterior = this.capacidad;
+            int ubicados = this.cantidad;
+            crear(this.capacidad * 2);
+            this.cantidad = ubicados;
+            for (int ranura = 0; ranura < capacidadAnterior; ranura++) {
+                int ocupante = anteriores.leerInt((long) ranura * Integer.BYTES);
+                if (ocupante != 0) {
+                    ubicar(ocupante - 1);
+                }
+            }
+            anteriores.limpiar();
+        }
+        ubicar(id);
+        this.cantidad++;
+    }
+
+    /**
+     * Quita un identificador de la tabla, desplazando hacia atrás los
+     * siguientes de la misma secuencia para no dejar huecos en la búsqueda.
+     *
+     * @param id El identificador, que debe estar en la tabla.
+     */
+    void quitar(int id) {
+        int mascara = this.capacidad - 1;
+        int libre = this.dispersion.hashDe(id) & mascara;
+        while (leer(libre) != id + 1) {
+            libre = (libre + 1) & mascara;
+        }
+        for (int siguiente = (libre + 1) & mascara; leer(siguiente) != 0;
+             siguiente = (siguiente + 1) & mascara) {
+            int ocupante = leer(siguiente);
+            int inicial = this.dispersion.hashDe(ocupante - 1) & mascara;
+            boolean alcanzable = libre <= siguiente
+                    ? libre < inicial && inicial <= siguiente
+                    : libre < inicial || inicial <= siguiente;
+            if (!alcanzable) {
+                escribir(libre, ocupante);
+                libre = siguiente;
+            }
+        }
+        escribir(libre, 0);
+        this.cantidad--;
+    }
+
+    /**
+     * Obtiene la memoria fuera del heap reservada por la tabla.
+     *
+     * @return La cantidad de bytes reservados.
+     */
+    long bytesReservados() {
+        return this.ranuras.bytesReservados();
+    }
+
+    /**
+     * Quita todos los identificadores y vuelve la tabla a su capacidad inicial.
+     */
+    void limpiar() {
+        crear(CAPACIDAD_INICIAL);
+    }
+
+    /**
+     * Reemplaza las ranuras por otras vacías.
+     *
+     * @param nuevaCapacidad La cantidad de ranuras, una potencia de dos.
+     */
+    private void crear(int nuevaCapacidad) {
+        this.ranuras = new RegionFueraDelHeap(BITS_POR_PAGINA);
+        this.ranuras.asegurarElementos(nuevaCapacidad, Integer.BYTES);
+        this.capacidad = nuevaCapacidad;
+        this.cantidad = 0;
+    }
+
+    /**
+     * Ubica un identificador en la primera ranura libre de su secuencia.
+     *
+     * @param id El identificador.
+     */
+    private void ubicar(int id) {
+        int mascara = this.capacidad - 1;
+        int ranura = this.dispersion.hashDe(id) & mascara;
+        while (leer(ranura) != 0) {
+            ranura = (ranura + 1) & mascara;
+        }
+        escribir(ranura, id + 1);
+    }
+
+    /**
+     * Lee el contenido de una ranura.
+     *
+     * @param ranura La ranura.
+     * @return El identificador más uno, o cero si está libre.
+     */
+    private int leer(int ranura) {
+        return this.ranuras.leerInt((long) ranura * Integer.BYTES);
+    }
+
+    /**
+     * Escribe el contenido de una ranura.
+     *
+     * @param ranura La ranura.
+     * @param valor El identificador más uno, o cero para liberarla.
+     */
+    private void escribir(int ranura, int valor) {
+        this.ranuras.escribirInt((long) ranura * Integer.BYTES, valor);
+    }
+}
@@ -0,0 +1,114 @@
+package ar.unrn.miagenda.busqueda;
+
+import ar.unrn.miagenda.agenda.AgendaDelegada;
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Agenda que mantiene un {@link BuscadorDeContactos} actualizado con los
+ * contactos de otra agenda, para buscarlos por palabras sueltas del nombre,
+ * prefijos o nombres mal escritos.
+ * <p>
+ * Al crearla se indexan los contactos que ya tiene la agenda envuelta, y
+ * luego el índice se actualiza con cada alta, baja o limpieza hecha a través
+ * de esta agenda. Los cambios hechos directamente en la agenda envuelta no se
+ * reflejan en las búsquedas.
+ */
+public class AgendaConBusqueda extends AgendaDelegada {
+
+    /**
+     * El índice de búsqueda de los contactos.
+     */
+    private final BuscadorDeContactos buscador;
+
+    /**
+     * Constructor que indexa los contactos de la agenda indicada.
+     *
+     * @param agenda La agenda que resuelve las operaciones.
+     */
+    public AgendaConBusqueda(IAgenda agenda) {
+        this(agenda, new BuscadorDeContactos());
+    }
+
+    /**
+     * Constructor que indexa los contactos de la agenda indicada en el
+     * buscador indicado, que debe estar vacío.
+     *
+     * @param agenda La agenda que resuelve las operaciones.
+     * @param indice El buscador donde se indexan los contactos.
+     */
+    public AgendaConBusqueda(IAgenda agenda, BuscadorDeContactos indice) {
+        super(agenda);
+        this.buscador = indice;
+        this.buscador.agregarTodos(agenda.consultarContactosPorNombre());
+    }
+
+    /**
+     * Agrega un contacto a la agenda y al índice de búsqueda.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     */
+    @Override
+    public void agregarContacto(Contacto contacto) throws ContactoDuplicadoException {
+        super.agregarContacto(contacto);
+        this.buscador.agregar(contacto);
+    }
+
+    /**
+     * Agrega varios contactos a la agenda y al índice de búsqueda.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     */
+    @Override
+    public void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException {
+        super.agregarContactos(nuevos);
+        this.buscador.agregarTodos(nuevos);
+    }
+
+    /**
+     * Elimina un contacto de la agenda y del índice de búsqueda.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * el contacto en la agenda
+     */
+    @Override
+    public void eliminarContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        super.eliminarContacto(contacto);
+        this.buscador.quitar(contacto);
+    }
+
+    /**
+     * Limpia todos los contactos y eventos de la agenda y vacía el índice de
+     * búsqueda.
+     */
+    @Override
+    public void limpiarAgenda() {
+        super.limpiarAgenda();
+        this.buscador.limpiar();
+    }
+
+    /**
+     * Busca los contactos cuyo nombre coincide con las palabras de la
+     * consulta, en forma exacta, por prefijo o aproximada.
+     *
+     * @param consulta Las palabras a buscar.
+     * @param cantidadMaxima La cantidad máxima de resultados.
+     * @return Los contactos encontrados, del más relevante al menos relevante.
+     * @see BuscadorDeContactos#buscar(String, int)
+     */
+    public List<ResultadoDeBusqueda> buscarContactos(String consulta,
+                                                     int cantidadMaxima) {
+        return this.buscador.buscar(consulta, cantidadMaxima);
+    }
+}
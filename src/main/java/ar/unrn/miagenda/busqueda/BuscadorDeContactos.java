@@ -0,0 +1,960 @@
+package ar.unrn.miagenda.busqueda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de búsqueda de texto libre sobre los nombres de los contactos. Cada
+ * nombre se divide en palabras normalizadas con
+ * {@link Normalizador#normalizarNombre(String)}, por lo que la búsqueda no
+ * distingue mayúsculas ni acentos, y cada palabra apunta a los contactos que
+ * la contienen.
+ * <p>
+ * Cada palabra de la consulta coincide con las palabras indexadas iguales,
+ * con las que comienzan con ella y con las que están a una o dos ediciones
+ * de distancia, de modo que "cast" y "Castaneda" encuentran a "Demian
+ * Castañeda", y también "Catsañeda"; las palabras con dígitos solo
+ * coinciden en forma exacta o por prefijo. Las candidatas para las
+ * coincidencias aproximadas se obtienen de un índice de trigramas de las
+ * palabras, sin recorrer todo el vocabulario.
+ * <p>
+ * La relevancia de un contacto suma, por cada palabra de la consulta, la
+ * mejor coincidencia entre las palabras de su nombre: la exacta vale más que
+ * la de prefijo y esta más que la aproximada, y las palabras poco frecuentes
+ * valen más que las comunes. Los candidatos se recorren en orden de
+ * identificador y el recorrido se abandona en cuanto ningún contacto restante
+ * puede superar a los ya reunidos; cuando las listas a recorrer son largas,
+ * se dividen por rangos de identificadores que se recorren en paralelo con
+ * un {@link ForkJoinPool}.
+ * <p>
+ * Es seguro usarlo desde varios hilos a la vez: las búsquedas se ejecutan en
+ * paralelo bajo un bloqueo de lectura y las modificaciones bajo un bloqueo de
+ * escritura.
+ */
+public final class BuscadorDeContactos {
+
+    /**
+     * La relevancia de una palabra igual a la buscada.
+     */
+    private static final double PESO_EXACTO = 1.0;
+    /**
+     * La relevancia de una palabra que comienza con la buscada.
+     */
+    private static final double PESO_PREFIJO = 0.7;
+    /**
+     * La relevancia de una palabra a una edición de la buscada; a dos
+     * ediciones vale la mitad.
+     */
+    private static final double PESO_APROXIMADO = 0.5;
+    /**
+     * El largo mínimo de una palabra de la consulta para buscarla como
+     * prefijo.
+     */
+    private static final int LARGO_MINIMO_PREFIJO = 2;
+    /**
+     * El largo mínimo de una palabra de la consulta para buscarla en forma
+     * aproximada.
+     */
+    private static final int LARGO_MINIMO_APROXIMADO = 4;
+    /**
+     * El largo mínimo de una palabra de la consulta para admitir dos
+     * ediciones.
+     */
+    private static final int LARGO_MINIMO_DOS_EDICIONES = 7;
+    /**
+     * La cantidad de trigramas que puede arruinar una sola edición.
+     */
+    private static final int TRIGRAMAS_POR_EDICION = 3;
+    /**
+     * El largo de los fragmentos del índice aproximado.
+     */
+    private static final int LARGO_TRIGRAMA = 3;
+    /**
+     * La marca de comienzo y fin de palabra en los trigramas.
+     */
+    private static final char BORDE = '$';
+    /**
+     * La cantidad mínima de apariciones en las listas de contactos que
+     * justifica sumar un hilo al recorrido.
+     */
+    private static final int APARICIONES_POR_HILO = 8192;
+    /**
+     * La cantidad mínima de contactos eliminados para reconstruir el índice.
+     */
+    private static final int ELIMINADOS_PARA_COMPACTAR = 1024;
+
+    /**
+     * Ordena los candidatos del más relevante al menos relevante y, a igual
+     * relevancia, en el orden en que se indexaron.
+     */
+    private static final Comparator<Candidato> POR_RELEVANCIA =
+            Comparator.comparingDouble((Candidato candidato) -> candidato.puntaje)
+                    .reversed().thenComparingInt(candidato -> candidato.id);
+
+    /**
+     * El grupo de hilos que puntúa los candidatos.
+     */
+    private final ForkJoinPool hilos;
+    /**
+     * El bloqueo de lectura, compartido por todas las búsquedas.
+     */
+    private final Lock lectura;
+    /**
+     * El bloqueo de escritura, exclusivo de cada modificación.
+     */
+    private final Lock escritura;
+    /**
+     * Los contactos indexados por identificador, con {@code null} en los
+     * eliminados.
+     */
+    private final List<Contacto> contactos;
+    /**
+     * Los identificadores de las palabras del nombre de cada contacto.
+     */
+    private final List<int[]> palabrasDeContacto;
+    /**
+     * El identificador de cada contacto por DNI normalizado.
+     */
+    private final Map<String, Integer> idsPorDni;
+    /**
+     * El identificador de cada palabra del vocabulario, en orden alfabético
+     * para las búsquedas por prefijo.
+     */
+    private final TreeMap<String, Integer> vocabulario;
+    /**
+     * Las palabras del vocabulario por identificador.
+     */
+    private final List<Palabra> palabras;
+    /**
+     * Los identificadores de las palabras que contienen cada trigrama.
+     */
+    private final Map<String, ListaDeEnteros> palabrasPorTrigrama;
+    /**
+     * La cantidad de contactos eliminados cuyo identificador aún figura en
+     * el índice.
+     */
+    private int eliminados;
+
+    /**
+     * Constructor que crea un buscador vacío que puntúa en el grupo de
+     * hilos común.
+     */
+    public BuscadorDeContactos() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor que crea un buscador vacío que puntúa en el grupo de hilos
+     * indicado.
+     *
+     * @param grupoDeHilos El grupo de hilos que puntúa los candidatos.
+     */
+    public BuscadorDeContactos(ForkJoinPool grupoDeHilos) {
+        this.hilos = grupoDeHilos;
+        ReadWriteLock bloqueo = new ReentrantReadWriteLock();
+        this.lectura = bloqueo.readLock();
+        this.escritura = bloqueo.writeLock();
+        this.contactos = new ArrayList<>();
+        this.palabrasDeContacto = new ArrayList<>();
+        this.idsPorDni = new HashMap<>();
+        this.vocabulario = new TreeMap<>();
+        this.palabras = new ArrayList<>();
+        this.palabrasPorTrigrama = new HashMap<>();
+    }
+
+    /**
+     * Indexa un contacto. Si ya había uno con el mismo DNI, se reemplaza.
+     *
+     * @param contacto El contacto a indexar.
+     */
+    public void agregar(Contacto contacto) {
+        this.escritura.lock();
+        try {
+            desindexar(contacto.obtenerDniNormalizado());
+            indexar(contacto);
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Indexa varios contactos. Los que tienen el DNI de uno ya indexado lo
+     * reemplazan.
+     *
+     * @param nuevos Los contactos a indexar.
+     */
+    public void agregarTodos(Collection<Contacto> nuevos) {
+        this.escritura.lock();
+        try {
+            for (Contacto contacto : nuevos) {
+                desindexar(contacto.obtenerDniNormalizado());
+                indexar(contacto);
+            }
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Quita del índice el contacto con el DNI del indicado.
+     *
+     * @param contacto El contacto a quitar.
+     * @return {@code true} si había un contacto con ese DNI.
+     */
+    public boolean quitar(Contacto contacto) {
+        this.escritura.lock();
+        try {
+            boolean quitado = desindexar(contacto.obtenerDniNormalizado());
+            if (this.eliminados >= ELIMINADOS_PARA_COMPACTAR
+                    && this.eliminados > this.idsPorDni.size()) {
+                compactar();
+            }
+            return quitado;
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Quita todos los contactos del índice.
+     */
+    public void limpiar() {
+        this.escritura.lock();
+        try {
+            vaciar();
+        } finally {
+            this.escritura.unlock();
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de contactos indexados.
+     *
+     * @return La cantidad de contactos.
+     */
+    public int cantidadContactos() {
+        this.lectura.lock();
+        try {
+            return this.idsPorDni.size();
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Busca los contactos cuyo nombre coincide con alguna palabra de la
+     * consulta, en forma exacta, por prefijo o aproximada.
+     *
+     * @param consulta Las palabras a buscar, separadas por espacios o signos.
+     * @param cantidadMaxima La cantidad máxima de resultados.
+     * @return Los contactos encontrados, del más relevante al menos
+     * relevante; vacío si la consulta no tiene palabras.
+     * @throws IllegalArgumentException Si la cantidad máxima es negativa.
+     */
+    public List<ResultadoDeBusqueda> buscar(String consulta, int cantidadMaxima) {
+        if (cantidadMaxima < 0) {
+            throw new IllegalArgumentException("La cantidad maxima no puede "
+                    + "ser negativa");
+        }
+        List<String> terminos = dividir(consulta);
+        if (terminos.isEmpty() || cantidadMaxima == 0) {
+            return List.of();
+        }
+        this.lectura.lock();
+        try {
+            Coincidencias[] coincidencias = new Coincidencias[terminos.size()];
+            for (int i = 0; i < coincidencias.length; i++) {
+                coincidencias[i] = coincidenciasDe(terminos.get(i));
+            }
+            Coincidencias[] porAporte = coincidencias.clone();
+            Arrays.sort(porAporte, Comparator.comparingDouble(Coincidencias::maximo));
+            List<ListaDeEnteros> listas = new ArrayList<>();
+            int[] primeraLista = new int[porAporte.length + 1];
+            double[] acumulados = new double[porAporte.length];
+            double suma = 0;
+            for (int i = 0; i < porAporte.length; i++) {
+                primeraLista[i] = listas.size();
+                for (int palabra : porAporte[i].palabras) {
+                    listas.add(this.palabras.get(palabra).contactos);
+                }
+                suma = suma + porAporte[i].maximo();
+                acumulados[i] = suma;
+            }
+            primeraLista[porAporte.length] = listas.size();
+            ConsultaPreparada preparada = new ConsultaPreparada(
+                    listas.toArray(new ListaDeEnteros[0]), primeraLista, acumulados,
+                    this.palabrasDeContacto, coincidencias, cantidadMaxima);
+            int partes = (int) Math.min(this.hilos.getParallelism(),
+                    preparada.aparicionesEntre(0, this.contactos.size())
+                            / APARICIONES_POR_HILO);
+            TareaDePuntaje tarea =
+                    new TareaDePuntaje(preparada, 0, this.contactos.size(), partes);
+            PriorityQueue<Candidato> mejores =
+                    partes > 1 ? this.hilos.invoke(tarea) : tarea.compute();
+            List<Candidato> ordenados = new ArrayList<>(mejores);
+            ordenados.sort(POR_RELEVANCIA);
+            List<ResultadoDeBusqueda> resultados = new ArrayList<>(ordenados.size());
+            for (Candidato candidato : ordenados) {
+                resultados.add(new ResultadoDeBusqueda(this.contactos.get(candidato.id),
+                        candidato.puntaje));
+            }
+            return resultados;
+        } finally {
+            this.lectura.unlock();
+        }
+    }
+
+    /**
+     * Calcula las palabras del vocabulario que coinciden con una palabra de
+     * la consulta y la relevancia de cada una.
+     *
+     * @param termino La palabra de la consulta, normalizada.
+     * @return Las coincidencias, ordenadas por identificador de palabra.
+     */
+    private Coincidencias coincidenciasDe(String termino) {
+        Map<Integer, Double> pesos = new HashMap<>();
+        Integer exacta = this.vocabulario.get(termino);
+        if (exacta != null) {
+            pesos.put(exacta, PESO_EXACTO);
+        }
+        if (termino.length() >= LARGO_MINIMO_PREFIJO) {
+            for (Integer palabra : this.vocabulario.subMap(termino, false,
+                    termino + Character.MAX_VALUE, false).values()) {
+                pesos.merge(palabra, PESO_PREFIJO, Math::max);
+            }
+        }
+        if (termino.length() >= LARGO_MINIMO_APROXIMADO && !tieneDigitos(termino)) {
+            int maxima = termino.length() >= LARGO_MINIMO_DOS_EDICIONES ? 2 : 1;
+            for (int palabra : candidatasAproximadas(termino, maxima)) {
+                int distancia = DistanciaDeEdicion.calcular(termino,
+                        this.palabras.get(palabra).texto, maxima);
+                if (distancia > 0 && distancia <= maxima) {
+                    pesos.merge(palabra, PESO_APROXIMADO / distancia, Math::max);
+                }
+            }
+        }
+        int total = this.idsPorDni.size();
+        int[] ids = new int[pesos.size()];
+        double[] relevancias = new double[pesos.size()];
+        int cantidad = 0;
+        for (Integer palabra : new TreeMap<>(pesos).keySet()) {
+            int frecuencia = this.palabras.get(palabra).vigentes;
+            if (frecuencia > 0) {
+                ids[cantidad] = palabra;
+                relevancias[cantidad] = pesos.get(palabra)
+                        * Math.log(1 + (double) total / frecuencia);
+                cantidad++;
+            }
+        }
+        return new Coincidencias(Arrays.copyOf(ids, cantidad),
+                Arrays.copyOf(relevancias, cantidad));
+    }
+
+    /**
+     * Busca las palabras del vocabulario que comparten suficientes trigramas
+     * con una palabra de la consulta para estar a pocas ediciones de ella.
+     *
+     * @param termino La palabra de la consulta, normalizada.
+     * @param maxima La mayor cantidad de ediciones admitida.
+     * @return Los identificadores de las palabras candidatas.
+     */
+    private int[] candidatasAproximadas(String termino, int maxima) {
+        List<String> trigramas = trigramas(termino);
+        Map<Integer, Integer> compartidos = new HashMap<>();
+        for (String trigrama : trigramas) {
+            ListaDeEnteros conTrigrama = this.palabrasPorTrigrama.get(trigrama);
+            if (conTrigrama != null) {
+                for (int i = 0; i < conTrigrama.cantidad; i++) {
+                    compartidos.merge(conTrigrama.valores[i], 1, Integer::sum);
+                }
+            }
+        }
+        int minimo = Math.max(1, trigramas.size() - TRIGRAMAS_POR_EDICION * maxima);
+        return compartidos.entrySet().stream()
+                .filter(compartido -> compartido.getValue() >= minimo)
+                .mapToInt(Map.Entry::getKey).toArray();
+    }
+
+    /**
+     * Agrega un contacto cuyo DNI no está indexado.
+     *
+     * @param contacto El contacto a agregar.
+     */
+    private void indexar(Contacto contacto) {
+        int id = this.contactos.size();
+        List<String> textos = dividir(contacto.obtenerNombre());
+        int[] ids = new int[textos.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Palabra palabra = palabra(textos.get(i));
+            palabra.contactos.agregar(id);
+            palabra.vigentes++;
+            ids[i] = palabra.id;
+        }
+        this.contactos.add(contacto);
+        this.palabrasDeContacto.add(ids);
+        this.idsPorDni.put(contacto.obtenerDniNormalizado(), id);
+    }
+
+    /**
+     * Quita un contacto del índice. Su identificador permanece en las listas
+     * de las palabras hasta la próxima compactación, pero se ignora.
+     *
+     * @param dni El DNI normalizado del contacto.
+     * @return {@code true} si había un contacto con ese DNI.
+     */
+    private boolean desindexar(String dni) {
+        Integer id = this.idsPorDni.remove(dni);
+        if (id == null) {
+            return false;
+        }
+        for (int palabra : this.palabrasDeContacto.get(id)) {
+            this.palabras.get(palabra).vigentes--;
+        }
+        this.contactos.set(id, null);
+        this.palabrasDeContacto.set(id, new int[0]);
+        this.eliminados++;
+        return true;
+    }
+
+    /**
+     * Reconstruye el índice solo con los contactos vigentes, descartando los
+     * identificadores y las palabras que ya no se usan.
+     */
+    private void compactar() {
+        List<Contacto> vigentes = new ArrayList<>(this.idsPorDni.size());
+        for (Contacto contacto : this.contactos) {
+            if (contacto != null) {
+                vigentes.add(contacto);
+            }
+        }
+        vaciar();
+        for (Contacto contacto : vigentes) {
+            indexar(contacto);
+        }
+    }
+
+    /**
+     * Vacía todas las estructuras del índice.
+     */
+    private void vaciar() {
+        this.contactos.clear();
+        this.palabrasDeContacto.clear();
+        this.idsPorDni.clear();
+        this.vocabulario.clear();
+        this.palabras.clear();
+        this.palabrasPorTrigrama.clear();
+        this.eliminados = 0;
+    }
+
+    /**
+     * Obtiene una palabra del vocabulario, agregándola si no existe.
+     *
+     * @param texto La palabra normalizada.
+     * @return La palabra.
+     */
+    private Palabra palabra(String texto) {
+        Integer id = this.vocabulario.get(texto);
+        if (id != null) {
+            return this.palabras.get(id);
+        }
+        Palabra nueva = new Palabra(this.palabras.size(), texto);
+        this.palabras.add(nueva);
+        this.vocabulario.put(texto, nueva.id);
+        for (String trigrama : trigramas(texto)) {
+            this.palabrasPorTrigrama
+                    .computeIfAbsent(trigrama, clave -> new ListaDeEnteros())
+                    .agregar(nueva.id);
+        }
+        return nueva;
+    }
+
+    /**
+     * Divide un texto en palabras normalizadas distintas, separadas por
+     * cualquier carácter que no sea una letra o un dígito.
+     *
+     * @param texto El texto a dividir.
+     * @return Las palabras, en el orden en que aparecen.
+     */
+    private static List<String> dividir(String texto) {
+        String normalizado = Normalizador.normalizarNombre(texto);
+        List<String> divididas = new ArrayList<>();
+        int inicio = 0;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            if (i == normalizado.length()
+                    || !Character.isLetterOrDigit(normalizado.charAt(i))) {
+                if (i > inicio && !divididas.contains(normalizado.substring(inicio, i))) {
+                    divididas.add(normalizado.substring(inicio, i));
+                }
+                inicio = i + 1;
+            }
+        }
+        return divididas;
+    }
+
+    /**
+     * Indica si una palabra contiene dígitos, en cuyo caso es un número y no
+     * se busca en forma aproximada.
+     *
+     * @param texto La palabra normalizada.
+     * @return {@code true} si contiene algún dígito.
+     */
+    private static boolean tieneDigitos(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (Character.isDigit(texto.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calcula los trigramas distintos de una palabra con sus bordes marcados.
+     *
+     * @param texto La palabra normalizada.
+     * @return Los trigramas de la palabra.
+     */
+    private static List<String> trigramas(String texto) {
+        String marcado = BORDE + texto + BORDE;
+        List<String> fragmentos = new ArrayList<>();
+        for (int i = 0; i + LARGO_TRIGRAMA <= marcado.length(); i++) {
+            String fragmento = marcado.substring(i, i + LARGO_TRIGRAMA);
+            if (!fragmentos.contains(fragmento)) {
+                fragmentos.add(fragmento);
+            }
+        }
+        return fragmentos;
+    }
+
+    /**
+     * Una palabra del vocabulario y los contactos que la contienen.
+     */
+    private static final class Palabra {
+        /**
+         * El identificador de la palabra.
+         */
+        private final int id;
+        /**
+         * La palabra normalizada.
+         */
+        private final String texto;
+        /**
+         * Los identificadores de los contactos que contienen la palabra,
+         * incluidos los eliminados hasta la próxima compactación.
+         */
+        private final ListaDeEnteros contactos;
+        /**
+         * La cantidad de contactos vigentes que contienen la palabra.
+         */
+        private int vigentes;
+
+        /**
+         * Constructor que crea una palabra sin contactos.
+         *
+         * @param identificador El identificador de la palabra.
+         * @param normalizada La palabra normalizada.
+         */
+        Palabra(int identificador, String normalizada) {
+            this.id = identificador;
+            this.texto = normalizada;
+            this.contactos = new ListaDeEnteros();
+        }
+    }
+
+    /**
+     * Lista de enteros que crece a medida que se agregan valores.
+     */
+    private static final class ListaDeEnteros {
+        /**
+         * La capacidad inicial de la lista.
+         */
+        private static final int CAPACIDAD_INICIAL = 4;
+        /**
+         * Los valores, seguidos de espacio libre.
+         */
+        private int[] valores;
+        /**
+         * La cantidad de valores.
+         */
+        private int cantidad;
+
+        /**
+         * Constructor que crea una lista vacía.
+         */
+        ListaDeEnteros() {
+            this.valores = new int[CAPACIDAD_INICIAL];
+        }
+
+        /**
+         * Agrega un valor al final, duplicando la capacidad si no hay lugar.
+         *
+         * @param valor El valor a agregar.
+         */
+        void agregar(int valor) {
+            if (this.cantidad == this.valores.length) {
+                this.valores = Arrays.copyOf(this.valores, this.cantidad * 2);
+            }
+            this.valores[this.cantidad] = valor;
+            this.cantidad++;
+        }
+
+        /**
+         * Busca la posición del primer valor mayor o igual al indicado. Los
+         * valores deben estar en orden creciente.
+         *
+         * @param valor El valor buscado.
+         * @return La posición, o la cantidad de valores si todos son menores.
+         */
+        int posicionDe(int valor) {
+            int desde = 0;
+            int hasta = this.cantidad;
+            while (desde < hasta) {
+                int medio = (desde + hasta) >>> 1;
+                if (this.valores[medio] < valor) {
+                    desde = medio + 1;
+                } else {
+                    hasta = medio;
+                }
+            }
+            return desde;
+        }
+    }
+
+    /**
+     * Las palabras del vocabulario que coinciden con una palabra de la
+     * consulta y su relevancia.
+     */
+    private static final class Coincidencias {
+        /**
+         * Los identificadores de las palabras, en orden creciente.
+         */
+        private final int[] palabras;
+        /**
+         * La relevancia de cada palabra.
+         */
+        private final double[] pesos;
+
+        /**
+         * Constructor que crea las coincidencias de una palabra.
+         *
+         * @param identificadores Los identificadores de las palabras, en
+         *                        orden creciente.
+         * @param relevancias La relevancia de cada palabra.
+         */
+        Coincidencias(int[] identificadores, double[] relevancias) {
+            this.palabras = identificadores;
+            this.pesos = relevancias;
+        }
+
+        /**
+         * Obtiene la mayor relevancia que puede aportar la palabra de la
+         * consulta.
+         *
+         * @return La mayor relevancia, o cero si no coincide con ninguna
+         * palabra.
+         */
+        double maximo() {
+            double mayor = 0;
+            for (double peso : this.pesos) {
+                mayor = Math.max(mayor, peso);
+            }
+            return mayor;
+        }
+
+        /**
+         * Calcula la mejor relevancia entre las palabras de un nombre.
+         *
+         * @param delNombre Los identificadores de las palabras del nombre.
+         * @return La mejor relevancia, o cero si ninguna coincide.
+         */
+        double mejorEntre(int[] delNombre) {
+            double mejor = 0;
+            for (int palabra : delNombre) {
+                int posicion = Arrays.binarySearch(this.palabras, palabra);
+                if (posicion >= 0) {
+                    mejor = Math.max(mejor, this.pesos[posicion]);
+                }
+            }
+            return mejor;
+        }
+    }
+
+    /**
+     * Un contacto candidato y su relevancia.
+     */
+    private static final class Candidato {
+        /**
+         * El identificador del contacto.
+         */
+        private final int id;
+        /**
+         * La relevancia del contacto.
+         */
+        private final double puntaje;
+
+        /**
+         * Constructor que crea un candidato.
+         *
+         * @param identificador El identificador del contacto.
+         * @param relevancia La relevancia del contacto.
+         */
+        Candidato(int identificador, double relevancia) {
+            this.id = identificador;
+            this.puntaje = relevancia;
+        }
+    }
+
+    /**
+     * Una consulta lista para recorrer: las listas de contactos de las
+     * palabras coincidentes, agrupadas por palabra de la consulta y con los
+     * grupos ordenados de menor a mayor aporte máximo.
+     * <p>
+     * Los candidatos se recorren en orden de identificador, tomando el menor
+     * de las listas. Una vez reunidos los candidatos pedidos, los grupos
+     * cuyos aportes máximos sumados no superan al menos relevante de ellos
+     * dejan de recorrerse, ya que un contacto que solo figura en esas listas
+     * no podría entrar; si ningún grupo puede aportar lo suficiente, el
+     * recorrido termina.
+     */
+    private static final class ConsultaPreparada {
+        /**
+         * Las listas de contactos de las palabras coincidentes, agrupadas
+         * por palabra de la consulta.
+         */
+        private final ListaDeEnteros[] listas;
+        /**
+         * La posición de la primera lista de cada grupo, seguida de la
+         * cantidad de listas.
+         */
+        private final int[] primeraLista;
+        /**
+         * La suma de los aportes máximos de cada grupo y los anteriores.
+         */
+        private final double[] acumulados;
+        /**
+         * Los identificadores de las palabras del nombre de cada contacto.
+         */
+        private final List<int[]> palabrasDeContacto;
+        /**
+         * Las coincidencias de cada palabra de la consulta.
+         */
+        private final Coincidencias[] coincidencias;
+        /**
+         * La cantidad de candidatos a conservar.
+         */
+        private final int cantidadMaxima;
+
+        /**
+         * Constructor que prepara una consulta.
+         *
+         * @param porPalabra Las listas de contactos de las palabras
+         *                   coincidentes, agrupadas por palabra de la consulta.
+         * @param inicios La posición de la primera lista de cada grupo,
+         *                seguida de la cantidad de listas.
+         * @param sumas La suma de los aportes máximos de cada grupo y los
+         *              anteriores.
+         * @param palabrasPorContacto Las palabras del nombre de cada contacto.
+         * @param porTermino Las coincidencias de cada palabra de la consulta.
+         * @param maximo La cantidad de candidatos a conservar.
+         */
+        ConsultaPreparada(ListaDeEnteros[] porPalabra, int[] inicios, double[] sumas,
+                          List<int[]> palabrasPorContacto, Coincidencias[] porTermino,
+                          int maximo) {
+            this.listas = porPalabra;
+            this.primeraLista = inicios;
+            this.acumulados = sumas;
+            this.palabrasDeContacto = palabrasPorContacto;
+            this.coincidencias = porTermino;
+            this.cantidadMaxima = maximo;
+        }
+
+        /**
+         * Cuenta las apariciones en las listas de los contactos de un rango.
+         *
+         * @param desde El primer identificador del rango.
+         * @param hasta El identificador siguiente al último del rango.
+         * @return La cantidad de apariciones.
+         */
+        long aparicionesEntre(int desde, int hasta) {
+            long apariciones = 0;
+            for (ListaDeEnteros lista : this.listas) {
+                apariciones = apariciones + lista.posicionDe(hasta)
+                        - lista.posicionDe(desde);
+            }
+            return apariciones;
+        }
+
+        /**
+         * Recorre los candidatos de un rango de identificadores y conserva
+         * los más relevantes.
+         *
+         * @param desde El primer identificador del rango.
+         * @param hasta El identificador siguiente al último del rango.
+         * @return Los candidatos más relevantes del rango, el menos relevante
+         * primero.
+         */
+        PriorityQueue<Candidato> recorrer(int desde, int hasta) {
+            PriorityQueue<Candidato> mejores =
+                    new PriorityQueue<>(POR_RELEVANCIA.reversed());
+            int[] posiciones = new int[this.listas.length];
+            for (int i = 0; i < posiciones.length; i++) {
+                posiciones[i] = this.listas[i].posicionDe(desde);
+            }
+            int grupoNecesario = 0;
+            int primeraNecesaria = 0;
+            while (primeraNecesaria < this.listas.length) {
+                int siguiente = hasta;
+                for (int i = primeraNecesaria; i < this.listas.length; i++) {
+                    if (posiciones[i] < this.listas[i].cantidad) {
+                        siguiente = Math.min(siguiente,
+                                this.listas[i].valores[posiciones[i]]);
+                    }
+                }
+                if (siguiente >= hasta) {
+                    break;
+                }
+                for (int i = primeraNecesaria; i < this.listas.length; i++) {
+                    if (posiciones[i] < this.listas[i].cantidad
+                            && this.listas[i].valores[posiciones[i]] == siguiente) {
+                        posiciones[i]++;
+                    }
+                }
+                if (conservar(mejores, siguiente, puntuar(siguiente))
+                        && mejores.size() == this.cantidadMaxima) {
+                    double umbral = mejores.peek().puntaje;
+                    while (grupoNecesario < this.acumulados.length
+                            && this.acumulados[grupoNecesario] <= umbral) {
+                        grupoNecesario++;
+                    }
+                    primeraNecesaria = this.primeraLista[grupoNecesario];
+                }
+            }
+            return mejores;
+        }
+
+        /**
+         * Calcula la relevancia de un contacto sumando la mejor coincidencia
+         * de cada palabra de la consulta entre las palabras de su nombre.
+         *
+         * @param id El identificador del contacto.
+         * @return La relevancia, o cero si no coincide o fue eliminado.
+         */
+        private double puntuar(int id) {
+            int[] delNombre = this.palabrasDeContacto.get(id);
+            double puntaje = 0;
+            for (Coincidencias termino : this.coincidencias) {
+                puntaje = puntaje + termino.mejorEntre(delNombre);
+            }
+            return puntaje;
+        }
+
+        /**
+         * Agrega un candidato a los más relevantes si corresponde, quitando
+         * el menos relevante si se supera la cantidad a conservar.
+         *
+         * @param mejores Los candidatos más relevantes, el menos relevante
+         *                primero.
+         * @param id El identificador del candidato.
+         * @param puntaje La relevancia del candidato.
+         * @return {@code true} si el candidato se agregó.
+         */
+        boolean conservar(PriorityQueue<Candidato> mejores, int id, double puntaje) {
+            if (puntaje <= 0) {
+                return false;
+            }
+            if (mejores.size() == this.cantidadMaxima) {
+                Candidato ultimo = mejores.peek();
+                if (puntaje < ultimo.puntaje
+                        || puntaje == ultimo.puntaje && id > ultimo.id) {
+                    return false;
+                }
+                mejores.poll();
+            }
+            mejores.add(new Candidato(id, puntaje));
+            return true;
+        }
+    }
+
+    /**
+     * Tarea que recorre los candidatos de un rango de identificadores,
+     * dividiéndolo en partes iguales que se recorren en paralelo. Cada parte
+     * reúne sus propios candidatos más relevantes, que luego se combinan.
+     */
+    private static final class TareaDePuntaje
+            extends RecursiveTask<PriorityQueue<Candidato>> {
+        /**
+         * Identificador de la serialización.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * La consulta a resolver.
+         */
+        private final transient ConsultaPreparada consulta;
+        /**
+         * El primer identificador del rango.
+         */
+        private final int desde;
+        /**
+         * El identificador siguiente al último del rango.
+         */
+        private final int hasta;
+        /**
+         * La cantidad de partes en que se divide el rango.
+         */
+        private final int partes;
+
+        /**
+         * Constructor que crea la tarea de un rango de identificadores.
+         *
+         * @param preparada La consulta a resolver.
+         * @param inicio El primer identificador del rango.
+         * @param fin El identificador siguiente al último del rango.
+         * @param division La cantidad de partes en que se divide el rango.
+         */
+        TareaDePuntaje(ConsultaPreparada preparada, int inicio, int fin, int division) {
+            this.consulta = preparada;
+            this.desde = inicio;
+            this.hasta = fin;
+            this.partes = division;
+        }
+
+        /**
+         * Recorre el rango, o lo divide en dos si corresponde más de una parte.
+         *
+         * @return Los candidatos más relevantes del rango, el menos relevante
+         * primero.
+         */
+        @Override
+        protected PriorityQueue<Candidato> compute() {
+            if (this.partes <= 1 || this.hasta - this.desde <= 1) {
+                return this.consulta.recorrer(this.desde, this.hasta);
+            }
+            int mitad = this.partes / 2;
+            int medio = (int) (this.desde + (long) (this.hasta - this.desde) * mitad
+                    / this.partes);
+            TareaDePuntaje izquierda =
+                    new TareaDePuntaje(this.consulta, this.desde, medio, mitad);
+            izquierda.fork();
+            PriorityQueue<Candidato> mejores = new TareaDePuntaje(this.consulta, medio,
+                    this.hasta, this.partes - mitad).compute();
+            for (Candidato candidato : izquierda.join()) {
+                this.consulta.conservar(mejores, candidato.id, candidato.puntaje);
+            }
+            return mejores;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ar.unrn.miagenda.busqueda;
+
+/**
+ * Cálculo de la distancia de edición entre dos palabras: la menor cantidad
+ * de inserciones, borrados, reemplazos o intercambios de dos letras vecinas
+ * necesarios para convertir una en la otra. Un intercambio cuenta como una
+ * sola edición, ya que es el error de tipeo más común.
+ */
+final class DistanciaDeEdicion {
+
+    /**
+     * Constructor privado, la clase solo expone métodos estáticos.
+     */
+    private DistanciaDeEdicion() {
+    }
+
+    /**
+     * Calcula la distancia de edición entre dos palabras, abandonando el
+     * cálculo en cuanto se sabe que supera el máximo indicado.
+     *
+     * @param origen La primera palabra.
+     * @param destino La segunda palabra.
+     * @param maxima La mayor distancia de interés.
+     * @return La distancia, o {@code maxima + 1} si es mayor que el máximo.
+     */
+    static int calcular(String origen, String destino, int maxima) {
+        int largoOrigen = origen.length();
+        int largoDestino = destino.length();
+        if (Math.abs(largoOrigen - largoDestino) > maxima) {
+            return maxima + 1;
+        }
+        int[] anterior2 = new int[largoDestino + 1];
+        int[] anterior = new int[largoDestino + 1];
+        int[] actual = new int[largoDestino + 1];
+        for (int j = 0; j <= largoDestino; j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= largoOrigen; i++) {
+            actual[0] = i;
+            int minimoDeFila = i;
+            char letra = origen.charAt(i - 1);
+            for (int j = 1; j <= largoDestino; j++) {
+                int costo = letra == destino.charAt(j - 1) ? 0 : 1;
+                int distancia = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1),
+                        anterior[j - 1] + costo);
+                if (i > 1 && j > 1 && letra == destino.charAt(j - 2)
+                        && origen.charAt(i - 2) == destino.charAt(j - 1)) {
+                    distancia = Math.min(distancia, anterior2[j - 2] + 1);
+                }
+                actual[j] = distancia;
+                minimoDeFila = Math.min(minimoDeFila, distancia);
+            }
+            if (minimoDeFila > maxima) {
+                return maxima + 1;
+            }
+            int[] libre = anterior2;
+            anterior2 = anterior;
+            anterior = actual;
+            actual = libre;
+        }
+        return Math.min(anterior[largoDestino], maxima + 1);
+    }
+}
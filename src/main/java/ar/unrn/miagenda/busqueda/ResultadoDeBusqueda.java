@@ -0,0 +1,59 @@
+package ar.unrn.miagenda.busqueda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+
+/**
+ * Un contacto encontrado por un {@link BuscadorDeContactos}, junto con la
+ * relevancia que se le asignó respecto de la consulta.
+ */
+public final class ResultadoDeBusqueda {
+
+    /**
+     * El contacto encontrado.
+     */
+    private final Contacto contacto;
+    /**
+     * La relevancia del contacto; mayor cuanto mejor coincide.
+     */
+    private final double puntaje;
+
+    /**
+     * Constructor que crea un resultado.
+     *
+     * @param encontrado El contacto encontrado.
+     * @param relevancia La relevancia del contacto.
+     */
+    ResultadoDeBusqueda(Contacto encontrado, double relevancia) {
+        this.contacto = encontrado;
+        this.puntaje = relevancia;
+    }
+
+    /**
+     * Obtiene el contacto encontrado.
+     *
+     * @return El contacto.
+     */
+    public Contacto obtenerContacto() {
+        return this.contacto;
+    }
+
+    /**
+     * Obtiene la relevancia del contacto respecto de la consulta. Solo tiene
+     * sentido para comparar resultados de una misma consulta.
+     *
+     * @return La relevancia, mayor que cero.
+     */
+    public double obtenerPuntaje() {
+        return this.puntaje;
+    }
+
+    /**
+     * Devuelve una representación del resultado.
+     *
+     * @return El contacto y su relevancia.
+     */
+    @Override
+    public String toString() {
+        return this.contacto + " (" + this.puntaje + ")";
+    }
+}
@@ -0,0 +1,305 @@
+package ar.unrn.miagenda.cambios;
+
+import ar.unrn.miagenda.agenda.AgendaDelegada;
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.agenda.InstantaneaAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Agenda que publica cada modificación de la agenda envuelta, para que
+ * cachés e índices externos se actualicen de a un cambio en lugar de volver
+ * a pedir los listados completos.
+ * <p>
+ * Las modificaciones se serializan y, una vez aplicadas, sus cambios se
+ * publican juntos: un suscriptor nunca ve la mitad de una operación. La baja
+ * de un contacto publica primero la quita de cada una de sus invitaciones, y
+ * la creación de un evento publica después el alta de cada invitado. Las
+ * operaciones que fallan no publican nada.
+ * <p>
+ * La publicación nunca espera a los suscriptores: los cambios se guardan en
+ * un buffer circular de tamaño fijo y un suscriptor que se atrasa más que su
+ * capacidad es avisado al recibir, para que vuelva a sincronizarse. Las
+ * operaciones con más cambios que la cuarta parte de la capacidad, como los
+ * lotes grandes, se publican como un único {@link TipoDeCambio#LOTE} que los
+ * agrupa, así que nunca desbordan el buffer por sí solas.
+ * <p>
+ * Los invitados de los eventos registrados solo pueden modificarse a través
+ * de esta agenda: los cambios hechos directamente sobre un evento no se
+ * publicarían, así que la agenda envuelta los rechaza con
+ * {@link IllegalStateException}.
+ */
+public class AgendaConCambios extends AgendaDelegada {
+
+    /**
+     * La cantidad de cambios que se conservan si no se indica otra.
+     */
+    public static final int CAPACIDAD_PREDETERMINADA = 1 << 16;
+
+    /**
+     * El buffer en el que se publican los cambios.
+     */
+    private final CanalDeCambios canal;
+
+    /**
+     * Constructor que envuelve la agenda indicada y conserva
+     * {@link #CAPACIDAD_PREDETERMINADA} cambios.
+     *
+     * @param agenda La agenda cuyas modificaciones se publican.
+     */
+    public AgendaConCambios(IAgenda agenda) {
+        this(agenda, CAPACIDAD_PREDETERMINADA);
+    }
+
+    /**
+     * Constructor que envuelve la agenda indicada.
+     *
+     * @param agenda La agenda cuyas modificaciones se publican.
+     * @param capacidad La cantidad de cambios que se conservan para los
+     *                  suscriptores atrasados.
+     * @throws IllegalArgumentException Si la capacidad no es una potencia de
+     *                                  dos positiva.
+     */
+    public AgendaConCambios(IAgenda agenda, int capacidad) {
+        super(agenda);
+        if (capacidad <= 0 || Integer.bitCount(capacidad) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser una "
+                    + "potencia de dos positiva");
+        }
+        agenda.rechazarCambiosDirectosDeInvitados();
+        this.canal = new CanalDeCambios(capacidad);
+    }
+
+    /**
+     * Agrega un contacto a la agenda y publica su alta.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     */
+    @Override
+    public synchronized void agregarContacto(Contacto contacto)
+            throws ContactoDuplicadoException {
+        super.agregarContacto(contacto);
+        this.canal.escribir(TipoDeCambio.CONTACTO_AGREGADO, contacto, null);
+        this.canal.publicar();
+    }
+
+    /**
+     * Agrega varios contactos a la agenda y publica sus altas juntas.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     */
+    @Override
+    public synchronized void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException {
+        super.agregarContactos(nuevos);
+        for (Contacto contacto : nuevos) {
+            this.canal.escribir(TipoDeCambio.CONTACTO_AGREGADO, contacto, null);
+        }
+        this.canal.publicar();
+    }
+
+    /**
+     * Elimina un contacto de la agenda y publica la quita de cada una de sus
+     * invitaciones seguida de su baja.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * el contacto en la agenda.
+     */
+    @Override
+    public synchronized void eliminarContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        Contacto eliminado = contacto;
+        List<Evento> eventos = List.of();
+        if (contacto != null) {
+            eliminado = consultarContactoPorDni(contacto.obtenerDni()).orElse(contacto);
+            eventos = consultarEventosDeContacto(eliminado);
+        }
+        super.eliminarContacto(contacto);
+        for (Evento evento : eventos) {
+            this.canal.escribir(TipoDeCambio.INVITADO_QUITADO, eliminado, evento);
+        }
+        this.canal.escribir(TipoDeCambio.CONTACTO_ELIMINADO, eliminado, null);
+        this.canal.publicar();
+    }
+
+    /**
+     * Limpia todos los contactos y eventos de la agenda y lo publica como un
+     * único cambio.
+     */
+    @Override
+    public synchronized void limpiarAgenda() {
+        super.limpiarAgenda();
+        this.canal.escribir(TipoDeCambio.AGENDA_VACIADA, null, null);
+        this.canal.publicar();
+    }
+
+    /**
+     * Crea un evento en la agenda y publica su creación seguida del alta de
+     * cada invitado.
+     *
+     * @param evento El evento a ser creado.
+     * @throws EventoDuplicadoException Si el evento ya existe.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public synchronized void crearEvento(Evento evento)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        super.crearEvento(evento);
+        escribirCreacion(evento);
+        this.canal.publicar();
+    }
+
+    /**
+     * Crea varios eventos en la agenda y publica sus creaciones juntas.
+     *
+     * @param nuevos Los eventos a ser creados, en orden.
+     * @throws EventoDuplicadoException Si algún evento ya existe o se repite
+     * dentro del lote.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public synchronized void crearEventos(Collection<Evento> nuevos)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        super.crearEventos(nuevos);
+        for (Evento evento : nuevos) {
+            escribirCreacion(evento);
+        }
+        this.canal.publicar();
+    }
+
+    /**
+     * Agrega un contacto a la lista de invitados del evento y publica el alta.
+     *
+     * @param evento El evento en el cual se quiere agregar un invitado.
+     * @param contacto El contacto a agregar.
+     * @throws ContactoYaInvitadoException si el contacto ya esta invitado.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra el
+     * contacto en la agenda.
+     */
+    @Override
+    public synchronized void agregarInvitadoEvento(Evento evento, Contacto contacto)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        super.agregarInvitadoEvento(evento, contacto);
+        this.canal.escribir(TipoDeCambio.INVITADO_AGREGADO, contacto, evento);
+        this.canal.publicar();
+    }
+
+    /**
+     * Agrega varios contactos a la lista de invitados del evento y publica
+     * sus altas juntas.
+     *
+     * @param evento El evento en el cual se quieren agregar los invitados.
+     * @param nuevosInvitados Los contactos a agregar, en orden.
+     * @throws ContactoYaInvitadoException si algún contacto ya esta invitado o
+     * se repite dentro del lote.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public synchronized void agregarInvitadosEvento(Evento evento,
+                                                    Collection<Contacto> nuevosInvitados)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        super.agregarInvitadosEvento(evento, nuevosInvitados);
+        for (Contacto contacto : nuevosInvitados) {
+            this.canal.escribir(TipoDeCambio.INVITADO_AGREGADO, contacto, evento);
+        }
+        this.canal.publicar();
+    }
+
+    /**
+     * Elimina un contacto de la lista de invitados del evento y publica la
+     * quita.
+     *
+     * @param evento El evento del cual se quiere quitar un invitado.
+     * @param contacto El contacto a eliminar.
+     * @throws ContactoNoEncontradoEnEventoException Si no se encuentra un contacto.
+     * @throws EventoNoEncontradoException Si el evento no se encuentra en la agenda.
+     */
+    @Override
+    public synchronized void quitarInvitadoEvento(Evento evento, Contacto contacto)
+            throws EventoNoEncontradoException, ContactoNoEncontradoEnEventoException {
+        super.quitarInvitadoEvento(evento, contacto);
+        this.canal.escribir(TipoDeCambio.INVITADO_QUITADO, contacto, evento);
+        this.canal.publicar();
+    }
+
+    /**
+     * Crea una suscripción que recibe los cambios publicados a partir de
+     * este momento. Para partir del contenido actual de la agenda, debe
+     * sincronizarse con {@link #sincronizar(Suscripcion)}.
+     *
+     * @return La suscripción creada.
+     */
+    public synchronized Suscripcion suscribir() {
+        Suscripcion suscripcion = new Suscripcion(this.canal, this.canal.publicados());
+        this.canal.registrar(suscripcion);
+        return suscripcion;
+    }
+
+    /**
+     * Toma una instantánea de la agenda y ubica la suscripción justo después
+     * del último cambio que la instantánea incluye, descartando los cambios
+     * pendientes. Es la forma de empezar a seguir la agenda y de recuperarse
+     * luego de perder cambios.
+     *
+     * @param suscripcion La suscripción a sincronizar.
+     * @return La instantánea a partir de la cual aplicar los cambios.
+     */
+    public synchronized InstantaneaAgenda sincronizar(Suscripcion suscripcion) {
+        InstantaneaAgenda instantanea = tomarInstantanea();
+        suscripcion.reposicionar(this.canal.publicados());
+        return instantanea;
+    }
+
+    /**
+     * Obtiene la cantidad de cambios publicados desde que se creó la agenda.
+     *
+     * @return La secuencia del próximo cambio a publicar.
+     */
+    public long cantidadPublicada() {
+        return this.canal.publicados();
+    }
+
+    /**
+     * Obtiene la cantidad de cambios que todavía no recibió el suscriptor más
+     * atrasado. Si supera la capacidad, ese suscriptor ya perdió cambios.
+     *
+     * @return El mayor atraso, o cero si no hay suscriptores.
+     */
+    public long obtenerMayorAtraso() {
+        return this.canal.mayorAtraso();
+    }
+
+    /**
+     * Escribe la creación de un evento seguida del alta de cada invitado.
+     *
+     * @param evento El evento creado.
+     */
+    private void escribirCreacion(Evento evento) {
+        this.canal.escribir(TipoDeCambio.EVENTO_CREADO, null, evento);
+        for (Contacto invitado : evento.obtenerInvitadosEvento()) {
+            this.canal.escribir(TipoDeCambio.INVITADO_AGREGADO, invitado, evento);
+        }
+    }
+}
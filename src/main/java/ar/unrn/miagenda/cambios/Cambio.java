@@ -0,0 +1,195 @@
+package ar.unrn.miagenda.cambios;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Una modificación de una agenda, tal como se publica a sus suscriptores.
+ * Cada cambio lleva un número de secuencia consecutivo, por lo que un
+ * suscriptor puede saber hasta dónde aplicó los cambios.
+ * <p>
+ * Los cambios son inmutables: del evento afectado solo se guardan el nombre
+ * y la fecha que lo identifican, y lo que cambió de él lo indican el tipo y
+ * el contacto del cambio.
+ */
+public final class Cambio {
+
+    /**
+     * La posición del cambio entre todos los publicados por la agenda.
+     */
+    private final long secuencia;
+    /**
+     * El tipo de modificación.
+     */
+    private final TipoDeCambio tipo;
+    /**
+     * El contacto afectado, o {@code null} si el cambio no afecta a uno.
+     */
+    private final Contacto contacto;
+    /**
+     * El nombre del evento afectado, o {@code null} si el cambio no afecta a
+     * uno.
+     */
+    private final String nombreEvento;
+    /**
+     * La fecha del evento afectado, o {@code null} si el cambio no afecta a
+     * uno.
+     */
+    private final LocalDate fechaEvento;
+    /**
+     * Los cambios agrupados, vacío si no es un {@link TipoDeCambio#LOTE}.
+     */
+    private final List<Cambio> agrupados;
+
+    /**
+     * Constructor que crea un cambio.
+     *
+     * @param posicion La posición del cambio entre los publicados.
+     * @param tipoCambio El tipo de modificación.
+     * @param afectado El contacto afectado, o {@code null}.
+     * @param eventoAfectado El evento afectado, o {@code null}.
+     */
+    Cambio(long posicion, TipoDeCambio tipoCambio, Contacto afectado,
+           Evento eventoAfectado) {
+        this.secuencia = posicion;
+        this.tipo = tipoCambio;
+        this.contacto = afectado;
+        this.nombreEvento = eventoAfectado == null ? null
+                : eventoAfectado.obtenerNombreEvento();
+        this.fechaEvento = eventoAfectado == null ? null
+                : eventoAfectado.obtenerFechaEvento();
+        this.agrupados = List.of();
+    }
+
+    /**
+     * Constructor que agrupa los cambios de una operación en un
+     * {@link TipoDeCambio#LOTE}. Los cambios agrupados pasan a tener la
+     * secuencia del lote.
+     *
+     * @param posicion La posición del lote entre los publicados.
+     * @param cambios Los cambios de la operación, en orden.
+     */
+    Cambio(long posicion, List<Cambio> cambios) {
+        this.secuencia = posicion;
+        this.tipo = TipoDeCambio.LOTE;
+        this.contacto = null;
+        this.nombreEvento = null;
+        this.fechaEvento = null;
+        Cambio[] renumerados = new Cambio[cambios.size()];
+        for (int i = 0; i < renumerados.length; i++) {
+            renumerados[i] = new Cambio(posicion, cambios.get(i));
+        }
+        this.agrupados = List.of(renumerados);
+    }
+
+    /**
+     * Constructor que copia un cambio con otra secuencia.
+     *
+     * @param posicion La nueva secuencia.
+     * @param original El cambio a copiar.
+     */
+    private Cambio(long posicion, Cambio original) {
+        this.secuencia = posicion;
+        this.tipo = original.tipo;
+        this.contacto = original.contacto;
+        this.nombreEvento = original.nombreEvento;
+        this.fechaEvento = original.fechaEvento;
+        this.agrupados = original.agrupados;
+    }
+
+    /**
+     * Obtiene la posición del cambio entre todos los publicados por la
+     * agenda, empezando por cero. Los cambios agrupados en un lote tienen la
+     * secuencia del lote.
+     *
+     * @return El número de secuencia.
+     */
+    public long obtenerSecuencia() {
+        return this.secuencia;
+    }
+
+    /**
+     * Obtiene el tipo de modificación.
+     *
+     * @return El tipo de cambio.
+     */
+    public TipoDeCambio obtenerTipo() {
+        return this.tipo;
+    }
+
+    /**
+     * Obtiene el contacto agregado, eliminado, invitado o quitado.
+     *
+     * @return El contacto, o {@code null} si el cambio no afecta a uno.
+     */
+    public Contacto obtenerContacto() {
+        return this.contacto;
+    }
+
+    /**
+     * Obtiene el nombre del evento creado o cuyos invitados cambiaron.
+     *
+     * @return El nombre, o {@code null} si el cambio no afecta a un evento.
+     */
+    public String obtenerNombreEvento() {
+        return this.nombreEvento;
+    }
+
+    /**
+     * Obtiene la fecha del evento creado o cuyos invitados cambiaron.
+     *
+     * @return La fecha, o {@code null} si el cambio no afecta a un evento.
+     */
+    public LocalDate obtenerFechaEvento() {
+        return this.fechaEvento;
+    }
+
+    /**
+     * Obtiene un evento nuevo, sin invitados, igual al evento afectado. Sirve
+     * para identificar el evento en la agenda; cada llamada crea uno distinto.
+     *
+     * @return El evento, o {@code null} si el cambio no afecta a uno.
+     */
+    public Evento obtenerEvento() {
+        if (this.nombreEvento == null && this.fechaEvento == null) {
+            return null;
+        }
+        return new Evento(this.nombreEvento, this.fechaEvento, List.of());
+    }
+
+    /**
+     * Obtiene los cambios agrupados en un {@link TipoDeCambio#LOTE}, en el
+     * orden en que ocurrieron.
+     *
+     * @return Los cambios agrupados, de solo lectura; vacío si el cambio no es
+     *         un lote.
+     */
+    public List<Cambio> obtenerCambios() {
+        return this.agrupados;
+    }
+
+    /**
+     * Devuelve una representación del cambio.
+     *
+     * @return La secuencia, el tipo y los elementos afectados, o la cantidad
+     *         de cambios agrupados si es un lote.
+     */
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder().append(this.secuencia).append(' ')
+                .append(this.tipo);
+        if (this.tipo == TipoDeCambio.LOTE) {
+            texto.append(' ').append(this.agrupados.size());
+        }
+        if (this.contacto != null) {
+            texto.append(' ').append(this.contacto.obtenerDni());
+        }
+        if (this.nombreEvento != null) {
+            texto.append(' ').append(this.nombreEvento);
+        }
+        return texto.toString();
+    }
+}
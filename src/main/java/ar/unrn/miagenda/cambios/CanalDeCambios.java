@@ -0,0 +1,180 @@
+package ar.unrn.miagenda.cambios;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular de tamaño fijo en el que una agenda publica sus cambios.
+ * Hay un único escritor, que nunca espera: escribe cada cambio sobre la
+ * posición más antigua del anillo y, al terminar una operación, hace
+ * visibles todos sus cambios juntos. Cada {@link Suscripcion} lee a su
+ * propio ritmo desde su posición; si se atrasa más que el tamaño del anillo,
+ * los cambios que le faltaban se pisan y lo detecta al leerlos.
+ * <p>
+ * Una operación que escribe más de la cuarta parte del anillo se publica
+ * como un único {@link TipoDeCambio#LOTE}: de a uno pisaría sus propios
+ * cambios antes de que un suscriptor al día pudiera leerlos.
+ */
+final class CanalDeCambios {
+
+    /**
+     * La fracción del anillo que puede ocupar una operación con cambios
+     * individuales.
+     */
+    private static final int FRACCION_POR_OPERACION = 4;
+
+    /**
+     * Los últimos cambios escritos; cada uno ocupa la posición que indica
+     * su secuencia módulo el tamaño del anillo.
+     */
+    private final AtomicReferenceArray<Cambio> anillo;
+    /**
+     * La máscara que convierte una secuencia en una posición del anillo.
+     */
+    private final int mascara;
+    /**
+     * La mayor cantidad de cambios que una operación publica de a uno.
+     */
+    private final int maximoPorOperacion;
+    /**
+     * Los cambios de la operación en curso, aún no escritos en el anillo.
+     * Solo los usa el escritor.
+     */
+    private final ArrayList<Cambio> operacion;
+    /**
+     * La secuencia del próximo cambio a escribir. Solo la usa el escritor.
+     */
+    private long escritos;
+    /**
+     * La secuencia del primer cambio aún no visible para los lectores. Es
+     * volátil para que su escritura publique los cambios anteriores.
+     */
+    private volatile long publicados;
+    /**
+     * Las suscripciones activas.
+     */
+    private final List<Suscripcion> suscripciones;
+
+    /**
+     * Constructor que crea un canal vacío.
+     *
+     * @param capacidad La cantidad de cambios que conserva el anillo; debe ser
+     *                  una potencia de dos.
+     */
+    CanalDeCambios(int capacidad) {
+        this.anillo = new AtomicReferenceArray<>(capacidad);
+        this.mascara = capacidad - 1;
+        this.maximoPorOperacion = Math.max(1, capacidad / FRACCION_POR_OPERACION);
+        this.operacion = new ArrayList<>();
+        this.suscripciones = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Obtiene la cantidad de cambios que conserva el anillo.
+     *
+     * @return La capacidad del anillo.
+     */
+    int capacidad() {
+        return this.anillo.length();
+    }
+
+    /**
+     * Agrega un cambio a la operación en curso sin hacerlo visible todavía.
+     * Solo debe llamarlo el escritor.
+     *
+     * @param tipo El tipo de modificación.
+     * @param contacto El contacto afectado, o {@code null}.
+     * @param evento El evento afectado, o {@code null}.
+     */
+    void escribir(TipoDeCambio tipo, Contacto contacto, Evento evento) {
+        long secuencia = this.escritos + this.operacion.size();
+        this.operacion.add(new Cambio(secuencia, tipo, contacto, evento));
+    }
+
+    /**
+     * Escribe en el anillo los cambios de la operación en curso, de a uno o
+     * agrupados en un lote si son demasiados, los hace visibles y despierta a
+     * los suscriptores que los esperan. Solo debe llamarlo el escritor.
+     */
+    void publicar() {
+        int cantidad = this.operacion.size();
+        if (cantidad == 0) {
+            return;
+        }
+        long secuencia = this.escritos;
+        if (cantidad > this.maximoPorOperacion) {
+            this.anillo.set((int) secuencia & this.mascara,
+                    new Cambio(secuencia, this.operacion));
+            this.escritos = secuencia + 1;
+            this.operacion.clear();
+            this.operacion.trimToSize();
+        } else {
+            for (Cambio cambio : this.operacion) {
+                this.anillo.set((int) cambio.obtenerSecuencia() & this.mascara, cambio);
+            }
+            this.escritos = secuencia + cantidad;
+            this.operacion.clear();
+        }
+        this.publicados = this.escritos;
+        for (Suscripcion suscripcion : this.suscripciones) {
+            suscripcion.despertar();
+        }
+    }
+
+    /**
+     * Obtiene la secuencia del primer cambio aún no publicado.
+     *
+     * @return La cantidad de cambios publicados.
+     */
+    long publicados() {
+        return this.publicados;
+    }
+
+    /**
+     * Lee el cambio que ocupa la posición de una secuencia. Puede ser un
+     * cambio más nuevo si el de esa secuencia ya fue pisado.
+     *
+     * @param secuencia La secuencia a leer.
+     * @return El cambio que ocupa su posición.
+     */
+    Cambio leer(long secuencia) {
+        return this.anillo.get((int) secuencia & this.mascara);
+    }
+
+    /**
+     * Registra una suscripción para despertarla cuando haya cambios.
+     *
+     * @param suscripcion La suscripción a registrar.
+     */
+    void registrar(Suscripcion suscripcion) {
+        this.suscripciones.add(suscripcion);
+    }
+
+    /**
+     * Quita una suscripción cancelada.
+     *
+     * @param suscripcion La suscripción a quitar.
+     */
+    void quitar(Suscripcion suscripcion) {
+        this.suscripciones.remove(suscripcion);
+    }
+
+    /**
+     * Obtiene la cantidad de cambios publicados que todavía no leyó la
+     * suscripción más atrasada.
+     *
+     * @return El mayor atraso, o cero si no hay suscripciones.
+     */
+    long mayorAtraso() {
+        long atraso = 0;
+        for (Suscripcion suscripcion : this.suscripciones) {
+            atraso = Math.max(atraso, suscripcion.pendientes());
+        }
+        return atraso;
+    }
+}
@@ -0,0 +1,202 @@
+package ar.unrn.miagenda.cambios;
+
+import ar.unrn.miagenda.excepciones.CambiosPerdidosException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Suscripción a los cambios de una {@link AgendaConCambios}. Cada
+ * suscripción recorre los cambios publicados a su propio ritmo y los recibe
+ * en lotes, sin demorar a la agenda ni a las demás suscripciones.
+ * <p>
+ * La agenda conserva una cantidad fija de cambios. Si una suscripción se
+ * atrasa más que eso, al recibir se lanza {@link CambiosPerdidosException} y
+ * el suscriptor debe volver a partir de una instantánea con
+ * {@link AgendaConCambios#sincronizar(Suscripcion)}. El atraso puede
+ * consultarse con {@link #pendientes()} para reaccionar antes de perder
+ * cambios.
+ */
+public final class Suscripcion {
+
+    /**
+     * El canal del que se leen los cambios.
+     */
+    private final CanalDeCambios canal;
+    /**
+     * La secuencia del próximo cambio a recibir.
+     */
+    private volatile long siguiente;
+    /**
+     * Indica si se perdieron cambios desde la última sincronización.
+     */
+    private volatile boolean desbordada;
+    /**
+     * Indica si la suscripción fue cancelada.
+     */
+    private volatile boolean cancelada;
+    /**
+     * El hilo que espera cambios, o {@code null} si no hay ninguno.
+     */
+    private volatile Thread esperando;
+
+    /**
+     * Constructor que crea una suscripción a partir de una secuencia.
+     *
+     * @param origen El canal del que se leen los cambios.
+     * @param desde La secuencia del primer cambio a recibir.
+     */
+    Suscripcion(CanalDeCambios origen, long desde) {
+        this.canal = origen;
+        this.siguiente = desde;
+    }
+
+    /**
+     * Recibe los cambios publicados que aún no se recibieron, sin esperar.
+     *
+     * @param maximo La cantidad máxima de cambios a recibir.
+     * @return Los cambios en orden de secuencia, vacío si no hay ninguno.
+     * @throws CambiosPerdidosException Si se descartaron cambios que la
+     *                                  suscripción todavía no había recibido.
+     * @throws IllegalArgumentException Si el máximo no es positivo.
+     * @throws IllegalStateException Si la suscripción fue cancelada.
+     */
+    public synchronized List<Cambio> recibir(int maximo)
+            throws CambiosPerdidosException {
+        if (maximo <= 0) {
+            throw new IllegalArgumentException("El máximo debe ser positivo");
+        }
+        if (this.cancelada) {
+            throw new IllegalStateException("La suscripción fue cancelada");
+        }
+        long desde = this.siguiente;
+        long disponibles = this.canal.publicados() - desde;
+        if (this.desbordada || disponibles > this.canal.capacidad()) {
+            throw desbordar(desde);
+        }
+        int cantidad = (int) Math.min(disponibles, maximo);
+        List<Cambio> lote = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Cambio cambio = this.canal.leer(desde + i);
+            if (cambio.obtenerSecuencia() != desde + i) {
+                throw desbordar(desde);
+            }
+            lote.add(cambio);
+        }
+        this.siguiente = desde + cantidad;
+        return lote;
+    }
+
+    /**
+     * Recibe los cambios publicados que aún no se recibieron, esperando a
+     * que se publique alguno si no hay ninguno pendiente.
+     *
+     * @param maximo La cantidad máxima de cambios a recibir.
+     * @param espera El tiempo máximo de espera.
+     * @param unidad La unidad del tiempo de espera.
+     * @return Los cambios en orden de secuencia, vacío si no se publicó
+     *         ninguno durante la espera o si se canceló la suscripción.
+     * @throws CambiosPerdidosException Si se descartaron cambios que la
+     *                                  suscripción todavía no había recibido.
+     * @throws InterruptedException Si el hilo es interrumpido mientras espera.
+     */
+    public List<Cambio> esperar(int maximo, long espera, TimeUnit unidad)
+            throws CambiosPerdidosException, InterruptedException {
+        long limite = System.nanoTime() + unidad.toNanos(espera);
+        List<Cambio> lote = recibir(maximo);
+        while (lote.isEmpty()) {
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                return lote;
+            }
+            this.esperando = Thread.currentThread();
+            if (pendientes() == 0 && !this.cancelada) {
+                LockSupport.parkNanos(this, restante);
+            }
+            this.esperando = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (this.cancelada) {
+                return lote;
+            }
+            lote = recibir(maximo);
+        }
+        return lote;
+    }
+
+    /**
+     * Obtiene la cantidad de cambios publicados que la suscripción todavía
+     * no recibió. Si supera la capacidad de la agenda, se perdieron cambios.
+     *
+     * @return La cantidad de cambios pendientes.
+     */
+    public long pendientes() {
+        return this.canal.publicados() - this.siguiente;
+    }
+
+    /**
+     * Obtiene la secuencia del próximo cambio a recibir. Todos los cambios
+     * anteriores ya fueron recibidos o quedaron incluidos en la última
+     * sincronización.
+     *
+     * @return La secuencia del próximo cambio.
+     */
+    public long obtenerPosicion() {
+        return this.siguiente;
+    }
+
+    /**
+     * Cancela la suscripción. La agenda deja de conservar su posición y un
+     * hilo que esté esperando cambios vuelve sin ellos.
+     */
+    public void cancelar() {
+        this.cancelada = true;
+        this.canal.quitar(this);
+        despertar();
+    }
+
+    /**
+     * Indica si la suscripción fue cancelada.
+     *
+     * @return {@code true} si la suscripción fue cancelada.
+     */
+    public boolean estaCancelada() {
+        return this.cancelada;
+    }
+
+    /**
+     * Ubica la suscripción en una secuencia, descartando los cambios
+     * pendientes y el aviso de cambios perdidos.
+     *
+     * @param posicion La secuencia del próximo cambio a recibir.
+     */
+    synchronized void reposicionar(long posicion) {
+        this.siguiente = posicion;
+        this.desbordada = false;
+    }
+
+    /**
+     * Despierta al hilo que espera cambios, si hay alguno.
+     */
+    void despertar() {
+        Thread hilo = this.esperando;
+        if (hilo != null) {
+            LockSupport.unpark(hilo);
+        }
+    }
+
+    /**
+     * Marca que se perdieron cambios y crea la excepción que lo informa.
+     *
+     * @param desde La secuencia del primer cambio que no pudo recibirse.
+     * @return La excepción a lanzar.
+     */
+    private CambiosPerdidosException desbordar(long desde) {
+        this.desbordada = true;
+        return new CambiosPerdidosException("Se perdieron cambios a partir de la "
+                + "secuencia " + desde + "; la suscripción debe sincronizarse");
+    }
+}
@@ -0,0 +1,36 @@
+package ar.unrn.miagenda.cambios;
+
+/**
+ * Tipos de modificación que se publican a los suscriptores de una agenda.
+ */
+public enum TipoDeCambio {
+    /**
+     * Alta de un contacto.
+     */
+    CONTACTO_AGREGADO,
+    /**
+     * Baja de un contacto. Lo preceden las bajas de sus invitaciones.
+     */
+    CONTACTO_ELIMINADO,
+    /**
+     * Creación de un evento. Lo siguen las altas de sus invitados.
+     */
+    EVENTO_CREADO,
+    /**
+     * Invitación de un contacto a un evento.
+     */
+    INVITADO_AGREGADO,
+    /**
+     * Quita de un invitado de un evento.
+     */
+    INVITADO_QUITADO,
+    /**
+     * Limpieza de todos los contactos y eventos.
+     */
+    AGENDA_VACIADA,
+    /**
+     * Los cambios de una operación demasiado grande para publicarlos de a uno
+     * sin desbordar el buffer; se obtienen con {@link Cambio#obtenerCambios()}.
+     */
+    LOTE
+}
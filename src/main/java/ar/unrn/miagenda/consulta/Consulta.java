@@ -0,0 +1,488 @@
+package ar.unrn.miagenda.consulta;
+
+import ar.unrn.miagenda.agenda.IndicesDeAgenda;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Consulta sobre los elementos de una agenda, armada a partir de condiciones,
+ * un orden y un límite. Las consultas son inmutables: cada método que agrega
+ * una condición devuelve una consulta nueva, por lo que pueden reutilizarse
+ * y compartirse entre hilos.
+ * <p>
+ * Cada ejecución lee los índices de la agenda con
+ * {@link ar.unrn.miagenda.agenda.IAgenda#leerIndices(Function)}, que en una
+ * agenda concurrente ocurre bajo su bloqueo de lectura, y un {@link Plan}
+ * elige cómo obtener los elementos: recorrer el índice que resuelve la
+ * condición más selectiva o recorrer la agenda completa en un orden que
+ * evite ordenar el resultado. Para elegir, cada índice solo cuenta los
+ * elementos que entregaría; los elementos se obtienen únicamente del acceso
+ * elegido. El resto de las condiciones se evalúan a medida que se recorre,
+ * sin armar listas intermedias.
+ *
+ * @param <T> El tipo de los elementos consultados.
+ * @param <C> El tipo concreto de la consulta.
+ */
+public abstract class Consulta<T, C extends Consulta<T, C>> {
+
+    /**
+     * El valor del límite cuando no se pidió ninguno.
+     */
+    public static final int SIN_LIMITE = -1;
+
+    /**
+     * De dónde se leen los índices en cada ejecución.
+     */
+    private final FuenteDeIndices fuente;
+    /**
+     * Las condiciones que deben cumplir los elementos.
+     */
+    private final List<Filtro<T>> filtros;
+    /**
+     * El orden pedido, o {@code null} si no importa.
+     */
+    private final Orden<T> orden;
+    /**
+     * La cantidad máxima de elementos, o {@link #SIN_LIMITE}.
+     */
+    private final int limite;
+
+    /**
+     * Constructor que crea una consulta.
+     *
+     * @param origen De dónde se leen los índices.
+     * @param condiciones Las condiciones, de solo lectura.
+     * @param ordenPedido El orden pedido, o {@code null}.
+     * @param maximo La cantidad máxima de elementos, o {@link #SIN_LIMITE}.
+     */
+    Consulta(FuenteDeIndices origen,
+             List<Filtro<T>> condiciones,
+             Orden<T> ordenPedido,
+             int maximo) {
+        this.fuente = origen;
+        this.filtros = condiciones;
+        this.orden = ordenPedido;
+        this.limite = maximo;
+    }
+
+    /**
+     * Crea una consulta del mismo tipo y sobre la misma fuente.
+     *
+     * @param origen De dónde se leen los índices.
+     * @param condiciones Las condiciones, de solo lectura.
+     * @param ordenPedido El orden pedido, o {@code null}.
+     * @param maximo La cantidad máxima de elementos, o {@link #SIN_LIMITE}.
+     * @return La consulta creada.
+     */
+    abstract C copiar(FuenteDeIndices origen,
+                      List<Filtro<T>> condiciones,
+                      Orden<T> ordenPedido,
+                      int maximo);
+
+    /**
+     * Obtiene las formas de recorrer todos los elementos de la agenda.
+     *
+     * @param indices Los índices de la agenda.
+     * @return Los recorridos completos disponibles.
+     */
+    abstract List<Acceso<T>> recorridosCompletos(IndicesDeAgenda indices);
+
+    /**
+     * Crea una consulta que además exige la condición indicada.
+     *
+     * @param filtro La condición a agregar.
+     * @return La consulta nueva.
+     */
+    final C filtrar(Filtro<T> filtro) {
+        List<Filtro<T>> condiciones = new ArrayList<>(this.filtros);
+        condiciones.add(filtro);
+        return copiar(this.fuente, Collections.unmodifiableList(condiciones),
+                this.orden, this.limite);
+    }
+
+    /**
+     * Crea una consulta que devuelve los elementos en el orden indicado.
+     *
+     * @param ordenPedido El orden a aplicar.
+     * @return La consulta nueva.
+     */
+    final C ordenar(Orden<T> ordenPedido) {
+        return copiar(this.fuente, this.filtros, ordenPedido, this.limite);
+    }
+
+    /**
+     * Crea una consulta que además exige una condición propia. Estas
+     * condiciones no pueden resolverse con un índice, por lo que siempre se
+     * evalúan sobre los elementos recorridos.
+     *
+     * @param condicion La condición a cumplir.
+     * @return La consulta nueva.
+     */
+    public C donde(Predicate<? super T> condicion) {
+        return filtrar(new Filtro<>("condición propia",
+                indices -> condicion::test, null));
+    }
+
+    /**
+     * Crea una consulta que devuelve como máximo la cantidad indicada de
+     * elementos. Con un límite, la ejecución se detiene en cuanto lo alcanza.
+     *
+     * @param maximo La cantidad máxima de elementos.
+     * @return La consulta nueva.
+     * @throws IllegalArgumentException Si el máximo es negativo.
+     */
+    public C limitar(int maximo) {
+        if (maximo < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+        return copiar(this.fuente, this.filtros, this.orden, maximo);
+    }
+
+    /**
+     * Ejecuta la consulta y devuelve sus elementos a medida que se recorren.
+     * Los elementos del acceso elegido se obtienen al ejecutar, de un mismo
+     * estado de la agenda; las condiciones, el orden y el límite se aplican
+     * recién al consumir el flujo.
+     *
+     * @return Un flujo con los elementos que cumplen la consulta.
+     */
+    public Stream<T> stream() {
+        return this.fuente.leer(indices -> planificar(indices).ejecutar(indices));
+    }
+
+    /**
+     * Ejecuta la consulta y reúne sus elementos en una lista.
+     *
+     * @return Una lista de solo lectura con los elementos encontrados.
+     */
+    public List<T> listar() {
+        return Collections.unmodifiableList(stream().collect(Collectors.toList()));
+    }
+
+    /**
+     * Ejecuta la consulta y cuenta sus elementos, sin reunirlos.
+     *
+     * @return La cantidad de elementos encontrados.
+     */
+    public long contar() {
+        return stream().count();
+    }
+
+    /**
+     * Ejecuta la consulta y devuelve su primer elemento.
+     *
+     * @return El primer elemento, o vacío si no hay ninguno.
+     */
+    public Optional<T> primero() {
+        return stream().findFirst();
+    }
+
+    /**
+     * Describe el plan que se usaría para ejecutar la consulta sobre el
+     * contenido actual de la agenda, sin ejecutarla.
+     *
+     * @return La descripción del plan elegido.
+     */
+    public String explicar() {
+        return this.fuente.leer(indices -> planificar(indices).toString());
+    }
+
+    /**
+     * Crea una fuente que siempre lee los mismos índices.
+     *
+     * @param indices Los índices a leer.
+     * @return La fuente creada.
+     */
+    static FuenteDeIndices fija(IndicesDeAgenda indices) {
+        return new IndicesFijos(indices);
+    }
+
+    /**
+     * Elige el plan para ejecutar la consulta sobre los índices de la agenda.
+     *
+     * @param indices Los índices de la agenda.
+     * @return El plan de menor costo estimado.
+     */
+    private Plan<T> planificar(IndicesDeAgenda indices) {
+        return Plan.elegir(indices, this.filtros, recorridosCompletos(indices),
+                this.orden, this.limite);
+    }
+
+    /**
+     * De dónde lee los índices una consulta en cada ejecución.
+     */
+    @FunctionalInterface
+    interface FuenteDeIndices {
+        /**
+         * Ejecuta una lectura sobre los índices.
+         *
+         * @param lectura La lectura a ejecutar.
+         * @param <R> El tipo del resultado de la lectura.
+         * @return El resultado de la lectura.
+         */
+        <R> R leer(Function<? super IndicesDeAgenda, ? extends R> lectura);
+    }
+
+    /**
+     * Fuente que siempre lee los mismos índices, como los de una instantánea.
+     */
+    private static final class IndicesFijos implements FuenteDeIndices {
+
+        /**
+         * Los índices que se leen.
+         */
+        private final IndicesDeAgenda indices;
+
+        /**
+         * Constructor que crea la fuente.
+         *
+         * @param leidos Los índices que se leen.
+         */
+        private IndicesFijos(IndicesDeAgenda leidos) {
+            this.indices = leidos;
+        }
+
+        /**
+         * Ejecuta una lectura sobre los índices.
+         *
+         * @param lectura La lectura a ejecutar.
+         * @param <R> El tipo del resultado de la lectura.
+         * @return El resultado de la lectura.
+         */
+        @Override
+        public <R> R leer(Function<? super IndicesDeAgenda, ? extends R> lectura) {
+            return lectura.apply(this.indices);
+        }
+    }
+
+    /**
+     * Una condición de la consulta. Además de poder evaluarse sobre cada
+     * elemento, puede saber obtener directamente de un índice los elementos
+     * que la cumplen, y cuántos son, sin recorrerlos.
+     *
+     * @param <T> El tipo de los elementos consultados.
+     */
+    static final class Filtro<T> {
+
+        /**
+         * La descripción de la condición, usada al explicar el plan.
+         */
+        private final String descripcion;
+        /**
+         * Prepara, a partir de los índices, la prueba de cada elemento.
+         * Permite calcular una única vez por ejecución lo que la prueba
+         * necesita.
+         */
+        private final Function<IndicesDeAgenda, Predicate<? super T>> condicion;
+        /**
+         * Crea el acceso a los elementos que cumplen la condición, o
+         * {@code null} si ningún índice la resuelve.
+         */
+        private final Function<IndicesDeAgenda, Acceso<T>> indice;
+
+        /**
+         * Constructor que crea una condición.
+         *
+         * @param texto La descripción de la condición.
+         * @param prueba Prepara la prueba de cada elemento.
+         * @param acceso Crea el acceso a un índice, o {@code null}.
+         */
+        Filtro(String texto,
+               Function<IndicesDeAgenda, Predicate<? super T>> prueba,
+               Function<IndicesDeAgenda, Acceso<T>> acceso) {
+            this.descripcion = texto;
+            this.condicion = prueba;
+            this.indice = acceso;
+        }
+
+        /**
+         * Obtiene la descripción de la condición.
+         *
+         * @return La descripción.
+         */
+        String obtenerDescripcion() {
+            return this.descripcion;
+        }
+
+        /**
+         * Prepara la prueba de la condición.
+         *
+         * @param indices Los índices de la agenda consultada.
+         * @return La prueba a aplicar a cada elemento.
+         */
+        Predicate<? super T> preparar(IndicesDeAgenda indices) {
+            return this.condicion.apply(indices);
+        }
+
+        /**
+         * Indica si algún índice resuelve la condición.
+         *
+         * @return {@code true} si la condición puede resolverse con un índice.
+         */
+        boolean tieneIndice() {
+            return this.indice != null;
+        }
+
+        /**
+         * Crea el acceso del índice a los elementos que cumplen la condición.
+         * El acceso solo cuenta los elementos; los obtiene si se lo elige.
+         *
+         * @param indices Los índices de la agenda consultada.
+         * @return El acceso a los elementos que cumplen la condición.
+         */
+        Acceso<T> accederIndice(IndicesDeAgenda indices) {
+            return this.indice.apply(indices);
+        }
+    }
+
+    /**
+     * Un orden en el que pueden devolverse los elementos. Dos órdenes son el
+     * mismo solo si son la misma instancia.
+     *
+     * @param <T> El tipo de los elementos ordenados.
+     */
+    static final class Orden<T> {
+
+        /**
+         * La descripción del orden, usada al explicar el plan.
+         */
+        private final String descripcion;
+        /**
+         * El criterio de comparación de los elementos.
+         */
+        private final Comparator<? super T> comparador;
+
+        /**
+         * Constructor que crea un orden.
+         *
+         * @param texto La descripción del orden.
+         * @param criterio El criterio de comparación.
+         */
+        Orden(String texto, Comparator<? super T> criterio) {
+            this.descripcion = texto;
+            this.comparador = criterio;
+        }
+
+        /**
+         * Obtiene el criterio de comparación de los elementos.
+         *
+         * @return El criterio de comparación.
+         */
+        Comparator<? super T> obtenerComparador() {
+            return this.comparador;
+        }
+
+        /**
+         * Devuelve la descripción del orden.
+         *
+         * @return La descripción.
+         */
+        @Override
+        public String toString() {
+            return this.descripcion;
+        }
+    }
+
+    /**
+     * Una forma de obtener elementos de la agenda: un índice que
+     * resuelve una condición o un recorrido completo, junto con la cantidad
+     * de elementos que entrega y el orden en que lo hace.
+     *
+     * @param <T> El tipo de los elementos.
+     */
+    static final class Acceso<T> {
+
+        /**
+         * La descripción del acceso, usada al explicar el plan.
+         */
+        private final String descripcion;
+        /**
+         * La cantidad de elementos que entrega el acceso.
+         */
+        private final int cantidad;
+        /**
+         * Obtiene los elementos; solo se invoca si se elige el acceso, y
+         * durante la misma lectura de los índices en que se creó.
+         */
+        private final Supplier<List<T>> filas;
+        /**
+         * El orden en que se entregan los elementos, o {@code null} si no
+         * coincide con ninguno de los que se pueden pedir.
+         */
+        private final Orden<T> orden;
+
+        /**
+         * Constructor que crea un acceso cuyos elementos se obtienen recién
+         * al ejecutarlo.
+         *
+         * @param texto La descripción del acceso.
+         * @param elementos La cantidad de elementos que entrega.
+         * @param proveedor Obtiene los elementos.
+         * @param ordenFilas El orden de los elementos, o {@code null}.
+         */
+        Acceso(String texto, int elementos, Supplier<List<T>> proveedor,
+               Orden<T> ordenFilas) {
+            this.descripcion = texto;
+            this.cantidad = elementos;
+            this.filas = proveedor;
+            this.orden = ordenFilas;
+        }
+
+        /**
+         * Constructor que crea un acceso a elementos ya obtenidos.
+         *
+         * @param texto La descripción del acceso.
+         * @param elementos Los elementos que entrega.
+         * @param ordenFilas El orden de los elementos, o {@code null}.
+         */
+        Acceso(String texto, List<T> elementos, Orden<T> ordenFilas) {
+            this(texto, elementos.size(), () -> elementos, ordenFilas);
+        }
+
+        /**
+         * Obtiene la cantidad de elementos que entrega el acceso.
+         *
+         * @return La cantidad de elementos.
+         */
+        int cantidad() {
+            return this.cantidad;
+        }
+
+        /**
+         * Obtiene los elementos del acceso.
+         *
+         * @return Los elementos, de solo lectura.
+         */
+        List<T> obtenerFilas() {
+            return this.filas.get();
+        }
+
+        /**
+         * Obtiene el orden en que se entregan los elementos.
+         *
+         * @return El orden, o {@code null}.
+         */
+        Orden<T> obtenerOrden() {
+            return this.orden;
+        }
+
+        /**
+         * Devuelve la descripción del acceso.
+         *
+         * @return La descripción.
+         */
+        @Override
+        public String toString() {
+            return this.descripcion;
+        }
+    }
+}
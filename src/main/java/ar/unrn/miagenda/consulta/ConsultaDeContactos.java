@@ -0,0 +1,246 @@
+package ar.unrn.miagenda.consulta;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.agenda.IndicesDeAgenda;
+import ar.unrn.miagenda.agenda.InstantaneaAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+import ar.unrn.miagenda.evento.Evento;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Consulta sobre los contactos de una agenda. Por ejemplo, los diez primeros
+ * contactos, por nombre, nacidos en los noventa e invitados a un evento:
+ * <pre>{@code
+ * ConsultaDeContactos.sobre(agenda)
+ *         .nacidosEntre(LocalDate.of(1990, 1, 1), LocalDate.of(1999, 12, 31))
+ *         .invitadosA(evento)
+ *         .ordenadosPorNombre()
+ *         .limitar(10)
+ *         .listar();
+ * }</pre>
+ * Las condiciones por DNI, nombre, fecha de nacimiento e invitación se
+ * resuelven con los índices de la agenda; sin orden pedido, el orden del
+ * resultado depende del índice que elija el planificador.
+ */
+public final class ConsultaDeContactos
+        extends Consulta<Contacto, ConsultaDeContactos> {
+
+    /**
+     * El orden alfabético por nombre, con los contactos sin nombre primero.
+     */
+    private static final Orden<Contacto> POR_NOMBRE = new Orden<>("nombre",
+            Comparator.comparing(Contacto::obtenerNombre,
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+    /**
+     * El orden por fecha de nacimiento, con los contactos sin fecha primero.
+     */
+    private static final Orden<Contacto> POR_NACIMIENTO = new Orden<>("nacimiento",
+            Comparator.comparing(Contacto::obtenerFechaNacimiento,
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+
+    /**
+     * Constructor que crea una consulta de contactos.
+     *
+     * @param origen De dónde se leen los índices.
+     * @param condiciones Las condiciones, de solo lectura.
+     * @param ordenPedido El orden pedido, o {@code null}.
+     * @param maximo La cantidad máxima de contactos.
+     */
+    private ConsultaDeContactos(FuenteDeIndices origen,
+                                List<Filtro<Contacto>> condiciones,
+                                Orden<Contacto> ordenPedido,
+                                int maximo) {
+        super(origen, condiciones, ordenPedido, maximo);
+    }
+
+    /**
+     * Crea una consulta sobre todos los contactos de una agenda. Cada
+     * ejecución lee los índices de la agenda en ese momento.
+     *
+     * @param agenda La agenda a consultar.
+     * @return Una consulta sin condiciones.
+     */
+    public static ConsultaDeContactos sobre(IAgenda agenda) {
+        return new ConsultaDeContactos(agenda::leerIndices, List.of(), null,
+                SIN_LIMITE);
+    }
+
+    /**
+     * Crea una consulta sobre todos los contactos de una instantánea.
+     *
+     * @param instantanea La instantánea a consultar.
+     * @return Una consulta sin condiciones.
+     */
+    public static ConsultaDeContactos sobre(InstantaneaAgenda instantanea) {
+        return new ConsultaDeContactos(fija(IndicesDeAgenda.de(instantanea)), List.of(),
+                null, SIN_LIMITE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    ConsultaDeContactos copiar(FuenteDeIndices origen,
+                               List<Filtro<Contacto>> condiciones,
+                               Orden<Contacto> ordenPedido,
+                               int maximo) {
+        return new ConsultaDeContactos(origen, condiciones, ordenPedido, maximo);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    List<Acceso<Contacto>> recorridosCompletos(IndicesDeAgenda indices) {
+        int cantidad = indices.cantidadContactos();
+        return List.of(
+                new Acceso<>("contactos por nombre", cantidad,
+                        indices::contactosPorNombre, POR_NOMBRE),
+                new Acceso<>("contactos por nacimiento", cantidad,
+                        indices::contactosPorNacimiento, POR_NACIMIENTO));
+    }
+
+    /**
+     * Crea una consulta que además exige el DNI indicado. Los separadores de
+     * miles y los espacios no se tienen en cuenta.
+     *
+     * @param dni El DNI buscado.
+     * @return La consulta nueva.
+     */
+    public ConsultaDeContactos conDni(String dni) {
+        String buscado = Normalizador.normalizarDni(dni);
+        return filtrar(new Filtro<>("dni = " + buscado,
+                indices -> contacto -> Objects.equals(
+                        contacto.obtenerDniNormalizado(), buscado),
+                indices -> new Acceso<>("índice por dni",
+                        indices.contactoPorDni(buscado).map(List::of)
+                                .orElse(List.of()), null)));
+    }
+
+    /**
+     * Crea una consulta que además exige el nombre indicado, sin distinguir
+     * mayúsculas, acentos ni espacios repetidos.
+     *
+     * @param nombre El nombre buscado.
+     * @return La consulta nueva.
+     */
+    public ConsultaDeContactos conNombre(String nombre) {
+        String buscado = Normalizador.normalizarNombre(nombre);
+        return filtrar(new Filtro<>("nombre = " + buscado,
+                indices -> contacto -> nombreNormalizado(contacto).equals(buscado),
+                indices -> new Acceso<>("índice por nombre normalizado",
+                        indices.contarContactosConNombre(buscado, buscado, true),
+                        () -> indices.contactosConNombre(buscado, buscado, true),
+                        null)));
+    }
+
+    /**
+     * Crea una consulta que además exige que el nombre empiece con el prefijo
+     * indicado, sin distinguir mayúsculas, acentos ni espacios repetidos.
+     *
+     * @param prefijo El comienzo del nombre buscado.
+     * @return La consulta nueva.
+     */
+    public ConsultaDeContactos conNombreQueEmpiezaCon(String prefijo) {
+        String buscado = Normalizador.normalizarPrefijo(prefijo);
+        String siguiente = buscado + Character.MAX_VALUE;
+        return filtrar(new Filtro<>("nombre empieza con " + buscado,
+                indices -> contacto -> nombreNormalizado(contacto)
+                        .startsWith(buscado),
+                indices -> new Acceso<>("índice por nombre normalizado",
+                        indices.contarContactosConNombre(buscado, siguiente, false),
+                        () -> indices.contactosConNombre(buscado, siguiente, false),
+                        null)));
+    }
+
+    /**
+     * Crea una consulta que además exige haber nacido entre dos fechas, ambas
+     * inclusive. Los contactos sin fecha de nacimiento no la cumplen.
+     *
+     * @param desde La fecha de nacimiento inicial.
+     * @param hasta La fecha de nacimiento final.
+     * @return La consulta nueva.
+     * @throws IllegalArgumentException Si la fecha inicial es posterior a la
+     *                                  final.
+     */
+    public ConsultaDeContactos nacidosEntre(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser "
+                    + "posterior a la final");
+        }
+        return filtrar(new Filtro<>("nacimiento entre " + desde + " y " + hasta,
+                indices -> contacto -> nacidoEntre(contacto, desde, hasta),
+                indices -> new Acceso<>("índice por nacimiento",
+                        indices.contarContactosNacidosEntre(desde, hasta),
+                        () -> indices.contactosNacidosEntre(desde, hasta),
+                        POR_NACIMIENTO)));
+    }
+
+    /**
+     * Crea una consulta que además exige estar invitado al evento indicado.
+     *
+     * @param evento El evento a consultar.
+     * @return La consulta nueva.
+     */
+    public ConsultaDeContactos invitadosA(Evento evento) {
+        return filtrar(new Filtro<>("invitado a " + evento.obtenerNombreEvento(),
+                indices -> {
+                    Set<Contacto> invitados = new HashSet<>(indices.invitadosDe(evento));
+                    return invitados::contains;
+                },
+                indices -> new Acceso<>("invitados del evento",
+                        indices.cantidadInvitados(evento),
+                        () -> indices.invitadosDe(evento), null)));
+    }
+
+    /**
+     * Crea una consulta que devuelve los contactos ordenados alfabéticamente
+     * por nombre, con los contactos sin nombre primero.
+     *
+     * @return La consulta nueva.
+     */
+    public ConsultaDeContactos ordenadosPorNombre() {
+        return ordenar(POR_NOMBRE);
+    }
+
+    /**
+     * Crea una consulta que devuelve los contactos ordenados por fecha de
+     * nacimiento, con los contactos sin fecha primero.
+     *
+     * @return La consulta nueva.
+     */
+    public ConsultaDeContactos ordenadosPorNacimiento() {
+        return ordenar(POR_NACIMIENTO);
+    }
+
+    /**
+     * Obtiene el nombre normalizado de un contacto.
+     *
+     * @param contacto El contacto.
+     * @return Su nombre normalizado.
+     */
+    private static String nombreNormalizado(Contacto contacto) {
+        return Normalizador.normalizarNombre(contacto.obtenerNombre());
+    }
+
+    /**
+     * Indica si un contacto nació entre dos fechas, ambas inclusive.
+     *
+     * @param contacto El contacto.
+     * @param desde La fecha inicial.
+     * @param hasta La fecha final.
+     * @return {@code true} si tiene fecha de nacimiento y está en el rango.
+     */
+    private static boolean nacidoEntre(Contacto contacto, LocalDate desde,
+                                       LocalDate hasta) {
+        LocalDate fecha = contacto.obtenerFechaNacimiento();
+        return fecha != null && !fecha.isBefore(desde) && !fecha.isAfter(hasta);
+    }
+}
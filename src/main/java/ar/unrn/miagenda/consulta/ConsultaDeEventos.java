@@ -0,0 +1,178 @@
+package ar.unrn.miagenda.consulta;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.agenda.IndicesDeAgenda;
+import ar.unrn.miagenda.agenda.InstantaneaAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+import ar.unrn.miagenda.evento.Evento;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consulta sobre los eventos de una agenda. Por ejemplo, los eventos de un
+ * contacto durante un mes, por fecha:
+ * <pre>{@code
+ * ConsultaDeEventos.sobre(agenda)
+ *         .conInvitado(contacto)
+ *         .entre(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31))
+ *         .ordenadosPorFecha()
+ *         .listar();
+ * }</pre>
+ * Las condiciones por invitado y por fecha se resuelven con los índices de la
+ * agenda; sin orden pedido, el orden del resultado depende del índice
+ * que elija el planificador.
+ */
+public final class ConsultaDeEventos extends Consulta<Evento, ConsultaDeEventos> {
+
+    /**
+     * El orden por fecha, con los eventos sin fecha primero.
+     */
+    private static final Orden<Evento> POR_FECHA = new Orden<>("fecha",
+            Comparator.comparing(Evento::obtenerFechaEvento,
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+
+    /**
+     * Constructor que crea una consulta de eventos.
+     *
+     * @param origen De dónde se leen los índices.
+     * @param condiciones Las condiciones, de solo lectura.
+     * @param ordenPedido El orden pedido, o {@code null}.
+     * @param maximo La cantidad máxima de eventos.
+     */
+    private ConsultaDeEventos(FuenteDeIndices origen,
+                              List<Filtro<Evento>> condiciones,
+                              Orden<Evento> ordenPedido,
+                              int maximo) {
+        super(origen, condiciones, ordenPedido, maximo);
+    }
+
+    /**
+     * Crea una consulta sobre todos los eventos de una agenda. Cada ejecución
+     * lee los índices de la agenda en ese momento.
+     *
+     * @param agenda La agenda a consultar.
+     * @return Una consulta sin condiciones.
+     */
+    public static ConsultaDeEventos sobre(IAgenda agenda) {
+        return new ConsultaDeEventos(agenda::leerIndices, List.of(), null,
+                SIN_LIMITE);
+    }
+
+    /**
+     * Crea una consulta sobre todos los eventos de una instantánea.
+     *
+     * @param instantanea La instantánea a consultar.
+     * @return Una consulta sin condiciones.
+     */
+    public static ConsultaDeEventos sobre(InstantaneaAgenda instantanea) {
+        return new ConsultaDeEventos(fija(IndicesDeAgenda.de(instantanea)), List.of(),
+                null, SIN_LIMITE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    ConsultaDeEventos copiar(FuenteDeIndices origen,
+                             List<Filtro<Evento>> condiciones,
+                             Orden<Evento> ordenPedido,
+                             int maximo) {
+        return new ConsultaDeEventos(origen, condiciones, ordenPedido, maximo);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    List<Acceso<Evento>> recorridosCompletos(IndicesDeAgenda indices) {
+        int cantidad = indices.cantidadEventos();
+        return List.of(
+                new Acceso<>("eventos", cantidad, indices::eventos, null),
+                new Acceso<>("eventos por fecha", cantidad, indices::eventosPorFecha,
+                        POR_FECHA));
+    }
+
+    /**
+     * Crea una consulta que además exige que el contacto indicado esté
+     * invitado al evento.
+     *
+     * @param contacto El contacto a consultar.
+     * @return La consulta nueva.
+     */
+    public ConsultaDeEventos conInvitado(Contacto contacto) {
+        return filtrar(new Filtro<>("invitado " + contacto.obtenerDni(),
+                indices -> {
+                    Set<Evento> eventos = new HashSet<>(indices.eventosDe(contacto));
+                    return eventos::contains;
+                },
+                indices -> new Acceso<>("eventos del invitado",
+                        indices.cantidadEventosDe(contacto),
+                        () -> indices.eventosDe(contacto), null)));
+    }
+
+    /**
+     * Crea una consulta que además exige que el evento ocurra entre dos
+     * fechas, ambas inclusive. Los eventos sin fecha no la cumplen.
+     *
+     * @param desde La fecha inicial.
+     * @param hasta La fecha final.
+     * @return La consulta nueva.
+     * @throws IllegalArgumentException Si la fecha inicial es posterior a la
+     *                                  final.
+     */
+    public ConsultaDeEventos entre(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser "
+                    + "posterior a la final");
+        }
+        return filtrar(new Filtro<>("fecha entre " + desde + " y " + hasta,
+                indices -> evento -> ocurreEntre(evento, desde, hasta),
+                indices -> new Acceso<>("índice por fecha",
+                        indices.contarEventosEntre(desde, hasta),
+                        () -> indices.eventosEntre(desde, hasta), POR_FECHA)));
+    }
+
+    /**
+     * Crea una consulta que además exige el nombre de evento indicado, sin
+     * distinguir mayúsculas, acentos ni espacios repetidos.
+     *
+     * @param nombre El nombre buscado.
+     * @return La consulta nueva.
+     */
+    public ConsultaDeEventos conNombre(String nombre) {
+        String buscado = Normalizador.normalizarNombre(nombre);
+        return filtrar(new Filtro<>("nombre = " + buscado,
+                indices -> evento -> Normalizador.normalizarNombre(
+                        evento.obtenerNombreEvento()).equals(buscado),
+                null));
+    }
+
+    /**
+     * Crea una consulta que devuelve los eventos ordenados por fecha, con los
+     * eventos sin fecha primero.
+     *
+     * @return La consulta nueva.
+     */
+    public ConsultaDeEventos ordenadosPorFecha() {
+        return ordenar(POR_FECHA);
+    }
+
+    /**
+     * Indica si un evento ocurre entre dos fechas, ambas inclusive.
+     *
+     * @param evento El evento.
+     * @param desde La fecha inicial.
+     * @param hasta La fecha final.
+     * @return {@code true} si tiene fecha y está en el rango.
+     */
+    private static boolean ocurreEntre(Evento evento, LocalDate desde,
+                                       LocalDate hasta) {
+        LocalDate fecha = evento.obtenerFechaEvento();
+        return fecha != null && !fecha.isBefore(desde) && !fecha.isAfter(hasta);
+    }
+}
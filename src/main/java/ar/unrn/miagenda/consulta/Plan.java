@@ -0,0 +1,235 @@
+package ar.unrn.miagenda.consulta;
+
+import ar.unrn.miagenda.agenda.IndicesDeAgenda;
+import ar.unrn.miagenda.consulta.Consulta.Acceso;
+import ar.unrn.miagenda.consulta.Consulta.Filtro;
+import ar.unrn.miagenda.consulta.Consulta.Orden;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * La forma elegida para ejecutar una consulta sobre los índices de una
+ * agenda: de qué acceso se obtienen los elementos, qué condiciones quedan por
+ * evaluar sobre cada uno y si hace falta ordenar el resultado.
+ * <p>
+ * El plan se elige por costo estimado, medido en elementos recorridos, a
+ * partir de la cantidad de elementos que informa cada acceso sin obtenerlos;
+ * solo el acceso elegido obtiene sus elementos, al ejecutar el plan. Un
+ * acceso cuesta la cantidad de elementos que entrega, más el costo de
+ * ordenarlos si no vienen en el orden pedido. Si hay límite y no hace falta
+ * ordenar, el recorrido se corta al alcanzarlo, así que su costo se estima
+ * suponiendo que los elementos que cumplen la consulta, a lo sumo tantos como
+ * entrega el acceso más selectivo, están repartidos de forma pareja.
+ *
+ * @param <T> El tipo de los elementos consultados.
+ */
+final class Plan<T> {
+
+    /**
+     * El acceso del que se obtienen los elementos.
+     */
+    private final Acceso<T> acceso;
+    /**
+     * Las condiciones que se evalúan sobre cada elemento recorrido.
+     */
+    private final List<Filtro<T>> residuales;
+    /**
+     * El orden a aplicar, o {@code null} si el acceso ya entrega los
+     * elementos en el orden pedido o no se pidió ninguno.
+     */
+    private final Orden<T> orden;
+    /**
+     * La cantidad máxima de elementos, o {@link Consulta#SIN_LIMITE}.
+     */
+    private final int limite;
+    /**
+     * El costo estimado del plan.
+     */
+    private final double costo;
+
+    /**
+     * Constructor que crea un plan.
+     *
+     * @param elegido El acceso del que se obtienen los elementos.
+     * @param pendientes Las condiciones que se evalúan sobre cada elemento.
+     * @param ordenFaltante El orden a aplicar, o {@code null}.
+     * @param maximo La cantidad máxima de elementos.
+     * @param estimado El costo estimado.
+     */
+    private Plan(Acceso<T> elegido,
+                 List<Filtro<T>> pendientes,
+                 Orden<T> ordenFaltante,
+                 int maximo,
+                 double estimado) {
+        this.acceso = elegido;
+        this.residuales = pendientes;
+        this.orden = ordenFaltante;
+        this.limite = maximo;
+        this.costo = estimado;
+    }
+
+    /**
+     * Elige el plan de menor costo estimado entre los índices que resuelven
+     * alguna de las condiciones y los recorridos completos. A igual costo se
+     * prefieren los índices, en el orden en que se agregaron las condiciones.
+     *
+     * @param indices Los índices de la agenda consultada.
+     * @param filtros Las condiciones de la consulta.
+     * @param recorridos Los recorridos completos disponibles.
+     * @param ordenPedido El orden pedido, o {@code null}.
+     * @param maximo La cantidad máxima de elementos.
+     * @param <T> El tipo de los elementos consultados.
+     * @return El plan elegido.
+     */
+    static <T> Plan<T> elegir(IndicesDeAgenda indices,
+                              List<Filtro<T>> filtros,
+                              List<Acceso<T>> recorridos,
+                              Orden<T> ordenPedido,
+                              int maximo) {
+        List<Acceso<T>> accesos = new ArrayList<>();
+        List<Filtro<T>> resueltos = new ArrayList<>();
+        for (Filtro<T> filtro : filtros) {
+            if (filtro.tieneIndice()) {
+                accesos.add(filtro.accederIndice(indices));
+                resueltos.add(filtro);
+            }
+        }
+        for (Acceso<T> recorrido : recorridos) {
+            accesos.add(recorrido);
+            resueltos.add(null);
+        }
+        int coincidencias = Integer.MAX_VALUE;
+        for (Acceso<T> candidato : accesos) {
+            coincidencias = Math.min(coincidencias, candidato.cantidad());
+        }
+
+        int elegido = 0;
+        double menorCosto = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < accesos.size(); i++) {
+            double estimado = estimarCosto(accesos.get(i), ordenPedido, maximo,
+                    coincidencias);
+            if (estimado < menorCosto) {
+                menorCosto = estimado;
+                elegido = i;
+            }
+        }
+
+        Acceso<T> acceso = accesos.get(elegido);
+        List<Filtro<T>> pendientes = new ArrayList<>(filtros);
+        pendientes.remove(resueltos.get(elegido));
+        Orden<T> ordenFaltante = necesitaOrden(acceso, ordenPedido) ? ordenPedido : null;
+        return new Plan<>(acceso, pendientes, ordenFaltante, maximo, menorCosto);
+    }
+
+    /**
+     * Estima la cantidad de elementos que se recorren al ejecutar la
+     * consulta a partir de un acceso.
+     *
+     * @param acceso El acceso a evaluar.
+     * @param ordenPedido El orden pedido, o {@code null}.
+     * @param maximo La cantidad máxima de elementos.
+     * @param coincidencias La mayor cantidad posible de elementos que
+     *                      cumplen la consulta.
+     * @param <T> El tipo de los elementos consultados.
+     * @return El costo estimado.
+     */
+    private static <T> double estimarCosto(Acceso<T> acceso,
+                                           Orden<T> ordenPedido,
+                                           int maximo,
+                                           int coincidencias) {
+        double filas = acceso.cantidad();
+        if (necesitaOrden(acceso, ordenPedido)) {
+            return filas + filas * Math.log(filas) / Math.log(2);
+        }
+        if (maximo == Consulta.SIN_LIMITE) {
+            return filas;
+        }
+        return Math.min(filas, maximo * filas / Math.max(1, coincidencias));
+    }
+
+    /**
+     * Indica si hay que ordenar los elementos que entrega un acceso.
+     *
+     * @param acceso El acceso a evaluar.
+     * @param ordenPedido El orden pedido, o {@code null}.
+     * @param <T> El tipo de los elementos consultados.
+     * @return {@code true} si el acceso no entrega los elementos en el orden
+     *         pedido y hay más de uno.
+     */
+    private static <T> boolean necesitaOrden(Acceso<T> acceso, Orden<T> ordenPedido) {
+        return ordenPedido != null && acceso.obtenerOrden() != ordenPedido
+                && acceso.cantidad() > 1;
+    }
+
+    /**
+     * Combina dos pruebas en una que exige ambas.
+     *
+     * @param primera La primera prueba, o {@code null}.
+     * @param segunda La segunda prueba.
+     * @param <T> El tipo de los elementos consultados.
+     * @return La prueba combinada.
+     */
+    private static <T> Predicate<? super T> combinar(Predicate<? super T> primera,
+                                                     Predicate<? super T> segunda) {
+        if (primera == null) {
+            return segunda;
+        }
+        return (T elemento) -> primera.test(elemento) && segunda.test(elemento);
+    }
+
+    /**
+     * Ejecuta el plan, obteniendo los elementos del acceso elegido y
+     * preparando las condiciones residuales durante la misma lectura de los
+     * índices en que se eligió. Los elementos se recorren recién al consumir
+     * el flujo, y solo los necesarios si hay límite y no hace falta ordenar.
+     *
+     * @param indices Los índices de la agenda consultada.
+     * @return Un flujo con los elementos que cumplen la consulta.
+     */
+    Stream<T> ejecutar(IndicesDeAgenda indices) {
+        Predicate<? super T> condicion = null;
+        for (Filtro<T> filtro : this.residuales) {
+            condicion = combinar(condicion, filtro.preparar(indices));
+        }
+        Stream<T> elementos = this.acceso.obtenerFilas().stream();
+        if (condicion != null) {
+            elementos = elementos.filter(condicion);
+        }
+        if (this.orden != null) {
+            elementos = elementos.sorted(this.orden.obtenerComparador());
+        }
+        if (this.limite != Consulta.SIN_LIMITE) {
+            elementos = elementos.limit(this.limite);
+        }
+        return elementos;
+    }
+
+    /**
+     * Describe el plan.
+     *
+     * @return El acceso elegido, los pasos que siguen y el costo estimado.
+     */
+    @Override
+    public String toString() {
+        StringBuilder descripcion = new StringBuilder("recorrer ")
+                .append(this.acceso).append(" (").append(this.acceso.cantidad())
+                .append(')');
+        if (!this.residuales.isEmpty()) {
+            descripcion.append(" -> filtrar por ").append(this.residuales.stream()
+                    .map(Filtro::obtenerDescripcion)
+                    .collect(Collectors.joining(", ")));
+        }
+        if (this.orden != null) {
+            descripcion.append(" -> ordenar por ").append(this.orden);
+        }
+        if (this.limite != Consulta.SIN_LIMITE) {
+            descripcion.append(" -> limitar a ").append(this.limite);
+        }
+        return descripcion.append(" [costo estimado ")
+                .append(Math.round(this.costo)).append(']').toString();
+    }
+}
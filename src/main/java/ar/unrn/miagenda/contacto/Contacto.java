@@ -1,83 +1,128 @@
-package ar.unrn.miagenda.contacto;
-
-import java.time.LocalDate;
-
-/**
- * Clase que representa un contacto dentro de una agenda.
- * Implementa la interfaz {@link IContacto}, proporcionando la implementación de los
- * métodos para obtener información básica de un contacto,
- * como el nombre, el DNI y la fecha de nacimiento.
- */
-public class Contacto implements IContacto {
-    /**
-     * El nombre del contacto.
-     */
-    private String nombre;
-    /**
-     * El número de DNI del contacto.
-     */
-    private String dni;
-    /**
-     * La fecha de nacimiento del contacto.
-     */
-    private LocalDate fechaNacimiento;
-
-    /**
-     * Constructor que crea un nuevo contacto con los datos proporcionados.
-     *
-     * @param nombreContacto El nombre completo del contacto.
-     * @param dinContacto El número de DNI del contacto.
-     * @param fechaNacimientoContacto La fecha de nacimiento del contacto.
-     */
-    public Contacto(String nombreContacto,
-                    String dinContacto,
-                    LocalDate fechaNacimientoContacto) {
-        this.nombre = nombreContacto;
-        this.dni = dinContacto;
-        this.fechaNacimiento = fechaNacimientoContacto;
-    }
-
-    /**
-     * Obtiene el nombre completo del contacto.
-     *
-     * @return El nombre completo del contacto.
-     */
-    @Override
-    public String obtenerNombre() {
-        return this.nombre;
-    }
-
-    /**
-     * Obtiene el número de DNI del contacto.
-     *
-     * @return El número de DNI del contacto.
-     */
-    @Override
-    public String obtenerDni() {
-        return this.dni;
-    }
-
-    /**
-     * Obtiene la fecha de nacimiento del contacto.
-     *
-     * @return La fecha de nacimiento del contacto.
-     */
-    @Override
-    public LocalDate obtenerFechaNacimiento() {
-        return this.fechaNacimiento;
-    }
-
-    /**
-     * Devuelve una representación en formato String del contacto, incluyendo su
-     * nombre, DNI y fecha de nacimiento.
-     *
-     * @return Una cadena de texto que representa el contacto.
-     */
-    @Override
-    public String toString() {
-        return "Contacto{Nombre='" + nombre + '\''
-                + ", DNI='" + dni + '\'' + ", Fecha de Nacimiento="
-                + fechaNacimiento
-                + '}';
-    }
-}
+package ar.unrn.miagenda.contacto;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Clase que representa un contacto dentro de una agenda.
+ * Implementa la interfaz {@link IContacto}, proporcionando la implementación de los
+ * métodos para obtener información básica de un contacto,
+ * como el nombre, el DNI y la fecha de nacimiento.
+ */
+public class Contacto implements IContacto {
+    /**
+     * El nombre del contacto.
+     */
+    private String nombre;
+    /**
+     * El número de DNI del contacto.
+     */
+    private String dni;
+    /**
+     * La fecha de nacimiento del contacto.
+     */
+    private LocalDate fechaNacimiento;
+    /**
+     * El número de DNI normalizado, empleado para comparar contactos.
+     */
+    private String dniNormalizado;
+
+    /**
+     * Constructor que crea un nuevo contacto con los datos proporcionados.
+     *
+     * @param nombreContacto El nombre completo del contacto.
+     * @param dinContacto El número de DNI del contacto.
+     * @param fechaNacimientoContacto La fecha de nacimiento del contacto.
+     */
+    public Contacto(String nombreContacto,
+                    String dinContacto,
+                    LocalDate fechaNacimientoContacto) {
+        this.nombre = nombreContacto;
+        this.dni = dinContacto;
+        this.fechaNacimiento = fechaNacimientoContacto;
+        this.dniNormalizado = Normalizador.normalizarDni(dinContacto);
+    }
+
+    /**
+     * Obtiene el nombre completo del contacto.
+     *
+     * @return El nombre completo del contacto.
+     */
+    @Override
+    public String obtenerNombre() {
+        return this.nombre;
+    }
+
+    /**
+     * Obtiene el número de DNI del contacto.
+     *
+     * @return El número de DNI del contacto.
+     */
+    @Override
+    public String obtenerDni() {
+        return this.dni;
+    }
+
+    /**
+     * Obtiene la fecha de nacimiento del contacto.
+     *
+     * @return La fecha de nacimiento del contacto.
+     */
+    @Override
+    public LocalDate obtenerFechaNacimiento() {
+        return this.fechaNacimiento;
+    }
+
+    /**
+     * Obtiene el número de DNI normalizado del contacto, sin separadores.
+     *
+     * @return El número de DNI normalizado del contacto.
+     */
+    public String obtenerDniNormalizado() {
+        return this.dniNormalizado;
+    }
+
+    /**
+     * Dos contactos son iguales si tienen el mismo número de DNI, sin importar
+     * el formato con el que fue ingresado.
+     *
+     * @param otro El objeto a comparar.
+     * @return {@code true} si ambos contactos tienen el mismo DNI.
+     */
+    @Override
+    public boolean equals(Object otro) {
+        if (this == otro) {
+            return true;
+        }
+        if (!(otro instanceof Contacto)) {
+            return false;
+        }
+        Contacto contacto = (Contacto) otro;
+        return Objects.equals(this.dniNormalizado, contacto.dniNormalizado);
+    }
+
+    /**
+     * Calcula el código hash a partir del DNI normalizado, consistente con
+     * {@link #equals(Object)}.
+     *
+     * @return El código hash del contacto.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.dniNormalizado);
+    }
+
+    /**
+     * Devuelve una representación en formato String del contacto, incluyendo su
+     * nombre, DNI y fecha de nacimiento.
+     *
+     * @return Una cadena de texto que representa el contacto.
+     */
+    @Override
+    public String toString() {
+        return "Contacto{Nombre='" + nombre + '\''
+                + ", DNI='" + dni + '\'' + ", Fecha de Nacimiento="
+                + fechaNacimiento
+                + '}';
+    }
+}
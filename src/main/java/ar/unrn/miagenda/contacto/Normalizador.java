@@ -0,0 +1,109 @@
+package ar.unrn.miagenda.contacto;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Clase utilitaria que concentra las reglas de normalización empleadas para
+ * comparar e indexar los datos de un contacto.
+ */
+public final class Normalizador {
+
+    /**
+     * Constructor privado, la clase solo expone métodos estáticos.
+     */
+    private Normalizador() {
+    }
+
+    /**
+     * Normaliza un número de DNI quitando los separadores de miles y los
+     * espacios, de modo que "44.121.248" y "44121248" resulten equivalentes.
+     *
+     * @param dni El número de DNI tal como fue ingresado.
+     * @return El DNI normalizado, que es el mismo texto recibido si no tenía
+     * separadores, o {@code null} si no se indicó ninguno.
+     */
+    public static String normalizarDni(String dni) {
+        if (dni == null) {
+            return null;
+        }
+        boolean tieneSeparadores = false;
+        for (int i = 0; i < dni.length() && !tieneSeparadores; i++) {
+            char caracter = dni.charAt(i);
+            tieneSeparadores = caracter == '.' || Character.isWhitespace(caracter);
+        }
+        if (!tieneSeparadores) {
+            return dni;
+        }
+        StringBuilder normalizado = new StringBuilder(dni.length());
+        for (int i = 0; i < dni.length(); i++) {
+            char caracter = dni.charAt(i);
+            if (caracter != '.' && !Character.isWhitespace(caracter)) {
+                normalizado.append(caracter);
+            }
+        }
+        return normalizado.toString();
+    }
+
+    /**
+     * Normaliza un nombre para compararlo sin distinguir mayúsculas, acentos
+     * ni espacios repetidos, de modo que "Demian Castañeda" y
+     * "demian  castaneda" resulten equivalentes.
+     *
+     * @param nombre El nombre tal como fue ingresado.
+     * @return El nombre normalizado, o una cadena vacía si no se indicó ninguno.
+     */
+    public static String normalizarNombre(String nombre) {
+        return normalizar(nombre, false);
+    }
+
+    /**
+     * Normaliza el comienzo de un nombre con las mismas reglas que
+     * {@link #normalizarNombre(String)}, salvo que un espacio final se
+     * conserva, reducido a uno solo: "beto " busca nombres cuya primera
+     * palabra es "beto", mientras que "beto" también encuentra "betoven".
+     *
+     * @param prefijo El comienzo del nombre tal como fue ingresado.
+     * @return El prefijo normalizado, o una cadena vacía si no se indicó
+     * ninguno.
+     */
+    public static String normalizarPrefijo(String prefijo) {
+        return normalizar(prefijo, true);
+    }
+
+    /**
+     * Normaliza un nombre o un prefijo de nombre.
+     *
+     * @param nombre El texto tal como fue ingresado.
+     * @param conservarEspacioFinal Si se conserva un espacio al final cuando
+     *                              el texto termina en espacios.
+     * @return El texto normalizado, o una cadena vacía si no se indicó ninguno.
+     */
+    private static String normalizar(String nombre, boolean conservarEspacioFinal) {
+        if (nombre == null) {
+            return "";
+        }
+        String descompuesto = Normalizer.normalize(nombre, Normalizer.Form.NFD);
+        StringBuilder normalizado = new StringBuilder(descompuesto.length());
+        boolean espacioPendiente = false;
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char caracter = descompuesto.charAt(i);
+            if (Character.getType(caracter) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(caracter)) {
+                espacioPendiente = normalizado.length() > 0;
+            } else {
+                if (espacioPendiente) {
+                    normalizado.append(' ');
+                    espacioPendiente = false;
+                }
+                normalizado.append(caracter);
+            }
+        }
+        if (espacioPendiente && conservarEspacioFinal) {
+            normalizado.append(' ');
+        }
+        return normalizado.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,119 +1,301 @@
-package ar.unrn.miagenda.evento;
-
-import ar.unrn.miagenda.contacto.Contacto;
-
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
-/**
- * Clase que representa un evento dentro de una agenda.
- * Implementa la interfaz {@link IEvento}
- */
-public class Evento implements IEvento {
-
-    /**
-     * El nombre del evento.
-     */
-    private String nombre;
-    /**
-     * La fecha del evento.
-     */
-    private LocalDate fecha;
-    /**
-     * La lista de contactos invitados al evento.
-     */
-    private List<Contacto> invitados;
-
-    /**
-     * Constructor que crea un nuevo evento con los datos proporcionados.
-     *
-     * @param nombreEvento El nombre del evento.
-     * @param fechaEvento La fecha en la que se llevará a cabo el evento.
-     * @param invitadosEvento La lista de contactos invitados al evento.
-     */
-    public Evento(String nombreEvento,
-                  LocalDate fechaEvento,
-                  List<Contacto> invitadosEvento) {
-        this.nombre = nombreEvento;
-        this.fecha = fechaEvento;
-        if (invitadosEvento != null) {
-            this.invitados = new ArrayList<>(invitadosEvento);
-        } else {
-            this.invitados = new ArrayList<>();
-        }
-    }
-
-    /**
-     * Obtiene el nombre del evento.
-     *
-     * @return El nombre del evento.
-     */
-    @Override
-    public String obtenerNombreEvento() {
-        return this.nombre;
-    }
-
-    /**
-     * Obtiene la fecha en la que se llevará a cabo el evento.
-     *
-     * @return La fecha del evento.
-     */
-    @Override
-    public LocalDate obtenerFechaEvento() {
-        return this.fecha;
-    }
-
-    /**
-     * Obtiene la lista de contactos invitados al evento.
-     *
-     * @return Una lista de objetos {@link Contacto}
-     * que representan a los invitados al evento.
-     */
-    @Override
-    public List<Contacto> obtenerInvitadosEvento() {
-        return Collections.unmodifiableList(invitados);
-    }
-
-    /**
-     * Agrega un contacto a la lista de invitados del evento.
-     *
-     * @param contacto El contacto a agregar.
-     */
-    @Override
-    public void agregarInvitado(Contacto contacto) {
-        this.invitados.add(contacto);
-    }
-
-    /**
-     * Elimina un contacto de la lista de invitados del evento.
-     *
-     * @param contacto El contacto a eliminar.
-     */
-    @Override
-    public void quitarInvitado(Contacto contacto) {
-        this.invitados.remove(contacto);
-    }
-
-    /**
-     * Devuelve una representación en formato String del evento, incluyendo su
-     * nombre, fecha y lista de invitados.
-     *
-     * @return Una cadena de texto que representa el evento.
-     */
-    @Override
-    public String toString() {
-        StringBuilder invitadosStr = new StringBuilder();
-        for (Contacto contacto : this.invitados) {
-            invitadosStr.append(contacto.obtenerNombre()).append(", ");
-        }
-        if (!invitadosStr.isEmpty()) {
-            invitadosStr.setLength(invitadosStr.length() - 2);
-        }
-
-        return "Evento{nombre='" + this.nombre + '\''
-                + ", fecha=" + this.fecha + ", invitados=["
-                + invitadosStr + "]" + '}';
-    }
-}
+package ar.unrn.miagenda.evento;
+
+import ar.unrn.miagenda.contacto.Contacto;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Clase que representa un evento dentro de una agenda.
+ * Implementa la interfaz {@link IEvento}
+ */
+public class Evento implements IEvento {
+
+    /**
+     * El nombre del evento.
+     */
+    private String nombre;
+    /**
+     * La fecha del evento.
+     */
+    private LocalDate fecha;
+    /**
+     * Los contactos invitados al evento, en el orden en que fueron invitados.
+     */
+    private Set<Contacto> invitados;
+    /**
+     * Vista de solo lectura de los invitados, creada una única vez.
+     */
+    private List<Contacto> vistaInvitados;
+    /**
+     * Los observadores que reciben los cambios en los invitados, o
+     * {@code null} si nunca se agregó ninguno.
+     */
+    private volatile List<ObservadorDeInvitados> observadores;
+
+    /**
+     * Constructor que crea un nuevo evento con los datos proporcionados.
+     *
+     * @param nombreEvento El nombre del evento.
+     * @param fechaEvento La fecha en la que se llevará a cabo el evento.
+     * @param invitadosEvento Los contactos invitados al evento; los repetidos
+     *                        se invitan una sola vez.
+     */
+    public Evento(String nombreEvento,
+                  LocalDate fechaEvento,
+                  Collection<Contacto> invitadosEvento) {
+        this.nombre = nombreEvento;
+        this.fecha = fechaEvento;
+        if (invitadosEvento != null) {
+            this.invitados = new LinkedHashSet<>(invitadosEvento);
+        } else {
+            this.invitados = new LinkedHashSet<>();
+        }
+        this.vistaInvitados = new VistaDeInvitados(this.invitados);
+    }
+
+    /**
+     * Obtiene el nombre del evento.
+     *
+     * @return El nombre del evento.
+     */
+    @Override
+    public String obtenerNombreEvento() {
+        return this.nombre;
+    }
+
+    /**
+     * Obtiene la fecha en la que se llevará a cabo el evento.
+     *
+     * @return La fecha del evento.
+     */
+    @Override
+    public LocalDate obtenerFechaEvento() {
+        return this.fecha;
+    }
+
+    /**
+     * Obtiene los contactos invitados al evento, en el orden en que fueron
+     * invitados. La lista es una vista de solo lectura que refleja los
+     * cambios posteriores en los invitados; {@code contains} no recorre la
+     * lista, pero el acceso por posición sí.
+     *
+     * @return Una lista de objetos {@link Contacto} que representan
+     * a los invitados al evento.
+     */
+    @Override
+    public List<Contacto> obtenerInvitadosEvento() {
+        return this.vistaInvitados;
+    }
+
+    /**
+     * Agrega un contacto a la lista de invitados del evento. Si ya estaba
+     * invitado, no se modifica la lista ni se avisa a los observadores.
+     *
+     * @param contacto El contacto a agregar.
+     * @throws IllegalStateException Si el evento está registrado en una agenda
+     *                               que solo admite modificar sus invitados a
+     *                               través de ella.
+     */
+    @Override
+    public void agregarInvitado(Contacto contacto) {
+        if (this.observadores != null && !this.invitados.contains(contacto)) {
+            autorizarCambio(contacto);
+        }
+        if (this.invitados.add(contacto) && this.observadores != null) {
+            for (ObservadorDeInvitados observador : this.observadores) {
+                observador.invitadoAgregado(this, contacto);
+            }
+        }
+    }
+
+    /**
+     * Elimina un contacto de la lista de invitados del evento. Si no estaba
+     * invitado, no se avisa a los observadores.
+     *
+     * @param contacto El contacto a eliminar.
+     * @throws IllegalStateException Si el evento está registrado en una agenda
+     *                               que solo admite modificar sus invitados a
+     *                               través de ella.
+     */
+    @Override
+    public void quitarInvitado(Contacto contacto) {
+        if (this.observadores != null && this.invitados.contains(contacto)) {
+            autorizarCambio(contacto);
+        }
+        if (this.invitados.remove(contacto) && this.observadores != null) {
+            for (ObservadorDeInvitados observador : this.observadores) {
+                observador.invitadoQuitado(this, contacto);
+            }
+        }
+    }
+
+    /**
+     * Pide a cada observador que autorice un cambio en los invitados.
+     *
+     * @param contacto El contacto a invitar o quitar.
+     */
+    private void autorizarCambio(Contacto contacto) {
+        for (ObservadorDeInvitados observador : this.observadores) {
+            observador.autorizarCambio(this, contacto);
+        }
+    }
+
+    /**
+     * Agrega un observador que recibe cada cambio posterior en los
+     * invitados del evento.
+     *
+     * @param observador El observador a agregar.
+     */
+    public synchronized void agregarObservador(ObservadorDeInvitados observador) {
+        if (this.observadores == null) {
+            this.observadores = new CopyOnWriteArrayList<>();
+        }
+        this.observadores.add(observador);
+    }
+
+    /**
+     * Quita un observador agregado con
+     * {@link #agregarObservador(ObservadorDeInvitados)}.
+     *
+     * @param observador El observador a quitar.
+     */
+    public synchronized void quitarObservador(ObservadorDeInvitados observador) {
+        if (this.observadores != null) {
+            this.observadores.remove(observador);
+        }
+    }
+
+    /**
+     * Dos eventos son iguales si tienen el mismo nombre y la misma fecha,
+     * sin importar sus invitados.
+     *
+     * @param otro El objeto a comparar.
+     * @return {@code true} si ambos eventos tienen el mismo nombre y fecha.
+     */
+    @Override
+    public boolean equals(Object otro) {
+        if (this == otro) {
+            return true;
+        }
+        if (!(otro instanceof Evento)) {
+            return false;
+        }
+        Evento evento = (Evento) otro;
+        return Objects.equals(this.nombre, evento.nombre)
+                && Objects.equals(this.fecha, evento.fecha);
+    }
+
+    /**
+     * Calcula el código hash a partir del nombre y la fecha, consistente con
+     * {@link #equals(Object)}.
+     *
+     * @return El código hash del evento.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.nombre, this.fecha);
+    }
+
+    /**
+     * Devuelve una representación en formato String del evento, incluyendo su
+     * nombre, fecha y lista de invitados.
+     *
+     * @return Una cadena de texto que representa el evento.
+     */
+    @Override
+    public String toString() {
+        StringBuilder invitadosStr = new StringBuilder();
+        for (Contacto contacto : this.invitados) {
+            invitadosStr.append(contacto.obtenerNombre()).append(", ");
+        }
+        if (!invitadosStr.isEmpty()) {
+            invitadosStr.setLength(invitadosStr.length() - 2);
+        }
+
+        return "Evento{nombre='" + this.nombre + '\''
+                + ", fecha=" + this.fecha + ", invitados=["
+                + invitadosStr + "]" + '}';
+    }
+
+    /**
+     * Vista de solo lectura, en forma de lista, de los invitados guardados
+     * en un conjunto ordenado.
+     */
+    private static final class VistaDeInvitados extends AbstractList<Contacto> {
+
+        /**
+         * Los invitados que se muestran.
+         */
+        private final Set<Contacto> conjunto;
+
+        /**
+         * Constructor que crea la vista de un conjunto de invitados.
+         *
+         * @param invitadosEvento El conjunto a mostrar.
+         */
+        private VistaDeInvitados(Set<Contacto> invitadosEvento) {
+            this.conjunto = invitadosEvento;
+        }
+
+        /**
+         * Obtiene el invitado de una posición, recorriendo el conjunto hasta
+         * ella.
+         *
+         * @param indice La posición del invitado.
+         * @return El invitado de esa posición.
+         */
+        @Override
+        public Contacto get(int indice) {
+            if (indice < 0 || indice >= this.conjunto.size()) {
+                throw new IndexOutOfBoundsException("Posición fuera de la lista: "
+                        + indice);
+            }
+            Iterator<Contacto> recorrido = this.conjunto.iterator();
+            for (int i = 0; i < indice; i++) {
+                recorrido.next();
+            }
+            return recorrido.next();
+        }
+
+        /**
+         * Obtiene la cantidad de invitados.
+         *
+         * @return La cantidad de invitados.
+         */
+        @Override
+        public int size() {
+            return this.conjunto.size();
+        }
+
+        /**
+         * Indica si un contacto está invitado, consultando el conjunto.
+         *
+         * @param contacto El contacto a buscar.
+         * @return {@code true} si el contacto está invitado.
+         */
+        @Override
+        public boolean contains(Object contacto) {
+            return this.conjunto.contains(contacto);
+        }
+
+        /**
+         * Recorre los invitados en el orden en que fueron invitados, sin
+         * permitir quitarlos.
+         *
+         * @return Un iterador de solo lectura sobre los invitados.
+         */
+        @Override
+        public Iterator<Contacto> iterator() {
+            return Collections.unmodifiableSet(this.conjunto).iterator();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ar.unrn.miagenda.evento;
+
+import ar.unrn.miagenda.contacto.Contacto;
+
+/**
+ * Recibe los cambios en la lista de invitados de un {@link Evento}, sin
+ * importar si se hicieron a través de una agenda o directamente sobre el
+ * evento. Las agendas lo usan para mantener al día sus índices de
+ * invitaciones.
+ */
+public interface ObservadorDeInvitados {
+
+    /**
+     * Avisa que un contacto está por ser invitado o quitado del evento, antes
+     * de modificar la lista. El observador puede impedir el cambio lanzando
+     * una excepción no verificada; por defecto lo admite.
+     *
+     * @param evento El evento a modificar.
+     * @param contacto El contacto a invitar o quitar.
+     */
+    default void autorizarCambio(Evento evento, Contacto contacto) {
+    }
+
+    /**
+     * Avisa que un contacto fue invitado al evento.
+     *
+     * @param evento El evento modificado.
+     * @param contacto El contacto invitado.
+     */
+    void invitadoAgregado(Evento evento, Contacto contacto);
+
+    /**
+     * Avisa que un contacto dejó de estar invitado al evento.
+     *
+     * @param evento El evento modificado.
+     * @param contacto El contacto quitado.
+     */
+    void invitadoQuitado(Evento evento, Contacto contacto);
+}
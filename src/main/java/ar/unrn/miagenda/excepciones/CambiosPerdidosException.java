@@ -0,0 +1,17 @@
+package ar.unrn.miagenda.excepciones;
+
+/**
+ * Excepción lanzada cuando una suscripción a los cambios de una agenda se
+ * atrasó tanto que los cambios que le faltaban ya fueron descartados.
+ */
+public class CambiosPerdidosException extends Exception {
+    /**
+     * Constructor que crea una nueva excepción con un mensaje detallado. La
+     * pila se captura según {@link TrazaDeExcepciones}.
+     *
+     * @param mensaje El mensaje que describe la causa de la excepción.
+     */
+    public CambiosPerdidosException(String mensaje) {
+        super(mensaje, null, true, TrazaDeExcepciones.CAPTURAR);
+    }
+}
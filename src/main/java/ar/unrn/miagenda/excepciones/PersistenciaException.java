@@ -0,0 +1,27 @@
+package ar.unrn.miagenda.excepciones;
+
+/**
+ * Excepción lanzada cuando falla el almacenamiento o la recuperación de
+ * una agenda en disco. Encadena siempre la excepción que la originó.
+ */
+public class PersistenciaException extends RuntimeException {
+    /**
+     * Constructor que crea una nueva excepción con un mensaje detallado y la
+     * causa que la provocó.
+     *
+     * @param mensaje El mensaje que describe la causa de la excepción.
+     * @param causa La excepción que provocó el fallo.
+     */
+    public PersistenciaException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+
+    /**
+     * Constructor que crea una nueva excepción con un mensaje detallado.
+     *
+     * @param mensaje El mensaje que describe la causa de la excepción.
+     */
+    public PersistenciaException(String mensaje) {
+        super(mensaje);
+    }
+}
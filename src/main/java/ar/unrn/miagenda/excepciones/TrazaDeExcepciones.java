@@ -0,0 +1,41 @@
+package ar.unrn.miagenda.excepciones;
+
+/**
+ * Configuración de la captura de la pila en las excepciones de la agenda.
+ * <p>
+ * Capturar la pila es la parte más costosa de crear una excepción. Si la
+ * máquina virtual se inicia con la propiedad {@link #PROPIEDAD_SIN_TRAZA} en
+ * {@code true}, las excepciones verificadas de este paquete se crean sin
+ * pila: conservan su tipo y su mensaje, pero
+ * {@link Throwable#getStackTrace()} devuelve un arreglo vacío. Las
+ * {@link PersistenciaException}, que indican fallas de entrada y salida,
+ * siempre capturan la pila.
+ */
+public final class TrazaDeExcepciones {
+
+    /**
+     * Nombre de la propiedad del sistema que desactiva la captura de la pila.
+     */
+    public static final String PROPIEDAD_SIN_TRAZA =
+            "ar.unrn.miagenda.excepciones.sinTraza";
+    /**
+     * Si las excepciones capturan la pila, leído una única vez al cargar la
+     * clase.
+     */
+    static final boolean CAPTURAR = !Boolean.getBoolean(PROPIEDAD_SIN_TRAZA);
+
+    /**
+     * Constructor privado para evitar instancias.
+     */
+    private TrazaDeExcepciones() {
+    }
+
+    /**
+     * Indica si las excepciones de la agenda capturan la pila.
+     *
+     * @return {@code true} si se captura la pila.
+     */
+    public static boolean capturaPila() {
+        return CAPTURAR;
+    }
+}
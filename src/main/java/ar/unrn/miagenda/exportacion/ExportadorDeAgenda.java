@@ -0,0 +1,468 @@
+package ar.unrn.miagenda.exportacion;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escribe los contactos o los eventos de una agenda a medida que los recorre,
+ * sin armar el resultado completo en memoria.
+ * <p>
+ * Los contactos se recorren por páginas de {@link #CONTACTOS_POR_PAGINA}
+ * del índice por nombre. Con {@link ar.unrn.miagenda.agenda.Agenda} y
+ * {@link ar.unrn.miagenda.agenda.AgendaConcurrente} cada página es una vista
+ * del índice persistente que se obtiene en O(log N) y se recorre en O(k), sin
+ * copiar contactos, de modo que la memoria adicional es constante; otras
+ * implementaciones pueden copiar cada página, y en ese caso la memoria queda
+ * acotada por una página. Los eventos se recorren sobre
+ * {@link IAgenda#consultarEventos()}, que en esas dos agendas es una vista
+ * inmutable obtenida en O(1); en otras implementaciones su costo es el de
+ * esa consulta, que puede copiar todos los eventos.
+ * <p>
+ * Si la agenda se modifica durante la exportación, las páginas de contactos
+ * pueden reflejar estados distintos; para una exportación consistente puede
+ * exportarse una agenda que no se esté modificando.
+ */
+public class ExportadorDeAgenda {
+
+    /**
+     * La cantidad de contactos que se piden a la agenda por vez.
+     */
+    public static final int CONTACTOS_POR_PAGINA = 1_024;
+    /**
+     * La longitud máxima en bytes de una línea de iCalendar.
+     */
+    private static final int LONGITUD_LINEA_ICALENDAR = 75;
+    /**
+     * El primer carácter que no es de control.
+     */
+    private static final char PRIMER_IMPRIMIBLE = ' ';
+    /**
+     * Formato de las fechas de iCalendar.
+     */
+    private static final DateTimeFormatter FECHA_ICALENDAR =
+            DateTimeFormatter.ofPattern("yyyyMMdd");
+    /**
+     * Formato de los instantes de iCalendar, en UTC.
+     */
+    private static final DateTimeFormatter INSTANTE_ICALENDAR =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    /**
+     * Fin de línea de iCalendar.
+     */
+    private static final String FIN_LINEA_ICALENDAR = "\r\n";
+
+    /**
+     * La agenda que se exporta.
+     */
+    private final IAgenda agenda;
+
+    /**
+     * Constructor que crea un exportador para la agenda indicada.
+     *
+     * @param agendaExportada La agenda que se exporta.
+     */
+    public ExportadorDeAgenda(IAgenda agendaExportada) {
+        this.agenda = agendaExportada;
+    }
+
+    /**
+     * Escribe los contactos ordenados por nombre.
+     *
+     * @param salida Donde escribir los contactos; no se cierra al terminar.
+     * @param formato El formato de salida.
+     * @throws IOException Si falla la escritura.
+     * @throws IllegalArgumentException Si el formato no admite contactos.
+     */
+    public void exportarContactos(Writer salida, FormatoDeExportacion formato)
+            throws IOException {
+        if (formato == FormatoDeExportacion.ICALENDAR) {
+            throw new IllegalArgumentException("Los contactos no pueden exportarse "
+                    + "como iCalendar");
+        }
+        if (formato == FormatoDeExportacion.CSV) {
+            salida.write("nombre,dni,fechaNacimiento\n");
+        }
+        int desde = 0;
+        List<Contacto> pagina = this.agenda.consultarContactosPorNombre(desde,
+                CONTACTOS_POR_PAGINA);
+        while (!pagina.isEmpty()) {
+            for (Contacto contacto : pagina) {
+                if (formato == FormatoDeExportacion.CSV) {
+                    escribirContactoCsv(salida, contacto);
+                } else {
+                    escribirContactoJson(salida, contacto);
+                }
+            }
+            desde = desde + pagina.size();
+            pagina = this.agenda.consultarContactosPorNombre(desde,
+                    CONTACTOS_POR_PAGINA);
+        }
+        salida.flush();
+    }
+
+    /**
+     * Escribe los eventos en el orden en que fueron creados.
+     *
+     * @param salida Donde escribir los eventos; no se cierra al terminar.
+     * @param formato El formato de salida.
+     * @throws IOException Si falla la escritura.
+     */
+    public void exportarEventos(Writer salida, FormatoDeExportacion formato)
+            throws IOException {
+        List<Evento> eventos = this.agenda.consultarEventos();
+        switch (formato) {
+            case CSV -> {
+                salida.write("nombre,fecha,invitados\n");
+                for (Evento evento : eventos) {
+                    escribirEventoCsv(salida, evento);
+                }
+            }
+            case JSON_LINEAS -> {
+                for (Evento evento : eventos) {
+                    escribirEventoJson(salida, evento);
+                }
+            }
+            default -> escribirCalendario(salida, eventos);
+        }
+        salida.flush();
+    }
+
+    /**
+     * Escribe los contactos en UTF-8, opcionalmente comprimidos con gzip.
+     *
+     * @param salida Donde escribir los contactos; no se cierra al terminar.
+     * @param formato El formato de salida.
+     * @param comprimir Si la salida se comprime con gzip.
+     * @throws IOException Si falla la escritura.
+     */
+    public void exportarContactos(OutputStream salida, FormatoDeExportacion formato,
+                                  boolean comprimir) throws IOException {
+        GZIPOutputStream comprimida = comprimir ? new GZIPOutputStream(salida) : null;
+        Writer escritor = escritor(comprimida != null ? comprimida : salida);
+        exportarContactos(escritor, formato);
+        terminar(comprimida);
+    }
+
+    /**
+     * Escribe los eventos en UTF-8, opcionalmente comprimidos con gzip.
+     *
+     * @param salida Donde escribir los eventos; no se cierra al terminar.
+     * @param formato El formato de salida.
+     * @param comprimir Si la salida se comprime con gzip.
+     * @throws IOException Si falla la escritura.
+     */
+    public void exportarEventos(OutputStream salida, FormatoDeExportacion formato,
+                                boolean comprimir) throws IOException {
+        GZIPOutputStream comprimida = comprimir ? new GZIPOutputStream(salida) : null;
+        Writer escritor = escritor(comprimida != null ? comprimida : salida);
+        exportarEventos(escritor, formato);
+        terminar(comprimida);
+    }
+
+    /**
+     * Escribe los contactos en un canal, en UTF-8 y opcionalmente comprimidos.
+     *
+     * @param canal Donde escribir los contactos; no se cierra al terminar.
+     * @param formato El formato de salida.
+     * @param comprimir Si la salida se comprime con gzip.
+     * @throws IOException Si falla la escritura.
+     */
+    public void exportarContactos(WritableByteChannel canal, FormatoDeExportacion formato,
+                                  boolean comprimir) throws IOException {
+        exportarContactos(Channels.newOutputStream(canal), formato, comprimir);
+    }
+
+    /**
+     * Escribe los eventos en un canal, en UTF-8 y opcionalmente comprimidos.
+     *
+     * @param canal Donde escribir los eventos; no se cierra al terminar.
+     * @param formato El formato de salida.
+     * @param comprimir Si la salida se comprime con gzip.
+     * @throws IOException Si falla la escritura.
+     */
+    public void exportarEventos(WritableByteChannel canal, FormatoDeExportacion formato,
+                                boolean comprimir) throws IOException {
+        exportarEventos(Channels.newOutputStream(canal), formato, comprimir);
+    }
+
+    /**
+     * Escribe un contacto como una fila CSV.
+     *
+     * @param salida Donde escribir.
+     * @param contacto El contacto.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirContactoCsv(Writer salida, Contacto contacto)
+            throws IOException {
+        escribirCsv(salida, contacto.obtenerNombre());
+        salida.write(',');
+        escribirCsv(salida, contacto.obtenerDni());
+        salida.write(',');
+        escribirCsv(salida, texto(contacto.obtenerFechaNacimiento()));
+        salida.write('\n');
+    }
+
+    /**
+     * Escribe un contacto como un objeto JSON en una línea.
+     *
+     * @param salida Donde escribir.
+     * @param contacto El contacto.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirContactoJson(Writer salida, Contacto contacto)
+            throws IOException {
+        salida.write("{\"nombre\":");
+        escribirJson(salida, contacto.obtenerNombre());
+        salida.write(",\"dni\":");
+        escribirJson(salida, contacto.obtenerDni());
+        salida.write(",\"fechaNacimiento\":");
+        escribirJson(salida, texto(contacto.obtenerFechaNacimiento()));
+        salida.write("}\n");
+    }
+
+    /**
+     * Escribe un evento como una fila CSV.
+     *
+     * @param salida Donde escribir.
+     * @param evento El evento.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirEventoCsv(Writer salida, Evento evento)
+            throws IOException {
+        escribirCsv(salida, evento.obtenerNombreEvento());
+        salida.write(',');
+        escribirCsv(salida, texto(evento.obtenerFechaEvento()));
+        salida.write(',');
+        StringBuilder dnis = new StringBuilder();
+        for (Contacto invitado : evento.obtenerInvitadosEvento()) {
+            if (dnis.length() > 0) {
+                dnis.append(';');
+            }
+            dnis.append(invitado.obtenerDni());
+        }
+        escribirCsv(salida, dnis.length() == 0 ? null : dnis.toString());
+        salida.write('\n');
+    }
+
+    /**
+     * Escribe un evento como un objeto JSON en una línea.
+     *
+     * @param salida Donde escribir.
+     * @param evento El evento.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirEventoJson(Writer salida, Evento evento)
+            throws IOException {
+        salida.write("{\"nombre\":");
+        escribirJson(salida, evento.obtenerNombreEvento());
+        salida.write(",\"fecha\":");
+        escribirJson(salida, texto(evento.obtenerFechaEvento()));
+        salida.write(",\"invitados\":[");
+        boolean primero = true;
+        for (Contacto invitado : evento.obtenerInvitadosEvento()) {
+            if (!primero) {
+                salida.write(',');
+            }
+            escribirJson(salida, invitado.obtenerDni());
+            primero = false;
+        }
+        salida.write("]}\n");
+    }
+
+    /**
+     * Escribe los eventos como un calendario iCalendar.
+     *
+     * @param salida Donde escribir.
+     * @param eventos Los eventos.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirCalendario(Writer salida, List<Evento> eventos)
+            throws IOException {
+        String marcaDeTiempo =
+                ZonedDateTime.now(ZoneOffset.UTC).format(INSTANTE_ICALENDAR);
+        escribirLineaIcalendar(salida, "BEGIN:VCALENDAR");
+        escribirLineaIcalendar(salida, "VERSION:2.0");
+        escribirLineaIcalendar(salida, "PRODID:-//unrn//miagenda//ES");
+        for (Evento evento : eventos) {
+            String nombre = evento.obtenerNombreEvento() == null
+                    ? "" : evento.obtenerNombreEvento();
+            escribirLineaIcalendar(salida, "BEGIN:VEVENT");
+            escribirLineaIcalendar(salida, "UID:" + Integer.toHexString(nombre.hashCode())
+                    + "-" + texto(evento.obtenerFechaEvento()) + "@miagenda");
+            escribirLineaIcalendar(salida, "DTSTAMP:" + marcaDeTiempo);
+            if (evento.obtenerFechaEvento() != null) {
+                escribirLineaIcalendar(salida, "DTSTART;VALUE=DATE:"
+                        + evento.obtenerFechaEvento().format(FECHA_ICALENDAR));
+            }
+            escribirLineaIcalendar(salida, "SUMMARY:" + escaparIcalendar(nombre));
+            for (Contacto invitado : evento.obtenerInvitadosEvento()) {
+                String nombreInvitado = invitado.obtenerNombre() == null
+                        ? "" : invitado.obtenerNombre().replace('"', '\'');
+                escribirLineaIcalendar(salida, "ATTENDEE;CN=\"" + nombreInvitado
+                        + "\":urn:dni:" + invitado.obtenerDniNormalizado());
+            }
+            escribirLineaIcalendar(salida, "END:VEVENT");
+        }
+        escribirLineaIcalendar(salida, "END:VCALENDAR");
+    }
+
+    /**
+     * Escribe una línea de iCalendar, plegándola en líneas de hasta
+     * {@link #LONGITUD_LINEA_ICALENDAR} bytes.
+     *
+     * @param salida Donde escribir.
+     * @param linea La línea completa.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirLineaIcalendar(Writer salida, String linea)
+            throws IOException {
+        int bytesEnLinea = 0;
+        int i = 0;
+        while (i < linea.length()) {
+            int puntoDeCodigo = linea.codePointAt(i);
+            int caracteres = Character.charCount(puntoDeCodigo);
+            int bytes = new String(Character.toChars(puntoDeCodigo))
+                    .getBytes(StandardCharsets.UTF_8).length;
+            if (bytesEnLinea + bytes > LONGITUD_LINEA_ICALENDAR) {
+                salida.write(FIN_LINEA_ICALENDAR);
+                salida.write(' ');
+                bytesEnLinea = 1;
+            }
+            salida.write(linea, i, caracteres);
+            bytesEnLinea = bytesEnLinea + bytes;
+            i = i + caracteres;
+        }
+        salida.write(FIN_LINEA_ICALENDAR);
+    }
+
+    /**
+     * Escapa un texto para un valor de iCalendar.
+     *
+     * @param texto El texto.
+     * @return El texto escapado.
+     */
+    private static String escaparIcalendar(String texto) {
+        StringBuilder escapado = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char caracter = texto.charAt(i);
+            switch (caracter) {
+                case '\\', ';', ',' -> escapado.append('\\').append(caracter);
+                case '\n' -> escapado.append("\\n");
+                case '\r' -> {
+                    // Los saltos de línea se representan solo con \n.
+                }
+                default -> escapado.append(caracter);
+            }
+        }
+        return escapado.toString();
+    }
+
+    /**
+     * Escribe un valor CSV, entre comillas si contiene caracteres especiales.
+     * Un valor nulo se escribe vacío.
+     *
+     * @param salida Donde escribir.
+     * @param valor El valor.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirCsv(Writer salida, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        boolean requiereComillas = valor.isEmpty() || !valor.strip().equals(valor);
+        for (int i = 0; i < valor.length() && !requiereComillas; i++) {
+            char caracter = valor.charAt(i);
+            requiereComillas = caracter == ',' || caracter == '"'
+                    || caracter == '\n' || caracter == '\r';
+        }
+        if (requiereComillas) {
+            salida.write('"');
+            salida.write(valor.replace("\"", "\"\""));
+            salida.write('"');
+        } else {
+            salida.write(valor);
+        }
+    }
+
+    /**
+     * Escribe un texto JSON entre comillas, o {@code null}.
+     *
+     * @param salida Donde escribir.
+     * @param valor El texto.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirJson(Writer salida, String valor) throws IOException {
+        if (valor == null) {
+            salida.write("null");
+            return;
+        }
+        salida.write('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char caracter = valor.charAt(i);
+            switch (caracter) {
+                case '"' -> salida.write("\\\"");
+                case '\\' -> salida.write("\\\\");
+                case '\n' -> salida.write("\\n");
+                case '\r' -> salida.write("\\r");
+                case '\t' -> salida.write("\\t");
+                default -> {
+                    if (caracter < PRIMER_IMPRIMIBLE) {
+                        salida.write(String.format("\\u%04x", (int) caracter));
+                    } else {
+                        salida.write(caracter);
+                    }
+                }
+            }
+        }
+        salida.write('"');
+    }
+
+    /**
+     * Convierte una fecha en texto ISO, o {@code null}.
+     *
+     * @param fecha La fecha.
+     * @return La fecha como aaaa-mm-dd.
+     */
+    private static String texto(LocalDate fecha) {
+        return fecha == null ? null : fecha.toString();
+    }
+
+    /**
+     * Crea un escritor UTF-8 con buffer sobre un flujo.
+     *
+     * @param salida El flujo.
+     * @return El escritor.
+     */
+    private static Writer escritor(OutputStream salida) {
+        return new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Completa la compresión, si la hay, sin cerrar el flujo subyacente.
+     *
+     * @param comprimida El flujo comprimido, o {@code null}.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void terminar(GZIPOutputStream comprimida) throws IOException {
+        if (comprimida != null) {
+            comprimida.finish();
+            comprimida.flush();
+        }
+    }
+}
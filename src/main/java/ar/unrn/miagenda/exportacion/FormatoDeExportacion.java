@@ -0,0 +1,24 @@
+package ar.unrn.miagenda.exportacion;
+
+/**
+ * Formatos en los que el {@link ExportadorDeAgenda} puede escribir contactos
+ * y eventos.
+ */
+public enum FormatoDeExportacion {
+    /**
+     * Valores separados por comas, con una primera línea con los nombres de
+     * las columnas. Los contactos se escriben como nombre, DNI y fecha de
+     * nacimiento, en el formato que acepta la importación; los eventos como
+     * nombre, fecha y los DNI de sus invitados separados por punto y coma.
+     */
+    CSV,
+    /**
+     * Un objeto JSON por línea.
+     */
+    JSON_LINEAS,
+    /**
+     * Calendario iCalendar (RFC 5545), con un evento de día completo por cada
+     * evento de la agenda. Solo se admite para eventos.
+     */
+    ICALENDAR
+}
@@ -0,0 +1,297 @@
+package ar.unrn.miagenda.importacion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Separa una línea de entrada en los campos nombre, DNI y fecha de nacimiento,
+ * según el formato de importación. Los campos ausentes se devuelven nulos.
+ */
+final class AnalizadorDeFilas {
+
+    /**
+     * La cantidad de campos de una fila.
+     */
+    static final int CAMPOS = 3;
+    /**
+     * La posición del nombre entre los campos.
+     */
+    static final int NOMBRE = 0;
+    /**
+     * La posición del DNI entre los campos.
+     */
+    static final int DNI = 1;
+    /**
+     * La posición de la fecha de nacimiento entre los campos.
+     */
+    static final int FECHA_NACIMIENTO = 2;
+    /**
+     * Las claves de cada campo en las filas JSON.
+     */
+    private static final String[] CLAVES_JSON = {"nombre", "dni", "fechaNacimiento"};
+    /**
+     * La base de los escapes unicode de JSON.
+     */
+    private static final int BASE_HEXADECIMAL = 16;
+    /**
+     * La cantidad de dígitos de un escape unicode de JSON.
+     */
+    private static final int DIGITOS_UNICODE = 4;
+
+    /**
+     * Constructor privado, la clase solo expone métodos estáticos.
+     */
+    private AnalizadorDeFilas() {
+    }
+
+    /**
+     * Separa una línea según el formato indicado.
+     *
+     * @param linea La línea a separar.
+     * @param formato El formato de la línea.
+     * @return Los campos de la fila.
+     * @throws IllegalArgumentException Si la línea no respeta el formato.
+     */
+    static String[] analizar(String linea, FormatoDeImportacion formato) {
+        if (formato == FormatoDeImportacion.CSV) {
+            return analizarCsv(linea);
+        }
+        return analizarJson(linea);
+    }
+
+    /**
+     * Indica si una línea CSV es la cabecera con los nombres de las columnas.
+     *
+     * @param linea La línea a verificar.
+     * @return {@code true} si la línea es una cabecera.
+     */
+    static boolean esCabeceraCsv(String linea) {
+        String[] campos = analizarCsv(linea);
+        return "nombre".equalsIgnoreCase(campos[NOMBRE])
+                && "dni".equalsIgnoreCase(campos[DNI]);
+    }
+
+    /**
+     * Separa una línea CSV.
+     *
+     * @param linea La línea a separar.
+     * @return Los campos de la fila.
+     * @throws IllegalArgumentException Si la línea no tiene la cantidad de
+     * columnas esperada o tiene comillas sin cerrar.
+     */
+    private static String[] analizarCsv(String linea) {
+        List<String> valores = new ArrayList<>(CAMPOS);
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        boolean conComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char caracter = linea.charAt(i);
+            if (entreComillas) {
+                if (caracter != '"') {
+                    actual.append(caracter);
+                } else if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else {
+                    entreComillas = false;
+                }
+            } else if (caracter == '"' && actual.length() == 0 && !conComillas) {
+                // Solo las comillas al comienzo del campo lo delimitan.
+                entreComillas = true;
+                conComillas = true;
+            } else if (caracter == ',') {
+                valores.add(valorCsv(actual, conComillas));
+                actual.setLength(0);
+                conComillas = false;
+            } else {
+                actual.append(caracter);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        valores.add(valorCsv(actual, conComillas));
+        if (valores.size() != CAMPOS) {
+            throw new IllegalArgumentException("Se esperaban " + CAMPOS
+                    + " columnas y hay " + valores.size());
+        }
+        return valores.toArray(new String[CAMPOS]);
+    }
+
+    /**
+     * Obtiene el valor de un campo CSV, quitando los espacios exteriores de
+     * los valores sin comillas. Un valor vacío sin comillas es nulo.
+     *
+     * @param valor El contenido del campo.
+     * @param conComillas Si el campo estaba entre comillas.
+     * @return El valor del campo.
+     */
+    private static String valorCsv(StringBuilder valor, boolean conComillas) {
+        if (conComillas) {
+            return valor.toString();
+        }
+        String recortado = valor.toString().strip();
+        return recortado.isEmpty() ? null : recortado;
+    }
+
+    /**
+     * Separa una línea JSON con un objeto de un solo nivel cuyos valores son
+     * textos, números o {@code null}.
+     *
+     * @param linea La línea a separar.
+     * @return Los campos de la fila.
+     * @throws IllegalArgumentException Si la línea no es un objeto JSON válido.
+     */
+    private static String[] analizarJson(String linea) {
+        String[] campos = new String[CAMPOS];
+        int[] posicion = {saltarEspacios(linea, 0)};
+        esperar(linea, posicion, '{');
+        if (caracterActual(linea, posicion) == '}') {
+            posicion[0]++;
+        } else {
+            boolean continuar = true;
+            while (continuar) {
+                String clave = leerTextoJson(linea, posicion);
+                esperar(linea, posicion, ':');
+                String valor = leerValorJson(linea, posicion);
+                for (int i = 0; i < CAMPOS; i++) {
+                    if (CLAVES_JSON[i].equals(clave)) {
+                        campos[i] = valor;
+                    }
+                }
+                char siguiente = caracterActual(linea, posicion);
+                posicion[0]++;
+                if (siguiente == '}') {
+                    continuar = false;
+                } else if (siguiente != ',') {
+                    throw new IllegalArgumentException("Se esperaba ',' o '}' en la "
+                            + "posicion " + posicion[0]);
+                }
+            }
+        }
+        if (saltarEspacios(linea, posicion[0]) != linea.length()) {
+            throw new IllegalArgumentException("Hay contenido luego del objeto");
+        }
+        return campos;
+    }
+
+    /**
+     * Lee un valor JSON: un texto, un número, un booleano o {@code null}.
+     *
+     * @param linea La línea.
+     * @param posicion La posición actual, que se avanza.
+     * @return El valor como texto, o {@code null}.
+     */
+    private static String leerValorJson(String linea, int[] posicion) {
+        char caracter = caracterActual(linea, posicion);
+        if (caracter == '"') {
+            return leerTextoJson(linea, posicion);
+        }
+        int inicio = posicion[0];
+        int fin = inicio;
+        while (fin < linea.length() && ",}".indexOf(linea.charAt(fin)) < 0
+                && !Character.isWhitespace(linea.charAt(fin))) {
+            fin++;
+        }
+        String literal = linea.substring(inicio, fin);
+        posicion[0] = fin;
+        if (literal.isEmpty()) {
+            throw new IllegalArgumentException("Falta un valor en la posicion " + inicio);
+        }
+        return "null".equals(literal) ? null : literal;
+    }
+
+    /**
+     * Lee un texto JSON entre comillas, interpretando sus escapes.
+     *
+     * @param linea La línea.
+     * @param posicion La posición actual, que se avanza.
+     * @return El texto leído.
+     */
+    private static String leerTextoJson(String linea, int[] posicion) {
+        if (caracterActual(linea, posicion) != '"') {
+            throw new IllegalArgumentException("Se esperaba un texto en la posicion "
+                    + posicion[0]);
+        }
+        StringBuilder texto = new StringBuilder();
+        int i = posicion[0] + 1;
+        while (i < linea.length() && linea.charAt(i) != '"') {
+            char caracter = linea.charAt(i);
+            if (caracter == '\\' && i + 1 < linea.length()) {
+                i++;
+                char escape = linea.charAt(i);
+                switch (escape) {
+                    case 'b' -> texto.append('\b');
+                    case 'f' -> texto.append('\f');
+                    case 'n' -> texto.append('\n');
+                    case 'r' -> texto.append('\r');
+                    case 't' -> texto.append('\t');
+                    case 'u' -> {
+                        if (i + DIGITOS_UNICODE >= linea.length()) {
+                            throw new IllegalArgumentException("Escape unicode "
+                                    + "incompleto");
+                        }
+                        texto.append((char) Integer.parseInt(
+                                linea.substring(i + 1, i + 1 + DIGITOS_UNICODE),
+                                BASE_HEXADECIMAL));
+                        i = i + DIGITOS_UNICODE;
+                    }
+                    default -> texto.append(escape);
+                }
+            } else {
+                texto.append(caracter);
+            }
+            i++;
+        }
+        if (i >= linea.length()) {
+            throw new IllegalArgumentException("Texto sin cerrar");
+        }
+        posicion[0] = saltarEspacios(linea, i + 1);
+        return texto.toString();
+    }
+
+    /**
+     * Verifica que el próximo carácter sea el indicado y lo consume.
+     *
+     * @param linea La línea.
+     * @param posicion La posición actual, que se avanza.
+     * @param esperado El carácter esperado.
+     */
+    private static void esperar(String linea, int[] posicion, char esperado) {
+        if (caracterActual(linea, posicion) != esperado) {
+            throw new IllegalArgumentException("Se esperaba '" + esperado
+                    + "' en la posicion " + posicion[0]);
+        }
+        posicion[0] = saltarEspacios(linea, posicion[0] + 1);
+    }
+
+    /**
+     * Obtiene el carácter de la posición actual, luego de saltar espacios.
+     *
+     * @param linea La línea.
+     * @param posicion La posición actual, que se avanza hasta el carácter.
+     * @return El carácter actual.
+     */
+    private static char caracterActual(String linea, int[] posicion) {
+        posicion[0] = saltarEspacios(linea, posicion[0]);
+        if (posicion[0] >= linea.length()) {
+            throw new IllegalArgumentException("La linea termina antes de lo esperado");
+        }
+        return linea.charAt(posicion[0]);
+    }
+
+    /**
+     * Avanza sobre los espacios en blanco.
+     *
+     * @param linea La línea.
+     * @param desde La posición inicial.
+     * @return La posición del primer carácter que no es un espacio.
+     */
+    private static int saltarEspacios(String linea, int desde) {
+        int i = desde;
+        while (i < linea.length() && Character.isWhitespace(linea.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
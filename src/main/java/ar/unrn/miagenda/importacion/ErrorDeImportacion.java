@@ -0,0 +1,55 @@
+package ar.unrn.miagenda.importacion;
+
+/**
+ * Fila que no pudo importarse, junto con el motivo.
+ */
+public final class ErrorDeImportacion {
+
+    /**
+     * El número de línea de la fila, comenzando en 1.
+     */
+    private final long linea;
+    /**
+     * El motivo por el que no se importó la fila.
+     */
+    private final String mensaje;
+
+    /**
+     * Constructor que crea un error para la línea indicada.
+     *
+     * @param numeroLinea El número de línea de la fila, comenzando en 1.
+     * @param mensajeError El motivo por el que no se importó la fila.
+     */
+    public ErrorDeImportacion(long numeroLinea, String mensajeError) {
+        this.linea = numeroLinea;
+        this.mensaje = mensajeError;
+    }
+
+    /**
+     * Obtiene el número de línea de la fila.
+     *
+     * @return El número de línea, comenzando en 1.
+     */
+    public long obtenerLinea() {
+        return this.linea;
+    }
+
+    /**
+     * Obtiene el motivo por el que no se importó la fila.
+     *
+     * @return El mensaje de error.
+     */
+    public String obtenerMensaje() {
+        return this.mensaje;
+    }
+
+    /**
+     * Devuelve una representación en forma de cadena del error.
+     *
+     * @return La línea y el motivo del error.
+     */
+    @Override
+    public String toString() {
+        return "Linea " + this.linea + ": " + this.mensaje;
+    }
+}
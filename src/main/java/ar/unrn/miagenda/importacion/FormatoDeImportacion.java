@@ -0,0 +1,21 @@
+package ar.unrn.miagenda.importacion;
+
+/**
+ * Formatos de archivo que acepta el {@link ImportadorDeContactos}. En ambos
+ * casos cada contacto ocupa exactamente una línea.
+ */
+public enum FormatoDeImportacion {
+    /**
+     * Valores separados por comas, en el orden nombre, DNI y fecha de
+     * nacimiento (aaaa-mm-dd). Los valores pueden ir entre comillas dobles,
+     * duplicando las comillas internas. Una primera línea con los nombres de
+     * las columnas se ignora.
+     */
+    CSV,
+    /**
+     * Un objeto JSON por línea, con las claves {@code nombre}, {@code dni} y
+     * {@code fechaNacimiento}. Las claves ausentes o nulas se toman como
+     * valores vacíos y las claves desconocidas se ignoran.
+     */
+    JSON_LINEAS
+}
@@ -0,0 +1,237 @@
+package ar.unrn.miagenda.importacion;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Importa contactos a una agenda desde un flujo CSV o JSON por líneas.
+ * <p>
+ * La entrada se lee por lotes de líneas: las líneas de cada lote se
+ * interpretan en paralelo y luego, en orden, se descartan las filas inválidas
+ * y las de DNI ya agendado o repetido, y se agregan las restantes a la agenda
+ * con una sola llamada a {@link IAgenda#agregarContactos}.
+ * Como solo hay un lote en memoria a la vez, el consumo de memoria no depende
+ * del tamaño de la entrada. Las filas descartadas no interrumpen la
+ * importación: se informan en el {@link InformeDeImportacion}.
+ */
+public class ImportadorDeContactos {
+
+    /**
+     * La cantidad de líneas por lote por defecto.
+     */
+    public static final int LINEAS_POR_LOTE = 10_000;
+
+    /**
+     * La agenda donde se importan los contactos.
+     */
+    private final IAgenda destino;
+    /**
+     * La cantidad de líneas por lote.
+     */
+    private final int lineasPorLote;
+
+    /**
+     * Constructor que crea un importador con lotes del tamaño indicado.
+     *
+     * @param agenda La agenda donde se importan los contactos.
+     * @param tamanioLote La cantidad de líneas por lote.
+     */
+    public ImportadorDeContactos(IAgenda agenda, int tamanioLote) {
+        if (tamanioLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser positivo");
+        }
+        this.destino = agenda;
+        this.lineasPorLote = tamanioLote;
+    }
+
+    /**
+     * Constructor que crea un importador con lotes de {@link #LINEAS_POR_LOTE}
+     * líneas.
+     *
+     * @param agenda La agenda donde se importan los contactos.
+     */
+    public ImportadorDeContactos(IAgenda agenda) {
+        this(agenda, LINEAS_POR_LOTE);
+    }
+
+    /**
+     * Importa los contactos de un archivo codificado en UTF-8.
+     *
+     * @param archivo La ubicación del archivo.
+     * @param formato El formato del archivo.
+     * @return El informe de la importación.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    public InformeDeImportacion importar(Path archivo, FormatoDeImportacion formato)
+            throws IOException {
+        try (BufferedReader lector =
+                     Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            return importar(lector, formato);
+        }
+    }
+
+    /**
+     * Importa los contactos de un flujo codificado en UTF-8. El flujo no se
+     * cierra al terminar.
+     *
+     * @param entrada El flujo de entrada.
+     * @param formato El formato del flujo.
+     * @return El informe de la importación.
+     * @throws IOException Si no se puede leer el flujo.
+     */
+    public InformeDeImportacion importar(InputStream entrada,
+                                         FormatoDeImportacion formato)
+            throws IOException {
+        return importar(new BufferedReader(
+                new InputStreamReader(entrada, StandardCharsets.UTF_8)), formato);
+    }
+
+    /**
+     * Importa los contactos leyendo la entrada por lotes.
+     *
+     * @param lector El lector de la entrada.
+     * @param formato El formato de la entrada.
+     * @return El informe de la importación.
+     * @throws IOException Si no se puede leer la entrada.
+     */
+    private InformeDeImportacion importar(BufferedReader lector,
+                                          FormatoDeImportacion formato)
+            throws IOException {
+        InformeDeImportacion informe = new InformeDeImportacion();
+        List<String> lote = new ArrayList<>(this.lineasPorLote);
+        long primeraLinea = 1;
+        String linea = lector.readLine();
+        if (linea != null && formato == FormatoDeImportacion.CSV
+                && esCabecera(linea)) {
+            primeraLinea++;
+            linea = lector.readLine();
+        }
+        while (linea != null) {
+            lote.add(linea);
+            if (lote.size() == this.lineasPorLote) {
+                procesarLote(lote, primeraLinea, formato, informe);
+                primeraLinea = primeraLinea + lote.size();
+                lote.clear();
+            }
+            linea = lector.readLine();
+        }
+        procesarLote(lote, primeraLinea, formato, informe);
+        return informe;
+    }
+
+    /**
+     * Interpreta en paralelo las líneas de un lote y agrega a la agenda, en
+     * una sola operación, los contactos válidos que no estaban agendados.
+     *
+     * @param lote Las líneas del lote.
+     * @param primeraLinea El número de línea de la primera línea del lote.
+     * @param formato El formato de las líneas.
+     * @param informe El informe donde se registra el resultado.
+     */
+    private void procesarLote(List<String> lote, long primeraLinea,
+                              FormatoDeImportacion formato,
+                              InformeDeImportacion informe) {
+        List<Object> filas = IntStream.range(0, lote.size()).parallel()
+                .mapToObj(i -> interpretar(lote.get(i), formato))
+                .collect(Collectors.toList());
+        Set<String> dnisDelLote = new HashSet<>();
+        List<Contacto> nuevos = new ArrayList<>(filas.size());
+        List<Long> lineasNuevos = new ArrayList<>(filas.size());
+        for (int i = 0; i < filas.size(); i++) {
+            long numeroLinea = primeraLinea + i;
+            Object fila = filas.get(i);
+            if (fila instanceof String error) {
+                if (!error.isEmpty()) {
+                    informe.registrarError(numeroLinea, error);
+                }
+                continue;
+            }
+            Contacto contacto = (Contacto) fila;
+            if (!dnisDelLote.add(contacto.obtenerDniNormalizado())
+                    || this.destino.verificarExistenciaContacto(contacto)) {
+                informe.registrarDuplicado(numeroLinea, "Ya existe un contacto con el "
+                        + "DNI " + contacto.obtenerDni());
+                continue;
+            }
+            nuevos.add(contacto);
+            lineasNuevos.add(numeroLinea);
+        }
+        try {
+            this.destino.agregarContactos(nuevos);
+            informe.registrarImportados(nuevos.size());
+        } catch (ContactoDuplicadoException e) {
+            // Otro hilo agregó alguno de los contactos luego de la validación:
+            // se agregan de a uno para descartar solo los duplicados.
+            for (int i = 0; i < nuevos.size(); i++) {
+                try {
+                    this.destino.agregarContacto(nuevos.get(i));
+                    informe.registrarImportado();
+                } catch (ContactoDuplicadoException duplicado) {
+                    informe.registrarDuplicado(lineasNuevos.get(i),
+                            duplicado.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Interpreta una línea como un contacto.
+     *
+     * @param linea La línea a interpretar.
+     * @param formato El formato de la línea.
+     * @return El contacto, o el motivo por el que la línea no es válida; una
+     * cadena vacía indica una línea en blanco, que se ignora.
+     */
+    private static Object interpretar(String linea, FormatoDeImportacion formato) {
+        if (linea.isBlank()) {
+            return "";
+        }
+        try {
+            String[] campos = AnalizadorDeFilas.analizar(linea, formato);
+            String dni = campos[AnalizadorDeFilas.DNI];
+            if (dni == null || dni.isBlank()) {
+                return "Falta el DNI";
+            }
+            String fecha = campos[AnalizadorDeFilas.FECHA_NACIMIENTO];
+            LocalDate nacimiento = fecha == null || fecha.isBlank()
+                    ? null : LocalDate.parse(fecha.strip());
+            return new Contacto(campos[AnalizadorDeFilas.NOMBRE], dni.strip(),
+                    nacimiento);
+        } catch (DateTimeParseException e) {
+            return "Fecha de nacimiento invalida: " + e.getParsedString();
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Indica si una línea CSV es una cabecera.
+     *
+     * @param linea La primera línea de la entrada.
+     * @return {@code true} si la línea es una cabecera.
+     */
+    private static boolean esCabecera(String linea) {
+        try {
+            return AnalizadorDeFilas.esCabeceraCsv(linea);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
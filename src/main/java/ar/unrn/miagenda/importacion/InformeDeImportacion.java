@@ -0,0 +1,125 @@
+package ar.unrn.miagenda.importacion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una importación: cuántas filas se importaron y cuáles se
+ * descartaron. Para que el informe ocupe memoria acotada, solo se conservan
+ * los primeros {@link #MAXIMO_ERRORES} errores; el resto solo se cuenta.
+ */
+public final class InformeDeImportacion {
+
+    /**
+     * La cantidad máxima de errores que se conservan.
+     */
+    public static final int MAXIMO_ERRORES = 1_000;
+
+    /**
+     * La cantidad de contactos agregados a la agenda.
+     */
+    private long importados;
+    /**
+     * La cantidad de filas descartadas por tener un DNI ya agendado o
+     * repetido en el archivo.
+     */
+    private long duplicados;
+    /**
+     * La cantidad total de filas descartadas.
+     */
+    private long cantidadErrores;
+    /**
+     * Los primeros errores encontrados.
+     */
+    private final List<ErrorDeImportacion> errores = new ArrayList<>();
+
+    /**
+     * Obtiene la cantidad de contactos agregados a la agenda.
+     *
+     * @return La cantidad de contactos importados.
+     */
+    public long obtenerImportados() {
+        return this.importados;
+    }
+
+    /**
+     * Obtiene la cantidad de filas descartadas por tener un DNI ya agendado o
+     * repetido dentro del archivo.
+     *
+     * @return La cantidad de filas duplicadas.
+     */
+    public long obtenerDuplicados() {
+        return this.duplicados;
+    }
+
+    /**
+     * Obtiene la cantidad total de filas descartadas, incluidas las duplicadas.
+     *
+     * @return La cantidad de errores.
+     */
+    public long obtenerCantidadErrores() {
+        return this.cantidadErrores;
+    }
+
+    /**
+     * Obtiene los primeros errores encontrados, en orden de línea.
+     *
+     * @return Una lista de solo lectura con, como máximo, {@link #MAXIMO_ERRORES}
+     * errores.
+     */
+    public List<ErrorDeImportacion> obtenerErrores() {
+        return Collections.unmodifiableList(this.errores);
+    }
+
+    /**
+     * Registra un contacto importado.
+     */
+    void registrarImportado() {
+        this.importados++;
+    }
+
+    /**
+     * Registra varios contactos importados.
+     *
+     * @param cantidad La cantidad de contactos importados.
+     */
+    void registrarImportados(int cantidad) {
+        this.importados = this.importados + cantidad;
+    }
+
+    /**
+     * Registra una fila duplicada.
+     *
+     * @param linea El número de línea de la fila.
+     * @param mensaje El motivo del descarte.
+     */
+    void registrarDuplicado(long linea, String mensaje) {
+        this.duplicados++;
+        registrarError(linea, mensaje);
+    }
+
+    /**
+     * Registra una fila descartada.
+     *
+     * @param linea El número de línea de la fila.
+     * @param mensaje El motivo del descarte.
+     */
+    void registrarError(long linea, String mensaje) {
+        this.cantidadErrores++;
+        if (this.errores.size() < MAXIMO_ERRORES) {
+            this.errores.add(new ErrorDeImportacion(linea, mensaje));
+        }
+    }
+
+    /**
+     * Devuelve un resumen del informe.
+     *
+     * @return La cantidad de filas importadas, duplicadas y con errores.
+     */
+    @Override
+    public String toString() {
+        return "Importados: " + this.importados + ", duplicados: " + this.duplicados
+                + ", errores: " + this.cantidadErrores;
+    }
+}
@@ -0,0 +1,715 @@
+package ar.unrn.miagenda.metricas;
+
+import ar.unrn.miagenda.agenda.AgendaDelegada;
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.agenda.InstantaneaAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Agenda que mide cada operación de otra agenda: registra su duración en un
+ * {@link Histograma}, cuenta sus llamadas y sus errores, y cuenta las
+ * excepciones lanzadas por tipo. Las métricas se consultan con
+ * {@link #obtenerMetricas()}, que además permite publicarlas por JMX o
+ * enviarlas a un {@link ExportadorDeMetricas}.
+ * <p>
+ * Medir una llamada solo agrega dos lecturas del reloj y algunos
+ * incrementos de contadores, sin crear objetos. La agenda instrumentada es
+ * segura para el acceso concurrente si lo es la agenda envuelta.
+ */
+public class AgendaInstrumentada extends AgendaDelegada {
+
+    /**
+     * Las métricas de la agenda.
+     */
+    private final MetricasDeAgenda metricas;
+
+    /**
+     * Constructor que instrumenta la agenda indicada.
+     *
+     * @param agenda La agenda a medir.
+     */
+    public AgendaInstrumentada(IAgenda agenda) {
+        super(agenda);
+        this.metricas = new MetricasDeAgenda(agenda);
+    }
+
+    /**
+     * Obtiene las métricas de la agenda.
+     *
+     * @return Las métricas.
+     */
+    public MetricasDeAgenda obtenerMetricas() {
+        return this.metricas;
+    }
+
+    /**
+     * Agrega un contacto a la agenda.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     */
+    @Override
+    public void agregarContacto(Contacto contacto) throws ContactoDuplicadoException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            super.agregarContacto(contacto);
+            completa = true;
+        } catch (ContactoDuplicadoException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.AGREGAR_CONTACTO, inicio, completa);
+        }
+    }
+
+    /**
+     * Agrega varios contactos a la agenda.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     */
+    @Override
+    public void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            super.agregarContactos(nuevos);
+            completa = true;
+        } catch (ContactoDuplicadoException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.AGREGAR_CONTACTOS, inicio, completa);
+        }
+    }
+
+    /**
+     * Elimina un contacto de la agenda.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * el contacto en la agenda
+     */
+    @Override
+    public void eliminarContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            super.eliminarContacto(contacto);
+            completa = true;
+        } catch (ContactoNoEncontradoEnAgendaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.ELIMINAR_CONTACTO, inicio, completa);
+        }
+    }
+
+    /**
+     * Busca un contacto en la agenda por su nombre.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
+     * contacto con el nombre especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorNombre(String nombre)
+            throws ContactoNoEncontradoEnAgendaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            Contacto resultado = super.buscarContactoPorNombre(nombre);
+            completa = true;
+            return resultado;
+        } catch (ContactoNoEncontradoEnAgendaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.BUSCAR_CONTACTO_POR_NOMBRE,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Busca los contactos cuyo nombre comienza con el prefijo indicado.
+     *
+     * @param prefijo El comienzo del nombre a buscar.
+     * @param cantidadMaxima La cantidad máxima de contactos a devolver.
+     * @return Los contactos encontrados, ordenados por nombre.
+     */
+    @Override
+    public List<Contacto> buscarContactosPorPrefijo(String prefijo, int cantidadMaxima) {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Contacto> resultado =
+                    super.buscarContactosPorPrefijo(prefijo, cantidadMaxima);
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.BUSCAR_CONTACTOS_POR_PREFIJO,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Busca un contacto en la agenda por su DNI.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * un contacto con el DNI especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorDni(String dni)
+            throws ContactoNoEncontradoEnAgendaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            Contacto resultado = super.buscarContactoPorDni(dni);
+            completa = true;
+            return resultado;
+        } catch (ContactoNoEncontradoEnAgendaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.BUSCAR_CONTACTO_POR_DNI,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una lista de contactos ordenada por fecha de nacimiento.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento()
+            throws AgendaDeContactosVaciaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Contacto> resultado = super.listarContactosPorNacimiento();
+            completa = true;
+            return resultado;
+        } catch (AgendaDeContactosVaciaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.LISTAR_CONTACTOS_POR_NACIMIENTO,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Contacto> resultado =
+                    super.listarContactosPorNacimiento(desde, cantidad);
+            completa = true;
+            return resultado;
+        } catch (AgendaDeContactosVaciaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.LISTAR_CONTACTOS_POR_NACIMIENTO,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una lista de contactos ordenada por nombre.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre()
+            throws AgendaDeContactosVaciaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Contacto> resultado = super.listarContactosPorNombre();
+            completa = true;
+            return resultado;
+        } catch (AgendaDeContactosVaciaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.LISTAR_CONTACTOS_POR_NOMBRE,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una lista con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Contacto> resultado = super.listarContactosPorNombre(desde, cantidad);
+            completa = true;
+            return resultado;
+        } catch (AgendaDeContactosVaciaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.LISTAR_CONTACTOS_POR_NOMBRE,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Obtiene la cantidad total de contactos en la agenda.
+     *
+     * @return El número total de contactos.
+     */
+    @Override
+    public int cantidadTotalContactos() {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            int resultado = super.cantidadTotalContactos();
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.CANTIDAD_TOTAL_CONTACTOS,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Verifica si un contacto ya existe en la agenda.
+     *
+     * @param contacto El contacto a verificar.
+     * @return {@code true} si el contacto ya existe, {@code false} en caso contrario.
+     */
+    @Override
+    public boolean verificarExistenciaContacto(Contacto contacto) {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            boolean resultado = super.verificarExistenciaContacto(contacto);
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.VERIFICAR_EXISTENCIA_CONTACTO,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Limpia todos los contactos y eventos de la agenda.
+     */
+    @Override
+    public void limpiarAgenda() {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            super.limpiarAgenda();
+            completa = true;
+        } finally {
+            this.metricas.registrar(OperacionMedida.LIMPIAR_AGENDA, inicio, completa);
+        }
+    }
+
+    /**
+     * Crea un evento en la agenda.
+     *
+     * @param evento El evento a ser creado.
+     * @throws EventoDuplicadoException Si el evento ya existe.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEvento(Evento evento)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            super.crearEvento(evento);
+            completa = true;
+        } catch (EventoDuplicadoException | ContactoNoEncontradoEnAgendaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.CREAR_EVENTO, inicio, completa);
+        }
+    }
+
+    /**
+     * Crea varios eventos en la agenda.
+     *
+     * @param nuevos Los eventos a ser creados, en orden.
+     * @throws EventoDuplicadoException Si algún evento ya existe o se repite
+     * dentro del lote.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public void crearEventos(Collection<Evento> nuevos)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            super.crearEventos(nuevos);
+            completa = true;
+        } catch (EventoDuplicadoException | ContactoNoEncontradoEnAgendaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.CREAR_EVENTOS, inicio, completa);
+        }
+    }
+
+    /**
+     * Agrega un contacto a la lista de invitados del evento.
+     *
+     * @param evento El evento en el cual se quiere agregar un invitado.
+     * @param contacto El contacto a agregar.
+     * @throws ContactoYaInvitadoException si el contacto ya esta invitado.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra el
+     * contacto en la agenda.
+     */
+    @Override
+    public void agregarInvitadoEvento(Evento evento, Contacto contacto)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            super.agregarInvitadoEvento(evento, contacto);
+            completa = true;
+        } catch (ContactoYaInvitadoException | EventoNoEncontradoException
+                | ContactoNoEncontradoEnAgendaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.AGREGAR_INVITADO_EVENTO,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Agrega varios contactos a la lista de invitados del evento.
+     *
+     * @param evento El evento en el cual se quieren agregar los invitados.
+     * @param nuevosInvitados Los contactos a agregar, en orden.
+     * @throws ContactoYaInvitadoException si algún contacto ya esta invitado o
+     * se repite dentro del lote.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public void agregarInvitadosEvento(Evento evento,
+                                       Collection<Contacto> nuevosInvitados)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            super.agregarInvitadosEvento(evento, nuevosInvitados);
+            completa = true;
+        } catch (ContactoYaInvitadoException | EventoNoEncontradoException
+                | ContactoNoEncontradoEnAgendaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.AGREGAR_INVITADOS_EVENTO,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Elimina un contacto de la lista de invitados del evento.
+     *
+     * @param evento El evento del cual se quiere quitar un invitado.
+     * @param contacto El contacto a eliminar.
+     * @throws ContactoNoEncontradoEnEventoException Si no se encuentra un contacto.
+     * @throws EventoNoEncontradoException Si el evento no se encuentra en la agenda.
+     */
+    @Override
+    public void quitarInvitadoEvento(Evento evento, Contacto contacto)
+            throws EventoNoEncontradoException, ContactoNoEncontradoEnEventoException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            super.quitarInvitadoEvento(evento, contacto);
+            completa = true;
+        } catch (EventoNoEncontradoException | ContactoNoEncontradoEnEventoException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.QUITAR_INVITADO_EVENTO,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventosDeContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Evento> resultado = super.listarEventosDeContacto(contacto);
+            completa = true;
+            return resultado;
+        } catch (ContactoNoEncontradoEnAgendaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.LISTAR_EVENTOS_DE_CONTACTO,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista todos los eventos de la agenda.
+     *
+     * @return Una lista de eventos registrados en la agenda.
+     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventos() throws AgendaDeEventosVaciaException {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Evento> resultado = super.listarEventos();
+            completa = true;
+            return resultado;
+        } catch (AgendaDeEventosVaciaException e) {
+            this.metricas.registrarExcepcion(e);
+            throw e;
+        } finally {
+            this.metricas.registrar(OperacionMedida.LISTAR_EVENTOS, inicio, completa);
+        }
+    }
+
+    /**
+     * Busca un contacto por su DNI sin lanzar excepciones si no existe.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorDni(String dni) {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            Optional<Contacto> resultado = super.consultarContactoPorDni(dni);
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.CONSULTAR_CONTACTO_POR_DNI,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Busca un contacto por su nombre sin lanzar excepciones si no existe.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorNombre(String nombre) {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            Optional<Contacto> resultado = super.consultarContactoPorNombre(nombre);
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.CONSULTAR_CONTACTO_POR_NOMBRE,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Los contactos ordenados, vacío si la agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento() {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Contacto> resultado = super.consultarContactosPorNacimiento();
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.CONSULTAR_CONTACTOS_POR_NACIMIENTO,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Los contactos de la porción pedida, vacío si no hay ninguno.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento(int desde, int cantidad) {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Contacto> resultado =
+                    super.consultarContactosPorNacimiento(desde, cantidad);
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.CONSULTAR_CONTACTOS_POR_NACIMIENTO,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Los contactos ordenados, vacío si la agenda no tiene contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre() {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Contacto> resultado = super.consultarContactosPorNombre();
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.CONSULTAR_CONTACTOS_POR_NOMBRE,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Los contactos de la porción pedida, vacío si no hay ninguno.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre(int desde, int cantidad) {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Contacto> resultado = super.consultarContactosPorNombre(desde, cantidad);
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.CONSULTAR_CONTACTOS_POR_NOMBRE,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno o
+     * no se encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> consultarEventosDeContacto(Contacto contacto) {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Evento> resultado = super.consultarEventosDeContacto(contacto);
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.CONSULTAR_EVENTOS_DE_CONTACTO,
+                    inicio, completa);
+        }
+    }
+
+    /**
+     * Lista todos los eventos de la agenda.
+     *
+     * @return Los eventos de la agenda, vacío si no hay ninguno.
+     */
+    @Override
+    public List<Evento> consultarEventos() {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            List<Evento> resultado = super.consultarEventos();
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.CONSULTAR_EVENTOS, inicio, completa);
+        }
+    }
+
+    /**
+     * Toma una instantánea inmutable del contenido de la agenda.
+     *
+     * @return La instantánea de la agenda.
+     */
+    @Override
+    public InstantaneaAgenda tomarInstantanea() {
+        long inicio = System.nanoTime();
+        boolean completa = false;
+        try {
+            InstantaneaAgenda resultado = super.tomarInstantanea();
+            completa = true;
+            return resultado;
+        } finally {
+            this.metricas.registrar(OperacionMedida.TOMAR_INSTANTANEA, inicio, completa);
+        }
+    }
+}
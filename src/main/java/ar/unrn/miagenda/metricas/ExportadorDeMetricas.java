@@ -0,0 +1,21 @@
+package ar.unrn.miagenda.metricas;
+
+import java.io.IOException;
+
+/**
+ * Destino al que se envían las métricas de una agenda, por ejemplo un
+ * archivo, un sistema de monitoreo o el registro de la aplicación. Cada
+ * llamada recibe las métricas vigentes, que el exportador puede leer sin
+ * detener la agenda.
+ */
+@FunctionalInterface
+public interface ExportadorDeMetricas {
+
+    /**
+     * Exporta las métricas de una agenda.
+     *
+     * @param metricas Las métricas a exportar.
+     * @throws IOException Si falla la escritura en el destino.
+     */
+    void exportar(MetricasDeAgenda metricas) throws IOException;
+}
@@ -0,0 +1,111 @@
+package ar.unrn.miagenda.metricas;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Exportador que escribe las métricas como texto, una por línea, en el
+ * formato de exposición de Prometheus: el nombre de la métrica, sus
+ * etiquetas entre llaves y su valor. Las operaciones sin llamadas se omiten.
+ * Por ejemplo:
+ * <pre>
+ * miagenda_llamadas_total{operacion="buscarContactoPorDni"} 120
+ * miagenda_latencia_nanos{operacion="buscarContactoPorDni",percentil="99"} 2047
+ * miagenda_contactos 1000
+ * </pre>
+ */
+public final class ExportadorDeTexto implements ExportadorDeMetricas {
+
+    /**
+     * Los percentiles que se exportan de cada histograma.
+     */
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+    /**
+     * El destino del texto.
+     */
+    private final Appendable destino;
+
+    /**
+     * Constructor que escribe las métricas en el destino indicado.
+     *
+     * @param salida El destino del texto.
+     */
+    public ExportadorDeTexto(Appendable salida) {
+        this.destino = salida;
+    }
+
+    /**
+     * Escribe las métricas de una agenda.
+     *
+     * @param metricas Las métricas a exportar.
+     * @throws IOException Si falla la escritura en el destino.
+     */
+    @Override
+    public void exportar(MetricasDeAgenda metricas) throws IOException {
+        for (OperacionMedida operacion : OperacionMedida.values()) {
+            long llamadas = metricas.llamadas(operacion);
+            if (llamadas > 0) {
+                String etiqueta = "operacion=\"" + operacion.obtenerMetodo() + "\"";
+                escribir("miagenda_llamadas_total", etiqueta, llamadas);
+                escribir("miagenda_errores_total", etiqueta, metricas.errores(operacion));
+                escribirHistograma("miagenda_latencia_nanos", etiqueta + ",",
+                        metricas.latencia(operacion));
+            }
+        }
+        for (Map.Entry<String, Long> excepcion : metricas.excepciones().entrySet()) {
+            escribir("miagenda_excepciones_total", "tipo=\"" + excepcion.getKey() + "\"",
+                    excepcion.getValue());
+        }
+        escribir("miagenda_contactos", null, metricas.cantidadContactos());
+        escribir("miagenda_eventos", null, metricas.cantidadEventos());
+        escribirHistograma("miagenda_invitados_por_evento", "",
+                metricas.invitadosPorEvento());
+    }
+
+    /**
+     * Escribe los percentiles y el máximo de un histograma.
+     *
+     * @param nombre El nombre de la métrica.
+     * @param etiquetas Las etiquetas comunes, terminadas en coma, o vacías.
+     * @param histograma El histograma.
+     * @throws IOException Si falla la escritura en el destino.
+     */
+    private void escribirHistograma(String nombre, String etiquetas,
+                                    Histograma histograma) throws IOException {
+        for (double percentil : PERCENTILES) {
+            escribir(nombre, etiquetas + "percentil=\"" + formatear(percentil) + "\"",
+                    histograma.valorEnPercentil(percentil));
+        }
+        escribir(nombre + "_maximo", etiquetas.isEmpty() ? null
+                : etiquetas.substring(0, etiquetas.length() - 1), histograma.maximo());
+    }
+
+    /**
+     * Escribe una línea con el valor de una métrica.
+     *
+     * @param nombre El nombre de la métrica.
+     * @param etiquetas Las etiquetas, o {@code null} si no tiene.
+     * @param valor El valor.
+     * @throws IOException Si falla la escritura en el destino.
+     */
+    private void escribir(String nombre, String etiquetas, long valor)
+            throws IOException {
+        this.destino.append(nombre);
+        if (etiquetas != null) {
+            this.destino.append('{').append(etiquetas).append('}');
+        }
+        this.destino.append(' ').append(Long.toString(valor)).append('\n');
+    }
+
+    /**
+     * Escribe un percentil sin decimales innecesarios.
+     *
+     * @param percentil El percentil.
+     * @return El percentil escrito.
+     */
+    private static String formatear(double percentil) {
+        long entero = (long) percentil;
+        return entero == percentil ? Long.toString(entero) : Double.toString(percentil);
+    }
+}
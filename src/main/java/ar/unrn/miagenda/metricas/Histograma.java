@@ -0,0 +1,184 @@
+package ar.unrn.miagenda.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de valores no negativos con precisión relativa fija, al estilo
+ * de HdrHistogram. Los valores menores que {@code 2 * SUBCUBETAS} se cuentan
+ * exactos; los demás se agrupan en cubetas cuyo ancho crece con el valor, de
+ * modo que el error relativo de cualquier percentil es menor que
+ * {@code 1 / SUBCUBETAS}, alrededor del tres por ciento.
+ * <p>
+ * Todas las cubetas se reservan al crear el histograma, por lo que registrar
+ * un valor no crea objetos: solo incrementa un contador. Es seguro registrar
+ * valores desde varios hilos a la vez; las lecturas son aproximadas mientras
+ * haya registros en curso.
+ */
+public final class Histograma {
+
+    /**
+     * La cantidad de bits de precisión dentro de cada potencia de dos.
+     */
+    private static final int BITS_DE_PRECISION = 5;
+    /**
+     * La cantidad de cubetas en que se divide cada potencia de dos.
+     */
+    private static final int SUBCUBETAS = 1 << BITS_DE_PRECISION;
+    /**
+     * La cantidad total de cubetas, suficiente para cualquier {@code long}
+     * no negativo.
+     */
+    private static final int CUBETAS =
+            (Long.SIZE - 1 - BITS_DE_PRECISION) * SUBCUBETAS + 2 * SUBCUBETAS;
+    /**
+     * El total de un percentil expresado en por ciento.
+     */
+    private static final double CIEN = 100.0;
+
+    /**
+     * La cantidad de valores de cada cubeta.
+     */
+    private final AtomicLongArray cubetas;
+    /**
+     * La cantidad de valores registrados.
+     */
+    private final LongAdder cantidad;
+    /**
+     * La suma de los valores registrados.
+     */
+    private final LongAdder suma;
+    /**
+     * El mayor valor registrado.
+     */
+    private final AtomicLong maximo;
+
+    /**
+     * Constructor que crea un histograma vacío.
+     */
+    public Histograma() {
+        this.cubetas = new AtomicLongArray(CUBETAS);
+        this.cantidad = new LongAdder();
+        this.suma = new LongAdder();
+        this.maximo = new AtomicLong();
+    }
+
+    /**
+     * Registra un valor. Los valores negativos se registran como cero.
+     *
+     * @param valor El valor a registrar.
+     */
+    public void registrar(long valor) {
+        long positivo = Math.max(valor, 0);
+        this.cubetas.incrementAndGet(cubeta(positivo));
+        this.cantidad.increment();
+        this.suma.add(positivo);
+        if (positivo > this.maximo.get()) {
+            this.maximo.accumulateAndGet(positivo, Math::max);
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de valores registrados.
+     *
+     * @return La cantidad de valores.
+     */
+    public long cantidad() {
+        return this.cantidad.sum();
+    }
+
+    /**
+     * Obtiene el mayor valor registrado.
+     *
+     * @return El mayor valor, o cero si no hay ninguno.
+     */
+    public long maximo() {
+        return this.maximo.get();
+    }
+
+    /**
+     * Obtiene el promedio de los valores registrados.
+     *
+     * @return El promedio, o cero si no hay ninguno.
+     */
+    public double promedio() {
+        long registrados = this.cantidad.sum();
+        return registrados == 0 ? 0 : (double) this.suma.sum() / registrados;
+    }
+
+    /**
+     * Obtiene el valor por debajo del cual se encuentra el porcentaje
+     * indicado de los valores registrados. El resultado es el mayor valor
+     * de la cubeta que contiene el percentil, sin superar el máximo
+     * registrado.
+     *
+     * @param percentil El percentil, entre cero y cien.
+     * @return El valor del percentil, o cero si no hay valores.
+     * @throws IllegalArgumentException Si el percentil está fuera de rango.
+     */
+    public long valorEnPercentil(double percentil) {
+        if (!(percentil >= 0 && percentil <= CIEN)) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100");
+        }
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            total = total + this.cubetas.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long buscado = Math.max(1, (long) Math.ceil(percentil / CIEN * total));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado = acumulado + this.cubetas.get(i);
+            if (acumulado >= buscado) {
+                return Math.min(limiteSuperior(i), this.maximo.get());
+            }
+        }
+        return this.maximo.get();
+    }
+
+    /**
+     * Descarta todos los valores registrados. Los registros concurrentes con
+     * esta operación pueden conservarse o perderse.
+     */
+    public void reiniciar() {
+        for (int i = 0; i < CUBETAS; i++) {
+            this.cubetas.set(i, 0);
+        }
+        this.cantidad.reset();
+        this.suma.reset();
+        this.maximo.set(0);
+    }
+
+    /**
+     * Calcula la cubeta de un valor no negativo.
+     *
+     * @param valor El valor.
+     * @return La posición de su cubeta.
+     */
+    private static int cubeta(long valor) {
+        if (valor < 2 * SUBCUBETAS) {
+            return (int) valor;
+        }
+        int desplazamiento = Long.SIZE - 1 - Long.numberOfLeadingZeros(valor)
+                - BITS_DE_PRECISION;
+        return desplazamiento * SUBCUBETAS + (int) (valor >>> desplazamiento);
+    }
+
+    /**
+     * Calcula el mayor valor que corresponde a una cubeta.
+     *
+     * @param cubeta La posición de la cubeta.
+     * @return El mayor valor de la cubeta.
+     */
+    private static long limiteSuperior(int cubeta) {
+        if (cubeta < 2 * SUBCUBETAS) {
+            return cubeta;
+        }
+        int desplazamiento = cubeta / SUBCUBETAS - 1;
+        long mantisa = cubeta % SUBCUBETAS + SUBCUBETAS;
+        return ((mantisa + 1) << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,430 @@
+package ar.unrn.miagenda.metricas;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.agenda.InstantaneaAgenda;
+import ar.unrn.miagenda.evento.Evento;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Métricas de una {@link AgendaInstrumentada}: la duración de cada operación,
+ * la cantidad de llamadas y de errores por operación, la cantidad de
+ * excepciones por tipo y los indicadores de tamaño de la agenda.
+ * <p>
+ * Registrar una llamada no crea objetos, por lo que las métricas pueden
+ * mantenerse activas en producción. Los indicadores de tamaño, en cambio, se
+ * leen de una instantánea de la agenda medida, de modo que no compiten con
+ * quienes la modifican y los tres son coherentes entre sí. La distribución de
+ * invitados recorre todos los eventos, pero se calcula una única vez por
+ * versión de la agenda: las consultas siguientes, y los demás indicadores de
+ * la misma exportación, la reutilizan mientras la agenda no cambie.
+ * <p>
+ * Las métricas pueden publicarse por JMX con {@link #registrarEnJmx(String)}
+ * o enviarse a cualquier destino con un {@link ExportadorDeMetricas}. Es
+ * seguro usarlas desde varios hilos a la vez.
+ */
+public final class MetricasDeAgenda implements MetricasDeAgendaMXBean {
+
+    /**
+     * El dominio de los nombres JMX de las métricas.
+     */
+    public static final String DOMINIO_JMX = "ar.unrn.miagenda";
+    /**
+     * El percentil de la mediana.
+     */
+    private static final double MEDIANA = 50.0;
+    /**
+     * El percentil 99.
+     */
+    private static final double PERCENTIL_99 = 99.0;
+
+    /**
+     * La agenda de la que se leen los indicadores de tamaño.
+     */
+    private final IAgenda medida;
+    /**
+     * La duración de las llamadas, por operación.
+     */
+    private final Histograma[] latencias;
+    /**
+     * Las llamadas que terminaron con una excepción, por operación.
+     */
+    private final LongAdder[] errores;
+    /**
+     * Las excepciones lanzadas, por nombre simple de su clase.
+     */
+    private final ConcurrentMap<String, LongAdder> excepciones;
+    /**
+     * El nombre con el que se registraron las métricas en JMX, o
+     * {@code null} si no están registradas.
+     */
+    private ObjectName nombreJmx;
+    /**
+     * Los indicadores de tamaño calculados para la última versión consultada
+     * de la agenda, o {@code null} si aún no se consultaron.
+     */
+    private volatile Tamanios tamanios;
+
+    /**
+     * Indicadores de tamaño calculados a partir de una instantánea.
+     */
+    private static final class Tamanios {
+        /**
+         * La versión de la agenda de la instantánea.
+         */
+        private final long version;
+        /**
+         * La cantidad de contactos.
+         */
+        private final int contactos;
+        /**
+         * La cantidad de eventos.
+         */
+        private final int eventos;
+        /**
+         * La cantidad de invitados de cada evento.
+         */
+        private final Histograma invitados;
+
+        /**
+         * Constructor que calcula los indicadores de una instantánea.
+         *
+         * @param instantanea La instantánea de la agenda medida.
+         */
+        private Tamanios(InstantaneaAgenda instantanea) {
+            this.version = instantanea.obtenerVersion();
+            this.contactos = instantanea.cantidadContactos();
+            this.eventos = instantanea.eventos().size();
+            this.invitados = new Histograma();
+            for (Evento evento : instantanea.eventos()) {
+                this.invitados.registrar(instantanea.invitadosDe(evento).size());
+            }
+        }
+    }
+
+    /**
+     * Constructor que crea las métricas vacías de una agenda.
+     *
+     * @param agenda La agenda de la que se leen los indicadores de tamaño.
+     */
+    MetricasDeAgenda(IAgenda agenda) {
+        this.medida = agenda;
+        OperacionMedida[] operaciones = OperacionMedida.values();
+        this.latencias = new Histograma[operaciones.length];
+        this.errores = new LongAdder[operaciones.length];
+        for (int i = 0; i < operaciones.length; i++) {
+            this.latencias[i] = new Histograma();
+            this.errores[i] = new LongAdder();
+        }
+        this.excepciones = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Registra una llamada a una operación.
+     *
+     * @param operacion La operación.
+     * @param inicio El valor de {@link System#nanoTime()} al comenzar la
+     *               llamada.
+     * @param completa {@code false} si la llamada terminó con una excepción.
+     */
+    void registrar(OperacionMedida operacion, long inicio, boolean completa) {
+        this.latencias[operacion.ordinal()].registrar(System.nanoTime() - inicio);
+        if (!completa) {
+            this.errores[operacion.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Registra una excepción lanzada por la agenda.
+     *
+     * @param excepcion La excepción.
+     */
+    void registrarExcepcion(Exception excepcion) {
+        this.excepciones.computeIfAbsent(excepcion.getClass().getSimpleName(),
+                tipo -> new LongAdder()).increment();
+    }
+
+    /**
+     * Obtiene el histograma de la duración en nanosegundos de una operación.
+     *
+     * @param operacion La operación.
+     * @return El histograma de la operación.
+     */
+    public Histograma latencia(OperacionMedida operacion) {
+        return this.latencias[operacion.ordinal()];
+    }
+
+    /**
+     * Obtiene la cantidad de llamadas a una operación.
+     *
+     * @param operacion La operación.
+     * @return La cantidad de llamadas.
+     */
+    public long llamadas(OperacionMedida operacion) {
+        return this.latencias[operacion.ordinal()].cantidad();
+    }
+
+    /**
+     * Obtiene la cantidad de llamadas a una operación que terminaron con una
+     * excepción.
+     *
+     * @param operacion La operación.
+     * @return La cantidad de errores.
+     */
+    public long errores(OperacionMedida operacion) {
+        return this.errores[operacion.ordinal()].sum();
+    }
+
+    /**
+     * Obtiene la cantidad de excepciones lanzadas por la agenda de cada tipo.
+     *
+     * @return Las excepciones por nombre simple de su clase, ordenadas por
+     * nombre.
+     */
+    public Map<String, Long> excepciones() {
+        Map<String, Long> porTipo = new TreeMap<>();
+        this.excepciones.forEach((tipo, cantidad) -> porTipo.put(tipo, cantidad.sum()));
+        return porTipo;
+    }
+
+    /**
+     * Obtiene la cantidad de contactos de la agenda medida.
+     *
+     * @return La cantidad de contactos.
+     */
+    public int cantidadContactos() {
+        return tamanios().contactos;
+    }
+
+    /**
+     * Obtiene la cantidad de eventos de la agenda medida.
+     *
+     * @return La cantidad de eventos.
+     */
+    public int cantidadEventos() {
+        return tamanios().eventos;
+    }
+
+    /**
+     * Obtiene la distribución de la cantidad de invitados de los eventos de
+     * la agenda medida. Se calcula una vez por versión de la agenda y se
+     * comparte entre todas las consultas de esa versión, por lo que no debe
+     * modificarse.
+     *
+     * @return El histograma con la cantidad de invitados de cada evento.
+     */
+    public Histograma invitadosPorEvento() {
+        return tamanios().invitados;
+    }
+
+    /**
+     * Envía las métricas a un exportador.
+     *
+     * @param exportador El destino de las métricas.
+     * @throws IOException Si falla la escritura en el destino.
+     */
+    public void exportar(ExportadorDeMetricas exportador) throws IOException {
+        exportador.exportar(this);
+    }
+
+    /**
+     * Publica las métricas en el servidor JMX de la plataforma, con el nombre
+     * {@code ar.unrn.miagenda:type=MetricasDeAgenda,name=<nombre>}.
+     *
+     * @param nombre El nombre que identifica a la agenda.
+     * @return El nombre JMX de las métricas.
+     * @throws JMException Si el nombre no es válido o ya está registrado.
+     */
+    public synchronized ObjectName registrarEnJmx(String nombre) throws JMException {
+        if (this.nombreJmx != null) {
+            throw new IllegalStateException("Las metricas ya estan registradas como "
+                    + this.nombreJmx);
+        }
+        ObjectName nuevo = new ObjectName(DOMINIO_JMX + ":type="
+                + MetricasDeAgenda.class.getSimpleName() + ",name="
+                + ObjectName.quote(nombre));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, nuevo);
+        this.nombreJmx = nuevo;
+        return nuevo;
+    }
+
+    /**
+     * Quita las métricas del servidor JMX de la plataforma, si estaban
+     * registradas.
+     *
+     * @throws JMException Si falla la baja en el servidor.
+     */
+    public synchronized void quitarDeJmx() throws JMException {
+        if (this.nombreJmx != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.nombreJmx);
+            this.nombreJmx = null;
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de contactos de la agenda medida.
+     *
+     * @return La cantidad de contactos.
+     */
+    @Override
+    public int getCantidadContactos() {
+        return cantidadContactos();
+    }
+
+    /**
+     * Obtiene la cantidad de eventos de la agenda medida.
+     *
+     * @return La cantidad de eventos.
+     */
+    @Override
+    public int getCantidadEventos() {
+        return cantidadEventos();
+    }
+
+    /**
+     * Obtiene la cantidad de llamadas de cada operación.
+     *
+     * @return Las llamadas por operación.
+     */
+    @Override
+    public Map<String, Long> getLlamadas() {
+        return porOperacion(this::llamadas);
+    }
+
+    /**
+     * Obtiene la cantidad de llamadas de cada operación que terminaron con
+     * una excepción.
+     *
+     * @return Los errores por operación.
+     */
+    @Override
+    public Map<String, Long> getErrores() {
+        return porOperacion(this::errores);
+    }
+
+    /**
+     * Obtiene la cantidad de excepciones lanzadas de cada tipo.
+     *
+     * @return Las excepciones por tipo.
+     */
+    @Override
+    public Map<String, Long> getExcepciones() {
+        return excepciones();
+    }
+
+    /**
+     * Obtiene la mediana de la duración de cada operación.
+     *
+     * @return La mediana en nanosegundos por operación.
+     */
+    @Override
+    public Map<String, Long> getLatenciaMedianaNanos() {
+        return porOperacion(operacion -> latencia(operacion).valorEnPercentil(MEDIANA));
+    }
+
+    /**
+     * Obtiene el percentil 99 de la duración de cada operación.
+     *
+     * @return El percentil 99 en nanosegundos por operación.
+     */
+    @Override
+    public Map<String, Long> getLatenciaPercentil99Nanos() {
+        return porOperacion(operacion ->
+                latencia(operacion).valorEnPercentil(PERCENTIL_99));
+    }
+
+    /**
+     * Obtiene la mayor duración de cada operación.
+     *
+     * @return La mayor duración en nanosegundos por operación.
+     */
+    @Override
+    public Map<String, Long> getLatenciaMaximaNanos() {
+        return porOperacion(operacion -> latencia(operacion).maximo());
+    }
+
+    /**
+     * Obtiene la mediana de la cantidad de invitados por evento.
+     *
+     * @return La mediana de invitados.
+     */
+    @Override
+    public long getInvitadosPorEventoMediana() {
+        return invitadosPorEvento().valorEnPercentil(MEDIANA);
+    }
+
+    /**
+     * Obtiene el percentil 99 de la cantidad de invitados por evento.
+     *
+     * @return El percentil 99 de invitados.
+     */
+    @Override
+    public long getInvitadosPorEventoPercentil99() {
+        return invitadosPorEvento().valorEnPercentil(PERCENTIL_99);
+    }
+
+    /**
+     * Obtiene la mayor cantidad de invitados de un evento.
+     *
+     * @return La mayor cantidad de invitados.
+     */
+    @Override
+    public long getInvitadosPorEventoMaximo() {
+        return invitadosPorEvento().maximo();
+    }
+
+    /**
+     * Descarta las duraciones y los contadores registrados hasta el momento.
+     * Los indicadores de tamaño no se ven afectados.
+     */
+    @Override
+    public void reiniciar() {
+        for (int i = 0; i < this.latencias.length; i++) {
+            this.latencias[i].reiniciar();
+            this.errores[i].reset();
+        }
+        this.excepciones.clear();
+    }
+
+    /**
+     * Obtiene los indicadores de tamaño de la versión actual de la agenda
+     * medida, calculándolos solo si la agenda cambió desde la consulta
+     * anterior.
+     *
+     * @return Los indicadores de tamaño.
+     */
+    private Tamanios tamanios() {
+        InstantaneaAgenda instantanea = this.medida.tomarInstantanea();
+        Tamanios actuales = this.tamanios;
+        if (actuales == null || actuales.version != instantanea.obtenerVersion()) {
+            actuales = new Tamanios(instantanea);
+            this.tamanios = actuales;
+        }
+        return actuales;
+    }
+
+    /**
+     * Calcula un valor para cada operación.
+     *
+     * @param valor El cálculo del valor de una operación.
+     * @return Los valores por nombre del método de la operación, en el orden
+     * de {@link OperacionMedida}.
+     */
+    private static Map<String, Long> porOperacion(ToLongFunction<OperacionMedida> valor) {
+        Map<String, Long> valores = new LinkedHashMap<>();
+        for (OperacionMedida operacion : OperacionMedida.values()) {
+            valores.put(operacion.obtenerMetodo(), valor.applyAsLong(operacion));
+        }
+        return valores;
+    }
+}
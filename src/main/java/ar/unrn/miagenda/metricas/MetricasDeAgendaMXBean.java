@@ -0,0 +1,96 @@
+package ar.unrn.miagenda.metricas;
+
+import java.util.Map;
+
+/**
+ * Vista JMX de las {@link MetricasDeAgenda}. Los nombres de los métodos
+ * siguen la convención de JMX, que toma como atributo todo método que
+ * comienza con {@code get}. Los mapas se indexan por el nombre del método de
+ * la agenda, según {@link OperacionMedida#obtenerMetodo()}, o por el nombre
+ * simple de la clase de la excepción.
+ */
+public interface MetricasDeAgendaMXBean {
+
+    /**
+     * Obtiene la cantidad de contactos de la agenda medida.
+     *
+     * @return La cantidad de contactos.
+     */
+    int getCantidadContactos();
+
+    /**
+     * Obtiene la cantidad de eventos de la agenda medida.
+     *
+     * @return La cantidad de eventos.
+     */
+    int getCantidadEventos();
+
+    /**
+     * Obtiene la cantidad de llamadas de cada operación.
+     *
+     * @return Las llamadas por operación.
+     */
+    Map<String, Long> getLlamadas();
+
+    /**
+     * Obtiene la cantidad de llamadas de cada operación que terminaron con
+     * una excepción.
+     *
+     * @return Los errores por operación.
+     */
+    Map<String, Long> getErrores();
+
+    /**
+     * Obtiene la cantidad de excepciones lanzadas de cada tipo.
+     *
+     * @return Las excepciones por tipo.
+     */
+    Map<String, Long> getExcepciones();
+
+    /**
+     * Obtiene la mediana de la duración de cada operación.
+     *
+     * @return La mediana en nanosegundos por operación.
+     */
+    Map<String, Long> getLatenciaMedianaNanos();
+
+    /**
+     * Obtiene el percentil 99 de la duración de cada operación.
+     *
+     * @return El percentil 99 en nanosegundos por operación.
+     */
+    Map<String, Long> getLatenciaPercentil99Nanos();
+
+    /**
+     * Obtiene la mayor duración de cada operación.
+     *
+     * @return La mayor duración en nanosegundos por operación.
+     */
+    Map<String, Long> getLatenciaMaximaNanos();
+
+    /**
+     * Obtiene la mediana de la cantidad de invitados por evento.
+     *
+     * @return La mediana de invitados.
+     */
+    long getInvitadosPorEventoMediana();
+
+    /**
+     * Obtiene el percentil 99 de la cantidad de invitados por evento.
+     *
+     * @return El percentil 99 de invitados.
+     */
+    long getInvitadosPorEventoPercentil99();
+
+    /**
+     * Obtiene la mayor cantidad de invitados de un evento.
+     *
+     * @return La mayor cantidad de invitados.
+     */
+    long getInvitadosPorEventoMaximo();
+
+    /**
+     * Descarta las duraciones y los contadores registrados hasta el momento.
+     */
+    void reiniciar();
+}
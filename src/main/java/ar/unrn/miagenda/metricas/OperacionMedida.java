@@ -0,0 +1,135 @@
+package ar.unrn.miagenda.metricas;
+
+/**
+ * Operaciones de {@link ar.unrn.miagenda.agenda.IAgenda} cuyas métricas
+ * registra la {@link AgendaInstrumentada}. Las variantes de una misma
+ * operación, como los listados completos y por porciones, comparten sus
+ * métricas.
+ */
+public enum OperacionMedida {
+    /**
+     * Alta de un contacto.
+     */
+    AGREGAR_CONTACTO("agregarContacto"),
+    /**
+     * Alta de un lote de contactos.
+     */
+    AGREGAR_CONTACTOS("agregarContactos"),
+    /**
+     * Baja de un contacto.
+     */
+    ELIMINAR_CONTACTO("eliminarContacto"),
+    /**
+     * Búsqueda de un contacto por nombre.
+     */
+    BUSCAR_CONTACTO_POR_NOMBRE("buscarContactoPorNombre"),
+    /**
+     * Búsqueda de contactos por el comienzo de su nombre.
+     */
+    BUSCAR_CONTACTOS_POR_PREFIJO("buscarContactosPorPrefijo"),
+    /**
+     * Búsqueda de un contacto por DNI.
+     */
+    BUSCAR_CONTACTO_POR_DNI("buscarContactoPorDni"),
+    /**
+     * Listado de contactos, completo o por porciones, ordenado por
+     * nacimiento.
+     */
+    LISTAR_CONTACTOS_POR_NACIMIENTO("listarContactosPorNacimiento"),
+    /**
+     * Listado de contactos, completo o por porciones, ordenado por nombre.
+     */
+    LISTAR_CONTACTOS_POR_NOMBRE("listarContactosPorNombre"),
+    /**
+     * Consulta de la cantidad de contactos.
+     */
+    CANTIDAD_TOTAL_CONTACTOS("cantidadTotalContactos"),
+    /**
+     * Verificación de la existencia de un contacto.
+     */
+    VERIFICAR_EXISTENCIA_CONTACTO("verificarExistenciaContacto"),
+    /**
+     * Vaciado de la agenda.
+     */
+    LIMPIAR_AGENDA("limpiarAgenda"),
+    /**
+     * Creación de un evento.
+     */
+    CREAR_EVENTO("crearEvento"),
+    /**
+     * Creación de un lote de eventos.
+     */
+    CREAR_EVENTOS("crearEventos"),
+    /**
+     * Invitación de un contacto a un evento.
+     */
+    AGREGAR_INVITADO_EVENTO("agregarInvitadoEvento"),
+    /**
+     * Invitación de un lote de contactos a un evento.
+     */
+    AGREGAR_INVITADOS_EVENTO("agregarInvitadosEvento"),
+    /**
+     * Retiro de un invitado de un evento.
+     */
+    QUITAR_INVITADO_EVENTO("quitarInvitadoEvento"),
+    /**
+     * Listado de los eventos de un contacto.
+     */
+    LISTAR_EVENTOS_DE_CONTACTO("listarEventosDeContacto"),
+    /**
+     * Listado de los eventos de la agenda.
+     */
+    LISTAR_EVENTOS("listarEventos"),
+    /**
+     * Consulta de un contacto por DNI, sin excepciones.
+     */
+    CONSULTAR_CONTACTO_POR_DNI("consultarContactoPorDni"),
+    /**
+     * Consulta de un contacto por nombre, sin excepciones.
+     */
+    CONSULTAR_CONTACTO_POR_NOMBRE("consultarContactoPorNombre"),
+    /**
+     * Consulta de contactos ordenados por nacimiento, sin excepciones.
+     */
+    CONSULTAR_CONTACTOS_POR_NACIMIENTO("consultarContactosPorNacimiento"),
+    /**
+     * Consulta de contactos ordenados por nombre, sin excepciones.
+     */
+    CONSULTAR_CONTACTOS_POR_NOMBRE("consultarContactosPorNombre"),
+    /**
+     * Consulta de los eventos de un contacto, sin excepciones.
+     */
+    CONSULTAR_EVENTOS_DE_CONTACTO("consultarEventosDeContacto"),
+    /**
+     * Consulta de los eventos de la agenda, sin excepciones.
+     */
+    CONSULTAR_EVENTOS("consultarEventos"),
+    /**
+     * Toma de una instantánea de la agenda.
+     */
+    TOMAR_INSTANTANEA("tomarInstantanea");
+
+    /**
+     * El nombre del método de la agenda, usado para identificar la operación
+     * al exportar sus métricas.
+     */
+    private final String metodo;
+
+    /**
+     * Constructor que asocia la operación con su método.
+     *
+     * @param nombreMetodo El nombre del método de la agenda.
+     */
+    OperacionMedida(String nombreMetodo) {
+        this.metodo = nombreMetodo;
+    }
+
+    /**
+     * Obtiene el nombre del método de la agenda que corresponde a la operación.
+     *
+     * @return El nombre del método.
+     */
+    public String obtenerMetodo() {
+        return this.metodo;
+    }
+}
@@ -0,0 +1,954 @@
+package ar.unrn.miagenda.persistencia;
+
+import ar.unrn.miagenda.agenda.Agenda;
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.agenda.InstantaneaAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.PersistenciaException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+/**
+ * Agenda de solo lectura que responde las consultas directamente desde un
+ * archivo en {@link FormatoColumnar} mapeado en memoria. Abrirla no lee los
+ * contactos ni los eventos: solo se crean objetos para los resultados de cada
+ * consulta, y los listados son vistas que crean cada elemento al accederlo.
+ * <p>
+ * Las operaciones que modifican la agenda lanzan
+ * {@link UnsupportedOperationException}. Los eventos devueltos son copias:
+ * modificarlos no altera el archivo. Los DNI se devuelven normalizados, sin
+ * separadores, tal como se guardan en el archivo.
+ * <p>
+ * Cada columna se mapea por separado y en segmentos, de modo que el archivo
+ * puede superar los 2 GB.
+ */
+public class AgendaArchivada implements IAgenda {
+
+    /**
+     * Mensaje de las operaciones no permitidas.
+     */
+    private static final String SOLO_LECTURA = "La agenda archivada es de solo lectura";
+
+    /**
+     * La cantidad de contactos.
+     */
+    private final int cantidadContactos;
+    /**
+     * La cantidad de eventos.
+     */
+    private final int cantidadEventos;
+    /**
+     * La posición en el repertorio del DNI de cada contacto, en orden
+     * creciente de DNI.
+     */
+    private final SeccionMapeada dnis;
+    /**
+     * Las fechas de nacimiento como días desde la época.
+     */
+    private final SeccionMapeada nacimientos;
+    /**
+     * La posición del nombre de cada contacto en el repertorio.
+     */
+    private final SeccionMapeada nombres;
+    /**
+     * La posición del nombre normalizado de cada contacto en el repertorio.
+     */
+    private final SeccionMapeada nombresNormalizados;
+    /**
+     * Los contactos ordenados por nombre.
+     */
+    private final SeccionMapeada ordenPorNombre;
+    /**
+     * Los contactos ordenados por nombre normalizado.
+     */
+    private final SeccionMapeada ordenPorNombreNormalizado;
+    /**
+     * Los contactos ordenados por fecha de nacimiento.
+     */
+    private final SeccionMapeada ordenPorNacimiento;
+    /**
+     * La posición del nombre de cada evento en el repertorio.
+     */
+    private final SeccionMapeada nombresEventos;
+    /**
+     * Las fechas de los eventos como días desde la época.
+     */
+    private final SeccionMapeada fechasEventos;
+    /**
+     * El comienzo de la lista de invitados de cada evento.
+     */
+    private final SeccionMapeada inicioInvitados;
+    /**
+     * Los invitados de todos los eventos.
+     */
+    private final SeccionMapeada invitados;
+    /**
+     * El comienzo de la lista de eventos de cada contacto.
+     */
+    private final SeccionMapeada inicioEventosDeContacto;
+    /**
+     * Los eventos de todos los contactos.
+     */
+    private final SeccionMapeada eventosDeContacto;
+    /**
+     * El repertorio de textos.
+     */
+    private final SeccionMapeada repertorio;
+    /**
+     * La instantánea de la agenda, creada la primera vez que se pide.
+     */
+    private volatile InstantaneaAgenda instantanea;
+
+    /**
+     * Constructor que mapea en memoria el archivo indicado.
+     *
+     * @param archivo La ubicación de un archivo en {@link FormatoColumnar}.
+     * @throws IOException Si no se puede leer el archivo.
+     * @throws PersistenciaException Si el archivo no tiene el formato esperado.
+     */
+    public AgendaArchivada(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer cabecera = ByteBuffer.allocate(FormatoColumnar.LONGITUD_CABECERA);
+            while (cabecera.hasRemaining()) {
+                if (canal.read(cabecera, cabecera.position()) < 0) {
+                    break;
+                }
+            }
+            cabecera.flip();
+            if (cabecera.remaining() < FormatoColumnar.LONGITUD_CABECERA
+                    || cabecera.getInt() != FormatoColumnar.MAGICO
+                    || cabecera.getInt() != FormatoColumnar.VERSION_FORMATO) {
+                throw new PersistenciaException("El archivo " + archivo
+                        + " no es una agenda archivada");
+            }
+            this.cantidadContactos = cabecera.getInt();
+            this.cantidadEventos = cabecera.getInt();
+            long cantidadInvitaciones = cabecera.getLong();
+            if (this.cantidadContactos < 0 || this.cantidadEventos < 0
+                    || cantidadInvitaciones < 0) {
+                throw new PersistenciaException("El archivo " + archivo
+                        + " está dañado");
+            }
+            Secciones secciones = new Secciones(canal, archivo);
+            this.dnis = secciones.siguiente(this.cantidadContactos, Long.BYTES);
+            this.nacimientos = secciones.siguiente(this.cantidadContactos, Integer.BYTES);
+            this.nombres = secciones.siguiente(this.cantidadContactos, Long.BYTES);
+            this.nombresNormalizados =
+                    secciones.siguiente(this.cantidadContactos, Long.BYTES);
+            this.ordenPorNombre =
+                    secciones.siguiente(this.cantidadContactos, Integer.BYTES);
+            this.ordenPorNombreNormalizado =
+                    secciones.siguiente(this.cantidadContactos, Integer.BYTES);
+            this.ordenPorNacimiento =
+                    secciones.siguiente(this.cantidadContactos, Integer.BYTES);
+            this.nombresEventos = secciones.siguiente(this.cantidadEventos, Long.BYTES);
+            this.fechasEventos = secciones.siguiente(this.cantidadEventos, Integer.BYTES);
+            this.inicioInvitados =
+                    secciones.siguiente(this.cantidadEventos + 1L, Long.BYTES);
+            this.invitados = secciones.siguiente(cantidadInvitaciones, Integer.BYTES);
+            this.inicioEventosDeContacto =
+                    secciones.siguiente(this.cantidadContactos + 1L, Long.BYTES);
+            this.eventosDeContacto =
+                    secciones.siguiente(cantidadInvitaciones, Integer.BYTES);
+            this.repertorio = secciones.resto();
+        }
+    }
+
+    /**
+     * Siempre lanza {@link UnsupportedOperationException}.
+     *
+     * @param contacto El contacto que se desea agregar.
+     */
+    @Override
+    public void agregarContacto(Contacto contacto) {
+        throw new UnsupportedOperationException(SOLO_LECTURA);
+    }
+
+    /**
+     * Siempre lanza {@link UnsupportedOperationException}.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     */
+    @Override
+    public void agregarContactos(Collection<Contacto> nuevos) {
+        throw new UnsupportedOperationException(SOLO_LECTURA);
+    }
+
+    /**
+     * Siempre lanza {@link UnsupportedOperationException}.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     */
+    @Override
+    public void eliminarContacto(Contacto contacto) {
+        throw new UnsupportedOperationException(SOLO_LECTURA);
+    }
+
+    /**
+     * Busca un contacto por su nombre, sin distinguir mayúsculas ni acentos.
+     * Si hay varios contactos con el mismo nombre se devuelve el primero en
+     * orden alfabético.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
+     * contacto con el nombre especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorNombre(String nombre)
+            throws ContactoNoEncontradoEnAgendaException {
+        int id = buscarIdentificadorPorNombre(nombre);
+        if (id < 0) {
+            throw new ContactoNoEncontradoEnAgendaException("No se encuentra"
+                    + " un contacto con ese nombre");
+        }
+        return contacto(id);
+    }
+
+    /**
+     * Busca los contactos cuyo nombre comienza con el prefijo indicado, sin
+     * distinguir mayúsculas ni acentos.
+     *
+     * @param prefijo El comienzo del nombre a buscar.
+     * @param cantidadMaxima La cantidad máxima de contactos a devolver.
+     * @return Los contactos encontrados, ordenados por nombre.
+     */
+    @Override
+    public List<Contacto> buscarContactosPorPrefijo(String prefijo, int cantidadMaxima) {
+        if (cantidadMaxima < 0) {
+            throw new IllegalArgumentException("La cantidad maxima no puede "
+                    + "ser negativa");
+        }
+        byte[] clave = Normalizador.normalizarPrefijo(prefijo)
+                .getBytes(StandardCharsets.UTF_8);
+        List<Contacto> encontrados = new ArrayList<>();
+        for (int i = primerNombreNoMenor(clave);
+             i < this.cantidadContactos && encontrados.size() < cantidadMaxima; i++) {
+            int id = this.ordenPorNombreNormalizado.entero(i);
+            if (!comienzaCon(this.nombresNormalizados.largo(id), clave)) {
+                break;
+            }
+            encontrados.add(contacto(id));
+        }
+        return encontrados;
+    }
+
+    /**
+     * Busca un contacto por su DNI mediante una búsqueda binaria sobre la
+     * columna de DNI.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * un contacto con el DNI especificado.
+     */
+    @Override
+    public Contacto buscarContactoPorDni(String dni)
+            throws ContactoNoEncontradoEnAgendaException {
+        int id = buscarIdentificador(dni);
+        if (id < 0) {
+            throw new ContactoNoEncontradoEnAgendaException("No se encuentra"
+                    + " un contacto con ese DNI");
+        }
+        return contacto(id);
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una vista de solo lectura ordenada por fecha de nacimiento.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento()
+            throws AgendaDeContactosVaciaException {
+        return listarContactosPorNacimiento(0, this.cantidadContactos);
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una vista de solo lectura con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNacimiento(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        return pagina(this.ordenPorNacimiento, desde, cantidad);
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una vista de solo lectura ordenada por nombre.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre()
+            throws AgendaDeContactosVaciaException {
+        return listarContactosPorNombre(0, this.cantidadContactos);
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una vista de solo lectura con los contactos de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    @Override
+    public List<Contacto> listarContactosPorNombre(int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        return pagina(this.ordenPorNombre, desde, cantidad);
+    }
+
+    /**
+     * Obtiene la cantidad total de contactos en la agenda.
+     *
+     * @return El número total de contactos.
+     */
+    @Override
+    public int cantidadTotalContactos() {
+        return this.cantidadContactos;
+    }
+
+    /**
+     * Verifica si un contacto existe en la agenda.
+     *
+     * @param contacto El contacto a verificar.
+     * @return {@code true} si el contacto existe, {@code false} en caso contrario.
+     */
+    @Override
+    public boolean verificarExistenciaContacto(Contacto contacto) {
+        return contacto != null && buscarIdentificador(contacto.obtenerDni()) >= 0;
+    }
+
+    /**
+     * Siempre lanza {@link UnsupportedOperationException}.
+     */
+    @Override
+    public void limpiarAgenda() {
+        throw new UnsupportedOperationException(SOLO_LECTURA);
+    }
+
+    /**
+     * Siempre lanza {@link UnsupportedOperationException}.
+     *
+     * @param evento El evento a ser creado.
+     */
+    @Override
+    public void crearEvento(Evento evento) {
+        throw new UnsupportedOperationException(SOLO_LECTURA);
+    }
+
+    /**
+     * Siempre lanza {@link UnsupportedOperationException}.
+     *
+     * @param nuevos Los eventos a ser creados.
+     */
+    @Override
+    public void crearEventos(Collection<Evento> nuevos) {
+        throw new UnsupportedOperationException(SOLO_LECTURA);
+    }
+
+    /**
+     * Siempre lanza {@link UnsupportedOperationException}.
+     *
+     * @param nuevos Los contactos a cargar.
+     * @param nuevosEventos Los eventos a cargar.
+     */
+    @Override
+    public void cargarContenido(Collection<Contacto> nuevos,
+                                Collection<Evento> nuevosEventos) {
+        throw new UnsupportedOperationException(SOLO_LECTURA);
+    }
+
+    /**
+     * Siempre lanza {@link UnsupportedOperationException}.
+     *
+     * @param evento El evento en el cual se quiere agregar un invitado.
+     * @param contacto El contacto a agregar.
+     */
+    @Override
+    public void agregarInvitadoEvento(Evento evento, Contacto contacto) {
+        throw new UnsupportedOperationException(SOLO_LECTURA);
+    }
+
+    /**
+     * Siempre lanza {@link UnsupportedOperationException}.
+     *
+     * @param evento El evento en el cual se quieren agregar los invitados.
+     * @param nuevosInvitados Los contactos a agregar.
+     */
+    @Override
+    public void agregarInvitadosEvento(Evento evento,
+                                       Collection<Contacto> nuevosInvitados) {
+        throw new UnsupportedOperationException(SOLO_LECTURA);
+    }
+
+    /**
+     * Siempre lanza {@link UnsupportedOperationException}.
+     *
+     * @param evento El evento del cual se quiere quitar un invitado.
+     * @param contacto El contacto a eliminar.
+     */
+    @Override
+    public void quitarInvitadoEvento(Evento evento, Contacto contacto) {
+        throw new UnsupportedOperationException(SOLO_LECTURA);
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto, en el orden en
+     * que fueron creados.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventosDeContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        int id = contacto == null ? -1 : buscarIdentificador(contacto.obtenerDni());
+        if (id < 0) {
+            throw new ContactoNoEncontradoEnAgendaException("El contacto "
+                    + "no se encuentra en la agenda");
+        }
+        return eventosDe(id);
+    }
+
+    /**
+     * Lista todos los eventos de la agenda, en el orden en que fueron creados.
+     *
+     * @return Una vista de solo lectura de los eventos.
+     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
+     */
+    @Override
+    public List<Evento> listarEventos() throws AgendaDeEventosVaciaException {
+        if (this.cantidadEventos == 0) {
+            throw new AgendaDeEventosVaciaException("No hay eventos en la agenda");
+        }
+        return new VistaDeEventos();
+    }
+
+    /**
+     * Busca un contacto por su DNI sin lanzar excepciones si no existe.
+     *
+     * @param dni El DNI del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorDni(String dni) {
+        int id = buscarIdentificador(dni);
+        return id < 0 ? Optional.empty() : Optional.of(contacto(id));
+    }
+
+    /**
+     * Busca un contacto por su nombre sin lanzar excepciones si no existe.
+     * Si hay varios contactos con el mismo nombre se devuelve el primero en
+     * orden alfabético.
+     *
+     * @param nombre El nombre del contacto a buscar.
+     * @return El contacto encontrado, o vacío si no existe.
+     */
+    @Override
+    public Optional<Contacto> consultarContactoPorNombre(String nombre) {
+        int id = buscarIdentificadorPorNombre(nombre);
+        return id < 0 ? Optional.empty() : Optional.of(contacto(id));
+    }
+
+    /**
+     * Lista los contactos ordenados por fecha de nacimiento.
+     *
+     * @return Una vista de solo lectura, vacía si no hay contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento() {
+        return porcion(this.ordenPorNacimiento, 0, this.cantidadContactos);
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados por fecha de nacimiento.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una vista de solo lectura con los contactos de la porción pedida.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNacimiento(int desde, int cantidad) {
+        return porcion(this.ordenPorNacimiento, desde, cantidad);
+    }
+
+    /**
+     * Lista los contactos ordenados alfabéticamente por nombre.
+     *
+     * @return Una vista de solo lectura, vacía si no hay contactos.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre() {
+        return porcion(this.ordenPorNombre, 0, this.cantidadContactos);
+    }
+
+    /**
+     * Lista una porción de los contactos ordenados alfabéticamente por nombre.
+     *
+     * @param desde La posición del primer contacto a devolver.
+     * @param cantidad La cantidad máxima de contactos a devolver.
+     * @return Una vista de solo lectura con los contactos de la porción pedida.
+     */
+    @Override
+    public List<Contacto> consultarContactosPorNombre(int desde, int cantidad) {
+        return porcion(this.ordenPorNombre, desde, cantidad);
+    }
+
+    /**
+     * Lista los eventos a los que está invitado un contacto.
+     *
+     * @param contacto El contacto a consultar.
+     * @return Los eventos del contacto, vacío si no está invitado a ninguno o
+     * no se encuentra en la agenda.
+     */
+    @Override
+    public List<Evento> consultarEventosDeContacto(Contacto contacto) {
+        int id = contacto == null ? -1 : buscarIdentificador(contacto.obtenerDni());
+        return id < 0 ? List.of() : eventosDe(id);
+    }
+
+    /**
+     * Lista todos los eventos de la agenda, en el orden en que fueron creados.
+     *
+     * @return Una vista de solo lectura de los eventos, vacía si no hay ninguno.
+     */
+    @Override
+    public List<Evento> consultarEventos() {
+        return this.cantidadEventos == 0 ? List.of() : new VistaDeEventos();
+    }
+
+    /**
+     * Toma una instantánea del contenido de la agenda. Como la instantánea
+     * guarda sus datos en memoria, la primera llamada lee el archivo completo;
+     * las siguientes reutilizan el resultado, ya que el archivo no cambia.
+     *
+     * @return La instantánea de la agenda.
+     */
+    @Override
+    public InstantaneaAgenda tomarInstantanea() {
+        InstantaneaAgenda actual = this.instantanea;
+        if (actual == null) {
+            Agenda agenda = new Agenda();
+            try {
+                agenda.cargarContenido(consultarContactosPorNombre(), consultarEventos());
+            } catch (ContactoDuplicadoException | EventoDuplicadoException
+                     | ContactoNoEncontradoEnAgendaException e) {
+                throw new PersistenciaException("El archivo no es consistente", e);
+            }
+            actual = agenda.tomarInstantanea();
+            this.instantanea = actual;
+        }
+        return actual;
+    }
+
+    /**
+     * Crea el contacto con el identificador indicado.
+     *
+     * @param id El identificador del contacto.
+     * @return El contacto.
+     */
+    private Contacto contacto(int id) {
+        return new Contacto(texto(this.nombres.largo(id)), texto(this.dnis.largo(id)),
+                fecha(this.nacimientos.entero(id)));
+    }
+
+    /**
+     * Crea el evento con el identificador indicado, junto con sus invitados.
+     *
+     * @param id El identificador del evento.
+     * @return El evento.
+     */
+    private Evento evento(int id) {
+        long fin = this.inicioInvitados.largo(id + 1L);
+        List<Contacto> invitadosEvento = new ArrayList<>();
+        for (long i = this.inicioInvitados.largo(id); i < fin; i++) {
+            invitadosEvento.add(contacto(this.invitados.entero(i)));
+        }
+        return new Evento(texto(this.nombresEventos.largo(id)),
+                fecha(this.fechasEventos.entero(id)), invitadosEvento);
+    }
+
+    /**
+     * Busca el identificador de un contacto por su DNI.
+     *
+     * @param dni El DNI a buscar.
+     * @return El identificador, o un número negativo si no existe.
+     */
+    private int buscarIdentificador(String dni) {
+        String normalizado = Normalizador.normalizarDni(dni);
+        if (normalizado == null) {
+            return -1;
+        }
+        byte[] buscado = normalizado.getBytes(StandardCharsets.UTF_8);
+        int desde = 0;
+        int hasta = this.cantidadContactos - 1;
+        while (desde <= hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int comparacion = compararTexto(this.dnis.largo(medio), buscado);
+            if (comparacion < 0) {
+                desde = medio + 1;
+            } else if (comparacion > 0) {
+                hasta = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Normaliza un nombre y lo codifica como se guarda en el repertorio.
+     *
+     * @param nombre El nombre tal como fue ingresado.
+     * @return El nombre normalizado en UTF-8.
+     */
+    private static byte[] claveDeNombre(String nombre) {
+        return Normalizador.normalizarNombre(nombre).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Busca la primera posición del orden por nombre normalizado cuyo nombre
+     * no es menor que la clave.
+     *
+     * @param clave El nombre normalizado en UTF-8.
+     * @return La posición encontrada, o la cantidad de contactos si no hay.
+     */
+    private int primerNombreNoMenor(byte[] clave) {
+        int desde = 0;
+        int hasta = this.cantidadContactos;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int id = this.ordenPorNombreNormalizado.entero(medio);
+            if (compararTexto(this.nombresNormalizados.largo(id), clave) < 0) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    /**
+     * Compara byte a byte un texto del repertorio con una clave, sin crear
+     * objetos.
+     *
+     * @param posicion La posición del texto en el repertorio.
+     * @param clave La clave en UTF-8.
+     * @return Un número negativo, cero o positivo si el texto es menor, igual
+     * o mayor que la clave.
+     */
+    private int compararTexto(long posicion, byte[] clave) {
+        int longitud = this.repertorio.leerEntero(posicion);
+        long comienzo = posicion + Integer.BYTES;
+        int comunes = Math.min(longitud, clave.length);
+        for (int i = 0; i < comunes; i++) {
+            int diferencia = Byte.compareUnsigned(
+                    this.repertorio.leerOcteto(comienzo + i), clave[i]);
+            if (diferencia != 0) {
+                return diferencia;
+            }
+        }
+        return Integer.compare(longitud, clave.length);
+    }
+
+    /**
+     * Indica si un texto del repertorio comienza con el prefijo indicado.
+     *
+     * @param posicion La posición del texto en el repertorio.
+     * @param prefijo El prefijo en UTF-8.
+     * @return {@code true} si el texto comienza con el prefijo.
+     */
+    private boolean comienzaCon(long posicion, byte[] prefijo) {
+        if (this.repertorio.leerEntero(posicion) < prefijo.length) {
+            return false;
+        }
+        long comienzo = posicion + Integer.BYTES;
+        for (int i = 0; i < prefijo.length; i++) {
+            if (this.repertorio.leerOcteto(comienzo + i) != prefijo[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lee un texto del repertorio.
+     *
+     * @param posicion La posición del texto en el repertorio.
+     * @return El texto, o {@code null} si la posición indica un texto ausente.
+     */
+    private String texto(long posicion) {
+        if (posicion == FormatoColumnar.SIN_TEXTO) {
+            return null;
+        }
+        byte[] bytes = new byte[this.repertorio.leerEntero(posicion)];
+        this.repertorio.leerBytes(posicion + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Convierte días desde la época en una fecha.
+     *
+     * @param dias Los días desde la época.
+     * @return La fecha, o {@code null} si indica una fecha ausente.
+     */
+    private static LocalDate fecha(int dias) {
+        return dias == FormatoColumnar.SIN_FECHA ? null : LocalDate.ofEpochDay(dias);
+    }
+
+    /**
+     * Busca el identificador de un contacto por su nombre normalizado.
+     *
+     * @param nombre El nombre a buscar.
+     * @return El identificador del primer contacto con ese nombre en orden
+     * alfabético, o -1 si no existe.
+     */
+    private int buscarIdentificadorPorNombre(String nombre) {
+        byte[] clave = claveDeNombre(nombre);
+        int posicion = primerNombreNoMenor(clave);
+        if (posicion == this.cantidadContactos) {
+            return -1;
+        }
+        int id = this.ordenPorNombreNormalizado.entero(posicion);
+        if (compararTexto(this.nombresNormalizados.largo(id), clave) != 0) {
+            return -1;
+        }
+        return id;
+    }
+
+    /**
+     * Obtiene los eventos a los que está invitado un contacto.
+     *
+     * @param id El identificador del contacto.
+     * @return Los eventos del contacto.
+     */
+    private List<Evento> eventosDe(int id) {
+        long fin = this.inicioEventosDeContacto.largo(id + 1L);
+        List<Evento> encontrados = new ArrayList<>();
+        for (long i = this.inicioEventosDeContacto.largo(id); i < fin; i++) {
+            encontrados.add(evento(this.eventosDeContacto.entero(i)));
+        }
+        return encontrados;
+    }
+
+    /**
+     * Obtiene una porción de un orden de contactos como una vista.
+     *
+     * @param orden Los identificadores en orden.
+     * @param desde La posición del primer contacto.
+     * @param cantidad La cantidad máxima de contactos.
+     * @return La vista de la porción pedida.
+     * @throws AgendaDeContactosVaciaException Si no hay contactos en la agenda.
+     */
+    private List<Contacto> pagina(SeccionMapeada orden, int desde, int cantidad)
+            throws AgendaDeContactosVaciaException {
+        if (this.cantidadContactos == 0) {
+            throw new AgendaDeContactosVaciaException("No hay contactos en la agenda.");
+        }
+        return porcion(orden, desde, cantidad);
+    }
+
+    /**
+     * Obtiene una porción de un orden de contactos como una vista, vacía si
+     * no hay contactos.
+     *
+     * @param orden Los identificadores en orden.
+     * @param desde La posición del primer contacto.
+     * @param cantidad La cantidad máxima de contactos.
+     * @return La vista de la porción pedida.
+     */
+    private List<Contacto> porcion(SeccionMapeada orden, int desde, int cantidad) {
+        if (desde < 0 || cantidad < 0) {
+            throw new IllegalArgumentException("La posicion y la cantidad "
+                    + "no pueden ser negativas");
+        }
+        int inicio = Math.min(desde, this.cantidadContactos);
+        int fin = (int) Math.min((long) inicio + cantidad, this.cantidadContactos);
+        return new VistaDeContactos(orden, inicio, fin);
+    }
+
+    /**
+     * Vista de una porción de un orden de contactos, que crea cada contacto
+     * al accederlo.
+     */
+    private final class VistaDeContactos extends AbstractList<Contacto>
+            implements RandomAccess {
+
+        /**
+         * Los identificadores en orden.
+         */
+        private final SeccionMapeada orden;
+        /**
+         * La primera posición de la vista.
+         */
+        private final int inicio;
+        /**
+         * La posición siguiente a la última de la vista.
+         */
+        private final int fin;
+
+        /**
+         * Constructor que crea la vista de una porción.
+         *
+         * @param ordenContactos Los identificadores en orden.
+         * @param desde La primera posición.
+         * @param hasta La posición siguiente a la última.
+         */
+        VistaDeContactos(SeccionMapeada ordenContactos, int desde, int hasta) {
+            this.orden = ordenContactos;
+            this.inicio = desde;
+            this.fin = hasta;
+        }
+
+        /**
+         * Crea el contacto en la posición indicada de la vista.
+         *
+         * @param indice La posición dentro de la vista.
+         * @return El contacto.
+         */
+        @Override
+        public Contacto get(int indice) {
+            if (indice < 0 || indice >= size()) {
+                throw new IndexOutOfBoundsException(indice);
+            }
+            return contacto(this.orden.entero(this.inicio + indice));
+        }
+
+        /**
+         * Obtiene la cantidad de contactos de la vista.
+         *
+         * @return La cantidad de contactos.
+         */
+        @Override
+        public int size() {
+            return this.fin - this.inicio;
+        }
+    }
+
+    /**
+     * Vista de todos los eventos, que crea cada evento al accederlo.
+     */
+    private final class VistaDeEventos extends AbstractList<Evento>
+            implements RandomAccess {
+
+        /**
+         * Crea el evento en la posición indicada.
+         *
+         * @param indice La posición del evento.
+         * @return El evento.
+         */
+        @Override
+        public Evento get(int indice) {
+            if (indice < 0 || indice >= size()) {
+                throw new IndexOutOfBoundsException(indice);
+            }
+            return evento(indice);
+        }
+
+        /**
+         * Obtiene la cantidad de eventos.
+         *
+         * @return La cantidad de eventos.
+         */
+        @Override
+        public int size() {
+            return cantidadEventos;
+        }
+    }
+
+    /**
+     * Recorre las columnas de un archivo en orden, mapeando cada una por
+     * separado y verificando que no exceda el archivo.
+     */
+    private static final class Secciones {
+
+        /**
+         * El canal del archivo.
+         */
+        private final FileChannel canal;
+        /**
+         * La ubicación del archivo, para informar errores.
+         */
+        private final Path archivo;
+        /**
+         * La longitud del archivo.
+         */
+        private final long longitud;
+        /**
+         * La posición donde comienza la próxima columna.
+         */
+        private long posicion = FormatoColumnar.LONGITUD_CABECERA;
+
+        /**
+         * Constructor que recorre el archivo a partir de su cabecera.
+         *
+         * @param canalArchivo El canal del archivo.
+         * @param ubicacion La ubicación del archivo.
+         * @throws IOException Si no se puede obtener la longitud del archivo.
+         */
+        Secciones(FileChannel canalArchivo, Path ubicacion) throws IOException {
+            this.canal = canalArchivo;
+            this.archivo = ubicacion;
+            this.longitud = canalArchivo.size();
+        }
+
+        /**
+         * Mapea la próxima columna.
+         *
+         * @param cantidad La cantidad de valores de la columna.
+         * @param bytesPorValor Los bytes que ocupa cada valor.
+         * @return La columna mapeada.
+         * @throws IOException Si no se puede mapear el archivo.
+         * @throws PersistenciaException Si la columna excede el archivo.
+         */
+        SeccionMapeada siguiente(long cantidad, int bytesPorValor) throws IOException {
+            long bytes = Math.multiplyExact(cantidad, bytesPorValor);
+            if (bytes > this.longitud - this.posicion) {
+                throw new PersistenciaException("El archivo " + this.archivo
+                        + " está incompleto");
+            }
+            SeccionMapeada seccion = new SeccionMapeada(this.canal, this.posicion, bytes);
+            this.posicion = this.posicion + bytes;
+            return seccion;
+        }
+
+        /**
+         * Mapea lo que queda del archivo.
+         *
+         * @return El resto del archivo mapeado.
+         * @throws IOException Si no se puede mapear el archivo.
+         */
+        SeccionMapeada resto() throws IOException {
+            return siguiente(this.longitud - this.posicion, 1);
+        }
+    }
+}
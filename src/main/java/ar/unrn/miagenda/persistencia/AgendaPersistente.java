@@ -0,0 +1,539 @@
+package ar.unrn.miagenda.persistencia;
+
+import ar.unrn.miagenda.agenda.AgendaConcurrente;
+import ar.unrn.miagenda.agenda.AgendaDelegada;
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.agenda.InstantaneaAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+import ar.unrn.miagenda.excepciones.PersistenciaException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agenda que guarda cada modificación en un {@link RegistroDeEscritura} y
+ * que, al abrirse, reproduce el registro para recuperar su contenido.
+ * <p>
+ * Cada modificación se agrega primero al registro y recién después se aplica
+ * sobre la agenda envuelta, de modo que la agenda en memoria nunca contiene
+ * cambios que no estén registrados. Si la agenda rechaza la modificación, su
+ * entrada se quita del registro. Las consultas se delegan sin pasar por el
+ * registro.
+ * <p>
+ * Opcionalmente, la agenda guarda {@link PuntoDeControl puntos de control}
+ * con todo su contenido. Al abrirse se carga el último punto de control y
+ * solo se reproduce la parte del registro posterior a él.
+ * <p>
+ * Los invitados de los eventos registrados solo pueden modificarse a través
+ * de esta agenda: un cambio hecho directamente sobre un evento no quedaría en
+ * el registro, así que la agenda envuelta lo rechaza con
+ * {@link IllegalStateException}.
+ */
+public class AgendaPersistente extends AgendaDelegada implements Closeable {
+
+    /**
+     * Cantidad de veces que se intenta tomar la instantánea de un punto de
+     * control sin detener las modificaciones.
+     */
+    private static final int INTENTOS_SIN_BLOQUEO = 64;
+
+    /**
+     * El registro donde se guardan las modificaciones.
+     */
+    private final RegistroDeEscritura registro;
+    /**
+     * La ubicación del punto de control, o {@code null} si no se usan.
+     */
+    private final Path puntoDeControl;
+    /**
+     * Objeto que impide guardar dos puntos de control a la vez.
+     */
+    private final Object bloqueoPuntoDeControl = new Object();
+    /**
+     * La tarea que guarda puntos de control periódicamente, o {@code null}
+     * si no fue programada.
+     */
+    private ScheduledExecutorService programador;
+    /**
+     * Contador de modificaciones que es impar mientras una modificación ya
+     * registrada se está aplicando. Permite tomar la instantánea de un punto
+     * de control sin detener las modificaciones y comprobar después que
+     * ninguna se aplicó en el medio. Solo se escribe dentro del monitor.
+     */
+    private volatile long secuencia;
+    /**
+     * La longitud del registro hasta la que todas las modificaciones ya se
+     * aplicaron sobre la agenda envuelta.
+     */
+    private volatile long posicionAplicada;
+    /**
+     * Si la agenda envuelta admite tomar instantáneas mientras otro hilo la
+     * modifica.
+     */
+    private final boolean instantaneasConcurrentes;
+
+    /**
+     * Constructor que carga el punto de control indicado, si existe, y
+     * reproduce el resto del registro sobre la agenda envuelta, que debería
+     * estar vacía.
+     *
+     * @param agenda La agenda en memoria que resuelve las operaciones.
+     * @param archivo La ubicación del archivo de registro.
+     * @param archivoPuntoDeControl La ubicación del punto de control, o
+     *                              {@code null} para no usarlos.
+     * @param nivel El nivel de durabilidad de las escrituras.
+     */
+    public AgendaPersistente(IAgenda agenda, Path archivo, Path archivoPuntoDeControl,
+                             NivelDeDurabilidad nivel) {
+        super(agenda);
+        agenda.rechazarCambiosDirectosDeInvitados();
+        this.puntoDeControl = archivoPuntoDeControl;
+        this.instantaneasConcurrentes = agenda instanceof AgendaConcurrente;
+        try {
+            long desde = 0;
+            if (archivoPuntoDeControl != null) {
+                desde = PuntoDeControl.cargar(archivoPuntoDeControl, agenda);
+            }
+            long longitudValida = RegistroDeEscritura.reproducir(archivo, agenda, desde);
+            this.registro = new RegistroDeEscritura(archivo, longitudValida, nivel);
+            this.posicionAplicada = this.registro.obtenerLongitud();
+            if (longitudValida < desde) {
+                // El registro se perdió: el punto de control debe apuntar al nuevo.
+                guardarPuntoDeControl();
+            }
+        } catch (IOException e) {
+            throw new PersistenciaException("No se pudo abrir el registro " + archivo, e);
+        }
+    }
+
+    /**
+     * Constructor que reproduce el registro indicado sobre la agenda envuelta,
+     * que debería estar vacía, sin usar puntos de control.
+     *
+     * @param agenda La agenda en memoria que resuelve las operaciones.
+     * @param archivo La ubicación del archivo de registro.
+     * @param nivel El nivel de durabilidad de las escrituras.
+     */
+    public AgendaPersistente(IAgenda agenda, Path archivo, NivelDeDurabilidad nivel) {
+        this(agenda, archivo, null, nivel);
+    }
+
+    /**
+     * Constructor que recupera la agenda guardada en el registro indicado
+     * sobre una {@link AgendaConcurrente} nueva.
+     *
+     * @param archivo La ubicación del archivo de registro.
+     * @param nivel El nivel de durabilidad de las escrituras.
+     */
+    public AgendaPersistente(Path archivo, NivelDeDurabilidad nivel) {
+        this(new AgendaConcurrente(), archivo, null, nivel);
+    }
+
+    /**
+     * Constructor que recupera la agenda guardada en el punto de control y el
+     * registro indicados sobre una {@link AgendaConcurrente} nueva.
+     *
+     * @param archivo La ubicación del archivo de registro.
+     * @param archivoPuntoDeControl La ubicación del punto de control.
+     * @param nivel El nivel de durabilidad de las escrituras.
+     */
+    public AgendaPersistente(Path archivo, Path archivoPuntoDeControl,
+                             NivelDeDurabilidad nivel) {
+        this(new AgendaConcurrente(), archivo, archivoPuntoDeControl, nivel);
+    }
+
+    /**
+     * Obtiene el registro donde se guardan las modificaciones.
+     *
+     * @return El registro de la agenda.
+     */
+    public RegistroDeEscritura obtenerRegistro() {
+        return this.registro;
+    }
+
+    /**
+     * Registra el alta de un contacto y lo agrega a la agenda.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     */
+    @Override
+    public synchronized void agregarContacto(Contacto contacto)
+            throws ContactoDuplicadoException {
+        long posicion = this.registro.obtenerLongitud();
+        this.registro.registrarAltaContacto(contacto);
+        iniciarModificacion();
+        try {
+            super.agregarContacto(contacto);
+        } catch (ContactoDuplicadoException | RuntimeException e) {
+            descartarRegistro(posicion, e);
+            throw e;
+        } finally {
+            terminarModificacion();
+        }
+    }
+
+    /**
+     * Registra el alta de varios contactos en una sola entrada y los agrega
+     * a la agenda.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     */
+    @Override
+    public synchronized void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException {
+        long posicion = this.registro.obtenerLongitud();
+        this.registro.registrarAltaContactos(nuevos);
+        iniciarModificacion();
+        try {
+            super.agregarContactos(nuevos);
+        } catch (ContactoDuplicadoException | RuntimeException e) {
+            descartarRegistro(posicion, e);
+            throw e;
+        } finally {
+            terminarModificacion();
+        }
+    }
+
+    /**
+     * Registra la baja de un contacto y lo elimina de la agenda.
+     *
+     * @param contacto El contacto que se desea eliminar.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra
+     * el contacto en la agenda
+     */
+    @Override
+    public synchronized void eliminarContacto(Contacto contacto)
+            throws ContactoNoEncontradoEnAgendaException {
+        long posicion = this.registro.obtenerLongitud();
+        this.registro.registrarBajaContacto(contacto);
+        iniciarModificacion();
+        try {
+            super.eliminarContacto(contacto);
+        } catch (ContactoNoEncontradoEnAgendaException | RuntimeException e) {
+            descartarRegistro(posicion, e);
+            throw e;
+        } finally {
+            terminarModificacion();
+        }
+    }
+
+    /**
+     * Registra la limpieza de la agenda y elimina todos sus contactos y
+     * eventos.
+     */
+    @Override
+    public synchronized void limpiarAgenda() {
+        long posicion = this.registro.obtenerLongitud();
+        this.registro.registrarLimpieza();
+        iniciarModificacion();
+        try {
+            super.limpiarAgenda();
+        } catch (RuntimeException e) {
+            descartarRegistro(posicion, e);
+            throw e;
+        } finally {
+            terminarModificacion();
+        }
+    }
+
+    /**
+     * Registra un evento junto con sus invitados y lo crea en la agenda.
+     *
+     * @param evento El evento a ser creado.
+     * @throws EventoDuplicadoException Si el evento ya existe.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public synchronized void crearEvento(Evento evento)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        long posicion = this.registro.obtenerLongitud();
+        this.registro.registrarAltaEvento(evento);
+        iniciarModificacion();
+        try {
+            super.crearEvento(evento);
+        } catch (EventoDuplicadoException | ContactoNoEncontradoEnAgendaException
+                 | RuntimeException e) {
+            descartarRegistro(posicion, e);
+            throw e;
+        } finally {
+            terminarModificacion();
+        }
+    }
+
+    /**
+     * Registra varios eventos en una sola entrada y los crea en la agenda.
+     *
+     * @param nuevos Los eventos a ser creados, en orden.
+     * @throws EventoDuplicadoException Si algún evento ya existe o se repite
+     * dentro del lote.
+     * @throws ContactoNoEncontradoEnAgendaException si algun contacto invitado no
+     * se encuentra en la agenda.
+     */
+    @Override
+    public synchronized void crearEventos(Collection<Evento> nuevos)
+            throws EventoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        long posicion = this.registro.obtenerLongitud();
+        this.registro.registrarAltaEventos(nuevos);
+        iniciarModificacion();
+        try {
+            super.crearEventos(nuevos);
+        } catch (EventoDuplicadoException | ContactoNoEncontradoEnAgendaException
+                 | RuntimeException e) {
+            descartarRegistro(posicion, e);
+            throw e;
+        } finally {
+            terminarModificacion();
+        }
+    }
+
+    /**
+     * Registra la invitación de un contacto y lo agrega a la lista de
+     * invitados del evento.
+     *
+     * @param evento El evento en el cual se quiere agregar un invitado.
+     * @param contacto El contacto a agregar.
+     * @throws ContactoYaInvitadoException si el contacto ya esta invitado.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra el
+     * contacto en la agenda.
+     */
+    @Override
+    public synchronized void agregarInvitadoEvento(Evento evento, Contacto contacto)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        long posicion = this.registro.obtenerLongitud();
+        this.registro.registrarAltaInvitado(evento, contacto);
+        iniciarModificacion();
+        try {
+            super.agregarInvitadoEvento(evento, contacto);
+        } catch (ContactoYaInvitadoException | EventoNoEncontradoException
+                 | ContactoNoEncontradoEnAgendaException | RuntimeException e) {
+            descartarRegistro(posicion, e);
+            throw e;
+        } finally {
+            terminarModificacion();
+        }
+    }
+
+    /**
+     * Registra la invitación de varios contactos en una sola entrada y los
+     * agrega a la lista de invitados del evento.
+     *
+     * @param evento El evento en el cual se quieren agregar los invitados.
+     * @param nuevosInvitados Los contactos a agregar, en orden.
+     * @throws ContactoYaInvitadoException si algún contacto ya esta invitado o
+     * se repite dentro del lote.
+     * @throws EventoNoEncontradoException Si el evento no existe en la agenda.
+     * @throws ContactoNoEncontradoEnAgendaException Si algún contacto no se
+     * encuentra en la agenda.
+     */
+    @Override
+    public synchronized void agregarInvitadosEvento(Evento evento,
+                                                    Collection<Contacto> nuevosInvitados)
+            throws ContactoYaInvitadoException,
+            EventoNoEncontradoException,
+            ContactoNoEncontradoEnAgendaException {
+        long posicion = this.registro.obtenerLongitud();
+        this.registro.registrarAltaInvitados(evento, nuevosInvitados);
+        iniciarModificacion();
+        try {
+            super.agregarInvitadosEvento(evento, nuevosInvitados);
+        } catch (ContactoYaInvitadoException | EventoNoEncontradoException
+                 | ContactoNoEncontradoEnAgendaException | RuntimeException e) {
+            descartarRegistro(posicion, e);
+            throw e;
+        } finally {
+            terminarModificacion();
+        }
+    }
+
+    /**
+     * Registra la quita de un invitado y lo elimina de la lista de invitados
+     * del evento.
+     *
+     * @param evento El evento del cual se quiere quitar un invitado.
+     * @param contacto El contacto a eliminar.
+     * @throws ContactoNoEncontradoEnEventoException Si no se encuentra un contacto.
+     * @throws EventoNoEncontradoException Si el evento no se encuentra en la agenda.
+     */
+    @Override
+    public synchronized void quitarInvitadoEvento(Evento evento, Contacto contacto)
+            throws EventoNoEncontradoException, ContactoNoEncontradoEnEventoException {
+        long posicion = this.registro.obtenerLongitud();
+        this.registro.registrarBajaInvitado(evento, contacto);
+        iniciarModificacion();
+        try {
+            super.quitarInvitadoEvento(evento, contacto);
+        } catch (EventoNoEncontradoException | ContactoNoEncontradoEnEventoException
+                 | RuntimeException e) {
+            descartarRegistro(posicion, e);
+            throw e;
+        } finally {
+            terminarModificacion();
+        }
+    }
+
+    /**
+     * Fuerza en disco todas las modificaciones registradas hasta el momento.
+     */
+    public void sincronizar() {
+        this.registro.sincronizar();
+    }
+
+    /**
+     * Guarda un punto de control con el contenido actual de la agenda.
+     * <p>
+     * Si la agenda envuelta es una {@link AgendaConcurrente}, la instantánea
+     * se toma sin detener las modificaciones, junto con la posición del
+     * registro hasta la que estaban aplicadas; si en el medio se aplicó
+     * alguna, se vuelve a intentar y, tras {@link #INTENTOS_SIN_BLOQUEO}
+     * intentos, se toma deteniéndolas. La escritura del archivo nunca las
+     * bloquea.
+     */
+    public void guardarPuntoDeControl() {
+        if (this.puntoDeControl == null) {
+            throw new IllegalStateException("La agenda no tiene punto de control");
+        }
+        synchronized (this.bloqueoPuntoDeControl) {
+            InstantaneaAgenda instantanea = null;
+            long posicion = 0;
+            for (int intento = 0; this.instantaneasConcurrentes
+                    && instantanea == null && intento < INTENTOS_SIN_BLOQUEO; intento++) {
+                long inicio = this.secuencia;
+                if (inicio % 2 == 0) {
+                    long aplicada = this.posicionAplicada;
+                    InstantaneaAgenda tomada = tomarInstantanea();
+                    if (this.secuencia == inicio) {
+                        instantanea = tomada;
+                        posicion = aplicada;
+                    }
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+            if (instantanea == null) {
+                synchronized (this) {
+                    posicion = this.registro.obtenerLongitud();
+                    instantanea = tomarInstantanea();
+                }
+            }
+            // El punto de control no puede apuntar más allá de lo guardado en disco.
+            this.registro.sincronizar();
+            try {
+                PuntoDeControl.guardar(instantanea, posicion, this.puntoDeControl);
+            } catch (IOException e) {
+                throw new PersistenciaException("No se pudo guardar el punto de control "
+                        + this.puntoDeControl, e);
+            }
+        }
+    }
+
+    /**
+     * Programa el guardado periódico de puntos de control en segundo plano,
+     * hasta que se cierre la agenda.
+     *
+     * @param intervalo El tiempo entre dos puntos de control.
+     */
+    public synchronized void programarPuntosDeControl(Duration intervalo) {
+        if (this.puntoDeControl == null) {
+            throw new IllegalStateException("La agenda no tiene punto de control");
+        }
+        if (this.programador != null) {
+            this.programador.shutdown();
+        }
+        this.programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "punto-de-control");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long periodo = intervalo.toNanos();
+        this.programador.scheduleWithFixedDelay(this::guardarPuntoDeControlProgramado,
+                periodo, periodo, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sincroniza las modificaciones pendientes y cierra el registro.
+     *
+     * @throws IOException Si falla la sincronización o el cierre.
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService tareas;
+        synchronized (this) {
+            tareas = this.programador;
+            this.programador = null;
+        }
+        if (tareas != null) {
+            tareas.shutdown();
+            try {
+                tareas.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            this.registro.close();
+        }
+    }
+
+    /**
+     * Marca el comienzo de la aplicación de una modificación ya registrada.
+     */
+    private void iniciarModificacion() {
+        this.secuencia = this.secuencia + 1;
+    }
+
+    /**
+     * Marca el fin de la aplicación de una modificación, exitosa o no.
+     */
+    private void terminarModificacion() {
+        this.posicionAplicada = this.registro.obtenerLongitud();
+        this.secuencia = this.secuencia + 1;
+    }
+
+    /**
+     * Quita del registro la entrada de una modificación que la agenda
+     * rechazó. Si no se puede quitar, la falla se agrega a la excepción de la
+     * modificación.
+     *
+     * @param posicion La longitud del registro antes de la entrada.
+     * @param rechazo La excepción con la que la agenda rechazó la modificación.
+     */
+    private void descartarRegistro(long posicion, Exception rechazo) {
+        try {
+            this.registro.descartarDesde(posicion);
+        } catch (PersistenciaException e) {
+            rechazo.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Tarea periódica que guarda un punto de control.
+     */
+    private void guardarPuntoDeControlProgramado() {
+        try {
+            guardarPuntoDeControl();
+        } catch (PersistenciaException e) {
+            // El registro sigue completo; se reintenta en la próxima ejecución.
+            return;
+        }
+    }
+}
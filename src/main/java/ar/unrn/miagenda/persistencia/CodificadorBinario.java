@@ -0,0 +1,76 @@
+package ar.unrn.miagenda.persistencia;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Funciones auxiliares para escribir y leer en binario los datos de una
+ * agenda que pueden estar ausentes.
+ */
+final class CodificadorBinario {
+
+    /**
+     * Constructor privado, la clase solo expone métodos estáticos.
+     */
+    private CodificadorBinario() {
+    }
+
+    /**
+     * Escribe un texto que puede ser nulo.
+     *
+     * @param salida La salida donde escribir.
+     * @param texto El texto a escribir.
+     * @throws IOException Si falla la escritura.
+     */
+    static void escribirTexto(DataOutput salida, String texto) throws IOException {
+        salida.writeBoolean(texto != null);
+        if (texto != null) {
+            salida.writeUTF(texto);
+        }
+    }
+
+    /**
+     * Lee un texto escrito con {@link #escribirTexto(DataOutput, String)}.
+     *
+     * @param entrada La entrada desde donde leer.
+     * @return El texto leído, que puede ser nulo.
+     * @throws IOException Si falla la lectura.
+     */
+    static String leerTexto(DataInput entrada) throws IOException {
+        if (entrada.readBoolean()) {
+            return entrada.readUTF();
+        }
+        return null;
+    }
+
+    /**
+     * Escribe una fecha que puede ser nula, como cantidad de días desde la
+     * época.
+     *
+     * @param salida La salida donde escribir.
+     * @param fecha La fecha a escribir.
+     * @throws IOException Si falla la escritura.
+     */
+    static void escribirFecha(DataOutput salida, LocalDate fecha) throws IOException {
+        salida.writeBoolean(fecha != null);
+        if (fecha != null) {
+            salida.writeLong(fecha.toEpochDay());
+        }
+    }
+
+    /**
+     * Lee una fecha escrita con {@link #escribirFecha(DataOutput, LocalDate)}.
+     *
+     * @param entrada La entrada desde donde leer.
+     * @return La fecha leída, que puede ser nula.
+     * @throws IOException Si falla la lectura.
+     */
+    static LocalDate leerFecha(DataInput entrada) throws IOException {
+        if (entrada.readBoolean()) {
+            return LocalDate.ofEpochDay(entrada.readLong());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,375 @@
+package ar.unrn.miagenda.persistencia;
+
+import ar.unrn.miagenda.agenda.InstantaneaAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+import ar.unrn.miagenda.evento.Evento;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato columnar de solo lectura para archivar una agenda completa, pensado
+ * para ser consultado directamente desde un archivo mapeado en memoria con
+ * {@link AgendaArchivada}.
+ * <p>
+ * Cada contacto se identifica por su posición en el archivo, que sigue el
+ * orden de los DNI. Los textos se referencian por su posición en el
+ * repertorio y los comienzos de listas se guardan como {@code long}, por lo
+ * que el archivo puede superar los 2 GB. El archivo contiene, en este orden:
+ * <ol>
+ *     <li>La cabecera: número mágico, versión, cantidad de contactos y de
+ *     eventos como {@code int}, y cantidad de invitaciones como
+ *     {@code long}.</li>
+ *     <li>Las posiciones en el repertorio de los DNI normalizados, en orden
+ *     creciente de sus bytes. Al guardarse como texto, conservan los ceros a
+ *     la izquierda.</li>
+ *     <li>Las fechas de nacimiento como días desde la época.</li>
+ *     <li>Las posiciones en el repertorio del nombre y del nombre
+ *     normalizado de cada contacto.</li>
+ *     <li>Los identificadores de contacto ordenados por nombre, por nombre
+ *     normalizado y por fecha de nacimiento.</li>
+ *     <li>Los nombres, fechas y comienzos de la lista de invitados de cada
+ *     evento, seguidos de los identificadores de los invitados.</li>
+ *     <li>Los comienzos de la lista de eventos de cada contacto, seguidos de
+ *     los identificadores de esos eventos.</li>
+ *     <li>El repertorio de textos: cada texto distinto una sola vez, como su
+ *     longitud seguida de sus bytes en UTF-8.</li>
+ * </ol>
+ * <p>
+ * Las columnas se escriben directamente en el archivo a medida que se
+ * generan; en memoria solo se conservan los órdenes de los contactos y la
+ * posición de cada texto distinto en el repertorio.
+ */
+public final class FormatoColumnar {
+
+    /**
+     * Número que identifica a los archivos en formato columnar.
+     */
+    static final int MAGICO = 0x4D414341;
+    /**
+     * Versión del formato.
+     */
+    static final int VERSION_FORMATO = 2;
+    /**
+     * Longitud en bytes de la cabecera.
+     */
+    static final int LONGITUD_CABECERA = 4 * Integer.BYTES + Long.BYTES;
+    /**
+     * Valor que representa una fecha ausente.
+     */
+    static final int SIN_FECHA = Integer.MIN_VALUE;
+    /**
+     * Valor que representa un texto ausente.
+     */
+    static final long SIN_TEXTO = -1;
+    /**
+     * Tamaño del buffer de escritura.
+     */
+    private static final int TAMANIO_BUFFER = 1 << 16;
+    /**
+     * Tamaño de cada porción del archivo que se mapea para escribir la
+     * columna de eventos de cada contacto.
+     */
+    private static final long TAMANIO_PORCION = 1L << 30;
+    /**
+     * Sufijo del archivo temporal.
+     */
+    private static final String SUFIJO_TEMPORAL = ".tmp";
+    /**
+     * Sufijo del archivo temporal donde se arma el repertorio de textos.
+     */
+    private static final String SUFIJO_REPERTORIO = ".textos.tmp";
+
+    /**
+     * Constructor privado, la clase solo expone métodos estáticos.
+     */
+    private FormatoColumnar() {
+    }
+
+    /**
+     * Archiva una instantánea de la agenda en formato columnar. El archivo se
+     * escribe en un archivo temporal y luego reemplaza atómicamente al
+     * archivo indicado.
+     *
+     * @param instantanea El contenido de la agenda a archivar.
+     * @param archivo La ubicación del archivo.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public static void escribir(InstantaneaAgenda instantanea, Path archivo)
+            throws IOException {
+        List<Contacto> porNombre = instantanea.contactosPorNombre();
+        int cantidad = porNombre.size();
+        byte[][] dnis = new byte[cantidad][];
+        for (int i = 0; i < cantidad; i++) {
+            dnis[i] = porNombre.get(i).obtenerDniNormalizado()
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        // Los identificadores siguen el orden de los DNI.
+        Integer[] porDni = new Integer[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            porDni[i] = i;
+        }
+        Arrays.sort(porDni, (a, b) -> Arrays.compareUnsigned(dnis[a], dnis[b]));
+        Contacto[] contactos = new Contacto[cantidad];
+        Map<Contacto, Integer> identificadores = new HashMap<>(cantidad * 2);
+        for (int id = 0; id < cantidad; id++) {
+            contactos[id] = porNombre.get(porDni[id]);
+            identificadores.put(contactos[id], id);
+        }
+        List<Evento> eventos = instantanea.eventos();
+        long invitaciones = 0;
+        long[] cantidadEventosDeContacto = new long[cantidad];
+        for (Evento evento : eventos) {
+            for (Contacto invitado : instantanea.invitadosDe(evento)) {
+                cantidadEventosDeContacto[identificadores.get(invitado)]++;
+                invitaciones++;
+            }
+        }
+
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + SUFIJO_TEMPORAL);
+        Path textos = archivo.resolveSibling(archivo.getFileName() + SUFIJO_REPERTORIO);
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             RepertorioDeTextos repertorio = new RepertorioDeTextos(textos)) {
+            DataOutputStream columnas = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(canal), TAMANIO_BUFFER));
+            columnas.writeInt(MAGICO);
+            columnas.writeInt(VERSION_FORMATO);
+            columnas.writeInt(cantidad);
+            columnas.writeInt(eventos.size());
+            columnas.writeLong(invitaciones);
+            for (Contacto contacto : contactos) {
+                columnas.writeLong(repertorio.agregar(contacto.obtenerDniNormalizado()));
+            }
+            for (Contacto contacto : contactos) {
+                columnas.writeInt(empaquetarFecha(contacto.obtenerFechaNacimiento()));
+            }
+            for (Contacto contacto : contactos) {
+                columnas.writeLong(repertorio.agregar(contacto.obtenerNombre()));
+            }
+            byte[][] normalizados = new byte[cantidad][];
+            for (int id = 0; id < cantidad; id++) {
+                String normalizado =
+                        Normalizador.normalizarNombre(contactos[id].obtenerNombre());
+                normalizados[id] = normalizado.getBytes(StandardCharsets.UTF_8);
+                columnas.writeLong(repertorio.agregar(normalizado));
+            }
+            for (Contacto contacto : porNombre) {
+                columnas.writeInt(identificadores.get(contacto));
+            }
+            Integer[] porNormalizado = new Integer[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                porNormalizado[i] = identificadores.get(porNombre.get(i));
+            }
+            // Orden estable: a igual nombre normalizado se respeta el orden por nombre.
+            Arrays.sort(porNormalizado, (a, b) ->
+                    Arrays.compareUnsigned(normalizados[a], normalizados[b]));
+            for (Integer id : porNormalizado) {
+                columnas.writeInt(id);
+            }
+            for (Contacto contacto : instantanea.contactosPorNacimiento()) {
+                columnas.writeInt(identificadores.get(contacto));
+            }
+
+            for (Evento evento : eventos) {
+                columnas.writeLong(repertorio.agregar(evento.obtenerNombreEvento()));
+            }
+            for (Evento evento : eventos) {
+                columnas.writeInt(empaquetarFecha(evento.obtenerFechaEvento()));
+            }
+            long inicio = 0;
+            columnas.writeLong(inicio);
+            for (Evento evento : eventos) {
+                inicio = inicio + instantanea.invitadosDe(evento).size();
+                columnas.writeLong(inicio);
+            }
+            for (Evento evento : eventos) {
+                for (Contacto invitado : instantanea.invitadosDe(evento)) {
+                    columnas.writeInt(identificadores.get(invitado));
+                }
+            }
+            // Los comienzos se reutilizan como cursor de escritura de cada contacto.
+            long[] cursores = cantidadEventosDeContacto;
+            inicio = 0;
+            columnas.writeLong(inicio);
+            for (int id = 0; id < cantidad; id++) {
+                long propios = cursores[id];
+                cursores[id] = inicio;
+                inicio = inicio + propios;
+                columnas.writeLong(inicio);
+            }
+            columnas.flush();
+            long comienzoEventosDeContacto = canal.position();
+            escribirEventosDeContacto(canal, comienzoEventosDeContacto, invitaciones,
+                    eventos, instantanea, identificadores, cursores);
+            canal.position(comienzoEventosDeContacto + invitaciones * Integer.BYTES);
+            repertorio.transferirA(canal);
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Escribe la columna con los eventos de cada contacto. Como se recorre
+     * por evento pero se guarda agrupada por contacto, la columna se escribe
+     * sobre el archivo mapeado en porciones en lugar de armarla en memoria.
+     *
+     * @param canal El canal del archivo.
+     * @param comienzo La posición del archivo donde comienza la columna.
+     * @param invitaciones La cantidad total de invitaciones.
+     * @param eventos Los eventos, en orden.
+     * @param instantanea La instantánea con los invitados de cada evento.
+     * @param identificadores El identificador de cada contacto.
+     * @param cursores La próxima posición a escribir de cada contacto; se
+     *                 modifica.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    private static void escribirEventosDeContacto(FileChannel canal, long comienzo,
+                                                  long invitaciones, List<Evento> eventos,
+                                                  InstantaneaAgenda instantanea,
+                                                  Map<Contacto, Integer> identificadores,
+                                                  long[] cursores) throws IOException {
+        long longitud = invitaciones * Integer.BYTES;
+        int cantidadPorciones =
+                (int) ((longitud + TAMANIO_PORCION - 1) / TAMANIO_PORCION);
+        MappedByteBuffer[] porciones = new MappedByteBuffer[cantidadPorciones];
+        for (int i = 0; i < cantidadPorciones; i++) {
+            long desde = i * TAMANIO_PORCION;
+            porciones[i] = canal.map(FileChannel.MapMode.READ_WRITE, comienzo + desde,
+                    Math.min(TAMANIO_PORCION, longitud - desde));
+        }
+        for (int idEvento = 0; idEvento < eventos.size(); idEvento++) {
+            for (Contacto invitado : instantanea.invitadosDe(eventos.get(idEvento))) {
+                int id = identificadores.get(invitado);
+                long posicion = cursores[id] * Integer.BYTES;
+                cursores[id]++;
+                porciones[(int) (posicion / TAMANIO_PORCION)]
+                        .putInt((int) (posicion % TAMANIO_PORCION), idEvento);
+            }
+        }
+        for (MappedByteBuffer porcion : porciones) {
+            porcion.force();
+        }
+    }
+
+    /**
+     * Convierte una fecha que puede ser nula en días desde la época.
+     *
+     * @param fecha La fecha.
+     * @return Los días desde la época, o {@link #SIN_FECHA} si es nula.
+     */
+    static int empaquetarFecha(LocalDate fecha) {
+        return fecha == null ? SIN_FECHA : Math.toIntExact(fecha.toEpochDay());
+    }
+
+    /**
+     * Textos distintos de un archivo, cada uno guardado una única vez. Los
+     * textos se escriben en un archivo auxiliar a medida que se agregan y al
+     * final se copian detrás de las columnas.
+     */
+    private static final class RepertorioDeTextos implements Closeable {
+
+        /**
+         * La posición de cada texto agregado.
+         */
+        private final Map<String, Long> posiciones = new HashMap<>();
+        /**
+         * La ubicación del archivo auxiliar.
+         */
+        private final Path archivo;
+        /**
+         * El canal del archivo auxiliar.
+         */
+        private final FileChannel canal;
+        /**
+         * La salida con la que se escriben los textos en el archivo auxiliar.
+         */
+        private final DataOutputStream salida;
+        /**
+         * La cantidad de bytes escritos.
+         */
+        private long longitud;
+
+        /**
+         * Constructor que crea el archivo auxiliar.
+         *
+         * @param ubicacion La ubicación del archivo auxiliar.
+         * @throws IOException Si no se puede crear el archivo.
+         */
+        RepertorioDeTextos(Path ubicacion) throws IOException {
+            this.archivo = ubicacion;
+            this.canal = FileChannel.open(ubicacion, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.salida = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(this.canal), TAMANIO_BUFFER));
+        }
+
+        /**
+         * Agrega un texto si no estaba y devuelve su posición.
+         *
+         * @param texto El texto.
+         * @return La posición del texto, o {@link #SIN_TEXTO} si es nulo.
+         * @throws IOException Si falla la escritura.
+         */
+        long agregar(String texto) throws IOException {
+            if (texto == null) {
+                return SIN_TEXTO;
+            }
+            Long posicion = this.posiciones.get(texto);
+            if (posicion == null) {
+                posicion = this.longitud;
+                byte[] codificado = texto.getBytes(StandardCharsets.UTF_8);
+                this.salida.writeInt(codificado.length);
+                this.salida.write(codificado);
+                this.longitud = this.longitud + Integer.BYTES + codificado.length;
+                this.posiciones.put(texto, posicion);
+            }
+            return posicion;
+        }
+
+        /**
+         * Copia el repertorio completo al final de otro archivo.
+         *
+         * @param destino El canal donde copiar, ubicado donde debe comenzar.
+         * @throws IOException Si falla la copia.
+         */
+        void transferirA(FileChannel destino) throws IOException {
+            this.salida.flush();
+            long copiados = 0;
+            while (copiados < this.longitud) {
+                copiados = copiados + this.canal.transferTo(copiados,
+                        this.longitud - copiados, destino);
+            }
+        }
+
+        /**
+         * Cierra y borra el archivo auxiliar.
+         *
+         * @throws IOException Si no se puede borrar el archivo.
+         */
+        @Override
+        public void close() throws IOException {
+            this.canal.close();
+            Files.deleteIfExists(this.archivo);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ar.unrn.miagenda.persistencia;
+
+/**
+ * Niveles de durabilidad con los que se escribe el registro de una agenda,
+ * de menor a mayor garantía ante una caída del sistema.
+ */
+public enum NivelDeDurabilidad {
+    /**
+     * Cada modificación se entrega al sistema operativo, pero nunca se fuerza
+     * su escritura en el disco. Sobrevive a la caída del proceso, no a la del
+     * sistema.
+     */
+    SIN_SINCRONIZAR,
+    /**
+     * Las modificaciones se acumulan y se fuerzan al disco en lotes, cuando se
+     * completa un lote o transcurre el intervalo configurado. Ante una caída
+     * del sistema se puede perder, como máximo, el último lote.
+     */
+    POR_LOTES,
+    /**
+     * Cada modificación se fuerza al disco antes de devolver el control.
+     */
+    INMEDIATA
+}
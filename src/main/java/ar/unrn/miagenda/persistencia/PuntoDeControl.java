@@ -0,0 +1,278 @@
+package ar.unrn.miagenda.persistencia;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.agenda.InstantaneaAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.PersistenciaException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Guarda y recupera el contenido completo de una agenda en un único archivo
+ * binario, junto con la posición del {@link RegistroDeEscritura} hasta la que
+ * ese contenido está al día.
+ * <p>
+ * El archivo se escribe primero en un archivo temporal y luego se lo mueve
+ * de forma atómica, por lo que siempre existe un punto de control completo.
+ * Los invitados se guardan como posiciones en la lista de contactos, sin
+ * repetir sus datos. El archivo termina con una suma de verificación de todo
+ * su contenido, que se comprueba antes de cargar nada en la agenda.
+ */
+public final class PuntoDeControl {
+
+    /**
+     * Número que identifica a los archivos de punto de control.
+     */
+    private static final int MAGICO = 0x4D414350;
+    /**
+     * Versión del formato del archivo.
+     */
+    private static final int VERSION_FORMATO = 2;
+    /**
+     * Valor que representa una fecha ausente.
+     */
+    private static final long SIN_FECHA = Long.MIN_VALUE;
+    /**
+     * Valor que representa un texto ausente.
+     */
+    private static final int SIN_TEXTO = -1;
+    /**
+     * Tamaño del buffer de escritura.
+     */
+    private static final int TAMANIO_BUFFER = 1 << 16;
+    /**
+     * Bytes que ocupa la suma de verificación al final del archivo.
+     */
+    private static final int BYTES_VERIFICACION = Integer.BYTES;
+    /**
+     * Sufijo del archivo temporal.
+     */
+    private static final String SUFIJO_TEMPORAL = ".tmp";
+
+    /**
+     * Constructor privado, la clase solo expone métodos estáticos.
+     */
+    private PuntoDeControl() {
+    }
+
+    /**
+     * Guarda una instantánea de la agenda y reemplaza atómicamente el punto
+     * de control anterior.
+     *
+     * @param instantanea El contenido de la agenda a guardar.
+     * @param posicionRegistro La posición del registro hasta la que la
+     *                         instantánea está al día.
+     * @param archivo La ubicación del punto de control.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public static void guardar(InstantaneaAgenda instantanea, long posicionRegistro,
+                               Path archivo) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + SUFIJO_TEMPORAL);
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            BufferedOutputStream buffer = new BufferedOutputStream(
+                    Channels.newOutputStream(canal), TAMANIO_BUFFER);
+            CheckedOutputStream verificada = new CheckedOutputStream(buffer, new CRC32());
+            DataOutputStream salida = new DataOutputStream(verificada);
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION_FORMATO);
+            salida.writeLong(posicionRegistro);
+            salida.writeLong(instantanea.obtenerVersion());
+            List<Contacto> contactos = instantanea.contactosPorNombre();
+            Map<Contacto, Integer> posiciones = new HashMap<>(contactos.size() * 2);
+            salida.writeInt(contactos.size());
+            for (Contacto contacto : contactos) {
+                posiciones.put(contacto, posiciones.size());
+                escribirTexto(salida, contacto.obtenerNombre());
+                escribirTexto(salida, contacto.obtenerDni());
+                escribirFecha(salida, contacto.obtenerFechaNacimiento());
+            }
+            List<Evento> eventos = instantanea.eventos();
+            salida.writeInt(eventos.size());
+            for (Evento evento : eventos) {
+                escribirTexto(salida, evento.obtenerNombreEvento());
+                escribirFecha(salida, evento.obtenerFechaEvento());
+                List<Contacto> invitados = instantanea.invitadosDe(evento);
+                int cantidad = 0;
+                for (Contacto invitado : invitados) {
+                    if (posiciones.containsKey(invitado)) {
+                        cantidad++;
+                    }
+                }
+                salida.writeInt(cantidad);
+                for (Contacto invitado : invitados) {
+                    // Un invitado agregado directamente sobre el evento puede
+                    // no estar agendado; la agenda no lo conoce y no se guarda.
+                    Integer posicion = posiciones.get(invitado);
+                    if (posicion != null) {
+                        salida.writeInt(posicion);
+                    }
+                }
+            }
+            salida.flush();
+            new DataOutputStream(buffer).writeInt(
+                    (int) verificada.getChecksum().getValue());
+            buffer.flush();
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Carga un punto de control sobre una agenda vacía, leyendo el archivo
+     * mapeado en memoria. La suma de verificación se comprueba antes de
+     * modificar la agenda, y el contenido se carga de una sola vez con
+     * {@link IAgenda#cargarContenido(java.util.Collection, java.util.Collection)}.
+     *
+     * @param archivo La ubicación del punto de control.
+     * @param destino La agenda donde se cargan los contactos y eventos.
+     * @return La posición del registro desde la que debe continuar la
+     * reproducción, o 0 si el punto de control no existe.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    public static long cargar(Path archivo, IAgenda destino) throws IOException {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            MappedByteBuffer datos =
+                    canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (datos.getInt() != MAGICO || datos.getInt() != VERSION_FORMATO) {
+                throw new PersistenciaException("El archivo " + archivo
+                        + " no es un punto de control de agenda");
+            }
+            verificar(datos, archivo);
+            long posicionRegistro = datos.getLong();
+            datos.getLong();
+            Contacto[] contactos = new Contacto[datos.getInt()];
+            for (int i = 0; i < contactos.length; i++) {
+                contactos[i] = new Contacto(leerTexto(datos), leerTexto(datos),
+                        leerFecha(datos));
+            }
+            int cantidadEventos = datos.getInt();
+            List<Evento> eventos = new ArrayList<>(cantidadEventos);
+            for (int i = 0; i < cantidadEventos; i++) {
+                String nombre = leerTexto(datos);
+                LocalDate fecha = leerFecha(datos);
+                int cantidadInvitados = datos.getInt();
+                List<Contacto> invitados = new ArrayList<>(cantidadInvitados);
+                for (int j = 0; j < cantidadInvitados; j++) {
+                    invitados.add(contactos[datos.getInt()]);
+                }
+                eventos.add(new Evento(nombre, fecha, invitados));
+            }
+            destino.cargarContenido(Arrays.asList(contactos), eventos);
+            return posicionRegistro;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new PersistenciaException("El punto de control " + archivo
+                    + " está incompleto", e);
+        } catch (ContactoDuplicadoException | EventoDuplicadoException
+                 | ContactoNoEncontradoEnAgendaException | IllegalStateException e) {
+            throw new PersistenciaException("El punto de control " + archivo
+                    + " no puede cargarse sobre una agenda con datos", e);
+        }
+    }
+
+    /**
+     * Comprueba que la suma de verificación del final del archivo coincida
+     * con su contenido, sin mover la posición de lectura.
+     *
+     * @param datos El archivo mapeado en memoria.
+     * @param archivo La ubicación del punto de control, para informar errores.
+     */
+    private static void verificar(MappedByteBuffer datos, Path archivo) {
+        int fin = datos.limit() - BYTES_VERIFICACION;
+        if (fin < datos.position()) {
+            throw new PersistenciaException("El punto de control " + archivo
+                    + " está incompleto");
+        }
+        CRC32 verificacion = new CRC32();
+        verificacion.update(datos.duplicate().position(0).limit(fin));
+        if ((int) verificacion.getValue() != datos.getInt(fin)) {
+            throw new PersistenciaException("El punto de control " + archivo
+                    + " está dañado");
+        }
+    }
+
+    /**
+     * Escribe un texto que puede ser nulo como su longitud en bytes seguida
+     * de su contenido en UTF-8.
+     *
+     * @param salida La salida donde escribir.
+     * @param texto El texto a escribir.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirTexto(DataOutputStream salida, String texto)
+            throws IOException {
+        if (texto == null) {
+            salida.writeInt(SIN_TEXTO);
+        } else {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            salida.writeInt(bytes.length);
+            salida.write(bytes);
+        }
+    }
+
+    /**
+     * Escribe una fecha que puede ser nula como cantidad de días desde la época.
+     *
+     * @param salida La salida donde escribir.
+     * @param fecha La fecha a escribir.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirFecha(DataOutputStream salida, LocalDate fecha)
+            throws IOException {
+        salida.writeLong(fecha == null ? SIN_FECHA : fecha.toEpochDay());
+    }
+
+    /**
+     * Lee un texto escrito con {@link #escribirTexto(DataOutputStream, String)}.
+     *
+     * @param datos El archivo mapeado en memoria.
+     * @return El texto leído, que puede ser nulo.
+     */
+    private static String leerTexto(MappedByteBuffer datos) {
+        int longitud = datos.getInt();
+        if (longitud == SIN_TEXTO) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud];
+        datos.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lee una fecha escrita con {@link #escribirFecha(DataOutputStream, LocalDate)}.
+     *
+     * @param datos El archivo mapeado en memoria.
+     * @return La fecha leída, que puede ser nula.
+     */
+    private static LocalDate leerFecha(MappedByteBuffer datos) {
+        long dias = datos.getLong();
+        return dias == SIN_FECHA ? null : LocalDate.ofEpochDay(dias);
+    }
+}
@@ -0,0 +1,966 @@
+package ar.unrn.miagenda.persistencia;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+import ar.unrn.miagenda.excepciones.PersistenciaException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Registro de escritura anticipada de una agenda: un archivo binario al que
+ * solo se agregan, en orden, las modificaciones realizadas. Reproduciendo el
+ * registro desde el comienzo se reconstruye la agenda.
+ * <p>
+ * Cada entrada se guarda con su longitud y una suma de verificación, de modo
+ * que una entrada escrita a medias por una caída se detecta y se descarta al
+ * reproducir el registro. Los lotes que no entran en una sola entrada se
+ * escriben como un grupo de entradas entre una marca de comienzo y una de
+ * fin; al reproducir, un grupo se aplica como un único lote y un grupo sin
+ * fin se descarta completo.
+ * <p>
+ * Cada entrada se entrega al sistema operativo en cuanto se registra; el
+ * nivel de durabilidad solo decide cuándo se fuerza su escritura en disco.
+ */
+public class RegistroDeEscritura implements Closeable {
+
+    /**
+     * Cantidad de entradas que forman un lote con {@link NivelDeDurabilidad#POR_LOTES}.
+     */
+    public static final int REGISTROS_POR_LOTE = 256;
+    /**
+     * Intervalo máximo entre sincronizaciones con {@link NivelDeDurabilidad#POR_LOTES}.
+     */
+    public static final Duration INTERVALO_POR_LOTES = Duration.ofMillis(10);
+    /**
+     * Número que identifica a los archivos de registro.
+     */
+    private static final int MAGICO = 0x4D41574C;
+    /**
+     * Versión del formato de las entradas. La versión 2 agrega los grupos de
+     * entradas; los registros de la versión 1 se siguen leyendo.
+     */
+    private static final int VERSION_FORMATO = 2;
+    /**
+     * Longitud en bytes de la cabecera del archivo.
+     */
+    private static final int LONGITUD_CABECERA = 8;
+    /**
+     * Longitud máxima aceptada para una entrada, para descartar longitudes
+     * corruptas sin intentar reservar memoria.
+     */
+    private static final int LONGITUD_MAXIMA_ENTRADA = 64 * 1024 * 1024;
+    /**
+     * Bytes que ocupan la longitud y la suma de verificación de una entrada.
+     */
+    private static final int BYTES_ENCUADRE = 8;
+    /**
+     * Longitud a partir de la cual un lote se divide en un grupo de varias
+     * entradas, para que ninguna supere {@link #LONGITUD_MAXIMA_ENTRADA}.
+     */
+    private static final int LONGITUD_MAXIMA_LOTE = LONGITUD_MAXIMA_ENTRADA / 2;
+
+    /**
+     * El canal del archivo de registro.
+     */
+    private final FileChannel canal;
+    /**
+     * El nivel de durabilidad con que se escriben las entradas.
+     */
+    private final NivelDeDurabilidad nivel;
+    /**
+     * La cantidad de entradas que forman un lote.
+     */
+    private final int registrosPorLote;
+    /**
+     * Tarea periódica que fuerza los lotes incompletos; {@code null} si el
+     * nivel de durabilidad no trabaja por lotes.
+     */
+    private final ScheduledExecutorService sincronizador;
+    /**
+     * La cantidad de entradas pendientes de forzar en disco.
+     */
+    private int entradasSinForzar;
+    /**
+     * La longitud del registro, que es también la posición de la próxima
+     * entrada.
+     */
+    private long longitud;
+    /**
+     * La falla que dejó al registro con entradas que no pudieron quitarse, o
+     * {@code null} si el registro es consistente.
+     */
+    private IOException averia;
+
+    /**
+     * Abre un registro para agregar entradas al final. Si el archivo no existe
+     * se crea; si termina con una entrada incompleta, se la descarta.
+     *
+     * @param archivo La ubicación del archivo de registro.
+     * @param longitudValida La longitud del archivo que contiene entradas
+     *                       válidas, según {@link #reproducir(Path, IAgenda, long)}.
+     * @param nivelDurabilidad El nivel de durabilidad de las escrituras.
+     * @param entradasPorLote La cantidad de entradas que forman un lote.
+     * @param intervalo El intervalo máximo entre sincronizaciones de un lote.
+     * @throws IOException Si no se puede abrir el archivo.
+     */
+    public RegistroDeEscritura(Path archivo,
+                               long longitudValida,
+                               NivelDeDurabilidad nivelDurabilidad,
+                               int entradasPorLote,
+                               Duration intervalo) throws IOException {
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        this.nivel = nivelDurabilidad;
+        this.registrosPorLote = entradasPorLote;
+        ByteBuffer cabecera = ByteBuffer.allocate(LONGITUD_CABECERA);
+        cabecera.putInt(MAGICO).putInt(VERSION_FORMATO).flip();
+        if (longitudValida < LONGITUD_CABECERA) {
+            this.canal.truncate(0);
+            this.longitud = LONGITUD_CABECERA;
+        } else {
+            this.canal.truncate(longitudValida);
+            this.longitud = longitudValida;
+        }
+        escribirEn(cabecera, 0);
+        this.canal.force(true);
+        if (nivelDurabilidad == NivelDeDurabilidad.POR_LOTES) {
+            this.sincronizador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "sincronizador-registro");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            long periodo = intervalo.toNanos();
+            this.sincronizador.scheduleWithFixedDelay(this::sincronizarEnSegundoPlano,
+                    periodo, periodo, TimeUnit.NANOSECONDS);
+        } else {
+            this.sincronizador = null;
+        }
+    }
+
+    /**
+     * Abre un registro con el tamaño de lote y el intervalo por defecto.
+     *
+     * @param archivo La ubicación del archivo de registro.
+     * @param longitudValida La longitud del archivo que contiene entradas válidas.
+     * @param nivelDurabilidad El nivel de durabilidad de las escrituras.
+     * @throws IOException Si no se puede abrir el archivo.
+     */
+    public RegistroDeEscritura(Path archivo,
+                               long longitudValida,
+                               NivelDeDurabilidad nivelDurabilidad) throws IOException {
+        this(archivo, longitudValida, nivelDurabilidad, REGISTROS_POR_LOTE,
+                INTERVALO_POR_LOTES);
+    }
+
+    /**
+     * Obtiene la longitud del registro, que incluye las entradas aún no
+     * forzadas en disco. Reproducir el registro desde esta posición
+     * aplica solo las modificaciones registradas a partir de ahora.
+     *
+     * @return La longitud del registro en bytes.
+     */
+    public synchronized long obtenerLongitud() {
+        return this.longitud;
+    }
+
+    /**
+     * Registra el alta de un contacto.
+     *
+     * @param contacto El contacto agregado.
+     */
+    public synchronized void registrarAltaContacto(Contacto contacto) {
+        ByteArrayOutputStream carga = new ByteArrayOutputStream();
+        try (DataOutputStream salida = new DataOutputStream(carga)) {
+            salida.writeByte(TipoDeRegistro.ALTA_CONTACTO.obtenerCodigo());
+            escribirContacto(salida, contacto);
+        } catch (IOException e) {
+            throw new PersistenciaException("No se pudo codificar el contacto", e);
+        }
+        agregar(carga.toByteArray());
+    }
+
+    /**
+     * Registra la baja de un contacto.
+     *
+     * @param contacto El contacto eliminado.
+     */
+    public synchronized void registrarBajaContacto(Contacto contacto) {
+        ByteArrayOutputStream carga = new ByteArrayOutputStream();
+        try (DataOutputStream salida = new DataOutputStream(carga)) {
+            salida.writeByte(TipoDeRegistro.BAJA_CONTACTO.obtenerCodigo());
+            CodificadorBinario.escribirTexto(salida, contacto.obtenerDni());
+        } catch (IOException e) {
+            throw new PersistenciaException("No se pudo codificar el contacto", e);
+        }
+        agregar(carga.toByteArray());
+    }
+
+    /**
+     * Registra la creación de un evento junto con sus invitados.
+     *
+     * @param evento El evento creado.
+     */
+    public synchronized void registrarAltaEvento(Evento evento) {
+        ByteArrayOutputStream carga = new ByteArrayOutputStream();
+        try (DataOutputStream salida = new DataOutputStream(carga)) {
+            salida.writeByte(TipoDeRegistro.ALTA_EVENTO.obtenerCodigo());
+            escribirEvento(salida, evento);
+        } catch (IOException e) {
+            throw new PersistenciaException("No se pudo codificar el evento", e);
+        }
+        agregar(carga.toByteArray());
+    }
+
+    /**
+     * Registra la invitación de un contacto a un evento.
+     *
+     * @param evento El evento.
+     * @param contacto El contacto invitado.
+     */
+    public synchronized void registrarAltaInvitado(Evento evento, Contacto contacto) {
+        agregar(codificarInvitacion(TipoDeRegistro.ALTA_INVITADO, evento, contacto));
+    }
+
+    /**
+     * Registra la quita de un invitado de un evento.
+     *
+     * @param evento El evento.
+     * @param contacto El contacto quitado.
+     */
+    public synchronized void registrarBajaInvitado(Evento evento, Contacto contacto) {
+        agregar(codificarInvitacion(TipoDeRegistro.BAJA_INVITADO, evento, contacto));
+    }
+
+    /**
+     * Registra el alta de un lote de contactos en una sola entrada, que al
+     * reproducirse se aplica completa o no se aplica. Los lotes que superan
+     * {@link #LONGITUD_MAXIMA_LOTE} bytes se dividen en un grupo de entradas
+     * que también se aplica completo o no se aplica.
+     *
+     * @param nuevos Los contactos agregados.
+     */
+    public synchronized void registrarAltaContactos(Collection<Contacto> nuevos) {
+        agregarLote(TipoDeRegistro.ALTA_CONTACTOS, null, nuevos,
+                RegistroDeEscritura::escribirContacto);
+    }
+
+    /**
+     * Registra la creación de un lote de eventos, junto con sus invitados, en
+     * una sola entrada.
+     *
+     * @param nuevos Los eventos creados, en orden.
+     */
+    public synchronized void registrarAltaEventos(Collection<Evento> nuevos) {
+        agregarLote(TipoDeRegistro.ALTA_EVENTOS, null, nuevos,
+                RegistroDeEscritura::escribirEvento);
+    }
+
+    /**
+     * Registra la invitación de un lote de contactos a un evento en una sola
+     * entrada.
+     *
+     * @param evento El evento.
+     * @param nuevosInvitados Los contactos invitados, en orden.
+     */
+    public synchronized void registrarAltaInvitados(
+            Evento evento, Collection<Contacto> nuevosInvitados) {
+        agregarLote(TipoDeRegistro.ALTA_INVITADOS, evento, nuevosInvitados,
+                (salida, contacto) ->
+                        CodificadorBinario.escribirTexto(salida, contacto.obtenerDni()));
+    }
+
+    /**
+     * Registra la limpieza de la agenda.
+     */
+    public synchronized void registrarLimpieza() {
+        agregar(new byte[]{TipoDeRegistro.LIMPIEZA.obtenerCodigo()});
+    }
+
+    /**
+     * Fuerza en disco todas las entradas registradas hasta el momento, sin
+     * importar el nivel de durabilidad.
+     */
+    public synchronized void sincronizar() {
+        try {
+            forzar();
+        } catch (IOException e) {
+            throw new PersistenciaException("No se pudo sincronizar el registro", e);
+        }
+    }
+
+    /**
+     * Sincroniza las entradas pendientes y cierra el archivo.
+     *
+     * @throws IOException Si falla la sincronización o el cierre.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.sincronizador != null) {
+            this.sincronizador.shutdownNow();
+        }
+        if (this.canal.isOpen()) {
+            forzar();
+            this.canal.close();
+        }
+    }
+
+    /**
+     * Reproduce sobre una agenda las modificaciones guardadas en un registro,
+     * a partir de una posición. Se detiene en la primera entrada incompleta o
+     * dañada, que corresponde a una escritura interrumpida.
+     * <p>
+     * Un grupo de entradas se aplica como un único lote, y un grupo al que le
+     * falta la marca de fin se descarta completo. Si la última entrada o el
+     * último grupo no puede aplicarse, se lo descarta: es una modificación que
+     * la agenda rechazó y cuya quita del registro, con
+     * {@link #descartarDesde(long)}, no llegó a completarse.
+     *
+     * @param archivo La ubicación del archivo de registro.
+     * @param destino La agenda sobre la que se aplican las modificaciones.
+     * @param desde La posición desde la que se reproduce; 0 para el comienzo.
+     *              Debe ser el comienzo de una entrada, como la obtenida con
+     *              {@link #obtenerLongitud()}.
+     * @return La longitud del registro que contiene entradas válidas, o 0 si
+     * el archivo no existe.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    public static long reproducir(Path archivo, IAgenda destino, long desde)
+            throws IOException {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        try (InputStream flujo = new BufferedInputStream(Files.newInputStream(archivo));
+             DataInputStream entrada = new DataInputStream(flujo)) {
+            try {
+                int magico = entrada.readInt();
+                int version = entrada.readInt();
+                if (magico != MAGICO || version < 1 || version > VERSION_FORMATO) {
+                    throw new PersistenciaException("El archivo " + archivo
+                            + " no es un registro de agenda");
+                }
+            } catch (EOFException e) {
+                return 0;
+            }
+            long posicion = Math.max(desde, LONGITUD_CABECERA);
+            if (posicion > Files.size(archivo)) {
+                throw new PersistenciaException("El registro " + archivo
+                        + " es más corto que la posición " + desde);
+            }
+            entrada.skipNBytes(posicion - LONGITUD_CABECERA);
+            Unidad unidad = leerUnidad(entrada);
+            while (unidad != null) {
+                Unidad siguiente = leerUnidad(entrada);
+                try {
+                    if (unidad.agrupada) {
+                        aplicarGrupo(unidad.partes, destino);
+                    } else {
+                        aplicar(unidad.partes.get(0), destino);
+                    }
+                } catch (ContactoDuplicadoException
+                         | ContactoNoEncontradoEnAgendaException
+                         | EventoDuplicadoException | ContactoYaInvitadoException
+                         | EventoNoEncontradoException
+                         | ContactoNoEncontradoEnEventoException e) {
+                    if (siguiente != null) {
+                        throw new PersistenciaException("El registro no es consistente "
+                                + "con la agenda", e);
+                    }
+                    return posicion;
+                }
+                posicion = posicion + unidad.longitud;
+                unidad = siguiente;
+            }
+            return posicion;
+        }
+    }
+
+    /**
+     * Lee la próxima entrada, o el próximo grupo de entradas completo.
+     *
+     * @param entrada La entrada desde donde leer.
+     * @return La entrada o el grupo leído, o {@code null} si no hay más
+     * entradas válidas o el grupo no tiene su marca de fin.
+     * @throws IOException Si falla la lectura.
+     */
+    private static Unidad leerUnidad(DataInputStream entrada) throws IOException {
+        byte[] carga = leerEntrada(entrada);
+        if (carga == null) {
+            return null;
+        }
+        if (carga[0] != TipoDeRegistro.INICIO_GRUPO.obtenerCodigo()) {
+            return new Unidad(List.of(carga), false, carga.length + BYTES_ENCUADRE);
+        }
+        List<byte[]> partes = new ArrayList<>();
+        long longitudGrupo = carga.length + BYTES_ENCUADRE;
+        byte[] parte = leerEntrada(entrada);
+        while (parte != null && parte[0] != TipoDeRegistro.FIN_GRUPO.obtenerCodigo()) {
+            if (parte[0] == TipoDeRegistro.INICIO_GRUPO.obtenerCodigo()) {
+                return null;
+            }
+            partes.add(parte);
+            longitudGrupo = longitudGrupo + parte.length + BYTES_ENCUADRE;
+            parte = leerEntrada(entrada);
+        }
+        if (parte == null) {
+            return null;
+        }
+        return new Unidad(partes, true, longitudGrupo + parte.length + BYTES_ENCUADRE);
+    }
+
+    /**
+     * Lee la próxima entrada completa y verifica su suma de verificación.
+     *
+     * @param entrada La entrada desde donde leer.
+     * @return El contenido de la entrada, o {@code null} si no hay más
+     * entradas válidas.
+     * @throws IOException Si falla la lectura.
+     */
+    private static byte[] leerEntrada(DataInputStream entrada) throws IOException {
+        try {
+            int largo = entrada.readInt();
+            if (largo <= 0 || largo > LONGITUD_MAXIMA_ENTRADA) {
+                return null;
+            }
+            byte[] carga = new byte[largo];
+            entrada.readFully(carga);
+            int suma = entrada.readInt();
+            CRC32 verificacion = new CRC32();
+            verificacion.update(carga);
+            if ((int) verificacion.getValue() != suma) {
+                return null;
+            }
+            return carga;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Aplica una entrada del registro sobre la agenda.
+     *
+     * @param carga El contenido de la entrada.
+     * @param destino La agenda sobre la que se aplica.
+     * @throws IOException Si el contenido no puede decodificarse.
+     * @throws ContactoDuplicadoException Si la agenda rechaza la entrada.
+     * @throws ContactoNoEncontradoEnAgendaException Si la agenda rechaza la entrada.
+     * @throws EventoDuplicadoException Si la agenda rechaza la entrada.
+     * @throws ContactoYaInvitadoException Si la agenda rechaza la entrada.
+     * @throws EventoNoEncontradoException Si la agenda rechaza la entrada.
+     * @throws ContactoNoEncontradoEnEventoException Si la agenda rechaza la
+     * entrada.
+     */
+    private static void aplicar(byte[] carga, IAgenda destino)
+            throws IOException, ContactoDuplicadoException,
+            ContactoNoEncontradoEnAgendaException, EventoDuplicadoException,
+            ContactoYaInvitadoException, EventoNoEncontradoException,
+            ContactoNoEncontradoEnEventoException {
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(carga));
+        TipoDeRegistro tipo = TipoDeRegistro.desdeCodigo(entrada.readByte());
+        if (tipo == null) {
+            throw new PersistenciaException("El registro contiene una entrada "
+                    + "desconocida");
+        }
+        switch (tipo) {
+            case ALTA_CONTACTO -> destino.agregarContacto(leerNuevoContacto(entrada));
+            case BAJA_CONTACTO -> destino.eliminarContacto(
+                    leerContacto(entrada, destino));
+            case ALTA_EVENTO -> destino.crearEvento(leerEvento(entrada, destino));
+            case ALTA_INVITADO -> destino.agregarInvitadoEvento(
+                    leerEvento(entrada, null), leerContacto(entrada, destino));
+            case BAJA_INVITADO -> destino.quitarInvitadoEvento(
+                    leerEvento(entrada, null), leerContacto(entrada, destino));
+            case ALTA_CONTACTOS -> destino.agregarContactos(leerNuevosContactos(entrada));
+            case ALTA_EVENTOS -> destino.crearEventos(leerEventos(entrada, destino));
+            case ALTA_INVITADOS -> destino.agregarInvitadosEvento(
+                    leerEvento(entrada, null), leerContactos(entrada, destino));
+            case LIMPIEZA -> destino.limpiarAgenda();
+            default -> throw new PersistenciaException("El registro contiene una "
+                    + "marca de grupo fuera de lugar");
+        }
+    }
+
+    /**
+     * Aplica sobre la agenda un grupo de entradas de lote como un único lote,
+     * de modo que se aplica completo o no se aplica.
+     *
+     * @param partes Las entradas del grupo, en orden.
+     * @param destino La agenda sobre la que se aplica.
+     * @throws IOException Si el contenido no puede decodificarse.
+     * @throws ContactoDuplicadoException Si la agenda rechaza el lote.
+     * @throws ContactoNoEncontradoEnAgendaException Si la agenda rechaza el lote.
+     * @throws EventoDuplicadoException Si la agenda rechaza el lote.
+     * @throws ContactoYaInvitadoException Si la agenda rechaza el lote.
+     * @throws EventoNoEncontradoException Si la agenda rechaza el lote.
+     */
+    private static void aplicarGrupo(List<byte[]> partes, IAgenda destino)
+            throws IOException, ContactoDuplicadoException,
+            ContactoNoEncontradoEnAgendaException, EventoDuplicadoException,
+            ContactoYaInvitadoException, EventoNoEncontradoException {
+        TipoDeRegistro tipo = null;
+        Evento evento = null;
+        List<Contacto> contactos = new ArrayList<>();
+        List<Evento> eventos = new ArrayList<>();
+        for (byte[] parte : partes) {
+            DataInputStream entrada =
+                    new DataInputStream(new ByteArrayInputStream(parte));
+            TipoDeRegistro tipoParte = TipoDeRegistro.desdeCodigo(entrada.readByte());
+            if (tipoParte == null || (tipo != null && tipoParte != tipo)) {
+                throw new PersistenciaException("El registro contiene un grupo de "
+                        + "entradas mezcladas");
+            }
+            tipo = tipoParte;
+            switch (tipoParte) {
+                case ALTA_CONTACTOS -> contactos.addAll(leerNuevosContactos(entrada));
+                case ALTA_EVENTOS -> eventos.addAll(leerEventos(entrada, destino));
+                case ALTA_INVITADOS -> {
+                    evento = leerEvento(entrada, null);
+                    contactos.addAll(leerContactos(entrada, destino));
+                }
+                default -> throw new PersistenciaException("El registro contiene un "
+                        + "grupo de entradas que no son lotes");
+            }
+        }
+        if (tipo == TipoDeRegistro.ALTA_CONTACTOS) {
+            destino.agregarContactos(contactos);
+        } else if (tipo == TipoDeRegistro.ALTA_EVENTOS) {
+            destino.crearEventos(eventos);
+        } else if (tipo == TipoDeRegistro.ALTA_INVITADOS) {
+            destino.agregarInvitadosEvento(evento, contactos);
+        }
+    }
+
+    /**
+     * Lee un evento de una entrada. Si se indica una agenda, también se leen
+     * sus invitados y se los busca en ella.
+     *
+     * @param entrada La entrada desde donde leer.
+     * @param agenda La agenda donde buscar a los invitados, o {@code null} si
+     *               la entrada solo identifica al evento.
+     * @return El evento leído.
+     * @throws IOException Si falla la lectura.
+     * @throws ContactoNoEncontradoEnAgendaException Si un invitado no existe.
+     */
+    private static Evento leerEvento(DataInputStream entrada, IAgenda agenda)
+            throws IOException, ContactoNoEncontradoEnAgendaException {
+        String nombre = CodificadorBinario.leerTexto(entrada);
+        LocalDate fecha = CodificadorBinario.leerFecha(entrada);
+        if (agenda == null) {
+            return new Evento(nombre, fecha, null);
+        }
+        return new Evento(nombre, fecha, leerContactos(entrada, agenda));
+    }
+
+    /**
+     * Lee un lote de eventos con sus invitados, buscando a los invitados en
+     * la agenda.
+     *
+     * @param entrada La entrada desde donde leer.
+     * @param agenda La agenda donde buscar a los invitados.
+     * @return Los eventos leídos, en orden.
+     * @throws IOException Si falla la lectura.
+     * @throws ContactoNoEncontradoEnAgendaException Si un invitado no existe.
+     */
+    private static List<Evento> leerEventos(DataInputStream entrada, IAgenda agenda)
+            throws IOException, ContactoNoEncontradoEnAgendaException {
+        int cantidad = entrada.readInt();
+        List<Evento> leidos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            leidos.add(leerEvento(entrada, agenda));
+        }
+        return leidos;
+    }
+
+    /**
+     * Lee una cantidad seguida de esa cantidad de DNIs, y busca los contactos
+     * en la agenda.
+     *
+     * @param entrada La entrada desde donde leer.
+     * @param agenda La agenda donde buscar a los contactos.
+     * @return Los contactos agendados, en orden.
+     * @throws IOException Si falla la lectura.
+     * @throws ContactoNoEncontradoEnAgendaException Si un contacto no existe.
+     */
+    private static List<Contacto> leerContactos(DataInputStream entrada, IAgenda agenda)
+            throws IOException, ContactoNoEncontradoEnAgendaException {
+        int cantidad = entrada.readInt();
+        List<Contacto> leidos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            leidos.add(leerContacto(entrada, agenda));
+        }
+        return leidos;
+    }
+
+    /**
+     * Lee los datos completos de un contacto nuevo.
+     *
+     * @param entrada La entrada desde donde leer.
+     * @return El contacto leído.
+     * @throws IOException Si falla la lectura.
+     */
+    private static Contacto leerNuevoContacto(DataInputStream entrada)
+            throws IOException {
+        return new Contacto(CodificadorBinario.leerTexto(entrada),
+                CodificadorBinario.leerTexto(entrada),
+                CodificadorBinario.leerFecha(entrada));
+    }
+
+    /**
+     * Lee un lote de contactos nuevos.
+     *
+     * @param entrada La entrada desde donde leer.
+     * @return Los contactos leídos, en orden.
+     * @throws IOException Si falla la lectura.
+     */
+    private static List<Contacto> leerNuevosContactos(DataInputStream entrada)
+            throws IOException {
+        int cantidad = entrada.readInt();
+        List<Contacto> leidos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            leidos.add(leerNuevoContacto(entrada));
+        }
+        return leidos;
+    }
+
+    /**
+     * Lee el DNI de un contacto y lo busca en la agenda.
+     *
+     * @param entrada La entrada desde donde leer.
+     * @param agenda La agenda donde buscar al contacto.
+     * @return El contacto agendado con ese DNI.
+     * @throws IOException Si falla la lectura.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no existe.
+     */
+    private static Contacto leerContacto(DataInputStream entrada, IAgenda agenda)
+            throws IOException, ContactoNoEncontradoEnAgendaException {
+        return agenda.buscarContactoPorDni(CodificadorBinario.leerTexto(entrada));
+    }
+
+    /**
+     * Escribe los datos completos de un contacto.
+     *
+     * @param salida Donde escribir.
+     * @param contacto El contacto.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirContacto(DataOutputStream salida, Contacto contacto)
+            throws IOException {
+        CodificadorBinario.escribirTexto(salida, contacto.obtenerNombre());
+        CodificadorBinario.escribirTexto(salida, contacto.obtenerDni());
+        CodificadorBinario.escribirFecha(salida, contacto.obtenerFechaNacimiento());
+    }
+
+    /**
+     * Escribe un evento junto con los DNI de sus invitados.
+     *
+     * @param salida Donde escribir.
+     * @param evento El evento.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void escribirEvento(DataOutputStream salida, Evento evento)
+            throws IOException {
+        CodificadorBinario.escribirTexto(salida, evento.obtenerNombreEvento());
+        CodificadorBinario.escribirFecha(salida, evento.obtenerFechaEvento());
+        Collection<Contacto> invitados = evento.obtenerInvitadosEvento();
+        salida.writeInt(invitados.size());
+        for (Contacto invitado : invitados) {
+            CodificadorBinario.escribirTexto(salida, invitado.obtenerDni());
+        }
+    }
+
+    /**
+     * Codifica una invitación o la quita de un invitado.
+     *
+     * @param tipo El tipo de entrada.
+     * @param evento El evento.
+     * @param contacto El contacto.
+     * @return El contenido de la entrada.
+     */
+    private static byte[] codificarInvitacion(TipoDeRegistro tipo, Evento evento,
+                                              Contacto contacto) {
+        ByteArrayOutputStream carga = new ByteArrayOutputStream();
+        try (DataOutputStream salida = new DataOutputStream(carga)) {
+            salida.writeByte(tipo.obtenerCodigo());
+            CodificadorBinario.escribirTexto(salida, evento.obtenerNombreEvento());
+            CodificadorBinario.escribirFecha(salida, evento.obtenerFechaEvento());
+            CodificadorBinario.escribirTexto(salida, contacto.obtenerDni());
+        } catch (IOException e) {
+            throw new PersistenciaException("No se pudo codificar la invitacion", e);
+        }
+        return carga.toByteArray();
+    }
+
+    /**
+     * Agrega un lote al registro como una entrada con el tipo, el evento si
+     * se indica, la cantidad de elementos y los elementos codificados. Si el
+     * lote supera {@link #LONGITUD_MAXIMA_LOTE} bytes se divide en varias
+     * entradas, escritas entre las marcas {@link TipoDeRegistro#INICIO_GRUPO}
+     * y {@link TipoDeRegistro#FIN_GRUPO}. Si la escritura falla a mitad del
+     * grupo, se quita lo escrito. Un lote vacío no agrega ninguna entrada.
+     *
+     * @param tipo El tipo de entrada.
+     * @param evento El evento al que se refiere el lote, o {@code null}.
+     * @param elementos Los elementos del lote.
+     * @param codificador Cómo escribir cada elemento.
+     * @param <T> El tipo de los elementos.
+     */
+    private <T> void agregarLote(TipoDeRegistro tipo, Evento evento,
+                                 Collection<T> elementos,
+                                 CodificadorDeElemento<T> codificador) {
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(cuerpo);
+        int cantidad = 0;
+        long inicio = this.longitud;
+        boolean agrupado = false;
+        try {
+            for (T elemento : elementos) {
+                codificador.escribir(salida, elemento);
+                cantidad++;
+                if (cuerpo.size() >= LONGITUD_MAXIMA_LOTE) {
+                    if (!agrupado) {
+                        agregar(new byte[]{TipoDeRegistro.INICIO_GRUPO.obtenerCodigo()});
+                        agrupado = true;
+                    }
+                    agregar(codificarLote(tipo, evento, cantidad, cuerpo));
+                    cuerpo.reset();
+                    cantidad = 0;
+                }
+            }
+            if (cantidad > 0) {
+                agregar(codificarLote(tipo, evento, cantidad, cuerpo));
+            }
+            if (agrupado) {
+                agregar(new byte[]{TipoDeRegistro.FIN_GRUPO.obtenerCodigo()});
+            }
+        } catch (IOException e) {
+            throw descartarGrupo(inicio,
+                    new PersistenciaException("No se pudo codificar el lote", e));
+        } catch (RuntimeException e) {
+            throw descartarGrupo(inicio, e);
+        }
+    }
+
+    /**
+     * Quita las entradas de un grupo que no pudo escribirse completo.
+     *
+     * @param inicio La longitud del registro antes del grupo.
+     * @param error La falla que interrumpió el grupo.
+     * @return La falla, con la del descarte como suprimida si también falla.
+     */
+    private RuntimeException descartarGrupo(long inicio, RuntimeException error) {
+        try {
+            descartarDesde(inicio);
+        } catch (PersistenciaException e) {
+            error.addSuppressed(e);
+        }
+        return error;
+    }
+
+    /**
+     * Arma el contenido de una entrada de lote.
+     *
+     * @param tipo El tipo de entrada.
+     * @param evento El evento al que se refiere el lote, o {@code null}.
+     * @param cantidad La cantidad de elementos codificados.
+     * @param cuerpo Los elementos codificados.
+     * @return El contenido de la entrada.
+     * @throws IOException Si falla la codificación.
+     */
+    private static byte[] codificarLote(TipoDeRegistro tipo, Evento evento, int cantidad,
+                                        ByteArrayOutputStream cuerpo) throws IOException {
+        ByteArrayOutputStream carga = new ByteArrayOutputStream(cuerpo.size()
+                + BYTES_ENCUADRE);
+        DataOutputStream salida = new DataOutputStream(carga);
+        salida.writeByte(tipo.obtenerCodigo());
+        if (evento != null) {
+            CodificadorBinario.escribirTexto(salida, evento.obtenerNombreEvento());
+            CodificadorBinario.escribirFecha(salida, evento.obtenerFechaEvento());
+        }
+        salida.writeInt(cantidad);
+        cuerpo.writeTo(salida);
+        salida.flush();
+        return carga.toByteArray();
+    }
+
+    /**
+     * Quita del registro las entradas agregadas desde una posición, para
+     * deshacer el registro de una modificación que la agenda rechazó. Si el
+     * archivo no puede recortarse, el registro deja de aceptar entradas.
+     *
+     * @param posicion La longitud que tenía el registro antes de agregarlas,
+     *                 obtenida con {@link #obtenerLongitud()}.
+     */
+    public synchronized void descartarDesde(long posicion) {
+        if (posicion >= this.longitud) {
+            return;
+        }
+        try {
+            this.canal.truncate(posicion);
+            this.longitud = posicion;
+            if (this.nivel == NivelDeDurabilidad.INMEDIATA) {
+                this.canal.force(true);
+            }
+        } catch (IOException e) {
+            this.averia = e;
+            throw new PersistenciaException("No se pudo descartar el final del registro",
+                    e);
+        }
+    }
+
+    /**
+     * Agrega una entrada al final del archivo y fuerza su escritura en disco
+     * según el nivel de durabilidad. Si la escritura falla, se recorta lo que
+     * haya llegado a escribirse, de modo que la entrada no quede registrada.
+     *
+     * @param carga El contenido de la entrada.
+     */
+    private void agregar(byte[] carga) {
+        if (this.averia != null) {
+            throw new PersistenciaException("El registro quedó con entradas que no "
+                    + "pudieron descartarse", this.averia);
+        }
+        CRC32 verificacion = new CRC32();
+        verificacion.update(carga);
+        ByteBuffer entrada = ByteBuffer.allocate(carga.length + BYTES_ENCUADRE);
+        entrada.putInt(carga.length).put(carga)
+                .putInt((int) verificacion.getValue()).flip();
+        long posicion = this.longitud;
+        try {
+            escribirEn(entrada, posicion);
+            this.longitud = posicion + entrada.capacity();
+            this.entradasSinForzar++;
+            if (this.nivel == NivelDeDurabilidad.INMEDIATA
+                    || (this.nivel == NivelDeDurabilidad.POR_LOTES
+                    && this.entradasSinForzar >= this.registrosPorLote)) {
+                forzar();
+            }
+        } catch (IOException e) {
+            PersistenciaException error =
+                    new PersistenciaException("No se pudo escribir el registro", e);
+            try {
+                this.canal.truncate(posicion);
+                this.longitud = posicion;
+            } catch (IOException f) {
+                this.averia = f;
+                error.addSuppressed(f);
+            }
+            throw error;
+        }
+    }
+
+    /**
+     * Escribe todos los bytes de un buffer en una posición del archivo.
+     *
+     * @param datos Los bytes a escribir.
+     * @param posicion La posición del archivo donde empezar.
+     * @throws IOException Si falla la escritura.
+     */
+    private void escribirEn(ByteBuffer datos, long posicion) throws IOException {
+        long destino = posicion;
+        while (datos.hasRemaining()) {
+            destino = destino + this.canal.write(datos, destino);
+        }
+    }
+
+    /**
+     * Fuerza en disco las entradas ya entregadas al sistema operativo.
+     *
+     * @throws IOException Si falla la sincronización.
+     */
+    private void forzar() throws IOException {
+        if (this.entradasSinForzar > 0) {
+            this.canal.force(false);
+            this.entradasSinForzar = 0;
+        }
+    }
+
+    /**
+     * Tarea periódica que fuerza en disco los lotes incompletos.
+     */
+    private synchronized void sincronizarEnSegundoPlano() {
+        try {
+            if (this.canal.isOpen()) {
+                forzar();
+            }
+        } catch (IOException e) {
+            // Se reintenta en la próxima ejecución o al completar el lote.
+            this.entradasSinForzar = Math.max(this.entradasSinForzar, 1);
+        }
+    }
+
+    /**
+     * Una entrada del registro o un grupo completo de entradas de lote.
+     */
+    private static final class Unidad {
+        /**
+         * El contenido de las entradas, sin las marcas del grupo.
+         */
+        private final List<byte[]> partes;
+        /**
+         * Si las entradas forman un grupo.
+         */
+        private final boolean agrupada;
+        /**
+         * Los bytes que ocupa en el registro, con las marcas y el encuadre.
+         */
+        private final long longitud;
+
+        /**
+         * Constructor que crea una unidad leída del registro.
+         *
+         * @param partesLeidas El contenido de las entradas.
+         * @param esGrupo Si las entradas forman un grupo.
+         * @param longitudLeida Los bytes que ocupa en el registro.
+         */
+        private Unidad(List<byte[]> partesLeidas, boolean esGrupo, long longitudLeida) {
+            this.partes = partesLeidas;
+            this.agrupada = esGrupo;
+            this.longitud = longitudLeida;
+        }
+    }
+
+    /**
+     * Escribe un elemento de un lote.
+     *
+     * @param <T> El tipo de los elementos.
+     */
+    @FunctionalInterface
+    private interface CodificadorDeElemento<T> {
+        /**
+         * Escribe un elemento.
+         *
+         * @param salida Donde escribir.
+         * @param elemento El elemento.
+         * @throws IOException Si falla la escritura.
+         */
+        void escribir(DataOutputStream salida, T elemento) throws IOException;
+    }
+}
@@ -0,0 +1,179 @@
+package ar.unrn.miagenda.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Porción de un archivo mapeada en memoria de solo lectura. Un único
+ * {@link ByteBuffer} no puede superar los 2 GB, por lo que la porción se
+ * mapea en segmentos y se accede con posiciones {@code long}. Los valores que
+ * quedan partidos entre dos segmentos se arman byte a byte.
+ */
+final class SeccionMapeada {
+
+    /**
+     * Bits de la posición que indican el desplazamiento dentro de un segmento.
+     */
+    private static final int BITS_SEGMENTO = 30;
+    /**
+     * Tamaño en bytes de cada segmento, salvo el último.
+     */
+    private static final long TAMANIO_SEGMENTO = 1L << BITS_SEGMENTO;
+    /**
+     * Máscara que obtiene el desplazamiento dentro de un segmento.
+     */
+    private static final long MASCARA_SEGMENTO = TAMANIO_SEGMENTO - 1;
+    /**
+     * Máscara que obtiene un byte sin signo.
+     */
+    private static final int MASCARA_BYTE = 0xFF;
+
+    /**
+     * Los segmentos mapeados, en orden.
+     */
+    private final ByteBuffer[] segmentos;
+    /**
+     * La longitud de la porción en bytes.
+     */
+    private final long longitud;
+
+    /**
+     * Constructor que mapea una porción de un archivo.
+     *
+     * @param canal El canal del archivo, abierto para lectura.
+     * @param desde La posición del archivo donde comienza la porción.
+     * @param longitudSeccion La longitud de la porción en bytes.
+     * @throws IOException Si no se puede mapear el archivo.
+     */
+    SeccionMapeada(FileChannel canal, long desde, long longitudSeccion)
+            throws IOException {
+        this.longitud = longitudSeccion;
+        int cantidad = (int) ((longitudSeccion + MASCARA_SEGMENTO) >>> BITS_SEGMENTO);
+        this.segmentos = new ByteBuffer[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            long inicio = i * TAMANIO_SEGMENTO;
+            this.segmentos[i] = canal.map(FileChannel.MapMode.READ_ONLY, desde + inicio,
+                    Math.min(TAMANIO_SEGMENTO, longitudSeccion - inicio));
+        }
+    }
+
+    /**
+     * Obtiene la longitud de la porción.
+     *
+     * @return La longitud en bytes.
+     */
+    long longitud() {
+        return this.longitud;
+    }
+
+    /**
+     * Lee el entero de 32 bits que ocupa la posición indicada de una columna
+     * de enteros.
+     *
+     * @param indice La posición del entero en la columna.
+     * @return El entero leído.
+     */
+    int entero(long indice) {
+        return leerEntero(indice * Integer.BYTES);
+    }
+
+    /**
+     * Lee el entero de 64 bits que ocupa la posición indicada de una columna
+     * de enteros largos.
+     *
+     * @param indice La posición del entero en la columna.
+     * @return El entero leído.
+     */
+    long largo(long indice) {
+        return leerLargo(indice * Long.BYTES);
+    }
+
+    /**
+     * Lee un byte.
+     *
+     * @param posicion La posición del byte en la porción.
+     * @return El byte leído.
+     * @throws IndexOutOfBoundsException Si la posición queda fuera de la porción.
+     */
+    byte leerOcteto(long posicion) {
+        if (posicion < 0 || posicion >= this.longitud) {
+            throw new IndexOutOfBoundsException("Posicion fuera de la seccion: "
+                    + posicion);
+        }
+        return this.segmentos[(int) (posicion >>> BITS_SEGMENTO)]
+                .get((int) (posicion & MASCARA_SEGMENTO));
+    }
+
+    /**
+     * Lee un entero de 32 bits a partir de una posición.
+     *
+     * @param posicion La posición del primer byte en la porción.
+     * @return El entero leído.
+     */
+    int leerEntero(long posicion) {
+        ByteBuffer segmento = segmentoCon(posicion, Integer.BYTES);
+        if (segmento != null) {
+            return segmento.getInt((int) (posicion & MASCARA_SEGMENTO));
+        }
+        int valor = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            valor = valor << Byte.SIZE | leerOcteto(posicion + i) & MASCARA_BYTE;
+        }
+        return valor;
+    }
+
+    /**
+     * Lee un entero de 64 bits a partir de una posición.
+     *
+     * @param posicion La posición del primer byte en la porción.
+     * @return El entero leído.
+     */
+    long leerLargo(long posicion) {
+        ByteBuffer segmento = segmentoCon(posicion, Long.BYTES);
+        if (segmento != null) {
+            return segmento.getLong((int) (posicion & MASCARA_SEGMENTO));
+        }
+        long valor = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            valor = valor << Byte.SIZE | leerOcteto(posicion + i) & MASCARA_BYTE;
+        }
+        return valor;
+    }
+
+    /**
+     * Copia bytes a partir de una posición.
+     *
+     * @param posicion La posición del primer byte en la porción.
+     * @param destino Dónde copiar; se llena por completo.
+     */
+    void leerBytes(long posicion, byte[] destino) {
+        ByteBuffer segmento = segmentoCon(posicion, destino.length);
+        if (segmento != null) {
+            segmento.get((int) (posicion & MASCARA_SEGMENTO), destino);
+            return;
+        }
+        for (int i = 0; i < destino.length; i++) {
+            destino[i] = leerOcteto(posicion + i);
+        }
+    }
+
+    /**
+     * Obtiene el segmento que contiene por completo un rango de bytes.
+     *
+     * @param posicion La posición del primer byte del rango.
+     * @param cantidad La cantidad de bytes del rango.
+     * @return El segmento, o {@code null} si el rango está partido entre dos
+     *         segmentos o queda fuera de la porción.
+     */
+    private ByteBuffer segmentoCon(long posicion, int cantidad) {
+        if (posicion < 0 || posicion + cantidad > this.longitud) {
+            return null;
+        }
+        long desplazamiento = posicion & MASCARA_SEGMENTO;
+        if (desplazamiento + cantidad > TAMANIO_SEGMENTO) {
+            return null;
+        }
+        return this.segmentos[(int) (posicion >>> BITS_SEGMENTO)];
+    }
+}
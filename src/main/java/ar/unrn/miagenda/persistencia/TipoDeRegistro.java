@@ -0,0 +1,92 @@
+package ar.unrn.miagenda.persistencia;
+
+/**
+ * Tipos de modificación que se guardan en el registro de una agenda. El
+ * código de cada tipo forma parte del formato en disco y no debe cambiar.
+ */
+enum TipoDeRegistro {
+    /**
+     * Alta de un contacto.
+     */
+    ALTA_CONTACTO((byte) 1),
+    /**
+     * Baja de un contacto, junto con sus invitaciones.
+     */
+    BAJA_CONTACTO((byte) 2),
+    /**
+     * Creación de un evento con sus invitados.
+     */
+    ALTA_EVENTO((byte) 3),
+    /**
+     * Invitación de un contacto a un evento.
+     */
+    ALTA_INVITADO((byte) 4),
+    /**
+     * Quita de un invitado de un evento.
+     */
+    BAJA_INVITADO((byte) 5),
+    /**
+     * Limpieza de todos los contactos y eventos.
+     */
+    LIMPIEZA((byte) 6),
+    /**
+     * Alta de un lote de contactos.
+     */
+    ALTA_CONTACTOS((byte) 7),
+    /**
+     * Creación de un lote de eventos con sus invitados.
+     */
+    ALTA_EVENTOS((byte) 8),
+    /**
+     * Invitación de un lote de contactos a un evento.
+     */
+    ALTA_INVITADOS((byte) 9),
+    /**
+     * Comienzo de un grupo de entradas de lote que se aplican juntas, usado
+     * para los lotes que no entran en una sola entrada.
+     */
+    INICIO_GRUPO((byte) 10),
+    /**
+     * Fin de un grupo de entradas de lote. Un grupo sin fin corresponde a una
+     * escritura interrumpida y se descarta completo.
+     */
+    FIN_GRUPO((byte) 11);
+
+    /**
+     * El código con el que se guarda el tipo en disco.
+     */
+    private final byte codigo;
+
+    /**
+     * Constructor que asocia un código a cada tipo.
+     *
+     * @param codigoTipo El código del tipo en disco.
+     */
+    TipoDeRegistro(byte codigoTipo) {
+        this.codigo = codigoTipo;
+    }
+
+    /**
+     * Obtiene el código con el que se guarda el tipo en disco.
+     *
+     * @return El código del tipo.
+     */
+    byte obtenerCodigo() {
+        return this.codigo;
+    }
+
+    /**
+     * Obtiene el tipo correspondiente a un código guardado en disco.
+     *
+     * @param codigo El código leído.
+     * @return El tipo de registro, o {@code null} si el código no es válido.
+     */
+    static TipoDeRegistro desdeCodigo(byte codigo) {
+        for (TipoDeRegistro tipo : values()) {
+            if (tipo.codigo == codigo) {
+                return tipo;
+            }
+        }
+        return null;
+    }
+}
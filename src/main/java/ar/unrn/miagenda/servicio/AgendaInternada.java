@@ -0,0 +1,106 @@
+package ar.unrn.miagenda.servicio;
+
+import ar.unrn.miagenda.agenda.Agenda;
+import ar.unrn.miagenda.agenda.AgendaConcurrente;
+import ar.unrn.miagenda.agenda.AgendaDelegada;
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Agenda que guarda los contactos con su nombre y su fecha de nacimiento
+ * internados, para compartirlos con las demás agendas del mismo
+ * {@link ServicioDeAgendas}. Los contactos agendados son copias de los
+ * recibidos, iguales a ellos según {@link Contacto#equals(Object)}.
+ * <p>
+ * Las agendas creadas con {@link #crear(Internador, Internador, Internador)}
+ * también internan los nombres normalizados que usan como claves de su
+ * índice por nombre, que de otro modo se repetirían en cada agenda.
+ */
+class AgendaInternada extends AgendaDelegada {
+
+    /**
+     * El internador de los nombres.
+     */
+    private final Internador<String> nombres;
+    /**
+     * El internador de las fechas.
+     */
+    private final Internador<LocalDate> fechas;
+
+    /**
+     * Constructor que envuelve una agenda usando los internadores indicados.
+     *
+     * @param agenda La agenda donde se guardan los contactos.
+     * @param internadorNombres El internador de los nombres.
+     * @param internadorFechas El internador de las fechas.
+     */
+    AgendaInternada(IAgenda agenda, Internador<String> internadorNombres,
+                    Internador<LocalDate> internadorFechas) {
+        super(agenda);
+        this.nombres = internadorNombres;
+        this.fechas = internadorFechas;
+    }
+
+    /**
+     * Crea una agenda concurrente vacía que interna los datos de sus contactos
+     * y las claves de su índice por nombre.
+     *
+     * @param internadorNombres El internador de los nombres.
+     * @param internadorClaves El internador de los nombres normalizados.
+     * @param internadorFechas El internador de las fechas.
+     * @return La agenda vacía.
+     */
+    static AgendaInternada crear(Internador<String> internadorNombres,
+                                 Internador<String> internadorClaves,
+                                 Internador<LocalDate> internadorFechas) {
+        return new AgendaInternada(
+                new AgendaConcurrente(new Agenda(internadorClaves::internar)),
+                internadorNombres, internadorFechas);
+    }
+
+    /**
+     * Agrega una copia del contacto con sus datos internados.
+     *
+     * @param contacto El contacto que se desea agregar.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     */
+    @Override
+    public void agregarContacto(Contacto contacto) throws ContactoDuplicadoException {
+        super.agregarContacto(internar(contacto));
+    }
+
+    /**
+     * Agrega copias de los contactos con sus datos internados.
+     *
+     * @param nuevos Los contactos que se desean agregar.
+     * @throws ContactoDuplicadoException Si algún contacto ya existe en la
+     * agenda o su DNI se repite dentro del lote.
+     */
+    @Override
+    public void agregarContactos(Collection<Contacto> nuevos)
+            throws ContactoDuplicadoException {
+        List<Contacto> internados = new ArrayList<>(nuevos.size());
+        for (Contacto contacto : nuevos) {
+            internados.add(internar(contacto));
+        }
+        super.agregarContactos(internados);
+    }
+
+    /**
+     * Crea una copia del contacto con el nombre y la fecha internados.
+     *
+     * @param contacto El contacto original.
+     * @return La copia con los datos compartidos.
+     */
+    private Contacto internar(Contacto contacto) {
+        return new Contacto(this.nombres.internar(contacto.obtenerNombre()),
+                contacto.obtenerDni(),
+                this.fechas.internar(contacto.obtenerFechaNacimiento()));
+    }
+}
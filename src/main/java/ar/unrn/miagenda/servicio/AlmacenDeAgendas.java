@@ -0,0 +1,33 @@
+package ar.unrn.miagenda.servicio;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+
+import java.io.IOException;
+
+/**
+ * Lugar donde un {@link ServicioDeAgendas} guarda las agendas que no tiene
+ * cargadas en memoria.
+ */
+public interface AlmacenDeAgendas {
+
+    /**
+     * Carga la agenda de un inquilino sobre una agenda vacía. Si el inquilino
+     * no tiene una agenda guardada, se la crea vacía.
+     *
+     * @param inquilino El identificador del inquilino.
+     * @param vacia La agenda vacía donde cargar los contactos y eventos.
+     * @return La agenda a usar, que puede ser la recibida o una que la envuelva.
+     * @throws IOException Si no se puede leer la agenda guardada.
+     */
+    IAgenda abrir(String inquilino, IAgenda vacia) throws IOException;
+
+    /**
+     * Guarda la agenda de un inquilino y libera los recursos asociados. La
+     * agenda no vuelve a usarse luego de esta llamada.
+     *
+     * @param inquilino El identificador del inquilino.
+     * @param agenda La agenda devuelta por {@link #abrir(String, IAgenda)}.
+     * @throws IOException Si no se puede guardar la agenda.
+     */
+    void cerrar(String inquilino, IAgenda agenda) throws IOException;
+}
@@ -0,0 +1,91 @@
+package ar.unrn.miagenda.servicio;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.persistencia.AgendaPersistente;
+import ar.unrn.miagenda.persistencia.NivelDeDurabilidad;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Almacén que guarda la agenda de cada inquilino como una
+ * {@link AgendaPersistente}, en un subdirectorio con el nombre del
+ * inquilino. Al cerrar una agenda se guarda un punto de control, de modo que
+ * volver a abrirla no requiera reproducir todo el registro.
+ */
+public class AlmacenEnDirectorio implements AlmacenDeAgendas {
+
+    /**
+     * El nombre del archivo de registro de cada inquilino.
+     */
+    public static final String ARCHIVO_REGISTRO = "agenda.wal";
+    /**
+     * El nombre del archivo de punto de control de cada inquilino.
+     */
+    public static final String ARCHIVO_PUNTO_DE_CONTROL = "agenda.pdc";
+    /**
+     * Los identificadores de inquilino aceptados, que pueden usarse como
+     * nombre de directorio en cualquier sistema.
+     */
+    private static final Pattern INQUILINO_VALIDO = Pattern.compile("[A-Za-z0-9_-]+");
+
+    /**
+     * El directorio donde se guardan las agendas.
+     */
+    private final Path directorio;
+    /**
+     * El nivel de durabilidad de las agendas abiertas.
+     */
+    private final NivelDeDurabilidad nivel;
+
+    /**
+     * Constructor que crea un almacén en el directorio indicado.
+     *
+     * @param directorioBase El directorio donde se guardan las agendas.
+     * @param nivelDurabilidad El nivel de durabilidad de las agendas abiertas.
+     */
+    public AlmacenEnDirectorio(Path directorioBase, NivelDeDurabilidad nivelDurabilidad) {
+        this.directorio = directorioBase;
+        this.nivel = nivelDurabilidad;
+    }
+
+    /**
+     * Abre la agenda persistente del inquilino, recuperando su contenido
+     * sobre la agenda vacía.
+     *
+     * @param inquilino El identificador del inquilino, formado solo por
+     *                  letras, dígitos, guiones y guiones bajos.
+     * @param vacia La agenda vacía donde cargar los contactos y eventos.
+     * @return La agenda persistente del inquilino.
+     * @throws IOException Si no se puede crear el directorio del inquilino.
+     */
+    @Override
+    public IAgenda abrir(String inquilino, IAgenda vacia) throws IOException {
+        if (!INQUILINO_VALIDO.matcher(inquilino).matches()) {
+            throw new IllegalArgumentException("Identificador de inquilino invalido: "
+                    + inquilino);
+        }
+        Path base = Files.createDirectories(this.directorio.resolve(inquilino));
+        return new AgendaPersistente(vacia, base.resolve(ARCHIVO_REGISTRO),
+                base.resolve(ARCHIVO_PUNTO_DE_CONTROL), this.nivel);
+    }
+
+    /**
+     * Guarda un punto de control de la agenda y la cierra.
+     *
+     * @param inquilino El identificador del inquilino.
+     * @param agenda La agenda devuelta por {@link #abrir(String, IAgenda)}.
+     * @throws IOException Si no se puede cerrar el registro.
+     */
+    @Override
+    public void cerrar(String inquilino, IAgenda agenda) throws IOException {
+        AgendaPersistente persistente = (AgendaPersistente) agenda;
+        try {
+            persistente.guardarPuntoDeControl();
+        } finally {
+            persistente.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ar.unrn.miagenda.servicio;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Reemplaza valores inmutables iguales por una única instancia compartida,
+ * de modo que muchas agendas que repiten los mismos nombres o fechas ocupen
+ * memoria una sola vez.
+ * <p>
+ * Las instancias se guardan mediante referencias débiles: un valor que ya no
+ * usa ninguna agenda puede ser recolectado. La tabla se divide en segmentos
+ * con bloqueos independientes para que varios hilos puedan internar valores
+ * a la vez.
+ *
+ * @param <T> El tipo de los valores, que debe ser inmutable.
+ */
+public final class Internador<T> {
+
+    /**
+     * La cantidad de segmentos de la tabla; debe ser una potencia de dos.
+     */
+    private static final int SEGMENTOS = 16;
+    /**
+     * Desplazamiento para mezclar los bits altos del código hash.
+     */
+    private static final int MEZCLA = 16;
+
+    /**
+     * Los segmentos de la tabla, cada uno protegido por su propio monitor.
+     */
+    private final List<Map<T, WeakReference<T>>> segmentos;
+
+    /**
+     * Constructor que crea un internador vacío.
+     */
+    public Internador() {
+        this.segmentos = new ArrayList<>(SEGMENTOS);
+        for (int i = 0; i < SEGMENTOS; i++) {
+            this.segmentos.add(new WeakHashMap<>());
+        }
+    }
+
+    /**
+     * Obtiene la instancia compartida igual al valor indicado. Si no había
+     * ninguna, el valor pasa a ser la instancia compartida.
+     *
+     * @param valor El valor a internar, puede ser {@code null}.
+     * @return La instancia compartida, o {@code null} si el valor era nulo.
+     */
+    public T internar(T valor) {
+        if (valor == null) {
+            return null;
+        }
+        Map<T, WeakReference<T>> segmento = segmentoDe(valor);
+        synchronized (segmento) {
+            WeakReference<T> referencia = segmento.get(valor);
+            T existente = referencia == null ? null : referencia.get();
+            if (existente != null) {
+                return existente;
+            }
+            segmento.put(valor, new WeakReference<>(valor));
+            return valor;
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de instancias compartidas que aún no fueron
+     * recolectadas.
+     *
+     * @return La cantidad aproximada de instancias.
+     */
+    public int cantidad() {
+        int total = 0;
+        for (Map<T, WeakReference<T>> segmento : this.segmentos) {
+            synchronized (segmento) {
+                total = total + segmento.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene el segmento donde se guarda un valor.
+     *
+     * @param valor El valor.
+     * @return El segmento del valor.
+     */
+    private Map<T, WeakReference<T>> segmentoDe(T valor) {
+        int hash = valor.hashCode();
+        return this.segmentos.get((hash ^ (hash >>> MEZCLA)) & (SEGMENTOS - 1));
+    }
+}
@@ -0,0 +1,23 @@
+package ar.unrn.miagenda.servicio;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+
+/**
+ * Operación que se ejecuta sobre la agenda de un inquilino mediante
+ * {@link ServicioDeAgendas#ejecutar(String, OperacionDeAgenda)}.
+ *
+ * @param <R> El tipo del resultado.
+ * @param <E> El tipo de las excepciones verificadas que puede lanzar.
+ */
+@FunctionalInterface
+public interface OperacionDeAgenda<R, E extends Exception> {
+
+    /**
+     * Ejecuta la operación.
+     *
+     * @param agenda La agenda del inquilino.
+     * @return El resultado de la operación.
+     * @throws E Si la operación falla.
+     */
+    R aplicar(IAgenda agenda) throws E;
+}
@@ -0,0 +1,510 @@
+package ar.unrn.miagenda.servicio;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.excepciones.PersistenciaException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.ToLongFunction;
+
+/**
+ * Administra las agendas de muchos inquilinos dentro de una misma máquina
+ * virtual.
+ * <p>
+ * La agenda de cada inquilino se carga desde un {@link AlmacenDeAgendas} la
+ * primera vez que se la usa y permanece en memoria mientras el peso estimado
+ * de todas las agendas cargadas no supere el presupuesto indicado. Al
+ * superarlo, se descargan las agendas que hace más tiempo no se usan. Una
+ * agenda nunca se descarga mientras se ejecuta una operación sobre ella.
+ * <p>
+ * Las agendas descargadas se guardan en el almacén en segundo plano, fuera
+ * de la operación que provocó la descarga, cada una por separado: una
+ * agenda que no puede guardarse no impide guardar las demás ni afecta el
+ * resultado de la operación. Las fallas se informan al cerrar el servicio.
+ * <p>
+ * Los nombres, los nombres normalizados que usan los índices y las fechas
+ * de nacimiento de los contactos se internan en tablas compartidas por
+ * todas las agendas, por lo que los valores repetidos entre inquilinos
+ * ocupan memoria una sola vez.
+ */
+public class ServicioDeAgendas implements Closeable {
+
+    /**
+     * Memoria aproximada que ocupa un contacto en una agenda en memoria,
+     * incluyendo sus entradas en los índices, en bytes.
+     */
+    public static final long BYTES_POR_CONTACTO = 512;
+    /**
+     * Memoria aproximada que ocupa una agenda sin contactos, en bytes.
+     */
+    public static final long BYTES_POR_AGENDA = 4_096;
+    /**
+     * Capacidad inicial de la tabla de agendas cargadas.
+     */
+    private static final int CAPACIDAD_INICIAL = 16;
+    /**
+     * Factor de carga de la tabla de agendas cargadas.
+     */
+    private static final float FACTOR_DE_CARGA = 0.75f;
+
+    /**
+     * El almacén de donde se cargan y donde se guardan las agendas.
+     */
+    private final AlmacenDeAgendas almacen;
+    /**
+     * El peso estimado máximo de las agendas cargadas.
+     */
+    private final long presupuesto;
+    /**
+     * Cómo estimar el peso de una agenda.
+     */
+    private final ToLongFunction<IAgenda> estimador;
+    /**
+     * Los nombres compartidos por todas las agendas.
+     */
+    private final Internador<String> nombres;
+    /**
+     * Los nombres normalizados compartidos por los índices de todas las
+     * agendas.
+     */
+    private final Internador<String> claves;
+    /**
+     * Las fechas compartidas por todas las agendas.
+     */
+    private final Internador<LocalDate> fechas;
+    /**
+     * Dónde se guardan las agendas descargadas.
+     */
+    private final Executor descargador;
+    /**
+     * El hilo de guardado creado por el servicio, que se detiene al cerrarlo;
+     * {@code null} si el ejecutor fue provisto.
+     */
+    private final ExecutorService descargadorPropio;
+    /**
+     * Las fallas al guardar agendas descargadas, a informar al cerrar el
+     * servicio; protegidas por el servicio.
+     */
+    private final List<PersistenciaException> fallasDeDescarga;
+    /**
+     * Las agendas cargadas o en carga, de la menos a la más recientemente
+     * usada.
+     */
+    private final LinkedHashMap<String, Entrada> entradas;
+    /**
+     * Las agendas que se están guardando luego de descargarse.
+     */
+    private final Map<String, Entrada> descargando;
+    /**
+     * La suma de los pesos estimados de las agendas cargadas.
+     */
+    private long pesoTotal;
+    /**
+     * Si el servicio fue cerrado.
+     */
+    private boolean cerrado;
+
+    /**
+     * Constructor que crea un servicio con el estimador de peso indicado.
+     *
+     * @param almacenAgendas El almacén de las agendas.
+     * @param presupuestoBytes El peso estimado máximo de las agendas cargadas.
+     * @param estimadorPeso Cómo estimar el peso en bytes de una agenda.
+     */
+    public ServicioDeAgendas(AlmacenDeAgendas almacenAgendas, long presupuestoBytes,
+                             ToLongFunction<IAgenda> estimadorPeso) {
+        this(almacenAgendas, presupuestoBytes, estimadorPeso, null);
+    }
+
+    /**
+     * Constructor que crea un servicio que guarda las agendas descargadas con
+     * el ejecutor indicado.
+     *
+     * @param almacenAgendas El almacén de las agendas.
+     * @param presupuestoBytes El peso estimado máximo de las agendas cargadas.
+     * @param estimadorPeso Cómo estimar el peso en bytes de una agenda.
+     * @param ejecutorDescargas Dónde guardar las agendas descargadas, o
+     *                          {@code null} para usar un hilo propio del
+     *                          servicio.
+     */
+    public ServicioDeAgendas(AlmacenDeAgendas almacenAgendas, long presupuestoBytes,
+                             ToLongFunction<IAgenda> estimadorPeso,
+                             Executor ejecutorDescargas) {
+        if (presupuestoBytes <= 0) {
+            throw new IllegalArgumentException("El presupuesto debe ser positivo");
+        }
+        this.almacen = almacenAgendas;
+        this.presupuesto = presupuestoBytes;
+        this.estimador = estimadorPeso;
+        this.nombres = new Internador<>();
+        this.claves = new Internador<>();
+        this.fechas = new Internador<>();
+        if (ejecutorDescargas == null) {
+            this.descargadorPropio = Executors.newSingleThreadExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "descargador-agendas");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            this.descargador = this.descargadorPropio;
+        } else {
+            this.descargadorPropio = null;
+            this.descargador = ejecutorDescargas;
+        }
+        this.fallasDeDescarga = new ArrayList<>();
+        this.entradas = new LinkedHashMap<>(CAPACIDAD_INICIAL, FACTOR_DE_CARGA, true);
+        this.descargando = new HashMap<>();
+    }
+
+    /**
+     * Constructor que crea un servicio que estima el peso de cada agenda a
+     * partir de su cantidad de contactos.
+     *
+     * @param almacenAgendas El almacén de las agendas.
+     * @param presupuestoBytes El peso estimado máximo de las agendas cargadas.
+     */
+    public ServicioDeAgendas(AlmacenDeAgendas almacenAgendas, long presupuestoBytes) {
+        this(almacenAgendas, presupuestoBytes, ServicioDeAgendas::estimarPeso);
+    }
+
+    /**
+     * Ejecuta una operación sobre la agenda de un inquilino, cargándola si no
+     * está en memoria. La agenda no debe usarse fuera de la operación, ya que
+     * puede descargarse en cuanto esta termine.
+     * <p>
+     * Al terminar la operación se eligen las agendas a descargar para
+     * respetar el presupuesto, sin contar la recién usada, y se las guarda
+     * en segundo plano.
+     *
+     * @param inquilino El identificador del inquilino.
+     * @param operacion La operación a ejecutar.
+     * @param <R> El tipo del resultado.
+     * @param <E> El tipo de las excepciones verificadas de la operación.
+     * @return El resultado de la operación.
+     * @throws E Si la operación falla.
+     * @throws PersistenciaException Si no se puede cargar la agenda.
+     */
+    public <R, E extends Exception> R ejecutar(String inquilino,
+                                               OperacionDeAgenda<R, E> operacion)
+            throws E {
+        Entrada entrada = reservar(inquilino);
+        try {
+            return operacion.aplicar(cargar(entrada));
+        } finally {
+            for (Entrada descargada : liberar(entrada)) {
+                programarDescarga(descargada);
+            }
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de agendas en memoria, incluyendo las que se están
+     * cargando.
+     *
+     * @return La cantidad de agendas en memoria.
+     */
+    public synchronized int cantidadCargadas() {
+        return this.entradas.size();
+    }
+
+    /**
+     * Indica si la agenda de un inquilino está en memoria.
+     *
+     * @param inquilino El identificador del inquilino.
+     * @return {@code true} si la agenda está cargada o cargándose.
+     */
+    public synchronized boolean estaCargada(String inquilino) {
+        return this.entradas.containsKey(inquilino);
+    }
+
+    /**
+     * Obtiene el peso estimado de las agendas en memoria.
+     *
+     * @return La suma de los pesos estimados, en bytes.
+     */
+    public synchronized long obtenerPesoEstimado() {
+        return this.pesoTotal;
+    }
+
+    /**
+     * Obtiene la cantidad de nombres distintos compartidos entre las agendas.
+     *
+     * @return La cantidad de nombres internados.
+     */
+    public int cantidadNombresCompartidos() {
+        return this.nombres.cantidad();
+    }
+
+    /**
+     * Obtiene la cantidad de nombres normalizados distintos compartidos entre
+     * los índices de las agendas.
+     *
+     * @return La cantidad de nombres normalizados internados.
+     */
+    public int cantidadClavesCompartidas() {
+        return this.claves.cantidad();
+    }
+
+    /**
+     * Espera a que terminen de guardarse las agendas descargadas y descarga
+     * las demás, guardándolas en el almacén. Debe llamarse cuando no haya
+     * operaciones en ejecución; luego el servicio no acepta nuevas
+     * operaciones.
+     *
+     * @throws IOException Si no se puede guardar alguna agenda, incluidas las
+     * descargadas antes del cierre.
+     */
+    @Override
+    public void close() throws IOException {
+        List<Entrada> pendientes;
+        List<Entrada> guardandose;
+        synchronized (this) {
+            this.cerrado = true;
+            pendientes = new ArrayList<>(this.entradas.values());
+            guardandose = new ArrayList<>(this.descargando.values());
+            this.entradas.clear();
+            this.pesoTotal = 0;
+        }
+        IOException error = null;
+        try {
+            for (Entrada entrada : guardandose) {
+                entrada.guardada.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = new IOException("Se interrumpio la espera de las agendas "
+                    + "descargadas", e);
+        }
+        if (this.descargadorPropio != null) {
+            this.descargadorPropio.shutdown();
+        }
+        for (Entrada entrada : pendientes) {
+            try {
+                if (entrada.agenda != null) {
+                    this.almacen.cerrar(entrada.inquilino, entrada.agenda);
+                }
+            } catch (IOException e) {
+                error = acumular(error, e);
+            }
+        }
+        synchronized (this) {
+            for (PersistenciaException falla : this.fallasDeDescarga) {
+                error = acumular(error, falla);
+            }
+            this.fallasDeDescarga.clear();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Agrega una falla a las anteriores.
+     *
+     * @param error La primera falla, o {@code null} si no hubo ninguna.
+     * @param falla La nueva falla.
+     * @return La primera falla, con la nueva como suprimida.
+     */
+    private static IOException acumular(IOException error, Exception falla) {
+        if (error == null) {
+            return falla instanceof IOException io ? io
+                    : new IOException("No se pudo guardar alguna agenda", falla);
+        }
+        error.addSuppressed(falla);
+        return error;
+    }
+
+    /**
+     * Estima el peso de una agenda en memoria a partir de su cantidad de
+     * contactos.
+     *
+     * @param agenda La agenda.
+     * @return El peso estimado en bytes.
+     */
+    public static long estimarPeso(IAgenda agenda) {
+        return BYTES_POR_AGENDA + agenda.cantidadTotalContactos() * BYTES_POR_CONTACTO;
+    }
+
+    /**
+     * Obtiene la entrada de un inquilino, creándola si no existe, y la marca
+     * como en uso para que no se descargue.
+     *
+     * @param inquilino El identificador del inquilino.
+     * @return La entrada del inquilino.
+     */
+    private synchronized Entrada reservar(String inquilino) {
+        if (this.cerrado) {
+            throw new IllegalStateException("El servicio de agendas esta cerrado");
+        }
+        Entrada entrada = this.entradas.get(inquilino);
+        if (entrada == null) {
+            entrada = new Entrada(inquilino, this.descargando.get(inquilino));
+            this.entradas.put(inquilino, entrada);
+        }
+        entrada.enUso++;
+        return entrada;
+    }
+
+    /**
+     * Obtiene la agenda de una entrada, cargándola desde el almacén la primera
+     * vez. Si una agenda anterior del mismo inquilino se está guardando, se
+     * espera a que termine antes de cargarla.
+     *
+     * @param entrada La entrada reservada.
+     * @return La agenda del inquilino.
+     */
+    private IAgenda cargar(Entrada entrada) {
+        synchronized (entrada) {
+            if (entrada.agenda == null) {
+                try {
+                    if (entrada.anterior != null) {
+                        entrada.anterior.guardada.await();
+                        entrada.anterior = null;
+                    }
+                    IAgenda vacia = AgendaInternada.crear(this.nombres, this.claves,
+                            this.fechas);
+                    entrada.agenda = this.almacen.abrir(entrada.inquilino, vacia);
+                } catch (IOException e) {
+                    throw new PersistenciaException("No se pudo cargar la agenda de "
+                            + entrada.inquilino, e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new PersistenciaException("Se interrumpio la carga de la "
+                            + "agenda de " + entrada.inquilino, e);
+                }
+            }
+            return entrada.agenda;
+        }
+    }
+
+    /**
+     * Libera una entrada luego de una operación, actualiza su peso y elige las
+     * agendas a descargar para respetar el presupuesto, de la menos a la más
+     * recientemente usada.
+     *
+     * @param entrada La entrada reservada.
+     * @return Las entradas quitadas del servicio, que deben guardarse.
+     */
+    private List<Entrada> liberar(Entrada entrada) {
+        IAgenda agenda = entrada.agenda;
+        long peso = agenda == null ? 0 : this.estimador.applyAsLong(agenda);
+        synchronized (this) {
+            entrada.enUso--;
+            if (this.entradas.get(entrada.inquilino) != entrada) {
+                return List.of();
+            }
+            if (agenda == null && entrada.enUso == 0) {
+                // La carga falló: la próxima operación volverá a intentarla.
+                this.entradas.remove(entrada.inquilino);
+                return List.of();
+            }
+            this.pesoTotal = this.pesoTotal - entrada.peso + peso;
+            entrada.peso = peso;
+            List<Entrada> elegidas = new ArrayList<>();
+            Iterator<Entrada> candidatas = this.entradas.values().iterator();
+            while (this.pesoTotal > this.presupuesto && candidatas.hasNext()) {
+                Entrada candidata = candidatas.next();
+                if (candidata != entrada && candidata.enUso == 0
+                        && candidata.agenda != null) {
+                    candidatas.remove();
+                    this.pesoTotal = this.pesoTotal - candidata.peso;
+                    this.descargando.put(candidata.inquilino, candidata);
+                    elegidas.add(candidata);
+                }
+            }
+            return elegidas;
+        }
+    }
+
+    /**
+     * Programa el guardado de una agenda descargada. Si el ejecutor no acepta
+     * la tarea, la agenda se guarda en el hilo actual.
+     *
+     * @param entrada La entrada quitada del servicio.
+     */
+    private void programarDescarga(Entrada entrada) {
+        try {
+            this.descargador.execute(() -> descargar(entrada));
+        } catch (RejectedExecutionException e) {
+            descargar(entrada);
+        }
+    }
+
+    /**
+     * Guarda una agenda descargada en el almacén. Nunca lanza excepciones: las
+     * fallas se guardan para informarlas al cerrar el servicio, y la espera
+     * de una nueva carga del mismo inquilino se libera siempre.
+     *
+     * @param entrada La entrada quitada del servicio.
+     */
+    private void descargar(Entrada entrada) {
+        try {
+            this.almacen.cerrar(entrada.inquilino, entrada.agenda);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                this.fallasDeDescarga.add(new PersistenciaException(
+                        "No se pudo guardar la agenda de " + entrada.inquilino, e));
+            }
+        } finally {
+            entrada.guardada.countDown();
+            synchronized (this) {
+                this.descargando.remove(entrada.inquilino, entrada);
+            }
+        }
+    }
+
+    /**
+     * La agenda de un inquilino y su estado dentro del servicio.
+     */
+    private static final class Entrada {
+        /**
+         * El identificador del inquilino.
+         */
+        private final String inquilino;
+        /**
+         * Se libera cuando la agenda terminó de guardarse luego de descargarse.
+         */
+        private final CountDownLatch guardada;
+        /**
+         * La entrada anterior del mismo inquilino, si aún se estaba guardando
+         * cuando se creó esta; protegida por el monitor de la entrada.
+         */
+        private Entrada anterior;
+        /**
+         * La agenda del inquilino, o {@code null} si aún no se cargó.
+         */
+        private volatile IAgenda agenda;
+        /**
+         * La cantidad de operaciones en ejecución; protegida por el servicio.
+         */
+        private int enUso;
+        /**
+         * El último peso estimado; protegido por el servicio.
+         */
+        private long peso;
+
+        /**
+         * Constructor que crea una entrada sin cargar.
+         *
+         * @param idInquilino El identificador del inquilino.
+         * @param entradaAnterior La entrada anterior que aún se está guardando,
+         *                        o {@code null}.
+         */
+        private Entrada(String idInquilino, Entrada entradaAnterior) {
+            this.inquilino = idInquilino;
+            this.anterior = entradaAnterior;
+            this.guardada = new CountDownLatch(1);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link AgendaCacheada}.
+ */
+class AgendaCacheadaTest {
+
+    /**
+     * Agenda que cuenta las búsquedas que recibe.
+     */
+    private static final class AgendaContada extends AgendaDelegada {
+        /**
+         * La cantidad de búsquedas recibidas.
+         */
+        private int consultas;
+
+        /**
+         * Constructor que cuenta las búsquedas hechas a una agenda nueva.
+         */
+        AgendaContada() {
+            super(new Agenda());
+        }
+
+        /**
+         * Busca un contacto por su DNI y cuenta la búsqueda.
+         *
+         * @param dni El DNI del contacto a buscar.
+         * @return El contacto encontrado, o vacío si no existe.
+         */
+        @Override
+        public Optional<Contacto> consultarContactoPorDni(String dni) {
+            this.consultas++;
+            return super.consultarContactoPorDni(dni);
+        }
+
+        /**
+         * Busca un contacto por su nombre y cuenta la búsqueda.
+         *
+         * @param nombre El nombre del contacto a buscar.
+         * @return El contacto encontrado, o vacío si no existe.
+         */
+        @Override
+        public Optional<Contacto> consultarContactoPorNombre(String nombre) {
+            this.consultas++;
+            return super.consultarContactoPorNombre(nombre);
+        }
+
+        /**
+         * Lista los contactos por nombre y cuenta la consulta.
+         *
+         * @return Los contactos ordenados.
+         */
+        @Override
+        public List<Contacto> consultarContactosPorNombre() {
+            this.consultas++;
+            return super.consultarContactosPorNombre();
+        }
+    }
+
+    /**
+     * Prueba que las búsquedas repetidas, incluidas las que no encuentran
+     * ningún contacto, se resuelvan sin consultar la agenda envuelta.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void guardarBusquedasYAusencias() throws Exception {
+        AgendaContada envuelta = new AgendaContada();
+        AgendaCacheada agenda = new AgendaCacheada(envuelta, 1 << 20);
+        agenda.agregarContacto(new Contacto("Ana Pérez", "30.111.222",
+                LocalDate.of(1990, 1, 1)));
+
+        Contacto ana = agenda.buscarContactoPorDni("30111222");
+        assertEquals("Ana Pérez", ana.obtenerNombre());
+        assertEquals(ana, agenda.buscarContactoPorDni("30 111 222"));
+        assertEquals(ana, agenda.buscarContactoPorNombre("ana perez"));
+        assertThrows(ContactoNoEncontradoEnAgendaException.class,
+                () -> agenda.buscarContactoPorDni("99"));
+        assertFalse(agenda.consultarContactoPorDni("99").isPresent());
+        assertTrue(agenda.verificarExistenciaContacto(
+                new Contacto("Otra", "30111222", null)));
+
+        assertEquals(3, envuelta.consultas);
+        assertEquals(3, agenda.obtenerAciertos());
+        assertEquals(1, agenda.obtenerAciertosNegativos());
+        assertEquals(3, agenda.obtenerFallos());
+        assertEquals(0.5, agenda.obtenerTasaDeAciertos(), 0.0);
+    }
+
+    /**
+     * Prueba que agregar, eliminar y limpiar descarten las entradas
+     * afectadas y conserven las demás.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void descartarEntradasModificadas() throws Exception {
+        AgendaContada envuelta = new AgendaContada();
+        AgendaCacheada agenda = new AgendaCacheada(envuelta, 1 << 20);
+        Contacto ana = new Contacto("Ana", "1", LocalDate.of(1990, 1, 1));
+        agenda.agregarContacto(ana);
+        assertFalse(agenda.consultarContactoPorDni("2").isPresent());
+        assertEquals(List.of(ana), agenda.listarContactosPorNombre());
+
+        Contacto beto = new Contacto("Beto", "2", LocalDate.of(1980, 1, 1));
+        agenda.agregarContacto(beto);
+        assertEquals(beto, agenda.buscarContactoPorDni("2"));
+        assertEquals(List.of(ana, beto), agenda.listarContactosPorNombre());
+        assertEquals(List.of(beto, ana), agenda.listarContactosPorNacimiento());
+        assertEquals(List.of(beto), agenda.listarContactosPorNombre(1, 5));
+
+        int consultas = envuelta.consultas;
+        assertEquals(ana, agenda.buscarContactoPorDni("1"));
+        agenda.buscarContactoPorNombre("ana");
+        agenda.eliminarContacto(new Contacto("Otro nombre", "1", null));
+        assertEquals(consultas + 3, envuelta.consultas);
+        assertFalse(agenda.consultarContactoPorNombre("ana").isPresent());
+        assertFalse(agenda.consultarContactoPorDni("1").isPresent());
+        assertEquals(List.of(beto), agenda.listarContactosPorNombre());
+        assertEquals(beto, agenda.buscarContactoPorNombre("BETO"));
+
+        agenda.limpiarAgenda();
+        assertEquals(0, agenda.cantidadEntradas());
+        assertEquals(0, agenda.obtenerPesoEstimado());
+        assertFalse(agenda.consultarContactoPorDni("2").isPresent());
+        assertThrows(AgendaDeContactosVaciaException.class,
+                agenda::listarContactosPorNombre);
+        assertThrows(AgendaDeContactosVaciaException.class,
+                () -> agenda.listarContactosPorNacimiento(0, 1));
+    }
+
+    /**
+     * Prueba que se descarten las entradas usadas hace más tiempo cuando se
+     * supera el presupuesto.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void desalojarEntradasAntiguas() throws Exception {
+        AgendaContada envuelta = new AgendaContada();
+        AgendaCacheada agenda = new AgendaCacheada(envuelta,
+                3 * AgendaCacheada.BYTES_POR_ENTRADA);
+        for (int i = 1; i <= 4; i++) {
+            agenda.agregarContacto(
+                    new Contacto("Contacto " + i, String.valueOf(i), null));
+        }
+        agenda.consultarContactoPorDni("1");
+        agenda.consultarContactoPorDni("2");
+        agenda.consultarContactoPorDni("3");
+        agenda.consultarContactoPorDni("1");
+        agenda.consultarContactoPorDni("4");
+
+        assertEquals(3, agenda.cantidadEntradas());
+        assertEquals(1, agenda.obtenerDesalojos());
+        assertEquals(3 * AgendaCacheada.BYTES_POR_ENTRADA, agenda.obtenerPesoEstimado());
+        int consultas = envuelta.consultas;
+        agenda.consultarContactoPorDni("1");
+        agenda.consultarContactoPorDni("4");
+        assertEquals(consultas, envuelta.consultas);
+        agenda.consultarContactoPorDni("2");
+        assertEquals(consultas + 1, envuelta.consultas);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new AgendaCacheada(new Agenda(), 0));
+    }
+}
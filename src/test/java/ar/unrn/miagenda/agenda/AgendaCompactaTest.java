@@ -0,0 +1,194 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.IContacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link AgendaCompacta}.
+ */
+class AgendaCompactaTest {
+
+    /**
+     * Prueba que los contactos conserven sus datos, incluido el formato del
+     * DNI, y que se rechacen los DNI que no pueden guardarse como número.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void conservarDatosDeContactos() throws Exception {
+        AgendaCompacta agenda = new AgendaCompacta();
+        agenda.agregarContacto(new Contacto("Demian Castañeda", "44.121.248",
+                LocalDate.of(2002, 6, 27)));
+        agenda.agregarContacto(new Contacto("Alma Prat", "1234567", null));
+
+        Contacto demian = agenda.buscarContactoPorDni("44121248");
+        assertEquals("Demian Castañeda", demian.obtenerNombre());
+        assertEquals("44.121.248", demian.obtenerDni());
+        assertEquals(LocalDate.of(2002, 6, 27), demian.obtenerFechaNacimiento());
+        assertEquals("1234567", agenda.buscarContactoPorNombre("alma prat").obtenerDni());
+        assertEquals("Demian Castañeda",
+                agenda.buscarContactoPorNombre("demian  castaneda").obtenerNombre());
+
+        assertThrows(ContactoDuplicadoException.class,
+                () -> agenda.agregarContacto(new Contacto("Otro", "44 121 248", null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> agenda.agregarContacto(new Contacto("Otro", "A123", null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> agenda.agregarContacto(new Contacto("Otro", "0123", null)));
+        assertFalse(agenda.verificarExistenciaContacto(
+                new Contacto("Otro", "A123", null)));
+
+        List<String> nombres = new ArrayList<>();
+        agenda.recorrerContactos(contacto -> nombres.add(contacto.obtenerNombre()));
+        assertEquals(List.of("Demian Castañeda", "Alma Prat"), nombres);
+    }
+
+    /**
+     * Prueba que, ante la misma secuencia de operaciones, la agenda compacta
+     * responda igual que {@link Agenda}, incluso con consultas intercaladas
+     * entre las modificaciones y luego de compactar sus filas.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void responderIgualQueAgenda() throws Exception {
+        Random azar = new Random(7);
+        String[] nombres = {"Alma", "Demián", "demian", "Karina", "Gastón", "Ana"};
+        Agenda esperada = new Agenda();
+        AgendaCompacta agenda = new AgendaCompacta();
+        List<Contacto> agendados = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            if (!agendados.isEmpty() && azar.nextInt(3) == 0) {
+                Contacto eliminado = agendados.remove(azar.nextInt(agendados.size()));
+                esperada.eliminarContacto(eliminado);
+                agenda.eliminarContacto(eliminado);
+            } else {
+                Contacto nuevo = new Contacto(nombres[azar.nextInt(nombres.length)] + " "
+                        + azar.nextInt(20), Integer.toString(1_000_000 + i),
+                        LocalDate.ofEpochDay(azar.nextInt(20_000)));
+                esperada.agregarContacto(nuevo);
+                agenda.agregarContacto(nuevo);
+                agendados.add(nuevo);
+            }
+            if (i % 97 == 0) {
+                assertIguales(esperada.consultarContactosPorNombre(),
+                        agenda.consultarContactosPorNombre());
+                assertIguales(esperada.buscarContactosPorPrefijo("demian", 10),
+                        agenda.buscarContactosPorPrefijo("demian", 10));
+            }
+        }
+
+        assertEquals(esperada.cantidadTotalContactos(), agenda.cantidadTotalContactos());
+        assertIguales(esperada.consultarContactosPorNombre(),
+                agenda.consultarContactosPorNombre());
+        assertIguales(esperada.consultarContactosPorNacimiento(),
+                agenda.consultarContactosPorNacimiento());
+        assertIguales(esperada.consultarContactosPorNombre(30, 25),
+                agenda.consultarContactosPorNombre(30, 25));
+        assertIguales(esperada.buscarContactosPorPrefijo("DEMIAN 1", 40),
+                agenda.buscarContactosPorPrefijo("DEMIAN 1", 40));
+        assertFalse(agenda.buscarContactosPorPrefijo("DEMIAN 1", 40).isEmpty());
+        assertTrue(agenda.buscarContactosPorPrefijo("Demian  1 ", 40).isEmpty());
+        for (Contacto contacto : agendados) {
+            assertEquals(Optional.of(contacto),
+                    agenda.consultarContactoPorDni(contacto.obtenerDni()));
+            assertEquals(esperada.consultarContactoPorNombre(contacto.obtenerNombre()),
+                    agenda.consultarContactoPorNombre(contacto.obtenerNombre()));
+        }
+        assertTrue(agenda.estimarBytesOcupados() > 0);
+    }
+
+    /**
+     * Prueba que eliminar un contacto lo quite de los eventos donde está
+     * invitado y que un lote con un DNI repetido no agregue ningún contacto.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void gestionarEventosYLotes() throws Exception {
+        AgendaCompacta agenda = new AgendaCompacta();
+        Contacto alma = new Contacto("Alma Prat", "44.000.001", null);
+        Contacto karina = new Contacto("Karina Sosa", "44000002", null);
+        agenda.agregarContactos(List.of(alma, karina));
+        Evento cumple = new Evento("Cumple", LocalDate.of(2025, 3, 1), List.of(alma));
+        agenda.crearEvento(cumple);
+        agenda.agregarInvitadoEvento(cumple, karina);
+
+        agenda.eliminarContacto(alma);
+        assertEquals(List.of(karina),
+                cumple.obtenerInvitadosEvento());
+        assertEquals(List.of(cumple), agenda.consultarEventosDeContacto(karina));
+        assertEquals(List.of(), agenda.consultarEventosDeContacto(alma));
+
+        assertThrows(ContactoDuplicadoException.class, () -> agenda.agregarContactos(
+                List.of(alma, new Contacto("Alma", "44000001", null))));
+        assertEquals(1, agenda.cantidadTotalContactos());
+        assertEquals(1, agenda.tomarInstantanea().cantidadContactos());
+    }
+
+    /**
+     * Verifica que dos listas tengan los mismos contactos con los mismos
+     * datos y en el mismo orden.
+     *
+     * @param esperados Los contactos esperados.
+     * @param obtenidos Los contactos obtenidos.
+     */
+    private static void assertIguales(List<Contacto> esperados,
+                                      List<Contacto> obtenidos) {
+        assertEquals(esperados.size(), obtenidos.size());
+        for (int i = 0; i < esperados.size(); i++) {
+            IContacto esperado = esperados.get(i);
+            IContacto obtenido = obtenidos.get(i);
+            assertEquals(esperado.obtenerNombre(), obtenido.obtenerNombre());
+            assertEquals(esperado.obtenerDni(), obtenido.obtenerDni());
+            assertEquals(esperado.obtenerFechaNacimiento(),
+                    obtenido.obtenerFechaNacimiento());
+        }
+    }
+
+    /**
+     * Prueba que al compactar las filas se quiten del depósito los nombres de
+     * los contactos eliminados, y que los restantes se sigan encontrando.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void compactarNombresEliminados() throws Exception {
+        AgendaCompacta agenda = new AgendaCompacta();
+        List<Contacto> agendados = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Contacto nuevo = new Contacto("Contacto numero " + i,
+                    Integer.toString(2_000_000 + i), null);
+            agenda.agregarContacto(nuevo);
+            agendados.add(nuevo);
+        }
+        agenda.consultarContactosPorNombre();
+        long ocupados = agenda.estimarBytesOcupados();
+        for (int i = 0; i < 900; i++) {
+            agenda.eliminarContacto(agendados.get(i));
+        }
+
+        assertTrue(agenda.estimarBytesOcupados() < ocupados / 2);
+        assertEquals(100, agenda.consultarContactosPorNombre().size());
+        assertEquals(Optional.of(agendados.get(950)),
+                agenda.consultarContactoPorNombre("CONTACTO NUMERO 950"));
+        assertEquals(Optional.empty(),
+                agenda.consultarContactoPorNombre("contacto numero 5"));
+        assertEquals(10, agenda.buscarContactosPorPrefijo("contacto numero 99",
+                20).size());
+    }
+}
@@ -0,0 +1,223 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link AgendaConcurrente}.
+ */
+class AgendaConcurrenteTest {
+
+    private static final int HILOS = 8;
+    private static final int CONTACTOS_POR_HILO = 500;
+
+    /**
+     * Crea un contacto de prueba a partir de un número.
+     *
+     * @param numero El número que identifica al contacto.
+     * @return El contacto creado.
+     */
+    private static Contacto contacto(int numero) {
+        return new Contacto(
+                "Contacto " + numero,
+                String.valueOf(10_000_000 + numero),
+                LocalDate.of(1990, 1, 1).plusDays(numero)
+        );
+    }
+
+    /**
+     * Prueba que varios hilos puedan agregar contactos en simultáneo mientras
+     * otros consultan, sin perder altas ni romper los listados.
+     *
+     * @throws Exception Si alguna de las tareas falla.
+     */
+    @Test
+    void agregarContactosEnParalelo() throws Exception {
+        AgendaConcurrente agenda = new AgendaConcurrente();
+        AtomicInteger duplicados = new AtomicInteger();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int hilo = 0; hilo < HILOS; hilo++) {
+            tareas.add(ejecutor.submit(() -> {
+                // Todos los hilos intentan agregar los mismos contactos.
+                for (int i = 0; i < CONTACTOS_POR_HILO; i++) {
+                    try {
+                        agenda.agregarContacto(contacto(i));
+                    } catch (ContactoDuplicadoException e) {
+                        duplicados.incrementAndGet();
+                    }
+                    agenda.buscarContactosPorPrefijo("contacto", 5);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        ejecutor.shutdown();
+        assertEquals(CONTACTOS_POR_HILO, agenda.cantidadTotalContactos());
+        assertEquals((HILOS - 1) * CONTACTOS_POR_HILO, duplicados.get());
+        assertEquals(CONTACTOS_POR_HILO, agenda.listarContactosPorNombre().size());
+    }
+
+    /**
+     * Prueba que eliminar contactos en paralelo quite sus invitaciones de los
+     * eventos, mientras otros hilos recorren los listados.
+     *
+     * @throws Exception Si alguna de las tareas falla.
+     */
+    @Test
+    void eliminarContactosEnParalelo() throws Exception {
+        AgendaConcurrente agenda = new AgendaConcurrente();
+        List<Contacto> contactos = new ArrayList<>();
+        for (int i = 0; i < CONTACTOS_POR_HILO; i++) {
+            contactos.add(contacto(i));
+            agenda.agregarContacto(contactos.get(i));
+        }
+        Evento evento = new Evento("Fiesta", LocalDate.of(2024, 1, 1), contactos);
+        agenda.crearEvento(evento);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int hilo = 0; hilo < HILOS; hilo++) {
+            int inicio = hilo;
+            tareas.add(ejecutor.submit(() -> {
+                for (int i = inicio; i < CONTACTOS_POR_HILO; i = i + HILOS) {
+                    agenda.eliminarContacto(contactos.get(i));
+                    try {
+                        agenda.listarContactosPorNacimiento(0, 10);
+                    } catch (AgendaDeContactosVaciaException e) {
+                        // La agenda puede quedar vacía antes de terminar.
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        ejecutor.shutdown();
+        assertEquals(0, agenda.cantidadTotalContactos());
+        assertTrue(agenda.listarEventos().get(0).obtenerInvitadosEvento().isEmpty());
+    }
+
+    /**
+     * Prueba que la creación de un evento con un invitado inexistente no deje
+     * el evento a medio registrar.
+     *
+     * @throws ContactoDuplicadoException Si se agrega un contacto duplicado.
+     */
+    @Test
+    void crearEventoAtomico() throws ContactoDuplicadoException {
+        AgendaConcurrente agenda = new AgendaConcurrente();
+        agenda.agregarContacto(contacto(1));
+        Evento evento = new Evento("Reunión", LocalDate.of(2024, 3, 1),
+                List.of(contacto(1), contacto(2)));
+        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
+                -> agenda.crearEvento(evento));
+        assertTrue(agenda.listarEventosDelDia(LocalDate.of(2024, 3, 1)).isEmpty());
+    }
+
+    /**
+     * Prueba que varios lectores puedan tomar instantáneas en simultáneo
+     * mientras un escritor crea eventos, y que cada instantánea tenga los
+     * invitados de todos sus eventos.
+     *
+     * @throws Exception Si alguna de las tareas falla.
+     */
+    @Test
+    void tomarInstantaneasEnParalelo() throws Exception {
+        AgendaConcurrente agenda = new AgendaConcurrente();
+        List<Contacto> contactos = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            contactos.add(contacto(i));
+        }
+        agenda.agregarContactos(contactos);
+        int rondas = 200;
+        int eventosPorRonda = 20;
+        AtomicBoolean terminado = new AtomicBoolean();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS + 1);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int hilo = 0; hilo < HILOS; hilo++) {
+            tareas.add(ejecutor.submit(() -> {
+                long anterior = -1;
+                while (!terminado.get()) {
+                    InstantaneaAgenda instantanea = agenda.tomarInstantanea();
+                    assertTrue(instantanea.obtenerVersion() >= anterior);
+                    anterior = instantanea.obtenerVersion();
+                    for (Evento evento : instantanea.eventos()) {
+                        assertEquals(HILOS, instantanea.invitadosDe(evento).size());
+                    }
+                }
+                return null;
+            }));
+        }
+        tareas.add(ejecutor.submit(() -> {
+            try {
+                for (int ronda = 0; ronda < rondas; ronda++) {
+                    List<Evento> eventos = new ArrayList<>();
+                    for (int i = 0; i < eventosPorRonda; i++) {
+                        eventos.add(new Evento("Evento " + ronda + "-" + i,
+                                LocalDate.of(2024, 1, 1).plusDays(ronda), contactos));
+                    }
+                    agenda.crearEventos(eventos);
+                }
+            } finally {
+                terminado.set(true);
+            }
+            return null;
+        }));
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        ejecutor.shutdown();
+        InstantaneaAgenda instantanea = agenda.tomarInstantanea();
+        assertEquals(rondas * eventosPorRonda, instantanea.eventos().size());
+        assertEquals(rondas * eventosPorRonda,
+                instantanea.eventosDe(contactos.get(0)).size());
+    }
+
+    /**
+     * Prueba que los invitados de un evento registrado no puedan modificarse
+     * directamente sobre el evento, que no tomaría el bloqueo de escritura, y
+     * que sí puedan modificarse a través de la agenda.
+     *
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    @Test
+    void rechazarCambiosDirectosDeInvitados() throws Exception {
+        AgendaConcurrente agenda = new AgendaConcurrente();
+        agenda.agregarContactos(List.of(contacto(1), contacto(2)));
+        Evento evento = new Evento("Reunión", LocalDate.of(2024, 3, 1),
+                List.of(contacto(1)));
+        agenda.crearEvento(evento);
+
+        assertThrows(IllegalStateException.class,
+                () -> evento.agregarInvitado(contacto(2)));
+        assertThrows(IllegalStateException.class,
+                () -> evento.quitarInvitado(contacto(1)));
+        evento.agregarInvitado(contacto(1));
+        assertTrue(agenda.consultarEventosDeContacto(contacto(2)).isEmpty());
+        agenda.agregarInvitadoEvento(evento, contacto(2));
+        agenda.quitarInvitadoEvento(evento, contacto(1));
+        assertEquals(List.of(contacto(2)), evento.obtenerInvitadosEvento());
+        assertEquals(List.of(evento), agenda.consultarEventosDeContacto(contacto(2)));
+        assertTrue(agenda.consultarEventosDeContacto(contacto(1)).isEmpty());
+    }
+}
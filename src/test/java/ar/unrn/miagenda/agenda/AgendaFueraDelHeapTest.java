@@ -0,0 +1,239 @@
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.IContacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link AgendaFueraDelHeap}.
+ */
+class AgendaFueraDelHeapTest {
+
+    /**
+     * Prueba que los contactos conserven sus datos, incluido el formato del
+     * DNI y los nombres desconocidos.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void conservarDatosDeContactos() throws Exception {
+        AgendaFueraDelHeap agenda = new AgendaFueraDelHeap();
+        agenda.agregarContacto(new Contacto("Demian Castañeda", "44.121.248",
+                LocalDate.of(2002, 6, 27)));
+        agenda.agregarContacto(new Contacto(null, "1234567", null));
+
+        Contacto demian = agenda.buscarContactoPorDni("44121248");
+        assertEquals("Demian Castañeda", demian.obtenerNombre());
+        assertEquals("44.121.248", demian.obtenerDni());
+        assertEquals(LocalDate.of(2002, 6, 27), demian.obtenerFechaNacimiento());
+        assertEquals("Demian Castañeda",
+                agenda.buscarContactoPorNombre("demian  castaneda").obtenerNombre());
+        assertEquals(null, agenda.listarContactosPorNombre().get(0).obtenerNombre());
+
+        assertThrows(ContactoDuplicadoException.class,
+                () -> agenda.agregarContacto(new Contacto("Otro", "44 121 248", null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> agenda.agregarContacto(new Contacto("Otro", "A123", null)));
+        assertFalse(agenda.verificarExistenciaContacto(
+                new Contacto("Otro", "A123", null)));
+
+        List<String> dnis = new ArrayList<>();
+        agenda.recorrerContactos(contacto -> dnis.add(contacto.obtenerDni()));
+        assertEquals(List.of("44.121.248", "1234567"), dnis);
+        assertTrue(agenda.bytesFueraDelHeap() > 0);
+
+        agenda.limpiarAgenda();
+        assertEquals(0, agenda.cantidadTotalContactos());
+        assertEquals(Optional.empty(), agenda.consultarContactoPorDni("44121248"));
+    }
+
+    /**
+     * Prueba que, ante la misma secuencia de operaciones, la agenda fuera del
+     * heap responda igual que {@link Agenda}, incluso luego de reutilizar las
+     * filas de contactos eliminados y con consultas intercaladas entre las
+     * modificaciones.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void responderIgualQueAgenda() throws Exception {
+        Random azar = new Random(11);
+        String[] nombres = {"Alma", "Demián", "demian", "Karina", "Gastón", "Ana"};
+        Agenda esperada = new Agenda();
+        AgendaFueraDelHeap agenda = new AgendaFueraDelHeap();
+        List<Contacto> agendados = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            if (!agendados.isEmpty() && azar.nextInt(3) == 0) {
+                Contacto eliminado = agendados.remove(azar.nextInt(agendados.size()));
+                esperada.eliminarContacto(eliminado);
+                agenda.eliminarContacto(eliminado);
+            } else {
+                Contacto nuevo = new Contacto(nombres[azar.nextInt(nombres.length)] + " "
+                        + azar.nextInt(20), Integer.toString(1_000_000 + i),
+                        LocalDate.ofEpochDay(azar.nextInt(20_000)));
+                esperada.agregarContacto(nuevo);
+                agenda.agregarContacto(nuevo);
+                agendados.add(nuevo);
+            }
+            if (i % 97 == 0) {
+                assertIguales(esperada.consultarContactosPorNombre(),
+                        agenda.consultarContactosPorNombre());
+                assertIguales(esperada.consultarContactosPorNacimiento(0, 10),
+                        agenda.consultarContactosPorNacimiento(0, 10));
+            }
+        }
+
+        assertEquals(esperada.cantidadTotalContactos(), agenda.cantidadTotalContactos());
+        assertIguales(esperada.consultarContactosPorNombre(),
+                agenda.consultarContactosPorNombre());
+        assertIguales(esperada.consultarContactosPorNacimiento(),
+                agenda.consultarContactosPorNacimiento());
+        assertIguales(esperada.consultarContactosPorNacimiento(40, 25),
+                agenda.consultarContactosPorNacimiento(40, 25));
+        assertIguales(esperada.buscarContactosPorPrefijo("DEMIAN 1", 40),
+                agenda.buscarContactosPorPrefijo("DEMIAN 1", 40));
+        assertIguales(esperada.buscarContactosPorPrefijo("demian ", 40),
+                agenda.buscarContactosPorPrefijo("demian ", 40));
+        assertFalse(agenda.buscarContactosPorPrefijo("DEMIAN 1", 40).isEmpty());
+        assertTrue(agenda.buscarContactosPorPrefijo("Demian  1 ", 40).isEmpty());
+        for (Contacto contacto : agendados) {
+            assertEquals(Optional.of(contacto),
+                    agenda.consultarContactoPorDni(contacto.obtenerDni()));
+            assertEquals(esperada.consultarContactoPorNombre(contacto.obtenerNombre()),
+                    agenda.consultarContactoPorNombre(contacto.obtenerNombre()));
+        }
+        assertEquals(esperada.tomarInstantanea().cantidadContactos(),
+                agenda.tomarInstantanea().cantidadContactos());
+    }
+
+    /**
+     * Prueba que los eventos guarden sus invitados fuera del heap, que las
+     * invitaciones se validen igual que en {@link Agenda} y que eliminar un
+     * contacto lo quite de los eventos donde está invitado.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void gestionarEventosEInvitados() throws Exception {
+        AgendaFueraDelHeap agenda = new AgendaFueraDelHeap();
+        Contacto alma = new Contacto("Alma Prat", "44.000.001", null);
+        Contacto karina = new Contacto("Karina Sosa", "44000002", null);
+        Contacto gaston = new Contacto("Gastón Gil", "44000003", null);
+        agenda.agregarContactos(List.of(alma, karina, gaston));
+        Evento cumple = new Evento("Cumple", LocalDate.of(2025, 3, 1), List.of(alma));
+        Evento asado = new Evento("Asado", null, List.of());
+        agenda.crearEventos(List.of(cumple, asado));
+        agenda.agregarInvitadosEvento(cumple, List.of(karina, gaston));
+        agenda.agregarInvitadoEvento(asado, karina);
+
+        assertEquals(List.of(cumple, asado), agenda.listarEventos());
+        assertEquals(List.of(alma, karina, gaston),
+                agenda.listarEventos().get(0).obtenerInvitadosEvento());
+        assertEquals(List.of(cumple, asado), agenda.listarEventosDeContacto(karina));
+        assertEquals(1, cumple.obtenerInvitadosEvento().size());
+
+        assertThrows(EventoDuplicadoException.class, () -> agenda.crearEvento(
+                new Evento("Cumple", LocalDate.of(2025, 3, 1), List.of())));
+        assertThrows(ContactoYaInvitadoException.class,
+                () -> agenda.agregarInvitadoEvento(cumple, alma));
+        assertThrows(EventoNoEncontradoException.class,
+                () -> agenda.agregarInvitadoEvento(
+                        new Evento("Cumple", null, List.of()), alma));
+        assertThrows(ContactoNoEncontradoEnAgendaException.class,
+                () -> agenda.agregarInvitadoEvento(asado,
+                        new Contacto("Ana", "44000009", null)));
+        assertThrows(ContactoNoEncontradoEnEventoException.class,
+                () -> agenda.quitarInvitadoEvento(asado, alma));
+
+        agenda.quitarInvitadoEvento(cumple, karina);
+        agenda.eliminarContacto(alma);
+        assertEquals(List.of(gaston),
+                agenda.listarEventos().get(0).obtenerInvitadosEvento());
+        assertEquals(List.of(asado), agenda.consultarEventosDeContacto(karina));
+        assertEquals(List.of(), agenda.consultarEventosDeContacto(alma));
+
+        Contacto ana = new Contacto("Ana Paz", "44000004", null);
+        agenda.agregarContacto(ana);
+        assertEquals(List.of(), agenda.consultarEventosDeContacto(ana));
+        assertEquals(List.of(gaston),
+                agenda.listarEventos().get(0).obtenerInvitadosEvento());
+    }
+
+    /**
+     * Prueba que los nombres y las listas de los contactos eliminados se
+     * reutilicen, de modo que eliminar y volver a agregar contactos no haga
+     * crecer la memoria fuera del heap.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void reutilizarMemoriaDeEliminados() throws Exception {
+        AgendaFueraDelHeap agenda = new AgendaFueraDelHeap();
+        Evento reunion = new Evento("Reunion", LocalDate.of(2025, 5, 2), List.of());
+        agenda.crearEvento(reunion);
+        List<Contacto> agendados = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Contacto contacto = new Contacto("Contacto numero " + (100_000 + i)
+                    + " de la agenda", Integer.toString(1_000_000 + i), null);
+            agenda.agregarContacto(contacto);
+            agenda.agregarInvitadoEvento(reunion, contacto);
+            agendados.add(contacto);
+        }
+        agenda.consultarContactosPorNombre();
+        long reservados = agenda.bytesFueraDelHeap();
+
+        for (int ronda = 1; ronda <= 150; ronda++) {
+            for (int i = 0; i < agendados.size(); i++) {
+                agenda.eliminarContacto(agendados.get(i));
+                Contacto contacto = new Contacto("Contacto numero " + (100_000 + i)
+                        + " de la ronda", Integer.toString(ronda * 10_000 + i), null);
+                agenda.agregarContacto(contacto);
+                agenda.agregarInvitadoEvento(reunion, contacto);
+                agendados.set(i, contacto);
+            }
+        }
+
+        assertEquals(reservados, agenda.bytesFueraDelHeap());
+        assertEquals(1000, agenda.listarEventos().get(0).obtenerInvitadosEvento().size());
+        assertEquals("Contacto numero 100000 de la ronda",
+                agenda.consultarContactosPorNombre().get(0).obtenerNombre());
+    }
+
+    /**
+     * Verifica que dos listas tengan los mismos contactos con los mismos
+     * datos y en el mismo orden.
+     *
+     * @param esperados Los contactos esperados.
+     * @param obtenidos Los contactos obtenidos.
+     */
+    private static void assertIguales(List<Contacto> esperados,
+                                      List<Contacto> obtenidos) {
+        assertEquals(esperados.size(), obtenidos.size());
+        for (int i = 0; i < esperados.size(); i++) {
+            IContacto esperado = esperados.get(i);
+            IContacto obtenido = obtenidos.get(i);
+            assertEquals(esperado.obtenerNombre(), obtenido.obtenerNombre());
+            assertEquals(esperado.obtenerDni(), obtenido.obtenerDni());
+            assertEquals(esperado.obtenerFechaNacimiento(),
+                    obtenido.obtenerFechaNacimiento());
+        }
+    }
+}
@@ -1,377 +1,723 @@
-package ar.unrn.miagenda.agenda;
-
-import ar.unrn.miagenda.contacto.Contacto;
-import ar.unrn.miagenda.evento.Evento;
-import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
-import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
-import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
-import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
-import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
-import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
-import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
-import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
-
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.junit.jupiter.api.Assertions.assertTrue;
-
-/**
- * Clase de pruebas unitarias para la clase {@link Agenda}.
- */
-class AgendaTest {
-
-    private Agenda agenda;
-    private Contacto demian;
-    private Contacto alma;
-    private Contacto karina;
-    private Contacto gaston;
-    private Contacto juan;
-    private Evento cumpleDeAlma;
-    private List<Contacto> invitadosCumpleAlma;
-
-    /**
-     * Configura los datos necesarios para cada prueba.
-     *
-     * @throws ContactoDuplicadoException Si se intenta agregar un contacto duplicado.
-     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
-     * contacto al agregar.
-     * @throws EventoDuplicadoException Si se intenta crear un evento duplicado.
-     */
-    @BeforeEach
-    void setUp()
-            throws ContactoDuplicadoException,
-            ContactoNoEncontradoEnAgendaException,
-            EventoDuplicadoException {
-        agenda = new Agenda();
-        // Creación de contactos
-        demian = new Contacto(
-                "Demian Castañeda",
-                "44.121.248",
-                LocalDate.of(2002, 6, 27)
-        );
-        alma = new Contacto(
-                "Alma Prat",
-                "55.443.563",
-                LocalDate.of(2016, 6, 7)
-        );
-        karina = new Contacto(
-                "Karina Reyes",
-                "31.244.321",
-                LocalDate.of(1984, 9, 21)
-        );
-        gaston = new Contacto(
-                "Gaston Prat",
-                "36.324.556",
-                LocalDate.of(1992, 6, 11)
-        );
-        juan = new Contacto(
-                "Juan Perez",
-                "13.123.456",
-                LocalDate.of(1949, 12, 3)
-        );
-        // Configuración de invitados
-        invitadosCumpleAlma = new ArrayList<>();
-        invitadosCumpleAlma.add(alma);
-        // Creación del evento
-        cumpleDeAlma = new Evento(
-                "Cumpleaños de Almita",
-                LocalDate.of(2024, 6, 7),
-                invitadosCumpleAlma
-        );
-        // Agregar contactos y eventos a la agenda
-        agenda.agregarContacto(alma);
-        agenda.agregarContacto(demian);
-        agenda.agregarContacto(karina);
-        agenda.agregarContacto(gaston);
-        agenda.crearEvento(cumpleDeAlma);
-    }
-
-    /**
-     * Prueba para verificar la funcionalidad del metodo agregarContacto.
-     *
-     * @throws ContactoDuplicadoException Si se intenta agregar un contacto duplicado.
-     */
-    @Test
-    void agregarContacto() throws ContactoDuplicadoException {
-        agenda.agregarContacto(juan);
-        assertEquals(5, agenda.cantidadTotalContactos());
-        assertTrue(agenda.verificarExistenciaContacto(juan));
-        assertThrows(ContactoDuplicadoException.class, ()
-                -> agenda.agregarContacto(juan));
-    }
-
-    /**
-     * Prueba para eliminar un contacto de la agenda y verificar su
-     * impacto en los eventos.
-     *
-     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no está en la agenda.
-     * @throws AgendaDeEventosVaciaException Si la lista de eventos está vacía.
-     */
-    @Test
-    void eliminarContacto()
-            throws ContactoNoEncontradoEnAgendaException,
-            AgendaDeEventosVaciaException {
-        agenda.eliminarContacto(demian);
-        assertFalse(agenda.verificarExistenciaContacto(demian));
-        assertEquals(3, agenda.cantidadTotalContactos());
-        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
-                -> agenda.eliminarContacto(demian));
-        agenda.eliminarContacto(alma);
-        assertEquals(0,
-                agenda.listarEventos().get(0).obtenerInvitadosEvento().size());
-    }
-
-    /**
-     * Prueba para buscar un contacto por su nombre.
-     *
-     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se encuentra.
-     */
-    @Test
-    void buscarContactoPorNombre() throws ContactoNoEncontradoEnAgendaException {
-        Contacto contactoEncontrado = agenda.buscarContactoPorNombre("karina reyes");
-        assertEquals(karina, contactoEncontrado);
-        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
-                -> agenda.buscarContactoPorNombre("juan perez"));
-    }
-
-    /**
-     * Prueba para buscar un contacto por su DNI.
-     *
-     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se encuentra.
-     */
-    @Test
-    void buscarContactoPorDni() throws ContactoNoEncontradoEnAgendaException {
-        Contacto contactoEncontrado = agenda.buscarContactoPorDni("55.443.563");
-        assertEquals(alma, contactoEncontrado);
-        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
-                -> agenda.buscarContactoPorDni("21.876.555"));
-    }
-
-    /**
-     * Prueba para verificar que los contactos se devuelvan ordenados correctamente
-     * según su fecha de nacimiento de menor a mayor.
-     *
-     * @throws AgendaDeContactosVaciaException si la agenda no contiene contactos.
-     */
-    @Test
-    void listarContactosPorNacimiento() throws AgendaDeContactosVaciaException {
-        List<Contacto> contactosOrdenados = agenda.listarContactosPorNacimiento();
-        assertEquals("Karina Reyes", contactosOrdenados.get(0).obtenerNombre());
-        assertEquals("Demian Castañeda", contactosOrdenados.get(2).obtenerNombre());
-        Agenda otraAgenda = new Agenda();
-        assertThrows(AgendaDeContactosVaciaException.class, ()
-                -> otraAgenda.listarContactosPorNacimiento());
-    }
-
-    /**
-     * Prueba para verificar que los contactos se devuelvan ordenados correctamente
-     * según su nombre alfabeticamente.
-     *
-     * @throws AgendaDeContactosVaciaException si la agenda no contiene contactos.
-     */
-    @Test
-    void listarContactosPorNombre() throws AgendaDeContactosVaciaException {
-        List<Contacto> contactosOrdenados = agenda.listarContactosPorNombre();
-        assertEquals("Alma Prat", contactosOrdenados.get(0).obtenerNombre());
-        assertEquals("Gaston Prat", contactosOrdenados.get(2).obtenerNombre());
-        Agenda otraAgenda = new Agenda();
-        assertThrows(AgendaDeContactosVaciaException.class, ()
-                -> otraAgenda.listarContactosPorNombre());
-    }
-
-    /**
-     * Prueba para verificar que el método devuelva la cantidad correcta de contactos
-     * en la agenda
-     *
-     * @throws ContactoDuplicadoException si se intenta agregar un contacto duplicado.
-     */
-    @Test
-    void cantidadTotalContactos() throws ContactoDuplicadoException {
-        assertEquals(4, agenda.cantidadTotalContactos());
-        agenda.agregarContacto(juan);
-        assertEquals(5, agenda.cantidadTotalContactos());
-        Agenda otraAgenda = new Agenda();
-        assertEquals(0, otraAgenda.cantidadTotalContactos());
-    }
-
-    /**
-     * prueba para verificar que el método determine correctamente si un contacto
-     * existe o no en la agenda.
-     */
-    @Test
-    void verificarExistenciaContacto() {
-        assertTrue(agenda.verificarExistenciaContacto(alma));
-        assertFalse(agenda.verificarExistenciaContacto(juan));
-    }
-
-    /**
-     * prueba para verificar que el método {@code limpiarAgenda} elimine correctamente
-     * todos los contactos y eventos de la agenda, dejando la misma vacía.
-     *
-     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
-     */
-    @Test
-    void limpiarAgenda() throws AgendaDeEventosVaciaException {
-        assertEquals(4, agenda.cantidadTotalContactos());
-        assertEquals(1, agenda.listarEventos().size());
-        agenda.limpiarAgenda();
-        assertEquals(0, agenda.cantidadTotalContactos());
-        assertThrows(AgendaDeEventosVaciaException.class, ()
-                -> agenda.listarEventos());
-    }
-
-    /**
-     * Prueba para verificar que el método {@code crearEvento} cree correctamente
-     * un evento en la agenda, y también maneje adecuadamente los casos de excepciones.
-     *
-     * @throws ContactoNoEncontradoEnAgendaException Si algún contacto no se encuentra
-     * en la agenda.
-     * @throws EventoDuplicadoException Si se intenta crear un evento que ya existe.
-     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
-     */
-    @Test
-    void crearEvento()
-            throws ContactoNoEncontradoEnAgendaException,
-            EventoDuplicadoException,
-            AgendaDeEventosVaciaException {
-        Evento navidad = new Evento(
-                "Festejo Navideño",
-                LocalDate.of(2024, 12, 25),
-                null
-        );
-        agenda.crearEvento(navidad);
-        assertEquals(2, agenda.listarEventos().size());
-
-        List<Contacto> invitadosCumpleJuan = new ArrayList<>();
-        invitadosCumpleJuan.add(juan);
-        Evento cumpleJuan = new Evento(
-                "Cumpleaños de Juan Perez",
-                LocalDate.of(2024, 12, 3),
-                invitadosCumpleJuan
-        );
-        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
-                -> agenda.crearEvento(cumpleJuan));
-
-        assertThrows(EventoDuplicadoException.class, ()
-                -> agenda.crearEvento(cumpleDeAlma));
-    }
-
-    /**
-     * Prueba el método {@code agregarInvitadoEvento} de la clase {@link Agenda}.
-     * <p>
-     * Prueba para verificar que el método {@code agregarInvitadoEvento} maneje
-     * correctamente todos los casos
-     *
-     * @throws EventoNoEncontradoException Si el evento al que se intenta agregar un
-     * invitado no existe.
-     * @throws ContactoYaInvitadoException Si el contacto ya está invitado al evento.
-     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se encuentra
-     * en la agenda.
-     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
-     * @throws AgendaDeEventosVaciaException Si la agenda no tiene eventos.
-     */
-    @Test
-    void agregarInvitadoEvento()
-            throws EventoNoEncontradoException,
-            ContactoYaInvitadoException,
-            ContactoNoEncontradoEnAgendaException,
-            ContactoDuplicadoException,
-            AgendaDeEventosVaciaException {
-        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
-                -> agenda.agregarInvitadoEvento(cumpleDeAlma, juan));
-        agenda.agregarContacto(juan);
-        agenda.agregarInvitadoEvento(cumpleDeAlma, juan);
-        List<Evento> eventos = agenda.listarEventos();
-        assertEquals(2, eventos.get(0).obtenerInvitadosEvento().size());
-        Evento navidad = new Evento(
-                "Festejo Navideño",
-                LocalDate.of(2024, 12, 25),
-                null
-        );
-        assertThrows(EventoNoEncontradoException.class, ()
-                -> agenda.agregarInvitadoEvento(navidad, alma));
-
-        assertThrows(ContactoYaInvitadoException.class, ()
-                -> agenda.agregarInvitadoEvento(cumpleDeAlma, alma));
-    }
-
-    /**
-     * Prueba el método {@code quitarInvitadoEvento} de la clase {@link Agenda}.
-     * <p>
-     * Prueba que verifica que el método {@code quitarInvitadoEvento} maneje
-     * correctamente todos los casos
-     *
-     * @throws EventoNoEncontradoException Si el evento al que se intenta quitar un
-     * invitado no existe.
-     * @throws ContactoNoEncontradoEnEventoException Si el contacto no ha sido invitado
-     * al evento.
-     * @throws AgendaDeEventosVaciaException Si la agenda no tiene eventos.
-     * @throws ContactoYaInvitadoException Si el contacto ya está invitado al evento.
-     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se encuentra en
-     * la agenda.
-     */
-    @Test
-    void quitarInvitadoEvento()
-            throws EventoNoEncontradoException,
-            ContactoNoEncontradoEnEventoException,
-            AgendaDeEventosVaciaException,
-            ContactoYaInvitadoException,
-            ContactoNoEncontradoEnAgendaException {
-        agenda.quitarInvitadoEvento(cumpleDeAlma, alma);
-        List<Evento> eventos = agenda.listarEventos();
-        assertEquals(0, eventos.get(0).obtenerInvitadosEvento().size());
-
-        agenda.agregarInvitadoEvento(cumpleDeAlma, alma);
-        agenda.agregarInvitadoEvento(cumpleDeAlma, karina);
-        agenda.agregarInvitadoEvento(cumpleDeAlma, gaston);
-        agenda.agregarInvitadoEvento(cumpleDeAlma, demian);
-        Evento navidad = new Evento(
-                "Festejo Navideño",
-                LocalDate.of(2024, 12, 25),
-                null
-        );
-        assertThrows(EventoNoEncontradoException.class, ()
-                -> agenda.quitarInvitadoEvento(navidad, alma));
-        assertThrows(ContactoNoEncontradoEnEventoException.class, ()
-                -> agenda.quitarInvitadoEvento(cumpleDeAlma, juan));
-    }
-
-    /**
-     * Prueba el método {@code listarEventos} de la clase {@link Agenda}.
-     * <p>
-     * Prueba para verificar que el método {@code listarEventos} maneje correctamente
-     * todos los casos
-     *
-     * @throws AgendaDeEventosVaciaException Si la agenda no contiene eventos al
-     * intentar listar.
-     * @throws ContactoNoEncontradoEnAgendaException Si un contacto no se encuentra en
-     * la agenda al intentar agregarlo a un evento.
-     * @throws EventoDuplicadoException Si se intenta agregar un evento duplicado
-     * en la agenda.
-     */
-    @Test
-    void listarEventos()
-            throws AgendaDeEventosVaciaException,
-            ContactoNoEncontradoEnAgendaException,
-            EventoDuplicadoException {
-        assertEquals(1, agenda.listarEventos().size());
-        Evento navidad = new Evento(
-                "Festejo Navideño",
-                LocalDate.of(2024, 12, 25),
-                null
-        );
-        agenda.crearEvento(navidad);
-        assertEquals("Festejo Navideño",
-                agenda.listarEventos().get(1).obtenerNombreEvento());
-        agenda.limpiarAgenda();
-        assertThrows(AgendaDeEventosVaciaException.class, ()
-                -> agenda.listarEventos());
-    }
-}
+package ar.unrn.miagenda.agenda;
+
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.contacto.Normalizador;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.AgendaDeContactosVaciaException;
+import ar.unrn.miagenda.excepciones.AgendaDeEventosVaciaException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnEventoException;
+import ar.unrn.miagenda.excepciones.ContactoYaInvitadoException;
+import ar.unrn.miagenda.excepciones.EventoDuplicadoException;
+import ar.unrn.miagenda.excepciones.EventoNoEncontradoException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link Agenda}.
+ */
+class AgendaTest {
+
+    private Agenda agenda;
+    private Contacto demian;
+    private Contacto alma;
+    private Contacto karina;
+    private Contacto gaston;
+    private Contacto juan;
+    private Evento cumpleDeAlma;
+    private List<Contacto> invitadosCumpleAlma;
+
+    /**
+     * Configura los datos necesarios para cada prueba.
+     *
+     * @throws ContactoDuplicadoException Si se intenta agregar un contacto duplicado.
+     * @throws ContactoNoEncontradoEnAgendaException Si no se encuentra un
+     * contacto al agregar.
+     * @throws EventoDuplicadoException Si se intenta crear un evento duplicado.
+     */
+    @BeforeEach
+    void setUp()
+            throws ContactoDuplicadoException,
+            ContactoNoEncontradoEnAgendaException,
+            EventoDuplicadoException {
+        agenda = new Agenda();
+        // Creación de contactos
+        demian = new Contacto(
+                "Demian Castañeda",
+                "44.121.248",
+                LocalDate.of(2002, 6, 27)
+        );
+        alma = new Contacto(
+                "Alma Prat",
+                "55.443.563",
+                LocalDate.of(2016, 6, 7)
+        );
+        karina = new Contacto(
+                "Karina Reyes",
+                "31.244.321",
+                LocalDate.of(1984, 9, 21)
+        );
+        gaston = new Contacto(
+                "Gaston Prat",
+                "36.324.556",
+                LocalDate.of(1992, 6, 11)
+        );
+        juan = new Contacto(
+                "Juan Perez",
+                "13.123.456",
+                LocalDate.of(1949, 12, 3)
+        );
+        // Configuración de invitados
+        invitadosCumpleAlma = new ArrayList<>();
+        invitadosCumpleAlma.add(alma);
+        // Creación del evento
+        cumpleDeAlma = new Evento(
+                "Cumpleaños de Almita",
+                LocalDate.of(2024, 6, 7),
+                invitadosCumpleAlma
+        );
+        // Agregar contactos y eventos a la agenda
+        agenda.agregarContacto(alma);
+        agenda.agregarContacto(demian);
+        agenda.agregarContacto(karina);
+        agenda.agregarContacto(gaston);
+        agenda.crearEvento(cumpleDeAlma);
+    }
+
+    /**
+     * Prueba para verificar la funcionalidad del metodo agregarContacto.
+     *
+     * @throws ContactoDuplicadoException Si se intenta agregar un contacto duplicado.
+     */
+    @Test
+    void agregarContacto() throws ContactoDuplicadoException {
+        agenda.agregarContacto(juan);
+        assertEquals(5, agenda.cantidadTotalContactos());
+        assertTrue(agenda.verificarExistenciaContacto(juan));
+        assertThrows(ContactoDuplicadoException.class, ()
+                -> agenda.agregarContacto(juan));
+    }
+
+    /**
+     * Prueba para eliminar un contacto de la agenda y verificar su
+     * impacto en los eventos.
+     *
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no está en la agenda.
+     * @throws AgendaDeEventosVaciaException Si la lista de eventos está vacía.
+     */
+    @Test
+    void eliminarContacto()
+            throws ContactoNoEncontradoEnAgendaException,
+            AgendaDeEventosVaciaException {
+        agenda.eliminarContacto(demian);
+        assertFalse(agenda.verificarExistenciaContacto(demian));
+        assertEquals(3, agenda.cantidadTotalContactos());
+        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
+                -> agenda.eliminarContacto(demian));
+        agenda.eliminarContacto(alma);
+        assertEquals(0,
+                agenda.listarEventos().get(0).obtenerInvitadosEvento().size());
+    }
+
+    /**
+     * Prueba para buscar un contacto por su nombre.
+     *
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se encuentra.
+     */
+    @Test
+    void buscarContactoPorNombre() throws ContactoNoEncontradoEnAgendaException {
+        Contacto contactoEncontrado = agenda.buscarContactoPorNombre("karina reyes");
+        assertEquals(karina, contactoEncontrado);
+        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
+                -> agenda.buscarContactoPorNombre("juan perez"));
+    }
+
+    /**
+     * Prueba para buscar un contacto por su DNI.
+     *
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se encuentra.
+     */
+    @Test
+    void buscarContactoPorDni() throws ContactoNoEncontradoEnAgendaException {
+        Contacto contactoEncontrado = agenda.buscarContactoPorDni("55.443.563");
+        assertEquals(alma, contactoEncontrado);
+        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
+                -> agenda.buscarContactoPorDni("21.876.555"));
+    }
+
+    /**
+     * Prueba para verificar que los contactos se devuelvan ordenados correctamente
+     * según su fecha de nacimiento de menor a mayor.
+     *
+     * @throws AgendaDeContactosVaciaException si la agenda no contiene contactos.
+     */
+    @Test
+    void listarContactosPorNacimiento() throws AgendaDeContactosVaciaException {
+        List<Contacto> contactosOrdenados = agenda.listarContactosPorNacimiento();
+        assertEquals("Karina Reyes", contactosOrdenados.get(0).obtenerNombre());
+        assertEquals("Demian Castañeda", contactosOrdenados.get(2).obtenerNombre());
+        Agenda otraAgenda = new Agenda();
+        assertThrows(AgendaDeContactosVaciaException.class, ()
+                -> otraAgenda.listarContactosPorNacimiento());
+    }
+
+    /**
+     * Prueba para verificar que los contactos se devuelvan ordenados correctamente
+     * según su nombre alfabeticamente.
+     *
+     * @throws AgendaDeContactosVaciaException si la agenda no contiene contactos.
+     */
+    @Test
+    void listarContactosPorNombre() throws AgendaDeContactosVaciaException {
+        List<Contacto> contactosOrdenados = agenda.listarContactosPorNombre();
+        assertEquals("Alma Prat", contactosOrdenados.get(0).obtenerNombre());
+        assertEquals("Gaston Prat", contactosOrdenados.get(2).obtenerNombre());
+        Agenda otraAgenda = new Agenda();
+        assertThrows(AgendaDeContactosVaciaException.class, ()
+                -> otraAgenda.listarContactosPorNombre());
+    }
+
+    /**
+     * Prueba para verificar que el método devuelva la cantidad correcta de contactos
+     * en la agenda
+     *
+     * @throws ContactoDuplicadoException si se intenta agregar un contacto duplicado.
+     */
+    @Test
+    void cantidadTotalContactos() throws ContactoDuplicadoException {
+        assertEquals(4, agenda.cantidadTotalContactos());
+        agenda.agregarContacto(juan);
+        assertEquals(5, agenda.cantidadTotalContactos());
+        Agenda otraAgenda = new Agenda();
+        assertEquals(0, otraAgenda.cantidadTotalContactos());
+    }
+
+    /**
+     * prueba para verificar que el método determine correctamente si un contacto
+     * existe o no en la agenda.
+     */
+    @Test
+    void verificarExistenciaContacto() {
+        assertTrue(agenda.verificarExistenciaContacto(alma));
+        assertFalse(agenda.verificarExistenciaContacto(juan));
+    }
+
+    /**
+     * prueba para verificar que el método {@code limpiarAgenda} elimine correctamente
+     * todos los contactos y eventos de la agenda, dejando la misma vacía.
+     *
+     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
+     */
+    @Test
+    void limpiarAgenda() throws AgendaDeEventosVaciaException {
+        assertEquals(4, agenda.cantidadTotalContactos());
+        assertEquals(1, agenda.listarEventos().size());
+        agenda.limpiarAgenda();
+        assertEquals(0, agenda.cantidadTotalContactos());
+        assertThrows(AgendaDeEventosVaciaException.class, ()
+                -> agenda.listarEventos());
+    }
+
+    /**
+     * Prueba para verificar que el método {@code crearEvento} cree correctamente
+     * un evento en la agenda, y también maneje adecuadamente los casos de excepciones.
+     *
+     * @throws ContactoNoEncontradoEnAgendaException Si algún contacto no se encuentra
+     * en la agenda.
+     * @throws EventoDuplicadoException Si se intenta crear un evento que ya existe.
+     * @throws AgendaDeEventosVaciaException Si no hay eventos en la agenda.
+     */
+    @Test
+    void crearEvento()
+            throws ContactoNoEncontradoEnAgendaException,
+            EventoDuplicadoException,
+            AgendaDeEventosVaciaException {
+        Evento navidad = new Evento(
+                "Festejo Navideño",
+                LocalDate.of(2024, 12, 25),
+                null
+        );
+        agenda.crearEvento(navidad);
+        assertEquals(2, agenda.listarEventos().size());
+
+        List<Contacto> invitadosCumpleJuan = new ArrayList<>();
+        invitadosCumpleJuan.add(juan);
+        Evento cumpleJuan = new Evento(
+                "Cumpleaños de Juan Perez",
+                LocalDate.of(2024, 12, 3),
+                invitadosCumpleJuan
+        );
+        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
+                -> agenda.crearEvento(cumpleJuan));
+
+        assertThrows(EventoDuplicadoException.class, ()
+                -> agenda.crearEvento(cumpleDeAlma));
+    }
+
+    /**
+     * Prueba el método {@code agregarInvitadoEvento} de la clase {@link Agenda}.
+     * <p>
+     * Prueba para verificar que el método {@code agregarInvitadoEvento} maneje
+     * correctamente todos los casos
+     *
+     * @throws EventoNoEncontradoException Si el evento al que se intenta agregar un
+     * invitado no existe.
+     * @throws ContactoYaInvitadoException Si el contacto ya está invitado al evento.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se encuentra
+     * en la agenda.
+     * @throws ContactoDuplicadoException Si el contacto ya existe en la agenda.
+     * @throws AgendaDeEventosVaciaException Si la agenda no tiene eventos.
+     */
+    @Test
+    void agregarInvitadoEvento()
+            throws EventoNoEncontradoException,
+            ContactoYaInvitadoException,
+            ContactoNoEncontradoEnAgendaException,
+            ContactoDuplicadoException,
+            AgendaDeEventosVaciaException {
+        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
+                -> agenda.agregarInvitadoEvento(cumpleDeAlma, juan));
+        agenda.agregarContacto(juan);
+        agenda.agregarInvitadoEvento(cumpleDeAlma, juan);
+        List<Evento> eventos = agenda.listarEventos();
+        assertEquals(2, eventos.get(0).obtenerInvitadosEvento().size());
+        Evento navidad = new Evento(
+                "Festejo Navideño",
+                LocalDate.of(2024, 12, 25),
+                null
+        );
+        assertThrows(EventoNoEncontradoException.class, ()
+                -> agenda.agregarInvitadoEvento(navidad, alma));
+
+        assertThrows(ContactoYaInvitadoException.class, ()
+                -> agenda.agregarInvitadoEvento(cumpleDeAlma, alma));
+    }
+
+    /**
+     * Prueba el método {@code quitarInvitadoEvento} de la clase {@link Agenda}.
+     * <p>
+     * Prueba que verifica que el método {@code quitarInvitadoEvento} maneje
+     * correctamente todos los casos
+     *
+     * @throws EventoNoEncontradoException Si el evento al que se intenta quitar un
+     * invitado no existe.
+     * @throws ContactoNoEncontradoEnEventoException Si el contacto no ha sido invitado
+     * al evento.
+     * @throws AgendaDeEventosVaciaException Si la agenda no tiene eventos.
+     * @throws ContactoYaInvitadoException Si el contacto ya está invitado al evento.
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se encuentra en
+     * la agenda.
+     */
+    @Test
+    void quitarInvitadoEvento()
+            throws EventoNoEncontradoException,
+            ContactoNoEncontradoEnEventoException,
+            AgendaDeEventosVaciaException,
+            ContactoYaInvitadoException,
+            ContactoNoEncontradoEnAgendaException {
+        agenda.quitarInvitadoEvento(cumpleDeAlma, alma);
+        List<Evento> eventos = agenda.listarEventos();
+        assertEquals(0, eventos.get(0).obtenerInvitadosEvento().size());
+
+        agenda.agregarInvitadoEvento(cumpleDeAlma, alma);
+        agenda.agregarInvitadoEvento(cumpleDeAlma, karina);
+        agenda.agregarInvitadoEvento(cumpleDeAlma, gaston);
+        agenda.agregarInvitadoEvento(cumpleDeAlma, demian);
+        Evento navidad = new Evento(
+                "Festejo Navideño",
+                LocalDate.of(2024, 12, 25),
+                null
+        );
+        assertThrows(EventoNoEncontradoException.class, ()
+                -> agenda.quitarInvitadoEvento(navidad, alma));
+        assertThrows(ContactoNoEncontradoEnEventoException.class, ()
+                -> agenda.quitarInvitadoEvento(cumpleDeAlma, juan));
+    }
+
+    /**
+     * Prueba el método {@code listarEventos} de la clase {@link Agenda}.
+     * <p>
+     * Prueba para verificar que el método {@code listarEventos} maneje correctamente
+     * todos los casos
+     *
+     * @throws AgendaDeEventosVaciaException Si la agenda no contiene eventos al
+     * intentar listar.
+     * @throws ContactoNoEncontradoEnAgendaException Si un contacto no se encuentra en
+     * la agenda al intentar agregarlo a un evento.
+     * @throws EventoDuplicadoException Si se intenta agregar un evento duplicado
+     * en la agenda.
+     */
+    @Test
+    void listarEventos()
+            throws AgendaDeEventosVaciaException,
+            ContactoNoEncontradoEnAgendaException,
+            EventoDuplicadoException {
+        assertEquals(1, agenda.listarEventos().size());
+        Evento navidad = new Evento(
+                "Festejo Navideño",
+                LocalDate.of(2024, 12, 25),
+                null
+        );
+        agenda.crearEvento(navidad);
+        assertEquals("Festejo Navideño",
+                agenda.listarEventos().get(1).obtenerNombreEvento());
+        agenda.limpiarAgenda();
+        assertThrows(AgendaDeEventosVaciaException.class, ()
+                -> agenda.listarEventos());
+    }
+
+    /**
+     * Prueba para verificar que la búsqueda y la detección de duplicados por DNI
+     * no dependan del formato con el que fue ingresado el número.
+     *
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se encuentra.
+     */
+    @Test
+    void buscarContactoPorDniNormalizado() throws ContactoNoEncontradoEnAgendaException {
+        assertEquals(alma, agenda.buscarContactoPorDni("55443563"));
+        Contacto otraAlma = new Contacto(
+                "Alma P.",
+                "55443563",
+                LocalDate.of(2016, 6, 7)
+        );
+        assertEquals(alma, otraAlma);
+        assertEquals(alma.hashCode(), otraAlma.hashCode());
+        assertTrue(agenda.verificarExistenciaContacto(otraAlma));
+        assertThrows(ContactoDuplicadoException.class, ()
+                -> agenda.agregarContacto(otraAlma));
+    }
+
+    /**
+     * Prueba para verificar que la búsqueda por nombre no distinga acentos ni
+     * espacios repetidos.
+     *
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no se encuentra.
+     */
+    @Test
+    void buscarContactoPorNombreSinAcentos()
+            throws ContactoNoEncontradoEnAgendaException {
+        assertEquals(demian, agenda.buscarContactoPorNombre("demian  castaneda"));
+        agenda.eliminarContacto(demian);
+        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
+                -> agenda.buscarContactoPorNombre("Demian Castañeda"));
+    }
+
+    /**
+     * Prueba para verificar que la búsqueda por prefijo devuelva los contactos
+     * ordenados por nombre y respete la cantidad máxima indicada.
+     *
+     * @throws ContactoDuplicadoException Si se intenta agregar un contacto duplicado.
+     */
+    @Test
+    void buscarContactosPorPrefijo() throws ContactoDuplicadoException {
+        agenda.agregarContacto(juan);
+        List<Contacto> encontrados = agenda.buscarContactosPorPrefijo("GA", 10);
+        assertEquals(List.of(gaston), encontrados);
+        assertEquals(List.of(alma, demian), agenda.buscarContactosPorPrefijo("", 2));
+        assertTrue(agenda.buscarContactosPorPrefijo("Zoe", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, ()
+                -> agenda.buscarContactosPorPrefijo("a", -1));
+    }
+
+    /**
+     * Prueba que un espacio al final del prefijo se respete, reducido a uno
+     * solo, para distinguir una palabra completa del comienzo de otra más
+     * larga.
+     *
+     * @throws ContactoDuplicadoException Si se intenta agregar un contacto duplicado.
+     */
+    @Test
+    void buscarContactosPorPrefijoConEspacioFinal() throws ContactoDuplicadoException {
+        Contacto beto = new Contacto("Beto  Perez", "11111111", null);
+        Contacto betoven = new Contacto("Betoven", "22222222", null);
+        agenda.agregarContactos(List.of(beto, betoven));
+        assertEquals(List.of(beto, betoven),
+                agenda.buscarContactosPorPrefijo("beto", 10));
+        assertEquals(List.of(beto), agenda.buscarContactosPorPrefijo("beto ", 10));
+        assertEquals(List.of(beto), agenda.buscarContactosPorPrefijo(" BETO \t ", 10));
+        assertEquals(List.of(beto), agenda.buscarContactosPorPrefijo("Beto   Pé", 10));
+        assertEquals("beto ", Normalizador.normalizarPrefijo("  Béto   "));
+        assertEquals("", Normalizador.normalizarPrefijo("   "));
+        assertEquals("beto", Normalizador.normalizarNombre("Beto "));
+    }
+
+    /**
+     * Prueba para verificar que los listados ordenados se mantengan al agregar
+     * y eliminar contactos, y que las porciones respeten los límites pedidos.
+     *
+     * @throws AgendaDeContactosVaciaException si la agenda no contiene contactos.
+     * @throws ContactoDuplicadoException si se intenta agregar un contacto duplicado.
+     * @throws ContactoNoEncontradoEnAgendaException si el contacto no está agendado.
+     */
+    @Test
+    void listarContactosPaginados()
+            throws AgendaDeContactosVaciaException,
+            ContactoDuplicadoException,
+            ContactoNoEncontradoEnAgendaException {
+        agenda.agregarContacto(juan);
+        assertEquals(List.of(juan, karina),
+                agenda.listarContactosPorNacimiento(0, 2));
+        assertEquals(List.of(juan, karina),
+                agenda.listarContactosPorNombre(3, 10));
+        assertTrue(agenda.listarContactosPorNombre(8, 2).isEmpty());
+        agenda.eliminarContacto(karina);
+        assertEquals(List.of(juan, gaston),
+                agenda.listarContactosPorNacimiento(0, 2));
+        assertThrows(IllegalArgumentException.class, ()
+                -> agenda.listarContactosPorNombre(-1, 2));
+        assertThrows(UnsupportedOperationException.class, ()
+                -> agenda.listarContactosPorNombre().add(karina));
+    }
+
+    /**
+     * Prueba para verificar las consultas por rango de nacimiento y por
+     * ventana de cumpleaños, incluyendo una ventana que cruza el fin de año.
+     *
+     * @throws ContactoDuplicadoException si se intenta agregar un contacto duplicado.
+     */
+    @Test
+    void listarCumpleanios() throws ContactoDuplicadoException {
+        agenda.agregarContacto(juan);
+        assertEquals(List.of(karina, gaston), agenda.listarContactosNacidosEntre(
+                LocalDate.of(1980, 1, 1), LocalDate.of(1992, 6, 11)));
+        assertEquals(List.of(alma, gaston),
+                agenda.listarProximosCumpleanios(LocalDate.of(2024, 6, 1), 10));
+        assertEquals(List.of(juan, alma, gaston, demian, karina),
+                agenda.listarCumpleaniosEntre(MonthDay.of(11, 1), MonthDay.of(9, 30)));
+        assertEquals(List.of(juan),
+                agenda.listarProximosCumpleanios(LocalDate.of(2024, 11, 30), 40));
+        assertEquals(5,
+                agenda.listarProximosCumpleanios(LocalDate.of(2024, 1, 1), 365).size());
+        assertTrue(agenda.listarCumpleaniosEntre(
+                MonthDay.of(1, 1), MonthDay.of(5, 31)).isEmpty());
+    }
+
+    /**
+     * Prueba para verificar las consultas de eventos por fecha y que las
+     * operaciones sobre un evento igual al agendado actúen sobre este último.
+     *
+     * @throws ContactoNoEncontradoEnAgendaException Si algún invitado no está agendado.
+     * @throws EventoDuplicadoException Si se intenta crear un evento duplicado.
+     * @throws EventoNoEncontradoException Si el evento no está en la agenda.
+     * @throws ContactoYaInvitadoException Si el contacto ya está invitado.
+     */
+    @Test
+    void listarEventosPorFecha()
+            throws ContactoNoEncontradoEnAgendaException,
+            EventoDuplicadoException,
+            EventoNoEncontradoException,
+            ContactoYaInvitadoException {
+        Evento navidad = new Evento(
+                "Festejo Navideño",
+                LocalDate.of(2024, 12, 25),
+                null
+        );
+        Evento asado = new Evento(
+                "Asado",
+                LocalDate.of(2024, 6, 7),
+                null
+        );
+        agenda.crearEvento(navidad);
+        agenda.crearEvento(asado);
+        assertEquals(List.of(cumpleDeAlma, asado),
+                agenda.listarEventosDelDia(LocalDate.of(2024, 6, 7)));
+        assertEquals(List.of(cumpleDeAlma, asado, navidad), agenda.listarEventosEntre(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+        assertEquals(List.of(navidad),
+                agenda.listarProximosEventos(LocalDate.of(2024, 6, 8), 5));
+        assertTrue(agenda.listarEventosEntre(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)).isEmpty());
+
+        Evento mismoAsado = new Evento("Asado", LocalDate.of(2024, 6, 7), null);
+        assertEquals(asado, mismoAsado);
+        agenda.agregarInvitadoEvento(mismoAsado, karina);
+        assertTrue(asado.obtenerInvitadosEvento().contains(karina));
+        assertThrows(EventoDuplicadoException.class, ()
+                -> agenda.crearEvento(mismoAsado));
+    }
+
+    /**
+     * Prueba para verificar que el índice inverso de invitaciones se mantenga
+     * al invitar, quitar y eliminar contactos.
+     *
+     * @throws ContactoNoEncontradoEnAgendaException Si el contacto no está agendado.
+     * @throws EventoDuplicadoException Si se intenta crear un evento duplicado.
+     * @throws EventoNoEncontradoException Si el evento no está en la agenda.
+     * @throws ContactoYaInvitadoException Si el contacto ya está invitado.
+     * @throws ContactoNoEncontradoEnEventoException Si el contacto no está invitado.
+     */
+    @Test
+    void listarEventosDeContacto()
+            throws ContactoNoEncontradoEnAgendaException,
+            EventoDuplicadoException,
+            EventoNoEncontradoException,
+            ContactoYaInvitadoException,
+            ContactoNoEncontradoEnEventoException {
+        Evento navidad = new Evento(
+                "Festejo Navideño",
+                LocalDate.of(2024, 12, 25),
+                List.of(alma, gaston)
+        );
+        agenda.crearEvento(navidad);
+        assertEquals(List.of(cumpleDeAlma, navidad),
+                agenda.listarEventosDeContacto(alma));
+        assertEquals(List.of(navidad), agenda.listarEventosDeContacto(gaston));
+        assertTrue(agenda.listarEventosDeContacto(karina).isEmpty());
+        agenda.agregarInvitadoEvento(cumpleDeAlma, karina);
+        agenda.quitarInvitadoEvento(navidad, gaston);
+        assertEquals(List.of(cumpleDeAlma), agenda.listarEventosDeContacto(karina));
+        assertTrue(agenda.listarEventosDeContacto(gaston).isEmpty());
+        agenda.eliminarContacto(alma);
+        assertFalse(navidad.obtenerInvitadosEvento().contains(alma));
+        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
+                -> agenda.listarEventosDeContacto(alma));
+    }
+
+    /**
+     * Prueba para verificar que los invitados de un evento no se repitan y
+     * conserven el orden en que fueron invitados.
+     */
+    @Test
+    void invitadosSinRepetir() {
+        Evento reunion = new Evento(
+                "Reunión",
+                LocalDate.of(2024, 8, 1),
+                List.of(karina, gaston, karina)
+        );
+        reunion.agregarInvitado(gaston);
+        reunion.agregarInvitado(demian);
+        assertEquals(List.of(karina, gaston, demian),
+                reunion.obtenerInvitadosEvento());
+        reunion.quitarInvitado(gaston);
+        assertEquals(List.of(karina, demian),
+                reunion.obtenerInvitadosEvento());
+    }
+
+    /**
+     * Prueba para verificar que una instantánea no cambie al modificar la
+     * agenda y que se reutilice mientras la agenda no cambie.
+     *
+     * @throws ContactoDuplicadoException si se intenta agregar un contacto duplicado.
+     * @throws ContactoNoEncontradoEnAgendaException si el contacto no está agendado.
+     */
+    @Test
+    void tomarInstantanea()
+            throws ContactoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        InstantaneaAgenda instantanea = agenda.tomarInstantanea();
+        assertSame(instantanea, agenda.tomarInstantanea());
+        agenda.agregarContacto(juan);
+        agenda.eliminarContacto(alma);
+        assertEquals(4, instantanea.cantidadContactos());
+        assertTrue(instantanea.buscarContactoPorDni("55.443.563").isPresent());
+        assertEquals(List.of(alma), instantanea.invitadosDe(cumpleDeAlma));
+        assertEquals(List.of(karina, gaston, demian, alma),
+                instantanea.contactosPorNacimiento());
+        InstantaneaAgenda nueva = agenda.tomarInstantanea();
+        assertTrue(nueva.obtenerVersion() > instantanea.obtenerVersion());
+        assertTrue(nueva.invitadosDe(cumpleDeAlma).isEmpty());
+        assertEquals(List.of(demian, gaston, juan, karina), nueva.contactosPorNombre());
+    }
+
+    /**
+     * Prueba que los lotes se validen completos antes de modificar la agenda,
+     * de modo que un lote con un elemento inválido no aplique ninguno.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void operacionesPorLotes() throws Exception {
+        Contacto otroDemian = new Contacto("Otro", "44121248", null);
+        assertThrows(ContactoDuplicadoException.class, ()
+                -> agenda.agregarContactos(List.of(juan, otroDemian)));
+        assertThrows(ContactoDuplicadoException.class, ()
+                -> agenda.agregarContactos(List.of(juan, juan)));
+        assertFalse(agenda.verificarExistenciaContacto(juan));
+        long version = agenda.tomarInstantanea().obtenerVersion();
+        agenda.agregarContactos(List.of(juan));
+        assertEquals(version + 1, agenda.tomarInstantanea().obtenerVersion());
+
+        assertThrows(ContactoYaInvitadoException.class, ()
+                -> agenda.agregarInvitadosEvento(cumpleDeAlma, List.of(juan, alma)));
+        assertThrows(ContactoNoEncontradoEnAgendaException.class, ()
+                -> agenda.agregarInvitadosEvento(cumpleDeAlma, List.of(juan,
+                new Contacto("Nadie", "1", null))));
+        assertEquals(List.of(alma), cumpleDeAlma.obtenerInvitadosEvento());
+        agenda.agregarInvitadosEvento(cumpleDeAlma, List.of(juan, karina));
+        assertEquals(List.of(alma, juan, karina),
+                cumpleDeAlma.obtenerInvitadosEvento());
+        assertEquals(List.of(cumpleDeAlma), agenda.listarEventosDeContacto(juan));
+
+        Evento asado = new Evento("Asado", LocalDate.of(2024, 9, 1), List.of(gaston));
+        Evento repetido = new Evento("Cumpleaños de Almita", LocalDate.of(2024, 6, 7),
+                List.of());
+        assertThrows(EventoDuplicadoException.class, ()
+                -> agenda.crearEventos(List.of(asado, repetido)));
+        assertEquals(1, agenda.listarEventos().size());
+        Evento cena = new Evento("Cena", LocalDate.of(2024, 9, 2), List.of());
+        agenda.crearEventos(List.of(asado, cena));
+        assertEquals(List.of(cumpleDeAlma, asado, cena), agenda.listarEventos());
+        assertEquals(List.of(asado), agenda.listarEventosDeContacto(gaston));
+    }
+
+    /**
+     * Prueba que las consultas sin excepciones devuelvan vacío en lugar de
+     * lanzar una excepción cuando no hay resultados.
+     */
+    @Test
+    void consultarSinExcepciones() {
+        assertEquals(Optional.of(alma), agenda.consultarContactoPorDni("55443563"));
+        assertEquals(Optional.empty(), agenda.consultarContactoPorDni("1"));
+        assertEquals(Optional.of(demian),
+                agenda.consultarContactoPorNombre("demian castaneda"));
+        assertEquals(Optional.empty(), agenda.consultarContactoPorNombre("Nadie"));
+        assertEquals(List.of(cumpleDeAlma), agenda.consultarEventosDeContacto(alma));
+        assertTrue(agenda.consultarEventosDeContacto(juan).isEmpty());
+        assertEquals(List.of(demian, gaston), agenda.consultarContactosPorNombre(1, 2));
+
+        agenda.limpiarAgenda();
+        assertTrue(agenda.consultarContactosPorNombre().isEmpty());
+        assertTrue(agenda.consultarContactosPorNacimiento(0, 10).isEmpty());
+        assertTrue(agenda.consultarEventos().isEmpty());
+    }
+
+    /**
+     * Prueba que los invitados agregados o quitados directamente sobre un
+     * evento agendado se reflejen en las consultas y en la baja de contactos.
+     *
+     * @throws ContactoDuplicadoException si se intenta agregar un contacto duplicado.
+     * @throws ContactoNoEncontradoEnAgendaException si el contacto no está agendado.
+     */
+    @Test
+    void invitadosModificadosSobreElEvento()
+            throws ContactoDuplicadoException, ContactoNoEncontradoEnAgendaException {
+        agenda.agregarContacto(juan);
+        long version = agenda.tomarInstantanea().obtenerVersion();
+        cumpleDeAlma.agregarInvitado(juan);
+        assertEquals(version + 1, agenda.tomarInstantanea().obtenerVersion());
+        assertEquals(List.of(cumpleDeAlma), agenda.consultarEventosDeContacto(juan));
+
+        agenda.eliminarContacto(juan);
+        assertFalse(cumpleDeAlma.obtenerInvitadosEvento().contains(juan));
+
+        cumpleDeAlma.quitarInvitado(alma);
+        assertTrue(agenda.consultarEventosDeContacto(alma).isEmpty());
+
+        agenda.limpiarAgenda();
+        version = agenda.tomarInstantanea().obtenerVersion();
+        cumpleDeAlma.agregarInvitado(alma);
+        assertEquals(version, agenda.tomarInstantanea().obtenerVersion());
+    }
+}
@@ -0,0 +1,117 @@
+package ar.unrn.miagenda.agenda;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link IndiceOrdenado}.
+ */
+class IndiceOrdenadoTest {
+
+    /**
+     * Prueba que el índice se comporte como una lista ordenada por clave al
+     * agregar y quitar valores al azar, y que las vistas tomadas en el medio
+     * conserven el contenido que tenían.
+     */
+    @Test
+    void vistasPersistentes() {
+        IndiceOrdenado<Integer, String> indice = IndiceOrdenado.porOrdenNatural();
+        List<Integer> claves = new ArrayList<>();
+        List<String> esperados = new ArrayList<>();
+        List<List<String>> vistas = new ArrayList<>();
+        List<List<String>> copias = new ArrayList<>();
+        Random azar = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            if (esperados.isEmpty() || azar.nextInt(3) > 0) {
+                int clave = azar.nextInt(200);
+                String valor = clave + "-" + i;
+                int posicion = 0;
+                while (posicion < claves.size() && claves.get(posicion) <= clave) {
+                    posicion++;
+                }
+                claves.add(posicion, clave);
+                esperados.add(posicion, valor);
+                indice.agregar(clave, valor);
+            } else {
+                int posicion = azar.nextInt(esperados.size());
+                indice.quitar(claves.remove(posicion), esperados.remove(posicion));
+            }
+            if (i % 250 == 0) {
+                vistas.add(indice.valores());
+                copias.add(List.copyOf(esperados));
+            }
+        }
+        assertEquals(esperados, indice.valores());
+        assertEquals(esperados.size(), indice.tamanio());
+        for (int i = 0; i < vistas.size(); i++) {
+            assertEquals(copias.get(i), vistas.get(i));
+            assertEquals(copias.get(i), new ArrayList<>(vistas.get(i)));
+        }
+        int clave = claves.get(claves.size() / 2);
+        assertEquals(esperados.subList(claves.indexOf(clave),
+                claves.lastIndexOf(clave) + 1), indice.obtener(clave));
+        assertEquals(esperados.subList(10, 20), indice.pagina(10, 10));
+    }
+
+    /**
+     * Prueba que el índice usado como mapa reemplace el valor de una clave y
+     * que el mapa tomado antes no cambie.
+     */
+    @Test
+    void comoMapa() {
+        IndiceOrdenado<String, Integer> indice =
+                new IndiceOrdenado<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        indice.poner("b", 1);
+        indice.poner(null, 0);
+        indice.poner("a", 2);
+        Map<String, Integer> anterior = indice.comoMapa();
+        indice.poner("b", 3);
+        indice.quitar("a", 2);
+
+        assertEquals(3, anterior.size());
+        assertEquals(Integer.valueOf(1), anterior.get("b"));
+        assertEquals(Integer.valueOf(0), anterior.get(null));
+        assertEquals(Integer.valueOf(2), anterior.get("a"));
+        Map<String, Integer> actual = indice.comoMapa();
+        assertEquals(Integer.valueOf(3), actual.get("b"));
+        assertNull(actual.get("a"));
+        assertEquals(List.of("null", "b"), actual.keySet().stream()
+                .map(String::valueOf).collect(Collectors.toList()));
+    }
+
+    /**
+     * Prueba que cargar el índice en bloque deje los valores en el mismo
+     * orden que agregarlos de a uno, y que el índice siga admitiendo cambios.
+     */
+    @Test
+    void cargarEnBloque() {
+        IndiceOrdenado<Integer, String> deAUno = IndiceOrdenado.porOrdenNatural();
+        List<Integer> claves = new ArrayList<>();
+        List<String> valores = new ArrayList<>();
+        Random azar = new Random(11);
+        for (int i = 0; i < 1000; i++) {
+            int clave = azar.nextInt(50);
+            claves.add(clave);
+            valores.add(clave + "-" + i);
+            deAUno.agregar(clave, clave + "-" + i);
+        }
+        IndiceOrdenado<Integer, String> enBloque = IndiceOrdenado.porOrdenNatural();
+        enBloque.cargar(claves, valores);
+
+        assertEquals(deAUno.valores(), enBloque.valores());
+        enBloque.agregar(25, "nuevo");
+        enBloque.quitar(claves.get(0), valores.get(0));
+        deAUno.agregar(25, "nuevo");
+        deAUno.quitar(claves.get(0), valores.get(0));
+        assertEquals(deAUno.valores(), enBloque.valores());
+    }
+}
@@ -0,0 +1,150 @@
+package ar.unrn.miagenda.busqueda;
+
+import ar.unrn.miagenda.agenda.Agenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link BuscadorDeContactos}.
+ */
+class BuscadorDeContactosTest {
+
+    /**
+     * Obtiene los nombres de los contactos encontrados, en orden.
+     *
+     * @param resultados Los resultados de una búsqueda.
+     * @return Los nombres de los contactos.
+     */
+    private static List<String> nombres(List<ResultadoDeBusqueda> resultados) {
+        List<String> nombres = new ArrayList<>();
+        for (ResultadoDeBusqueda resultado : resultados) {
+            nombres.add(resultado.obtenerContacto().obtenerNombre());
+        }
+        return nombres;
+    }
+
+    /**
+     * Prueba que se encuentren los contactos por palabras sueltas, prefijos
+     * y nombres mal escritos, ordenados por relevancia.
+     */
+    @Test
+    void buscarPorPalabrasPrefijosYErrores() {
+        BuscadorDeContactos buscador = new BuscadorDeContactos();
+        buscador.agregar(new Contacto("Demian Castañeda", "1", null));
+        buscador.agregar(new Contacto("Karina Castro", "2", null));
+        buscador.agregar(new Contacto("Juan Pérez", "3", null));
+        buscador.agregar(new Contacto("Juana Castañeda-Pérez", "4", null));
+
+        assertEquals(List.of("Demian Castañeda", "Juana Castañeda-Pérez"),
+                nombres(buscador.buscar("Castaneda", 10)));
+        assertEquals(List.of("Demian Castañeda"),
+                nombres(buscador.buscar("demian CASTANEDA", 1)));
+        assertEquals(List.of("Demian Castañeda", "Juana Castañeda-Pérez"),
+                nombres(buscador.buscar("Catsañeda", 10)));
+        assertEquals(List.of("Demian Castañeda"), nombres(buscador.buscar("Damian", 10)));
+        assertEquals(List.of("Karina Castro", "Demian Castañeda",
+                        "Juana Castañeda-Pérez"),
+                nombres(buscador.buscar("cast", 10)));
+        assertEquals(List.of("Juan Pérez", "Juana Castañeda-Pérez"),
+                nombres(buscador.buscar("juan", 10)));
+        assertEquals(List.of("Juana Castañeda-Pérez", "Juan Pérez",
+                        "Demian Castañeda"),
+                nombres(buscador.buscar("perez castaneda juana", 10)));
+
+        List<ResultadoDeBusqueda> resultados = buscador.buscar("juan perez", 10);
+        assertTrue(resultados.get(0).obtenerPuntaje()
+                > resultados.get(1).obtenerPuntaje());
+        assertEquals(List.of(), buscador.buscar("  - ", 10));
+        assertEquals(List.of(), buscador.buscar("zzzz", 10));
+        assertThrows(IllegalArgumentException.class, () -> buscador.buscar("juan", -1));
+    }
+
+    /**
+     * Prueba que las altas, bajas y reemplazos se reflejen en las búsquedas,
+     * también luego de compactar el índice.
+     */
+    @Test
+    void actualizarIndice() {
+        BuscadorDeContactos buscador = new BuscadorDeContactos();
+        List<Contacto> contactos = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            contactos.add(new Contacto("Persona " + i, String.valueOf(i), null));
+        }
+        buscador.agregarTodos(contactos);
+        buscador.agregar(new Contacto("Alma Prat", "7", null));
+        assertEquals(3000, buscador.cantidadContactos());
+        assertEquals(List.of("Alma Prat"), nombres(buscador.buscar("alma", 10)));
+        assertEquals(List.of(), buscador.buscar("7", 10));
+
+        for (int i = 0; i < 2500; i++) {
+            assertTrue(buscador.quitar(contactos.get(i)));
+        }
+        assertEquals(500, buscador.cantidadContactos());
+        assertEquals(List.of("Persona 2999"), nombres(buscador.buscar("2999", 10)));
+        assertEquals(List.of(), buscador.buscar("2499", 10));
+        assertEquals(List.of(), buscador.buscar("1234", 10));
+        assertEquals(500, buscador.buscar("persona", 1000).size());
+
+        buscador.limpiar();
+        assertEquals(0, buscador.cantidadContactos());
+        assertEquals(List.of(), buscador.buscar("persona", 10));
+    }
+
+    /**
+     * Prueba que la puntuación en paralelo devuelva los mismos resultados que
+     * la secuencial, y que la agenda mantenga el índice actualizado.
+     *
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    @Test
+    void buscarEnParaleloDesdeLaAgenda() throws Exception {
+        Agenda envuelta = new Agenda();
+        envuelta.agregarContacto(new Contacto("Sofía Reyes", "1", null));
+        ForkJoinPool hilos = new ForkJoinPool(4);
+        try {
+            AgendaConBusqueda agenda =
+                    new AgendaConBusqueda(envuelta, new BuscadorDeContactos(hilos));
+            List<Contacto> contactos = new ArrayList<>();
+            for (int i = 2; i < 50_000; i++) {
+                contactos.add(new Contacto((i % 2 == 0 ? "Sofía " : "Sofia Rey ") + i,
+                        String.valueOf(i), null));
+            }
+            agenda.agregarContactos(contactos);
+
+            List<ResultadoDeBusqueda> mejores = agenda.buscarContactos("sofia rey", 3);
+            assertEquals(List.of("Sofía Reyes", "Sofia Rey 3", "Sofia Rey 5"),
+                    nombres(mejores));
+            assertEquals(25_000, agenda.buscarContactos("rey", 50_000).size());
+
+            agenda.eliminarContacto(new Contacto(null, "1", null));
+            assertEquals(List.of("Sofia Rey 3"),
+                    nombres(agenda.buscarContactos("reys", 1)));
+            agenda.limpiarAgenda();
+            assertEquals(List.of(), agenda.buscarContactos("sofia", 10));
+        } finally {
+            hilos.shutdown();
+        }
+    }
+
+    /**
+     * Prueba el cálculo de la distancia de edición, incluidos los
+     * intercambios de letras vecinas y el corte por distancia máxima.
+     */
+    @Test
+    void calcularDistanciaDeEdicion() {
+        assertEquals(0, DistanciaDeEdicion.calcular("castaneda", "castaneda", 2));
+        assertEquals(1, DistanciaDeEdicion.calcular("castaneda", "catsaneda", 2));
+        assertEquals(1, DistanciaDeEdicion.calcular("gomez", "gomes", 2));
+        assertEquals(2, DistanciaDeEdicion.calcular("martin", "martina", 2) + 1);
+        assertEquals(3, DistanciaDeEdicion.calcular("ana", "benjamin", 2));
+        assertEquals(2, DistanciaDeEdicion.calcular("lucia", "lcuai", 2));
+    }
+}
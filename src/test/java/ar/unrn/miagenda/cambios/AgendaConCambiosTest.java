@@ -0,0 +1,221 @@
+package ar.unrn.miagenda.cambios;
+
+import ar.unrn.miagenda.agenda.Agenda;
+import ar.unrn.miagenda.agenda.InstantaneaAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.CambiosPerdidosException;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link AgendaConCambios}.
+ */
+class AgendaConCambiosTest {
+
+    /**
+     * Describe una lista de cambios con su tipo y los elementos afectados.
+     *
+     * @param cambios Los cambios a describir.
+     * @return La descripción de cada cambio, sin su secuencia.
+     */
+    private static List<String> describir(List<Cambio> cambios) {
+        List<String> descripciones = new ArrayList<>();
+        for (Cambio cambio : cambios) {
+            String texto = cambio.toString();
+            descripciones.add(texto.substring(texto.indexOf(' ') + 1));
+        }
+        return descripciones;
+    }
+
+    /**
+     * Prueba que cada modificación se publique como cambios tipados, en
+     * orden, incluida la quita de invitaciones al eliminar un contacto, y
+     * que las operaciones que fallan no publiquen nada.
+     *
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    @Test
+    void publicarModificaciones() throws Exception {
+        AgendaConCambios agenda = new AgendaConCambios(new Agenda());
+        Suscripcion suscripcion = agenda.suscribir();
+        Contacto ana = new Contacto("Ana", "1", null);
+        Contacto beto = new Contacto("Beto", "2", null);
+        Evento asado = new Evento("Asado", LocalDate.of(2024, 3, 2), List.of(ana));
+
+        agenda.agregarContactos(List.of(ana, beto));
+        agenda.crearEvento(asado);
+        agenda.agregarInvitadoEvento(asado, beto);
+        assertThrows(ContactoDuplicadoException.class, () -> agenda.agregarContacto(ana));
+        assertThrows(ContactoNoEncontradoEnAgendaException.class,
+                () -> agenda.eliminarContacto(null));
+        agenda.quitarInvitadoEvento(asado, ana);
+        agenda.eliminarContacto(new Contacto(null, "2", null));
+        agenda.limpiarAgenda();
+
+        List<Cambio> primeros = suscripcion.recibir(3);
+        assertEquals(List.of("CONTACTO_AGREGADO 1", "CONTACTO_AGREGADO 2",
+                "EVENTO_CREADO Asado"), describir(primeros));
+        assertEquals(0, primeros.get(0).obtenerSecuencia());
+        assertEquals(6, suscripcion.pendientes());
+        assertEquals(List.of("INVITADO_AGREGADO 1 Asado", "INVITADO_AGREGADO 2 Asado",
+                        "INVITADO_QUITADO 1 Asado", "INVITADO_QUITADO 2 Asado",
+                        "CONTACTO_ELIMINADO 2", "AGENDA_VACIADA"),
+                describir(suscripcion.recibir(100)));
+        assertEquals(9, agenda.suscribir().obtenerPosicion());
+        assertEquals(List.of(), suscripcion.recibir(100));
+        assertEquals(9, agenda.cantidadPublicada());
+        assertThrows(IllegalArgumentException.class, () -> suscripcion.recibir(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AgendaConCambios(new Agenda(), 100));
+    }
+
+    /**
+     * Prueba que una suscripción atrasada más que la capacidad sea avisada,
+     * y que pueda recuperarse a partir de una instantánea sin afectar a las
+     * demás suscripciones.
+     *
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    @Test
+    void sincronizarLuegoDePerderCambios() throws Exception {
+        AgendaConCambios agenda = new AgendaConCambios(new Agenda(), 8);
+        Suscripcion lenta = agenda.suscribir();
+        Suscripcion rapida = agenda.suscribir();
+        int recibidos = 0;
+        for (int i = 0; i < 20; i++) {
+            agenda.agregarContacto(new Contacto("Persona " + i, String.valueOf(i), null));
+            recibidos = recibidos + rapida.recibir(100).size();
+        }
+        assertEquals(20, recibidos);
+        assertEquals(20, agenda.obtenerMayorAtraso());
+        assertThrows(CambiosPerdidosException.class, () -> lenta.recibir(1));
+        assertThrows(CambiosPerdidosException.class, () -> lenta.recibir(1));
+
+        InstantaneaAgenda instantanea = agenda.sincronizar(lenta);
+        assertEquals(20, instantanea.cantidadContactos());
+        assertEquals(List.of(), lenta.recibir(10));
+        agenda.eliminarContacto(new Contacto(null, "3", null));
+        assertEquals(List.of("CONTACTO_ELIMINADO 3"), describir(lenta.recibir(10)));
+        assertEquals(21, lenta.obtenerPosicion());
+
+        lenta.cancelar();
+        assertTrue(lenta.estaCancelada());
+        assertEquals(1, agenda.obtenerMayorAtraso());
+        assertThrows(IllegalStateException.class, () -> lenta.recibir(1));
+    }
+
+    /**
+     * Prueba que una operación con más cambios que la cuarta parte del
+     * buffer se publique como un único lote que un suscriptor al día recibe
+     * completo, y que los cambios no reflejen modificaciones posteriores del
+     * evento.
+     *
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    @Test
+    void agruparOperacionesGrandes() throws Exception {
+        AgendaConCambios agenda = new AgendaConCambios(new Agenda(), 16);
+        Suscripcion suscripcion = agenda.suscribir();
+        List<Contacto> contactos = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            contactos.add(new Contacto("Persona " + i, String.valueOf(i), null));
+        }
+        agenda.agregarContactos(contactos);
+        Evento asado = new Evento("Asado", LocalDate.of(2024, 3, 2),
+                contactos.subList(0, 2));
+        agenda.crearEvento(asado);
+        agenda.agregarInvitadoEvento(asado, contactos.get(2));
+
+        List<Cambio> cambios = suscripcion.recibir(100);
+        assertEquals(List.of("LOTE 20", "EVENTO_CREADO Asado",
+                "INVITADO_AGREGADO 0 Asado", "INVITADO_AGREGADO 1 Asado",
+                "INVITADO_AGREGADO 2 Asado"), describir(cambios));
+        Cambio lote = cambios.get(0);
+        assertEquals(TipoDeCambio.LOTE, lote.obtenerTipo());
+        assertEquals(0, lote.obtenerSecuencia());
+        assertEquals("0 CONTACTO_AGREGADO 19", lote.obtenerCambios().get(19).toString());
+        assertThrows(UnsupportedOperationException.class,
+                () -> lote.obtenerCambios().remove(0));
+        assertEquals(5, agenda.cantidadPublicada());
+
+        Cambio creacion = cambios.get(1);
+        assertEquals(asado, creacion.obtenerEvento());
+        assertEquals(LocalDate.of(2024, 3, 2), creacion.obtenerFechaEvento());
+        assertEquals(List.of(), creacion.obtenerEvento().obtenerInvitadosEvento());
+        assertTrue(creacion.obtenerEvento() != creacion.obtenerEvento());
+        assertEquals(null, lote.obtenerEvento());
+    }
+
+    /**
+     * Prueba que un suscriptor que espera cambios sea despertado al
+     * publicarse uno, y que vuelva sin cambios al cancelar la suscripción.
+     *
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    @Test
+    void esperarCambios() throws Exception {
+        AgendaConCambios agenda = new AgendaConCambios(new Agenda());
+        Suscripcion suscripcion = agenda.suscribir();
+        assertEquals(List.of(), suscripcion.esperar(10, 1, TimeUnit.MILLISECONDS));
+
+        Thread escritor = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                agenda.agregarContacto(new Contacto("Ana", "1", null));
+            } catch (InterruptedException | ContactoDuplicadoException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        escritor.start();
+        List<Cambio> lote = suscripcion.esperar(10, 10, TimeUnit.SECONDS);
+        escritor.join();
+        assertEquals(List.of("CONTACTO_AGREGADO 1"), describir(lote));
+
+        Thread cancelador = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            suscripcion.cancelar();
+        });
+        cancelador.start();
+        assertEquals(List.of(), suscripcion.esperar(10, 10, TimeUnit.SECONDS));
+        cancelador.join();
+    }
+
+    /**
+     * Prueba que los invitados de un evento registrado no puedan modificarse
+     * directamente sobre el evento, ya que el cambio no se publicaría.
+     *
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    @Test
+    void rechazarCambiosDirectosDeInvitados() throws Exception {
+        AgendaConCambios agenda = new AgendaConCambios(new Agenda());
+        Contacto ana = new Contacto("Ana", "1", null);
+        Contacto beto = new Contacto("Beto", "2", null);
+        Evento asado = new Evento("Asado", LocalDate.of(2024, 3, 2), List.of(ana));
+        agenda.agregarContactos(List.of(ana, beto));
+        agenda.crearEvento(asado);
+        Suscripcion suscripcion = agenda.suscribir();
+
+        assertThrows(IllegalStateException.class, () -> asado.agregarInvitado(beto));
+        assertThrows(IllegalStateException.class, () -> asado.quitarInvitado(ana));
+        assertEquals(List.of(), suscripcion.recibir(10));
+        agenda.agregarInvitadoEvento(asado, beto);
+        assertEquals(List.of("INVITADO_AGREGADO 2 Asado"),
+                describir(suscripcion.recibir(10)));
+    }
+}
@@ -0,0 +1,208 @@
+package ar.unrn.miagenda.consulta;
+
+import ar.unrn.miagenda.agenda.Agenda;
+import ar.unrn.miagenda.agenda.AgendaConcurrente;
+import ar.unrn.miagenda.agenda.InstantaneaAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para las consultas de contactos y eventos.
+ */
+class ConsultaTest {
+
+    /**
+     * Obtiene los nombres de una lista de contactos, en orden.
+     *
+     * @param contactos Los contactos.
+     * @return Los nombres de los contactos.
+     */
+    private static List<String> nombres(List<Contacto> contactos) {
+        List<String> nombres = new ArrayList<>();
+        for (Contacto contacto : contactos) {
+            nombres.add(contacto.obtenerNombre());
+        }
+        return nombres;
+    }
+
+    /**
+     * Crea una agenda con mil contactos, uno por día a partir de 1990, y un
+     * evento al que están invitados los contactos múltiplos de cien.
+     *
+     * @return La agenda creada.
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    private static Agenda crearAgenda() throws Exception {
+        Agenda agenda = new Agenda();
+        List<Contacto> contactos = new ArrayList<>();
+        List<Contacto> invitados = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Contacto contacto = new Contacto(String.format("Persona %04d", i),
+                    String.valueOf(i), LocalDate.of(1990, 1, 1).plusDays(i));
+            contactos.add(contacto);
+            if (i % 100 == 0) {
+                invitados.add(contacto);
+            }
+        }
+        contactos.add(new Contacto("Ána  Pérez", "5000", null));
+        contactos.add(new Contacto("ana perez", "5001", LocalDate.of(1980, 5, 1)));
+        agenda.agregarContactos(contactos);
+        agenda.crearEvento(new Evento("Asado", LocalDate.of(2024, 3, 2), invitados));
+        return agenda;
+    }
+
+    /**
+     * Prueba que las consultas de contactos devuelvan los contactos que
+     * cumplen todas las condiciones, en el orden y la cantidad pedidos.
+     *
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    @Test
+    void consultarContactos() throws Exception {
+        Agenda agenda = crearAgenda();
+        Evento asado = agenda.consultarEventos().get(0);
+
+        assertEquals(List.of("Persona 0100", "Persona 0200", "Persona 0300"),
+                nombres(ConsultaDeContactos.sobre(agenda)
+                        .nacidosEntre(LocalDate.of(1990, 3, 1),
+                                LocalDate.of(1990, 12, 31))
+                        .invitadosA(asado)
+                        .ordenadosPorNombre()
+                        .listar()));
+        assertEquals(List.of("ana perez", "Ána  Pérez"),
+                nombres(ConsultaDeContactos.sobre(agenda).conNombre("ANA PEREZ")
+                        .ordenadosPorNombre().listar()));
+        assertEquals(List.of("Persona 0123"),
+                nombres(ConsultaDeContactos.sobre(agenda).conDni("123").listar()));
+        assertEquals(10, ConsultaDeContactos.sobre(agenda)
+                .conNombreQueEmpiezaCon("persona 050").contar());
+        assertEquals(List.of("ana perez", "Persona 0000"),
+                nombres(ConsultaDeContactos.sobre(agenda).ordenadosPorNacimiento()
+                        .donde(contacto -> contacto.obtenerFechaNacimiento() != null)
+                        .limitar(2).listar()));
+        assertEquals(Optional.empty(), ConsultaDeContactos.sobre(agenda)
+                .conDni("123").invitadosA(asado).primero());
+
+        ConsultaDeContactos todos = ConsultaDeContactos.sobre(agenda);
+        assertEquals(1002, todos.contar());
+        agenda.eliminarContacto(new Contacto(null, "5000", null));
+        assertEquals(1001, todos.contar());
+        assertThrows(IllegalArgumentException.class, () -> todos.limitar(-1));
+        assertThrows(IllegalArgumentException.class, () -> todos.nacidosEntre(
+                LocalDate.of(2000, 1, 1), LocalDate.of(1999, 1, 1)));
+    }
+
+    /**
+     * Prueba que las consultas de eventos devuelvan los eventos que cumplen
+     * todas las condiciones, en el orden pedido.
+     *
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    @Test
+    void consultarEventos() throws Exception {
+        Agenda agenda = crearAgenda();
+        Contacto contacto = agenda.consultarContactoPorDni("100").orElseThrow();
+        List<Contacto> invitados = List.of(contacto);
+        agenda.crearEvento(new Evento("Cena", LocalDate.of(2024, 3, 1), invitados));
+        agenda.crearEvento(new Evento("Viaje", LocalDate.of(2024, 5, 1), invitados));
+        agenda.crearEvento(new Evento("Cumpleaños", LocalDate.of(2024, 3, 9), List.of()));
+
+        assertEquals(List.of("Cena", "Asado"), ConsultaDeEventos.sobre(agenda)
+                .conInvitado(contacto)
+                .entre(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31))
+                .ordenadosPorFecha()
+                .stream().map(Evento::obtenerNombreEvento)
+                .collect(Collectors.toList()));
+        assertEquals(3, ConsultaDeEventos.sobre(agenda)
+                .entre(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)).contar());
+        assertEquals("Viaje", ConsultaDeEventos.sobre(agenda).ordenadosPorFecha()
+                .listar().get(3).obtenerNombreEvento());
+        assertEquals(1, ConsultaDeEventos.sobre(agenda).conNombre("cumpleanos").contar());
+    }
+
+    /**
+     * Prueba que el planificador elija el índice más selectivo y evite
+     * ordenar cuando el recorrido ya entrega el orden pedido.
+     *
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    @Test
+    void elegirElIndiceMasSelectivo() throws Exception {
+        Agenda agenda = crearAgenda();
+        Evento asado = agenda.consultarEventos().get(0);
+
+        String plan = ConsultaDeContactos.sobre(agenda)
+                .nacidosEntre(LocalDate.of(1990, 1, 1), LocalDate.of(1992, 12, 31))
+                .invitadosA(asado)
+                .ordenadosPorNombre()
+                .explicar();
+        assertTrue(plan.startsWith("recorrer invitados del evento (10)"), plan);
+        assertTrue(plan.contains("ordenar por nombre"), plan);
+
+        plan = ConsultaDeContactos.sobre(agenda)
+                .nacidosEntre(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 1, 5))
+                .invitadosA(asado)
+                .explicar();
+        assertTrue(plan.startsWith("recorrer índice por nacimiento (5)"), plan);
+        assertTrue(plan.contains("filtrar por invitado a Asado"), plan);
+
+        plan = ConsultaDeContactos.sobre(agenda).conDni("7").ordenadosPorNombre()
+                .explicar();
+        assertTrue(plan.startsWith("recorrer índice por dni (1)"), plan);
+        assertTrue(!plan.contains("ordenar"), plan);
+
+        plan = ConsultaDeContactos.sobre(agenda).ordenadosPorNacimiento().limitar(3)
+                .explicar();
+        assertEquals("recorrer contactos por nacimiento (1002) -> limitar a 3 "
+                + "[costo estimado 3]", plan);
+    }
+
+    /**
+     * Prueba que una consulta responda lo mismo sobre los índices vigentes de
+     * la agenda, a través de una agenda concurrente y sobre una instantánea,
+     * y que la instantánea no vea los cambios posteriores.
+     *
+     * @throws Exception Si falla alguna operación de la agenda.
+     */
+    @Test
+    void responderIgualSobreCualquierFuente() throws Exception {
+        Agenda agenda = crearAgenda();
+        AgendaConcurrente concurrente = new AgendaConcurrente(agenda);
+        InstantaneaAgenda instantanea = agenda.tomarInstantanea();
+        Evento asado = agenda.consultarEventos().get(0);
+
+        List<String> esperados = List.of("Persona 0100", "Persona 0200");
+        assertEquals(esperados, nombres(ConsultaDeContactos.sobre(agenda)
+                .nacidosEntre(LocalDate.of(1990, 3, 1), LocalDate.of(1990, 9, 30))
+                .invitadosA(asado).ordenadosPorNombre().listar()));
+        assertEquals(esperados, nombres(ConsultaDeContactos.sobre(concurrente)
+                .nacidosEntre(LocalDate.of(1990, 3, 1), LocalDate.of(1990, 9, 30))
+                .invitadosA(asado).ordenadosPorNombre().listar()));
+        assertEquals(esperados, nombres(ConsultaDeContactos.sobre(instantanea)
+                .nacidosEntre(LocalDate.of(1990, 3, 1), LocalDate.of(1990, 9, 30))
+                .invitadosA(asado).ordenadosPorNombre().listar()));
+        assertEquals(List.of("ana perez", "Ána  Pérez"),
+                nombres(ConsultaDeContactos.sobre(concurrente)
+                        .conNombreQueEmpiezaCon("ANA").ordenadosPorNombre().listar()));
+
+        agenda.agregarContactos(List.of(
+                new Contacto("Ana Gómez", "6000", LocalDate.of(1990, 4, 1))));
+        assertEquals(3, ConsultaDeContactos.sobre(concurrente)
+                .conNombreQueEmpiezaCon("ana").contar());
+        assertEquals(2, ConsultaDeContactos.sobre(instantanea)
+                .conNombreQueEmpiezaCon("ana").contar());
+        assertEquals(1, ConsultaDeEventos.sobre(concurrente)
+                .entre(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)).contar());
+    }
+}
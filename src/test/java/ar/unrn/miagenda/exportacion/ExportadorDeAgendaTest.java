@@ -0,0 +1,125 @@
+package ar.unrn.miagenda.exportacion;
+
+import ar.unrn.miagenda.agenda.Agenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.importacion.FormatoDeImportacion;
+import ar.unrn.miagenda.importacion.ImportadorDeContactos;
+import ar.unrn.miagenda.importacion.InformeDeImportacion;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link ExportadorDeAgenda}.
+ */
+class ExportadorDeAgendaTest {
+
+    /**
+     * Prueba que los contactos exportados como CSV comprimido, en más de una
+     * página, vuelven a importarse sin pérdidas.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void exportarEImportarContactosCsv() throws Exception {
+        Agenda agenda = new Agenda();
+        agenda.agregarContacto(new Contacto("Castañeda, Demian", "42000111", null));
+        agenda.agregarContacto(new Contacto("Juan \"Juancho\" Perez", "20000001",
+                LocalDate.of(1990, 2, 3)));
+        int cantidad = ExportadorDeAgenda.CONTACTOS_POR_PAGINA + 10;
+        for (int i = 0; i < cantidad; i++) {
+            agenda.agregarContacto(new Contacto("Contacto " + i,
+                    String.valueOf(10_000_000 + i), LocalDate.of(2000, 1, 1)));
+        }
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        new ExportadorDeAgenda(agenda).exportarContactos(salida,
+                FormatoDeExportacion.CSV, true);
+
+        Agenda copia = new Agenda();
+        try (InputStream entrada = new GZIPInputStream(
+                new ByteArrayInputStream(salida.toByteArray()))) {
+            InformeDeImportacion informe = new ImportadorDeContactos(copia)
+                    .importar(entrada, FormatoDeImportacion.CSV);
+            assertEquals(0, informe.obtenerCantidadErrores());
+        }
+        assertEquals(agenda.cantidadTotalContactos(), copia.cantidadTotalContactos());
+        assertEquals(agenda.listarContactosPorNombre(), copia.listarContactosPorNombre());
+        assertEquals("Juan \"Juancho\" Perez",
+                copia.buscarContactoPorDni("20000001").obtenerNombre());
+    }
+
+    /**
+     * Prueba la exportación de eventos como JSON por líneas e iCalendar.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void exportarEventos() throws Exception {
+        Agenda agenda = new Agenda();
+        Contacto alma = new Contacto("Alma Prat", "44121248", null);
+        agenda.agregarContacto(alma);
+        Evento evento = new Evento("Cena; fin de año, \"grupo\"",
+                LocalDate.of(2024, 12, 31), List.of());
+        agenda.crearEvento(evento);
+        agenda.agregarInvitadoEvento(evento, alma);
+        ExportadorDeAgenda exportador = new ExportadorDeAgenda(agenda);
+
+        StringWriter json = new StringWriter();
+        exportador.exportarEventos(json, FormatoDeExportacion.JSON_LINEAS);
+        StringWriter calendario = new StringWriter();
+        exportador.exportarEventos(calendario, FormatoDeExportacion.ICALENDAR);
+
+        assertEquals("{\"nombre\":\"Cena; fin de año, \\\"grupo\\\"\","
+                + "\"fecha\":\"2024-12-31\",\"invitados\":[\"44121248\"]}\n",
+                json.toString());
+        String ics = calendario.toString();
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(ics.contains("\r\nDTSTART;VALUE=DATE:20241231\r\n"));
+        assertTrue(ics.contains("\r\nSUMMARY:Cena\\; fin de año\\, \"grupo\"\r\n"));
+        assertTrue(ics.contains("\r\nATTENDEE;CN=\"Alma Prat\":urn:dni:44121248\r\n"));
+        assertTrue(ics.endsWith("END:VEVENT\r\nEND:VCALENDAR\r\n"));
+        assertThrows(IllegalArgumentException.class, () -> exportador
+                .exportarContactos(new StringWriter(), FormatoDeExportacion.ICALENDAR));
+    }
+
+    /**
+     * Prueba que las líneas largas de iCalendar se pliegan en líneas de hasta
+     * 75 bytes.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void plegarLineasIcalendar() throws Exception {
+        Agenda agenda = new Agenda();
+        agenda.crearEvento(new Evento("ñ".repeat(100), LocalDate.of(2024, 1, 1),
+                List.of()));
+        StringWriter calendario = new StringWriter();
+
+        new ExportadorDeAgenda(agenda).exportarEventos(calendario,
+                FormatoDeExportacion.ICALENDAR);
+
+        StringBuilder desplegado = new StringBuilder();
+        for (String linea : calendario.toString().split("\r\n")) {
+            assertTrue(linea.getBytes(StandardCharsets.UTF_8).length <= 75);
+            if (linea.startsWith(" ")) {
+                desplegado.append(linea.substring(1));
+            } else {
+                desplegado.append('\n').append(linea);
+            }
+        }
+        assertTrue(desplegado.toString().contains("\nSUMMARY:" + "ñ".repeat(100) + "\n"));
+    }
+}
@@ -0,0 +1,94 @@
+package ar.unrn.miagenda.importacion;
+
+import ar.unrn.miagenda.agenda.Agenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link ImportadorDeContactos}.
+ */
+class ImportadorDeContactosTest {
+
+    /**
+     * Crea un flujo con el texto indicado.
+     *
+     * @param texto El contenido del flujo.
+     * @return El flujo.
+     */
+    private static InputStream flujo(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Prueba la importación de un CSV con cabecera, comillas, duplicados y
+     * filas inválidas, repartido en varios lotes.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void importarCsv() throws Exception {
+        Agenda agenda = new Agenda();
+        agenda.agregarContacto(new Contacto("Karina Reyes", "30.111.222", null));
+        String csv = "nombre,dni,fechaNacimiento\n"
+                + "Alma Prat,44.121.248,2002-06-07\n"
+                + "\"Castañeda, Demian\",42000111,\n"
+                + "\n"
+                + "Alma Repetida,44121248,2001-01-01\n"
+                + "Karina Otra,30111222,\n"
+                + "Sin Fecha,12345678,07/06/2002\n"
+                + "Incompleta,1\n"
+                + "Juan \"Juancho\" Perez,20.000.001,1990-02-03\n";
+        ImportadorDeContactos importador = new ImportadorDeContactos(agenda, 2);
+
+        InformeDeImportacion informe = importador.importar(flujo(csv),
+                FormatoDeImportacion.CSV);
+
+        assertEquals(3, informe.obtenerImportados());
+        assertEquals(2, informe.obtenerDuplicados());
+        assertEquals(4, informe.obtenerCantidadErrores());
+        assertEquals(5, informe.obtenerErrores().get(0).obtenerLinea());
+        assertEquals(8, informe.obtenerErrores().get(3).obtenerLinea());
+        assertEquals(4, agenda.cantidadTotalContactos());
+        Contacto demian = agenda.buscarContactoPorDni("42.000.111");
+        assertEquals("Castañeda, Demian", demian.obtenerNombre());
+        assertNull(demian.obtenerFechaNacimiento());
+        assertEquals("Juan \"Juancho\" Perez",
+                agenda.buscarContactoPorDni("20000001").obtenerNombre());
+    }
+
+    /**
+     * Prueba la importación de JSON por líneas con escapes, valores nulos y
+     * filas inválidas.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void importarJsonLineas() throws Exception {
+        Agenda agenda = new Agenda();
+        String json = "{\"nombre\": \"Alma Prat\", \"dni\": \"44.121.248\", "
+                + "\"fechaNacimiento\": \"2002-06-07\"}\n"
+                + "{\"dni\": 42000111, \"nombre\": \"Dem\\u00edan \\\"D\\\"\", "
+                + "\"fechaNacimiento\": null, \"extra\": true}\n"
+                + "{\"nombre\": \"Sin DNI\"}\n"
+                + "no es json\n";
+        ImportadorDeContactos importador = new ImportadorDeContactos(agenda);
+
+        InformeDeImportacion informe = importador.importar(flujo(json),
+                FormatoDeImportacion.JSON_LINEAS);
+
+        assertEquals(2, informe.obtenerImportados());
+        assertEquals(2, informe.obtenerCantidadErrores());
+        assertEquals(LocalDate.of(2002, 6, 7),
+                agenda.buscarContactoPorDni("44121248").obtenerFechaNacimiento());
+        assertEquals("Demían \"D\"",
+                agenda.buscarContactoPorDni("42000111").obtenerNombre());
+    }
+}
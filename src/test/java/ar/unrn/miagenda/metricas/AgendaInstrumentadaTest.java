@@ -0,0 +1,148 @@
+package ar.unrn.miagenda.metricas;
+
+import ar.unrn.miagenda.agenda.Agenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link AgendaInstrumentada} y sus
+ * métricas.
+ */
+class AgendaInstrumentadaTest {
+
+    /**
+     * Prueba que el histograma calcule los percentiles con el error relativo
+     * prometido.
+     */
+    @Test
+    void calcularPercentiles() {
+        Histograma histograma = new Histograma();
+        assertEquals(0, histograma.valorEnPercentil(50));
+        for (int valor = 1; valor <= 100_000; valor++) {
+            histograma.registrar(valor);
+        }
+        assertEquals(100_000, histograma.cantidad());
+        assertEquals(100_000, histograma.maximo());
+        assertEquals(50_000.5, histograma.promedio(), 0.001);
+        assertEquals(1, histograma.valorEnPercentil(0));
+        assertEquals(100_000, histograma.valorEnPercentil(100));
+        for (double percentil : new double[] {10, 50, 90, 99, 99.9}) {
+            double esperado = percentil * 1_000;
+            long obtenido = histograma.valorEnPercentil(percentil);
+            assertTrue(obtenido >= esperado && obtenido <= esperado * 1.04,
+                    "Percentil " + percentil + ": " + obtenido);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> histograma.valorEnPercentil(101));
+
+        histograma.registrar(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histograma.valorEnPercentil(100));
+        histograma.reiniciar();
+        assertEquals(0, histograma.cantidad());
+        assertEquals(0, histograma.valorEnPercentil(99));
+    }
+
+    /**
+     * Prueba que se cuenten las llamadas, los errores, las excepciones por
+     * tipo y los indicadores de tamaño.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void registrarOperacionesYExcepciones() throws Exception {
+        AgendaInstrumentada agenda = new AgendaInstrumentada(new Agenda());
+        Contacto alma = new Contacto("Alma Prat", "44000001", null);
+        Contacto karina = new Contacto("Karina Sosa", "44000002", null);
+        agenda.agregarContactos(List.of(alma, karina));
+        assertThrows(ContactoDuplicadoException.class,
+                () -> agenda.agregarContacto(alma));
+        assertThrows(ContactoNoEncontradoEnAgendaException.class,
+                () -> agenda.buscarContactoPorDni("1"));
+        assertThrows(ContactoNoEncontradoEnAgendaException.class,
+                () -> agenda.buscarContactoPorDni("2"));
+        assertEquals(alma, agenda.buscarContactoPorDni("44000001"));
+        agenda.crearEvento(new Evento("Cumple", LocalDate.of(2025, 3, 1),
+                List.of(alma, karina)));
+        agenda.crearEvento(new Evento("Asado", null, List.of(karina)));
+
+        MetricasDeAgenda metricas = agenda.obtenerMetricas();
+        assertEquals(3, metricas.llamadas(OperacionMedida.BUSCAR_CONTACTO_POR_DNI));
+        assertEquals(2, metricas.errores(OperacionMedida.BUSCAR_CONTACTO_POR_DNI));
+        assertEquals(1, metricas.llamadas(OperacionMedida.AGREGAR_CONTACTO));
+        assertEquals(1, metricas.errores(OperacionMedida.AGREGAR_CONTACTO));
+        assertEquals(2, metricas.llamadas(OperacionMedida.CREAR_EVENTO));
+        assertEquals(0, metricas.errores(OperacionMedida.CREAR_EVENTO));
+        assertEquals(Map.of("ContactoDuplicadoException", 1L,
+                "ContactoNoEncontradoEnAgendaException", 2L), metricas.excepciones());
+        assertTrue(metricas.latencia(OperacionMedida.CREAR_EVENTO).maximo() > 0);
+        assertEquals(2, metricas.cantidadContactos());
+        assertEquals(2, metricas.cantidadEventos());
+        assertEquals(2, metricas.invitadosPorEvento().maximo());
+        assertEquals(1, metricas.invitadosPorEvento().valorEnPercentil(50));
+        assertSame(metricas.invitadosPorEvento(), metricas.invitadosPorEvento());
+
+        StringBuilder texto = new StringBuilder();
+        metricas.exportar(new ExportadorDeTexto(texto));
+        assertTrue(texto.toString().contains(
+                "miagenda_llamadas_total{operacion=\"buscarContactoPorDni\"} 3\n"));
+        assertTrue(texto.toString().contains(
+                "miagenda_excepciones_total{tipo=\"ContactoDuplicadoException\"} 1\n"));
+        assertTrue(texto.toString().contains("miagenda_contactos 2\n"));
+        assertFalse(texto.toString().contains("operacion=\"limpiarAgenda\""));
+
+        metricas.reiniciar();
+        assertEquals(0, metricas.llamadas(OperacionMedida.BUSCAR_CONTACTO_POR_DNI));
+        assertEquals(Map.of(), metricas.excepciones());
+        assertEquals(2, metricas.cantidadContactos());
+
+        agenda.crearEvento(new Evento("Cena", null, List.of(alma, karina)));
+        assertEquals(3, metricas.cantidadEventos());
+        assertEquals(2, metricas.invitadosPorEvento().valorEnPercentil(50));
+    }
+
+    /**
+     * Prueba que las métricas se publiquen y se quiten del servidor JMX de la
+     * plataforma.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void publicarPorJmx() throws Exception {
+        AgendaInstrumentada agenda = new AgendaInstrumentada(new Agenda());
+        agenda.agregarContacto(new Contacto("Alma Prat", "44000001", null));
+        agenda.consultarContactoPorDni("44000001");
+        MetricasDeAgenda metricas = agenda.obtenerMetricas();
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+
+        ObjectName nombre = metricas.registrarEnJmx("prueba");
+        try {
+            assertEquals(1, (int) servidor.getAttribute(nombre, "CantidadContactos"));
+            assertEquals(0, (int) servidor.getAttribute(nombre, "CantidadEventos"));
+            assertThrows(IllegalStateException.class,
+                    () -> metricas.registrarEnJmx("otra"));
+            assertEquals(1, (long) metricas.getLlamadas().get("consultarContactoPorDni"));
+            assertTrue(servidor.getAttribute(nombre, "Llamadas") != null);
+            servidor.invoke(nombre, "reiniciar", null, null);
+            assertEquals(0, (long) metricas.getLlamadas().get("consultarContactoPorDni"));
+        } finally {
+            metricas.quitarDeJmx();
+        }
+        assertFalse(servidor.isRegistered(nombre));
+    }
+}
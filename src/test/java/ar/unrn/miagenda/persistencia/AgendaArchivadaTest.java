@@ -0,0 +1,120 @@
+package ar.unrn.miagenda.persistencia;
+
+import ar.unrn.miagenda.agenda.Agenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.ContactoNoEncontradoEnAgendaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link AgendaArchivada}.
+ */
+class AgendaArchivadaTest {
+
+    @TempDir
+    Path directorio;
+
+    private Agenda agenda;
+    private Contacto alma;
+    private Contacto demian;
+    private Contacto karina;
+    private Evento fiesta;
+
+    /**
+     * Crea la agenda que se archiva en cada prueba.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        agenda = new Agenda();
+        alma = new Contacto("Alma Prat", "44.121.248", LocalDate.of(2002, 6, 7));
+        demian = new Contacto("Demian Castañeda", "42.000.111", null);
+        karina = new Contacto("Karina Reyes", "30.111.222", LocalDate.of(1985, 2, 1));
+        agenda.agregarContacto(alma);
+        agenda.agregarContacto(demian);
+        agenda.agregarContacto(karina);
+        fiesta = new Evento("Fiesta", LocalDate.of(2024, 12, 24), List.of(karina, alma));
+        agenda.crearEvento(fiesta);
+        agenda.crearEvento(new Evento("Asado", LocalDate.of(2025, 1, 5), List.of(alma)));
+    }
+
+    /**
+     * Prueba que la agenda archivada responda las búsquedas y los listados
+     * igual que la agenda original.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void consultarAgendaArchivada() throws Exception {
+        Path archivo = directorio.resolve("agenda.col");
+        FormatoColumnar.escribir(agenda.tomarInstantanea(), archivo);
+        AgendaArchivada archivada = new AgendaArchivada(archivo);
+
+        assertEquals(3, archivada.cantidadTotalContactos());
+        assertEquals(agenda.listarContactosPorNombre(),
+                archivada.listarContactosPorNombre());
+        assertEquals(agenda.listarContactosPorNacimiento(),
+                archivada.listarContactosPorNacimiento());
+        assertEquals(List.of(demian), archivada.listarContactosPorNombre(1, 1));
+        assertEquals("Demian Castañeda",
+                archivada.buscarContactoPorNombre("demian castaneda").obtenerNombre());
+        assertEquals(List.of(karina), archivada.buscarContactosPorPrefijo("KAR", 5));
+        assertEquals(List.of(demian), archivada.buscarContactosPorPrefijo("demian ", 5));
+        assertTrue(archivada.buscarContactosPorPrefijo("demian c ", 5).isEmpty());
+        Contacto encontrado = archivada.buscarContactoPorDni("44121248");
+        assertEquals(alma, encontrado);
+        assertEquals(LocalDate.of(2002, 6, 7), encontrado.obtenerFechaNacimiento());
+        assertTrue(archivada.verificarExistenciaContacto(demian));
+        assertFalse(archivada.verificarExistenciaContacto(
+                new Contacto("Otro", "12.345.678", null)));
+        assertThrows(ContactoNoEncontradoEnAgendaException.class,
+                () -> archivada.buscarContactoPorDni("abc"));
+
+        assertEquals(agenda.listarEventos(), archivada.listarEventos());
+        assertEquals(List.of(karina, alma),
+                archivada.listarEventos().get(0).obtenerInvitadosEvento());
+        assertEquals(agenda.listarEventosDeContacto(alma),
+                archivada.listarEventosDeContacto(alma));
+        assertEquals(List.of(), archivada.listarEventosDeContacto(demian));
+        assertThrows(UnsupportedOperationException.class,
+                () -> archivada.crearEvento(fiesta));
+    }
+
+    /**
+     * Prueba que los DNI con ceros a la izquierda o que no son numéricos se
+     * archiven y se recuperen tal como quedan al normalizarlos.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void conservarDniComoTexto() throws Exception {
+        Contacto ceros = new Contacto("Ceros", "00.123.456", null);
+        Contacto extranjero = new Contacto("Extranjero", "X-99", null);
+        agenda.agregarContacto(ceros);
+        agenda.agregarContacto(extranjero);
+        agenda.agregarContacto(new Contacto("Sin ceros", "123.456", null));
+        Path archivo = directorio.resolve("agenda.col");
+        FormatoColumnar.escribir(agenda.tomarInstantanea(), archivo);
+        AgendaArchivada archivada = new AgendaArchivada(archivo);
+
+        assertEquals(6, archivada.cantidadTotalContactos());
+        assertEquals("00123456", archivada.buscarContactoPorDni("00123456").obtenerDni());
+        assertEquals("Sin ceros",
+                archivada.buscarContactoPorDni("123456").obtenerNombre());
+        assertEquals("X-99", archivada.buscarContactoPorDni("X-99").obtenerDni());
+        assertEquals(agenda.tomarInstantanea().contactosPorNombre(),
+                archivada.tomarInstantanea().contactosPorNombre());
+    }
+}
@@ -0,0 +1,342 @@
+package ar.unrn.miagenda.persistencia;
+
+import ar.unrn.miagenda.agenda.AgendaConcurrente;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.evento.Evento;
+import ar.unrn.miagenda.excepciones.ContactoDuplicadoException;
+import ar.unrn.miagenda.excepciones.PersistenciaException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link AgendaPersistente}.
+ */
+class AgendaPersistenteTest {
+
+    @TempDir
+    Path directorio;
+
+    /**
+     * Prueba que al reabrir la agenda se recuperen los contactos, eventos e
+     * invitados registrados, sin las modificaciones deshechas.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void reabrirAgenda() throws Exception {
+        Path archivo = directorio.resolve("agenda.wal");
+        Contacto alma =
+                new Contacto("Alma Prat", "44.121.248", LocalDate.of(2002, 6, 7));
+        Contacto demian = new Contacto("Demian Reyes", "42.000.111", null);
+        Contacto karina =
+                new Contacto("Karina Sosa", "30.111.222", LocalDate.of(1985, 2, 1));
+        Evento fiesta = new Evento("Fiesta", LocalDate.of(2024, 12, 24), List.of(alma));
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.POR_LOTES)) {
+            agenda.agregarContacto(alma);
+            agenda.agregarContacto(demian);
+            agenda.agregarContacto(karina);
+            agenda.crearEvento(fiesta);
+            agenda.agregarInvitadoEvento(fiesta, demian);
+            agenda.agregarInvitadoEvento(fiesta, karina);
+            agenda.quitarInvitadoEvento(fiesta, demian);
+            agenda.eliminarContacto(karina);
+        }
+
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.INMEDIATA)) {
+            assertEquals(2, agenda.cantidadTotalContactos());
+            assertFalse(agenda.verificarExistenciaContacto(karina));
+            assertEquals("Demian Reyes",
+                    agenda.buscarContactoPorDni("42000111").obtenerNombre());
+            Evento recuperado = agenda.listarEventos().get(0);
+            assertEquals(fiesta, recuperado);
+            assertEquals(List.of(alma), recuperado.obtenerInvitadosEvento());
+        }
+    }
+
+    /**
+     * Prueba que una entrada escrita a medias al final del registro se descarte
+     * al reabrir la agenda, y que las nuevas entradas se agreguen detrás de la
+     * última entrada válida.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void descartarEntradaIncompleta() throws Exception {
+        Path archivo = directorio.resolve("agenda.wal");
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.SIN_SINCRONIZAR)) {
+            agenda.agregarContacto(new Contacto("Alma Prat", "44121248", null));
+            agenda.agregarContacto(new Contacto("Demian Reyes", "42000111", null));
+        }
+        long longitud = Files.size(archivo);
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.truncate(longitud - 3);
+        }
+
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.INMEDIATA)) {
+            assertEquals(1, agenda.cantidadTotalContactos());
+            agenda.agregarContacto(new Contacto("Karina Sosa", "30111222", null));
+        }
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.INMEDIATA)) {
+            assertEquals(2, agenda.cantidadTotalContactos());
+            assertTrue(agenda.verificarExistenciaContacto(
+                    new Contacto("Karina Sosa", "30.111.222", null)));
+        }
+    }
+
+    /**
+     * Prueba que al reabrir la agenda se cargue el punto de control y se
+     * reproduzcan solo las modificaciones posteriores a él.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void reabrirDesdePuntoDeControl() throws Exception {
+        Path archivo = directorio.resolve("agenda.wal");
+        Path puntoDeControl = directorio.resolve("agenda.ckp");
+        Contacto alma = new Contacto("Alma Prat", "44121248", null);
+        Contacto demian = new Contacto("Demian Reyes", "42000111", null);
+        Evento fiesta = new Evento("Fiesta", LocalDate.of(2024, 12, 24), List.of(alma));
+        try (AgendaPersistente agenda = new AgendaPersistente(archivo, puntoDeControl,
+                NivelDeDurabilidad.POR_LOTES)) {
+            agenda.agregarContacto(alma);
+            agenda.agregarContacto(demian);
+            agenda.crearEvento(fiesta);
+            agenda.guardarPuntoDeControl();
+            agenda.agregarInvitadoEvento(fiesta, demian);
+            agenda.eliminarContacto(alma);
+        }
+        assertTrue(Files.exists(puntoDeControl));
+
+        try (AgendaPersistente agenda = new AgendaPersistente(archivo, puntoDeControl,
+                NivelDeDurabilidad.INMEDIATA)) {
+            assertEquals(1, agenda.cantidadTotalContactos());
+            Evento recuperado = agenda.listarEventos().get(0);
+            assertEquals(List.of(demian),
+                    recuperado.obtenerInvitadosEvento());
+        }
+    }
+
+    /**
+     * Prueba que los lotes se registren y se recuperen al reabrir la agenda.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void reabrirLotes() throws Exception {
+        Path archivo = directorio.resolve("agenda.wal");
+        Contacto alma = new Contacto("Alma Prat", "44121248", null);
+        Contacto demian = new Contacto("Demian Reyes", "42000111", null);
+        Contacto karina = new Contacto("Karina Sosa", "30111222", null);
+        Evento fiesta = new Evento("Fiesta", LocalDate.of(2024, 12, 24), List.of(alma));
+        Evento cena = new Evento("Cena", LocalDate.of(2024, 12, 31), List.of());
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.INMEDIATA)) {
+            agenda.agregarContactos(List.of(alma, demian, karina));
+            agenda.crearEventos(List.of(fiesta, cena));
+            agenda.agregarInvitadosEvento(cena, List.of(karina, demian));
+        }
+
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.INMEDIATA)) {
+            assertEquals(3, agenda.cantidadTotalContactos());
+            assertEquals(List.of(fiesta, cena), agenda.listarEventos());
+            assertEquals(List.of(karina, demian),
+                    agenda.listarEventos().get(1).obtenerInvitadosEvento());
+        }
+    }
+
+    /**
+     * Prueba que una modificación rechazada por la agenda no quede en el
+     * registro, y que si quedó como última entrada se la ignore al reabrir.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void descartarModificacionRechazada() throws Exception {
+        Path archivo = directorio.resolve("agenda.wal");
+        Contacto alma = new Contacto("Alma Prat", "44121248", null);
+        long longitud;
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.POR_LOTES)) {
+            agenda.agregarContacto(alma);
+            longitud = agenda.obtenerRegistro().obtenerLongitud();
+            assertThrows(ContactoDuplicadoException.class,
+                    () -> agenda.agregarContacto(alma));
+            assertEquals(longitud, agenda.obtenerRegistro().obtenerLongitud());
+            // Simula una caída antes de quitar la entrada rechazada.
+            agenda.obtenerRegistro().registrarAltaContacto(alma);
+        }
+        assertTrue(Files.size(archivo) > longitud);
+
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.INMEDIATA)) {
+            assertEquals(1, agenda.cantidadTotalContactos());
+            assertEquals(longitud, agenda.obtenerRegistro().obtenerLongitud());
+        }
+    }
+
+    /**
+     * Prueba que un punto de control dañado se rechace antes de cargar nada
+     * en la agenda.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void rechazarPuntoDeControlDaniado() throws Exception {
+        Path archivo = directorio.resolve("agenda.wal");
+        Path puntoDeControl = directorio.resolve("agenda.ckp");
+        Contacto alma = new Contacto("Alma Prat", "44121248", null);
+        Contacto demian = new Contacto("Demian Reyes", "42000111", null);
+        try (AgendaPersistente agenda = new AgendaPersistente(archivo, puntoDeControl,
+                NivelDeDurabilidad.INMEDIATA)) {
+            agenda.agregarContactos(List.of(alma, demian));
+            agenda.crearEvento(new Evento("Fiesta", LocalDate.of(2024, 12, 24),
+                    List.of(demian, alma)));
+            agenda.guardarPuntoDeControl();
+        }
+        AgendaConcurrente destino = new AgendaConcurrente();
+        assertTrue(PuntoDeControl.cargar(puntoDeControl, destino) > 0);
+        assertEquals(List.of(demian, alma),
+                destino.consultarEventos().get(0).obtenerInvitadosEvento());
+
+        byte[] contenido = Files.readAllBytes(puntoDeControl);
+        int medio = contenido.length / 2;
+        contenido[medio] = (byte) (contenido[medio] ^ 1);
+        Files.write(puntoDeControl, contenido);
+        AgendaConcurrente vacia = new AgendaConcurrente();
+        assertThrows(PersistenciaException.class,
+                () -> PuntoDeControl.cargar(puntoDeControl, vacia));
+        assertEquals(0, vacia.cantidadTotalContactos());
+    }
+
+    /**
+     * Prueba que un grupo de entradas de lote sin su marca de fin se descarte
+     * completo al reabrir la agenda, y que un grupo completo se aplique como
+     * un único lote.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void descartarGrupoIncompleto() throws Exception {
+        Path archivo = directorio.resolve("agenda.wal");
+        Contacto alma = new Contacto("Alma Prat", "44121248", null);
+        long longitud;
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.INMEDIATA)) {
+            agenda.agregarContacto(alma);
+            longitud = agenda.obtenerRegistro().obtenerLongitud();
+        }
+        agregarEntrada(archivo, new byte[]{TipoDeRegistro.INICIO_GRUPO.obtenerCodigo()});
+        agregarEntrada(archivo, loteDeContactos(
+                new Contacto("Demian Reyes", "42000111", null)));
+
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.INMEDIATA)) {
+            assertEquals(1, agenda.cantidadTotalContactos());
+            assertEquals(longitud, agenda.obtenerRegistro().obtenerLongitud());
+        }
+        assertEquals(longitud, Files.size(archivo));
+
+        agregarEntrada(archivo, new byte[]{TipoDeRegistro.INICIO_GRUPO.obtenerCodigo()});
+        agregarEntrada(archivo, loteDeContactos(
+                new Contacto("Demian Reyes", "42000111", null)));
+        agregarEntrada(archivo, loteDeContactos(
+                new Contacto("Karina Sosa", "30111222", null)));
+        agregarEntrada(archivo, new byte[]{TipoDeRegistro.FIN_GRUPO.obtenerCodigo()});
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.INMEDIATA)) {
+            assertEquals(3, agenda.cantidadTotalContactos());
+            assertEquals(Files.size(archivo), agenda.obtenerRegistro().obtenerLongitud());
+        }
+    }
+
+    /**
+     * Codifica una entrada de alta de un lote de contactos.
+     *
+     * @param contactos Los contactos del lote.
+     * @return El contenido de la entrada.
+     * @throws IOException Si falla la codificación.
+     */
+    private static byte[] loteDeContactos(Contacto... contactos) throws IOException {
+        ByteArrayOutputStream carga = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(carga);
+        salida.writeByte(TipoDeRegistro.ALTA_CONTACTOS.obtenerCodigo());
+        salida.writeInt(contactos.length);
+        for (Contacto contacto : contactos) {
+            CodificadorBinario.escribirTexto(salida, contacto.obtenerNombre());
+            CodificadorBinario.escribirTexto(salida, contacto.obtenerDni());
+            CodificadorBinario.escribirFecha(salida, contacto.obtenerFechaNacimiento());
+        }
+        salida.flush();
+        return carga.toByteArray();
+    }
+
+    /**
+     * Agrega una entrada, con su longitud y su suma de verificación, al final
+     * de un registro.
+     *
+     * @param archivo El archivo de registro.
+     * @param carga El contenido de la entrada.
+     * @throws IOException Si falla la escritura.
+     */
+    private static void agregarEntrada(Path archivo, byte[] carga) throws IOException {
+        CRC32 verificacion = new CRC32();
+        verificacion.update(carga);
+        ByteBuffer entrada = ByteBuffer.allocate(carga.length + 2 * Integer.BYTES);
+        entrada.putInt(carga.length).put(carga).putInt((int) verificacion.getValue());
+        Files.write(archivo, entrada.array(), StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Prueba que los invitados de un evento registrado no puedan modificarse
+     * directamente sobre el evento, ya que el cambio no quedaría en el
+     * registro, y que los cambios hechos a través de la agenda se recuperen
+     * al reabrirla.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void rechazarCambiosDirectosDeInvitados() throws Exception {
+        Path archivo = directorio.resolve("agenda.wal");
+        Contacto alma = new Contacto("Alma Prat", "44121248", null);
+        Contacto beto = new Contacto("Beto Paz", "30111222", null);
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.POR_LOTES)) {
+            agenda.agregarContactos(List.of(alma, beto));
+            agenda.crearEvento(new Evento("Fiesta", LocalDate.of(2024, 12, 24),
+                    List.of(alma)));
+            Evento fiesta = agenda.listarEventos().get(0);
+            assertThrows(IllegalStateException.class, () -> fiesta.agregarInvitado(beto));
+            assertThrows(IllegalStateException.class, () -> fiesta.quitarInvitado(alma));
+            assertEquals(List.of(alma), fiesta.obtenerInvitadosEvento());
+            assertTrue(agenda.consultarEventosDeContacto(beto).isEmpty());
+            agenda.agregarInvitadoEvento(fiesta, beto);
+        }
+        try (AgendaPersistente agenda =
+                     new AgendaPersistente(archivo, NivelDeDurabilidad.POR_LOTES)) {
+            assertEquals(1, agenda.consultarEventosDeContacto(beto).size());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package ar.unrn.miagenda.servicio;
+
+import ar.unrn.miagenda.agenda.IAgenda;
+import ar.unrn.miagenda.contacto.Contacto;
+import ar.unrn.miagenda.persistencia.NivelDeDurabilidad;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clase de pruebas unitarias para la clase {@link ServicioDeAgendas}.
+ */
+class ServicioDeAgendasTest {
+
+    @TempDir
+    Path directorio;
+
+    /**
+     * Agrega un contacto a la agenda de un inquilino.
+     *
+     * @param servicio El servicio.
+     * @param inquilino El inquilino.
+     * @param contacto El contacto a agregar.
+     * @throws Exception Si falla alguna operación.
+     */
+    private static void agregar(ServicioDeAgendas servicio, String inquilino,
+                                Contacto contacto) throws Exception {
+        servicio.ejecutar(inquilino, agenda -> {
+            agenda.agregarContacto(contacto);
+            return null;
+        });
+    }
+
+    /**
+     * Prueba que al superar el presupuesto se descarguen las agendas menos
+     * usadas, y que vuelvan a cargarse desde el almacén al usarlas.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void descargarAgendasMenosUsadas() throws Exception {
+        long presupuesto = 2 * (ServicioDeAgendas.BYTES_POR_AGENDA
+                + ServicioDeAgendas.BYTES_POR_CONTACTO);
+        AlmacenEnDirectorio almacen =
+                new AlmacenEnDirectorio(directorio, NivelDeDurabilidad.SIN_SINCRONIZAR);
+        try (ServicioDeAgendas servicio = new ServicioDeAgendas(almacen, presupuesto)) {
+            agregar(servicio, "a", new Contacto("Alma Prat", "44121248", null));
+            agregar(servicio, "b", new Contacto("Demian Reyes", "42000111", null));
+            agregar(servicio, "c", new Contacto("Karina Sosa", "30111222", null));
+
+            assertFalse(servicio.estaCargada("a"));
+            assertTrue(servicio.estaCargada("b"));
+            assertTrue(servicio.estaCargada("c"));
+            assertEquals(presupuesto, servicio.obtenerPesoEstimado());
+
+            String nombre = servicio.ejecutar("a",
+                    agenda -> agenda.buscarContactoPorDni("44.121.248").obtenerNombre());
+            assertEquals("Alma Prat", nombre);
+            assertFalse(servicio.estaCargada("b"));
+            assertEquals(2, servicio.cantidadCargadas());
+        }
+
+        try (ServicioDeAgendas servicio = new ServicioDeAgendas(almacen, presupuesto)) {
+            assertEquals(1,
+                    (int) servicio.ejecutar("b", IAgenda::cantidadTotalContactos));
+            assertEquals(1,
+                    (int) servicio.ejecutar("c", IAgenda::cantidadTotalContactos));
+            assertThrows(IllegalArgumentException.class,
+                    () -> servicio.ejecutar("../d", IAgenda::cantidadTotalContactos));
+            assertFalse(servicio.estaCargada("../d"));
+        }
+    }
+
+    /**
+     * Prueba que los nombres y fechas repetidos entre inquilinos se compartan.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void compartirDatosEntreInquilinos() throws Exception {
+        AlmacenEnDirectorio almacen =
+                new AlmacenEnDirectorio(directorio, NivelDeDurabilidad.SIN_SINCRONIZAR);
+        try (ServicioDeAgendas servicio =
+                     new ServicioDeAgendas(almacen, Long.MAX_VALUE)) {
+            agregar(servicio, "a", new Contacto(new String("Juan Perez"), "1",
+                    LocalDate.of(1990, 2, 3)));
+            agregar(servicio, "b", new Contacto(new String("Juan Perez"), "2",
+                    LocalDate.of(1990, 2, 3)));
+
+            Contacto enA = servicio.ejecutar("a",
+                    agenda -> agenda.buscarContactoPorDni("1"));
+            Contacto enB = servicio.ejecutar("b",
+                    agenda -> agenda.buscarContactoPorDni("2"));
+            assertSame(enA.obtenerNombre(), enB.obtenerNombre());
+            assertSame(enA.obtenerFechaNacimiento(), enB.obtenerFechaNacimiento());
+            assertEquals(1, servicio.cantidadNombresCompartidos());
+            assertEquals(1, servicio.cantidadClavesCompartidas());
+        }
+    }
+
+    /**
+     * Prueba que una agenda que no puede guardarse al descargarse no afecte
+     * el resultado de la operación ni impida guardar las demás, y que la
+     * falla se informe al cerrar el servicio.
+     *
+     * @throws Exception Si falla alguna operación.
+     */
+    @Test
+    void informarFallasDeDescargaAlCerrar() throws Exception {
+        long presupuesto = ServicioDeAgendas.BYTES_POR_AGENDA
+                + ServicioDeAgendas.BYTES_POR_CONTACTO;
+        AlmacenQueFalla almacen = new AlmacenQueFalla("a");
+        ServicioDeAgendas servicio = new ServicioDeAgendas(almacen, presupuesto,
+                ServicioDeAgendas::estimarPeso, Runnable::run);
+        agregar(servicio, "a", new Contacto("Alma Prat", "44121248", null));
+        assertEquals(1, (int) servicio.ejecutar("b", agenda -> {
+            agenda.agregarContacto(new Contacto("Demian Reyes", "42000111", null));
+            return agenda.cantidadTotalContactos();
+        }));
+        assertFalse(servicio.estaCargada("a"));
+        agregar(servicio, "c", new Contacto("Karina Sosa", "30111222", null));
+        assertEquals(List.of("b"), almacen.guardados);
+
+        IOException error = assertThrows(IOException.class, servicio::close);
+        assertTrue(error.getCause().getMessage().endsWith("de a"));
+        assertEquals(List.of("b", "c"), almacen.guardados);
+    }
+
+    /**
+     * Almacén en memoria que no puede guardar la agenda de un inquilino.
+     */
+    private static final class AlmacenQueFalla implements AlmacenDeAgendas {
+        /**
+         * El inquilino cuya agenda no puede guardarse.
+         */
+        private final String fallido;
+        /**
+         * Los inquilinos cuyas agendas se guardaron, en orden.
+         */
+        private final List<String> guardados = new ArrayList<>();
+
+        /**
+         * Constructor que crea el almacén.
+         *
+         * @param inquilinoFallido El inquilino cuya agenda no puede guardarse.
+         */
+        private AlmacenQueFalla(String inquilinoFallido) {
+            this.fallido = inquilinoFallido;
+        }
+
+        @Override
+        public IAgenda abrir(String inquilino, IAgenda vacia) {
+            return vacia;
+        }
+
+        @Override
+        public void cerrar(String inquilino, IAgenda agenda) throws IOException {
+            if (inquilino.equals(this.fallido)) {
+                throw new IOException("Disco lleno");
+            }
+            this.guardados.add(inquilino);
+        }
+    }
+}